@@ -0,0 +1,88 @@
+package com.esmanage.benchmark;
+
+import com.esmanage.dto.IndicesResponseDTO;
+import com.esmanage.dto.MetricCatalog;
+import com.esmanage.dto.NodeDetailDTO;
+import com.esmanage.dto.NodesResponseDTO;
+import com.esmanage.dto.ResponseProjection;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kibana 响应反序列化基准
+ * 与 KibanaClient 一致：先读取完整响应字符串，再由 ObjectMapper 转为 DTO
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeserializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private String nodesJson;
+    private String indicesJson;
+    private String nodeDetailJson;
+    /** 只保留 CPU 指标、跳过节点摘要的读取器，对应 fields=cpu_percent */
+    private ObjectReader projectedNodeDetailReader;
+
+    @Setup
+    public void setup() {
+        objectMapper = Fixtures.objectMapper();
+        nodesJson = Fixtures.nodesJson();
+        indicesJson = Fixtures.indicesJson();
+        nodeDetailJson = Fixtures.nodeDetailJson();
+
+        boolean[] metrics = new boolean[MetricCatalog.size()];
+        metrics[MetricCatalog.NODE_CPU] = true;
+        projectedNodeDetailReader = objectMapper.readerFor(NodeDetailDTO.class)
+                .withAttribute(ResponseProjection.ATTRIBUTE, ResponseProjection.of(Set.of("nodeSummary"), metrics));
+    }
+
+    /**
+     * 300 个节点
+     */
+    @Benchmark
+    public NodesResponseDTO nodes() throws IOException {
+        return objectMapper.readValue(nodesJson, NodesResponseDTO.class);
+    }
+
+    /**
+     * 20000 个索引
+     */
+    @Benchmark
+    public IndicesResponseDTO indices() throws IOException {
+        return objectMapper.readValue(indicesJson, IndicesResponseDTO.class);
+    }
+
+    /**
+     * 8 个指标 × 2000 个采样点
+     */
+    @Benchmark
+    public NodeDetailDTO nodeDetail() throws IOException {
+        return objectMapper.readValue(nodeDetailJson, NodeDetailDTO.class);
+    }
+
+    /**
+     * 同一响应只保留 1 个指标，其余 7 个在解析时跳过
+     */
+    @Benchmark
+    public NodeDetailDTO nodeDetailProjected() throws IOException {
+        return projectedNodeDetailReader.readValue(nodeDetailJson);
+    }
+}
@@ -0,0 +1,301 @@
+package com.esmanage.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Random;
+
+/**
+ * 基准测试数据
+ * 按 Kibana Monitoring API 录制响应的结构生成（字段、嵌套层级、数值分布与空值比例一致），
+ * 固定随机种子，保证每次运行的输入完全相同
+ */
+public final class Fixtures {
+
+    /** 大集群规模 */
+    public static final int NODE_COUNT = 300;
+    public static final int INDEX_COUNT = 20_000;
+    public static final int NODE_METRIC_COUNT = 8;
+    public static final int POINTS_PER_SERIES = 2_000;
+
+    public static final String CLUSTER_ID = "Xk2pQ7vbTzKq1cY9dN3e4w";
+
+    /** 节点详情接口返回的 8 个指标 */
+    public static final String[] NODE_METRICS = {
+            "node_cpu_utilization", "node_jvm_mem", "node_load_average", "node_latency",
+            "node_index_mem", "node_total_io", "node_segment_count", "node_cgroup_cpu"
+    };
+
+    private static final String[] CLUSTER_METRICS = {
+            "cluster_search_request_rate", "cluster_query_latency",
+            "cluster_index_request_rate", "cluster_index_latency"
+    };
+
+    private static final String[] NODE_LIST_METRICS = {
+            "node_cgroup_throttled", "node_cpu_utilization", "node_load_average",
+            "node_jvm_mem_percent", "node_free_space"
+    };
+
+    /** 采样间隔 30 秒，与 Kibana 在 1 天时间范围内的 bucket_size 一致 */
+    private static final long BUCKET_MS = 30_000;
+    private static final long END_MS = 1_760_000_000_000L;
+
+    private static final ObjectMapper MAPPER = objectMapper();
+
+    private Fixtures() {
+    }
+
+    /**
+     * 与 KibanaClient 相同配置的 ObjectMapper
+     */
+    public static ObjectMapper objectMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        return mapper;
+    }
+
+    /**
+     * 节点列表响应（/elasticsearch/nodes）
+     */
+    public static String nodesJson() {
+        Random random = new Random(1);
+        return write(gen -> {
+            gen.writeStartObject();
+            writeClusterStatus(gen);
+            gen.writeArrayFieldStart("nodes");
+            for (int i = 0; i < NODE_COUNT; i++) {
+                boolean master = i < 3;
+                gen.writeStartObject();
+                gen.writeStringField("name", "es-node-" + i);
+                gen.writeStringField("uuid", uuid(random));
+                gen.writeBooleanField("isOnline", random.nextInt(100) != 0);
+                gen.writeNumberField("shardCount", master ? 0 : 180 + random.nextInt(60));
+                gen.writeStringField("transport_address", "10.0." + (i / 250) + "." + (i % 250 + 1) + ":9300");
+                gen.writeStringField("type", master ? "master" : "node");
+                gen.writeStringField("nodeTypeLabel", master ? "Master Node" : "Node");
+                gen.writeStringField("nodeTypeClass", master ? "starFilled" : "empty");
+                gen.writeArrayFieldStart("roles");
+                if (master) {
+                    gen.writeString("master");
+                } else {
+                    gen.writeString("data");
+                    gen.writeString("ingest");
+                    gen.writeString("transform");
+                }
+                gen.writeEndArray();
+                gen.writeStringField("resolver", "es-node-" + i);
+                for (String metric : NODE_LIST_METRICS) {
+                    gen.writeObjectFieldStart(metric);
+                    writeMetricInfo(gen, metric);
+                    gen.writeObjectFieldStart("summary");
+                    double min = random.nextDouble() * 40;
+                    double max = min + random.nextDouble() * 60;
+                    gen.writeNumberField("minVal", metric.equals("node_free_space") ? min * 1e10 : min);
+                    gen.writeNumberField("maxVal", metric.equals("node_free_space") ? max * 1e10 : max);
+                    gen.writeNumberField("lastVal", metric.equals("node_free_space")
+                            ? (min + (max - min) * random.nextDouble()) * 1e10
+                            : min + (max - min) * random.nextDouble());
+                    gen.writeNumberField("slope", random.nextInt(3) - 1);
+                    gen.writeEndObject();
+                    gen.writeEndObject();
+                }
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeNumberField("totalNodeCount", NODE_COUNT);
+            gen.writeEndObject();
+        });
+    }
+
+    /**
+     * 索引列表响应（/elasticsearch/indices）
+     */
+    public static String indicesJson() {
+        Random random = new Random(2);
+        return write(gen -> {
+            gen.writeStartObject();
+            writeClusterStatus(gen);
+            gen.writeArrayFieldStart("indices");
+            for (int i = 0; i < INDEX_COUNT; i++) {
+                int unassigned = random.nextInt(200) == 0 ? 1 + random.nextInt(3) : 0;
+                gen.writeStartObject();
+                gen.writeStringField("name", String.format("logs-app%03d-2025.%02d.%02d",
+                        i % 400, 1 + (i / 400) % 12, 1 + i % 28));
+                gen.writeStringField("status", unassigned > 0 ? "yellow" : "green");
+                gen.writeNumberField("doc_count", (long) (random.nextDouble() * 50_000_000));
+                gen.writeNumberField("data_size", (long) (random.nextDouble() * 40e9));
+                gen.writeNumberField("index_rate", random.nextInt(4) == 0 ? random.nextDouble() * 5000 : 0);
+                gen.writeNumberField("search_rate", random.nextDouble() * 200);
+                gen.writeNumberField("unassigned_shards", unassigned);
+                gen.writeNumberField("status_sort", unassigned > 0 ? 2 : 1);
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        });
+    }
+
+    /**
+     * 节点详情响应（/elasticsearch/nodes/{nodeId}），8 个指标 × 2000 个采样点
+     */
+    public static String nodeDetailJson() {
+        Random random = new Random(3);
+        return write(gen -> {
+            gen.writeStartObject();
+            gen.writeObjectFieldStart("nodeSummary");
+            gen.writeStringField("resolver", "es-node-42");
+            gen.writeArrayFieldStart("node_ids");
+            gen.writeString(uuid(random));
+            gen.writeEndArray();
+            gen.writeStringField("transport_address", "10.0.0.43:9300");
+            gen.writeStringField("name", "es-node-42");
+            gen.writeStringField("type", "node");
+            gen.writeStringField("nodeTypeLabel", "Node");
+            gen.writeStringField("nodeTypeClass", "empty");
+            gen.writeNumberField("totalShards", 212);
+            gen.writeNumberField("indexCount", 187);
+            gen.writeNumberField("documents", 4_212_345_678L);
+            gen.writeNumberField("dataSize", 1_812_345_678_901L);
+            gen.writeNumberField("freeSpace", 1_234_567_890_123L);
+            gen.writeNumberField("totalSpace", 3_298_534_883_328L);
+            gen.writeNumberField("usedHeap", 61);
+            gen.writeStringField("status", "Online");
+            gen.writeBooleanField("isOnline", true);
+            gen.writeEndObject();
+            gen.writeObjectFieldStart("metrics");
+            for (String metric : NODE_METRICS) {
+                gen.writeArrayFieldStart(metric);
+                writeSeries(gen, random, metric);
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+            gen.writeEndObject();
+        });
+    }
+
+    /**
+     * 集群概览响应（/elasticsearch），4 个集群指标 × 2000 个采样点
+     */
+    public static String clusterOverviewJson() {
+        Random random = new Random(4);
+        return write(gen -> {
+            gen.writeStartObject();
+            writeClusterStatus(gen);
+            gen.writeObjectFieldStart("metrics");
+            for (String metric : CLUSTER_METRICS) {
+                gen.writeArrayFieldStart(metric);
+                writeSeries(gen, random, metric);
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+            gen.writeObjectFieldStart("logs");
+            gen.writeBooleanField("enabled", false);
+            gen.writeArrayFieldStart("logs");
+            gen.writeEndArray();
+            gen.writeNumberField("limit", 10);
+            gen.writeEndObject();
+            gen.writeArrayFieldStart("shardActivity");
+            gen.writeEndArray();
+            gen.writeEndObject();
+        });
+    }
+
+    /**
+     * 解析测试数据
+     */
+    public static <T> T read(String json, Class<T> type) {
+        try {
+            return MAPPER.readValue(json, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeClusterStatus(JsonGenerator gen) throws IOException {
+        gen.writeObjectFieldStart("clusterStatus");
+        gen.writeStringField("status", "yellow");
+        gen.writeNumberField("indicesCount", INDEX_COUNT);
+        gen.writeNumberField("documentCount", 512_345_678_901L);
+        gen.writeNumberField("dataSize", 498_765_432_109_876L);
+        gen.writeNumberField("nodesCount", NODE_COUNT);
+        gen.writeNumberField("upTime", 86_400_000L * 97);
+        gen.writeArrayFieldStart("version");
+        gen.writeString("8.11.3");
+        gen.writeEndArray();
+        gen.writeNumberField("memUsed", 9_876_543_210_987L);
+        gen.writeNumberField("memMax", 15_461_882_265_600L);
+        gen.writeNumberField("unassignedShards", 117);
+        gen.writeNumberField("totalShards", 61_234);
+        gen.writeEndObject();
+    }
+
+    private static void writeMetricInfo(JsonGenerator gen, String metric) throws IOException {
+        gen.writeObjectFieldStart("metric");
+        gen.writeStringField("app", "elasticsearch");
+        gen.writeStringField("field", "node_stats." + metric.replace("node_", "").replace("cluster_", ""));
+        gen.writeStringField("metricAgg", "max");
+        gen.writeStringField("label", metric);
+        gen.writeStringField("title", metric);
+        gen.writeStringField("description", "Recorded " + metric + " metric.");
+        gen.writeStringField("units", "%");
+        gen.writeStringField("format", "0,0.[00]");
+        gen.writeBooleanField("hasCalculation", false);
+        gen.writeBooleanField("isDerivative", metric.endsWith("_rate"));
+        gen.writeEndObject();
+    }
+
+    private static void writeSeries(JsonGenerator gen, Random random, String metric) throws IOException {
+        long start = END_MS - BUCKET_MS * POINTS_PER_SERIES;
+        gen.writeStartObject();
+        gen.writeStringField("bucket_size", "30 seconds");
+        gen.writeObjectFieldStart("timeRange");
+        gen.writeNumberField("min", start);
+        gen.writeNumberField("max", END_MS);
+        gen.writeEndObject();
+        writeMetricInfo(gen, metric);
+        gen.writeArrayFieldStart("data");
+        double value = 20 + random.nextDouble() * 40;
+        for (int i = 0; i < POINTS_PER_SERIES; i++) {
+            gen.writeStartArray();
+            gen.writeNumber(start + i * BUCKET_MS);
+            // 最新的桶常因数据未到齐而为空，中间也偶有缺失
+            if (i == POINTS_PER_SERIES - 1 || random.nextInt(100) == 0) {
+                gen.writeNull();
+            } else {
+                value = Math.max(0, value + random.nextGaussian() * 2);
+                gen.writeNumber(value);
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    private static String uuid(Random random) {
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        StringBuilder sb = new StringBuilder(22);
+        for (int i = 0; i < 22; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+
+    private static String write(JsonWriter writer) {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator gen = MAPPER.getFactory().createGenerator(out)) {
+            writer.write(gen);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    @FunctionalInterface
+    private interface JsonWriter {
+        void write(JsonGenerator gen) throws IOException;
+    }
+}
@@ -0,0 +1,84 @@
+package com.esmanage.client;
+
+import com.esmanage.benchmark.Fixtures;
+import com.esmanage.config.KibanaConfig;
+import com.esmanage.config.TraceConfig;
+import com.esmanage.metrics.RequestTracer;
+import okhttp3.Request;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * KibanaClient 每次调用都会执行的路径简化与请求构建基准
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KibanaClientBenchmark {
+
+    private static final String BASE_URL = "http://kibana.example.internal:5601";
+
+    private KibanaClient kibanaClient;
+    private String nodePath;
+    private String indexPath;
+    private String url;
+    private byte[] jsonBody;
+
+    @Setup
+    public void setup() {
+        KibanaConfig kibanaConfig = new KibanaConfig();
+        kibanaConfig.setBaseUrl(BASE_URL);
+        kibanaConfig.setClusterId(Fixtures.CLUSTER_ID);
+        kibanaConfig.setUsername("elastic");
+        kibanaConfig.setPassword("changeme");
+        kibanaConfig.setVersion("8.11.3");
+        kibanaConfig.setBuildNumber("68624");
+        RequestTracer requestTracer = new RequestTracer(new TraceConfig());
+        requestTracer.init();
+        kibanaClient = new KibanaClient(kibanaConfig, Fixtures.objectMapper(), requestTracer);
+        kibanaClient.init();
+
+        String clusterPath = "/api/monitoring/v1/clusters/" + Fixtures.CLUSTER_ID + "/elasticsearch";
+        nodePath = clusterPath + "/nodes/Xb3kP9qLTgWm2vN8cR5yZa?ccs=*";
+        indexPath = clusterPath + "/indices/logs-app042-2025.06.17";
+        url = BASE_URL + clusterPath + "/nodes";
+        jsonBody = ("{\"timeRange\":{\"min\":\"2025-06-17T00:00:00Z\",\"max\":\"2025-06-18T00:00:00Z\"},"
+                + "\"pagination\":{\"index\":0,\"size\":20},\"sort\":{\"field\":\"name\",\"direction\":\"asc\"}}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String simplifyNodePath() {
+        return kibanaClient.simplifyPath(nodePath);
+    }
+
+    @Benchmark
+    public String simplifyIndexPath() {
+        return kibanaClient.simplifyPath(indexPath);
+    }
+
+    /** 未命中缓存时的逐段扫描 */
+    @Benchmark
+    public String computeNodeStatsPath() {
+        return KibanaClient.computeStatsPath(nodePath);
+    }
+
+    @Benchmark
+    public Request buildRequest() {
+        return kibanaClient.buildRequest(url, jsonBody);
+    }
+}
@@ -0,0 +1,150 @@
+package com.esmanage.service;
+
+import com.esmanage.benchmark.Fixtures;
+import com.esmanage.client.KibanaClient;
+import com.esmanage.config.FleetConfig;
+import com.esmanage.config.KibanaConfig;
+import com.esmanage.config.MonitorConfig;
+import com.esmanage.config.TraceConfig;
+import com.esmanage.dto.ClusterOverviewDTO;
+import com.esmanage.dto.IndexDetailDTO;
+import com.esmanage.dto.IndicesResponseDTO;
+import com.esmanage.dto.MetricCatalog;
+import com.esmanage.dto.MonitoringOverviewDTO;
+import com.esmanage.dto.NodeDetailDTO;
+import com.esmanage.dto.NodesResponseDTO;
+import com.esmanage.dto.ResponseProjection;
+import com.esmanage.dto.TimeSeriesDataDTO;
+import com.esmanage.dto.TimeSeriesPointDTO;
+import com.esmanage.dto.request.IndicesRequest;
+import com.esmanage.dto.request.NodesRequest;
+import com.esmanage.dto.request.TimeRangeRequest;
+import com.esmanage.metrics.RequestTracer;
+import com.esmanage.service.datasource.MonitoringDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 监控服务数据转换基准
+ * 数据源直接返回预先解析好的 DTO，只测量服务自身的转换与聚合
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MonitorServiceBenchmark {
+
+    private ElasticsearchMonitorService monitorService;
+    private TimeSeriesDataDTO series;
+    private TimeRangeRequest timeRange;
+
+    @Setup
+    public void setup() {
+        ClusterOverviewDTO clusterOverview = Fixtures.read(Fixtures.clusterOverviewJson(), ClusterOverviewDTO.class);
+        NodesResponseDTO nodes = Fixtures.read(Fixtures.nodesJson(), NodesResponseDTO.class);
+        NodeDetailDTO nodeDetail = Fixtures.read(Fixtures.nodeDetailJson(), NodeDetailDTO.class);
+        series = nodeDetail.getMetrics().get(MetricCatalog.NODE_CPU).get(0);
+
+        KibanaConfig kibanaConfig = new KibanaConfig();
+        kibanaConfig.setBaseUrl("http://kibana.example.internal:5601");
+        kibanaConfig.setClusterId(Fixtures.CLUSTER_ID);
+        RequestTracer requestTracer = new RequestTracer(new TraceConfig());
+        requestTracer.init();
+        KibanaClient kibanaClient = new KibanaClient(kibanaConfig, Fixtures.objectMapper(), requestTracer);
+        kibanaClient.init();
+
+        MonitorConfig monitorConfig = new MonitorConfig();
+        AnomalyDetectionService anomalyDetectionService = new AnomalyDetectionService(monitorConfig);
+        anomalyDetectionService.init();
+        ClusterDiscoveryService discoveryService = new ClusterDiscoveryService(kibanaClient, new FleetConfig());
+        ForecastService forecastService = new ForecastService(monitorConfig, discoveryService);
+        forecastService.init();
+
+        monitorService = new ElasticsearchMonitorService(discoveryService, monitorConfig,
+                List.of(new FixtureDataSource(clusterOverview, nodes, nodeDetail)),
+                anomalyDetectionService, forecastService);
+        monitorService.init();
+
+        timeRange = new TimeRangeRequest();
+        timeRange.setMin("2025-06-17T00:00:00Z");
+        timeRange.setMax("2025-06-18T00:00:00Z");
+    }
+
+    /**
+     * 2000 个采样点
+     */
+    @Benchmark
+    public List<TimeSeriesPointDTO> convertTimeSeries() {
+        return monitorService.convertTimeSeries(series);
+    }
+
+    /**
+     * 300 个节点、4 个集群指标 × 2000 个采样点，含并行获取与异常评分
+     */
+    @Benchmark
+    public MonitoringOverviewDTO monitoringOverview() throws IOException {
+        return monitorService.getMonitoringOverview(Fixtures.CLUSTER_ID, timeRange);
+    }
+
+    /**
+     * 返回固定数据的数据源
+     */
+    private static final class FixtureDataSource implements MonitoringDataSource {
+        private final ClusterOverviewDTO clusterOverview;
+        private final NodesResponseDTO nodes;
+        private final NodeDetailDTO nodeDetail;
+
+        FixtureDataSource(ClusterOverviewDTO clusterOverview, NodesResponseDTO nodes, NodeDetailDTO nodeDetail) {
+            this.clusterOverview = clusterOverview;
+            this.nodes = nodes;
+            this.nodeDetail = nodeDetail;
+        }
+
+        @Override
+        public String getName() {
+            return "kibana";
+        }
+
+        @Override
+        public ClusterOverviewDTO getClusterOverview(String clusterId, TimeRangeRequest timeRange,
+                ResponseProjection projection) {
+            return clusterOverview;
+        }
+
+        @Override
+        public NodesResponseDTO getNodes(String clusterId, NodesRequest request) {
+            return nodes;
+        }
+
+        @Override
+        public NodeDetailDTO getNodeDetail(String clusterId, String nodeId, TimeRangeRequest timeRange,
+                ResponseProjection projection) {
+            return nodeDetail;
+        }
+
+        @Override
+        public IndicesResponseDTO getIndices(String clusterId, IndicesRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public IndexDetailDTO getIndexDetail(String clusterId, String indexName, TimeRangeRequest timeRange,
+                ResponseProjection projection) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
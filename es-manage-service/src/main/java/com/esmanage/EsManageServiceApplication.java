@@ -2,11 +2,13 @@ package com.esmanage;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * ES 监控管理服务启动类
  */
 @SpringBootApplication
+@EnableScheduling
 public class EsManageServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,414 @@
+package com.esmanage.client;
+
+import com.esmanage.config.ElasticsearchConfig;
+import com.esmanage.config.KibanaConfig;
+import com.esmanage.metrics.RequestTracer;
+import com.esmanage.metrics.TraceSpan;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.*;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Elasticsearch HTTP 客户端
+ * 直连 ES REST API，响应体以流式方式解析，不经过 Kibana
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ElasticsearchClient {
+
+    /** 默认集群未配置集群 ID 时使用的名称 */
+    public static final String DEFAULT_CLUSTER = "default";
+
+    /** 索引名中不允许出现的字符 */
+    private static final Pattern INDEX_NAME_FORBIDDEN = Pattern.compile("[,/\\\\*?\"<>|#:\\s]");
+    private static final int MAX_INDEX_NAME_BYTES = 255;
+
+    /** 统计路径中保留原样的非下划线段（接口名与指标分组名），其余段视为参数 */
+    private static final Set<String> STATS_PATH_LITERALS = Set.of(
+            "stats", "health", "state", "settings", "indices", "shards", "nodes", "pending_tasks",
+            "allocation", "hot_threads", "usage", "info", "policy", "pipeline", "thread_pool",
+            "segments", "recovery", "count", "aliases", "templates", "master", "plugins", "field");
+
+    private final ElasticsearchConfig elasticsearchConfig;
+    private final KibanaConfig kibanaConfig;
+    private final ObjectMapper objectMapper;
+    private final RequestTracer requestTracer;
+
+    @Getter
+    private OkHttpClient httpClient;
+
+    @Getter
+    private JsonFactory jsonFactory;
+
+    /** 默认集群 */
+    private Target defaultTarget;
+
+    /** elasticsearch.clusters 中配置的其他集群：集群 ID -> 连接 */
+    private final Map<String, Target> clusterTargets = new HashMap<>();
+
+    /** 接口调用统计 */
+    @Getter
+    private final Map<String, KibanaClient.ApiStats> apiStatsMap = new ConcurrentHashMap<>();
+
+    /**
+     * 流式响应解析器
+     */
+    @FunctionalInterface
+    public interface ResponseParser<T> {
+        T parse(JsonParser parser) throws IOException;
+    }
+
+    @PostConstruct
+    public void init() {
+        this.httpClient = new OkHttpClient.Builder()
+                .connectTimeout(elasticsearchConfig.getConnectTimeoutMs(), TimeUnit.MILLISECONDS)
+                .readTimeout(elasticsearchConfig.getReadTimeoutMs(), TimeUnit.MILLISECONDS)
+                .writeTimeout(10, TimeUnit.SECONDS)
+                .connectionPool(new ConnectionPool(10, 5, TimeUnit.MINUTES))
+                .eventListenerFactory(requestTracer.eventListenerFactory())
+                .build();
+        this.jsonFactory = objectMapper.getFactory();
+
+        this.defaultTarget = new Target(elasticsearchConfig.getHosts(),
+                elasticsearchConfig.getUsername(), elasticsearchConfig.getPassword());
+        elasticsearchConfig.getClusters().forEach((clusterId, cluster) -> clusterTargets.put(clusterId,
+                new Target(cluster.getHosts(), cluster.getUsername(), cluster.getPassword())));
+
+        log.info("ElasticsearchClient initialized with hosts: {}, other clusters: {}",
+                elasticsearchConfig.getHosts(), clusterTargets.keySet());
+    }
+
+    /**
+     * 是否配置了 ES 地址
+     */
+    public boolean isConfigured() {
+        return elasticsearchConfig.getHosts() != null && !elasticsearchConfig.getHosts().isEmpty();
+    }
+
+    /**
+     * 默认集群（elasticsearch.hosts）的集群 ID，未配置 elasticsearch.cluster-id 时使用 kibana.cluster-id
+     */
+    public String getDefaultClusterId() {
+        String clusterId = elasticsearchConfig.getClusterId();
+        return clusterId != null && !clusterId.isEmpty() ? clusterId : kibanaConfig.getClusterId();
+    }
+
+    /**
+     * 可直连的集群 ID：默认集群在前，其后为 elasticsearch.clusters 中配置的集群
+     */
+    public List<String> getClusterIds() {
+        List<String> clusterIds = new ArrayList<>();
+        if (isConfigured()) {
+            clusterIds.add(resolveClusterId(null));
+        }
+        clusterIds.addAll(clusterTargets.keySet());
+        return clusterIds;
+    }
+
+    /**
+     * 解析请求的集群 ID，为空时使用默认集群
+     *
+     * @throws IllegalArgumentException 该集群未配置直连地址
+     */
+    public String resolveClusterId(String clusterId) {
+        String defaultClusterId = getDefaultClusterId();
+        if (clusterId == null || clusterId.isEmpty()) {
+            return defaultClusterId != null ? defaultClusterId : DEFAULT_CLUSTER;
+        }
+        if (clusterTargets.containsKey(clusterId) || clusterId.equals(defaultClusterId)
+                || (defaultClusterId == null && clusterId.equals(DEFAULT_CLUSTER))) {
+            return clusterId;
+        }
+        throw new IllegalArgumentException("Cluster " + clusterId + " is not configured for direct access, "
+                + "add it to elasticsearch.clusters");
+    }
+
+    /**
+     * 创建请求构建器（已设置地址与认证），默认集群，多节点时轮询
+     */
+    public Request.Builder newRequest(String path) {
+        return newRequest(defaultTarget, path);
+    }
+
+    /**
+     * 创建发往指定集群的请求构建器
+     *
+     * @param clusterId 集群 ID，为空时使用默认集群
+     */
+    public Request.Builder newRequest(String clusterId, String path) {
+        return newRequest(target(clusterId), path);
+    }
+
+    private Request.Builder newRequest(Target target, String path) {
+        if (target.hosts.isEmpty()) {
+            throw new IllegalStateException("elasticsearch.hosts is not configured");
+        }
+        String host = target.hosts.get(Math.floorMod(target.nextHost.getAndIncrement(), target.hosts.size()));
+        Request.Builder builder = new Request.Builder().url(host + path);
+        if (target.authorization != null) {
+            builder.header("Authorization", target.authorization);
+        }
+        return builder;
+    }
+
+    /**
+     * 发送 GET 请求到默认集群，并以流式方式解析响应
+     */
+    public <T> T get(String path, ResponseParser<T> parser) throws IOException {
+        return get(defaultTarget, path, parser);
+    }
+
+    /**
+     * 发送 GET 请求到指定集群，并以流式方式解析响应
+     *
+     * @param clusterId 集群 ID，为空时使用默认集群
+     */
+    public <T> T get(String clusterId, String path, ResponseParser<T> parser) throws IOException {
+        return get(target(clusterId), path, parser);
+    }
+
+    /**
+     * 连接失败、超时和 5xx 响应换下一个节点重试，直到所有节点都尝试过；
+     * 4xx 响应和响应体解析失败与节点无关，直接抛出
+     */
+    private <T> T get(Target target, String path, ResponseParser<T> parser) throws IOException {
+        int attempts = Math.max(1, target.hosts.size());
+        IOException lastError = null;
+        for (int i = 0; i < attempts; i++) {
+            try {
+                return execute(newRequest(target, path).get().build(), path, parser);
+            } catch (ResponseException e) {
+                if (e.getStatusCode() < 500) {
+                    throw e;
+                }
+                lastError = e;
+            } catch (JsonProcessingException e) {
+                throw e;
+            } catch (IOException e) {
+                lastError = e;
+            }
+            log.warn("Elasticsearch request {} failed: {}", path, lastError.getMessage());
+        }
+        throw lastError;
+    }
+
+    private Target target(String clusterId) {
+        if (clusterId == null || clusterId.isEmpty()) {
+            return defaultTarget;
+        }
+        Target target = clusterTargets.get(clusterId);
+        if (target != null) {
+            return target;
+        }
+        resolveClusterId(clusterId);
+        return defaultTarget;
+    }
+
+    /**
+     * 执行请求，并以流式方式解析响应
+     */
+    public <T> T execute(Request request, String path, ResponseParser<T> parser) throws IOException {
+        return execute(httpClient, request, path, parser);
+    }
+
+    /**
+     * 使用指定客户端（如单独设置了超时的派生客户端）执行请求，并以流式方式解析响应
+     */
+    public <T> T execute(OkHttpClient client, Request request, String path, ResponseParser<T> parser)
+            throws IOException {
+        String statsPath = statsPath(path);
+        long startTime = System.currentTimeMillis();
+        TraceSpan span = requestTracer.startSpan("elasticsearch", statsPath,
+                request.url().scheme() + "://" + request.url().host() + ":" + request.url().port());
+        int status = 0;
+        try (Response response = client.newCall(request).execute()) {
+            status = response.code();
+            ResponseBody body = response.body();
+            if (!response.isSuccessful()) {
+                String error = body != null ? body.string() : "";
+                log.error("Request failed: {} {} - {}", response.code(), path,
+                        error.length() > 200 ? error.substring(0, 200) : error);
+                throw new ResponseException(response.code(), "Request failed: " + response.code() + " - " + error);
+            }
+            if (body == null) {
+                throw new IOException("Empty response body: " + path);
+            }
+            long parseStart = System.nanoTime();
+            try (JsonParser jsonParser = jsonFactory.createParser(body.byteStream())) {
+                // 定位到第一个 token，解析器从根节点开始读取
+                T result = jsonParser.nextToken() != null ? parser.parse(jsonParser) : null;
+                requestTracer.endSpan(span, status, System.nanoTime() - parseStart, null);
+                return result;
+            }
+        } catch (IOException e) {
+            requestTracer.endSpan(span, status, 0, e);
+            throw e;
+        } finally {
+            // 连接失败、错误状态码与解析失败的请求同样计入统计
+            recordApiStats(statsPath, System.currentTimeMillis() - startTime);
+        }
+    }
+
+    /**
+     * 统计用路径：去除查询参数，并将索引名、节点 ID、任务 ID 等动态段替换为占位符，
+     * 避免按原始路径统计导致指标标签无限增长
+     */
+    private String statsPath(String path) {
+        return computeStatsPath(path);
+    }
+
+    /**
+     * 逐段扫描：以 _ 开头的段与已知接口名原样保留，
+     * 其余段按前一段替换为 {index}、{nodeId}、{taskId}、{id}、{metric} 或 {name}
+     */
+    static String computeStatsPath(String path) {
+        int end = path.indexOf('?');
+        if (end < 0) {
+            end = path.length();
+        }
+        StringBuilder sb = new StringBuilder(end + 16);
+        String previous = null;
+        int pos = path.startsWith("/") ? 1 : 0;
+        while (pos <= end) {
+            int next = path.indexOf('/', pos);
+            if (next < 0 || next > end) {
+                next = end;
+            }
+            String segment = path.substring(pos, next);
+            if (!segment.isEmpty()) {
+                sb.append('/');
+                if (segment.startsWith("_") || STATS_PATH_LITERALS.contains(segment)) {
+                    sb.append(segment);
+                } else {
+                    sb.append(statsPlaceholder(previous));
+                }
+                previous = segment;
+            }
+            pos = next + 1;
+        }
+        return sb.length() > 0 ? sb.toString() : "/";
+    }
+
+    private static String statsPlaceholder(String previous) {
+        if (previous == null) {
+            return "{index}";
+        }
+        switch (previous) {
+            case "_nodes":
+                return "{nodeId}";
+            case "_tasks":
+                return "{taskId}";
+            case "_doc":
+            case "_create":
+            case "_update":
+            case "_source":
+                return "{id}";
+            case "stats":
+                return "{metric}";
+            case "indices":
+            case "shards":
+            case "count":
+            case "segments":
+            case "recovery":
+            case "health":
+                return "{index}";
+            default:
+                return "{name}";
+        }
+    }
+
+    private void recordApiStats(String path, long timeMs) {
+        apiStatsMap.computeIfAbsent(path, KibanaClient.ApiStats::new).record(timeMs);
+        if (timeMs > 2000) {
+            log.warn("Slow Elasticsearch call: {} took {}ms", path, timeMs);
+        }
+    }
+
+    /**
+     * 一个集群的连接信息
+     */
+    private static class Target {
+        final List<String> hosts;
+        /** Basic Auth 请求头，未配置用户名时为 null */
+        final String authorization;
+        /** 轮询下标 */
+        final AtomicInteger nextHost = new AtomicInteger(0);
+
+        Target(List<String> hosts, String username, String password) {
+            List<String> normalized = new ArrayList<>();
+            if (hosts != null) {
+                for (String host : hosts) {
+                    normalized.add(host.endsWith("/") ? host.substring(0, host.length() - 1) : host);
+                }
+            }
+            this.hosts = List.copyOf(normalized);
+            if (username != null && !username.isEmpty()) {
+                String credentials = username + ":" + password;
+                this.authorization = "Basic "
+                        + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+            } else {
+                this.authorization = null;
+            }
+        }
+    }
+
+    /**
+     * 编码 URL 路径中的单个段（索引名中的 /、?、# 等不能原样拼入路径）
+     */
+    public static String encodePathSegment(String segment) {
+        return URLEncoder.encode(segment, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    /**
+     * 按 ES 索引命名规则校验单个具体索引名（不允许通配符、逗号列表与 _all），返回去除首尾空白后的名称
+     *
+     * @throws IllegalArgumentException 名称为空或不符合命名规则
+     */
+    public static String checkIndexName(String name) {
+        String trimmed = name != null ? name.trim() : "";
+        if (trimmed.isEmpty() || trimmed.equals(".") || trimmed.equals("..")
+                || trimmed.getBytes(StandardCharsets.UTF_8).length > MAX_INDEX_NAME_BYTES
+                || INDEX_NAME_FORBIDDEN.matcher(trimmed).find()
+                || "_-+".indexOf(trimmed.charAt(0)) >= 0) {
+            throw new IllegalArgumentException("Invalid index name: " + name);
+        }
+        return trimmed;
+    }
+
+    /**
+     * ES 返回非 2xx 状态码
+     */
+    @Getter
+    public static class ResponseException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final int statusCode;
+
+        public ResponseException(int statusCode, String message) {
+            super(message);
+            this.statusCode = statusCode;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.esmanage.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * 流式 JSON 读取工具
+ * 基于 JsonParser 逐字段读取，不构建中间对象树，未处理的字段直接跳过
+ */
+public final class JsonStreams {
+
+    private JsonStreams() {
+    }
+
+    /**
+     * 字段处理器
+     * 调用时解析器位于字段值上；返回 false 表示未消费该值，由调用方跳过
+     */
+    @FunctionalInterface
+    public interface FieldHandler {
+        boolean handle(String field, JsonParser parser) throws IOException;
+    }
+
+    /**
+     * 数组元素处理器，调用时解析器位于元素上，需完整消费该元素
+     */
+    @FunctionalInterface
+    public interface ElementHandler {
+        void handle(JsonParser parser) throws IOException;
+    }
+
+    /**
+     * 读取对象，解析器需位于 START_OBJECT；结束时位于对应的 END_OBJECT
+     */
+    public static void readObject(JsonParser parser, FieldHandler handler) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (!handler.handle(field, parser)) {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * 读取数组，解析器需位于 START_ARRAY；结束时位于对应的 END_ARRAY
+     */
+    public static void readArray(JsonParser parser, ElementHandler handler) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            handler.handle(parser);
+        }
+    }
+
+    /**
+     * 读取长整数，兼容 _cat 接口返回的字符串数字，无法解析时返回 0
+     */
+    public static long longValue(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getValueAsLong();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            String text = parser.getText();
+            try {
+                return text.isEmpty() ? 0 : Long.parseLong(text);
+            } catch (NumberFormatException e) {
+                return (long) doubleValue(parser);
+            }
+        }
+        parser.skipChildren();
+        return 0;
+    }
+
+    /**
+     * 读取浮点数，兼容字符串数字，无法解析时返回 0
+     */
+    public static double doubleValue(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getValueAsDouble();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            try {
+                return Double.parseDouble(parser.getText());
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        parser.skipChildren();
+        return 0;
+    }
+
+    /**
+     * 读取文本，非标量值返回 null
+     */
+    public static String text(JsonParser parser) throws IOException {
+        if (parser.currentToken().isScalarValue() && parser.currentToken() != JsonToken.VALUE_NULL) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+}
@@ -1,6 +1,12 @@
 package com.esmanage.client;
 
 import com.esmanage.config.KibanaConfig;
+import com.esmanage.dto.ResponseProjection;
+import com.esmanage.metrics.LatencyHistogram;
+import com.esmanage.metrics.RequestTracer;
+import com.esmanage.metrics.TraceSpan;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
@@ -10,10 +16,13 @@ import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
 import org.springframework.stereotype.Component;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
@@ -27,17 +36,38 @@ import java.util.concurrent.atomic.AtomicLong;
  * 1. 使用 Basic Auth 认证，无需每次登录
  * 2. 连接池复用
  * 3. 接口耗时统计
+ * 4. 多实例负载均衡（最少在途请求 / 延迟 EWMA），连续失败的实例被动摘除
+ * 5. 请求头启动时预先构建，统计路径按原始路径缓存，请求体由调用方直接流式写出
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class KibanaClient {
 
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    /** 统计路径缓存上限，超出后不再缓存，直接计算 */
+    private static final int STATS_PATH_CACHE_LIMIT = 4096;
+
+    private static final String NODES_SEGMENT = "/nodes/";
+    private static final String INDICES_SEGMENT = "/indices/";
+
     private final KibanaConfig kibanaConfig;
     private final ObjectMapper objectMapper;
+    private final RequestTracer requestTracer;
 
     private OkHttpClient httpClient;
 
+    /** 固定请求头（认证、版本、上下文），配置不变则无需每次重建 */
+    private Headers baseHeaders;
+
+    /** 原始路径 -> 统计路径 */
+    private final Map<String, String> statsPathCache = new ConcurrentHashMap<>();
+
+    /** Kibana 实例列表 */
+    @Getter
+    private final List<KibanaEndpoint> endpoints = new ArrayList<>();
+
     /** 接口调用统计 */
     @Getter
     private final Map<String, ApiStats> apiStatsMap = new ConcurrentHashMap<>();
@@ -53,6 +83,8 @@ public class KibanaClient {
         private volatile long minTimeMs = Long.MAX_VALUE;
         private volatile long maxTimeMs = 0;
         private volatile long lastCallTimeMs = 0;
+        /** 延迟分布，供指标接口导出 */
+        private final LatencyHistogram histogram = new LatencyHistogram();
 
         public ApiStats(String path) {
             this.path = path;
@@ -62,6 +94,7 @@ public class KibanaClient {
             callCount.incrementAndGet();
             totalTimeMs.addAndGet(timeMs);
             lastCallTimeMs = timeMs;
+            histogram.recordMillis(timeMs);
 
             // 更新最小/最大值（非线程安全，但统计数据允许少量误差）
             if (timeMs < minTimeMs)
@@ -84,80 +117,262 @@ public class KibanaClient {
         }
     }
 
+    /**
+     * 请求体写出器，直接向生成器写入 JSON，避免先构建 Map 再反射序列化
+     */
+    @FunctionalInterface
+    public interface BodyWriter {
+        void write(JsonGenerator gen) throws IOException;
+    }
+
     @PostConstruct
     public void init() {
-        // 创建 HTTP 客户端，优化连接池配置
+        // 创建 HTTP 客户端（各实例在此基础上派生，共享超时与调度器配置）
         this.httpClient = new OkHttpClient.Builder()
                 .connectTimeout(10, TimeUnit.SECONDS)
                 .readTimeout(30, TimeUnit.SECONDS)
                 .writeTimeout(10, TimeUnit.SECONDS)
-                // 增大连接池：最多10个空闲连接，保持5分钟
-                .connectionPool(new ConnectionPool(10, 5, TimeUnit.MINUTES))
+                .eventListenerFactory(requestTracer.eventListenerFactory())
                 .build();
 
+        // 每个 Kibana 实例独立连接池（10个空闲连接，保持5分钟）
+        for (String url : kibanaConfig.resolveEndpoints()) {
+            endpoints.add(new KibanaEndpoint(url, httpClient));
+        }
+
         // 配置 ObjectMapper
         objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 
-        log.info("KibanaClient initialized with connection pool (10 connections, 5min keep-alive)");
+        this.baseHeaders = buildHeaders();
+
+        log.info("KibanaClient initialized with {} endpoint(s), load balance: {}",
+                endpoints.size(), kibanaConfig.getLoadBalance());
     }
 
     /**
      * 发送 POST 请求到 Kibana Monitoring API
      * 使用 Basic Auth 认证，无需预先登录
+     * 实例连接失败或返回 5xx 时切换到下一个实例重试，4xx 直接抛出
      */
     public <T> T post(String path, Object requestBody, Class<T> responseType) throws IOException {
-        String url = kibanaConfig.getBaseUrl() + path;
-        String jsonBody = objectMapper.writeValueAsString(requestBody);
+        return send(path, objectMapper.writeValueAsBytes(requestBody), responseType, ResponseProjection.ALL);
+    }
+
+    /**
+     * 发送 POST 请求，请求体由写出器流式生成
+     */
+    public <T> T post(String path, BodyWriter body, Class<T> responseType) throws IOException {
+        return post(path, body, responseType, ResponseProjection.ALL);
+    }
+
+    /**
+     * 发送 POST 请求，解析响应时按投影跳过未选中的段和指标
+     */
+    public <T> T post(String path, BodyWriter body, Class<T> responseType, ResponseProjection projection)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            body.write(gen);
+        }
+        return send(path, out.toByteArray(), responseType, projection);
+    }
 
+    private <T> T send(String path, byte[] jsonBody, Class<T> responseType, ResponseProjection projection)
+            throws IOException {
         // 简化路径用于统计（去除动态参数）
         String statsPath = simplifyPath(path);
 
-        log.debug("POST {} with body: {}", url, jsonBody);
+        boolean[] tried = new boolean[endpoints.size()];
+        IOException lastError = null;
+        for (int attempt = 0; attempt < endpoints.size(); attempt++) {
+            int selected = selectEndpoint(tried);
+            tried[selected] = true;
+            try {
+                return execute(endpoints.get(selected), path, statsPath, jsonBody, responseType, projection);
+            } catch (ClientErrorException | JsonProcessingException e) {
+                // 请求或响应本身有问题，换实例也无济于事
+                throw e;
+            } catch (IOException e) {
+                lastError = e;
+                if (attempt + 1 < endpoints.size()) {
+                    log.warn("Kibana endpoint {} failed, retrying on another endpoint: {}",
+                            endpoints.get(selected).getBaseUrl(), e.getMessage());
+                }
+            }
+        }
+        throw lastError;
+    }
+
+    /**
+     * 在指定实例上执行请求
+     */
+    private <T> T execute(KibanaEndpoint endpoint, String path, String statsPath, byte[] jsonBody,
+            Class<T> responseType, ResponseProjection projection) throws IOException {
+        String url = endpoint.getBaseUrl() + path;
+
+        if (log.isDebugEnabled()) {
+            log.debug("POST {} with body: {}", url, new String(jsonBody, StandardCharsets.UTF_8));
+        }
 
         Request request = buildRequest(url, jsonBody);
 
+        endpoint.onStart();
         long startTime = System.currentTimeMillis();
-        try (Response response = httpClient.newCall(request).execute()) {
+        boolean recorded = false;
+        TraceSpan span = requestTracer.startSpan("kibana", statsPath, endpoint.getBaseUrl());
+        int status = 0;
+        try (Response response = endpoint.getHttpClient().newCall(request).execute()) {
+            status = response.code();
+            String responseBody = response.body() != null ? response.body().string() : "";
             long elapsed = System.currentTimeMillis() - startTime;
 
             // 记录统计
             recordApiStats(statsPath, elapsed);
-
-            String responseBody = response.body() != null ? response.body().string() : "";
+            recorded = true;
 
             if (!response.isSuccessful()) {
-                log.error("Request failed: {} {} - {} ({}ms)", response.code(), path,
+                log.error("Request failed: {} {} - {} ({}ms)", response.code(), url,
                         responseBody.length() > 200 ? responseBody.substring(0, 200) : responseBody, elapsed);
-                throw new IOException("Request failed: " + response.code() + " - " + responseBody);
+                String message = "Request failed: " + response.code() + " - " + responseBody;
+                if (response.code() < 500) {
+                    // 4xx 是请求本身的问题，实例是健康的
+                    endpoint.onSuccess(elapsed);
+                    throw new ClientErrorException(message);
+                }
+                endpoint.onFailure(elapsed, kibanaConfig.getEjectionThreshold(), kibanaConfig.getEjectionMs());
+                throw new IOException(message);
             }
 
+            endpoint.onSuccess(elapsed);
+
             log.debug("Response ({}ms): {}", elapsed,
                     responseBody.length() > 500 ? responseBody.substring(0, 500) + "..." : responseBody);
 
-            return objectMapper.readValue(responseBody, responseType);
+            long deserializeStart = System.nanoTime();
+            T result = projection.isAll()
+                    ? objectMapper.readValue(responseBody, responseType)
+                    : objectMapper.readerFor(responseType)
+                            .withAttribute(ResponseProjection.ATTRIBUTE, projection)
+                            .readValue(responseBody);
+            requestTracer.endSpan(span, status, System.nanoTime() - deserializeStart, null);
+            return result;
         } catch (IOException e) {
-            long elapsed = System.currentTimeMillis() - startTime;
-            recordApiStats(statsPath, elapsed);
+            requestTracer.endSpan(span, status, 0, e);
+            if (!recorded) {
+                // 网络异常（连接失败、超时等）
+                long elapsed = System.currentTimeMillis() - startTime;
+                recordApiStats(statsPath, elapsed);
+                endpoint.onFailure(elapsed, kibanaConfig.getEjectionThreshold(), kibanaConfig.getEjectionMs());
+            }
             throw e;
         }
     }
 
+    /**
+     * 选择实例
+     * 优先在未摘除且本次未尝试过的实例中按评分选择；全部摘除时选择最早恢复的实例
+     */
+    private int selectEndpoint(boolean[] tried) {
+        boolean latencyAware = "ewma".equalsIgnoreCase(kibanaConfig.getLoadBalance());
+        long now = System.currentTimeMillis();
+
+        int best = -1;
+        double bestScore = Double.MAX_VALUE;
+        for (int i = 0; i < endpoints.size(); i++) {
+            KibanaEndpoint endpoint = endpoints.get(i);
+            if (tried[i] || !endpoint.isAvailable(now)) {
+                continue;
+            }
+            double score = endpoint.score(latencyAware);
+            if (score < bestScore) {
+                bestScore = score;
+                best = i;
+            }
+        }
+        if (best >= 0) {
+            return best;
+        }
+
+        // 没有可用实例：选最早结束摘除的实例兜底
+        long earliest = Long.MAX_VALUE;
+        for (int i = 0; i < endpoints.size(); i++) {
+            if (!tried[i] && endpoints.get(i).getEjectedUntil() < earliest) {
+                earliest = endpoints.get(i).getEjectedUntil();
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 4xx 客户端错误，不切换实例重试
+     */
+    private static class ClientErrorException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        ClientErrorException(String message) {
+            super(message);
+        }
+    }
+
     /**
      * 简化路径用于统计（将动态参数替换为占位符）
+     * 同一路径反复出现，结果按原始路径缓存；缓存满后直接计算
      */
-    private String simplifyPath(String path) {
-        // 替换 UUID 格式的节点 ID
-        String simplified = path.replaceAll("/nodes/[a-zA-Z0-9_-]+", "/nodes/{nodeId}");
-        // 替换索引名称
-        simplified = simplified.replaceAll("/indices/[^/\\?]+", "/indices/{indexName}");
-        // 移除查询参数
-        int queryIndex = simplified.indexOf('?');
-        if (queryIndex > 0) {
-            simplified = simplified.substring(0, queryIndex);
+    String simplifyPath(String path) {
+        String cached = statsPathCache.get(path);
+        if (cached != null) {
+            return cached;
+        }
+        String simplified = computeStatsPath(path);
+        if (statsPathCache.size() < STATS_PATH_CACHE_LIMIT) {
+            statsPathCache.put(path, simplified);
         }
         return simplified;
     }
 
+    /**
+     * 逐段扫描：/nodes/ 与 /indices/ 之后的一段替换为占位符，并移除查询参数
+     */
+    static String computeStatsPath(String path) {
+        int end = path.indexOf('?');
+        if (end < 0) {
+            end = path.length();
+        }
+        StringBuilder sb = new StringBuilder(end + 16);
+        int pos = 0;
+        while (pos < end) {
+            int nodes = path.indexOf(NODES_SEGMENT, pos);
+            int indices = path.indexOf(INDICES_SEGMENT, pos);
+            int next;
+            String segment;
+            String placeholder;
+            if (nodes >= 0 && nodes < end && (indices < 0 || nodes < indices)) {
+                next = nodes;
+                segment = NODES_SEGMENT;
+                placeholder = "{nodeId}";
+            } else if (indices >= 0 && indices < end) {
+                next = indices;
+                segment = INDICES_SEGMENT;
+                placeholder = "{indexName}";
+            } else {
+                break;
+            }
+            int valueStart = next + segment.length();
+            int valueEnd = valueStart;
+            while (valueEnd < end && path.charAt(valueEnd) != '/') {
+                valueEnd++;
+            }
+            sb.append(path, pos, valueStart);
+            if (valueEnd > valueStart) {
+                sb.append(placeholder);
+            }
+            pos = valueEnd;
+        }
+        sb.append(path, pos, end);
+        return sb.toString();
+    }
+
     /**
      * 记录 API 统计
      */
@@ -181,6 +396,9 @@ public class KibanaClient {
                 .sorted((a, b) -> Long.compare(b.getAvgTimeMs(), a.getAvgTimeMs()))
                 .forEach(stats -> sb.append(stats.toString()).append("\n"));
 
+        sb.append("---------------- Endpoints -----------------\n");
+        endpoints.forEach(endpoint -> sb.append(endpoint.toString()).append("\n"));
+
         sb.append("============================================\n");
         return sb.toString();
     }
@@ -195,20 +413,34 @@ public class KibanaClient {
     /**
      * 构建请求（使用 Basic Auth）
      */
-    private Request buildRequest(String url, String jsonBody) {
-        // 构建 Basic Auth
+    Request buildRequest(String url, byte[] jsonBody) {
+        return new Request.Builder()
+                .url(url)
+                .headers(baseHeaders)
+                .post(RequestBody.create(jsonBody, JSON))
+                .build();
+    }
+
+    /**
+     * 构建固定请求头
+     */
+    private Headers buildHeaders() {
         String credentials = kibanaConfig.getUsername() + ":" + kibanaConfig.getPassword();
         String basicAuth = "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
 
-        return new Request.Builder()
-                .url(url)
-                .post(RequestBody.create(jsonBody, MediaType.parse("application/json")))
-                .addHeader("Content-Type", "application/json")
-                .addHeader("Authorization", basicAuth)
-                .addHeader("kbn-version", kibanaConfig.getVersion())
-                .addHeader("kbn-build-number", kibanaConfig.getBuildNumber())
-                .addHeader("x-elastic-internal-origin", "Kibana")
-                .addHeader("x-kbn-context", URLEncoder.encode(
+        Headers.Builder headers = new Headers.Builder()
+                .add("Content-Type", "application/json")
+                .add("Authorization", basicAuth);
+        // 版本信息未配置时不发送，避免启动阶段因空值失败
+        if (kibanaConfig.getVersion() != null) {
+            headers.add("kbn-version", kibanaConfig.getVersion());
+        }
+        if (kibanaConfig.getBuildNumber() != null) {
+            headers.add("kbn-build-number", kibanaConfig.getBuildNumber());
+        }
+        return headers
+                .add("x-elastic-internal-origin", "Kibana")
+                .add("x-kbn-context", URLEncoder.encode(
                         "{\"type\":\"application\",\"name\":\"monitoring\",\"url\":\"/app/monitoring\"}",
                         StandardCharsets.UTF_8))
                 .build();
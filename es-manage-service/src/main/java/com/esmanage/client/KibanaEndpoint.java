@@ -0,0 +1,117 @@
+package com.esmanage.client;
+
+import lombok.Getter;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个 Kibana 实例
+ * 记录在途请求数、延迟 EWMA、错误次数，连续失败时被动摘除
+ */
+@Getter
+public class KibanaEndpoint {
+
+    /** EWMA 衰减时间常数（毫秒），越大越平滑 */
+    private static final double DECAY_MS = 10_000;
+
+    private final String baseUrl;
+    private final ConnectionPool connectionPool;
+    private final OkHttpClient httpClient;
+
+    private final AtomicInteger outstanding = new AtomicInteger(0);
+    private final AtomicLong requestCount = new AtomicLong(0);
+    private final AtomicLong errorCount = new AtomicLong(0);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
+    private final AtomicLong ejectionCount = new AtomicLong(0);
+
+    /** 延迟 EWMA（毫秒） */
+    private volatile double ewmaMs = 0;
+    private volatile long lastSampleTime = 0;
+
+    /** 摘除截止时间，0 表示未摘除 */
+    private volatile long ejectedUntil = 0;
+
+    public KibanaEndpoint(String baseUrl, OkHttpClient baseClient) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        // 每个实例独立连接池，便于单独观察连接使用情况；调度器等其余配置共享
+        this.connectionPool = new ConnectionPool(10, 5, TimeUnit.MINUTES);
+        this.httpClient = baseClient.newBuilder()
+                .connectionPool(connectionPool)
+                .build();
+    }
+
+    /**
+     * 是否可用（未被摘除或摘除已到期）
+     */
+    public boolean isAvailable(long now) {
+        return ejectedUntil <= now;
+    }
+
+    /**
+     * 负载评分，越小越优先
+     * 在途请求数相同时按延迟区分；延迟为 0 表示尚无样本，优先探测
+     */
+    public double score(boolean latencyAware) {
+        int inflight = outstanding.get();
+        if (!latencyAware) {
+            return inflight;
+        }
+        return ewmaMs * (inflight + 1);
+    }
+
+    public void onStart() {
+        outstanding.incrementAndGet();
+        requestCount.incrementAndGet();
+    }
+
+    public void onSuccess(long elapsedMs) {
+        outstanding.decrementAndGet();
+        consecutiveFailures.set(0);
+        updateEwma(elapsedMs);
+    }
+
+    /**
+     * 记录失败，连续失败达到阈值时摘除
+     */
+    public void onFailure(long elapsedMs, int threshold, long ejectionMs) {
+        outstanding.decrementAndGet();
+        errorCount.incrementAndGet();
+        updateEwma(elapsedMs);
+        if (consecutiveFailures.incrementAndGet() >= threshold) {
+            consecutiveFailures.set(0);
+            ejectedUntil = System.currentTimeMillis() + ejectionMs;
+            ejectionCount.incrementAndGet();
+        }
+    }
+
+    private synchronized void updateEwma(long elapsedMs) {
+        long now = System.currentTimeMillis();
+        if (lastSampleTime == 0) {
+            ewmaMs = elapsedMs;
+        } else {
+            double weight = Math.exp(-(now - lastSampleTime) / DECAY_MS);
+            ewmaMs = ewmaMs * weight + elapsedMs * (1 - weight);
+        }
+        lastSampleTime = now;
+    }
+
+    public int getConnectionCount() {
+        return connectionPool.connectionCount();
+    }
+
+    public int getIdleConnectionCount() {
+        return connectionPool.idleConnectionCount();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Endpoint[%s]: requests=%d, errors=%d, inflight=%d, ewma=%.1fms, conns=%d/%d idle%s",
+                baseUrl, requestCount.get(), errorCount.get(), outstanding.get(), ewmaMs,
+                getConnectionCount(), getIdleConnectionCount(),
+                isAvailable(System.currentTimeMillis()) ? "" : ", EJECTED");
+    }
+}
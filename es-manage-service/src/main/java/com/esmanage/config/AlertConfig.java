@@ -0,0 +1,85 @@
+package com.esmanage.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 告警配置类
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "alert")
+public class AlertConfig {
+
+    /** 是否启用后台告警评估 */
+    private boolean enabled = false;
+
+    /** 采样评估间隔（毫秒） */
+    private long intervalMs = 30000;
+
+    /** 评估的集群 ID，为空时使用默认集群 */
+    private String clusterId;
+
+    /** 单次采样最多评估的索引数 */
+    private int maxIndices = 10000;
+
+    /** 单次采样最多评估的节点数 */
+    private int maxNodes = 2000;
+
+    /** 分页拉取节点/索引列表时每页的条数 */
+    private int pageSize = 500;
+
+    /** 数据目录（规则、告警记录） */
+    private String dataDir = "data/alert";
+
+    /** 告警记录存储 */
+    private Records records = new Records();
+
+    /** 告警通知 */
+    private Notification notification = new Notification();
+
+    @Data
+    public static class Records {
+        /** 单个段文件大小（字节） */
+        private int segmentBytes = 64 * 1024 * 1024;
+        /** 非触发中的记录保留天数 */
+        private int retentionDays = 30;
+        /** 压缩检查间隔（毫秒） */
+        private long compactIntervalMs = 3600000;
+        /** 段内有效记录占比低于此值时重写该段 */
+        private double compactLiveRatio = 0.5;
+        /** 每批写入后是否刷盘 */
+        private boolean forceOnWrite = true;
+    }
+
+    @Data
+    public static class Notification {
+        /** 是否发送通知 */
+        private boolean enabled = true;
+        /** 每个渠道的待分组队列容量 */
+        private int queueCapacity = 1000;
+        /** 分组窗口（毫秒），窗口内同一规则、同一状态的告警合并为一条通知 */
+        private long groupWindowMs = 10000;
+        /** 队列积压达到此数量时提前结束分组窗口 */
+        private int maxBatch = 200;
+        /** 去重窗口（毫秒），窗口内同一规则、目标、状态的重复事件不再通知 */
+        private long dedupWindowMs = 300000;
+        /** 每个渠道每分钟最多发送的通知数 */
+        private double ratePerMinute = 20;
+        /** 令牌桶容量（允许的突发数） */
+        private int burst = 5;
+        /** 每个渠道同时在途的发送数 */
+        private int maxInflight = 4;
+        /** 最大重试次数 */
+        private int maxRetries = 3;
+        /** 首次重试等待（毫秒），之后指数退避 */
+        private long retryBackoffMs = 2000;
+        /** 最大重试等待（毫秒） */
+        private long maxBackoffMs = 60000;
+        /** 单次发送超时（毫秒） */
+        private long sendTimeoutMs = 10000;
+        /** 调度间隔（毫秒） */
+        private long tickMs = 200;
+    }
+}
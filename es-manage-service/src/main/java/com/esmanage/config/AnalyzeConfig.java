@@ -0,0 +1,35 @@
+package com.esmanage.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 分析器测试配置类
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "analyze")
+public class AnalyzeConfig {
+
+    /** 并行调用 _analyze 的最大并发数 */
+    private int maxConcurrency = 4;
+
+    /** 分词结果缓存条数（按最近访问淘汰） */
+    private int cacheEntries = 20000;
+
+    /** 分词结果缓存有效期（毫秒），索引内分析器定义变更后旧结果最多保留这么久 */
+    private long cacheTtlMs = 600000;
+
+    /** 单次批量请求最多的文本数 */
+    private int maxTexts = 1000;
+
+    /** 单次批量请求最多的分析器数 */
+    private int maxAnalyzers = 8;
+
+    /** 单条文本最大字符数 */
+    private int maxTextChars = 10000;
+
+    /** 单次批量请求的总超时（毫秒） */
+    private long timeoutMs = 60000;
+}
@@ -0,0 +1,53 @@
+package com.esmanage.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 审批配置类
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "approval")
+public class ApprovalConfig {
+
+    /** 数据目录（审批申请） */
+    private String dataDir = "data/approval";
+
+    /** 单个段文件大小（字节） */
+    private int segmentBytes = 16 * 1024 * 1024;
+
+    /** 压缩检查间隔（毫秒） */
+    private long compactIntervalMs = 3600000;
+
+    /** 段内有效记录占比低于此值时重写该段 */
+    private double compactLiveRatio = 0.5;
+
+    /** 每次写入后是否刷盘 */
+    private boolean forceOnWrite = true;
+
+    /** 审批类型 -> 审批通过后执行的操作流模板 ID，未绑定的类型审批通过即结束 */
+    private Map<String, String> bindings = new LinkedHashMap<>(Map.of(
+            "create_index", "tpl-002",
+            "delete_index", "tpl-005",
+            "update_mapping", "tpl-001",
+            "update_alias", "tpl-003",
+            "reindex", "tpl-004"));
+
+    /** 执行队列 */
+    private Queue queue = new Queue();
+
+    @Data
+    public static class Queue {
+        /** 队列容量，超出的申请保持已通过状态，等待补充入队 */
+        private int capacity = 100;
+        /** 同时执行的操作流数 */
+        private int maxConcurrent = 2;
+        /** 从存储补充入队的检查间隔（毫秒） */
+        private long refillIntervalMs = 10000;
+    }
+}
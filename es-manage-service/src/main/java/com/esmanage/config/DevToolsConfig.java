@@ -0,0 +1,41 @@
+package com.esmanage.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 开发工具控制台代理配置类
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "devtools")
+public class DevToolsConfig {
+
+    /** 单个响应最多转发的字节数，0 表示不限制 */
+    private long maxResponseBytes = 0;
+
+    /** 单个请求体最大字节数 */
+    private long maxRequestBytes = 10 * 1024 * 1024;
+
+    /** 读取超时（毫秒），大查询与聚合可能长时间无数据返回；也是浏览器断开后代理等待 ES 响应头的最长时间 */
+    private long readTimeoutMs = 300000;
+
+    /** 每次从 ES 读取并写给浏览器的最大字节数 */
+    private int chunkBytes = 65536;
+
+    /** 保留的最近查询记录数 */
+    private int historySize = 100;
+
+    /** 慢查询排行榜保留的查询数 */
+    private int leaderboardSize = 50;
+
+    /** 耗时低于该值（毫秒）的查询不进入排行榜 */
+    private long leaderboardMinTookMs = 100;
+
+    /** 排行榜中保存的请求体最大字节数 */
+    private int capturedBodyBytes = 4096;
+
+    /** 性能剖析结果保留的查询组件数（按自身耗时排序） */
+    private int profileTopComponents = 50;
+}
@@ -0,0 +1,50 @@
+package com.esmanage.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Elasticsearch 直连配置类
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "elasticsearch")
+public class ElasticsearchConfig {
+
+    /** ES 节点地址列表（默认集群） */
+    private List<String> hosts = new ArrayList<>();
+
+    /** 默认集群的集群 ID，为空时使用 kibana.cluster-id */
+    private String clusterId;
+
+    /** 用户名 */
+    private String username;
+
+    /** 密码 */
+    private String password;
+
+    /** 连接超时（毫秒） */
+    private long connectTimeoutMs = 5000;
+
+    /** 读取超时（毫秒） */
+    private long readTimeoutMs = 30000;
+
+    /** 其他集群的直连配置：集群 ID -> 连接信息，监控接口按 clusterId 选择 */
+    private Map<String, Cluster> clusters = new HashMap<>();
+
+    @Data
+    public static class Cluster {
+        /** ES 节点地址列表 */
+        private List<String> hosts = new ArrayList<>();
+        /** 用户名 */
+        private String username;
+        /** 密码 */
+        private String password;
+    }
+}
@@ -0,0 +1,26 @@
+package com.esmanage.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 多集群（Fleet）配置类
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "fleet")
+public class FleetConfig {
+
+    /** 跨集群并行采集的最大并发数 */
+    private int maxConcurrency = 8;
+
+    /** 单个集群采集超时（毫秒） */
+    private long clusterTimeoutMs = 15000;
+
+    /** 一次多集群概览的总等待上限（毫秒），集群数超过并发数时按批次累加的超时不超过该值 */
+    private long totalTimeoutMs = 30000;
+
+    /** 集群列表缓存时间（毫秒） */
+    private long discoveryCacheMs = 300000;
+}
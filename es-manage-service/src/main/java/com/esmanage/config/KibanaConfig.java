@@ -4,6 +4,9 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Kibana 配置类
  */
@@ -15,6 +18,18 @@ public class KibanaConfig {
     /** Kibana 服务地址 */
     private String baseUrl;
 
+    /** Kibana 服务地址列表（多实例时配置，为空则只使用 baseUrl） */
+    private List<String> endpoints = new ArrayList<>();
+
+    /** 负载均衡策略: least-outstanding（最少在途请求）/ ewma（延迟加权） */
+    private String loadBalance = "least-outstanding";
+
+    /** 连续失败多少次后摘除实例 */
+    private int ejectionThreshold = 3;
+
+    /** 实例摘除时长（毫秒） */
+    private long ejectionMs = 30000;
+
     /** 集群 ID */
     private String clusterId;
 
@@ -29,4 +44,14 @@ public class KibanaConfig {
 
     /** Kibana 构建号 */
     private String buildNumber;
+
+    /**
+     * 获取实际使用的 Kibana 地址列表
+     */
+    public List<String> resolveEndpoints() {
+        if (endpoints != null && !endpoints.isEmpty()) {
+            return endpoints;
+        }
+        return List.of(baseUrl);
+    }
 }
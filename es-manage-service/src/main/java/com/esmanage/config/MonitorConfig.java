@@ -0,0 +1,123 @@
+package com.esmanage.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 监控服务配置类
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "monitor")
+public class MonitorConfig {
+
+    /** 监控数据源: kibana（Kibana Monitoring API）/ elasticsearch（直连 ES） */
+    private String dataSource = "kibana";
+
+    /** 热点接口响应缓存 */
+    private ResponseCache responseCache = new ResponseCache();
+
+    /** 节点统计采集 */
+    private NodeStats nodeStats = new NodeStats();
+
+    /** 指标异常检测 */
+    private Anomaly anomaly = new Anomaly();
+
+    /** 磁盘与堆内存预测 */
+    private Forecast forecast = new Forecast();
+
+    /** 长时间运行任务（reindex 等）进度跟踪 */
+    private Tasks tasks = new Tasks();
+
+    @Data
+    public static class NodeStats {
+        /** 是否启用（需配置 elasticsearch.hosts） */
+        private boolean enabled = false;
+        /** 采集间隔（毫秒） */
+        private long intervalMs = 10000;
+        /** 每个节点保留的采样数 */
+        private int historySize = 360;
+    }
+
+    @Data
+    public static class ResponseCache {
+        /** 是否启用 */
+        private boolean enabled = true;
+        /** 快照有效期（毫秒），期内的重复请求直接返回已编码的字节 */
+        private long ttlMs = 10000;
+        /** 最多缓存的快照数 */
+        private int maxEntries = 512;
+    }
+
+    @Data
+    public static class Anomaly {
+        /** 是否启用 */
+        private boolean enabled = true;
+        /** 检测的指标（转换后的时序名） */
+        private List<String> metrics = new ArrayList<>(List.of(
+                "query_latency", "index_latency", "search_rate", "indexing_rate",
+                "cpu_percent", "heap_used_percent"));
+        /** EWMA 平滑系数，同时用于残差方差 */
+        private double ewmaAlpha = 0.1;
+        /** Holt-Winters 水平、趋势、季节平滑系数 */
+        private double hwAlpha = 0.3;
+        private double hwBeta = 0.05;
+        private double hwGamma = 0.2;
+        /** 季节周期（毫秒）与每周期的季节桶数 */
+        private long seasonMs = 86400000;
+        private int seasonBuckets = 24;
+        /** 预热样本数，之前得分为 0 */
+        private int warmupSamples = 20;
+        /** 每条序列保留的得分历史数 */
+        private int historySize = 720;
+        /** 最多检测的序列数，超出时淘汰最久未访问的序列 */
+        private int maxSeries = 4096;
+    }
+
+    @Data
+    public static class Forecast {
+        /** 是否启用 */
+        private boolean enabled = true;
+        /** 趋势拟合的半衰期（毫秒） */
+        private long halfLifeMs = 21600000;
+        /** 同一节点两次样本的最小间隔（毫秒） */
+        private long minIntervalMs = 10000;
+        /** 输出预测前需要的最少样本数 */
+        private int minSamples = 5;
+        /** Huber 降权阈值（残差标准差倍数） */
+        private double huberK = 2.5;
+        /** 磁盘低/高/洪水水位（使用率 %），与 ES cluster.routing.allocation.disk.watermark 默认值一致 */
+        private double lowWatermark = 85;
+        private double highWatermark = 90;
+        private double floodWatermark = 95;
+        /** 堆内存阈值（使用率 %） */
+        private double heapThreshold = 95;
+        /** 预测范围（小时），超出视为不会到达 */
+        private double maxHorizonHours = 720;
+        /** 超过此时长（毫秒）没有样本的节点不再输出 */
+        private long staleMs = 3600000;
+        /** 最多跟踪的节点数 */
+        private int maxNodes = 2048;
+    }
+
+    @Data
+    public static class Tasks {
+        /** 是否启用（需配置 elasticsearch.hosts） */
+        private boolean enabled = true;
+        /** 轮询间隔（毫秒），每个周期一次 _tasks 请求覆盖全部任务 */
+        private long intervalMs = 2000;
+        /** 跟踪的任务 action 模式 */
+        private List<String> actions = new ArrayList<>(List.of(
+                "*reindex", "*byquery", "indices:admin/forcemerge*", "cluster:admin/snapshot/*"));
+        /** 是否自动跟踪匹配 actions 的所有任务，关闭时只跟踪显式登记的任务 */
+        private boolean autoTrack = true;
+        /** 吞吐量 EWMA 平滑系数 */
+        private double rateAlpha = 0.3;
+        /** 保留的已结束任务数 */
+        private int historySize = 200;
+    }
+}
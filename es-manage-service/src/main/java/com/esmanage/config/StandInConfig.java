@@ -0,0 +1,117 @@
+package com.esmanage.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 本地替身服务配置类
+ * 用于在没有真实集群的环境下联调与测试
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "standin")
+public class StandInConfig {
+
+    /** Elasticsearch 替身 */
+    private Elasticsearch elasticsearch = new Elasticsearch();
+
+    /** 通知接收端替身（Webhook / 钉钉机器人） */
+    private Webhook webhook = new Webhook();
+
+    /** Kibana Monitoring API 替身 */
+    private Kibana kibana = new Kibana();
+
+    /** 进程内压测驱动 */
+    private LoadDriver loadDriver = new LoadDriver();
+
+    @Data
+    public static class Elasticsearch {
+        /** 是否启用 */
+        private boolean enabled = false;
+        /** 监听端口 */
+        private int port = 9299;
+        /** 模拟节点数 */
+        private int nodes = 5;
+        /** 模拟索引数 */
+        private int indices = 50;
+        /** 模拟写操作（建索引、改设置、reindex 等）的耗时（毫秒） */
+        private long writeLatencyMs = 0;
+    }
+
+    @Data
+    public static class Webhook {
+        /** 是否启用 */
+        private boolean enabled = false;
+        /** 监听端口 */
+        private int port = 9298;
+        /** 模拟失败比例（0~1），失败时返回 500 */
+        private double failureRate = 0;
+        /** 模拟响应延迟（毫秒） */
+        private long latencyMs = 0;
+    }
+
+    @Data
+    public static class Kibana {
+        /** 是否启用 */
+        private boolean enabled = false;
+        /** 监听端口 */
+        private int port = 9297;
+        /** 模式: replay（回放录制数据）, record（转发到真实 Kibana 并录制响应） */
+        private String mode = "replay";
+        /** 录制数据目录，每类接口一个文件 */
+        private String fixturesDir = "data/kibana-fixtures";
+        /** 录制模式下转发的真实 Kibana 地址 */
+        private String upstreamUrl;
+        /** 回放的节点数，录制数据不足时复制扩充，0 表示保持录制数量（无录制数据时为 5） */
+        private int nodes = 0;
+        /** 回放的索引数，0 表示保持录制数量（无录制数据时为 50） */
+        private int indices = 0;
+        /** 无录制数据时每个指标生成的采样点数 */
+        private int seriesPoints = 60;
+        /** 全部接口的故障注入 */
+        private Injection injection = new Injection();
+        /**
+         * 按接口覆盖的故障注入，整体替换默认配置
+         * 键: clusters, cluster-overview, nodes, node-detail, indices, index-detail
+         */
+        private Map<String, Injection> routes = new HashMap<>();
+    }
+
+    @Data
+    public static class Injection {
+        /** 延迟分布: none, fixed, uniform, exponential, lognormal */
+        private String latency = "none";
+        /** 延迟（毫秒）：fixed 为固定值，uniform 为下限，exponential 为均值，lognormal 为中位数 */
+        private long latencyMs = 0;
+        /** 延迟上限（毫秒）：uniform 为上限，其余分布超过时截断，0 表示不截断 */
+        private long latencyMaxMs = 0;
+        /** lognormal 分布的 sigma，越大尾部越长 */
+        private double latencySigma = 0.5;
+        /** 返回错误的比例（0~1） */
+        private double errorRate = 0;
+        /** 注入错误时的状态码 */
+        private int errorStatus = 503;
+        /** 卡顿比例（0~1）：写出一半响应体后暂停 */
+        private double stallRate = 0;
+        /** 卡顿时长（毫秒） */
+        private long stallMs = 35000;
+    }
+
+    @Data
+    public static class LoadDriver {
+        /** 是否启用（/api/loadtest） */
+        private boolean enabled = false;
+        /** 默认并发数 */
+        private int concurrency = 16;
+        /** 默认压测时长（秒），不含预热 */
+        private int durationSec = 30;
+        /** 默认预热时长（秒），预热期间的请求不计入结果 */
+        private int warmupSec = 5;
+        /** 单次请求超时（毫秒） */
+        private long timeoutMs = 60000;
+    }
+}
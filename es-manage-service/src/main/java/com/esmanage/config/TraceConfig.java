@@ -0,0 +1,29 @@
+package com.esmanage.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 请求链路追踪配置类
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "trace")
+public class TraceConfig {
+
+    /** 是否记录请求链路 */
+    private boolean enabled = true;
+
+    /** 环形缓冲区容量，向上取整为 2 的幂 */
+    private int capacity = 1024;
+
+    /** 总耗时低于该值（毫秒）的请求不写入环形缓冲区 */
+    private long minDurationMs = 200;
+
+    /** 单个请求最多记录的上游调用数，超出部分只计数 */
+    private int maxSpans = 64;
+
+    /** 是否同时提交 JDK Flight Recorder 自定义事件（需 JFR 录制开启才会落盘） */
+    private boolean jfrEvents = true;
+}
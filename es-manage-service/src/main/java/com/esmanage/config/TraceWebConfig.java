@@ -0,0 +1,22 @@
+package com.esmanage.config;
+
+import com.esmanage.metrics.TraceHandlerInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 请求链路追踪的 MVC 配置
+ */
+@Configuration
+@RequiredArgsConstructor
+public class TraceWebConfig implements WebMvcConfigurer {
+
+    private final TraceHandlerInterceptor traceHandlerInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(traceHandlerInterceptor).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,67 @@
+package com.esmanage.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 操作流配置类
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "workflow")
+public class WorkflowConfig {
+
+    /** 数据目录（执行记录） */
+    private String dataDir = "data/workflow";
+
+    /** 单个执行内同时运行的步骤数 */
+    private int maxParallelSteps = 8;
+
+    /** 发往 ES 的并发请求上限 */
+    private int maxConcurrentRequests = 32;
+
+    /** 步骤默认超时（毫秒） */
+    private long defaultTimeoutMs = 600000;
+
+    /** 步骤默认重试次数 */
+    private int defaultMaxRetries = 0;
+
+    /** 首次重试等待（毫秒），之后指数退避 */
+    private long retryBackoffMs = 2000;
+
+    /** 执行记录中保存的单个响应最大字节数，超出时只保存摘要 */
+    private int maxResponseBytes = 65536;
+
+    /** 保留的执行记录数 */
+    private int maxExecutions = 500;
+
+    /** 批量索引操作 */
+    private Bulk bulk = new Bulk();
+
+    @Data
+    public static class Bulk {
+        /** 单个请求 URL 的最大长度，索引名按逗号拼接到该长度以内 */
+        private int maxUrlLength = 4000;
+        /** 单个请求最多包含的索引数 */
+        private int maxIndicesPerBatch = 200;
+        /** 初始并发批次数 */
+        private int initialConcurrency = 2;
+        /** 最大并发批次数 */
+        private int maxConcurrency = 8;
+        /** 集群待处理任务超过该值时退避 */
+        private int pendingTasksThreshold = 50;
+        /** 待处理任务检查间隔（毫秒） */
+        private long pendingTasksCheckMs = 1000;
+        /** 退避等待（毫秒） */
+        private long backoffMs = 2000;
+        /** 单个批次的最大重试次数 */
+        private int maxRetries = 3;
+        /** 单个批次超时（毫秒） */
+        private long batchTimeoutMs = 300000;
+        /** 保留的操作记录数 */
+        private int maxOperations = 50;
+        /** 每个操作保留的失败明细数 */
+        private int maxFailures = 100;
+    }
+}
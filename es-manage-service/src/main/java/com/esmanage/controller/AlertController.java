@@ -0,0 +1,235 @@
+package com.esmanage.controller;
+
+import com.esmanage.dto.AlertRecordDTO;
+import com.esmanage.dto.AlertRecordPageDTO;
+import com.esmanage.dto.AlertRuleDTO;
+import com.esmanage.dto.AlertStatisticsDTO;
+import com.esmanage.dto.request.AlertRecordQuery;
+import com.esmanage.service.alert.AlertEngine;
+import com.esmanage.service.alert.AlertRecordStore;
+import com.esmanage.service.alert.AlertRuleService;
+import com.esmanage.service.alert.AlertSampleCollector;
+import com.esmanage.service.alert.AlertStatisticsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 告警 API 控制器
+ * 提供告警规则管理与评估引擎状态接口
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/alert")
+@RequiredArgsConstructor
+public class AlertController {
+
+    private final AlertRuleService alertRuleService;
+    private final AlertEngine alertEngine;
+    private final AlertSampleCollector alertSampleCollector;
+    private final AlertRecordStore alertRecordStore;
+    private final AlertStatisticsService alertStatisticsService;
+
+    /**
+     * 获取告警规则列表
+     */
+    @GetMapping("/rules")
+    public ResponseEntity<List<AlertRuleDTO>> getRules() {
+        return ResponseEntity.ok(alertRuleService.getRules());
+    }
+
+    /**
+     * 获取单个告警规则
+     */
+    @GetMapping("/rules/{ruleId}")
+    public ResponseEntity<AlertRuleDTO> getRule(@PathVariable String ruleId) {
+        AlertRuleDTO rule = alertRuleService.getRule(ruleId);
+        return rule != null ? ResponseEntity.ok(rule) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * 新建告警规则
+     */
+    @PostMapping("/rules")
+    public ResponseEntity<AlertRuleDTO> createRule(@RequestBody AlertRuleDTO rule) {
+        try {
+            return ResponseEntity.ok(alertRuleService.createRule(rule));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid alert rule: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IOException e) {
+            log.error("Failed to save alert rule", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * 更新告警规则
+     */
+    @PutMapping("/rules/{ruleId}")
+    public ResponseEntity<AlertRuleDTO> updateRule(@PathVariable String ruleId, @RequestBody AlertRuleDTO rule) {
+        try {
+            AlertRuleDTO updated = alertRuleService.updateRule(ruleId, rule);
+            return updated != null ? ResponseEntity.ok(updated) : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid alert rule: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IOException e) {
+            log.error("Failed to save alert rule", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * 删除告警规则
+     */
+    @DeleteMapping("/rules/{ruleId}")
+    public ResponseEntity<Void> deleteRule(@PathVariable String ruleId) {
+        try {
+            return alertRuleService.deleteRule(ruleId)
+                    ? ResponseEntity.ok().build() : ResponseEntity.notFound().build();
+        } catch (IOException e) {
+            log.error("Failed to delete alert rule", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * 获取当前触发中的告警
+     */
+    @GetMapping("/active")
+    public ResponseEntity<List<AlertRecordDTO>> getActiveAlerts() {
+        return ResponseEntity.ok(alertEngine.getActiveAlerts());
+    }
+
+    /**
+     * 立即采样并评估一次，返回本次产生的事件
+     */
+    @PostMapping("/evaluate")
+    public ResponseEntity<List<AlertRecordDTO>> evaluate() {
+        try {
+            return ResponseEntity.ok(alertSampleCollector.evaluateNow());
+        } catch (IOException e) {
+            log.error("Failed to evaluate alert rules", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * 获取评估引擎统计
+     */
+    @GetMapping("/engine/stats")
+    public ResponseEntity<Map<String, Object>> getEngineStats() {
+        return ResponseEntity.ok(alertEngine.getStats());
+    }
+
+    /**
+     * 分页查询告警记录
+     *
+     * @param ruleId   规则 ID
+     * @param severity 级别
+     * @param status   状态
+     * @param target   目标节点或索引
+     * @param from     触发时间下限（毫秒）
+     * @param to       触发时间上限（毫秒）
+     * @param page     页码（从0开始），默认0
+     * @param pageSize 每页大小，默认20
+     * @return 告警记录分页结果
+     */
+    @GetMapping("/records")
+    public ResponseEntity<AlertRecordPageDTO> getRecords(
+            @RequestParam(required = false) String ruleId,
+            @RequestParam(required = false) String severity,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String target,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "20") Integer pageSize) {
+        try {
+            AlertRecordQuery query = new AlertRecordQuery();
+            query.setRuleId(ruleId);
+            query.setSeverity(severity);
+            query.setStatus(status);
+            query.setTarget(target);
+            query.setFrom(from);
+            query.setTo(to);
+            query.setPage(page);
+            query.setPageSize(pageSize);
+            return ResponseEntity.ok(alertRecordStore.query(query));
+        } catch (IOException e) {
+            log.error("Failed to query alert records", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * 获取单条告警记录
+     */
+    @GetMapping("/records/{recordId}")
+    public ResponseEntity<AlertRecordDTO> getRecord(@PathVariable String recordId) {
+        try {
+            AlertRecordDTO record = alertRecordStore.getRecord(recordId);
+            return record != null ? ResponseEntity.ok(record) : ResponseEntity.notFound().build();
+        } catch (IOException e) {
+            log.error("Failed to get alert record", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * 确认告警
+     */
+    @PostMapping("/records/{recordId}/acknowledge")
+    public ResponseEntity<AlertRecordDTO> acknowledge(
+            @PathVariable String recordId,
+            @RequestParam(defaultValue = "admin") String user) {
+        try {
+            AlertRecordDTO record = alertRecordStore.acknowledge(recordId, user);
+            return record != null ? ResponseEntity.ok(record) : ResponseEntity.notFound().build();
+        } catch (IOException e) {
+            log.error("Failed to acknowledge alert record", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * 获取告警统计
+     *
+     * @param hours 小时趋势桶数，默认24
+     * @param days  天趋势桶数，默认7
+     * @return 告警统计
+     */
+    @GetMapping("/statistics")
+    public ResponseEntity<AlertStatisticsDTO> getStatistics(
+            @RequestParam(defaultValue = "24") Integer hours,
+            @RequestParam(defaultValue = "7") Integer days) {
+        return ResponseEntity.ok(alertStatisticsService.getStatistics(hours, days));
+    }
+
+    /**
+     * 获取告警记录存储统计
+     */
+    @GetMapping("/records/store")
+    public ResponseEntity<Map<String, Object>> getStoreStats() {
+        return ResponseEntity.ok(alertRecordStore.getStats());
+    }
+
+    /**
+     * 立即压缩告警记录存储
+     */
+    @PostMapping("/records/compact")
+    public ResponseEntity<Map<String, Object>> compact() {
+        try {
+            return ResponseEntity.ok(alertRecordStore.compact());
+        } catch (IOException e) {
+            log.error("Failed to compact alert records", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.esmanage.controller;
+
+import com.esmanage.dto.AnalyzeBatchDTO;
+import com.esmanage.dto.request.AnalyzeBatchRequest;
+import com.esmanage.service.AnalyzeService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 分析器测试 API 控制器
+ * 提供多文本、多分析器的批量分词与差异对比接口
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/analyze")
+@RequiredArgsConstructor
+public class AnalyzeController {
+
+    private final AnalyzeService analyzeService;
+
+    /**
+     * 批量分析：每条文本在每个分析器下分词，返回词元与分析器之间的差异矩阵
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<AnalyzeBatchDTO> analyze(@RequestBody AnalyzeBatchRequest request) {
+        try {
+            return ResponseEntity.ok(analyzeService.analyze(request));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid analyze request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            log.warn("Analyze unavailable: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (IOException e) {
+            log.error("Failed to analyze texts", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * 获取分词结果缓存统计
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(analyzeService.getStats());
+    }
+
+    /**
+     * 清除分词结果缓存（如索引分析器配置变更后），指定索引时只清除该索引上的结果
+     */
+    @DeleteMapping("/cache")
+    public ResponseEntity<Map<String, Object>> clearCache(@RequestParam(required = false) String index) {
+        return ResponseEntity.ok(Map.of("evicted", analyzeService.clearCache(index)));
+    }
+}
@@ -0,0 +1,189 @@
+package com.esmanage.controller;
+
+import com.esmanage.dto.ApprovalPageDTO;
+import com.esmanage.dto.ApprovalRequestDTO;
+import com.esmanage.dto.request.ApprovalActionRequest;
+import com.esmanage.dto.request.ApprovalQuery;
+import com.esmanage.service.approval.ApprovalExecutionQueue;
+import com.esmanage.service.approval.ApprovalService;
+import com.esmanage.service.approval.ApprovalStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 审批 API 控制器
+ * 提供审批申请提交、审批操作、列表查询与执行队列接口
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/approval")
+@RequiredArgsConstructor
+public class ApprovalController {
+
+    private final ApprovalService approvalService;
+    private final ApprovalExecutionQueue executionQueue;
+    private final ApprovalStore approvalStore;
+
+    /**
+     * 分页查询审批申请
+     *
+     * @param status    状态
+     * @param type      申请类型
+     * @param applicant 申请人
+     * @param from      提交时间下限（毫秒）
+     * @param to        提交时间上限（毫秒）
+     * @param page      页码（从0开始），默认0
+     * @param pageSize  每页大小，默认20
+     * @return 审批申请分页结果
+     */
+    @GetMapping("/requests")
+    public ResponseEntity<ApprovalPageDTO> getRequests(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String applicant,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "20") Integer pageSize) {
+        try {
+            ApprovalQuery query = new ApprovalQuery();
+            query.setStatus(status);
+            query.setType(type);
+            query.setApplicant(applicant);
+            query.setFrom(from);
+            query.setTo(to);
+            query.setPage(page);
+            query.setPageSize(pageSize);
+            return ResponseEntity.ok(approvalService.query(query));
+        } catch (IOException e) {
+            log.error("Failed to query approval requests", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * 获取单个审批申请
+     */
+    @GetMapping("/requests/{approvalId}")
+    public ResponseEntity<ApprovalRequestDTO> getRequest(@PathVariable String approvalId) {
+        try {
+            ApprovalRequestDTO request = approvalService.getRequest(approvalId);
+            return request != null ? ResponseEntity.ok(request) : ResponseEntity.notFound().build();
+        } catch (IOException e) {
+            log.error("Failed to get approval request", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * 提交审批申请
+     */
+    @PostMapping("/requests")
+    public ResponseEntity<ApprovalRequestDTO> submit(@RequestBody ApprovalRequestDTO request) {
+        try {
+            return ResponseEntity.ok(approvalService.submit(request));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid approval request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IOException e) {
+            log.error("Failed to submit approval request", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * 通过当前审批节点
+     */
+    @PostMapping("/requests/{approvalId}/approve")
+    public ResponseEntity<ApprovalRequestDTO> approve(
+            @PathVariable String approvalId,
+            @RequestBody(required = false) ApprovalActionRequest action) {
+        try {
+            ApprovalRequestDTO request = approvalService.approve(approvalId, orEmpty(action));
+            return request != null ? ResponseEntity.ok(request) : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid approval action: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IOException e) {
+            log.error("Failed to approve request", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * 驳回当前审批节点
+     */
+    @PostMapping("/requests/{approvalId}/reject")
+    public ResponseEntity<ApprovalRequestDTO> reject(
+            @PathVariable String approvalId,
+            @RequestBody(required = false) ApprovalActionRequest action) {
+        try {
+            ApprovalRequestDTO request = approvalService.reject(approvalId, orEmpty(action));
+            return request != null ? ResponseEntity.ok(request) : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid approval action: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IOException e) {
+            log.error("Failed to reject request", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * 撤销申请，执行中的申请取消其操作流
+     */
+    @PostMapping("/requests/{approvalId}/cancel")
+    public ResponseEntity<ApprovalRequestDTO> cancel(
+            @PathVariable String approvalId,
+            @RequestBody(required = false) ApprovalActionRequest action) {
+        try {
+            ApprovalRequestDTO request = approvalService.cancel(approvalId, orEmpty(action));
+            return request != null ? ResponseEntity.ok(request) : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid approval action: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IOException e) {
+            log.error("Failed to cancel request", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * 获取执行队列中排队的申请
+     */
+    @GetMapping("/queue")
+    public ResponseEntity<List<Map<String, Object>>> getQueue() {
+        return ResponseEntity.ok(executionQueue.getQueued());
+    }
+
+    /**
+     * 获取审批统计
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(approvalService.getStats());
+    }
+
+    /**
+     * 立即压缩审批存储
+     */
+    @PostMapping("/store/compact")
+    public ResponseEntity<Map<String, Object>> compact() {
+        try {
+            return ResponseEntity.ok(approvalStore.compact());
+        } catch (IOException e) {
+            log.error("Failed to compact approval store", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    private static ApprovalActionRequest orEmpty(ApprovalActionRequest action) {
+        return action != null ? action : new ApprovalActionRequest();
+    }
+}
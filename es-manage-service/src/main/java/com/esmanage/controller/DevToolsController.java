@@ -0,0 +1,126 @@
+package com.esmanage.controller;
+
+import com.esmanage.client.ElasticsearchClient;
+import com.esmanage.dto.DevToolsQueryDTO;
+import com.esmanage.dto.QueryProfileDTO;
+import com.esmanage.dto.SlowQueryDTO;
+import com.esmanage.service.DevToolsProxyService;
+import com.esmanage.service.QueryProfileService;
+import com.esmanage.service.SlowQueryLeaderboard;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 开发工具 API 控制器
+ * 提供控制台到 Elasticsearch 的流式代理、查询性能剖析、慢查询排行榜与查询统计接口
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/devtools")
+@RequiredArgsConstructor
+public class DevToolsController {
+
+    private final DevToolsProxyService devToolsProxyService;
+    private final QueryProfileService queryProfileService;
+    private final SlowQueryLeaderboard slowQueryLeaderboard;
+
+    /**
+     * 代理控制台请求，请求体原样转发，响应体流式写回（参数与 Kibana 控制台代理一致）
+     *
+     * @param method ES 请求方法: GET, POST, PUT, DELETE, HEAD
+     * @param path   ES 路径（含查询参数）
+     */
+    @PostMapping("/proxy")
+    public void proxy(@RequestParam String method, @RequestParam String path,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            devToolsProxyService.proxy(method, path, request, response);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid DevTools request: {}", e.getMessage());
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            log.warn("DevTools proxy unavailable: {}", e.getMessage());
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+
+    /**
+     * 以性能剖析模式执行搜索，返回按分片与查询组件归并的耗时
+     *
+     * @param path ES 搜索路径（含查询参数），如 /logs-*&#47;_search
+     */
+    @PostMapping("/profile")
+    public ResponseEntity<QueryProfileDTO> profile(@RequestParam String path,
+                                                   @RequestBody(required = false) String body) {
+        try {
+            return ResponseEntity.ok(queryProfileService.profile(path, body));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid profile request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            log.warn("Query profiler unavailable: {}", e.getMessage());
+            return ResponseEntity.status(HttpServletResponse.SC_SERVICE_UNAVAILABLE).build();
+        } catch (ElasticsearchClient.ResponseException e) {
+            log.warn("Profiled search {} failed with status {}", path, e.getStatusCode());
+            return ResponseEntity.status(e.getStatusCode()).build();
+        } catch (IOException e) {
+            log.error("Failed to profile search", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * 获取慢查询排行榜，按耗时倒序
+     *
+     * @param source 来源过滤: proxy, profile
+     */
+    @GetMapping("/leaderboard")
+    public ResponseEntity<List<SlowQueryDTO>> getLeaderboard(@RequestParam(required = false) String source) {
+        return ResponseEntity.ok(slowQueryLeaderboard.getTop(source));
+    }
+
+    /**
+     * 获取排行榜中查询的性能剖析结果
+     */
+    @GetMapping("/leaderboard/{id}/profile")
+    public ResponseEntity<QueryProfileDTO> getLeaderboardProfile(@PathVariable String id) {
+        QueryProfileDTO profile = slowQueryLeaderboard.getProfile(id);
+        return profile != null ? ResponseEntity.ok(profile) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * 清空慢查询排行榜
+     */
+    @DeleteMapping("/leaderboard")
+    public ResponseEntity<Void> clearLeaderboard() {
+        slowQueryLeaderboard.clear();
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * 获取最近的代理查询记录（耗时、字节数、结果）
+     */
+    @GetMapping("/queries")
+    public ResponseEntity<List<DevToolsQueryDTO>> getQueries() {
+        return ResponseEntity.ok(devToolsProxyService.getHistory());
+    }
+
+    /**
+     * 获取代理统计
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(devToolsProxyService.getStats());
+        stats.put("leaderboard", slowQueryLeaderboard.getStats());
+        return ResponseEntity.ok(stats);
+    }
+}
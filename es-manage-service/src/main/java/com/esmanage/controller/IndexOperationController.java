@@ -0,0 +1,78 @@
+package com.esmanage.controller;
+
+import com.esmanage.dto.BulkIndexOperationDTO;
+import com.esmanage.dto.request.BulkIndexOperationRequest;
+import com.esmanage.service.workflow.BulkIndexOperationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 索引批量操作 API 控制器
+ * 提供按模式或列表批量删除、关闭、打开、强制合并与更新设置的接口
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/index/bulk")
+@RequiredArgsConstructor
+public class IndexOperationController {
+
+    private final BulkIndexOperationService bulkIndexOperationService;
+
+    /**
+     * 启动批量操作，dryRun=true 时只返回目标索引与批次数
+     */
+    @PostMapping
+    public ResponseEntity<BulkIndexOperationDTO> start(@RequestBody BulkIndexOperationRequest request) {
+        try {
+            return ResponseEntity.ok(bulkIndexOperationService.start(request));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid bulk operation: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IOException e) {
+            log.error("Failed to resolve bulk operation targets", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * 获取批量操作列表
+     */
+    @GetMapping
+    public ResponseEntity<List<BulkIndexOperationDTO>> getOperations() {
+        return ResponseEntity.ok(bulkIndexOperationService.getOperations());
+    }
+
+    /**
+     * 获取单个批量操作
+     */
+    @GetMapping("/{operationId}")
+    public ResponseEntity<BulkIndexOperationDTO> getOperation(@PathVariable String operationId) {
+        BulkIndexOperationDTO operation = bulkIndexOperationService.getOperation(operationId);
+        return operation != null ? ResponseEntity.ok(operation) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * 订阅批量操作进度（Server-Sent Events）
+     */
+    @GetMapping(value = "/{operationId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(@PathVariable String operationId) {
+        SseEmitter emitter = bulkIndexOperationService.subscribe(operationId);
+        return emitter != null ? ResponseEntity.ok(emitter) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * 取消批量操作
+     */
+    @PostMapping("/{operationId}/cancel")
+    public ResponseEntity<BulkIndexOperationDTO> cancel(@PathVariable String operationId) {
+        BulkIndexOperationDTO operation = bulkIndexOperationService.cancel(operationId);
+        return operation != null ? ResponseEntity.ok(operation) : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.esmanage.controller;
+
+import com.esmanage.dto.LoadTestReportDTO;
+import com.esmanage.dto.request.LoadTestRequest;
+import com.esmanage.standin.LoadDriver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 压测 API 控制器
+ * 仅在启用 standin.load-driver 时注册
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/loadtest")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "standin.load-driver", name = "enabled", havingValue = "true")
+public class LoadTestController {
+
+    private final LoadDriver loadDriver;
+
+    /**
+     * 开始压测，立即返回；结果通过 GET /api/loadtest 查看
+     */
+    @PostMapping
+    public ResponseEntity<LoadTestReportDTO> start(@RequestBody(required = false) LoadTestRequest request) {
+        try {
+            return ResponseEntity.ok(loadDriver.start(request != null ? request : new LoadTestRequest()));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid load test request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            log.warn("Load test not started: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * 获取最近一次压测的报告
+     */
+    @GetMapping
+    public ResponseEntity<LoadTestReportDTO> getLatest() {
+        LoadTestReportDTO report = loadDriver.getLatest();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * 取消正在运行的压测
+     */
+    @DeleteMapping
+    public ResponseEntity<Void> cancel() {
+        return loadDriver.cancel() ? ResponseEntity.ok().build() : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,37 @@
+package com.esmanage.controller;
+
+import com.esmanage.metrics.MetricsRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * 指标 API 控制器
+ * 供 Prometheus 抓取服务自身的性能指标，按 Accept 头协商 OpenMetrics 或 Prometheus 文本格式
+ */
+@RestController
+@RequestMapping("/api/metrics")
+@RequiredArgsConstructor
+public class MetricsController {
+
+    private static final String OPENMETRICS = "application/openmetrics-text";
+
+    private final MetricsRegistry metricsRegistry;
+
+    /**
+     * 输出全部指标
+     */
+    @GetMapping
+    public void scrape(@RequestHeader(value = "Accept", required = false) String accept,
+                       HttpServletResponse response) throws IOException {
+        boolean openMetrics = accept != null && accept.contains(OPENMETRICS);
+        response.setContentType(openMetrics ? OPENMETRICS + "; version=1.0.0; charset=utf-8"
+                : "text/plain; version=0.0.4; charset=utf-8");
+        metricsRegistry.scrape(response.getOutputStream(), openMetrics);
+    }
+}
@@ -2,10 +2,19 @@ package com.esmanage.controller;
 
 import com.esmanage.client.KibanaClient;
 import com.esmanage.dto.*;
+import com.esmanage.dto.request.FieldSelection;
 import com.esmanage.dto.request.IndicesRequest;
 import com.esmanage.dto.request.NodesRequest;
 import com.esmanage.dto.request.TimeRangeRequest;
+import com.esmanage.service.AnomalyDetectionService;
+import com.esmanage.service.ClusterDiscoveryService;
 import com.esmanage.service.ElasticsearchMonitorService;
+import com.esmanage.service.FleetService;
+import com.esmanage.service.ForecastService;
+import com.esmanage.service.NodeStatsCollector;
+import com.esmanage.service.SnapshotResponseCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -14,6 +23,7 @@ import org.springframework.web.bind.annotation.*;
 import java.io.IOException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,20 +40,31 @@ public class MonitorController {
 
     private final ElasticsearchMonitorService monitorService;
     private final KibanaClient kibanaClient;
+    private final ClusterDiscoveryService clusterDiscoveryService;
+    private final FleetService fleetService;
+    private final NodeStatsCollector nodeStatsCollector;
+    private final SnapshotResponseCache responseCache;
+    private final AnomalyDetectionService anomalyDetectionService;
+    private final ForecastService forecastService;
 
     /**
      * 获取集群概览（原始 Kibana 格式）
      *
-     * @param minutes 时间范围（分钟），默认60分钟
+     * @param clusterId 集群 ID，默认使用配置的集群
+     * @param minutes   时间范围（分钟），默认60分钟
      * @return 集群概览数据
      */
     @GetMapping("/cluster/overview")
     public ResponseEntity<ClusterOverviewDTO> getClusterOverview(
+            @RequestParam(required = false) String clusterId,
             @RequestParam(defaultValue = "60") Integer minutes) {
         try {
             TimeRangeRequest timeRange = buildTimeRange(minutes);
-            ClusterOverviewDTO overview = monitorService.getClusterOverview(timeRange);
+            ClusterOverviewDTO overview = monitorService.getClusterOverview(clusterId, timeRange);
             return ResponseEntity.ok(overview);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid cluster overview request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (IOException e) {
             log.error("Failed to get cluster overview", e);
             return ResponseEntity.internalServerError().build();
@@ -52,38 +73,66 @@ public class MonitorController {
 
     /**
      * 获取监控概览（转换后的格式，适合前端展示）
+     * 响应经快照缓存输出，支持 gzip 与 If-None-Match
      *
-     * @param minutes 时间范围（分钟），默认60分钟
+     * @param clusterId 集群 ID，默认使用配置的集群
+     * @param minutes   时间范围（分钟），默认60分钟
+     * @param fields    只返回的段，例如 cluster,jvm,timeSeries.search_rate，默认全部
      * @return 监控概览数据
      */
     @GetMapping("/overview")
-    public ResponseEntity<MonitoringOverviewDTO> getMonitoringOverview(
-            @RequestParam(defaultValue = "60") Integer minutes) {
+    public void getMonitoringOverview(
+            @RequestParam(required = false) String clusterId,
+            @RequestParam(defaultValue = "60") Integer minutes,
+            @RequestParam(required = false) String fields,
+            HttpServletRequest httpRequest,
+            HttpServletResponse httpResponse) {
+        FieldSelection selection;
         try {
-            TimeRangeRequest timeRange = buildTimeRange(minutes);
-            MonitoringOverviewDTO overview = monitorService.getMonitoringOverview(timeRange);
-            return ResponseEntity.ok(overview);
+            selection = FieldSelection.parse(fields, ElasticsearchMonitorService.OVERVIEW_FIELDS,
+                    ElasticsearchMonitorService.OVERVIEW_CHILDREN);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid overview fields: {}", e.getMessage());
+            httpResponse.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        String key = "overview:" + clusterId + ":" + minutes + ":" + selection;
+        try {
+            responseCache.write(key, httpRequest, httpResponse,
+                    () -> monitorService.getMonitoringOverview(clusterId, buildTimeRange(minutes), selection));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid monitoring overview request: {}", e.getMessage());
+            httpResponse.setStatus(HttpServletResponse.SC_BAD_REQUEST);
         } catch (IOException e) {
             log.error("Failed to get monitoring overview", e);
-            return ResponseEntity.internalServerError().build();
+            httpResponse.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
         }
     }
 
     /**
      * 获取节点时序数据
      *
-     * @param nodeId  节点 ID
-     * @param minutes 时间范围（分钟），默认60分钟
+     * @param nodeId    节点 ID
+     * @param clusterId 集群 ID，默认使用配置的集群
+     * @param minutes   时间范围（分钟），默认60分钟
+     * @param fields    只返回的指标（前端键名），例如 cpu_percent,heap_used_percent，默认全部
      * @return 时序数据
      */
     @GetMapping("/nodes/{nodeId}/timeseries")
     public ResponseEntity<Map<String, List<TimeSeriesPointDTO>>> getNodeTimeSeries(
             @PathVariable String nodeId,
-            @RequestParam(defaultValue = "60") Integer minutes) {
+            @RequestParam(required = false) String clusterId,
+            @RequestParam(defaultValue = "60") Integer minutes,
+            @RequestParam(required = false) String fields) {
         try {
             TimeRangeRequest timeRange = buildTimeRange(minutes);
-            Map<String, List<TimeSeriesPointDTO>> timeSeries = monitorService.getNodeTimeSeries(nodeId, timeRange);
-            return ResponseEntity.ok(timeSeries);
+            Map<String, List<TimeSeriesPointDTO>> timeSeries =
+                    monitorService.getNodeTimeSeries(clusterId, nodeId, timeRange,
+                            parseMetricFields(fields, MetricCatalog.Scope.NODE));
+            return timeSeries != null ? ResponseEntity.ok(timeSeries) : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid node time series request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (IOException e) {
             log.error("Failed to get node time series: {}", nodeId, e);
             return ResponseEntity.internalServerError().build();
@@ -93,16 +142,21 @@ public class MonitorController {
     /**
      * 获取集群状态
      *
+     * @param clusterId 集群 ID，默认使用配置的集群
      * @return 集群状态
      */
     @GetMapping("/cluster/status")
-    public ResponseEntity<ClusterStatusDTO> getClusterStatus() {
+    public ResponseEntity<ClusterStatusDTO> getClusterStatus(
+            @RequestParam(required = false) String clusterId) {
         try {
             TimeRangeRequest timeRange = buildTimeRange(60);
             NodesRequest request = new NodesRequest();
             request.setTimeRange(timeRange);
-            NodesResponseDTO response = monitorService.getNodes(request);
+            NodesResponseDTO response = monitorService.getNodes(clusterId, request);
             return ResponseEntity.ok(response.getClusterStatus());
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid cluster status request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (IOException e) {
             log.error("Failed to get cluster status", e);
             return ResponseEntity.internalServerError().build();
@@ -112,48 +166,156 @@ public class MonitorController {
     /**
      * 获取节点列表
      *
-     * @param minutes  时间范围（分钟），默认60分钟
-     * @param page     页码（从0开始），默认0
-     * @param pageSize 每页大小，默认20
-     * @return 节点列表
+     * @param clusterId 集群 ID，默认使用配置的集群
+     * @param minutes   时间范围（分钟），默认60分钟
+     * @param page      页码（从0开始），默认0
+     * @param pageSize  每页大小，默认20
      */
     @GetMapping("/nodes")
-    public ResponseEntity<NodesResponseDTO> getNodes(
+    public void getNodes(
+            @RequestParam(required = false) String clusterId,
             @RequestParam(defaultValue = "60") Integer minutes,
             @RequestParam(defaultValue = "0") Integer page,
-            @RequestParam(defaultValue = "20") Integer pageSize) {
+            @RequestParam(defaultValue = "20") Integer pageSize,
+            HttpServletRequest httpRequest,
+            HttpServletResponse httpResponse) {
+        String key = "nodes:" + clusterId + ":" + minutes + ":" + page + ":" + pageSize;
         try {
-            NodesRequest request = new NodesRequest();
-            request.setTimeRange(buildTimeRange(minutes));
+            responseCache.write(key, httpRequest, httpResponse, () -> {
+                NodesRequest request = new NodesRequest();
+                request.setTimeRange(buildTimeRange(minutes));
 
-            NodesRequest.PaginationRequest pagination = new NodesRequest.PaginationRequest();
-            pagination.setIndex(page);
-            pagination.setSize(pageSize);
-            request.setPagination(pagination);
+                NodesRequest.PaginationRequest pagination = new NodesRequest.PaginationRequest();
+                pagination.setIndex(page);
+                pagination.setSize(pageSize);
+                request.setPagination(pagination);
 
-            NodesResponseDTO response = monitorService.getNodes(request);
-            return ResponseEntity.ok(response);
+                return monitorService.getNodes(clusterId, request);
+            });
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid nodes request: {}", e.getMessage());
+            httpResponse.setStatus(HttpServletResponse.SC_BAD_REQUEST);
         } catch (IOException e) {
             log.error("Failed to get nodes", e);
-            return ResponseEntity.internalServerError().build();
+            httpResponse.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * 获取集群所有节点统计（线程池、断路器、OS、JVM、FS、索引）
+     * 数据来自节点统计采集器的最新一次采集
+     *
+     * @param clusterId 集群 ID，默认使用配置的集群
+     * @return 节点统计列表
+     */
+    @GetMapping("/nodes/stats")
+    public ResponseEntity<List<NodeStatsDTO>> getNodeStats(
+            @RequestParam(required = false) String clusterId) {
+        try {
+            return ResponseEntity.ok(nodeStatsCollector.getNodeStats(clusterId));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid node stats request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * 获取集群所有节点速率（线程池拒绝、断路器触发、GC），按拒绝速率降序
+     *
+     * @param clusterId 集群 ID，默认使用配置的集群
+     * @param window    统计窗口（秒），0 表示只用最近两次采样
+     * @return 节点速率列表
+     */
+    @GetMapping("/nodes/rates")
+    public ResponseEntity<List<NodeRatesDTO>> getNodeRates(
+            @RequestParam(required = false) String clusterId,
+            @RequestParam(defaultValue = "60") Integer window) {
+        try {
+            return ResponseEntity.ok(nodeStatsCollector.getNodeRates(clusterId, window));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid node rates request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * 获取磁盘水位与堆内存预测
+     *
+     * @param clusterId 集群 ID，默认使用配置的集群
+     * @return 集群内各节点与集群汇总的预测
+     */
+    @GetMapping("/forecast")
+    public ResponseEntity<ForecastDTO> getForecast(@RequestParam(required = false) String clusterId) {
+        try {
+            return ResponseEntity.ok(forecastService.getForecast(clusterId));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid forecast request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * 获取单个节点统计
+     *
+     * @param nodeId    节点 ID 或名称
+     * @param clusterId 集群 ID，默认使用配置的集群
+     * @return 节点统计
+     */
+    @GetMapping("/nodes/{nodeId}/stats")
+    public ResponseEntity<NodeStatsDTO> getNodeStats(
+            @PathVariable String nodeId,
+            @RequestParam(required = false) String clusterId) {
+        try {
+            NodeStatsDTO stats = nodeStatsCollector.getNodeStats(clusterId, nodeId);
+            return stats != null ? ResponseEntity.ok(stats) : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid node stats request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * 获取单个节点速率
+     *
+     * @param nodeId    节点 ID 或名称
+     * @param clusterId 集群 ID，默认使用配置的集群
+     * @param window    统计窗口（秒），0 表示只用最近两次采样
+     * @return 节点速率
+     */
+    @GetMapping("/nodes/{nodeId}/rates")
+    public ResponseEntity<NodeRatesDTO> getNodeRates(
+            @PathVariable String nodeId,
+            @RequestParam(required = false) String clusterId,
+            @RequestParam(defaultValue = "60") Integer window) {
+        try {
+            NodeRatesDTO rates = nodeStatsCollector.getNodeRates(clusterId, nodeId, window);
+            return rates != null ? ResponseEntity.ok(rates) : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid node rates request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         }
     }
 
     /**
      * 获取节点详情
      *
-     * @param nodeId  节点 ID
-     * @param minutes 时间范围（分钟），默认60分钟
+     * @param nodeId    节点 ID
+     * @param clusterId 集群 ID，默认使用配置的集群
+     * @param minutes   时间范围（分钟），默认60分钟
      * @return 节点详情
      */
     @GetMapping("/nodes/{nodeId}")
     public ResponseEntity<NodeDetailDTO> getNodeDetail(
             @PathVariable String nodeId,
+            @RequestParam(required = false) String clusterId,
             @RequestParam(defaultValue = "60") Integer minutes) {
         try {
             TimeRangeRequest timeRange = buildTimeRange(minutes);
-            NodeDetailDTO detail = monitorService.getNodeDetail(nodeId, timeRange);
-            return ResponseEntity.ok(detail);
+            NodeDetailDTO detail = monitorService.getNodeDetail(clusterId, nodeId, timeRange);
+            return detail != null ? ResponseEntity.ok(detail) : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid node detail request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (IOException e) {
             log.error("Failed to get node detail: {}", nodeId, e);
             return ResponseEntity.internalServerError().build();
@@ -163,37 +325,46 @@ public class MonitorController {
     /**
      * 获取索引列表
      *
+     * @param clusterId         集群 ID，默认使用配置的集群
      * @param minutes           时间范围（分钟），默认60分钟
      * @param page              页码（从0开始），默认0
      * @param pageSize          每页大小，默认20
      * @param queryText         搜索文本
      * @param showSystemIndices 是否显示系统索引
-     * @return 索引列表
      */
     @GetMapping("/indices")
-    public ResponseEntity<IndicesResponseDTO> getIndices(
+    public void getIndices(
+            @RequestParam(required = false) String clusterId,
             @RequestParam(defaultValue = "60") Integer minutes,
             @RequestParam(defaultValue = "0") Integer page,
             @RequestParam(defaultValue = "20") Integer pageSize,
             @RequestParam(defaultValue = "") String queryText,
-            @RequestParam(defaultValue = "false") Boolean showSystemIndices) {
+            @RequestParam(defaultValue = "false") Boolean showSystemIndices,
+            HttpServletRequest httpRequest,
+            HttpServletResponse httpResponse) {
+        String key = "indices:" + clusterId + ":" + minutes + ":" + page + ":" + pageSize
+                + ":" + showSystemIndices + ":" + queryText;
         try {
-            IndicesRequest request = new IndicesRequest();
-            request.setTimeRange(buildTimeRange(minutes));
+            responseCache.write(key, httpRequest, httpResponse, () -> {
+                IndicesRequest request = new IndicesRequest();
+                request.setTimeRange(buildTimeRange(minutes));
 
-            NodesRequest.PaginationRequest pagination = new NodesRequest.PaginationRequest();
-            pagination.setIndex(page);
-            pagination.setSize(pageSize);
-            request.setPagination(pagination);
+                NodesRequest.PaginationRequest pagination = new NodesRequest.PaginationRequest();
+                pagination.setIndex(page);
+                pagination.setSize(pageSize);
+                request.setPagination(pagination);
 
-            request.setQueryText(queryText);
-            request.setShowSystemIndices(showSystemIndices);
+                request.setQueryText(queryText);
+                request.setShowSystemIndices(showSystemIndices);
 
-            IndicesResponseDTO response = monitorService.getIndices(request);
-            return ResponseEntity.ok(response);
+                return monitorService.getIndices(clusterId, request);
+            });
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid indices request: {}", e.getMessage());
+            httpResponse.setStatus(HttpServletResponse.SC_BAD_REQUEST);
         } catch (IOException e) {
             log.error("Failed to get indices", e);
-            return ResponseEntity.internalServerError().build();
+            httpResponse.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
         }
     }
 
@@ -201,17 +372,22 @@ public class MonitorController {
      * 获取索引详情
      *
      * @param indexName 索引名称
+     * @param clusterId 集群 ID，默认使用配置的集群
      * @param minutes   时间范围（分钟），默认60分钟
      * @return 索引详情
      */
     @GetMapping("/indices/{indexName}")
     public ResponseEntity<IndexDetailDTO> getIndexDetail(
             @PathVariable String indexName,
+            @RequestParam(required = false) String clusterId,
             @RequestParam(defaultValue = "60") Integer minutes) {
         try {
             TimeRangeRequest timeRange = buildTimeRange(minutes);
-            IndexDetailDTO detail = monitorService.getIndexDetail(indexName, timeRange);
+            IndexDetailDTO detail = monitorService.getIndexDetail(clusterId, indexName, timeRange);
             return ResponseEntity.ok(detail);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid index detail request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (IOException e) {
             log.error("Failed to get index detail: {}", indexName, e);
             return ResponseEntity.internalServerError().build();
@@ -222,23 +398,73 @@ public class MonitorController {
      * 获取索引时序数据
      *
      * @param indexName 索引名称
+     * @param clusterId 集群 ID，默认使用配置的集群
      * @param minutes   时间范围（分钟），默认60分钟
+     * @param fields    只返回的指标（前端键名），例如 search_rate,doc_count，默认全部
      * @return 时序数据
      */
     @GetMapping("/indices/{indexName}/timeseries")
     public ResponseEntity<Map<String, List<TimeSeriesPointDTO>>> getIndexTimeSeries(
             @PathVariable String indexName,
-            @RequestParam(defaultValue = "60") Integer minutes) {
+            @RequestParam(required = false) String clusterId,
+            @RequestParam(defaultValue = "60") Integer minutes,
+            @RequestParam(required = false) String fields) {
         try {
             TimeRangeRequest timeRange = buildTimeRange(minutes);
-            Map<String, List<TimeSeriesPointDTO>> timeSeries = monitorService.getIndexTimeSeries(indexName, timeRange);
+            Map<String, List<TimeSeriesPointDTO>> timeSeries =
+                    monitorService.getIndexTimeSeries(clusterId, indexName, timeRange,
+                            parseMetricFields(fields, MetricCatalog.Scope.INDEX));
             return ResponseEntity.ok(timeSeries);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid index time series request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (IOException e) {
             log.error("Failed to get index time series: {}", indexName, e);
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    /**
+     * 获取受监控的集群列表
+     *
+     * @return 集群列表
+     */
+    @GetMapping("/clusters")
+    public ResponseEntity<List<ClusterSummaryDTO>> getClusters() {
+        try {
+            return ResponseEntity.ok(clusterDiscoveryService.getClusters());
+        } catch (IOException e) {
+            log.error("Failed to get cluster list", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * 获取多集群概览
+     * 并行采集所有集群，单次返回可排序的集群表
+     *
+     * @param minutes 时间范围（分钟），默认60分钟
+     * @param sort    排序字段，默认按状态（red 在前）
+     * @param order   排序方向: asc/desc
+     * @return 多集群概览
+     */
+    @GetMapping("/fleet/overview")
+    public ResponseEntity<FleetOverviewDTO> getFleetOverview(
+            @RequestParam(defaultValue = "60") Integer minutes,
+            @RequestParam(defaultValue = "status") String sort,
+            @RequestParam(defaultValue = "asc") String order) {
+        try {
+            TimeRangeRequest timeRange = buildTimeRange(minutes);
+            return ResponseEntity.ok(fleetService.getFleetOverview(timeRange, sort, order));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid fleet overview request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IOException e) {
+            log.error("Failed to get fleet overview", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     /**
      * 构建时间范围
      */
@@ -250,6 +476,15 @@ public class MonitorController {
         return timeRange;
     }
 
+    /**
+     * 解析时序接口的 fields 参数（指标前端键名，也接受 timeSeries.xxx 形式），只接受该实体已登记的指标
+     */
+    private FieldSelection parseMetricFields(String fields, MetricCatalog.Scope scope) {
+        return FieldSelection.parse(fields, ElasticsearchMonitorService.TIME_SERIES_FIELDS,
+                Map.of(ElasticsearchMonitorService.TIME_SERIES, MetricCatalog.aliases(scope)),
+                ElasticsearchMonitorService.TIME_SERIES);
+    }
+
     /**
      * 获取 API 调用统计信息
      * 用于监控和性能分析
@@ -271,10 +506,31 @@ public class MonitorController {
         });
 
         result.put("apiStats", statsMap);
-        result.put("timestamp", System.currentTimeMillis());
 
-        // 打印到日志
-        kibanaClient.logApiStats();
+        List<Map<String, Object>> endpointList = new ArrayList<>();
+        kibanaClient.getEndpoints().forEach(endpoint -> {
+            Map<String, Object> endpointInfo = new HashMap<>();
+            endpointInfo.put("baseUrl", endpoint.getBaseUrl());
+            endpointInfo.put("available", endpoint.isAvailable(System.currentTimeMillis()));
+            endpointInfo.put("requestCount", endpoint.getRequestCount().get());
+            endpointInfo.put("errorCount", endpoint.getErrorCount().get());
+            endpointInfo.put("ejectionCount", endpoint.getEjectionCount().get());
+            endpointInfo.put("outstanding", endpoint.getOutstanding().get());
+            endpointInfo.put("ewmaMs", Math.round(endpoint.getEwmaMs() * 10) / 10.0);
+            endpointInfo.put("connectionCount", endpoint.getConnectionCount());
+            endpointInfo.put("idleConnectionCount", endpoint.getIdleConnectionCount());
+            endpointList.add(endpointInfo);
+        });
+        result.put("endpoints", endpointList);
+
+        Map<String, Object> cacheInfo = new HashMap<>();
+        cacheInfo.put("size", responseCache.size());
+        cacheInfo.put("hitCount", responseCache.getHitCount().get());
+        cacheInfo.put("missCount", responseCache.getMissCount().get());
+        cacheInfo.put("notModifiedCount", responseCache.getNotModifiedCount().get());
+        result.put("responseCache", cacheInfo);
+        result.put("anomaly", anomalyDetectionService.getStats());
+        result.put("timestamp", System.currentTimeMillis());
 
         return ResponseEntity.ok(result);
     }
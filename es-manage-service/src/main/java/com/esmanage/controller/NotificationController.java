@@ -0,0 +1,139 @@
+package com.esmanage.controller;
+
+import com.esmanage.dto.NotificationChannelDTO;
+import com.esmanage.service.notification.InternalNotificationSender;
+import com.esmanage.service.notification.NotificationChannelService;
+import com.esmanage.service.notification.NotificationDispatcher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 告警通知 API 控制器
+ * 提供通知渠道管理、测试发送与分发统计接口
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/alert")
+@RequiredArgsConstructor
+public class NotificationController {
+
+    private final NotificationChannelService channelService;
+    private final NotificationDispatcher dispatcher;
+    private final InternalNotificationSender internalSender;
+
+    /**
+     * 获取通知渠道列表
+     */
+    @GetMapping("/channels")
+    public ResponseEntity<List<NotificationChannelDTO>> getChannels() {
+        return ResponseEntity.ok(channelService.getChannels());
+    }
+
+    /**
+     * 获取单个通知渠道
+     */
+    @GetMapping("/channels/{channelId}")
+    public ResponseEntity<NotificationChannelDTO> getChannel(@PathVariable String channelId) {
+        NotificationChannelDTO channel = channelService.getChannel(channelId);
+        return channel != null ? ResponseEntity.ok(channel) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * 新建通知渠道
+     */
+    @PostMapping("/channels")
+    public ResponseEntity<NotificationChannelDTO> createChannel(@RequestBody NotificationChannelDTO channel) {
+        try {
+            return ResponseEntity.ok(channelService.createChannel(channel));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid notification channel: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IOException e) {
+            log.error("Failed to save notification channel", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * 更新通知渠道
+     */
+    @PutMapping("/channels/{channelId}")
+    public ResponseEntity<NotificationChannelDTO> updateChannel(
+            @PathVariable String channelId, @RequestBody NotificationChannelDTO channel) {
+        try {
+            NotificationChannelDTO updated = channelService.updateChannel(channelId, channel);
+            return updated != null ? ResponseEntity.ok(updated) : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid notification channel: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IOException e) {
+            log.error("Failed to save notification channel", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * 删除通知渠道
+     */
+    @DeleteMapping("/channels/{channelId}")
+    public ResponseEntity<Void> deleteChannel(@PathVariable String channelId) {
+        try {
+            return channelService.deleteChannel(channelId)
+                    ? ResponseEntity.ok().build() : ResponseEntity.notFound().build();
+        } catch (IOException e) {
+            log.error("Failed to delete notification channel", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * 向渠道发送测试通知
+     */
+    @PostMapping("/channels/{channelId}/test")
+    public ResponseEntity<Map<String, Object>> testChannel(@PathVariable String channelId) {
+        NotificationChannelDTO channel = channelService.getChannel(channelId);
+        if (channel == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        try {
+            dispatcher.sendTest(channel).get();
+            result.put("success", true);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            result.put("success", false);
+            result.put("error", cause instanceof TimeoutException ? "Timed out" : cause.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.internalServerError().build();
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * 获取通知分发统计
+     */
+    @GetMapping("/notifications/stats")
+    public ResponseEntity<Map<String, Object>> getNotificationStats() {
+        return ResponseEntity.ok(dispatcher.getStats());
+    }
+
+    /**
+     * 获取站内信
+     *
+     * @param limit 最多返回条数，默认50
+     */
+    @GetMapping("/notifications/inbox")
+    public ResponseEntity<List<Map<String, Object>>> getInbox(@RequestParam(defaultValue = "50") Integer limit) {
+        return ResponseEntity.ok(internalSender.getInbox(limit));
+    }
+}
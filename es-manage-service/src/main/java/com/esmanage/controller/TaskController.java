@@ -0,0 +1,99 @@
+package com.esmanage.controller;
+
+import com.esmanage.client.ElasticsearchClient;
+import com.esmanage.dto.TaskProgressDTO;
+import com.esmanage.service.TaskProgressTracker;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 长时间运行任务 API 控制器
+ * 提供 reindex 等任务的进度查询、登记、取消与进度订阅接口
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/tasks")
+@RequiredArgsConstructor
+public class TaskController {
+
+    private final TaskProgressTracker taskProgressTracker;
+
+    /**
+     * 获取跟踪中的任务与已结束任务历史
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, List<TaskProgressDTO>>> getTasks() {
+        return ResponseEntity.ok(taskProgressTracker.getTasks());
+    }
+
+    /**
+     * 获取单个任务进度
+     */
+    @GetMapping("/{taskId}")
+    public ResponseEntity<TaskProgressDTO> getTask(@PathVariable String taskId) {
+        TaskProgressDTO task = taskProgressTracker.getTask(taskId);
+        return task != null ? ResponseEntity.ok(task) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * 登记需要跟踪的任务
+     *
+     * @param taskId      任务 ID（node:id）
+     * @param description 描述
+     */
+    @PostMapping("/track")
+    public ResponseEntity<TaskProgressDTO> track(
+            @RequestParam String taskId,
+            @RequestParam(required = false) String description) {
+        try {
+            return ResponseEntity.ok(taskProgressTracker.track(taskId, description));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid task: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * 取消任务
+     */
+    @PostMapping("/{taskId}/cancel")
+    public ResponseEntity<Void> cancel(@PathVariable String taskId) {
+        try {
+            taskProgressTracker.cancel(taskId);
+            return ResponseEntity.ok().build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid task cancel request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (ElasticsearchClient.ResponseException e) {
+            return e.getStatusCode() == 404 ? ResponseEntity.notFound().build()
+                    : ResponseEntity.internalServerError().build();
+        } catch (IOException e) {
+            log.error("Failed to cancel task", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * 订阅任务进度（Server-Sent Events），不指定 taskId 时订阅全部任务
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestParam(required = false) String taskId) {
+        return taskProgressTracker.subscribe(taskId);
+    }
+
+    /**
+     * 获取跟踪统计
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(taskProgressTracker.getStats());
+    }
+}
@@ -0,0 +1,59 @@
+package com.esmanage.controller;
+
+import com.esmanage.dto.RequestTraceDTO;
+import com.esmanage.metrics.RequestTracer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 请求链路 API 控制器
+ * 排查"某个时间点页面很慢"时，查看当时最慢请求在控制器、各次上游调用与序列化上的耗时分布
+ */
+@RestController
+@RequestMapping("/api/traces")
+@RequiredArgsConstructor
+public class TraceController {
+
+    private final RequestTracer requestTracer;
+
+    /**
+     * 列出时间窗口内最慢的请求（不含上游调用明细）
+     *
+     * @param from     开始时间戳（毫秒）
+     * @param to       结束时间戳（毫秒）
+     * @param limit    返回条数
+     * @param endpoint 接口路径模板，如 /api/nodes
+     */
+    @GetMapping("/slowest")
+    public ResponseEntity<List<RequestTraceDTO>> getSlowest(@RequestParam(required = false) Long from,
+                                                            @RequestParam(required = false) Long to,
+                                                            @RequestParam(defaultValue = "20") int limit,
+                                                            @RequestParam(required = false) String endpoint) {
+        return ResponseEntity.ok(requestTracer.getSlowest(from, to, Math.max(1, limit), endpoint));
+    }
+
+    /**
+     * 获取请求链路详情，已被新链路覆盖时返回 404
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<RequestTraceDTO> getTrace(@PathVariable long id) {
+        RequestTraceDTO trace = requestTracer.get(id);
+        return trace != null ? ResponseEntity.ok(trace) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * 记录器统计
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(requestTracer.getStats());
+    }
+}
@@ -0,0 +1,94 @@
+package com.esmanage.controller;
+
+import com.esmanage.dto.AtomicOperationDTO;
+import com.esmanage.dto.WorkflowExecutionDTO;
+import com.esmanage.dto.WorkflowTemplateDTO;
+import com.esmanage.dto.request.WorkflowRunRequest;
+import com.esmanage.service.workflow.WorkflowCatalog;
+import com.esmanage.service.workflow.WorkflowEngine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 操作流 API 控制器
+ * 提供原子操作、模板查询与操作流执行接口
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/workflow")
+@RequiredArgsConstructor
+public class WorkflowController {
+
+    private final WorkflowCatalog workflowCatalog;
+    private final WorkflowEngine workflowEngine;
+
+    /**
+     * 获取原子操作列表
+     */
+    @GetMapping("/operations")
+    public ResponseEntity<List<AtomicOperationDTO>> getOperations() {
+        return ResponseEntity.ok(workflowCatalog.getOperations());
+    }
+
+    /**
+     * 获取操作流模板列表
+     */
+    @GetMapping("/templates")
+    public ResponseEntity<List<WorkflowTemplateDTO>> getTemplates() {
+        return ResponseEntity.ok(workflowCatalog.getTemplates());
+    }
+
+    /**
+     * 执行操作流，立即返回执行记录，步骤在后台执行
+     */
+    @PostMapping("/executions")
+    public ResponseEntity<WorkflowExecutionDTO> run(@RequestBody WorkflowRunRequest request) {
+        try {
+            return ResponseEntity.ok(workflowEngine.start(request));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid workflow: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * 获取执行记录列表
+     *
+     * @param status 状态过滤: running, completed, failed, cancelled
+     */
+    @GetMapping("/executions")
+    public ResponseEntity<List<WorkflowExecutionDTO>> getExecutions(@RequestParam(required = false) String status) {
+        return ResponseEntity.ok(workflowEngine.getExecutions(status));
+    }
+
+    /**
+     * 获取单个执行记录
+     */
+    @GetMapping("/executions/{executionId}")
+    public ResponseEntity<WorkflowExecutionDTO> getExecution(@PathVariable String executionId) {
+        WorkflowExecutionDTO execution = workflowEngine.getExecution(executionId);
+        return execution != null ? ResponseEntity.ok(execution) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * 取消执行
+     */
+    @PostMapping("/executions/{executionId}/cancel")
+    public ResponseEntity<WorkflowExecutionDTO> cancel(@PathVariable String executionId) {
+        WorkflowExecutionDTO execution = workflowEngine.cancel(executionId);
+        return execution != null ? ResponseEntity.ok(execution) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * 获取执行引擎统计
+     */
+    @GetMapping("/engine/stats")
+    public ResponseEntity<Map<String, Object>> getEngineStats() {
+        return ResponseEntity.ok(workflowEngine.getStats());
+    }
+}
@@ -0,0 +1,75 @@
+package com.esmanage.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 告警记录 DTO
+ * 字段与前端 AlertRecord 类型一致
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AlertRecordDTO {
+
+    /** 记录 ID，同一次告警的触发与恢复事件共用 */
+    private String id;
+
+    /** 规则 ID */
+    private String ruleId;
+
+    /** 规则名称 */
+    private String ruleName;
+
+    /** 指标类型 */
+    private String metric;
+
+    /** 级别: critical, warning, info */
+    private String severity;
+
+    /** 状态: firing, resolved, acknowledged */
+    private String status;
+
+    /** 告警信息 */
+    private String message;
+
+    /** 当前值 */
+    private Double value;
+
+    /** 阈值 */
+    private Double threshold;
+
+    /** 触发告警的集群、节点或索引 */
+    private String target;
+
+    /** 触发时间 */
+    private Long firedAt;
+
+    /** 恢复时间 */
+    private Long resolvedAt;
+
+    /** 确认时间 */
+    private Long acknowledgedAt;
+
+    /** 确认人 */
+    private String acknowledgedBy;
+
+    /** 通知发送结果 */
+    private List<NotificationResult> notificationsSent = new ArrayList<>();
+
+    @Data
+    public static class NotificationResult {
+        /** 渠道 ID */
+        private String channelId;
+        /** 渠道类型 */
+        private String channelType;
+        /** 发送时间 */
+        private Long sentAt;
+        /** 是否成功 */
+        private Boolean success;
+        /** 错误信息 */
+        private String error;
+    }
+}
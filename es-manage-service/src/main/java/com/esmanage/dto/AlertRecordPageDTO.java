@@ -0,0 +1,27 @@
+package com.esmanage.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 告警记录分页结果 DTO
+ */
+@Data
+public class AlertRecordPageDTO {
+
+    /** 当前页记录，按触发时间倒序 */
+    private List<AlertRecordDTO> records;
+
+    /** 匹配总数 */
+    private Long total;
+
+    /** 页码 */
+    private Integer page;
+
+    /** 每页大小 */
+    private Integer pageSize;
+
+    /** 查询耗时（微秒） */
+    private Long tookMicros;
+}
@@ -0,0 +1,55 @@
+package com.esmanage.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 告警规则 DTO
+ * 字段与前端 AlertRule 类型一致
+ */
+@Data
+public class AlertRuleDTO {
+
+    /** 规则 ID */
+    private String id;
+
+    /** 规则名称 */
+    private String name;
+
+    /** 描述 */
+    private String description;
+
+    /** 是否启用 */
+    private Boolean enabled;
+
+    /** 指标类型: node_cpu, node_heap, cluster_health 等 */
+    private String metric;
+
+    /** 操作符: gt, gte, lt, lte, eq, neq */
+    private String operator;
+
+    /** 阈值 */
+    private Double threshold;
+
+    /** 持续时间（秒），条件持续满足超过此时间才触发 */
+    private Long duration;
+
+    /** 级别: critical, warning, info */
+    private String severity;
+
+    /** 目标节点或索引，空表示全部 */
+    private List<String> targets;
+
+    /** 通知渠道 ID 列表 */
+    private List<String> notificationChannels;
+
+    /** 冷却时间（秒），避免重复告警 */
+    private Long cooldown;
+
+    /** 创建时间 */
+    private Long createdAt;
+
+    /** 更新时间 */
+    private Long updatedAt;
+}
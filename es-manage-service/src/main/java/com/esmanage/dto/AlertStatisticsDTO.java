@@ -0,0 +1,65 @@
+package com.esmanage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 告警统计 DTO
+ * 与前端 AlertStatistics 结构一致，另附按规则计数与按天趋势
+ */
+@Data
+public class AlertStatisticsDTO {
+
+    /** 记录总数 */
+    private Long total;
+
+    /** 触发中 */
+    private Long firing;
+
+    /** 已恢复 */
+    private Long resolved;
+
+    /** 已确认 */
+    private Long acknowledged;
+
+    /** 按级别计数: critical, warning, info */
+    private Map<String, Long> bySeverity;
+
+    /** 按指标计数 */
+    private Map<String, Long> byMetric;
+
+    /** 按规则计数 */
+    private Map<String, RuleCount> byRule;
+
+    /** 最近若干小时每小时触发数，按时间正序 */
+    private List<TrendPoint> recentTrend;
+
+    /** 最近若干天每天触发数，按时间正序 */
+    private List<TrendPoint> dailyTrend;
+
+    @Data
+    public static class RuleCount {
+        /** 记录总数 */
+        private long total;
+        /** 触发中 */
+        private long firing;
+        /** 已恢复 */
+        private long resolved;
+        /** 已确认 */
+        private long acknowledged;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TrendPoint {
+        /** 桶起始时间（毫秒） */
+        private Long timestamp;
+        /** 触发数 */
+        private Long count;
+    }
+}
@@ -0,0 +1,100 @@
+package com.esmanage.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量分析结果 DTO
+ * 每条文本在各分析器下的词元，以及分析器两两之间的词元差异矩阵
+ */
+@Data
+public class AnalyzeBatchDTO {
+
+    /** 索引名 */
+    private String index;
+
+    /** 分析器显示名称，顺序与请求一致 */
+    private List<String> analyzers = new ArrayList<>();
+
+    /** 每条文本的分析结果，顺序与请求一致 */
+    private List<TextResult> results = new ArrayList<>();
+
+    /** 分析器两两对比的汇总（左右顺序与 analyzers 一致） */
+    private List<PairSummary> matrix = new ArrayList<>();
+
+    /** 命中缓存的（文本, 分析器）数 */
+    private int cacheHits;
+
+    /** 实际调用 _analyze 的次数 */
+    private int esCalls;
+
+    /** 失败的（文本, 分析器）数 */
+    private int errors;
+
+    /** 总耗时（毫秒） */
+    private long tookMs;
+
+    /**
+     * 单条文本的分析结果
+     */
+    @Data
+    public static class TextResult {
+        private String text;
+        /** 分析器 -> 词元 */
+        private Map<String, List<Token>> tokens = new LinkedHashMap<>();
+        /** 分析器 -> 错误信息 */
+        private Map<String, String> errors = new LinkedHashMap<>();
+        /** 各分析器产生的词元集合是否完全相同 */
+        private boolean identical;
+        /** 词元集合不同的分析器对 */
+        private List<TokenDiff> diffs = new ArrayList<>();
+    }
+
+    /**
+     * 分析器产生的词元
+     */
+    @Data
+    public static class Token {
+        private String token;
+        private int startOffset;
+        private int endOffset;
+        private String type;
+        private int position;
+    }
+
+    /**
+     * 一条文本在两个分析器下的词元差异
+     */
+    @Data
+    public static class TokenDiff {
+        private String left;
+        private String right;
+        /** 只出现在左侧的词元 */
+        private List<String> leftOnly = new ArrayList<>();
+        /** 只出现在右侧的词元 */
+        private List<String> rightOnly = new ArrayList<>();
+    }
+
+    /**
+     * 两个分析器在全部文本上的对比汇总
+     */
+    @Data
+    public static class PairSummary {
+        private String left;
+        private String right;
+        /** 两侧都成功的文本数 */
+        private int comparedTexts;
+        /** 词元集合相同的文本数 */
+        private int identicalTexts;
+        /** 词元集合 Jaccard 相似度的平均值 */
+        private double avgJaccard;
+        /** 只出现在左侧的词元总数 */
+        private int leftOnlyTokens;
+        /** 只出现在右侧的词元总数 */
+        private int rightOnlyTokens;
+    }
+}
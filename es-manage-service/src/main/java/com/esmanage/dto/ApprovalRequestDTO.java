@@ -0,0 +1,106 @@
+package com.esmanage.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 审批申请 DTO
+ */
+@Data
+public class ApprovalRequestDTO {
+
+    /** 申请 ID */
+    private String id;
+
+    /** 标题 */
+    private String title;
+
+    /** 申请类型: create_index, delete_index, update_mapping, update_settings, create_alias, ... , other */
+    private String type;
+
+    /** 状态: pending, approved, rejected, cancelled, processing, completed, failed */
+    private String status;
+
+    /** 申请人 */
+    private String applicant;
+
+    /** 申请部门 */
+    private String applicantDept;
+
+    /** 申请说明 */
+    private String description;
+
+    /** 申请内容，字段随申请类型变化 */
+    private Map<String, Object> content;
+
+    /** 优先级: low, normal, high, urgent */
+    private String priority;
+
+    /** 审批流程节点 */
+    private List<Node> nodes = new ArrayList<>();
+
+    /** 操作日志 */
+    private List<Log> logs = new ArrayList<>();
+
+    /** 通知渠道 ID 列表 */
+    private List<String> notificationChannels = new ArrayList<>();
+
+    /** 审批通过后执行的操作流执行 ID */
+    private String executionId;
+
+    /** 创建时间（毫秒） */
+    private Long createdAt;
+
+    /** 更新时间（毫秒） */
+    private Long updatedAt;
+
+    /** 完成时间（毫秒） */
+    private Long completedAt;
+
+    /**
+     * 审批节点
+     */
+    @Data
+    public static class Node {
+        /** 节点 ID */
+        private String id;
+        /** 节点名称 */
+        private String name;
+        /** 节点类型: approval, notification, execution */
+        private String type;
+        /** 审批人 */
+        private String assignee;
+        /** 审批角色 */
+        private String assigneeRole;
+        /** 状态: pending, approved, rejected, skipped */
+        private String status;
+        /** 审批意见 */
+        private String comment;
+        /** 操作时间（毫秒） */
+        private Long operatedAt;
+        /** 操作人 */
+        private String operatedBy;
+    }
+
+    /**
+     * 操作日志
+     */
+    @Data
+    public static class Log {
+        /** 日志 ID */
+        private String id;
+        /** 操作类型 */
+        private String action;
+        /** 操作人 */
+        private String operator;
+        /** 操作时间（毫秒） */
+        private Long operatedAt;
+        /** 备注 */
+        private String comment;
+        /** 详细信息 */
+        private Map<String, Object> details;
+    }
+}
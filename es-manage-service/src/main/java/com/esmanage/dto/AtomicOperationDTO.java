@@ -0,0 +1,51 @@
+package com.esmanage.dto;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 原子操作 DTO
+ * 一次 ES API 调用，端点与请求体中的 {{变量}} 在执行时替换
+ */
+@Data
+public class AtomicOperationDTO {
+
+    /** 操作 ID */
+    private String id;
+
+    /** 名称 */
+    private String name;
+
+    /** 类型: read_index_config, create_index, reindex 等 */
+    private String type;
+
+    /** 描述 */
+    private String description;
+
+    /** API 调用配置 */
+    private ApiConfig apiConfig;
+
+    /** 输入参数定义 */
+    private Map<String, Object> inputSchema;
+
+    /** 输出参数定义 */
+    private Map<String, Object> outputSchema;
+
+    /** 是否内置 */
+    private Boolean isBuiltin;
+
+    @Data
+    public static class ApiConfig {
+        /** HTTP 方法 */
+        private String method;
+        /** API 端点，支持变量如 /{{indexName}}/_settings */
+        private String endpoint;
+        /** 请求体模板，JSON 格式 */
+        private String body;
+        /** 额外请求头 */
+        private Map<String, String> headers;
+        /** 成功条件，如 response.acknowledged === true */
+        private String successCondition;
+    }
+}
@@ -0,0 +1,79 @@
+package com.esmanage.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量索引操作 DTO
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkIndexOperationDTO {
+
+    /** 操作 ID */
+    private String id;
+
+    /** 操作类型: delete, close, open, forcemerge, settings */
+    private String operation;
+
+    /** 索引匹配模式 */
+    private String pattern;
+
+    /** 状态: planned（试运行）, running, completed, partial（部分索引失败）, failed, cancelled */
+    private String status;
+
+    /** 目标索引数 */
+    private Integer total;
+
+    /** 成功的索引数 */
+    private Integer succeeded;
+
+    /** 失败的索引数 */
+    private Integer failed;
+
+    /** 批次数 */
+    private Integer batches;
+
+    /** 已完成的批次数 */
+    private Integer completedBatches;
+
+    /** 当前并发批次数 */
+    private Integer concurrency;
+
+    /** 最近一次检查到的集群待处理任务数 */
+    private Integer pendingTasks;
+
+    /** 退避次数 */
+    private Integer backoffs;
+
+    /** 执行进度 0-100 */
+    private Integer progress;
+
+    /** 目标索引（仅试运行时返回） */
+    private List<String> indices;
+
+    /** 失败明细（最多保留 maxFailures 条） */
+    private List<Failure> failures;
+
+    /** 创建人 */
+    private String createdBy;
+
+    /** 创建时间 */
+    private Long createdAt;
+
+    /** 完成时间 */
+    private Long completedAt;
+
+    /** 总耗时（毫秒） */
+    private Long duration;
+
+    @Data
+    public static class Failure {
+        /** 索引名 */
+        private String index;
+        /** 错误信息 */
+        private String error;
+    }
+}
@@ -1,5 +1,6 @@
 package com.esmanage.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Data;
 import java.util.List;
 import java.util.Map;
@@ -7,6 +8,7 @@ import java.util.Map;
 /**
  * 集群概览 DTO
  * 对应 Kibana API: /api/monitoring/v1/clusters/{clusterId}/elasticsearch
+ * 除集群状态外的各段均可按 {@link ResponseProjection} 在解析时跳过
  */
 @Data
 public class ClusterOverviewDTO {
@@ -15,12 +17,15 @@ public class ClusterOverviewDTO {
     private ClusterStatusDTO clusterStatus;
 
     /** 指标时序数据 */
+    @JsonDeserialize(using = ResponseProjection.Deserializer.class)
     private MetricsDTO metrics;
 
     /** 日志信息 */
+    @JsonDeserialize(using = ResponseProjection.Deserializer.class)
     private LogsDTO logs;
 
     /** 分片活动 */
+    @JsonDeserialize(using = ResponseProjection.Deserializer.class)
     private List<Object> shardActivity;
 
     /**
@@ -29,15 +34,19 @@ public class ClusterOverviewDTO {
     @Data
     public static class MetricsDTO {
         /** 集群搜索请求速率 */
+        @JsonDeserialize(using = ResponseProjection.Deserializer.class)
         private List<TimeSeriesDataDTO> cluster_search_request_rate;
 
         /** 集群查询延迟 */
+        @JsonDeserialize(using = ResponseProjection.Deserializer.class)
         private List<TimeSeriesDataDTO> cluster_query_latency;
 
         /** 集群索引请求速率 */
+        @JsonDeserialize(using = ResponseProjection.Deserializer.class)
         private List<TimeSeriesDataDTO> cluster_index_request_rate;
 
         /** 集群索引延迟 */
+        @JsonDeserialize(using = ResponseProjection.Deserializer.class)
         private List<TimeSeriesDataDTO> cluster_index_latency;
     }
 
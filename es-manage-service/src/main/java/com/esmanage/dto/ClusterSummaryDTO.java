@@ -0,0 +1,28 @@
+package com.esmanage.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+/**
+ * 集群摘要 DTO
+ * 对应 Kibana API: /api/monitoring/v1/clusters
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ClusterSummaryDTO {
+
+    /** 集群 UUID */
+    @JsonProperty("cluster_uuid")
+    private String clusterUuid;
+
+    /** 集群名称 */
+    @JsonProperty("cluster_name")
+    private String clusterName;
+
+    /** ES 版本 */
+    private String version;
+
+    /** 集群健康状态: green/yellow/red */
+    private String status;
+}
@@ -0,0 +1,43 @@
+package com.esmanage.dto;
+
+import lombok.Data;
+
+/**
+ * 开发工具控制台代理的单次查询记录 DTO
+ */
+@Data
+public class DevToolsQueryDTO {
+
+    /** 查询 ID，同时作为 X-Opaque-Id 发给 ES，可在 _tasks 中定位 */
+    private String id;
+
+    /** HTTP 方法 */
+    private String method;
+
+    /** 请求路径（含查询参数） */
+    private String path;
+
+    /** ES 响应状态码，未收到响应为 null */
+    private Integer status;
+
+    /** 请求体字节数 */
+    private Long requestBytes;
+
+    /** 转发给浏览器的响应字节数（压缩透传时为压缩后字节数） */
+    private Long responseBytes;
+
+    /** 收到 ES 响应头的耗时（毫秒） */
+    private Long firstByteMs;
+
+    /** 总耗时（毫秒） */
+    private Long tookMs;
+
+    /** 结果: completed, truncated（超出响应上限被截断）, rejected（超出上限未转发）, aborted（浏览器断开）, error */
+    private String outcome;
+
+    /** 错误信息 */
+    private String error;
+
+    /** 开始时间（毫秒） */
+    private Long timestamp;
+}
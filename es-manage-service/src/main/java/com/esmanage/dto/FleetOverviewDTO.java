@@ -0,0 +1,73 @@
+package com.esmanage.dto;
+
+import lombok.Data;
+import java.util.List;
+
+/**
+ * 多集群概览 DTO
+ * 每个集群一行，便于前端按列排序
+ */
+@Data
+public class FleetOverviewDTO {
+
+    /** 集群总数 */
+    private Integer total;
+
+    /** green 集群数 */
+    private Integer green;
+
+    /** yellow 集群数 */
+    private Integer yellow;
+
+    /** red 集群数 */
+    private Integer red;
+
+    /** 采集失败集群数 */
+    private Integer failed;
+
+    /** 总耗时（毫秒） */
+    private Long elapsedMs;
+
+    /** 集群列表 */
+    private List<ClusterRow> clusters;
+
+    @Data
+    public static class ClusterRow {
+        /** 集群 UUID */
+        private String clusterId;
+        /** 集群名称 */
+        private String name;
+        /** 集群状态: green/yellow/red，采集失败时为 unknown */
+        private String status;
+        /** ES 版本 */
+        private String version;
+        /** 节点总数 */
+        private Integer nodes;
+        /** 数据节点数 */
+        private Integer dataNodes;
+        /** 索引总数 */
+        private Integer indices;
+        /** 文档总数 */
+        private Long docs;
+        /** 存储大小（字节） */
+        private Long storeSizeBytes;
+        /** 总分片数 */
+        private Integer shards;
+        /** 未分配分片数 */
+        private Integer unassignedShards;
+        /** 堆内存使用百分比 */
+        private Integer heapUsedPercent;
+        /** CPU 使用百分比 */
+        private Integer cpuPercent;
+        /** 磁盘使用百分比 */
+        private Integer diskUsedPercent;
+        /** 最新搜索速率 */
+        private Double searchRate;
+        /** 最新索引速率 */
+        private Double indexingRate;
+        /** 采集耗时（毫秒） */
+        private Long elapsedMs;
+        /** 错误信息 */
+        private String error;
+    }
+}
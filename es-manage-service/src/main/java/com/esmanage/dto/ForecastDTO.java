@@ -0,0 +1,102 @@
+package com.esmanage.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 磁盘与堆内存预测 DTO
+ * 剩余小时数为 null 表示当前趋势不会到达该阈值或超出预测范围，0 表示已经到达
+ */
+@Data
+public class ForecastDTO {
+
+    /** 集群 ID */
+    private String clusterId;
+
+    /** 生成时间（毫秒） */
+    private Long generatedAt;
+
+    /** 集群汇总 */
+    private ClusterForecast cluster;
+
+    /** 各节点预测，按最早到达磁盘高水位排序 */
+    private List<NodeForecast> nodes;
+
+    @Data
+    public static class NodeForecast {
+        /** 节点 ID */
+        private String nodeId;
+        /** 节点名称 */
+        private String name;
+        /** 最近样本时间（毫秒） */
+        private Long updatedAt;
+        /** 磁盘预测 */
+        private DiskForecast disk;
+        /** 堆内存预测 */
+        private HeapForecast heap;
+    }
+
+    @Data
+    public static class DiskForecast {
+        /** 磁盘总量（字节），未知时为 null，此时只预测耗尽时间 */
+        private Long totalBytes;
+        /** 拟合的可用空间（字节） */
+        private Long freeBytes;
+        /** 拟合的使用率（%） */
+        private Double usedPercent;
+        /** 可用空间变化速度（字节/小时），负数表示在减少 */
+        private Double slopeBytesPerHour;
+        /** 样本数 */
+        private Integer samples;
+        /** 到达低水位（不再分配副本）的小时数 */
+        private Double hoursToLow;
+        /** 到达高水位（迁出分片）的小时数 */
+        private Double hoursToHigh;
+        /** 到达洪水位（索引只读）的小时数 */
+        private Double hoursToFlood;
+        /** 可用空间耗尽的小时数 */
+        private Double hoursToFull;
+    }
+
+    @Data
+    public static class HeapForecast {
+        /** 拟合的堆使用率（%） */
+        private Double usedPercent;
+        /** 变化速度（%/小时） */
+        private Double slopePercentPerHour;
+        /** 样本数 */
+        private Integer samples;
+        /** 到达堆内存阈值的小时数 */
+        private Double hoursToThreshold;
+    }
+
+    @Data
+    public static class ClusterForecast {
+        /** 已知总量节点的磁盘总量（字节） */
+        private Long totalBytes;
+        /** 这些节点拟合的可用空间之和（字节） */
+        private Long freeBytes;
+        /** 汇总使用率（%） */
+        private Double usedPercent;
+        /** 汇总可用空间变化速度（字节/小时） */
+        private Double slopeBytesPerHour;
+        /** 汇总到达各水位的小时数 */
+        private Double hoursToLow;
+        private Double hoursToHigh;
+        private Double hoursToFlood;
+        /** 最早到达各阈值的节点: low, high, flood, full, heap */
+        private Map<String, NodeEta> earliest;
+    }
+
+    @Data
+    public static class NodeEta {
+        /** 节点 ID */
+        private String nodeId;
+        /** 节点名称 */
+        private String name;
+        /** 剩余小时数 */
+        private Double hours;
+    }
+}
@@ -1,9 +1,9 @@
 package com.esmanage.dto;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Data;
 import java.util.List;
-import java.util.Map;
 
 /**
  * 索引详情 DTO
@@ -15,12 +15,14 @@ import java.util.Map;
 public class IndexDetailDTO {
 
     /** 索引摘要信息 */
+    @JsonDeserialize(using = ResponseProjection.Deserializer.class)
     private IndexSummary indexSummary;
 
-    /** 指标时序数据 */
-    private Map<String, List<TimeSeriesDataDTO>> metrics;
+    /** 指标时序数据（按指标目录 ID 存放） */
+    private MetricSeriesSet metrics;
 
     /** 分片信息 */
+    @JsonDeserialize(using = ResponseProjection.Deserializer.class)
     private List<ShardInfo> shards;
 
     @Data
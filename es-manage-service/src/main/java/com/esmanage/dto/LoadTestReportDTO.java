@@ -0,0 +1,86 @@
+package com.esmanage.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 压测报告 DTO
+ */
+@Data
+public class LoadTestReportDTO {
+
+    /** 压测 ID */
+    private String id;
+
+    /** 状态: running, completed, cancelled, failed */
+    private String status;
+
+    /** 失败原因 */
+    private String error;
+
+    /** 并发数 */
+    private Integer concurrency;
+
+    /** 压测时长（秒） */
+    private Integer durationSec;
+
+    /** 预热时长（秒） */
+    private Integer warmupSec;
+
+    /** 开始时间戳（毫秒） */
+    private Long startTime;
+
+    /** 结束时间戳（毫秒） */
+    private Long endTime;
+
+    /** 计入结果的请求数 */
+    private Long requests;
+
+    /** 失败请求数（非 2xx 或网络错误） */
+    private Long errors;
+
+    /** 吞吐量（请求/秒） */
+    private Double throughput;
+
+    /** 各接口结果 */
+    private List<EndpointResult> endpoints;
+
+    /** Kibana 替身统计（启用替身时） */
+    private Map<String, Object> standIn;
+
+    /**
+     * 单个接口的压测结果
+     */
+    @Data
+    public static class EndpointResult {
+
+        /** 请求路径模板 */
+        private String path;
+
+        /** 请求数 */
+        private Long requests;
+
+        /** 失败请求数 */
+        private Long errors;
+
+        /** 吞吐量（请求/秒） */
+        private Double throughput;
+
+        /** 平均延迟（毫秒） */
+        private Double meanMs;
+
+        /** 延迟分位数（毫秒） */
+        private Double p50Ms;
+        private Double p90Ms;
+        private Double p99Ms;
+        private Double p999Ms;
+
+        /** 最大延迟（毫秒） */
+        private Double maxMs;
+
+        /** 按状态码统计的请求数，网络错误记为 0 */
+        private Map<Integer, Long> statuses;
+    }
+}
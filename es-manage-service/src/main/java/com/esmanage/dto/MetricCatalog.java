@@ -0,0 +1,218 @@
+package com.esmanage.dto;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 监控指标目录
+ * 集中登记 Kibana 指标名、前端别名、单位与展示元信息，按登记顺序分配连续的整数 ID，
+ * 各实体的时序容器（{@link MetricSeriesSet}）按 ID 下标存取
+ *
+ * 元信息在类加载时构建一次；从 Kibana 反序列化得到的同值元信息经 {@link #intern} 归并为共享实例。
+ * {@link MetricInfoDTO} 不可变，共享实例可被多个响应安全引用
+ */
+public final class MetricCatalog {
+
+    /** 指标所属实体 */
+    public enum Scope {
+        CLUSTER, NODE, INDEX
+    }
+
+    /** 归并表上限，超出后不再归并，直接使用反序列化得到的实例 */
+    private static final int INTERN_LIMIT = 1024;
+
+    private static final List<MetricDefinition> DEFINITIONS = new ArrayList<>();
+    private static final Map<String, MetricDefinition> BY_NAME = new HashMap<>();
+    private static final Map<MetricInfoDTO, MetricInfoDTO> INTERNED = new ConcurrentHashMap<>();
+
+    // ==================== 集群 ====================
+
+    public static final int CLUSTER_SEARCH_RATE = register(Scope.CLUSTER,
+            "cluster_search_request_rate", "search_rate", "Search Rate", "Total Shards", "/s");
+    public static final int CLUSTER_QUERY_LATENCY = register(Scope.CLUSTER,
+            "cluster_query_latency", "query_latency", "Search Latency", "Total Shards", "ms");
+    public static final int CLUSTER_INDEX_RATE = register(Scope.CLUSTER,
+            "cluster_index_request_rate", "indexing_rate", "Indexing Rate", "Total Shards", "/s");
+    public static final int CLUSTER_INDEX_LATENCY = register(Scope.CLUSTER,
+            "cluster_index_latency", "index_latency", "Indexing Latency", "Primary Shards", "ms");
+
+    // ==================== 节点 ====================
+
+    /** 同一别名对应多个指标时，靠前登记的优先 */
+    public static final int NODE_CPU = register(Scope.NODE,
+            "node_cpu_utilization", "cpu_percent", "CPU Utilization", "CPU", "%");
+    public static final int NODE_CPU_METRIC = register(Scope.NODE,
+            "node_cpu_metric", "cpu_percent", "CPU Utilization", "CPU", "%");
+    public static final int NODE_JVM_MEM = register(Scope.NODE,
+            "node_jvm_mem", "heap_used_percent", "JVM Heap", "Memory", "%");
+    public static final int NODE_LOAD = register(Scope.NODE,
+            "node_load_average", "load_average", "1m", "System Load", "");
+    public static final int NODE_LATENCY = register(Scope.NODE,
+            "node_latency", "latency", "Search", "Latency", "ms");
+    public static final int NODE_INDEX_MEM = register(Scope.NODE,
+            "node_index_mem", "index_memory", "Lucene Total", "Index Memory", "B");
+    public static final int NODE_TOTAL_IO = register(Scope.NODE,
+            "node_total_io", "io_operations", "Total I/O", "I/O Operations Rate", "/s");
+    public static final int NODE_SEGMENT_COUNT = register(Scope.NODE,
+            "node_segment_count", "segment_count", "Segment Count", "Segments", "");
+    public static final int NODE_CGROUP_CPU = register(Scope.NODE,
+            "node_cgroup_cpu", "node_cgroup_cpu", "Cgroup CPU Utilization", "Cgroup CPU", "%");
+    /** 以下三项只出现在节点列表的指标摘要中 */
+    public static final int NODE_CGROUP_THROTTLED = register(Scope.NODE,
+            "node_cgroup_throttled", "cgroup_throttled", "Cgroup Throttling", "Cgroup CPU", "ns");
+    public static final int NODE_JVM_MEM_PERCENT = register(Scope.NODE,
+            "node_jvm_mem_percent", "heap_used_percent", "JVM Heap", "Memory", "%");
+    public static final int NODE_FREE_SPACE = register(Scope.NODE,
+            "node_free_space", "free_space", "Disk Free Space", "Disk", "B");
+
+    // ==================== 索引 ====================
+
+    public static final int INDEX_SEARCH_RATE = register(Scope.INDEX,
+            "index_search_request_rate", "search_rate", "Search Rate", "Search Rate", "/s");
+    public static final int INDEX_REQUEST_RATE = register(Scope.INDEX,
+            "index_request_rate", "indexing_rate", "Indexing Rate", "Indexing Rate", "/s");
+    public static final int INDEX_LATENCY = register(Scope.INDEX,
+            "index_latency", "query_latency", "Search Latency", "Latency", "ms");
+    public static final int INDEX_DOCUMENT_COUNT = register(Scope.INDEX,
+            "index_document_count", "doc_count", "Document Count", "Documents", "");
+    public static final int INDEX_SEGMENT_COUNT = register(Scope.INDEX,
+            "index_segment_count", "segment_count", "Segment Count", "Segments", "");
+    public static final int INDEX_MEM = register(Scope.INDEX,
+            "index_mem", "index_memory", "Lucene Total", "Index Memory", "B");
+    public static final int INDEX_SIZE = register(Scope.INDEX,
+            "index_size", "index_size", "Store", "Disk", "B");
+
+    /** 按 ID 下标的定义表，须在全部登记之后初始化 */
+    private static final MetricDefinition[] TABLE = DEFINITIONS.toArray(new MetricDefinition[0]);
+
+    /** 各实体的前端别名，须在全部登记之后初始化 */
+    private static final Map<Scope, Set<String>> ALIASES = new EnumMap<>(Scope.class);
+
+    static {
+        for (Scope scope : Scope.values()) {
+            Set<String> aliases = new HashSet<>();
+            for (MetricDefinition definition : DEFINITIONS) {
+                if (definition.scope == scope) {
+                    aliases.add(definition.alias);
+                }
+            }
+            ALIASES.put(scope, Set.copyOf(aliases));
+        }
+    }
+
+    private MetricCatalog() {
+    }
+
+    /**
+     * 指标定义
+     */
+    @Getter
+    public static final class MetricDefinition {
+        /** 连续整数 ID */
+        private final int id;
+        /** Kibana 指标名 */
+        private final String name;
+        /** 所属实体 */
+        private final Scope scope;
+        /** 前端使用的键名 */
+        private final String alias;
+        /** 单位 */
+        private final String units;
+        /** 共享的元信息 */
+        private final MetricInfoDTO info;
+
+        private MetricDefinition(int id, String name, Scope scope, String alias, String units, MetricInfoDTO info) {
+            this.id = id;
+            this.name = name;
+            this.scope = scope;
+            this.alias = alias;
+            this.units = units;
+            this.info = info;
+        }
+    }
+
+    private static int register(Scope scope, String name, String alias, String label, String title,
+            String units) {
+        int id = DEFINITIONS.size();
+        MetricDefinition definition = new MetricDefinition(id, name, scope, alias, units,
+                metricInfo(label, title, units));
+        DEFINITIONS.add(definition);
+        BY_NAME.put(name, definition);
+        return id;
+    }
+
+    /**
+     * 已登记的指标数量（ID 取值范围为 [0, size)）
+     */
+    public static int size() {
+        return TABLE.length;
+    }
+
+    /**
+     * 按 ID 获取定义
+     */
+    public static MetricDefinition get(int id) {
+        return TABLE[id];
+    }
+
+    /**
+     * 按 Kibana 指标名查找 ID，未登记时返回 -1
+     */
+    public static int idOf(String name) {
+        MetricDefinition definition = BY_NAME.get(name);
+        return definition != null ? definition.id : -1;
+    }
+
+    /**
+     * 指标的前端别名
+     */
+    public static String alias(int id) {
+        return TABLE[id].alias;
+    }
+
+    /**
+     * 实体的全部前端别名，用于校验 fields 参数
+     */
+    public static Set<String> aliases(Scope scope) {
+        return ALIASES.get(scope);
+    }
+
+    /**
+     * 构建并归并元信息
+     */
+    public static MetricInfoDTO metricInfo(String label, String title, String units) {
+        return intern(MetricInfoDTO.builder()
+                .app("elasticsearch")
+                .label(label)
+                .title(title)
+                .units(units)
+                .build());
+    }
+
+    /**
+     * 将同值的元信息归并为同一实例
+     * 同一指标的元信息在每个响应、每条序列中都会重复出现，归并后只保留一份
+     */
+    public static MetricInfoDTO intern(MetricInfoDTO info) {
+        if (info == null) {
+            return null;
+        }
+        MetricInfoDTO shared = INTERNED.get(info);
+        if (shared != null) {
+            return shared;
+        }
+        if (INTERNED.size() >= INTERN_LIMIT) {
+            return info;
+        }
+        shared = INTERNED.putIfAbsent(info, info);
+        return shared != null ? shared : info;
+    }
+}
@@ -1,12 +1,17 @@
 package com.esmanage.dto;
 
-import lombok.Data;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
 
 /**
  * 指标元信息 DTO
  * 对应 Kibana 返回的 metric 结构
+ * 不可变：同值实例经 {@link MetricCatalog#intern} 归并后被多个响应共享，并作为归并表的键
  */
-@Data
+@Value
+@Builder
+@Jacksonized
 public class MetricInfoDTO {
 
     /** 应用名称 */
@@ -0,0 +1,137 @@
+package com.esmanage.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单个实体（集群 / 节点 / 索引）的指标时序容器
+ * 已登记的指标按 {@link MetricCatalog} 的 ID 存放在定长列表中，未登记的指标放在附加 Map 里；
+ * JSON 结构与 Kibana 的 metrics 对象一致：{"指标名": [时序, ...]}；
+ * 解析时按 {@link ResponseProjection} 跳过未选中的指标
+ */
+@JsonSerialize(using = MetricSeriesSet.Serializer.class)
+@JsonDeserialize(using = MetricSeriesSet.Deserializer.class)
+public class MetricSeriesSet {
+
+    /** 下标为指标 ID，未出现的指标为 null */
+    private final List<List<TimeSeriesDataDTO>> series;
+
+    /** 目录中没有的指标 */
+    private Map<String, List<TimeSeriesDataDTO>> unknown;
+
+    public MetricSeriesSet() {
+        this.series = new ArrayList<>(Collections.nCopies(MetricCatalog.size(), null));
+    }
+
+    /**
+     * 遍历回调，definition 为空表示未登记的指标
+     */
+    @FunctionalInterface
+    public interface SeriesVisitor {
+        void visit(MetricCatalog.MetricDefinition definition, String name, List<TimeSeriesDataDTO> series);
+    }
+
+    public List<TimeSeriesDataDTO> get(int id) {
+        return series.get(id);
+    }
+
+    public List<TimeSeriesDataDTO> get(String name) {
+        int id = MetricCatalog.idOf(name);
+        if (id >= 0) {
+            return series.get(id);
+        }
+        return unknown != null ? unknown.get(name) : null;
+    }
+
+    public void put(int id, List<TimeSeriesDataDTO> data) {
+        series.set(id, data);
+    }
+
+    public void put(String name, List<TimeSeriesDataDTO> data) {
+        int id = MetricCatalog.idOf(name);
+        if (id >= 0) {
+            series.set(id, data);
+            return;
+        }
+        if (unknown == null) {
+            unknown = new LinkedHashMap<>();
+        }
+        unknown.put(name, data);
+    }
+
+    /**
+     * 按 ID 顺序遍历已登记的指标，再遍历未登记的指标
+     */
+    public void forEach(SeriesVisitor visitor) {
+        for (int id = 0; id < series.size(); id++) {
+            List<TimeSeriesDataDTO> data = series.get(id);
+            if (data != null) {
+                MetricCatalog.MetricDefinition definition = MetricCatalog.get(id);
+                visitor.visit(definition, definition.getName(), data);
+            }
+        }
+        if (unknown != null) {
+            unknown.forEach((name, data) -> visitor.visit(null, name, data));
+        }
+    }
+
+    static class Serializer extends JsonSerializer<MetricSeriesSet> {
+        @Override
+        public void serialize(MetricSeriesSet value, JsonGenerator gen, SerializerProvider serializers)
+                throws IOException {
+            gen.writeStartObject();
+            for (int id = 0; id < value.series.size(); id++) {
+                List<TimeSeriesDataDTO> data = value.series.get(id);
+                if (data != null) {
+                    serializers.defaultSerializeField(MetricCatalog.get(id).getName(), data, gen);
+                }
+            }
+            if (value.unknown != null) {
+                for (Map.Entry<String, List<TimeSeriesDataDTO>> entry : value.unknown.entrySet()) {
+                    serializers.defaultSerializeField(entry.getKey(), entry.getValue(), gen);
+                }
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    static class Deserializer extends JsonDeserializer<MetricSeriesSet> {
+        @Override
+        public MetricSeriesSet deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() != JsonToken.START_OBJECT) {
+                return (MetricSeriesSet) ctxt.handleUnexpectedToken(MetricSeriesSet.class, p);
+            }
+            JavaType listType = ctxt.getTypeFactory().constructCollectionType(List.class, TimeSeriesDataDTO.class);
+            ResponseProjection projection = ResponseProjection.from(ctxt);
+            MetricSeriesSet result = new MetricSeriesSet();
+            // 字段名由 Jackson 规范化，按名称查 ID 不产生额外对象
+            for (String name = p.nextFieldName(); name != null; name = p.nextFieldName()) {
+                if (p.nextToken() == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                if (!projection.includesMetric(name)) {
+                    // 未选中的指标整段跳过，不构建数据点
+                    p.skipChildren();
+                    continue;
+                }
+                result.put(name, ctxt.readValue(p, listType));
+            }
+            return result;
+        }
+    }
+}
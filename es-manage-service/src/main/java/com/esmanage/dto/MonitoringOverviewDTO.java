@@ -1,14 +1,16 @@
 package com.esmanage.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import java.util.List;
 import java.util.Map;
 
 /**
  * 监控概览 DTO
- * 整合集群状态和关键指标
+ * 整合集群状态和关键指标；按 fields 选择时未选中的段为空，不输出
  */
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class MonitoringOverviewDTO {
 
     /** 集群信息 */
@@ -1,8 +1,8 @@
 package com.esmanage.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Data;
 import java.util.List;
-import java.util.Map;
 
 /**
  * 节点详情 DTO
@@ -12,10 +12,11 @@ import java.util.Map;
 public class NodeDetailDTO {
 
     /** 节点摘要信息 */
+    @JsonDeserialize(using = ResponseProjection.Deserializer.class)
     private NodeSummaryDTO nodeSummary;
 
-    /** 指标时序数据 */
-    private Map<String, List<TimeSeriesDataDTO>> metrics;
+    /** 指标时序数据（按指标目录 ID 存放） */
+    private MetricSeriesSet metrics;
 
     /**
      * 节点摘要
@@ -14,4 +14,11 @@ public class NodeMetricDTO {
 
     /** 指标摘要 */
     private MetricSummaryDTO summary;
+
+    /**
+     * 元信息归并为共享实例（见 {@link MetricCatalog#intern}）
+     */
+    public void setMetric(MetricInfoDTO metric) {
+        this.metric = MetricCatalog.intern(metric);
+    }
 }
@@ -0,0 +1,45 @@
+package com.esmanage.dto;
+
+import lombok.Data;
+import java.util.Map;
+
+/**
+ * 节点速率 DTO
+ * 由相邻的节点统计采样差分得出
+ */
+@Data
+public class NodeRatesDTO {
+
+    /** 节点 ID */
+    private String nodeId;
+
+    /** 节点名称 */
+    private String name;
+
+    /** 最新采样时间戳（毫秒） */
+    private Long timestamp;
+
+    /** 统计窗口（秒） */
+    private Integer windowSeconds;
+
+    /** 线程池拒绝总数（每秒） */
+    private Double rejectionsPerSec;
+
+    /** 各线程池拒绝数（每秒） */
+    private Map<String, Double> threadPoolRejectionsPerSec;
+
+    /** 断路器触发次数（每秒） */
+    private Double breakerTripsPerSec;
+
+    /** GC 耗时（毫秒/秒） */
+    private Double gcTimeMsPerSec;
+
+    /** GC 次数（每秒） */
+    private Double gcCountPerSec;
+
+    /** 最近累计拒绝总数 */
+    private Long rejectedTotal;
+
+    /** 最近累计断路器触发总数 */
+    private Long trippedTotal;
+}
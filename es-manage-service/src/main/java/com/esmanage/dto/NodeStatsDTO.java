@@ -1,5 +1,6 @@
 package com.esmanage.dto;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
 import lombok.Data;
 import java.util.List;
 import java.util.Map;
@@ -83,10 +84,13 @@ public class NodeStatsDTO {
             @Data
             public static class LoadAverage {
                 /** 1分钟负载 */
+                @JsonAlias("1m")
                 private Double oneMinute;
                 /** 5分钟负载 */
+                @JsonAlias("5m")
                 private Double fiveMinutes;
                 /** 15分钟负载 */
+                @JsonAlias("15m")
                 private Double fifteenMinutes;
             }
         }
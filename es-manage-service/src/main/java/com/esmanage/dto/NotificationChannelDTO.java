@@ -0,0 +1,34 @@
+package com.esmanage.dto;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 通知渠道 DTO
+ * 字段与前端 NotificationChannel 类型一致，config 按渠道类型存放各自配置
+ */
+@Data
+public class NotificationChannelDTO {
+
+    /** 渠道 ID */
+    private String id;
+
+    /** 渠道名称 */
+    private String name;
+
+    /** 类型: email, dingtalk, webhook, sms, internal */
+    private String type;
+
+    /** 是否启用 */
+    private Boolean enabled;
+
+    /** 渠道配置（webhookUrl、url、headers 等），可选 rateLimitPerMinute、burst 覆盖全局限流 */
+    private Map<String, Object> config;
+
+    /** 创建时间 */
+    private Long createdAt;
+
+    /** 更新时间 */
+    private Long updatedAt;
+}
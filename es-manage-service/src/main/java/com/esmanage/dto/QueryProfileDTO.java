@@ -0,0 +1,108 @@
+package com.esmanage.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 查询性能剖析结果 DTO
+ * 由 ES profile 输出归并而来：按分片的阶段耗时与跨分片合并的查询组件耗时，时间单位均为纳秒
+ */
+@Data
+public class QueryProfileDTO {
+
+    /** 查询 ID，对应排行榜记录 */
+    private String id;
+
+    /** 请求路径 */
+    private String path;
+
+    /** ES 返回的 took（毫秒） */
+    private Long tookMs;
+
+    /** 经服务往返的总耗时（毫秒） */
+    private Long wallMs;
+
+    /** 是否超时 */
+    private Boolean timedOut;
+
+    /** 命中总数 */
+    private Long totalHits;
+
+    /** 参与查询的分片数 */
+    private Integer shardsTotal;
+
+    /** 失败的分片数 */
+    private Integer shardsFailed;
+
+    /** 全部分片查询阶段耗时之和 */
+    private long queryNanos;
+
+    /** 全部分片查询重写耗时之和 */
+    private long rewriteNanos;
+
+    /** 全部分片收集器耗时之和 */
+    private long collectorNanos;
+
+    /** 全部分片聚合耗时之和 */
+    private long aggregationNanos;
+
+    /** 全部分片取回阶段耗时之和 */
+    private long fetchNanos;
+
+    /** 各分片耗时，按总耗时倒序 */
+    private List<Shard> shards = new ArrayList<>();
+
+    /** 查询组件耗时，同一组件跨分片合并，按自身耗时倒序 */
+    private List<Component> components = new ArrayList<>();
+
+    /** 时间戳（毫秒） */
+    private Long timestamp;
+
+    /**
+     * 单个分片的阶段耗时
+     */
+    @Data
+    public static class Shard {
+        /** 分片标识 [nodeId][index][shard] */
+        private String id;
+        private String nodeId;
+        private String index;
+        private Integer shardId;
+        private long queryNanos;
+        private long rewriteNanos;
+        private long collectorNanos;
+        private long aggregationNanos;
+        private long fetchNanos;
+        /** 以上各阶段之和 */
+        private long totalNanos;
+    }
+
+    /**
+     * 查询组件（查询树节点、收集器、聚合器、取回子阶段）
+     */
+    @Data
+    public static class Component {
+        /** 类别: query, collector, aggregation, fetch */
+        private String kind;
+        /** 类型，如 BooleanQuery、TermsAggregator */
+        private String type;
+        /** 描述，如查询条件或聚合名称 */
+        private String description;
+        /** 在树中的最小深度，0 为顶层 */
+        private int depth;
+        /** 出现的分片数 */
+        private int shards;
+        /** 包含子节点的耗时之和 */
+        private long totalNanos;
+        /** 不含子节点的自身耗时之和 */
+        private long selfNanos;
+        /** 单个分片上的最大耗时 */
+        private long maxNanos;
+        /** 细分耗时（如 score、build_scorer、next_doc），跨分片求和 */
+        private Map<String, Long> breakdown = new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,110 @@
+package com.esmanage.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 请求链路 DTO
+ * 时间偏移均相对请求进入服务的时刻，单位毫秒（保留三位小数）
+ */
+@Data
+public class RequestTraceDTO {
+
+    /** 链路 ID（环形缓冲区写入序号） */
+    private Long id;
+
+    /** HTTP 方法 */
+    private String method;
+
+    /** 请求路径 */
+    private String uri;
+
+    /** 接口路径模板 */
+    private String endpoint;
+
+    /** 响应状态码 */
+    private Integer status;
+
+    /** 处理线程 */
+    private String thread;
+
+    /** 请求开始时间戳（毫秒） */
+    private Long timestamp;
+
+    /** 总耗时 */
+    private Double totalMs;
+
+    /** 进入控制器方法的时刻，未匹配到控制器时为 null */
+    private Double controllerAtMs;
+
+    /** 开始序列化响应的时刻 */
+    private Double serializeAtMs;
+
+    /** 序列化并写出响应的耗时 */
+    private Double serializeMs;
+
+    /** 上游调用耗时合计 */
+    private Double upstreamMs;
+
+    /** 响应体字节数 */
+    private Long responseBytes;
+
+    /** 超出记录上限而未保存的上游调用数 */
+    private Integer droppedSpans;
+
+    /** 上游调用 */
+    private List<Span> spans;
+
+    /**
+     * 上游调用
+     */
+    @Data
+    public static class Span {
+
+        /** 类型: kibana, elasticsearch */
+        private String kind;
+
+        /** 接口路径（不含查询参数） */
+        private String path;
+
+        /** 目标实例 */
+        private String target;
+
+        /** 响应状态码，未收到响应时为 0 */
+        private Integer status;
+
+        /** 开始时刻 */
+        private Double startMs;
+
+        /** 总耗时 */
+        private Double durationMs;
+
+        /** 是否新建了连接 */
+        private boolean newConnection;
+
+        /** DNS 解析 */
+        private Double dnsMs;
+
+        /** TCP 建连（不含 TLS） */
+        private Double connectMs;
+
+        /** TLS 握手 */
+        private Double tlsMs;
+
+        /** 发送请求头与请求体 */
+        private Double requestMs;
+
+        /** 请求发出到收到响应头（服务端处理） */
+        private Double waitMs;
+
+        /** 读取响应体 */
+        private Double downloadMs;
+
+        /** 反序列化；ES 调用为边读边解析，与 downloadMs 重叠 */
+        private Double deserializeMs;
+
+        /** 错误信息 */
+        private String error;
+    }
+}
@@ -0,0 +1,121 @@
+package com.esmanage.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * 上游响应投影
+ * 描述解析 Kibana / Elasticsearch 响应时需要保留的段和指标。未选中的段在解析阶段直接跳过
+ * （{@link JsonParser#skipChildren()}），不构建对象或通用 Map；直连数据源据此只计算选中的指标。
+ *
+ * 通过 Jackson 的反序列化属性 {@link #ATTRIBUTE} 传递给 {@link Deserializer} 和 {@link MetricSeriesSet}
+ */
+public final class ResponseProjection {
+
+    /** 反序列化属性键 */
+    public static final Object ATTRIBUTE = ResponseProjection.class;
+
+    /** 保留全部 */
+    public static final ResponseProjection ALL = new ResponseProjection(Set.of(), null);
+
+    /** 跳过的段（响应中的字段名） */
+    private final Set<String> skippedSections;
+
+    /** 按指标目录 ID 标记保留的指标，null 表示全部保留 */
+    private final boolean[] metrics;
+
+    private ResponseProjection(Set<String> skippedSections, boolean[] metrics) {
+        this.skippedSections = skippedSections;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param skippedSections 跳过的段
+     * @param metrics         保留的指标 ID（按目录 ID 下标），null 表示全部保留
+     */
+    public static ResponseProjection of(Set<String> skippedSections, boolean[] metrics) {
+        if (skippedSections.isEmpty() && metrics == null) {
+            return ALL;
+        }
+        return new ResponseProjection(Set.copyOf(skippedSections), metrics);
+    }
+
+    public boolean isAll() {
+        return this == ALL;
+    }
+
+    /**
+     * 是否保留该段
+     * 段名同时是已登记的指标名（如 cluster_search_request_rate）时还需该指标被选中
+     */
+    public boolean includesSection(String name) {
+        if (skippedSections.contains(name)) {
+            return false;
+        }
+        int id = MetricCatalog.idOf(name);
+        return id < 0 || includesMetric(id);
+    }
+
+    public boolean includesMetric(int id) {
+        return metrics == null || metrics[id];
+    }
+
+    /**
+     * 按名称判断指标是否保留，未登记的指标只在未限定指标时保留
+     */
+    public boolean includesMetric(String name) {
+        int id = MetricCatalog.idOf(name);
+        return id >= 0 ? includesMetric(id) : metrics == null;
+    }
+
+    /**
+     * 从反序列化上下文中取投影，未设置时保留全部
+     */
+    static ResponseProjection from(DeserializationContext ctxt) {
+        Object projection = ctxt.getAttribute(ATTRIBUTE);
+        return projection instanceof ResponseProjection ? (ResponseProjection) projection : ALL;
+    }
+
+    /**
+     * 可跳过段的反序列化器，标注在 DTO 字段上：
+     * {@code @JsonDeserialize(using = ResponseProjection.Deserializer.class)}
+     * 段未被选中时跳过整个 JSON 子树并返回 null，否则交给该类型的默认反序列化器
+     */
+    public static class Deserializer extends JsonDeserializer<Object> implements ContextualDeserializer {
+
+        private final String name;
+        private final JsonDeserializer<Object> delegate;
+
+        public Deserializer() {
+            this(null, null);
+        }
+
+        private Deserializer(String name, JsonDeserializer<Object> delegate) {
+            this.name = name;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public JsonDeserializer<?> createContextual(DeserializationContext ctxt, BeanProperty property)
+                throws JsonMappingException {
+            return new Deserializer(property.getName(),
+                    ctxt.findContextualValueDeserializer(property.getType(), property));
+        }
+
+        @Override
+        public Object deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!from(ctxt).includesSection(name)) {
+                p.skipChildren();
+                return null;
+            }
+            return delegate.deserialize(p, ctxt);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.esmanage.dto;
+
+import lombok.Data;
+
+/**
+ * 慢查询排行榜记录 DTO
+ */
+@Data
+public class SlowQueryDTO {
+
+    /** 查询 ID */
+    private String id;
+
+    /** 来源: proxy（控制台代理）, profile（性能剖析） */
+    private String source;
+
+    /** HTTP 方法 */
+    private String method;
+
+    /** 请求路径（含查询参数） */
+    private String path;
+
+    /** 请求体，超过保存上限时截断 */
+    private String body;
+
+    /** 请求体是否被截断 */
+    private boolean bodyTruncated;
+
+    /** ES 响应状态码 */
+    private Integer status;
+
+    /** 经服务往返的总耗时（毫秒） */
+    private Long tookMs;
+
+    /** 响应字节数 */
+    private Long responseBytes;
+
+    /** 是否有性能剖析结果 */
+    private boolean profiled;
+
+    /** 时间戳（毫秒） */
+    private Long timestamp;
+}
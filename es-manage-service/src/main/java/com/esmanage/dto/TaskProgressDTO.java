@@ -0,0 +1,69 @@
+package com.esmanage.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+/**
+ * 长时间运行任务进度 DTO
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskProgressDTO {
+
+    /** 任务 ID（node:id） */
+    private String taskId;
+
+    /** 任务 action，如 indices:data/write/reindex */
+    private String action;
+
+    /** 任务描述 */
+    private String description;
+
+    /** 状态: running, completed, failed, cancelled */
+    private String status;
+
+    /** 需处理的文档总数 */
+    private Long total;
+
+    /** 已处理的文档数（创建、更新、删除、空操作与版本冲突之和） */
+    private Long processed;
+
+    /** 创建的文档数 */
+    private Long created;
+
+    /** 更新的文档数 */
+    private Long updated;
+
+    /** 删除的文档数 */
+    private Long deleted;
+
+    /** 版本冲突数 */
+    private Long versionConflicts;
+
+    /** 进度 0-100，无法计算时为 null */
+    private Double progress;
+
+    /** 吞吐量（文档/秒，相邻快照差分后 EWMA 平滑） */
+    private Double docsPerSec;
+
+    /** 预计剩余时间（秒） */
+    private Long etaSeconds;
+
+    /** 是否可取消 */
+    private Boolean cancellable;
+
+    /** 任务开始时间 */
+    private Long startTime;
+
+    /** 已运行时长（毫秒） */
+    private Long runningTimeMs;
+
+    /** 最近一次更新时间 */
+    private Long updatedAt;
+
+    /** 结束时间 */
+    private Long completedAt;
+
+    /** 错误信息 */
+    private String error;
+}
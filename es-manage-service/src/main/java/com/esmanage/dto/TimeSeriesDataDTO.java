@@ -24,6 +24,13 @@ public class TimeSeriesDataDTO {
     /** 数据点列表: [[timestamp, value], ...] */
     private List<List<Object>> data;
 
+    /**
+     * 元信息归并为共享实例（见 {@link MetricCatalog#intern}）
+     */
+    public void setMetric(MetricInfoDTO metric) {
+        this.metric = MetricCatalog.intern(metric);
+    }
+
     /**
      * 时间范围
      */
@@ -0,0 +1,61 @@
+package com.esmanage.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 操作流执行记录 DTO
+ */
+@Data
+public class WorkflowExecutionDTO {
+
+    /** 执行 ID */
+    private String id;
+
+    /** 操作流名称 */
+    private String workflowName;
+
+    /** 模板 ID */
+    private String templateId;
+
+    /** 模板名称 */
+    private String templateName;
+
+    /** 状态: running, completed, failed, cancelled */
+    private String status;
+
+    /** 触发类型: manual, approval */
+    private String triggerType;
+
+    /** 关联的审批 ID */
+    private String approvalId;
+
+    /** 步骤 */
+    private List<WorkflowStepDTO> steps;
+
+    /** 流程变量 */
+    private Map<String, Object> variables;
+
+    /** 执行进度 0-100 */
+    private Integer progress;
+
+    /** 错误信息 */
+    private String error;
+
+    /** 创建人 */
+    private String createdBy;
+
+    /** 创建时间 */
+    private Long createdAt;
+
+    /** 开始时间 */
+    private Long startedAt;
+
+    /** 完成时间 */
+    private Long completedAt;
+
+    /** 总耗时（毫秒） */
+    private Long duration;
+}
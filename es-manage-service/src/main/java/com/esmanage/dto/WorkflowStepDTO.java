@@ -0,0 +1,72 @@
+package com.esmanage.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 操作流步骤 DTO
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WorkflowStepDTO {
+
+    /** 步骤 ID，同一操作流内唯一 */
+    private String id;
+
+    /** 名称 */
+    private String name;
+
+    /** 类型: 原子操作类型、approval、notification */
+    private String type;
+
+    /** 描述 */
+    private String description;
+
+    /** 参数，值中的 {{变量}} 在执行时替换 */
+    private Map<String, Object> config;
+
+    /** 依赖的步骤 ID；为 null 时依赖上一步，为空列表时不依赖任何步骤 */
+    private List<String> dependsOn;
+
+    /** 状态: pending, running, completed, failed, skipped */
+    private String status;
+
+    /** 执行结果 */
+    private StepResult result;
+
+    /** 开始时间 */
+    private Long startedAt;
+
+    /** 完成时间 */
+    private Long completedAt;
+
+    /** 错误信息 */
+    private String error;
+
+    /** 已重试次数 */
+    private Integer retryCount;
+
+    /** 最大重试次数 */
+    private Integer maxRetries;
+
+    /** 超时（毫秒） */
+    private Long timeoutMs;
+
+    @Data
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class StepResult {
+        /** 是否成功 */
+        private Boolean success;
+        /** 说明 */
+        private String message;
+        /** 输出参数 */
+        private Map<String, Object> data;
+        /** 执行耗时（毫秒） */
+        private Long duration;
+        /** API 响应 */
+        private Object response;
+    }
+}
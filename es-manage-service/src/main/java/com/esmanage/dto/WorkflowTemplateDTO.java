@@ -0,0 +1,36 @@
+package com.esmanage.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 操作流模板 DTO
+ */
+@Data
+public class WorkflowTemplateDTO {
+
+    /** 模板 ID */
+    private String id;
+
+    /** 名称 */
+    private String name;
+
+    /** 描述 */
+    private String description;
+
+    /** 分类: index, alias, migration, custom */
+    private String category;
+
+    /** 步骤定义 */
+    private List<WorkflowStepDTO> steps;
+
+    /** 是否内置 */
+    private Boolean isBuiltin;
+
+    /** 创建时间 */
+    private Long createdAt;
+
+    /** 更新时间 */
+    private Long updatedAt;
+}
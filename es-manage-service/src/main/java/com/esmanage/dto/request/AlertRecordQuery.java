@@ -0,0 +1,35 @@
+package com.esmanage.dto.request;
+
+import lombok.Data;
+
+/**
+ * 告警记录查询参数
+ * 为空的条件不参与过滤
+ */
+@Data
+public class AlertRecordQuery {
+
+    /** 规则 ID */
+    private String ruleId;
+
+    /** 级别: critical, warning, info */
+    private String severity;
+
+    /** 状态: firing, resolved, acknowledged */
+    private String status;
+
+    /** 目标节点或索引 */
+    private String target;
+
+    /** 触发时间下限（毫秒） */
+    private Long from;
+
+    /** 触发时间上限（毫秒） */
+    private Long to;
+
+    /** 页码（从0开始） */
+    private Integer page = 0;
+
+    /** 每页大小 */
+    private Integer pageSize = 20;
+}
@@ -0,0 +1,48 @@
+package com.esmanage.dto.request;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量分析请求：多条文本 × 多个分析器
+ */
+@Data
+public class AnalyzeBatchRequest {
+
+    /** 索引名，为空时使用集群级分析器；索引自定义分析器需指定 */
+    private String index;
+
+    /** 待分析的文本 */
+    private List<String> texts;
+
+    /** 参与对比的分析器，可直接写分析器名称字符串 */
+    private List<AnalyzerSpec> analyzers;
+
+    /**
+     * 分析器定义：内置或索引中的分析器名称，或由分词器与过滤器临时组合的自定义分析器
+     */
+    @Data
+    public static class AnalyzerSpec {
+        /** 结果中的显示名称，为空时使用分析器名称或 custom-N */
+        private String name;
+        /** 分析器名称，如 standard、ik_max_word */
+        private String analyzer;
+        /** 分词器名称或定义，与 analyzer 二选一 */
+        private Object tokenizer;
+        /** 词元过滤器名称或定义 */
+        private List<Object> filter;
+        /** 字符过滤器名称或定义 */
+        private List<Object> charFilter;
+
+        public AnalyzerSpec() {
+        }
+
+        /**
+         * 直接以分析器名称声明（JSON 字符串形式）
+         */
+        public AnalyzerSpec(String analyzer) {
+            this.analyzer = analyzer;
+        }
+    }
+}
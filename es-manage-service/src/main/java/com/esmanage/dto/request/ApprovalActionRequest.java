@@ -0,0 +1,19 @@
+package com.esmanage.dto.request;
+
+import lombok.Data;
+
+/**
+ * 审批操作请求（通过、驳回、取消）
+ */
+@Data
+public class ApprovalActionRequest {
+
+    /** 操作的节点 ID，为空时操作当前待审批节点 */
+    private String nodeId;
+
+    /** 操作人 */
+    private String operator;
+
+    /** 审批意见 */
+    private String comment;
+}
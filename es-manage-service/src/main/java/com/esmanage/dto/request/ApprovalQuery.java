@@ -0,0 +1,32 @@
+package com.esmanage.dto.request;
+
+import lombok.Data;
+
+/**
+ * 审批申请查询参数
+ * 为空的条件不参与过滤
+ */
+@Data
+public class ApprovalQuery {
+
+    /** 状态: pending, approved, rejected, cancelled, processing, completed, failed */
+    private String status;
+
+    /** 申请类型 */
+    private String type;
+
+    /** 申请人 */
+    private String applicant;
+
+    /** 提交时间下限（毫秒） */
+    private Long from;
+
+    /** 提交时间上限（毫秒） */
+    private Long to;
+
+    /** 页码（从0开始） */
+    private Integer page = 0;
+
+    /** 每页大小 */
+    private Integer pageSize = 20;
+}
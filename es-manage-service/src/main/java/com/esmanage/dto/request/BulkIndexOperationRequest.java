@@ -0,0 +1,38 @@
+package com.esmanage.dto.request;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量索引操作请求
+ * 按 pattern 匹配或 indices 显式列出目标索引，二者至少指定一个
+ */
+@Data
+public class BulkIndexOperationRequest {
+
+    /** 操作类型: delete, close, open, forcemerge, settings */
+    private String operation;
+
+    /** 索引匹配模式，如 logs-2023-*，多个用逗号分隔 */
+    private String pattern;
+
+    /** 显式索引列表 */
+    private List<String> indices;
+
+    /** settings 操作的设置内容 */
+    private Map<String, Object> settings;
+
+    /** forcemerge 操作的目标段数 */
+    private Integer maxNumSegments;
+
+    /** 是否包含系统索引（. 开头），默认不包含 */
+    private Boolean includeSystem;
+
+    /** 试运行：只返回目标索引与批次数，不执行 */
+    private Boolean dryRun;
+
+    /** 创建人 */
+    private String createdBy;
+}
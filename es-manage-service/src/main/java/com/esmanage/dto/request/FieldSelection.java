@@ -0,0 +1,108 @@
+package com.esmanage.dto.request;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 字段选择（请求参数 fields）
+ * 逗号分隔的段名或 段名.子项，例如 cluster,jvm,timeSeries.search_rate；
+ * 只写段名表示整段，未指定时选择全部；段名与子项都须在调用方给定的范围内
+ */
+public final class FieldSelection {
+
+    /** 选择全部 */
+    public static final FieldSelection ALL = new FieldSelection(null);
+
+    /** 请求的路径，null 表示全部 */
+    private final Set<String> paths;
+
+    private FieldSelection(Set<String> paths) {
+        this.paths = paths;
+    }
+
+    /**
+     * 解析 fields 参数
+     *
+     * @param fields   参数值，为空时选择全部
+     * @param sections 允许的段名
+     * @param children 段名到允许子项的映射，不在其中的段不接受子项
+     * @throws IllegalArgumentException 段名或子项不在允许范围内
+     */
+    public static FieldSelection parse(String fields, Set<String> sections, Map<String, Set<String>> children) {
+        return parse(fields, sections, children, null);
+    }
+
+    /**
+     * 解析 fields 参数，不带段名的项视为 defaultSection 下的子项
+     * 用于时序接口：fields=cpu_percent,latency 等价于 timeSeries.cpu_percent,timeSeries.latency
+     */
+    public static FieldSelection parse(String fields, Set<String> sections, Map<String, Set<String>> children,
+            String defaultSection) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<String> paths = new HashSet<>();
+        for (String token : fields.split(",")) {
+            String path = token.trim();
+            if (path.isEmpty()) {
+                continue;
+            }
+            int dot = path.indexOf('.');
+            if (dot < 0 && defaultSection != null && !path.equals(defaultSection)) {
+                path = defaultSection + "." + path;
+                dot = defaultSection.length();
+            }
+            String section = dot < 0 ? path : path.substring(0, dot);
+            if (!sections.contains(section)) {
+                throw new IllegalArgumentException("Unknown field: " + path + ", allowed: " + new TreeSet<>(sections));
+            }
+            if (dot >= 0) {
+                Set<String> allowed = children.getOrDefault(section, Set.of());
+                if (!allowed.contains(path.substring(dot + 1))) {
+                    throw new IllegalArgumentException("Unknown field: " + path + ", allowed in " + section + ": "
+                            + new TreeSet<>(allowed));
+                }
+            }
+            paths.add(path);
+        }
+        return paths.isEmpty() ? ALL : new FieldSelection(Collections.unmodifiableSet(paths));
+    }
+
+    public boolean isAll() {
+        return paths == null;
+    }
+
+    /**
+     * 是否需要该段（整段或其中任一子项被选择）
+     */
+    public boolean includes(String section) {
+        if (paths == null || paths.contains(section)) {
+            return true;
+        }
+        String prefix = section + ".";
+        for (String path : paths) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 是否需要段内的某个子项
+     */
+    public boolean includes(String section, String child) {
+        return paths == null || paths.contains(section) || paths.contains(section + "." + child);
+    }
+
+    /**
+     * 规范化表示（按字母排序），可用作缓存键
+     */
+    @Override
+    public String toString() {
+        return paths == null ? "*" : String.join(",", new TreeSet<>(paths));
+    }
+}
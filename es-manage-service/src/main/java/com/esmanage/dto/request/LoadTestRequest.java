@@ -0,0 +1,43 @@
+package com.esmanage.dto.request;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 压测请求
+ */
+@Data
+public class LoadTestRequest {
+
+    /** 并发数（闭环：每个并发在上一个请求完成后立即发起下一个），为空使用默认值 */
+    private Integer concurrency;
+
+    /** 压测时长（秒），不含预热 */
+    private Integer durationSec;
+
+    /** 预热时长（秒） */
+    private Integer warmupSec;
+
+    /** 压测目标，为空时覆盖监控接口的默认组合 */
+    private List<Target> targets;
+
+    /**
+     * 压测目标
+     */
+    @Data
+    public static class Target {
+        /** 请求路径（含查询参数），可使用 {nodeId}、{indexName} 占位符，从节点与索引列表中轮流取值 */
+        private String path;
+        /** 权重，按权重比例随机选择目标 */
+        private int weight = 1;
+
+        public Target() {
+        }
+
+        public Target(String path, int weight) {
+            this.path = path;
+            this.weight = weight;
+        }
+    }
+}
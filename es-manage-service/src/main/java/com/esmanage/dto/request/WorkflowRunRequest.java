@@ -0,0 +1,36 @@
+package com.esmanage.dto.request;
+
+import com.esmanage.dto.WorkflowStepDTO;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 执行操作流请求
+ * 指定模板 ID 时使用模板步骤，否则使用请求中的步骤
+ */
+@Data
+public class WorkflowRunRequest {
+
+    /** 模板 ID */
+    private String templateId;
+
+    /** 操作流名称，默认为模板名称 */
+    private String name;
+
+    /** 步骤 */
+    private List<WorkflowStepDTO> steps;
+
+    /** 流程变量 */
+    private Map<String, Object> variables;
+
+    /** 触发类型: manual, approval */
+    private String triggerType;
+
+    /** 关联的审批 ID */
+    private String approvalId;
+
+    /** 创建人 */
+    private String createdBy;
+}
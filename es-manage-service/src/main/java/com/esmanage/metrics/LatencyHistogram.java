@@ -0,0 +1,63 @@
+package com.esmanage.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 延迟直方图
+ * 桶边界固定、计数器在创建时分配，记录一次只做一次线性查找和两次 LongAdder 累加，不分配对象；
+ * 桶内计数不累计，导出时再按 Prometheus 的 le 语义累加
+ */
+public final class LatencyHistogram {
+
+    /** 桶上界（毫秒），覆盖本地缓存命中到慢查询 */
+    static final long[] BOUNDS_MS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+
+    private static final long[] BOUNDS_NANOS = new long[BOUNDS_MS.length];
+
+    static {
+        for (int i = 0; i < BOUNDS_MS.length; i++) {
+            BOUNDS_NANOS[i] = BOUNDS_MS[i] * 1_000_000L;
+        }
+    }
+
+    /** 各桶计数，最后一个为 +Inf */
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_MS.length + 1];
+    private final LongAdder sumNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void recordNanos(long nanos) {
+        int i = 0;
+        while (i < BOUNDS_NANOS.length && nanos > BOUNDS_NANOS[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        sumNanos.add(nanos);
+    }
+
+    public void recordMillis(long millis) {
+        recordNanos(millis * 1_000_000L);
+    }
+
+    /**
+     * 桶数（含 +Inf）
+     */
+    int bucketCount() {
+        return buckets.length;
+    }
+
+    /**
+     * 单个桶的计数（不累计）
+     */
+    long bucket(int index) {
+        return buckets[index].sum();
+    }
+
+    long sumNanos() {
+        return sumNanos.sum();
+    }
+}
@@ -0,0 +1,415 @@
+package com.esmanage.metrics;
+
+import com.esmanage.client.ElasticsearchClient;
+import com.esmanage.client.KibanaClient;
+import com.esmanage.client.KibanaEndpoint;
+import com.esmanage.config.ElasticsearchConfig;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * 服务自身指标注册表
+ * 接口、执行器、缓存、连接池指标在启动时注册，标签预先编码为字节；记录路径只有 LongAdder 累加，
+ * 抓取时在复用的缓冲区中按 Prometheus 文本格式或 OpenMetrics 格式输出，不创建字符串。
+ * Kibana 与 ES 上游延迟直接读取客户端已有的按简化路径统计（ApiStats），新路径首次出现时编码一次标签。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MetricsRegistry {
+
+    private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+    private static final byte[] HEAP = OpenMetricsWriter.labels("area", "heap");
+    private static final byte[] NON_HEAP = OpenMetricsWriter.labels("area", "nonheap");
+
+    /** 预编码的 le 标签，最后一个为 +Inf */
+    private static final byte[][] LE_LABELS = new byte[LatencyHistogram.BOUNDS_MS.length + 1][];
+
+    static {
+        for (int i = 0; i < LatencyHistogram.BOUNDS_MS.length; i++) {
+            String seconds = BigDecimal.valueOf(LatencyHistogram.BOUNDS_MS[i]).movePointLeft(3)
+                    .stripTrailingZeros().toPlainString();
+            LE_LABELS[i] = ("le=\"" + seconds + "\"").getBytes(StandardCharsets.US_ASCII);
+        }
+        LE_LABELS[LatencyHistogram.BOUNDS_MS.length] = "le=\"+Inf\"".getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private final KibanaClient kibanaClient;
+    private final ElasticsearchClient elasticsearchClient;
+    private final ElasticsearchConfig elasticsearchConfig;
+
+    /** 控制器方法 -> 接口指标，上下文刷新后一次性建立，之后只读 */
+    private volatile Map<Method, EndpointMeters> endpoints = Map.of();
+
+    /** 未匹配到控制器的请求（404、静态资源、错误页） */
+    private final EndpointMeters unmatched = new EndpointMeters("unmatched", "ANY");
+
+    private final List<QueueGauge> queues = new CopyOnWriteArrayList<>();
+    private final List<CacheGauge> caches = new CopyOnWriteArrayList<>();
+
+    /** 上游接口统计 -> 预编码标签 */
+    private final Map<KibanaClient.ApiStats, byte[]> kibanaPathLabels = new ConcurrentHashMap<>();
+    private final Map<KibanaClient.ApiStats, byte[]> elasticsearchPathLabels = new ConcurrentHashMap<>();
+
+    /** 连接池及其预编码标签（active / idle 两组） */
+    private final List<ConnectionPool> pools = new ArrayList<>();
+    private final List<byte[][]> poolLabels = new ArrayList<>();
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final byte[][] collectorLabels = new byte[collectors.size()][];
+
+    /** 抓取缓冲，由 scrape 的锁保护 */
+    private final OpenMetricsWriter writer = new OpenMetricsWriter();
+
+    /**
+     * 单个接口的指标
+     */
+    public static final class EndpointMeters {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder[] statuses = new LongAdder[STATUS_CLASSES.length];
+        private final LongAdder bytesIn = new LongAdder();
+        private final LongAdder bytesOut = new LongAdder();
+        private final String endpoint;
+        private final byte[] labels;
+        private final byte[][] statusLabels = new byte[STATUS_CLASSES.length][];
+
+        EndpointMeters(String endpoint, String method) {
+            this.endpoint = endpoint;
+            this.labels = OpenMetricsWriter.labels("endpoint", endpoint, "method", method);
+            for (int i = 0; i < statuses.length; i++) {
+                statuses[i] = new LongAdder();
+                statusLabels[i] = OpenMetricsWriter.labels("endpoint", endpoint, "method", method,
+                        "status", STATUS_CLASSES[i]);
+            }
+        }
+
+        /**
+         * 接口路径模板，如 /api/indices/{name}
+         */
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        boolean requested() {
+            for (LongAdder status : statuses) {
+                if (status.sum() > 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public void record(long nanos, int status, long requestBytes, long responseBytes) {
+            latency.recordNanos(nanos);
+            statuses[Math.min(4, Math.max(0, status / 100 - 1))].increment();
+            bytesIn.add(requestBytes);
+            bytesOut.add(responseBytes);
+        }
+    }
+
+    private record QueueGauge(byte[] labels, IntSupplier queued, IntSupplier active) {
+    }
+
+    private record CacheGauge(byte[] labels, LongSupplier hits, LongSupplier misses, IntSupplier size) {
+    }
+
+    @PostConstruct
+    public void init() {
+        for (KibanaEndpoint endpoint : kibanaClient.getEndpoints()) {
+            addPool("kibana", endpoint.getBaseUrl(), endpoint.getHttpClient().connectionPool());
+        }
+        List<String> hosts = elasticsearchConfig.getHosts();
+        addPool("elasticsearch", hosts != null ? String.join(",", hosts) : "",
+                elasticsearchClient.getHttpClient().connectionPool());
+        for (int i = 0; i < collectors.size(); i++) {
+            collectorLabels[i] = OpenMetricsWriter.labels("gc", collectors.get(i).getName());
+        }
+    }
+
+    /**
+     * 上下文刷新后为每个控制器方法建立接口指标
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void registerEndpoints(ContextRefreshedEvent event) {
+        Map<Method, EndpointMeters> registered = new HashMap<>();
+        for (RequestMappingHandlerMapping mapping : event.getApplicationContext()
+                .getBeansOfType(RequestMappingHandlerMapping.class).values()) {
+            for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : mapping.getHandlerMethods().entrySet()) {
+                RequestMappingInfo info = entry.getKey();
+                Set<String> patterns = info.getPatternValues();
+                String pattern = patterns.isEmpty() ? "" : patterns.iterator().next();
+                String method = info.getMethodsCondition().getMethods().isEmpty() ? "ANY"
+                        : info.getMethodsCondition().getMethods().iterator().next().name();
+                registered.putIfAbsent(entry.getValue().getMethod(), new EndpointMeters(pattern, method));
+            }
+        }
+        endpoints = registered;
+        log.info("Registered metrics for {} endpoints", registered.size());
+    }
+
+    /**
+     * 请求处理器对应的接口指标
+     *
+     * @param handler HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE 属性值
+     */
+    public EndpointMeters endpointFor(Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            EndpointMeters meters = endpoints.get(handlerMethod.getMethod());
+            if (meters != null) {
+                return meters;
+            }
+        }
+        return unmatched;
+    }
+
+    /**
+     * 注册线程池的队列深度与活跃线程数
+     */
+    public void registerExecutor(String name, ThreadPoolExecutor executor) {
+        registerQueue(name, () -> executor.getQueue().size(), executor::getActiveCount);
+    }
+
+    /**
+     * 注册任意排队执行器（如 OkHttp Dispatcher）
+     */
+    public void registerQueue(String name, IntSupplier queued, IntSupplier active) {
+        queues.add(new QueueGauge(OpenMetricsWriter.labels("executor", name), queued, active));
+    }
+
+    /**
+     * 注册缓存命中统计
+     */
+    public void registerCache(String name, LongSupplier hits, LongSupplier misses, IntSupplier size) {
+        caches.add(new CacheGauge(OpenMetricsWriter.labels("cache", name), hits, misses, size));
+    }
+
+    /**
+     * 输出全部指标
+     *
+     * @param openMetrics true 输出 OpenMetrics 格式（以 # EOF 结尾），否则输出 Prometheus 文本格式 0.0.4
+     */
+    public synchronized void scrape(OutputStream out, boolean openMetrics) throws IOException {
+        OpenMetricsWriter w = writer;
+        w.reset();
+
+        Map<Method, EndpointMeters> current = endpoints;
+        family(w, "esmanage_http_server_requests_seconds", "histogram",
+                "Latency of requests handled by this service, per controller endpoint", openMetrics);
+        for (EndpointMeters meters : current.values()) {
+            histogram(w, "esmanage_http_server_requests_seconds", meters.labels, meters.latency);
+        }
+        histogram(w, "esmanage_http_server_requests_seconds", unmatched.labels, unmatched.latency);
+
+        family(w, "esmanage_http_server_responses", "counter", "Responses by status class", openMetrics);
+        for (EndpointMeters meters : current.values()) {
+            statuses(w, meters);
+        }
+        statuses(w, unmatched);
+
+        family(w, "esmanage_http_server_received_bytes", "counter", "Request body bytes read", openMetrics);
+        for (EndpointMeters meters : current.values()) {
+            bytes(w, "esmanage_http_server_received_bytes", meters, meters.bytesIn);
+        }
+        bytes(w, "esmanage_http_server_received_bytes", unmatched, unmatched.bytesIn);
+
+        family(w, "esmanage_http_server_sent_bytes", "counter", "Response body bytes written", openMetrics);
+        for (EndpointMeters meters : current.values()) {
+            bytes(w, "esmanage_http_server_sent_bytes", meters, meters.bytesOut);
+        }
+        bytes(w, "esmanage_http_server_sent_bytes", unmatched, unmatched.bytesOut);
+
+        family(w, "esmanage_upstream_request_seconds", "histogram",
+                "Latency of calls to Kibana and Elasticsearch, per simplified path", openMetrics);
+        for (KibanaClient.ApiStats stats : kibanaClient.getApiStatsMap().values()) {
+            histogram(w, "esmanage_upstream_request_seconds",
+                    upstreamLabels(kibanaPathLabels, "kibana", stats), stats.getHistogram());
+        }
+        for (KibanaClient.ApiStats stats : elasticsearchClient.getApiStatsMap().values()) {
+            histogram(w, "esmanage_upstream_request_seconds",
+                    upstreamLabels(elasticsearchPathLabels, "elasticsearch", stats), stats.getHistogram());
+        }
+
+        family(w, "esmanage_okhttp_connections", "gauge", "Pooled upstream connections by state", openMetrics);
+        for (int i = 0; i < pools.size(); i++) {
+            ConnectionPool pool = pools.get(i);
+            int idle = pool.idleConnectionCount();
+            gauge(w, "esmanage_okhttp_connections", poolLabels.get(i)[0], Math.max(0, pool.connectionCount() - idle));
+            gauge(w, "esmanage_okhttp_connections", poolLabels.get(i)[1], idle);
+        }
+
+        family(w, "esmanage_executor_queued_tasks", "gauge", "Tasks waiting in executor queues", openMetrics);
+        for (QueueGauge queue : queues) {
+            gauge(w, "esmanage_executor_queued_tasks", queue.labels(), queue.queued().getAsInt());
+        }
+        family(w, "esmanage_executor_active_tasks", "gauge", "Tasks currently running", openMetrics);
+        for (QueueGauge queue : queues) {
+            gauge(w, "esmanage_executor_active_tasks", queue.labels(), queue.active().getAsInt());
+        }
+
+        family(w, "esmanage_cache_hits", "counter", "Cache hits", openMetrics);
+        for (CacheGauge cache : caches) {
+            counter(w, "esmanage_cache_hits", cache.labels(), cache.hits().getAsLong());
+        }
+        family(w, "esmanage_cache_misses", "counter", "Cache misses", openMetrics);
+        for (CacheGauge cache : caches) {
+            counter(w, "esmanage_cache_misses", cache.labels(), cache.misses().getAsLong());
+        }
+        family(w, "esmanage_cache_hit_ratio", "gauge", "Cache hit ratio since start", openMetrics);
+        for (CacheGauge cache : caches) {
+            long hits = cache.hits().getAsLong();
+            long total = hits + cache.misses().getAsLong();
+            sample(w, "esmanage_cache_hit_ratio", "", cache.labels()).ratio(total > 0 ? (double) hits / total : 0)
+                    .ch('\n');
+        }
+        family(w, "esmanage_cache_entries", "gauge", "Entries currently cached", openMetrics);
+        for (CacheGauge cache : caches) {
+            gauge(w, "esmanage_cache_entries", cache.labels(), cache.size().getAsInt());
+        }
+
+        MemoryUsage heap = memory.getHeapMemoryUsage();
+        MemoryUsage nonHeap = memory.getNonHeapMemoryUsage();
+        family(w, "jvm_memory_used_bytes", "gauge", "Used JVM memory", openMetrics);
+        gauge(w, "jvm_memory_used_bytes", HEAP, heap.getUsed());
+        gauge(w, "jvm_memory_used_bytes", NON_HEAP, nonHeap.getUsed());
+        family(w, "jvm_memory_committed_bytes", "gauge", "Committed JVM memory", openMetrics);
+        gauge(w, "jvm_memory_committed_bytes", HEAP, heap.getCommitted());
+        gauge(w, "jvm_memory_committed_bytes", NON_HEAP, nonHeap.getCommitted());
+        family(w, "jvm_memory_max_bytes", "gauge", "Max JVM memory, -1 if undefined", openMetrics);
+        gauge(w, "jvm_memory_max_bytes", HEAP, heap.getMax());
+        gauge(w, "jvm_memory_max_bytes", NON_HEAP, nonHeap.getMax());
+
+        family(w, "jvm_gc_collection_seconds", "summary", "Time spent in garbage collection", openMetrics);
+        for (int i = 0; i < collectors.size(); i++) {
+            GarbageCollectorMXBean collector = collectors.get(i);
+            sample(w, "jvm_gc_collection_seconds", "_count", collectorLabels[i])
+                    .number(Math.max(0, collector.getCollectionCount())).ch('\n');
+            sample(w, "jvm_gc_collection_seconds", "_sum", collectorLabels[i])
+                    .seconds(Math.max(0, collector.getCollectionTime()) * 1_000_000L).ch('\n');
+        }
+
+        family(w, "jvm_threads_current", "gauge", "Live JVM threads", openMetrics);
+        w.ascii("jvm_threads_current ").number(threads.getThreadCount()).ch('\n');
+
+        if (openMetrics) {
+            w.ascii("# EOF\n");
+        }
+        w.writeTo(out);
+    }
+
+    private void addPool(String client, String target, ConnectionPool pool) {
+        pools.add(pool);
+        poolLabels.add(new byte[][]{
+                OpenMetricsWriter.labels("client", client, "target", target, "state", "active"),
+                OpenMetricsWriter.labels("client", client, "target", target, "state", "idle")});
+    }
+
+    private static byte[] upstreamLabels(Map<KibanaClient.ApiStats, byte[]> cache, String upstream,
+                                         KibanaClient.ApiStats stats) {
+        byte[] labels = cache.get(stats);
+        if (labels == null) {
+            labels = OpenMetricsWriter.labels("upstream", upstream, "path", stats.getPath());
+            cache.put(stats, labels);
+        }
+        return labels;
+    }
+
+    /**
+     * 指标族头部；Prometheus 文本格式中计数器的 TYPE 行使用带 _total 的样本名
+     */
+    private static void family(OpenMetricsWriter w, String name, String type, String help, boolean openMetrics) {
+        boolean total = !openMetrics && "counter".equals(type);
+        w.ascii("# TYPE ").ascii(name);
+        if (total) {
+            w.ascii("_total");
+        }
+        w.ch(' ').ascii(type).ascii("\n# HELP ").ascii(name);
+        if (total) {
+            w.ascii("_total");
+        }
+        w.ch(' ').ascii(help).ch('\n');
+    }
+
+    private static OpenMetricsWriter sample(OpenMetricsWriter w, String name, String suffix, byte[] labels) {
+        w.ascii(name).ascii(suffix);
+        if (labels.length > 0) {
+            w.ch('{').bytes(labels).ch('}');
+        }
+        return w.ch(' ');
+    }
+
+    private static void gauge(OpenMetricsWriter w, String name, byte[] labels, long value) {
+        sample(w, name, "", labels).number(value).ch('\n');
+    }
+
+    private static void counter(OpenMetricsWriter w, String name, byte[] labels, long value) {
+        sample(w, name, "_total", labels).number(value).ch('\n');
+    }
+
+    /**
+     * 字节计数；未收到过请求的接口不输出
+     */
+    private static void bytes(OpenMetricsWriter w, String name, EndpointMeters meters, LongAdder adder) {
+        if (meters.requested()) {
+            counter(w, name, meters.labels, adder.sum());
+        }
+    }
+
+    private static void statuses(OpenMetricsWriter w, EndpointMeters meters) {
+        for (int i = 0; i < STATUS_CLASSES.length; i++) {
+            long count = meters.statuses[i].sum();
+            if (count > 0) {
+                counter(w, "esmanage_http_server_responses", meters.statusLabels[i], count);
+            }
+        }
+    }
+
+    /**
+     * 直方图：累计桶、_count、_sum；从未记录的序列不输出
+     */
+    private static void histogram(OpenMetricsWriter w, String name, byte[] labels, LatencyHistogram histogram) {
+        boolean empty = true;
+        for (int i = 0; i < histogram.bucketCount() && empty; i++) {
+            empty = histogram.bucket(i) == 0;
+        }
+        if (empty) {
+            return;
+        }
+        // 只用这一遍读到的值，保证各桶单调且 +Inf 与 _count 相等
+        long running = 0;
+        for (int i = 0; i < histogram.bucketCount(); i++) {
+            running += histogram.bucket(i);
+            w.ascii(name).ascii("_bucket{").bytes(labels).ch(',').bytes(LE_LABELS[i]).ascii("} ")
+                    .number(running).ch('\n');
+        }
+        sample(w, name, "_count", labels).number(running).ch('\n');
+        sample(w, name, "_sum", labels).seconds(histogram.sumNanos()).ch('\n');
+    }
+}
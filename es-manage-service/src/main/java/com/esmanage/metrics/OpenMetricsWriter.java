@@ -0,0 +1,159 @@
+package com.esmanage.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 指标文本缓冲
+ * 抓取之间复用同一个字节数组；名称按 ASCII 逐字符写入，标签预先编码为字节，数值直接按位写入，
+ * 写出过程中不创建字符串
+ */
+final class OpenMetricsWriter {
+
+    private byte[] buffer = new byte[64 * 1024];
+    private int size;
+
+    void reset() {
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+    }
+
+    /**
+     * 写入 ASCII 文本（指标名与固定文本）
+     */
+    OpenMetricsWriter ascii(String text) {
+        ensure(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            buffer[size++] = (byte) text.charAt(i);
+        }
+        return this;
+    }
+
+    OpenMetricsWriter bytes(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+        return this;
+    }
+
+    OpenMetricsWriter ch(char c) {
+        ensure(1);
+        buffer[size++] = (byte) c;
+        return this;
+    }
+
+    OpenMetricsWriter number(long value) {
+        ensure(20);
+        if (value == 0) {
+            buffer[size++] = '0';
+            return this;
+        }
+        if (value == Long.MIN_VALUE) {
+            return ascii("-9223372036854775808");
+        }
+        if (value < 0) {
+            buffer[size++] = '-';
+            value = -value;
+        }
+        int start = size;
+        while (value > 0) {
+            buffer[size++] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        reverse(start, size - 1);
+        return this;
+    }
+
+    /**
+     * 以秒为单位写入纳秒值，保留到纳秒并去掉末尾的 0
+     */
+    OpenMetricsWriter seconds(long nanos) {
+        return decimal(nanos, 9);
+    }
+
+    /**
+     * 写入 0~1 之间的比例，保留 4 位小数
+     */
+    OpenMetricsWriter ratio(double value) {
+        return decimal(Math.round(value * 10_000), 4);
+    }
+
+    /**
+     * 写入定点小数：value / 10^scale
+     */
+    private OpenMetricsWriter decimal(long value, int scale) {
+        if (value < 0) {
+            ch('-');
+            value = -value;
+        }
+        long factor = 1;
+        for (int i = 0; i < scale; i++) {
+            factor *= 10;
+        }
+        number(value / factor);
+        long fraction = value % factor;
+        if (fraction == 0) {
+            return this;
+        }
+        ensure(scale + 1);
+        buffer[size++] = '.';
+        int start = size;
+        for (long digit = factor / 10; digit > 0; digit /= 10) {
+            buffer[size++] = (byte) ('0' + fraction / digit % 10);
+        }
+        while (size > start && buffer[size - 1] == '0') {
+            size--;
+        }
+        return this;
+    }
+
+    private void reverse(int from, int to) {
+        while (from < to) {
+            byte tmp = buffer[from];
+            buffer[from++] = buffer[to];
+            buffer[to--] = tmp;
+        }
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > buffer.length) {
+            byte[] grown = new byte[Math.max(buffer.length * 2, size + extra)];
+            System.arraycopy(buffer, 0, grown, 0, size);
+            buffer = grown;
+        }
+    }
+
+    /**
+     * 预编码标签：name="value",...（不含花括号，便于直方图追加 le），值按 OpenMetrics 规则转义
+     */
+    static byte[] labels(String... pairs) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i + 1 < pairs.length; i += 2) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(pairs[i]).append("=\"");
+            String value = pairs[i + 1] != null ? pairs[i + 1] : "";
+            for (int j = 0; j < value.length(); j++) {
+                char c = value.charAt(j);
+                if (c == '\\' || c == '"') {
+                    sb.append('\\').append(c);
+                } else if (c == '\n') {
+                    sb.append("\\n");
+                } else {
+                    sb.append(c);
+                }
+            }
+            sb.append('"');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,44 @@
+package com.esmanage.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一次请求的端到端链路
+ * 请求处理期间仅由处理线程访问；写入环形缓冲区后只读
+ */
+final class RequestTrace {
+
+    final String method;
+    final String uri;
+    final String thread;
+    final long timestamp;
+    final long startNanos;
+    final RequestTraceEvent event;
+    final List<TraceSpan> spans = new ArrayList<>();
+
+    long id;
+    String endpoint;
+    int status;
+    long responseBytes;
+    long controllerNanos;
+    long serializeNanos;
+    long endNanos;
+    int droppedSpans;
+
+    /** 当前未结束的上游调用，OkHttp 事件监听器据此归属阶段耗时 */
+    TraceSpan openSpan;
+
+    RequestTrace(String method, String uri, long startNanos, RequestTraceEvent event) {
+        this.method = method;
+        this.uri = uri;
+        this.thread = Thread.currentThread().getName();
+        this.timestamp = System.currentTimeMillis();
+        this.startNanos = startNanos;
+        this.event = event;
+    }
+
+    long totalNanos() {
+        return endNanos - startNanos;
+    }
+}
@@ -0,0 +1,44 @@
+package com.esmanage.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR 自定义事件：一次接口请求
+ */
+@Name("com.esmanage.Request")
+@Label("ES Manage Request")
+@Category({"ES Manage", "HTTP"})
+@Description("接口请求的端到端耗时")
+class RequestTraceEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("URI")
+    String uri;
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Status")
+    int status;
+
+    @Label("Upstream Calls")
+    int upstreamCalls;
+
+    @Label("Upstream Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long upstreamNanos;
+
+    @Label("Serialize Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long serializeNanos;
+
+    @Label("Response Bytes")
+    long responseBytes;
+}
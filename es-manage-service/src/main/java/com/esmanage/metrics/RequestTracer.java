@@ -0,0 +1,432 @@
+package com.esmanage.metrics;
+
+import com.esmanage.config.TraceConfig;
+import com.esmanage.dto.RequestTraceDTO;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 请求链路记录器（飞行记录器）
+ * 请求线程通过 ThreadLocal 持有当前链路，依次记录进入控制器、每次上游调用的分阶段耗时与响应序列化；
+ * 请求结束时耗时达到阈值的链路写入固定容量的无锁环形缓冲区（写入方只做一次 getAndIncrement 与一次数组写），
+ * 新链路覆盖最旧的链路。只追踪请求线程上发起的上游调用，提交到线程池执行的调用不计入
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RequestTracer {
+
+    private final TraceConfig traceConfig;
+
+    private final ThreadLocal<RequestTrace> current = new ThreadLocal<>();
+
+    private AtomicReferenceArray<RequestTrace> ring;
+    private int mask;
+
+    /** 写入序号，同时作为链路 ID */
+    private final AtomicLong sequence = new AtomicLong(0);
+    private final LongAdder traced = new LongAdder();
+
+    private final EventListener.Factory eventListenerFactory = call -> {
+        TraceSpan span = currentSpan();
+        return span != null ? new SpanListener(span) : EventListener.NONE;
+    };
+
+    @PostConstruct
+    public void init() {
+        int capacity = Math.max(2, traceConfig.getCapacity());
+        capacity = Integer.highestOneBit(capacity - 1) << 1;
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        log.info("RequestTracer initialized: capacity={}, minDurationMs={}, jfrEvents={}",
+                capacity, traceConfig.getMinDurationMs(), traceConfig.isJfrEvents());
+    }
+
+    /**
+     * 开始记录请求链路
+     *
+     * @return 链路，未开启追踪时为 null
+     */
+    RequestTrace begin(long startNanos, String method, String uri) {
+        if (!traceConfig.isEnabled()) {
+            return null;
+        }
+        RequestTraceEvent event = null;
+        if (traceConfig.isJfrEvents()) {
+            event = new RequestTraceEvent();
+            event.begin();
+        }
+        RequestTrace trace = new RequestTrace(method, uri, startNanos, event);
+        current.set(trace);
+        return trace;
+    }
+
+    /**
+     * 标记进入控制器方法
+     */
+    void controllerEntered() {
+        RequestTrace trace = current.get();
+        if (trace != null && trace.controllerNanos == 0) {
+            trace.controllerNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * 标记开始序列化响应体
+     */
+    void serializeStarted() {
+        RequestTrace trace = current.get();
+        if (trace != null && trace.serializeNanos == 0) {
+            trace.serializeNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * 结束请求链路，耗时达到阈值时写入环形缓冲区
+     *
+     * @param firstWriteNanos 首次写出响应体的时刻，未经消息转换器序列化的响应以此作为序列化开始
+     */
+    void finish(RequestTrace trace, String endpoint, int status, long firstWriteNanos, long responseBytes) {
+        if (trace == null) {
+            return;
+        }
+        current.remove();
+        trace.endNanos = System.nanoTime();
+        trace.endpoint = endpoint;
+        trace.status = status;
+        trace.responseBytes = responseBytes;
+        if (trace.serializeNanos == 0) {
+            trace.serializeNanos = firstWriteNanos;
+        }
+        traced.increment();
+
+        if (trace.event != null) {
+            RequestTraceEvent event = trace.event;
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = trace.method;
+                event.uri = trace.uri;
+                event.endpoint = endpoint;
+                event.status = status;
+                event.upstreamCalls = trace.spans.size() + trace.droppedSpans;
+                event.upstreamNanos = upstreamNanos(trace);
+                event.serializeNanos = trace.serializeNanos > 0 ? trace.endNanos - trace.serializeNanos : 0;
+                event.responseBytes = responseBytes;
+                event.commit();
+            }
+        }
+
+        if (trace.totalNanos() >= traceConfig.getMinDurationMs() * 1_000_000L) {
+            long id = sequence.getAndIncrement();
+            trace.id = id;
+            ring.set((int) (id & mask), trace);
+        }
+    }
+
+    /**
+     * 开始一次上游调用
+     *
+     * @param kind   kibana / elasticsearch
+     * @param path   接口路径（不含查询参数）
+     * @param target 目标实例
+     * @return 调用记录，当前线程没有链路时为 null
+     */
+    public TraceSpan startSpan(String kind, String path, String target) {
+        RequestTrace trace = current.get();
+        if (trace == null) {
+            return null;
+        }
+        if (trace.spans.size() >= traceConfig.getMaxSpans()) {
+            trace.droppedSpans++;
+            return null;
+        }
+        UpstreamCallEvent event = null;
+        if (trace.event != null) {
+            event = new UpstreamCallEvent();
+            event.begin();
+        }
+        TraceSpan span = new TraceSpan(kind, path, target, System.nanoTime(), event);
+        trace.spans.add(span);
+        trace.openSpan = span;
+        return span;
+    }
+
+    /**
+     * 结束一次上游调用
+     *
+     * @param deserializeNanos 反序列化耗时
+     * @param error            调用失败时的异常，成功为 null
+     */
+    public void endSpan(TraceSpan span, int status, long deserializeNanos, Throwable error) {
+        if (span == null) {
+            return;
+        }
+        span.endNanos = System.nanoTime();
+        span.status = status;
+        span.deserializeNanos = deserializeNanos;
+        if (error != null) {
+            span.error = error.getClass().getSimpleName() + ": " + error.getMessage();
+        }
+        RequestTrace trace = current.get();
+        if (trace != null && trace.openSpan == span) {
+            trace.openSpan = null;
+        }
+
+        UpstreamCallEvent event = span.event;
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.kind = span.kind;
+                event.path = span.name;
+                event.target = span.target;
+                event.status = status;
+                event.connectNanos = span.connectNanos + span.tlsNanos;
+                event.waitNanos = span.waitNanos;
+                event.downloadNanos = span.downloadNanos;
+                event.deserializeNanos = deserializeNanos;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * OkHttp 事件监听器工厂，把连接、发送、等待与下载阶段耗时记入当前线程正在进行的上游调用
+     */
+    public EventListener.Factory eventListenerFactory() {
+        return eventListenerFactory;
+    }
+
+    private TraceSpan currentSpan() {
+        RequestTrace trace = current.get();
+        return trace != null ? trace.openSpan : null;
+    }
+
+    /**
+     * 按耗时倒序列出时间窗口内最慢的链路
+     *
+     * @param from     开始时间戳（毫秒），为空不限
+     * @param to       结束时间戳（毫秒），为空不限
+     * @param endpoint 接口路径模板过滤，为空不过滤
+     */
+    public List<RequestTraceDTO> getSlowest(Long from, Long to, int limit, String endpoint) {
+        List<RequestTrace> matched = new ArrayList<>();
+        for (int i = 0; i < ring.length(); i++) {
+            RequestTrace trace = ring.get(i);
+            if (trace == null
+                    || (from != null && trace.timestamp < from)
+                    || (to != null && trace.timestamp > to)
+                    || (endpoint != null && !endpoint.equals(trace.endpoint))) {
+                continue;
+            }
+            matched.add(trace);
+        }
+        matched.sort(Comparator.comparingLong(RequestTrace::totalNanos).reversed());
+        List<RequestTraceDTO> result = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, matched.size()); i++) {
+            result.add(toDTO(matched.get(i), false));
+        }
+        return result;
+    }
+
+    /**
+     * 获取链路详情，已被覆盖时返回 null
+     */
+    public RequestTraceDTO get(long id) {
+        if (id < 0) {
+            return null;
+        }
+        RequestTrace trace = ring.get((int) (id & mask));
+        return trace != null && trace.id == id ? toDTO(trace, true) : null;
+    }
+
+    /**
+     * 记录器统计
+     */
+    public Map<String, Object> getStats() {
+        long written = sequence.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", traceConfig.isEnabled());
+        stats.put("capacity", ring.length());
+        stats.put("minDurationMs", traceConfig.getMinDurationMs());
+        stats.put("traced", traced.sum());
+        stats.put("recorded", written);
+        stats.put("retained", Math.min(written, ring.length()));
+        stats.put("jfrEvents", traceConfig.isJfrEvents());
+        return stats;
+    }
+
+    private static long upstreamNanos(RequestTrace trace) {
+        long total = 0;
+        for (TraceSpan span : trace.spans) {
+            total += span.endNanos - span.startNanos;
+        }
+        return total;
+    }
+
+    private RequestTraceDTO toDTO(RequestTrace trace, boolean withSpans) {
+        RequestTraceDTO dto = new RequestTraceDTO();
+        dto.setId(trace.id);
+        dto.setMethod(trace.method);
+        dto.setUri(trace.uri);
+        dto.setEndpoint(trace.endpoint);
+        dto.setStatus(trace.status);
+        dto.setThread(trace.thread);
+        dto.setTimestamp(trace.timestamp);
+        dto.setTotalMs(millis(trace.totalNanos()));
+        dto.setControllerAtMs(offset(trace, trace.controllerNanos));
+        dto.setSerializeAtMs(offset(trace, trace.serializeNanos));
+        dto.setSerializeMs(trace.serializeNanos > 0 ? millis(trace.endNanos - trace.serializeNanos) : null);
+        dto.setUpstreamMs(millis(upstreamNanos(trace)));
+        dto.setResponseBytes(trace.responseBytes);
+        dto.setDroppedSpans(trace.droppedSpans);
+        if (withSpans) {
+            List<RequestTraceDTO.Span> spans = new ArrayList<>(trace.spans.size());
+            for (TraceSpan span : trace.spans) {
+                RequestTraceDTO.Span spanDTO = new RequestTraceDTO.Span();
+                spanDTO.setKind(span.kind);
+                spanDTO.setPath(span.name);
+                spanDTO.setTarget(span.target);
+                spanDTO.setStatus(span.status);
+                spanDTO.setStartMs(offset(trace, span.startNanos));
+                // 未正常结束（如线程在调用中被中断）的调用按请求结束时间计算
+                spanDTO.setDurationMs(millis((span.endNanos > 0 ? span.endNanos : trace.endNanos) - span.startNanos));
+                spanDTO.setNewConnection(span.newConnection);
+                spanDTO.setDnsMs(millis(span.dnsNanos));
+                spanDTO.setConnectMs(millis(span.connectNanos));
+                spanDTO.setTlsMs(millis(span.tlsNanos));
+                spanDTO.setRequestMs(millis(span.requestNanos));
+                spanDTO.setWaitMs(millis(span.waitNanos));
+                spanDTO.setDownloadMs(millis(span.downloadNanos));
+                spanDTO.setDeserializeMs(millis(span.deserializeNanos));
+                spanDTO.setError(span.error);
+                spans.add(spanDTO);
+            }
+            dto.setSpans(spans);
+        }
+        return dto;
+    }
+
+    private static Double offset(RequestTrace trace, long nanos) {
+        return nanos > 0 ? millis(nanos - trace.startNanos) : null;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+
+    /**
+     * 单次 OkHttp 调用的事件监听器，重试与重定向产生的多次连接、往返累加计入
+     */
+    private static final class SpanListener extends EventListener {
+        private final TraceSpan span;
+        private long dnsStart;
+        private long connectStart;
+        private long secureStart;
+        private long tlsInConnect;
+        private long requestStart;
+        private long requestEnd;
+        private long responseHeadersEnd;
+
+        SpanListener(TraceSpan span) {
+            this.span = span;
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> addresses) {
+            span.dnsNanos += System.nanoTime() - dnsStart;
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress address, Proxy proxy) {
+            connectStart = System.nanoTime();
+            tlsInConnect = 0;
+            span.newConnection = true;
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            secureStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            tlsInConnect = System.nanoTime() - secureStart;
+            span.tlsNanos += tlsInConnect;
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol) {
+            span.connectNanos += System.nanoTime() - connectStart - tlsInConnect;
+        }
+
+        @Override
+        public void connectFailed(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol,
+                IOException e) {
+            span.connectNanos += System.nanoTime() - connectStart - tlsInConnect;
+        }
+
+        @Override
+        public void requestHeadersStart(Call call) {
+            requestStart = System.nanoTime();
+        }
+
+        @Override
+        public void requestHeadersEnd(Call call, Request request) {
+            requestEnd = System.nanoTime();
+        }
+
+        @Override
+        public void requestBodyEnd(Call call, long byteCount) {
+            requestEnd = System.nanoTime();
+        }
+
+        @Override
+        public void responseHeadersStart(Call call) {
+            long now = System.nanoTime();
+            if (requestStart > 0) {
+                span.requestNanos += requestEnd - requestStart;
+                span.waitNanos += now - requestEnd;
+                requestStart = 0;
+            }
+        }
+
+        @Override
+        public void responseHeadersEnd(Call call, Response response) {
+            responseHeadersEnd = System.nanoTime();
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            if (responseHeadersEnd > 0) {
+                span.downloadNanos += System.nanoTime() - responseHeadersEnd;
+                responseHeadersEnd = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.esmanage.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * 记录请求进入控制器方法的时刻，之前的耗时为过滤器链与参数解析之外的分发开销
+ */
+@Component
+@RequiredArgsConstructor
+public class TraceHandlerInterceptor implements HandlerInterceptor {
+
+    private final RequestTracer requestTracer;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        requestTracer.controllerEntered();
+        return true;
+    }
+}
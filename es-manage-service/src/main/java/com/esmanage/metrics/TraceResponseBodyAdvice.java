@@ -0,0 +1,33 @@
+package com.esmanage.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * 在消息转换器写出响应体之前标记序列化开始，控制器返回到请求结束之间即为序列化与写出耗时
+ */
+@ControllerAdvice
+@RequiredArgsConstructor
+public class TraceResponseBodyAdvice implements ResponseBodyAdvice<Object> {
+
+    private final RequestTracer requestTracer;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+            ServerHttpResponse response) {
+        requestTracer.serializeStarted();
+        return body;
+    }
+}
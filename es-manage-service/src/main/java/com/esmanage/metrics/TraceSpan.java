@@ -0,0 +1,34 @@
+package com.esmanage.metrics;
+
+/**
+ * 一次上游调用（Kibana / ES）的分阶段耗时
+ * 由发起请求的线程写入，请求结束后随链路一起发布，发布后不再修改
+ */
+public final class TraceSpan {
+
+    final String kind;
+    final String name;
+    final String target;
+    final long startNanos;
+    final UpstreamCallEvent event;
+
+    long endNanos;
+    long dnsNanos;
+    long connectNanos;
+    long tlsNanos;
+    long requestNanos;
+    long waitNanos;
+    long downloadNanos;
+    long deserializeNanos;
+    boolean newConnection;
+    int status;
+    String error;
+
+    TraceSpan(String kind, String name, String target, long startNanos, UpstreamCallEvent event) {
+        this.kind = kind;
+        this.name = name;
+        this.target = target;
+        this.startNanos = startNanos;
+        this.event = event;
+    }
+}
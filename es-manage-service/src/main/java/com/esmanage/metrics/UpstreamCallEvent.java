@@ -0,0 +1,46 @@
+package com.esmanage.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR 自定义事件：一次 Kibana / ES 上游调用
+ */
+@Name("com.esmanage.UpstreamCall")
+@Label("ES Manage Upstream Call")
+@Category({"ES Manage", "HTTP"})
+@Description("上游调用的分阶段耗时")
+class UpstreamCallEvent extends Event {
+
+    @Label("Kind")
+    String kind;
+
+    @Label("Path")
+    String path;
+
+    @Label("Target")
+    String target;
+
+    @Label("Status")
+    int status;
+
+    @Label("Connect Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long connectNanos;
+
+    @Label("Wait Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long waitNanos;
+
+    @Label("Download Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long downloadNanos;
+
+    @Label("Deserialize Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long deserializeNanos;
+}
@@ -0,0 +1,520 @@
+package com.esmanage.service;
+
+import com.esmanage.client.ElasticsearchClient;
+import com.esmanage.client.JsonStreams;
+import com.esmanage.config.AnalyzeConfig;
+import com.esmanage.dto.AnalyzeBatchDTO;
+import com.esmanage.dto.request.AnalyzeBatchRequest;
+import com.esmanage.metrics.MetricsRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * 批量分析器测试服务
+ * 多条文本 × 多个分析器的 _analyze 调用在固定大小的线程池中并行执行，并发数即线程数；
+ * 分词结果以（索引, 分析器定义哈希, 文本）为键缓存并按最近访问淘汰，调参时反复提交同一语料只需调用变化的分析器；
+ * 索引内自定义分析器的定义不在键中，缓存条目按有效期过期，索引分析设置变更后也可按索引清除。
+ * 结果按文本给出各分析器的词元与两两差异，并汇总为分析器之间的差异矩阵。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AnalyzeService {
+
+    private static final MediaType JSON = MediaType.get("application/json");
+    private static final Pattern INDEX_PATTERN = Pattern.compile("[a-z0-9][a-z0-9._+-]*");
+    private static final int MAX_ERROR_LENGTH = 300;
+
+    private final AnalyzeConfig analyzeConfig;
+    private final ElasticsearchClient elasticsearchClient;
+    private final ObjectMapper objectMapper;
+    private final MetricsRegistry metricsRegistry;
+
+    private ThreadPoolExecutor executor;
+
+    /** 缓存键 -> 词元（按最近访问淘汰），由自身锁保护 */
+    private final Map<String, CachedTokens> cache = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedTokens> eldest) {
+            return size() > analyzeConfig.getCacheEntries();
+        }
+    };
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(analyzeConfig.getMaxConcurrency(), analyzeConfig.getMaxConcurrency(),
+                0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "analyze-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        metricsRegistry.registerExecutor("analyze", executor);
+        metricsRegistry.registerCache("analyze", hitCount::get, missCount::get, () -> {
+            synchronized (cache) {
+                return cache.size();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 批量分析
+     *
+     * @throws IllegalArgumentException 文本或分析器为空、超出上限或定义无效
+     * @throws IllegalStateException    未配置 ES 地址
+     */
+    public AnalyzeBatchDTO analyze(AnalyzeBatchRequest request) throws IOException {
+        long start = System.currentTimeMillis();
+        if (!elasticsearchClient.isConfigured()) {
+            throw new IllegalStateException("elasticsearch.hosts is not configured");
+        }
+        String index = request.getIndex() != null && !request.getIndex().isBlank() ? request.getIndex().trim() : null;
+        if (index != null && !INDEX_PATTERN.matcher(index).matches()) {
+            throw new IllegalArgumentException("Invalid index name: " + index);
+        }
+        List<String> texts = request.getTexts();
+        if (texts == null || texts.isEmpty()) {
+            throw new IllegalArgumentException("texts is required");
+        }
+        if (texts.size() > analyzeConfig.getMaxTexts()) {
+            throw new IllegalArgumentException("At most " + analyzeConfig.getMaxTexts() + " texts per request");
+        }
+        for (String text : texts) {
+            if (text == null) {
+                throw new IllegalArgumentException("texts must not contain null");
+            }
+            if (text.length() > analyzeConfig.getMaxTextChars()) {
+                throw new IllegalArgumentException("Text exceeds " + analyzeConfig.getMaxTextChars() + " characters");
+            }
+        }
+        List<Analyzer> analyzers = resolveAnalyzers(request.getAnalyzers());
+
+        // 查缓存，未命中的（文本, 分析器）去重后提交；同一批次内重复的文本只调用一次
+        int cacheHits = 0;
+        long now = System.currentTimeMillis();
+        TokenMatrix tokens = new TokenMatrix(texts.size(), analyzers.size());
+        String[][] errors = new String[texts.size()][analyzers.size()];
+        Map<String, Future<List<AnalyzeBatchDTO.Token>>> pending = new LinkedHashMap<>();
+        for (int t = 0; t < texts.size(); t++) {
+            for (int a = 0; a < analyzers.size(); a++) {
+                Analyzer analyzer = analyzers.get(a);
+                String text = texts.get(t);
+                String key = cacheKey(index, analyzer.hash, text);
+                CachedTokens cached;
+                synchronized (cache) {
+                    cached = cache.get(key);
+                    if (cached != null && cached.expiresAt <= now) {
+                        cache.remove(key);
+                        cached = null;
+                    }
+                }
+                if (cached != null) {
+                    tokens.set(t, a, cached.tokens);
+                    cacheHits++;
+                } else if (!pending.containsKey(key)) {
+                    pending.put(key, executor.submit(() -> call(index, analyzer, text)));
+                }
+            }
+        }
+        hitCount.addAndGet(cacheHits);
+        missCount.addAndGet(pending.size());
+
+        // 全部调用共享同一截止时间
+        long deadline = start + analyzeConfig.getTimeoutMs();
+        Map<String, String> failures = new HashMap<>();
+        for (Map.Entry<String, Future<List<AnalyzeBatchDTO.Token>>> entry : pending.entrySet()) {
+            Future<List<AnalyzeBatchDTO.Token>> future = entry.getValue();
+            try {
+                List<AnalyzeBatchDTO.Token> result = future.get(
+                        Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                CachedTokens cached = new CachedTokens(result,
+                        System.currentTimeMillis() + analyzeConfig.getCacheTtlMs());
+                synchronized (cache) {
+                    cache.put(entry.getKey(), cached);
+                }
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                failures.put(entry.getKey(), "timeout");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                failures.put(entry.getKey(), truncate(cause.getMessage()));
+            } catch (InterruptedException e) {
+                pending.values().forEach(f -> f.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new IOException("Analyze interrupted", e);
+            }
+        }
+
+        int errorTotal = 0;
+        for (int t = 0; t < texts.size(); t++) {
+            for (int a = 0; a < analyzers.size(); a++) {
+                if (tokens.get(t, a) != null) {
+                    continue;
+                }
+                String key = cacheKey(index, analyzers.get(a).hash, texts.get(t));
+                String failure = failures.get(key);
+                if (failure != null) {
+                    errors[t][a] = failure;
+                    errorTotal++;
+                } else {
+                    // 直接取已完成的调用结果，不受同批次写入缓存时的淘汰影响
+                    tokens.set(t, a, getNow(pending.get(key)));
+                }
+            }
+        }
+        errorCount.addAndGet(errorTotal);
+
+        AnalyzeBatchDTO result = buildResult(index, texts, analyzers, tokens, errors);
+        result.setCacheHits(cacheHits);
+        result.setEsCalls(pending.size());
+        result.setErrors(errorTotal);
+        result.setTookMs(System.currentTimeMillis() - start);
+        log.info("Analyzed {} texts x {} analyzers in {}ms ({} cached, {} calls, {} errors)", texts.size(),
+                analyzers.size(), result.getTookMs(), cacheHits, pending.size(), errorTotal);
+        return result;
+    }
+
+    /**
+     * 缓存统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (cache) {
+            stats.put("cacheSize", cache.size());
+        }
+        stats.put("cacheCapacity", analyzeConfig.getCacheEntries());
+        stats.put("cacheTtlMs", analyzeConfig.getCacheTtlMs());
+        long hits = hitCount.get();
+        long misses = missCount.get();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRate", hits + misses > 0 ? Math.round(hits * 1000.0 / (hits + misses)) / 1000.0 : 0);
+        stats.put("errors", errorCount.get());
+        stats.put("maxConcurrency", analyzeConfig.getMaxConcurrency());
+        return stats;
+    }
+
+    /**
+     * 清除分词结果缓存
+     *
+     * @param index 只清除该索引上的结果，为空时全部清空
+     * @return 清除的条目数
+     */
+    public int clearCache(String index) {
+        synchronized (cache) {
+            int size = cache.size();
+            if (index == null || index.isBlank()) {
+                cache.clear();
+            } else {
+                String prefix = index.trim() + '\u0000';
+                cache.keySet().removeIf(key -> key.startsWith(prefix));
+            }
+            return size - cache.size();
+        }
+    }
+
+    /**
+     * 调用 _analyze，失败时抛出 ES 返回的错误
+     */
+    private List<AnalyzeBatchDTO.Token> call(String index, Analyzer analyzer, String text) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>(analyzer.definition);
+        body.put("text", text);
+        String path = index != null ? "/" + index + "/_analyze" : "/_analyze";
+        Request request = elasticsearchClient.newRequest(path)
+                .post(RequestBody.create(objectMapper.writeValueAsBytes(body), JSON))
+                .build();
+        return elasticsearchClient.execute(request, path, parser -> {
+            List<AnalyzeBatchDTO.Token> tokens = new ArrayList<>();
+            JsonStreams.readObject(parser, (field, p) -> {
+                if (!"tokens".equals(field)) {
+                    return false;
+                }
+                JsonStreams.readArray(p, element -> {
+                    AnalyzeBatchDTO.Token token = new AnalyzeBatchDTO.Token();
+                    JsonStreams.readObject(element, (name, value) -> {
+                        switch (name) {
+                            case "token":
+                                token.setToken(JsonStreams.text(value));
+                                return true;
+                            case "start_offset":
+                                token.setStartOffset((int) JsonStreams.longValue(value));
+                                return true;
+                            case "end_offset":
+                                token.setEndOffset((int) JsonStreams.longValue(value));
+                                return true;
+                            case "type":
+                                token.setType(JsonStreams.text(value));
+                                return true;
+                            case "position":
+                                token.setPosition((int) JsonStreams.longValue(value));
+                                return true;
+                            default:
+                                return false;
+                        }
+                    });
+                    tokens.add(token);
+                });
+                return true;
+            });
+            return Collections.unmodifiableList(tokens);
+        });
+    }
+
+    /**
+     * 解析分析器定义：规范化为 _analyze 请求参数，键排序后计算哈希作为缓存键的一部分
+     */
+    private List<Analyzer> resolveAnalyzers(List<AnalyzeBatchRequest.AnalyzerSpec> specs) throws IOException {
+        if (specs == null || specs.isEmpty()) {
+            throw new IllegalArgumentException("analyzers is required");
+        }
+        if (specs.size() > analyzeConfig.getMaxAnalyzers()) {
+            throw new IllegalArgumentException("At most " + analyzeConfig.getMaxAnalyzers() + " analyzers per request");
+        }
+        List<Analyzer> analyzers = new ArrayList<>(specs.size());
+        Set<String> names = new HashSet<>();
+        int custom = 0;
+        for (AnalyzeBatchRequest.AnalyzerSpec spec : specs) {
+            if (spec == null) {
+                throw new IllegalArgumentException("analyzers must not contain null");
+            }
+            boolean named = spec.getAnalyzer() != null && !spec.getAnalyzer().isBlank();
+            if (named == (spec.getTokenizer() != null)) {
+                throw new IllegalArgumentException("Each analyzer needs exactly one of analyzer or tokenizer");
+            }
+            Map<String, Object> definition = new TreeMap<>();
+            if (named) {
+                if (spec.getFilter() != null || spec.getCharFilter() != null) {
+                    throw new IllegalArgumentException("filter and charFilter require tokenizer: " + spec.getAnalyzer());
+                }
+                definition.put("analyzer", spec.getAnalyzer().trim());
+            } else {
+                definition.put("tokenizer", canonical(spec.getTokenizer()));
+                if (spec.getFilter() != null && !spec.getFilter().isEmpty()) {
+                    definition.put("filter", canonical(spec.getFilter()));
+                }
+                if (spec.getCharFilter() != null && !spec.getCharFilter().isEmpty()) {
+                    definition.put("char_filter", canonical(spec.getCharFilter()));
+                }
+            }
+            String name = spec.getName() != null && !spec.getName().isBlank() ? spec.getName().trim()
+                    : named ? spec.getAnalyzer().trim() : "custom-" + (++custom);
+            if (!names.add(name)) {
+                throw new IllegalArgumentException("Duplicate analyzer name: " + name);
+            }
+            analyzers.add(new Analyzer(name, definition, sha256(objectMapper.writeValueAsBytes(definition))));
+        }
+        return analyzers;
+    }
+
+    /**
+     * 对象的键按字典序排列，使键顺序不同的相同定义得到相同哈希
+     */
+    @SuppressWarnings("unchecked")
+    private static Object canonical(Object value) {
+        if (value instanceof Map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            ((Map<String, Object>) value).forEach((key, item) -> sorted.put(key, canonical(item)));
+            return sorted;
+        }
+        if (value instanceof List) {
+            List<Object> list = new ArrayList<>();
+            for (Object item : (List<Object>) value) {
+                list.add(canonical(item));
+            }
+            return list;
+        }
+        return value;
+    }
+
+    private AnalyzeBatchDTO buildResult(String index, List<String> texts, List<Analyzer> analyzers,
+                                        TokenMatrix tokens, String[][] errors) {
+        AnalyzeBatchDTO result = new AnalyzeBatchDTO();
+        result.setIndex(index);
+        int n = analyzers.size();
+        analyzers.forEach(analyzer -> result.getAnalyzers().add(analyzer.name));
+
+        int[][] compared = new int[n][n];
+        int[][] identical = new int[n][n];
+        double[][] jaccardSum = new double[n][n];
+        int[][] leftOnly = new int[n][n];
+        int[][] rightOnly = new int[n][n];
+
+        for (int t = 0; t < texts.size(); t++) {
+            AnalyzeBatchDTO.TextResult textResult = new AnalyzeBatchDTO.TextResult();
+            textResult.setText(texts.get(t));
+            List<Set<String>> sets = new ArrayList<>(n);
+            for (int a = 0; a < n; a++) {
+                String name = analyzers.get(a).name;
+                if (errors[t][a] != null) {
+                    textResult.getErrors().put(name, errors[t][a]);
+                    sets.add(null);
+                    continue;
+                }
+                textResult.getTokens().put(name, tokens.get(t, a));
+                Set<String> set = new LinkedHashSet<>();
+                tokens.get(t, a).forEach(token -> set.add(token.getToken()));
+                sets.add(set);
+            }
+
+            boolean allSame = textResult.getErrors().isEmpty();
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    Set<String> left = sets.get(i);
+                    Set<String> right = sets.get(j);
+                    if (left == null || right == null) {
+                        continue;
+                    }
+                    compared[i][j]++;
+                    List<String> onlyLeft = difference(left, right);
+                    List<String> onlyRight = difference(right, left);
+                    int common = left.size() - onlyLeft.size();
+                    int union = left.size() + onlyRight.size();
+                    jaccardSum[i][j] += union == 0 ? 1.0 : (double) common / union;
+                    if (onlyLeft.isEmpty() && onlyRight.isEmpty()) {
+                        identical[i][j]++;
+                        continue;
+                    }
+                    allSame = false;
+                    leftOnly[i][j] += onlyLeft.size();
+                    rightOnly[i][j] += onlyRight.size();
+                    AnalyzeBatchDTO.TokenDiff diff = new AnalyzeBatchDTO.TokenDiff();
+                    diff.setLeft(analyzers.get(i).name);
+                    diff.setRight(analyzers.get(j).name);
+                    diff.setLeftOnly(onlyLeft);
+                    diff.setRightOnly(onlyRight);
+                    textResult.getDiffs().add(diff);
+                }
+            }
+            textResult.setIdentical(allSame);
+            result.getResults().add(textResult);
+        }
+
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                AnalyzeBatchDTO.PairSummary pair = new AnalyzeBatchDTO.PairSummary();
+                pair.setLeft(analyzers.get(i).name);
+                pair.setRight(analyzers.get(j).name);
+                pair.setComparedTexts(compared[i][j]);
+                pair.setIdenticalTexts(identical[i][j]);
+                pair.setAvgJaccard(compared[i][j] > 0
+                        ? Math.round(jaccardSum[i][j] / compared[i][j] * 1000) / 1000.0 : 0);
+                pair.setLeftOnlyTokens(leftOnly[i][j]);
+                pair.setRightOnlyTokens(rightOnly[i][j]);
+                result.getMatrix().add(pair);
+            }
+        }
+        return result;
+    }
+
+    private static List<String> difference(Set<String> from, Set<String> other) {
+        List<String> result = new ArrayList<>();
+        for (String token : from) {
+            if (!other.contains(token)) {
+                result.add(token);
+            }
+        }
+        return result;
+    }
+
+    private static String cacheKey(String index, String hash, String text) {
+        return (index != null ? index : "") + '\u0000' + hash + '\u0000' + text;
+    }
+
+    private static List<AnalyzeBatchDTO.Token> getNow(Future<List<AnalyzeBatchDTO.Token>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return "unknown error";
+        }
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 缓存的分词结果与过期时间
+     */
+    private static final class CachedTokens {
+        final List<AnalyzeBatchDTO.Token> tokens;
+        final long expiresAt;
+
+        CachedTokens(List<AnalyzeBatchDTO.Token> tokens, long expiresAt) {
+            this.tokens = tokens;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * 文本 × 分析器的分词结果，按行优先存放在一个列表中
+     */
+    private static final class TokenMatrix {
+        private final int columns;
+        private final List<List<AnalyzeBatchDTO.Token>> cells;
+
+        TokenMatrix(int rows, int columns) {
+            this.columns = columns;
+            this.cells = new ArrayList<>(Collections.nCopies(rows * columns, null));
+        }
+
+        List<AnalyzeBatchDTO.Token> get(int row, int column) {
+            return cells.get(row * columns + column);
+        }
+
+        void set(int row, int column, List<AnalyzeBatchDTO.Token> tokens) {
+            cells.set(row * columns + column, tokens);
+        }
+    }
+
+    /**
+     * 规范化后的分析器
+     */
+    private static final class Analyzer {
+        final String name;
+        final Map<String, Object> definition;
+        final String hash;
+
+        Analyzer(String name, Map<String, Object> definition, String hash) {
+            this.name = name;
+            this.definition = definition;
+            this.hash = hash;
+        }
+    }
+}
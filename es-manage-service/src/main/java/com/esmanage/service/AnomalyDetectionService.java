@@ -0,0 +1,159 @@
+package com.esmanage.service;
+
+import com.esmanage.config.MonitorConfig;
+import com.esmanage.dto.TimeSeriesPointDTO;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * 指标异常检测服务
+ * 集群概览与节点详情的时序数据转换后交给检测器增量更新，并以「指标名_anomaly」追加得分序列；
+ * 告警采样时也按实体输入最新值，得分可作为告警条件。
+ * 序列按「实体类型:实体 ID|来源|指标」区分：分桶时序的来源为桶宽（查询时间范围不同桶宽不同），
+ * 告警采样的来源为 live，不同来源、不同桶宽的样本互不混入同一序列。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AnomalyDetectionService {
+
+    /** 得分序列名后缀 */
+    public static final String SCORE_SUFFIX = "_anomaly";
+
+    /** 告警采样实时样本的来源 */
+    private static final String LIVE_SOURCE = "live";
+
+    private final MonitorConfig monitorConfig;
+
+    private SeriesAnomalyDetector detector;
+    private Set<String> metrics;
+
+    @PostConstruct
+    public void init() {
+        MonitorConfig.Anomaly config = monitorConfig.getAnomaly();
+        detector = new SeriesAnomalyDetector(config.getEwmaAlpha(), config.getHwAlpha(), config.getHwBeta(),
+                config.getHwGamma(), config.getSeasonMs(), config.getSeasonBuckets(), config.getWarmupSamples(),
+                config.getHistorySize(), config.getMaxSeries());
+        metrics = new HashSet<>(config.getMetrics());
+    }
+
+    /**
+     * 为已检测的指标追加得分序列，series 中的原始序列先输入检测器
+     *
+     * @param entity 实体，如 cluster:集群ID、node:节点ID
+     * @param series 指标名到时序数据的映射，会被修改
+     */
+    public void attachScores(String entity, Map<String, List<TimeSeriesPointDTO>> series) {
+        if (!monitorConfig.getAnomaly().isEnabled()) {
+            return;
+        }
+        Map<String, List<TimeSeriesPointDTO>> scores = new HashMap<>();
+        for (Map.Entry<String, List<TimeSeriesPointDTO>> entry : series.entrySet()) {
+            List<TimeSeriesPointDTO> points = entry.getValue();
+            if (!metrics.contains(entry.getKey()) || points == null || points.isEmpty()) {
+                continue;
+            }
+            scores.put(entry.getKey() + SCORE_SUFFIX, process(entity, entry.getKey(), points));
+        }
+        series.putAll(scores);
+    }
+
+    /**
+     * 分桶时序按桶宽归入各自的序列；最后一个桶尚未结束时只是部分数据，不输入检测器；
+     * 与上次查询重叠、早于序列最新样本的桶直接跳过
+     */
+    private synchronized List<TimeSeriesPointDTO> process(String entity, String metric,
+                                                          List<TimeSeriesPointDTO> points) {
+        List<TimeSeriesPointDTO> valid = new ArrayList<>(points.size());
+        for (TimeSeriesPointDTO point : points) {
+            if (point.getTimestamp() != null && point.getValue() != null) {
+                valid.add(point);
+            }
+        }
+        long bucketMs = bucketMs(valid);
+        if (bucketMs <= 0) {
+            return Collections.emptyList();
+        }
+        int end = valid.size();
+        if (valid.get(end - 1).getTimestamp() + bucketMs > System.currentTimeMillis()) {
+            end--;
+        }
+        int id = detector.seriesId(seriesKey(entity, "bucket-" + bucketMs + "ms", metric));
+        if (id < 0 || end == 0) {
+            return Collections.emptyList();
+        }
+        long from = valid.get(0).getTimestamp();
+        long to = valid.get(end - 1).getTimestamp();
+        long last = detector.lastTimestamp(id);
+        for (TimeSeriesPointDTO point : valid.subList(0, end)) {
+            if (point.getTimestamp() > last) {
+                detector.observe(id, point.getTimestamp(), point.getValue());
+            }
+        }
+
+        List<TimeSeriesPointDTO> result = new ArrayList<>();
+        for (double[] score : detector.scores(id, from, to)) {
+            result.add(new TimeSeriesPointDTO((long) score[0], Math.round(score[1] * 100) / 100.0));
+        }
+        return result;
+    }
+
+    /**
+     * 输入单个样本并返回最新得分，未启用、指标未检测或仍在预热期返回 NaN
+     */
+    public synchronized double observe(String entity, String metric, long timestamp, double value) {
+        if (!monitorConfig.getAnomaly().isEnabled() || !metrics.contains(metric)) {
+            return Double.NaN;
+        }
+        int id = detector.seriesId(seriesKey(entity, LIVE_SOURCE, metric));
+        if (id < 0) {
+            return Double.NaN;
+        }
+        detector.observe(id, timestamp, value);
+        return detector.lastScore(id);
+    }
+
+    /**
+     * 实时样本序列的最新得分，序列不存在或仍在预热期返回 NaN
+     */
+    public synchronized double latestScore(String entity, String metric) {
+        return detector.lastScore(detector.findSeries(seriesKey(entity, LIVE_SOURCE, metric)));
+    }
+
+    private static String seriesKey(String entity, String source, String metric) {
+        return entity + "|" + source + "|" + metric;
+    }
+
+    /**
+     * 相邻点的最小间隔作为桶宽，点数不足两个时无法确定返回 0
+     */
+    private static long bucketMs(List<TimeSeriesPointDTO> points) {
+        long bucketMs = Long.MAX_VALUE;
+        for (int i = 1; i < points.size(); i++) {
+            long gap = points.get(i).getTimestamp() - points.get(i - 1).getTimestamp();
+            if (gap > 0) {
+                bucketMs = Math.min(bucketMs, gap);
+            }
+        }
+        return bucketMs != Long.MAX_VALUE ? bucketMs : 0;
+    }
+
+    /**
+     * 获取检测器统计
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", monitorConfig.getAnomaly().isEnabled());
+        stats.put("metrics", metrics);
+        stats.put("series", detector.getSeriesCount());
+        stats.put("maxSeries", monitorConfig.getAnomaly().getMaxSeries());
+        stats.put("evictedSeries", detector.getEvictedCount());
+        stats.put("samples", detector.getSampleCount());
+        stats.put("outOfOrderSamples", detector.getOutOfOrderCount());
+        return stats;
+    }
+}
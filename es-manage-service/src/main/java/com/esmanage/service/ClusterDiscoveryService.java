@@ -0,0 +1,129 @@
+package com.esmanage.service;
+
+import com.esmanage.client.KibanaClient;
+import com.esmanage.config.FleetConfig;
+import com.esmanage.dto.ClusterSummaryDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * 集群发现服务
+ * 通过 Kibana 集群列表接口获取受监控的集群，结果缓存一段时间
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ClusterDiscoveryService {
+
+    private static final String CLUSTERS_PATH = "/api/monitoring/v1/clusters";
+
+    /** 集群 ID（UUID）允许的字符，ID 会拼入 Kibana 接口路径 */
+    private static final Pattern CLUSTER_ID_PATTERN = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private final KibanaClient kibanaClient;
+    private final FleetConfig fleetConfig;
+
+    /** 缓存的集群列表 */
+    private volatile List<ClusterSummaryDTO> cachedClusters = Collections.emptyList();
+
+    /** 集群 UUID -> 名称 */
+    private volatile Map<String, String> clusterNames = Collections.emptyMap();
+
+    /** 缓存过期时间 */
+    private volatile long expiresAt = 0;
+
+    /**
+     * 获取集群列表（带缓存）
+     * 刷新失败时若有旧数据则继续使用旧数据
+     */
+    public List<ClusterSummaryDTO> getClusters() throws IOException {
+        if (System.currentTimeMillis() < expiresAt) {
+            return cachedClusters;
+        }
+        synchronized (this) {
+            if (System.currentTimeMillis() < expiresAt) {
+                return cachedClusters;
+            }
+            try {
+                refresh();
+            } catch (IOException e) {
+                if (cachedClusters.isEmpty()) {
+                    throw e;
+                }
+                log.warn("Failed to refresh cluster list, using cached result: {}", e.getMessage());
+                // 短暂延后再重试，避免每个请求都打到 Kibana
+                expiresAt = System.currentTimeMillis() + Math.min(fleetConfig.getDiscoveryCacheMs(), 30000);
+            }
+            return cachedClusters;
+        }
+    }
+
+    /**
+     * 获取集群 ID 列表
+     */
+    public List<String> getClusterIds() throws IOException {
+        List<String> ids = new ArrayList<>();
+        for (ClusterSummaryDTO cluster : getClusters()) {
+            ids.add(cluster.getClusterUuid());
+        }
+        return ids;
+    }
+
+    /**
+     * 从缓存中查找集群名称（不触发刷新）
+     */
+    public String findClusterName(String clusterId) {
+        return clusterNames.get(clusterId);
+    }
+
+    /**
+     * 解析请求的集群 ID，未指定时使用配置的默认集群
+     *
+     * @throws IllegalArgumentException 集群 ID 含有字母、数字、_、- 以外的字符
+     */
+    public String resolveClusterId(String clusterId) {
+        String resolved = clusterId != null && !clusterId.isEmpty() ? clusterId : kibanaClient.getClusterId();
+        if (resolved == null || !CLUSTER_ID_PATTERN.matcher(resolved).matches()) {
+            throw new IllegalArgumentException("Invalid cluster ID: " + clusterId);
+        }
+        return resolved;
+    }
+
+    private void refresh() throws IOException {
+        Instant now = Instant.now();
+        ClusterSummaryDTO[] clusters = kibanaClient.post(CLUSTERS_PATH, gen -> {
+            gen.writeStartObject();
+            gen.writeObjectFieldStart("timeRange");
+            gen.writeStringField("min", now.minus(1, ChronoUnit.HOURS).toString());
+            gen.writeStringField("max", now.toString());
+            gen.writeEndObject();
+            gen.writeArrayFieldStart("codePaths");
+            gen.writeString("elasticsearch");
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }, ClusterSummaryDTO[].class);
+
+        List<ClusterSummaryDTO> list = new ArrayList<>();
+        Map<String, String> names = new HashMap<>();
+        if (clusters != null) {
+            for (ClusterSummaryDTO cluster : clusters) {
+                if (cluster.getClusterUuid() != null) {
+                    list.add(cluster);
+                    names.put(cluster.getClusterUuid(), cluster.getClusterName());
+                }
+            }
+        }
+
+        cachedClusters = Collections.unmodifiableList(list);
+        clusterNames = names;
+        expiresAt = System.currentTimeMillis() + fleetConfig.getDiscoveryCacheMs();
+        log.info("Discovered {} monitored cluster(s)", list.size());
+    }
+}
@@ -0,0 +1,365 @@
+package com.esmanage.service;
+
+import com.esmanage.client.ElasticsearchClient;
+import com.esmanage.config.DevToolsConfig;
+import com.esmanage.dto.DevToolsQueryDTO;
+import com.esmanage.dto.SlowQueryDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.*;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Okio;
+import okio.Source;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 开发工具控制台代理
+ * 浏览器请求体与 ES 响应体都以 Okio 段为单位直接在 Servlet 流与 ES 连接之间搬运，不整体缓冲、不解析 JSON，
+ * 几十 MB 的查询结果也只占用一个读取块的内存；浏览器接受 gzip 时压缩内容原样透传。
+ * 可选的响应字节上限：响应头声明的长度超限时直接拒绝，分块响应在达到上限时截断；
+ * 写给浏览器失败（浏览器断开）时立即取消 ES 调用，ES 随连接关闭取消对应的搜索任务。
+ * 限制：代理使用阻塞 Servlet I/O，没有断开回调，浏览器断开只能在下一次写出失败时发现；
+ * 等待 ES 响应头期间（长时间运行的搜索或聚合）断开不会被察觉，ES 调用持续到返回或达到 readTimeoutMs，
+ * 需要提前结束时应在 ES 侧按 X-Opaque-Id 取消任务。
+ * 请求体在转发途中复制前若干字节，耗时足够长的查询连同请求体进入慢查询排行榜。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DevToolsProxyService {
+
+    private static final Set<String> METHODS = Set.of("GET", "POST", "PUT", "DELETE", "HEAD");
+    /** 原样转发给浏览器的 ES 响应头 */
+    private static final List<String> RESPONSE_HEADERS = List.of("Content-Type", "Content-Encoding", "Warning");
+    private static final MediaType DEFAULT_CONTENT_TYPE = MediaType.get("application/json");
+
+    private final DevToolsConfig devToolsConfig;
+    private final ElasticsearchClient elasticsearchClient;
+    private final ObjectMapper objectMapper;
+    private final SlowQueryLeaderboard leaderboard;
+
+    /** 与 ES 客户端共享连接池，单独设置读取超时 */
+    private OkHttpClient proxyClient;
+
+    /** 最近的查询记录，由自身锁保护 */
+    private final Deque<DevToolsQueryDTO> history = new ArrayDeque<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong queryCount = new AtomicLong();
+    private final AtomicLong requestBytes = new AtomicLong();
+    private final AtomicLong responseBytes = new AtomicLong();
+    private final AtomicLong totalTookMs = new AtomicLong();
+    private final Map<String, AtomicLong> outcomeCounts = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        this.proxyClient = elasticsearchClient.getHttpClient().newBuilder()
+                .readTimeout(devToolsConfig.getReadTimeoutMs(), TimeUnit.MILLISECONDS)
+                .build();
+        for (String outcome : List.of("completed", "truncated", "rejected", "aborted", "error")) {
+            outcomeCounts.put(outcome, new AtomicLong());
+        }
+    }
+
+    /**
+     * 把浏览器请求转发给 ES 并把响应流式写回
+     *
+     * @param method HTTP 方法，GET 带请求体时按 POST 发送（与 Kibana 控制台一致）
+     * @param path   ES 路径（含查询参数），必须以 / 开头
+     * @throws IllegalArgumentException 方法或路径无效
+     * @throws IllegalStateException    未配置 ES 地址
+     */
+    public void proxy(String method, String path, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        String upperMethod = method != null ? method.toUpperCase(Locale.ROOT) : "";
+        if (!METHODS.contains(upperMethod)) {
+            throw new IllegalArgumentException("Unsupported method: " + method);
+        }
+        if (path == null || !path.startsWith("/") || path.startsWith("//")) {
+            throw new IllegalArgumentException("Path must start with a single /: " + path);
+        }
+        if (request.getContentLengthLong() > devToolsConfig.getMaxRequestBytes()) {
+            throw new IllegalArgumentException("Request body exceeds " + devToolsConfig.getMaxRequestBytes() + " bytes");
+        }
+
+        DevToolsQueryDTO query = new DevToolsQueryDTO();
+        query.setId("devtools-" + sequence.incrementAndGet());
+        query.setMethod(upperMethod);
+        query.setPath(path);
+        query.setTimestamp(System.currentTimeMillis());
+        long start = System.nanoTime();
+
+        StreamingRequestBody body = hasBody(request, upperMethod) ? new StreamingRequestBody(request) : null;
+        String sendMethod = "GET".equals(upperMethod) && body != null ? "POST" : upperMethod;
+        Request.Builder builder;
+        try {
+            builder = elasticsearchClient.newRequest(path).method(sendMethod, body);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid path: " + path, e);
+        }
+        builder.header("X-Opaque-Id", query.getId());
+        // 显式声明 gzip 时 OkHttp 不再自动解压，压缩内容原样透传
+        boolean gzip = acceptsGzip(request);
+        if (gzip) {
+            builder.header("Accept-Encoding", "gzip");
+        }
+
+        Call call = proxyClient.newCall(builder.build());
+        try (Response upstream = call.execute()) {
+            query.setFirstByteMs(elapsedMs(start));
+            query.setStatus(upstream.code());
+            query.setRequestBytes(body != null ? body.written : 0);
+            stream(upstream, call, query, response, gzip);
+        } catch (IOException e) {
+            if (query.getOutcome() == null) {
+                // 尚未收到 ES 响应：连接失败、超时或请求体超限
+                query.setRequestBytes(body != null ? body.written : 0);
+                query.setOutcome("error");
+                query.setError(e.getMessage());
+                log.warn("DevTools proxy {} {} failed: {}", upperMethod, path, e.getMessage());
+                if (!response.isCommitted()) {
+                    writeError(response, HttpServletResponse.SC_BAD_GATEWAY, e.getMessage());
+                }
+            }
+        } finally {
+            query.setTookMs(elapsedMs(start));
+            record(query, body);
+        }
+    }
+
+    /**
+     * 代理统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long count = queryCount.get();
+        stats.put("queries", count);
+        Map<String, Long> outcomes = new LinkedHashMap<>();
+        outcomeCounts.forEach((outcome, counter) -> outcomes.put(outcome, counter.get()));
+        stats.put("outcomes", outcomes);
+        stats.put("requestBytes", requestBytes.get());
+        stats.put("responseBytes", responseBytes.get());
+        stats.put("avgTookMs", count > 0 ? totalTookMs.get() / count : 0);
+        stats.put("maxResponseBytes", devToolsConfig.getMaxResponseBytes());
+        stats.put("chunkBytes", devToolsConfig.getChunkBytes());
+        return stats;
+    }
+
+    /**
+     * 最近的查询记录，新的在前
+     */
+    public List<DevToolsQueryDTO> getHistory() {
+        synchronized (history) {
+            return new ArrayList<>(history);
+        }
+    }
+
+    /**
+     * 按块从 ES 读入 Okio 缓冲并直接写入 Servlet 输出流，段写出后即回收复用
+     */
+    private void stream(Response upstream, Call call, DevToolsQueryDTO query, HttpServletResponse response,
+                        boolean gzip) throws IOException {
+        ResponseBody body = upstream.body();
+        long cap = devToolsConfig.getMaxResponseBytes();
+        long declared = body != null ? body.contentLength() : 0;
+        if (cap > 0 && declared > cap) {
+            call.cancel();
+            query.setResponseBytes(0L);
+            query.setOutcome("rejected");
+            query.setError("Response of " + declared + " bytes exceeds " + cap + " bytes");
+            writeError(response, HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, query.getError());
+            return;
+        }
+
+        response.setStatus(upstream.code());
+        for (String name : RESPONSE_HEADERS) {
+            String value = upstream.header(name);
+            if (value != null && (gzip || !"Content-Encoding".equals(name))) {
+                response.setHeader(name, value);
+            }
+        }
+        response.setHeader("X-Opaque-Id", query.getId());
+        if (cap > 0) {
+            // 分块响应达到上限时截断，浏览器据此判断结果是否完整
+            response.setHeader("X-Proxy-Max-Response-Bytes", String.valueOf(cap));
+        }
+        if (declared >= 0) {
+            response.setContentLengthLong(declared);
+        }
+        if (body == null) {
+            query.setResponseBytes(0L);
+            query.setOutcome("completed");
+            return;
+        }
+
+        BufferedSource source = body.source();
+        OutputStream out = response.getOutputStream();
+        Buffer buffer = new Buffer();
+        long total = 0;
+        String outcome = "completed";
+        try {
+            while (true) {
+                long read;
+                try {
+                    read = source.read(buffer, devToolsConfig.getChunkBytes());
+                } catch (IOException e) {
+                    // 响应头已发出，只能提前结束响应
+                    outcome = "error";
+                    query.setError(e.getMessage());
+                    break;
+                }
+                if (read == -1) {
+                    break;
+                }
+                long allowed = cap > 0 ? Math.min(read, cap - total) : read;
+                try {
+                    buffer.writeTo(out, allowed);
+                    out.flush();
+                } catch (IOException e) {
+                    call.cancel();
+                    outcome = "aborted";
+                    query.setError(e.getMessage());
+                    break;
+                }
+                total += allowed;
+                if (allowed < read) {
+                    call.cancel();
+                    outcome = "truncated";
+                    break;
+                }
+            }
+        } finally {
+            buffer.clear();
+            query.setResponseBytes(total);
+            query.setOutcome(outcome);
+        }
+    }
+
+    private void record(DevToolsQueryDTO query, StreamingRequestBody body) {
+        queryCount.incrementAndGet();
+        requestBytes.addAndGet(nullToZero(query.getRequestBytes()));
+        responseBytes.addAndGet(nullToZero(query.getResponseBytes()));
+        totalTookMs.addAndGet(nullToZero(query.getTookMs()));
+        AtomicLong counter = outcomeCounts.get(query.getOutcome());
+        if (counter != null) {
+            counter.incrementAndGet();
+        }
+        synchronized (history) {
+            history.addFirst(query);
+            while (history.size() > devToolsConfig.getHistorySize()) {
+                history.removeLast();
+            }
+        }
+        if (query.getStatus() != null) {
+            SlowQueryDTO entry = new SlowQueryDTO();
+            entry.setId(query.getId());
+            entry.setSource("proxy");
+            entry.setMethod(query.getMethod());
+            entry.setPath(query.getPath());
+            if (body != null) {
+                entry.setBody(body.captured.readString(StandardCharsets.UTF_8));
+                entry.setBodyTruncated(body.written > devToolsConfig.getCapturedBodyBytes());
+            }
+            entry.setStatus(query.getStatus());
+            entry.setTookMs(query.getTookMs());
+            entry.setResponseBytes(query.getResponseBytes());
+            entry.setTimestamp(query.getTimestamp());
+            leaderboard.offer(entry, null);
+        }
+        log.debug("DevTools {} {} -> {} {} bytes in {}ms ({})", query.getMethod(), query.getPath(),
+                query.getStatus(), query.getResponseBytes(), query.getTookMs(), query.getOutcome());
+    }
+
+    private void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), Map.of("error", message != null ? message : ""));
+    }
+
+    private static boolean hasBody(HttpServletRequest request, String method) {
+        if ("HEAD".equals(method)) {
+            return false;
+        }
+        return request.getContentLengthLong() > 0 || request.getHeader("Transfer-Encoding") != null;
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String accept = request.getHeader("Accept-Encoding");
+        return accept != null && accept.toLowerCase(Locale.ROOT).contains("gzip");
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static long nullToZero(Long value) {
+        return value != null ? value : 0;
+    }
+
+    /**
+     * 从 Servlet 输入流直接读入 OkHttp 的发送缓冲，超过请求体上限时中止
+     */
+    private final class StreamingRequestBody extends RequestBody {
+        private final InputStream in;
+        private final long contentLength;
+        private final MediaType contentType;
+        private long written;
+        /** 请求体前 capturedBodyBytes 字节的副本，供慢查询排行榜展示 */
+        private final Buffer captured = new Buffer();
+
+        StreamingRequestBody(HttpServletRequest request) throws IOException {
+            this.in = request.getInputStream();
+            this.contentLength = request.getContentLengthLong();
+            MediaType parsed = request.getContentType() != null ? MediaType.parse(request.getContentType()) : null;
+            this.contentType = parsed != null ? parsed : DEFAULT_CONTENT_TYPE;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return contentType;
+        }
+
+        @Override
+        public long contentLength() {
+            return contentLength;
+        }
+
+        @Override
+        public boolean isOneShot() {
+            return true;
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            Source source = Okio.source(in);
+            long limit = devToolsConfig.getMaxRequestBytes();
+            long read;
+            while ((read = source.read(sink.getBuffer(), devToolsConfig.getChunkBytes())) != -1) {
+                long capture = Math.min(read, devToolsConfig.getCapturedBodyBytes() - captured.size());
+                if (capture > 0) {
+                    sink.getBuffer().copyTo(captured, sink.getBuffer().size() - read, capture);
+                }
+                written += read;
+                if (written > limit) {
+                    throw new IOException("Request body exceeds " + limit + " bytes");
+                }
+                sink.emitCompleteSegments();
+            }
+        }
+    }
+}
@@ -1,197 +1,271 @@
 package com.esmanage.service;
 
-import com.esmanage.client.KibanaClient;
+import com.esmanage.config.MonitorConfig;
 import com.esmanage.dto.*;
+import com.esmanage.dto.request.FieldSelection;
 import com.esmanage.dto.request.IndicesRequest;
 import com.esmanage.dto.request.NodesRequest;
 import com.esmanage.dto.request.TimeRangeRequest;
+import com.esmanage.service.datasource.MonitoringDataSource;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Elasticsearch 监控服务
- * 封装对 Kibana Monitoring API 的调用
+ * 通过可插拔的数据源（Kibana Monitoring API / 直连 ES）获取监控数据并转换
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ElasticsearchMonitorService {
 
-    private final KibanaClient kibanaClient;
+    /** 时序段名 */
+    public static final String TIME_SERIES = "timeSeries";
+
+    /** 概览可选择的段 */
+    public static final Set<String> OVERVIEW_FIELDS = Set.of(
+            "cluster", "nodes", "indices", "shards", "jvm", "os", "fs", TIME_SERIES);
+
+    /** 概览时序段可选择的集群指标 */
+    public static final Map<String, Set<String>> OVERVIEW_CHILDREN =
+            Map.of(TIME_SERIES, MetricCatalog.aliases(MetricCatalog.Scope.CLUSTER));
+
+    /** 时序接口的 fields 只能选择指标 */
+    public static final Set<String> TIME_SERIES_FIELDS = Set.of(TIME_SERIES);
+
+    /** 上游响应中概览 / 时序接口不使用的段 */
+    private static final Set<String> OVERVIEW_UNUSED_SECTIONS = Set.of("logs", "shardActivity");
+    private static final Set<String> NODE_DETAIL_UNUSED_SECTIONS = Set.of("nodeSummary");
+    private static final Set<String> INDEX_DETAIL_UNUSED_SECTIONS = Set.of("indexSummary", "shards");
+
+    private final ClusterDiscoveryService clusterDiscoveryService;
+    private final MonitorConfig monitorConfig;
+    private final List<MonitoringDataSource> dataSources;
+    private final AnomalyDetectionService anomalyDetectionService;
+    private final ForecastService forecastService;
+
+    /** 当前使用的数据源 */
+    private MonitoringDataSource dataSource;
+
+    @PostConstruct
+    public void init() {
+        dataSource = dataSources.stream()
+                .filter(source -> source.getName().equalsIgnoreCase(monitorConfig.getDataSource()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException(
+                        "Unknown monitor.data-source: " + monitorConfig.getDataSource()));
+        log.info("Monitoring data source: {}", dataSource.getName());
+    }
 
     /**
      * 获取集群概览数据
      *
+     * @param clusterId 集群 ID，为空时使用默认集群
      * @param timeRange 时间范围
      * @return 集群概览
      */
-    public ClusterOverviewDTO getClusterOverview(TimeRangeRequest timeRange) throws IOException {
-        String path = String.format("/api/monitoring/v1/clusters/%s/elasticsearch",
-                kibanaClient.getClusterId());
-
-        Map<String, Object> body = new HashMap<>();
-        body.put("timeRange", buildTimeRange(timeRange));
-
-        return kibanaClient.post(path, body, ClusterOverviewDTO.class);
+    public ClusterOverviewDTO getClusterOverview(String clusterId, TimeRangeRequest timeRange) throws IOException {
+        return dataSource.getClusterOverview(clusterId, timeRange);
     }
 
     /**
      * 获取节点列表
      *
-     * @param request 请求参数
+     * @param clusterId 集群 ID，为空时使用默认集群
+     * @param request   请求参数
      * @return 节点列表响应
      */
-    public NodesResponseDTO getNodes(NodesRequest request) throws IOException {
-        String path = String.format("/api/monitoring/v1/clusters/%s/elasticsearch/nodes",
-                kibanaClient.getClusterId());
-
-        Map<String, Object> body = new HashMap<>();
-        body.put("timeRange", buildTimeRange(request.getTimeRange()));
-        body.put("pagination", buildPagination(request.getPagination()));
-
-        return kibanaClient.post(path, body, NodesResponseDTO.class);
+    public NodesResponseDTO getNodes(String clusterId, NodesRequest request) throws IOException {
+        NodesResponseDTO response = dataSource.getNodes(clusterId, request);
+        forecastService.observeNodes(clusterId, response.getNodes());
+        return response;
     }
 
     /**
      * 获取节点详情
      *
+     * @param clusterId 集群 ID，为空时使用默认集群
      * @param nodeId    节点 ID
      * @param timeRange 时间范围
-     * @return 节点详情
+     * @return 节点详情，节点不存在时返回 null
      */
-    public NodeDetailDTO getNodeDetail(String nodeId, TimeRangeRequest timeRange) throws IOException {
-        String path = String.format("/api/monitoring/v1/clusters/%s/elasticsearch/nodes/%s",
-                kibanaClient.getClusterId(), nodeId);
-
-        Map<String, Object> body = new HashMap<>();
-        body.put("timeRange", buildTimeRange(timeRange));
-        body.put("is_advanced", false);
-
-        return kibanaClient.post(path, body, NodeDetailDTO.class);
+    public NodeDetailDTO getNodeDetail(String clusterId, String nodeId, TimeRangeRequest timeRange)
+            throws IOException {
+        return dataSource.getNodeDetail(clusterId, nodeId, timeRange);
     }
 
     /**
      * 获取索引列表
      *
-     * @param request 请求参数
+     * @param clusterId 集群 ID，为空时使用默认集群
+     * @param request   请求参数
      * @return 索引列表响应
      */
-    public IndicesResponseDTO getIndices(IndicesRequest request) throws IOException {
-        String path = String.format("/api/monitoring/v1/clusters/%s/elasticsearch/indices?show_system_indices=%s",
-                kibanaClient.getClusterId(),
-                request.getShowSystemIndices() != null && request.getShowSystemIndices() ? "true" : "false");
-
-        Map<String, Object> body = new HashMap<>();
-        body.put("timeRange", buildTimeRange(request.getTimeRange()));
-        body.put("pagination", buildPagination(request.getPagination()));
-        body.put("queryText", request.getQueryText() != null ? request.getQueryText() : "");
-
-        return kibanaClient.post(path, body, IndicesResponseDTO.class);
+    public IndicesResponseDTO getIndices(String clusterId, IndicesRequest request) throws IOException {
+        return dataSource.getIndices(clusterId, request);
     }
 
     /**
-     * 构建时间范围参数
+     * 获取监控概览数据（转换后的格式）
+     *
+     * @param clusterId 集群 ID，为空时使用默认集群
+     * @param timeRange 时间范围
+     * @return 监控概览
      */
-    private Map<String, String> buildTimeRange(TimeRangeRequest timeRange) {
-        Map<String, String> range = new HashMap<>();
-
-        if (timeRange != null && timeRange.getMin() != null && timeRange.getMax() != null) {
-            range.put("min", timeRange.getMin());
-            range.put("max", timeRange.getMax());
-        } else {
-            // 默认最近1小时
-            Instant now = Instant.now();
-            range.put("min", now.minus(1, ChronoUnit.HOURS).toString());
-            range.put("max", now.toString());
-        }
-
-        return range;
+    public MonitoringOverviewDTO getMonitoringOverview(String clusterId, TimeRangeRequest timeRange)
+            throws IOException {
+        return getMonitoringOverview(clusterId, timeRange, FieldSelection.ALL);
     }
 
     /**
-     * 构建分页参数
+     * 获取监控概览数据（转换后的格式），只返回选中的段
+     * 使用并行调用优化性能；未选中段所依赖的上游请求不发出，
+     * 上游响应中概览不使用的段（日志、分片活动）和未选中的指标在解析时跳过
+     *
+     * @param clusterId 集群 ID，为空时使用默认集群
+     * @param timeRange 时间范围
+     * @param fields    字段选择，段名见 {@link #OVERVIEW_FIELDS}，时序子项见 {@link #OVERVIEW_CHILDREN}
+     * @return 监控概览
      */
-    private Map<String, Integer> buildPagination(NodesRequest.PaginationRequest pagination) {
-        Map<String, Integer> page = new HashMap<>();
-
-        if (pagination != null) {
-            page.put("index", pagination.getIndex() != null ? pagination.getIndex() : 0);
-            page.put("size", pagination.getSize() != null ? pagination.getSize() : 20);
-        } else {
-            page.put("index", 0);
-            page.put("size", 20);
+    public MonitoringOverviewDTO getMonitoringOverview(String clusterId, TimeRangeRequest timeRange,
+            FieldSelection fields) throws IOException {
+        try {
+            return getMonitoringOverviewAsync(clusterId, timeRange, fields, ForkJoinPool.commonPool()).get();
+        } catch (ExecutionException e) {
+            // 未知集群等参数错误原样抛出
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException("Failed to fetch monitoring data", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Failed to fetch monitoring data", e);
         }
-
-        return page;
     }
 
     /**
-     * 获取监控概览数据（转换后的格式）
-     * 使用并行调用优化性能
+     * 异步获取监控概览，集群概览与节点列表两个上游请求在指定线程池中并行执行
+     * 返回的 Future 被取消时，尚未开始执行的上游请求不再发出
      *
+     * @param clusterId 集群 ID，为空时使用默认集群
      * @param timeRange 时间范围
+     * @param fields    字段选择，段名见 {@link #OVERVIEW_FIELDS}，时序子项见 {@link #OVERVIEW_CHILDREN}
+     * @param executor  执行上游请求的线程池
      * @return 监控概览
      */
-    public MonitoringOverviewDTO getMonitoringOverview(TimeRangeRequest timeRange) throws IOException {
+    public CompletableFuture<MonitoringOverviewDTO> getMonitoringOverviewAsync(String clusterId,
+            TimeRangeRequest timeRange, FieldSelection fields, Executor executor) {
+        String resolvedClusterId;
+        try {
+            resolvedClusterId = clusterDiscoveryService.resolveClusterId(clusterId);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        // 集群概览提供集群状态与集群时序；节点列表只用于节点角色统计、CPU 与磁盘
+        boolean needCluster = fields.includes("cluster") || fields.includes("nodes") || fields.includes("indices")
+                || fields.includes("shards") || fields.includes("jvm") || fields.includes("os")
+                || fields.includes(TIME_SERIES);
+        boolean needNodes = fields.includes("nodes") || fields.includes("os") || fields.includes("fs");
+
         // 并行获取集群概览和节点数据
-        CompletableFuture<ClusterOverviewDTO> clusterFuture = CompletableFuture.supplyAsync(() -> {
-            try {
-                return getClusterOverview(timeRange);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-        });
+        ResponseProjection projection = overviewProjection(fields);
+        CompletableFuture<ClusterOverviewDTO> clusterFuture = !needCluster
+                ? CompletableFuture.completedFuture(null)
+                : callAsync(() -> dataSource.getClusterOverview(resolvedClusterId, timeRange, projection), executor);
 
         NodesRequest nodesRequest = new NodesRequest();
         nodesRequest.setTimeRange(timeRange);
-        CompletableFuture<NodesResponseDTO> nodesFuture = CompletableFuture.supplyAsync(() -> {
-            try {
-                return getNodes(nodesRequest);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
+        CompletableFuture<NodesResponseDTO> nodesFuture = !needNodes
+                ? CompletableFuture.completedFuture(null)
+                : callAsync(() -> getNodes(resolvedClusterId, nodesRequest), executor);
+
+        CompletableFuture<MonitoringOverviewDTO> overview = clusterFuture.thenCombine(nodesFuture,
+                (clusterOverview, nodesResponse) -> buildOverview(resolvedClusterId, fields, clusterOverview,
+                        nodesResponse));
+        overview.whenComplete((result, error) -> {
+            if (error instanceof CancellationException) {
+                clusterFuture.cancel(false);
+                nodesFuture.cancel(false);
             }
         });
+        return overview;
+    }
 
-        ClusterOverviewDTO clusterOverview;
-        NodesResponseDTO nodesResponse;
+    /**
+     * 在线程池中执行一次上游请求；Future 在开始执行前已完成（被取消）时跳过
+     */
+    private <T> CompletableFuture<T> callAsync(UpstreamCall<T> call, Executor executor) {
+        CompletableFuture<T> future = new CompletableFuture<>();
         try {
-            clusterOverview = clusterFuture.get();
-            nodesResponse = nodesFuture.get();
-        } catch (InterruptedException | ExecutionException e) {
-            throw new IOException("Failed to fetch monitoring data", e);
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    future.complete(call.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
         }
+        return future;
+    }
+
+    /**
+     * 上游请求
+     */
+    @FunctionalInterface
+    private interface UpstreamCall<T> {
+        T call() throws IOException;
+    }
+
+    private MonitoringOverviewDTO buildOverview(String resolvedClusterId, FieldSelection fields,
+            ClusterOverviewDTO clusterOverview, NodesResponseDTO nodesResponse) {
+        List<NodeInfoDTO> nodes = nodesResponse != null && nodesResponse.getNodes() != null
+                ? nodesResponse.getNodes()
+                : Collections.emptyList();
 
         MonitoringOverviewDTO overview = new MonitoringOverviewDTO();
+        ClusterStatusDTO status = clusterOverview != null ? clusterOverview.getClusterStatus() : null;
 
         // 集群信息
-        ClusterStatusDTO status = clusterOverview.getClusterStatus();
-        MonitoringOverviewDTO.ClusterInfo clusterInfo = new MonitoringOverviewDTO.ClusterInfo();
-        clusterInfo.setName("elasticsearch"); // Kibana API 不返回集群名称，使用默认值
-        clusterInfo.setUuid(kibanaClient.getClusterId());
-        clusterInfo.setStatus(status.getStatus());
-        clusterInfo.setVersion(status.getVersion() != null && !status.getVersion().isEmpty()
-                ? status.getVersion().get(0)
-                : "unknown");
-        clusterInfo.setUpTime(status.getUpTime());
-        overview.setCluster(clusterInfo);
+        if (fields.includes("cluster")) {
+            MonitoringOverviewDTO.ClusterInfo clusterInfo = new MonitoringOverviewDTO.ClusterInfo();
+            // 集群概览接口不返回集群名称，从集群列表缓存中查找，找不到使用默认值
+            String clusterName = clusterDiscoveryService.findClusterName(resolvedClusterId);
+            clusterInfo.setName(clusterName != null ? clusterName : "elasticsearch");
+            clusterInfo.setUuid(resolvedClusterId);
+            clusterInfo.setStatus(status.getStatus());
+            clusterInfo.setVersion(status.getVersion() != null && !status.getVersion().isEmpty()
+                    ? status.getVersion().get(0)
+                    : "unknown");
+            clusterInfo.setUpTime(status.getUpTime());
+            overview.setCluster(clusterInfo);
+        }
 
         // 节点信息
-        MonitoringOverviewDTO.NodesInfo nodesInfo = new MonitoringOverviewDTO.NodesInfo();
-        nodesInfo.setTotal(status.getNodesCount());
-        nodesInfo.setSuccessful(status.getNodesCount());
-        // 统计数据节点和主节点
-        int dataNodes = 0;
-        int masterNodes = 0;
-        if (nodesResponse.getNodes() != null) {
-            for (NodeInfoDTO node : nodesResponse.getNodes()) {
+        if (fields.includes("nodes")) {
+            MonitoringOverviewDTO.NodesInfo nodesInfo = new MonitoringOverviewDTO.NodesInfo();
+            nodesInfo.setTotal(status.getNodesCount());
+            nodesInfo.setSuccessful(status.getNodesCount());
+            // 统计数据节点和主节点
+            int dataNodes = 0;
+            int masterNodes = 0;
+            for (NodeInfoDTO node : nodes) {
                 if (node.getRoles() != null) {
                     if (node.getRoles().contains("data"))
                         dataNodes++;
@@ -199,44 +273,49 @@ public class ElasticsearchMonitorService {
                         masterNodes++;
                 }
             }
+            nodesInfo.setData(dataNodes);
+            nodesInfo.setMaster(masterNodes);
+            overview.setNodes(nodesInfo);
         }
-        nodesInfo.setData(dataNodes);
-        nodesInfo.setMaster(masterNodes);
-        overview.setNodes(nodesInfo);
 
         // 索引信息
-        MonitoringOverviewDTO.IndicesInfo indicesInfo = new MonitoringOverviewDTO.IndicesInfo();
-        indicesInfo.setTotal(status.getIndicesCount());
-        indicesInfo.setDocs(status.getDocumentCount());
-        indicesInfo.setStoreSizeBytes(status.getDataSize());
-        overview.setIndices(indicesInfo);
+        if (fields.includes("indices")) {
+            MonitoringOverviewDTO.IndicesInfo indicesInfo = new MonitoringOverviewDTO.IndicesInfo();
+            indicesInfo.setTotal(status.getIndicesCount());
+            indicesInfo.setDocs(status.getDocumentCount());
+            indicesInfo.setStoreSizeBytes(status.getDataSize());
+            overview.setIndices(indicesInfo);
+        }
 
         // 分片信息
-        MonitoringOverviewDTO.ShardsInfo shardsInfo = new MonitoringOverviewDTO.ShardsInfo();
-        shardsInfo.setTotal(status.getTotalShards());
-        shardsInfo.setPrimaries(status.getTotalShards() / 2); // 估算
-        shardsInfo.setUnassigned(status.getUnassignedShards());
-        shardsInfo.setRelocating(0);
-        shardsInfo.setInitializing(0);
-        overview.setShards(shardsInfo);
+        if (fields.includes("shards")) {
+            MonitoringOverviewDTO.ShardsInfo shardsInfo = new MonitoringOverviewDTO.ShardsInfo();
+            shardsInfo.setTotal(status.getTotalShards());
+            shardsInfo.setPrimaries(status.getTotalShards() / 2); // 估算
+            shardsInfo.setUnassigned(status.getUnassignedShards());
+            shardsInfo.setRelocating(0);
+            shardsInfo.setInitializing(0);
+            overview.setShards(shardsInfo);
+        }
 
         // JVM 信息
-        MonitoringOverviewDTO.JvmInfo jvmInfo = new MonitoringOverviewDTO.JvmInfo();
-        if (status.getMemMax() != null && status.getMemMax() > 0) {
-            jvmInfo.setHeapUsedPercent((int) (status.getMemUsed() * 100 / status.getMemMax()));
-        } else {
-            jvmInfo.setHeapUsedPercent(0);
+        int heapUsedPercent = status != null && status.getMemMax() != null && status.getMemMax() > 0
+                ? (int) (status.getMemUsed() * 100 / status.getMemMax())
+                : 0;
+        if (fields.includes("jvm")) {
+            MonitoringOverviewDTO.JvmInfo jvmInfo = new MonitoringOverviewDTO.JvmInfo();
+            jvmInfo.setHeapUsedPercent(heapUsedPercent);
+            jvmInfo.setHeapUsedBytes(status.getMemUsed());
+            jvmInfo.setHeapMaxBytes(status.getMemMax());
+            overview.setJvm(jvmInfo);
         }
-        jvmInfo.setHeapUsedBytes(status.getMemUsed());
-        jvmInfo.setHeapMaxBytes(status.getMemMax());
-        overview.setJvm(jvmInfo);
 
         // OS 信息 - 从节点数据计算平均值
-        MonitoringOverviewDTO.OsInfo osInfo = new MonitoringOverviewDTO.OsInfo();
-        int totalCpu = 0;
-        int nodeCount = 0;
-        if (nodesResponse.getNodes() != null) {
-            for (NodeInfoDTO node : nodesResponse.getNodes()) {
+        if (fields.includes("os")) {
+            MonitoringOverviewDTO.OsInfo osInfo = new MonitoringOverviewDTO.OsInfo();
+            int totalCpu = 0;
+            int nodeCount = 0;
+            for (NodeInfoDTO node : nodes) {
                 if (node.getNodeCpuUtilization() != null &&
                         node.getNodeCpuUtilization().getSummary() != null) {
                     Double lastVal = node.getNodeCpuUtilization().getSummary().getLastVal();
@@ -246,17 +325,17 @@ public class ElasticsearchMonitorService {
                     }
                 }
             }
+            osInfo.setCpuPercent(nodeCount > 0 ? totalCpu / nodeCount : 0);
+            osInfo.setMemUsedPercent(heapUsedPercent); // 使用 JVM 内存作为近似值
+            overview.setOs(osInfo);
         }
-        osInfo.setCpuPercent(nodeCount > 0 ? totalCpu / nodeCount : 0);
-        osInfo.setMemUsedPercent(jvmInfo.getHeapUsedPercent()); // 使用 JVM 内存作为近似值
-        overview.setOs(osInfo);
 
         // 文件系统信息 - 从节点数据计算
-        MonitoringOverviewDTO.FsInfo fsInfo = new MonitoringOverviewDTO.FsInfo();
-        long totalSpace = 0;
-        long freeSpace = 0;
-        if (nodesResponse.getNodes() != null) {
-            for (NodeInfoDTO node : nodesResponse.getNodes()) {
+        if (fields.includes("fs")) {
+            MonitoringOverviewDTO.FsInfo fsInfo = new MonitoringOverviewDTO.FsInfo();
+            long totalSpace = 0;
+            long freeSpace = 0;
+            for (NodeInfoDTO node : nodes) {
                 if (node.getNodeFreeSpace() != null &&
                         node.getNodeFreeSpace().getSummary() != null) {
                     Double lastVal = node.getNodeFreeSpace().getSummary().getLastVal();
@@ -267,67 +346,114 @@ public class ElasticsearchMonitorService {
                     }
                 }
             }
+            fsInfo.setTotalBytes(totalSpace);
+            fsInfo.setAvailableBytes(freeSpace);
+            fsInfo.setUsedPercent(totalSpace > 0 ? (int) ((totalSpace - freeSpace) * 100 / totalSpace) : 0);
+            overview.setFs(fsInfo);
         }
-        fsInfo.setTotalBytes(totalSpace);
-        fsInfo.setAvailableBytes(freeSpace);
-        fsInfo.setUsedPercent(totalSpace > 0 ? (int) ((totalSpace - freeSpace) * 100 / totalSpace) : 0);
-        overview.setFs(fsInfo);
-
-        // 时序数据转换
-        Map<String, List<TimeSeriesPointDTO>> timeSeries = new HashMap<>();
-        if (clusterOverview.getMetrics() != null) {
-            ClusterOverviewDTO.MetricsDTO metrics = clusterOverview.getMetrics();
 
-            // 搜索速率
-            if (metrics.getCluster_search_request_rate() != null
-                    && !metrics.getCluster_search_request_rate().isEmpty()) {
-                timeSeries.put("search_rate", convertTimeSeries(metrics.getCluster_search_request_rate().get(0)));
+        // 时序数据转换（未选中的指标在解析时已跳过，对应字段为空）
+        if (fields.includes(TIME_SERIES)) {
+            Map<String, List<TimeSeriesPointDTO>> timeSeries = new HashMap<>();
+            ClusterOverviewDTO.MetricsDTO metrics = clusterOverview.getMetrics();
+            if (metrics != null) {
+                // 搜索速率
+                putFirstSeries(timeSeries, MetricCatalog.CLUSTER_SEARCH_RATE, metrics.getCluster_search_request_rate());
+                // 索引速率
+                putFirstSeries(timeSeries, MetricCatalog.CLUSTER_INDEX_RATE, metrics.getCluster_index_request_rate());
+                // 查询延迟
+                putFirstSeries(timeSeries, MetricCatalog.CLUSTER_QUERY_LATENCY, metrics.getCluster_query_latency());
+                // 索引延迟
+                putFirstSeries(timeSeries, MetricCatalog.CLUSTER_INDEX_LATENCY, metrics.getCluster_index_latency());
             }
+            anomalyDetectionService.attachScores("cluster:" + resolvedClusterId, timeSeries);
+            overview.setTimeSeries(timeSeries);
+        }
 
-            // 索引速率
-            if (metrics.getCluster_index_request_rate() != null && !metrics.getCluster_index_request_rate().isEmpty()) {
-                timeSeries.put("indexing_rate", convertTimeSeries(metrics.getCluster_index_request_rate().get(0)));
-            }
+        return overview;
+    }
 
-            // 查询延迟
-            if (metrics.getCluster_query_latency() != null && !metrics.getCluster_query_latency().isEmpty()) {
-                timeSeries.put("query_latency", convertTimeSeries(metrics.getCluster_query_latency().get(0)));
-            }
+    /**
+     * 概览的上游响应投影：日志与分片活动始终跳过，时序按选择保留
+     */
+    private ResponseProjection overviewProjection(FieldSelection fields) {
+        Set<String> skipped = new HashSet<>(OVERVIEW_UNUSED_SECTIONS);
+        if (!fields.includes(TIME_SERIES)) {
+            skipped.add("metrics");
+            return ResponseProjection.of(skipped, null);
+        }
+        return ResponseProjection.of(skipped, metricFilter(fields, MetricCatalog.Scope.CLUSTER));
+    }
 
-            // 索引延迟
-            if (metrics.getCluster_index_latency() != null && !metrics.getCluster_index_latency().isEmpty()) {
-                timeSeries.put("index_latency", convertTimeSeries(metrics.getCluster_index_latency().get(0)));
+    /**
+     * 按前端别名选择某一实体的指标，返回按目录 ID 下标的标记；该实体的指标全部选中时返回 null
+     */
+    private static boolean[] metricFilter(FieldSelection fields, MetricCatalog.Scope scope) {
+        if (fields.isAll()) {
+            return null;
+        }
+        boolean[] selected = new boolean[MetricCatalog.size()];
+        boolean all = true;
+        for (int id = 0; id < selected.length; id++) {
+            MetricCatalog.MetricDefinition definition = MetricCatalog.get(id);
+            if (definition.getScope() == scope) {
+                selected[id] = fields.includes(TIME_SERIES, definition.getAlias());
+                all &= selected[id];
             }
         }
-        overview.setTimeSeries(timeSeries);
+        return all ? null : selected;
+    }
 
-        return overview;
+    /**
+     * 时序接口的上游响应投影：跳过摘要与分片，只保留选中的指标
+     */
+    private static ResponseProjection timeSeriesProjection(FieldSelection fields, MetricCatalog.Scope scope,
+            Set<String> unusedSections) {
+        return ResponseProjection.of(unusedSections, metricFilter(fields, scope));
+    }
+
+    private void putFirstSeries(Map<String, List<TimeSeriesPointDTO>> timeSeries, int metricId,
+            List<TimeSeriesDataDTO> dataList) {
+        if (dataList != null && !dataList.isEmpty()) {
+            timeSeries.put(MetricCatalog.alias(metricId), convertTimeSeries(dataList.get(0)));
+        }
     }
 
     /**
      * 获取节点详情时序数据（转换后的格式）
      *
+     * @param clusterId 集群 ID，为空时使用默认集群
      * @param nodeId    节点 ID
      * @param timeRange 时间范围
-     * @return 时序数据 Map
+     * @return 时序数据 Map，节点不存在时返回 null
      */
-    public Map<String, List<TimeSeriesPointDTO>> getNodeTimeSeries(String nodeId, TimeRangeRequest timeRange)
-            throws IOException {
-        NodeDetailDTO detail = getNodeDetail(nodeId, timeRange);
+    public Map<String, List<TimeSeriesPointDTO>> getNodeTimeSeries(String clusterId, String nodeId,
+            TimeRangeRequest timeRange) throws IOException {
+        return getNodeTimeSeries(clusterId, nodeId, timeRange, FieldSelection.ALL);
+    }
+
+    /**
+     * 获取节点详情时序数据，只返回选中的指标
+     *
+     * @param clusterId 集群 ID，为空时使用默认集群
+     * @param nodeId    节点 ID
+     * @param timeRange 时间范围
+     * @param fields    按前端别名选择的指标
+     * @return 时序数据 Map，节点不存在时返回 null
+     */
+    public Map<String, List<TimeSeriesPointDTO>> getNodeTimeSeries(String clusterId, String nodeId,
+            TimeRangeRequest timeRange, FieldSelection fields) throws IOException {
+        NodeDetailDTO detail = dataSource.getNodeDetail(clusterId, nodeId, timeRange,
+                timeSeriesProjection(fields, MetricCatalog.Scope.NODE, NODE_DETAIL_UNUSED_SECTIONS));
+        if (detail == null) {
+            return null;
+        }
         Map<String, List<TimeSeriesPointDTO>> result = new HashMap<>();
 
         if (detail.getMetrics() != null) {
-            for (Map.Entry<String, List<TimeSeriesDataDTO>> entry : detail.getMetrics().entrySet()) {
-                String metricName = entry.getKey();
-                List<TimeSeriesDataDTO> dataList = entry.getValue();
-
-                if (dataList != null && !dataList.isEmpty()) {
-                    // 转换指标名称为前端期望的格式
-                    String frontendKey = convertMetricKey(metricName);
-                    result.put(frontendKey, convertTimeSeries(dataList.get(0)));
-                }
-            }
+            convertSeriesSet(detail.getMetrics(), result);
         }
+        anomalyDetectionService.attachScores("node:" + nodeId, result);
 
         return result;
     }
@@ -335,7 +461,7 @@ public class ElasticsearchMonitorService {
     /**
      * 转换时序数据
      */
-    private List<TimeSeriesPointDTO> convertTimeSeries(TimeSeriesDataDTO data) {
+    List<TimeSeriesPointDTO> convertTimeSeries(TimeSeriesDataDTO data) {
         if (data == null || data.getData() == null) {
             return Collections.emptyList();
         }
@@ -366,80 +492,63 @@ public class ElasticsearchMonitorService {
     }
 
     /**
-     * 转换指标键名
+     * 按指标目录转换为前端键名（别名）下的时序数据，未登记的指标保留原名
+     * 同一别名对应多个指标时，目录中靠前的优先
      */
-    private String convertMetricKey(String kibanaKey) {
-        Map<String, String> keyMapping = new HashMap<>();
-        keyMapping.put("node_cpu_utilization", "cpu_percent");
-        keyMapping.put("node_cpu_metric", "cpu_percent");
-        keyMapping.put("node_jvm_mem", "heap_used_percent");
-        keyMapping.put("node_load_average", "load_average");
-        keyMapping.put("node_latency", "latency");
-        keyMapping.put("node_index_mem", "index_memory");
-        keyMapping.put("node_total_io", "io_operations");
-        keyMapping.put("node_segment_count", "segment_count");
-
-        return keyMapping.getOrDefault(kibanaKey, kibanaKey);
+    private void convertSeriesSet(MetricSeriesSet metrics, Map<String, List<TimeSeriesPointDTO>> result) {
+        metrics.forEach((definition, name, dataList) -> {
+            if (dataList != null && !dataList.isEmpty()) {
+                result.putIfAbsent(definition != null ? definition.getAlias() : name,
+                        convertTimeSeries(dataList.get(0)));
+            }
+        });
     }
 
     /**
      * 获取索引详情
      *
+     * @param clusterId 集群 ID，为空时使用默认集群
      * @param indexName 索引名称
      * @param timeRange 时间范围
      * @return 索引详情
      */
-    public IndexDetailDTO getIndexDetail(String indexName, TimeRangeRequest timeRange) throws IOException {
-        String path = String.format("/api/monitoring/v1/clusters/%s/elasticsearch/indices/%s",
-                kibanaClient.getClusterId(), indexName);
-
-        Map<String, Object> body = new HashMap<>();
-        body.put("timeRange", buildTimeRange(timeRange));
-        body.put("is_advanced", false);
-
-        return kibanaClient.post(path, body, IndexDetailDTO.class);
+    public IndexDetailDTO getIndexDetail(String clusterId, String indexName, TimeRangeRequest timeRange)
+            throws IOException {
+        return dataSource.getIndexDetail(clusterId, indexName, timeRange);
     }
 
     /**
      * 获取索引时序数据（转换后的格式）
      *
+     * @param clusterId 集群 ID，为空时使用默认集群
      * @param indexName 索引名称
      * @param timeRange 时间范围
      * @return 时序数据 Map
      */
-    public Map<String, List<TimeSeriesPointDTO>> getIndexTimeSeries(String indexName, TimeRangeRequest timeRange)
-            throws IOException {
-        IndexDetailDTO detail = getIndexDetail(indexName, timeRange);
+    public Map<String, List<TimeSeriesPointDTO>> getIndexTimeSeries(String clusterId, String indexName,
+            TimeRangeRequest timeRange) throws IOException {
+        return getIndexTimeSeries(clusterId, indexName, timeRange, FieldSelection.ALL);
+    }
+
+    /**
+     * 获取索引时序数据，只返回选中的指标
+     *
+     * @param clusterId 集群 ID，为空时使用默认集群
+     * @param indexName 索引名称
+     * @param timeRange 时间范围
+     * @param fields    按前端别名选择的指标
+     * @return 时序数据 Map
+     */
+    public Map<String, List<TimeSeriesPointDTO>> getIndexTimeSeries(String clusterId, String indexName,
+            TimeRangeRequest timeRange, FieldSelection fields) throws IOException {
+        IndexDetailDTO detail = dataSource.getIndexDetail(clusterId, indexName, timeRange,
+                timeSeriesProjection(fields, MetricCatalog.Scope.INDEX, INDEX_DETAIL_UNUSED_SECTIONS));
         Map<String, List<TimeSeriesPointDTO>> result = new HashMap<>();
 
         if (detail.getMetrics() != null) {
-            for (Map.Entry<String, List<TimeSeriesDataDTO>> entry : detail.getMetrics().entrySet()) {
-                String metricName = entry.getKey();
-                List<TimeSeriesDataDTO> dataList = entry.getValue();
-
-                if (dataList != null && !dataList.isEmpty()) {
-                    // 转换指标名称为前端期望的格式
-                    String frontendKey = convertIndexMetricKey(metricName);
-                    result.put(frontendKey, convertTimeSeries(dataList.get(0)));
-                }
-            }
+            convertSeriesSet(detail.getMetrics(), result);
         }
 
         return result;
     }
-
-    /**
-     * 转换索引指标键名
-     */
-    private String convertIndexMetricKey(String kibanaKey) {
-        Map<String, String> keyMapping = new HashMap<>();
-        keyMapping.put("index_search_request_rate", "search_rate");
-        keyMapping.put("index_request_rate", "indexing_rate");
-        keyMapping.put("index_latency", "query_latency");
-        keyMapping.put("index_document_count", "doc_count");
-        keyMapping.put("index_segment_count", "segment_count");
-        keyMapping.put("index_mem", "index_memory");
-
-        return keyMapping.getOrDefault(kibanaKey, kibanaKey);
-    }
 }
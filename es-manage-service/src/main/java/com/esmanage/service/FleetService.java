@@ -0,0 +1,224 @@
+package com.esmanage.service;
+
+import com.esmanage.config.FleetConfig;
+import com.esmanage.dto.FleetOverviewDTO;
+import com.esmanage.dto.MonitoringOverviewDTO;
+import com.esmanage.dto.TimeSeriesPointDTO;
+import com.esmanage.dto.request.FieldSelection;
+import com.esmanage.dto.request.TimeRangeRequest;
+import com.esmanage.metrics.MetricsRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多集群（Fleet）服务
+ * 在并发预算内并行采集所有集群的监控概览，汇总为一张可排序的表
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FleetService {
+
+    private final ElasticsearchMonitorService monitorService;
+    private final ClusterDiscoveryService clusterDiscoveryService;
+    private final FleetConfig fleetConfig;
+    private final MetricsRegistry metricsRegistry;
+
+    private ThreadPoolExecutor executor;
+
+    /** 排序字段 */
+    private static final Map<String, Comparator<FleetOverviewDTO.ClusterRow>> SORTERS = new HashMap<>();
+
+    static {
+        SORTERS.put("name", Comparator.comparing(FleetOverviewDTO.ClusterRow::getName,
+                Comparator.nullsLast(String::compareTo)));
+        SORTERS.put("status", Comparator.comparingInt(row -> statusRank(row.getStatus())));
+        SORTERS.put("nodes", Comparator.comparing(FleetOverviewDTO.ClusterRow::getNodes,
+                Comparator.nullsFirst(Integer::compareTo)));
+        SORTERS.put("indices", Comparator.comparing(FleetOverviewDTO.ClusterRow::getIndices,
+                Comparator.nullsFirst(Integer::compareTo)));
+        SORTERS.put("docs", Comparator.comparing(FleetOverviewDTO.ClusterRow::getDocs,
+                Comparator.nullsFirst(Long::compareTo)));
+        SORTERS.put("store", Comparator.comparing(FleetOverviewDTO.ClusterRow::getStoreSizeBytes,
+                Comparator.nullsFirst(Long::compareTo)));
+        SORTERS.put("unassigned", Comparator.comparing(FleetOverviewDTO.ClusterRow::getUnassignedShards,
+                Comparator.nullsFirst(Integer::compareTo)));
+        SORTERS.put("heap", Comparator.comparing(FleetOverviewDTO.ClusterRow::getHeapUsedPercent,
+                Comparator.nullsFirst(Integer::compareTo)));
+        SORTERS.put("cpu", Comparator.comparing(FleetOverviewDTO.ClusterRow::getCpuPercent,
+                Comparator.nullsFirst(Integer::compareTo)));
+        SORTERS.put("disk", Comparator.comparing(FleetOverviewDTO.ClusterRow::getDiskUsedPercent,
+                Comparator.nullsFirst(Integer::compareTo)));
+        SORTERS.put("searchRate", Comparator.comparing(FleetOverviewDTO.ClusterRow::getSearchRate,
+                Comparator.nullsFirst(Double::compareTo)));
+        SORTERS.put("indexingRate", Comparator.comparing(FleetOverviewDTO.ClusterRow::getIndexingRate,
+                Comparator.nullsFirst(Double::compareTo)));
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(fleetConfig.getMaxConcurrency(), fleetConfig.getMaxConcurrency(),
+                0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "fleet-collector-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        metricsRegistry.registerExecutor("fleet", executor);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 获取多集群概览
+     *
+     * @param timeRange 时间范围
+     * @param sort      排序字段: name/status/nodes/indices/docs/store/unassigned/heap/cpu/disk/searchRate/indexingRate
+     * @param order     排序方向: asc/desc
+     * @return 多集群概览
+     * @throws IllegalArgumentException 排序字段或方向无法识别
+     */
+    public FleetOverviewDTO getFleetOverview(TimeRangeRequest timeRange, String sort, String order)
+            throws IOException {
+        Comparator<FleetOverviewDTO.ClusterRow> comparator = sort != null ? SORTERS.get(sort) : SORTERS.get("status");
+        if (comparator == null) {
+            throw new IllegalArgumentException("Unknown sort field: " + sort);
+        }
+        if (order != null && !"asc".equalsIgnoreCase(order) && !"desc".equalsIgnoreCase(order)) {
+            throw new IllegalArgumentException("Unknown sort order: " + order);
+        }
+
+        long start = System.currentTimeMillis();
+        List<String> clusterIds = clusterDiscoveryService.getClusterIds();
+
+        // 提交所有集群的采集任务：上游请求都在 fleet 线程池中执行，线程池大小即并发预算
+        List<CompletableFuture<MonitoringOverviewDTO>> futures = new ArrayList<>(clusterIds.size());
+        long[] submitTimes = new long[clusterIds.size()];
+        for (int i = 0; i < clusterIds.size(); i++) {
+            submitTimes[i] = System.currentTimeMillis();
+            futures.add(monitorService.getMonitoringOverviewAsync(clusterIds.get(i), timeRange,
+                    FieldSelection.ALL, executor));
+        }
+
+        // 所有集群共享同一截止时间：按并发预算分批排队的时间也计入（每个集群两个上游请求），
+        // 总等待时间不超过 totalTimeoutMs
+        int concurrency = Math.max(1, fleetConfig.getMaxConcurrency());
+        int waves = Math.max(1, (clusterIds.size() * 2 + concurrency - 1) / concurrency);
+        long deadline = start + Math.min(fleetConfig.getClusterTimeoutMs() * waves, fleetConfig.getTotalTimeoutMs());
+
+        List<FleetOverviewDTO.ClusterRow> rows = new ArrayList<>(clusterIds.size());
+        int green = 0, yellow = 0, red = 0, failed = 0;
+        for (int i = 0; i < clusterIds.size(); i++) {
+            String clusterId = clusterIds.get(i);
+            FleetOverviewDTO.ClusterRow row;
+            try {
+                long waitMs = Math.max(0, deadline - System.currentTimeMillis());
+                MonitoringOverviewDTO overview = futures.get(i).get(waitMs, TimeUnit.MILLISECONDS);
+                row = toRow(clusterId, overview);
+            } catch (TimeoutException e) {
+                // 取消后排队中的上游请求不再发出，已发出的请求由 HTTP 客户端的读超时结束
+                futures.get(i).cancel(false);
+                row = errorRow(clusterId, "timeout");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.warn("Failed to collect overview for cluster {}: {}", clusterId, cause.getMessage());
+                row = errorRow(clusterId, cause.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Fleet overview interrupted", e);
+            }
+            row.setElapsedMs(System.currentTimeMillis() - submitTimes[i]);
+
+            if (row.getError() != null) {
+                failed++;
+            } else if ("green".equals(row.getStatus())) {
+                green++;
+            } else if ("yellow".equals(row.getStatus())) {
+                yellow++;
+            } else if ("red".equals(row.getStatus())) {
+                red++;
+            }
+            rows.add(row);
+        }
+
+        if ("desc".equalsIgnoreCase(order)) {
+            comparator = comparator.reversed();
+        }
+        rows.sort(comparator);
+
+        FleetOverviewDTO fleet = new FleetOverviewDTO();
+        fleet.setTotal(rows.size());
+        fleet.setGreen(green);
+        fleet.setYellow(yellow);
+        fleet.setRed(red);
+        fleet.setFailed(failed);
+        fleet.setClusters(rows);
+        fleet.setElapsedMs(System.currentTimeMillis() - start);
+        return fleet;
+    }
+
+    private FleetOverviewDTO.ClusterRow toRow(String clusterId, MonitoringOverviewDTO overview) {
+        FleetOverviewDTO.ClusterRow row = new FleetOverviewDTO.ClusterRow();
+        row.setClusterId(clusterId);
+        row.setName(overview.getCluster().getName());
+        row.setStatus(overview.getCluster().getStatus());
+        row.setVersion(overview.getCluster().getVersion());
+        row.setNodes(overview.getNodes().getTotal());
+        row.setDataNodes(overview.getNodes().getData());
+        row.setIndices(overview.getIndices().getTotal());
+        row.setDocs(overview.getIndices().getDocs());
+        row.setStoreSizeBytes(overview.getIndices().getStoreSizeBytes());
+        row.setShards(overview.getShards().getTotal());
+        row.setUnassignedShards(overview.getShards().getUnassigned());
+        row.setHeapUsedPercent(overview.getJvm().getHeapUsedPercent());
+        row.setCpuPercent(overview.getOs().getCpuPercent());
+        row.setDiskUsedPercent(overview.getFs().getUsedPercent());
+        row.setSearchRate(lastValue(overview.getTimeSeries(), "search_rate"));
+        row.setIndexingRate(lastValue(overview.getTimeSeries(), "indexing_rate"));
+        return row;
+    }
+
+    private FleetOverviewDTO.ClusterRow errorRow(String clusterId, String error) {
+        FleetOverviewDTO.ClusterRow row = new FleetOverviewDTO.ClusterRow();
+        row.setClusterId(clusterId);
+        row.setName(clusterDiscoveryService.findClusterName(clusterId));
+        row.setStatus("unknown");
+        row.setError(error != null ? error : "unknown error");
+        return row;
+    }
+
+    private Double lastValue(Map<String, List<TimeSeriesPointDTO>> timeSeries, String key) {
+        if (timeSeries == null) {
+            return null;
+        }
+        List<TimeSeriesPointDTO> points = timeSeries.get(key);
+        return points != null && !points.isEmpty() ? points.get(points.size() - 1).getValue() : null;
+    }
+
+    /**
+     * 状态排序值：red 最靠前，采集失败次之
+     */
+    private static int statusRank(String status) {
+        if ("red".equals(status)) {
+            return 0;
+        }
+        if ("unknown".equals(status)) {
+            return 1;
+        }
+        if ("yellow".equals(status)) {
+            return 2;
+        }
+        return 3;
+    }
+}
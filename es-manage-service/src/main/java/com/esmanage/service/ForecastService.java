@@ -0,0 +1,268 @@
+package com.esmanage.service;
+
+import com.esmanage.config.MonitorConfig;
+import com.esmanage.dto.ForecastDTO;
+import com.esmanage.dto.NodeInfoDTO;
+import com.esmanage.dto.NodeMetricDTO;
+import com.esmanage.dto.NodeStatsDTO;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * 磁盘与堆内存预测服务
+ * 每次拉取节点列表或节点统计时输入各节点的可用空间与堆使用率，按节点增量拟合趋势，
+ * 预测到达磁盘低/高/洪水水位与堆内存阈值的时间。节点列表只有可用空间，磁盘总量取自节点统计，
+ * 总量未知时只预测耗尽时间。节点按集群分组，集群汇总只包含该集群的节点。
+ */
+@Service
+@RequiredArgsConstructor
+public class ForecastService {
+
+    private static final String DISK = "|disk";
+    private static final String HEAP = "|heap";
+
+    private final MonitorConfig monitorConfig;
+    private final ClusterDiscoveryService clusterDiscoveryService;
+
+    private TrendForecaster forecaster;
+
+    /** 集群 ID -> 该集群的节点 */
+    private final Map<String, ClusterNodes> clusters = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        MonitorConfig.Forecast config = monitorConfig.getForecast();
+        forecaster = new TrendForecaster(config.getHalfLifeMs(), config.getMinIntervalMs(), config.getHuberK(),
+                config.getMaxNodes() * 2);
+    }
+
+    /**
+     * 输入节点列表中的最新值
+     *
+     * @param clusterId 集群 ID，为空时使用默认集群
+     */
+    public synchronized void observeNodes(String clusterId, List<NodeInfoDTO> nodes) {
+        if (!monitorConfig.getForecast().isEnabled() || nodes == null) {
+            return;
+        }
+        String cluster = clusterDiscoveryService.resolveClusterId(clusterId);
+        ClusterNodes clusterNodes = clusters.computeIfAbsent(cluster, id -> new ClusterNodes());
+        long now = System.currentTimeMillis();
+        for (NodeInfoDTO node : nodes) {
+            if (node.getUuid() == null) {
+                continue;
+            }
+            clusterNodes.names.put(node.getUuid(), node.getName());
+            observe(seriesKey(cluster, node.getUuid(), DISK), now, lastValue(node.getNodeFreeSpace()));
+            observe(seriesKey(cluster, node.getUuid(), HEAP), now, lastValue(node.getNodeJvmMemPercent()));
+        }
+    }
+
+    /**
+     * 输入节点统计采集结果，同时记录磁盘总量
+     *
+     * @param clusterId 集群 ID，为空时使用默认集群
+     */
+    public synchronized void observeNodeStats(String clusterId, Map<String, NodeStatsDTO> nodes, long timestamp) {
+        if (!monitorConfig.getForecast().isEnabled()) {
+            return;
+        }
+        String cluster = clusterDiscoveryService.resolveClusterId(clusterId);
+        ClusterNodes clusterNodes = clusters.computeIfAbsent(cluster, id -> new ClusterNodes());
+        for (Map.Entry<String, NodeStatsDTO> entry : nodes.entrySet()) {
+            String nodeId = entry.getKey();
+            NodeStatsDTO node = entry.getValue();
+            clusterNodes.names.put(nodeId, node.getName());
+            if (node.getFs() != null && node.getFs().getTotal() != null) {
+                NodeStatsDTO.FsStats.TotalStats fs = node.getFs().getTotal();
+                if (fs.getTotalInBytes() != null && fs.getTotalInBytes() > 0) {
+                    clusterNodes.diskTotals.put(nodeId, fs.getTotalInBytes());
+                }
+                if (fs.getAvailableInBytes() != null) {
+                    observe(seriesKey(cluster, nodeId, DISK), timestamp, fs.getAvailableInBytes());
+                }
+            }
+            if (node.getJvm() != null && node.getJvm().getMem() != null
+                    && node.getJvm().getMem().getHeapUsedPercent() != null) {
+                observe(seriesKey(cluster, nodeId, HEAP), timestamp, node.getJvm().getMem().getHeapUsedPercent());
+            }
+        }
+    }
+
+    private static String seriesKey(String clusterId, String nodeId, String kind) {
+        return clusterId + "|" + nodeId + kind;
+    }
+
+    private void observe(String key, long timestamp, double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        int id = forecaster.seriesId(key);
+        if (id >= 0) {
+            forecaster.observe(id, timestamp, value);
+        }
+    }
+
+    /**
+     * 获取集群内各节点与集群汇总的预测，集群没有样本时返回空预测
+     *
+     * @param clusterId 集群 ID，为空时使用默认集群
+     */
+    public synchronized ForecastDTO getForecast(String clusterId) {
+        MonitorConfig.Forecast config = monitorConfig.getForecast();
+        long now = System.currentTimeMillis();
+        String resolved = clusterDiscoveryService.resolveClusterId(clusterId);
+        ClusterNodes clusterNodes = clusters.getOrDefault(resolved, ClusterNodes.EMPTY);
+
+        List<ForecastDTO.NodeForecast> nodes = new ArrayList<>();
+        Map<String, ForecastDTO.NodeEta> earliest = new LinkedHashMap<>();
+        long clusterTotal = 0;
+        double clusterFree = 0;
+        double clusterSlope = 0;
+
+        for (Map.Entry<String, String> entry : clusterNodes.names.entrySet()) {
+            String nodeId = entry.getKey();
+            int disk = forecaster.findSeries(seriesKey(resolved, nodeId, DISK));
+            int heap = forecaster.findSeries(seriesKey(resolved, nodeId, HEAP));
+            long updatedAt = Math.max(disk >= 0 ? forecaster.lastTimestamp(disk) : 0,
+                    heap >= 0 ? forecaster.lastTimestamp(heap) : 0);
+            // 长时间没有样本的节点视为已下线
+            if (now - updatedAt > config.getStaleMs()) {
+                continue;
+            }
+
+            ForecastDTO.NodeForecast node = new ForecastDTO.NodeForecast();
+            node.setNodeId(nodeId);
+            node.setName(entry.getValue());
+            node.setUpdatedAt(updatedAt);
+
+            if (disk >= 0 && forecaster.samples(disk) >= config.getMinSamples()) {
+                Long total = clusterNodes.diskTotals.get(nodeId);
+                ForecastDTO.DiskForecast diskForecast = new ForecastDTO.DiskForecast();
+                double free = Math.max(0, forecaster.fitted(disk));
+                diskForecast.setTotalBytes(total);
+                diskForecast.setFreeBytes(Math.round(free));
+                diskForecast.setSlopeBytesPerHour(round(forecaster.slope(disk)));
+                diskForecast.setSamples(forecaster.samples(disk));
+                diskForecast.setHoursToFull(horizon(forecaster.hoursUntil(disk, 0, false)));
+                if (total != null) {
+                    diskForecast.setUsedPercent(round(100.0 * (total - free) / total));
+                    diskForecast.setHoursToLow(horizon(forecaster.hoursUntil(disk,
+                            freeAt(total, config.getLowWatermark()), false)));
+                    diskForecast.setHoursToHigh(horizon(forecaster.hoursUntil(disk,
+                            freeAt(total, config.getHighWatermark()), false)));
+                    diskForecast.setHoursToFlood(horizon(forecaster.hoursUntil(disk,
+                            freeAt(total, config.getFloodWatermark()), false)));
+                    clusterTotal += total;
+                    clusterFree += free;
+                    clusterSlope += forecaster.slope(disk);
+                }
+                node.setDisk(diskForecast);
+                updateEarliest(earliest, "low", node, diskForecast.getHoursToLow());
+                updateEarliest(earliest, "high", node, diskForecast.getHoursToHigh());
+                updateEarliest(earliest, "flood", node, diskForecast.getHoursToFlood());
+                updateEarliest(earliest, "full", node, diskForecast.getHoursToFull());
+            }
+
+            if (heap >= 0 && forecaster.samples(heap) >= config.getMinSamples()) {
+                ForecastDTO.HeapForecast heapForecast = new ForecastDTO.HeapForecast();
+                heapForecast.setUsedPercent(round(forecaster.fitted(heap)));
+                heapForecast.setSlopePercentPerHour(round(forecaster.slope(heap)));
+                heapForecast.setSamples(forecaster.samples(heap));
+                heapForecast.setHoursToThreshold(horizon(forecaster.hoursUntil(heap,
+                        config.getHeapThreshold(), true)));
+                node.setHeap(heapForecast);
+                updateEarliest(earliest, "heap", node, heapForecast.getHoursToThreshold());
+            }
+            nodes.add(node);
+        }
+
+        nodes.sort(Comparator.comparing(
+                (ForecastDTO.NodeForecast node) -> node.getDisk() != null ? node.getDisk().getHoursToHigh() : null,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+
+        ForecastDTO.ClusterForecast cluster = new ForecastDTO.ClusterForecast();
+        if (clusterTotal > 0) {
+            cluster.setTotalBytes(clusterTotal);
+            cluster.setFreeBytes(Math.round(clusterFree));
+            cluster.setUsedPercent(round(100.0 * (clusterTotal - clusterFree) / clusterTotal));
+            cluster.setSlopeBytesPerHour(round(clusterSlope));
+            cluster.setHoursToLow(linearHours(clusterFree, clusterSlope, freeAt(clusterTotal, config.getLowWatermark())));
+            cluster.setHoursToHigh(linearHours(clusterFree, clusterSlope,
+                    freeAt(clusterTotal, config.getHighWatermark())));
+            cluster.setHoursToFlood(linearHours(clusterFree, clusterSlope,
+                    freeAt(clusterTotal, config.getFloodWatermark())));
+        }
+        cluster.setEarliest(earliest);
+
+        ForecastDTO forecast = new ForecastDTO();
+        forecast.setClusterId(resolved);
+        forecast.setGeneratedAt(now);
+        forecast.setCluster(cluster);
+        forecast.setNodes(nodes);
+        return forecast;
+    }
+
+    private void updateEarliest(Map<String, ForecastDTO.NodeEta> earliest, String key,
+                                ForecastDTO.NodeForecast node, Double hours) {
+        if (hours == null) {
+            return;
+        }
+        ForecastDTO.NodeEta current = earliest.get(key);
+        if (current == null || hours < current.getHours()) {
+            ForecastDTO.NodeEta eta = new ForecastDTO.NodeEta();
+            eta.setNodeId(node.getNodeId());
+            eta.setName(node.getName());
+            eta.setHours(hours);
+            earliest.put(key, eta);
+        }
+    }
+
+    /**
+     * 水位（使用率 %）对应的可用空间
+     */
+    private static double freeAt(long total, double watermarkPercent) {
+        return total * (1 - watermarkPercent / 100.0);
+    }
+
+    private Double linearHours(double free, double slope, double threshold) {
+        if (free <= threshold) {
+            return 0.0;
+        }
+        return slope < 0 ? horizon((threshold - free) / slope) : null;
+    }
+
+    /**
+     * 超出预测范围的结果视为不会到达
+     */
+    private Double horizon(double hours) {
+        return hours <= monitorConfig.getForecast().getMaxHorizonHours() ? round(hours) : null;
+    }
+
+    private static Double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * 一个集群的节点名称与磁盘总量
+     */
+    private static final class ClusterNodes {
+        private static final ClusterNodes EMPTY = new ClusterNodes();
+
+        /** 节点 ID -> 名称 */
+        private final Map<String, String> names = new HashMap<>();
+
+        /** 节点 ID -> 磁盘总量（字节） */
+        private final Map<String, Long> diskTotals = new HashMap<>();
+    }
+
+    private static double lastValue(NodeMetricDTO metric) {
+        if (metric == null || metric.getSummary() == null || metric.getSummary().getLastVal() == null) {
+            return Double.NaN;
+        }
+        return metric.getSummary().getLastVal();
+    }
+}
@@ -0,0 +1,302 @@
+package com.esmanage.service;
+
+import com.esmanage.client.ElasticsearchClient;
+import com.esmanage.client.JsonStreams;
+import com.esmanage.config.MonitorConfig;
+import com.esmanage.dto.NodeRatesDTO;
+import com.esmanage.dto.NodeStatsDTO;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 节点统计采集服务
+ * 每个周期只发一次带 filter_path 的 _nodes/stats 请求覆盖全部节点，填充 NodeStatsDTO；
+ * 线程池拒绝、断路器触发、GC 等累计计数器写入每个节点的环形缓冲区，通过相邻采样差分得出速率。
+ * 每个可直连的集群（elasticsearch.hosts 与 elasticsearch.clusters）分别采集，查询按集群 ID 取数。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NodeStatsCollector {
+
+    private static final String NODE_STATS_PATH = "/_nodes/stats/os,jvm,fs,indices,thread_pool,breaker?filter_path="
+            + "nodes.*.name,nodes.*.transport_address,nodes.*.host,nodes.*.ip,nodes.*.roles,"
+            + "nodes.*.os.timestamp,nodes.*.os.cpu,nodes.*.os.mem,nodes.*.os.swap,"
+            + "nodes.*.jvm.timestamp,nodes.*.jvm.uptime_in_millis,nodes.*.jvm.mem.heap_*,nodes.*.jvm.mem.non_heap_*,"
+            + "nodes.*.jvm.threads,nodes.*.jvm.gc.collectors,"
+            + "nodes.*.fs.timestamp,nodes.*.fs.total,"
+            + "nodes.*.indices.docs,nodes.*.indices.store.size_in_bytes,nodes.*.indices.indexing,"
+            + "nodes.*.indices.search,nodes.*.indices.segments.count,nodes.*.indices.segments.memory_in_bytes,"
+            + "nodes.*.thread_pool.*.threads,nodes.*.thread_pool.*.queue,nodes.*.thread_pool.*.active,"
+            + "nodes.*.thread_pool.*.rejected,nodes.*.thread_pool.*.largest,nodes.*.thread_pool.*.completed,"
+            + "nodes.*.breakers";
+
+    /** 单独跟踪拒绝速率的线程池 */
+    private static final String[] WATCHED_POOLS = {"search", "write", "get", "management", "generic"};
+
+    // 速率通道
+    private static final int CH_GC_TIME = 0;
+    private static final int CH_GC_COUNT = 1;
+    private static final int CH_REJECTED = 2;
+    private static final int CH_TRIPPED = 3;
+    private static final int CH_POOL_BASE = 4;
+    private static final int CHANNELS = CH_POOL_BASE + WATCHED_POOLS.length;
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final MonitorConfig monitorConfig;
+    private final ObjectMapper objectMapper;
+    private final ForecastService forecastService;
+
+    /** ES 原始字段为下划线命名，单独的 reader 按下划线映射到 DTO */
+    private ObjectReader nodeReader;
+
+    /** 集群 ID -> 采集结果 */
+    private final Map<String, ClusterNodeStats> clusters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        nodeReader = objectMapper.copy()
+                .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .readerFor(NodeStatsDTO.class);
+    }
+
+    /**
+     * 定时采集
+     */
+    @Scheduled(fixedDelayString = "${monitor.node-stats.interval-ms:10000}")
+    public void scheduledCollect() {
+        if (!monitorConfig.getNodeStats().isEnabled() || !elasticsearchClient.isConfigured()) {
+            return;
+        }
+        for (String clusterId : elasticsearchClient.getClusterIds()) {
+            try {
+                collect(clusterId);
+            } catch (Exception e) {
+                log.warn("Node stats collection failed for cluster {}: {}", clusterId, e.getMessage());
+            }
+        }
+        // 清理已从配置中移除的集群
+        clusters.keySet().retainAll(elasticsearchClient.getClusterIds());
+    }
+
+    /**
+     * 采集一次集群所有节点统计
+     *
+     * @param clusterId 集群 ID，为空时使用默认集群
+     */
+    public Map<String, NodeStatsDTO> collect(String clusterId) throws IOException {
+        String resolved = elasticsearchClient.resolveClusterId(clusterId);
+        Map<String, NodeStatsDTO> nodes = elasticsearchClient.get(resolved, NODE_STATS_PATH, this::parseNodes);
+        long timestamp = System.currentTimeMillis();
+
+        ClusterNodeStats cluster = clusters.computeIfAbsent(resolved, id -> new ClusterNodeStats());
+        double[] sample = new double[CHANNELS];
+        for (Map.Entry<String, NodeStatsDTO> entry : nodes.entrySet()) {
+            fillSample(entry.getValue(), sample);
+            cluster.histories.computeIfAbsent(entry.getKey(),
+                    id -> new SampleRingBuffer(monitorConfig.getNodeStats().getHistorySize(), CHANNELS))
+                    .add(timestamp, sample);
+        }
+        cluster.histories.keySet().retainAll(nodes.keySet());
+        forecastService.observeNodeStats(resolved, nodes, timestamp);
+
+        cluster.latest = Collections.unmodifiableMap(nodes);
+        return nodes;
+    }
+
+    /**
+     * 集群是否已有采集结果，未配置直连的集群返回 false
+     */
+    public boolean isCollected(String clusterId) {
+        try {
+            return !cluster(clusterId).latest.isEmpty();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 获取集群所有节点的最新统计
+     *
+     * @param clusterId 集群 ID，为空时使用默认集群
+     * @throws IllegalArgumentException 该集群未配置直连地址
+     */
+    public List<NodeStatsDTO> getNodeStats(String clusterId) {
+        return new ArrayList<>(cluster(clusterId).latest.values());
+    }
+
+    /**
+     * 获取集群中单个节点的最新统计（支持节点 ID 或名称）
+     *
+     * @throws IllegalArgumentException 该集群未配置直连地址
+     */
+    public NodeStatsDTO getNodeStats(String clusterId, String nodeId) {
+        return findNode(cluster(clusterId), nodeId);
+    }
+
+    /**
+     * 获取集群所有节点速率，按线程池拒绝速率降序
+     *
+     * @param clusterId     集群 ID，为空时使用默认集群
+     * @param windowSeconds 统计窗口（秒），0 表示只用最近两次采样
+     * @throws IllegalArgumentException 该集群未配置直连地址
+     */
+    public List<NodeRatesDTO> getNodeRates(String clusterId, int windowSeconds) {
+        ClusterNodeStats cluster = cluster(clusterId);
+        List<NodeRatesDTO> result = new ArrayList<>();
+        for (NodeStatsDTO stats : cluster.latest.values()) {
+            NodeRatesDTO rates = buildRates(cluster, stats, windowSeconds);
+            if (rates != null) {
+                result.add(rates);
+            }
+        }
+        result.sort(Comparator.comparing(NodeRatesDTO::getRejectionsPerSec,
+                Comparator.nullsLast(Comparator.reverseOrder())));
+        return result;
+    }
+
+    /**
+     * 获取集群中单个节点速率
+     *
+     * @throws IllegalArgumentException 该集群未配置直连地址
+     */
+    public NodeRatesDTO getNodeRates(String clusterId, String nodeId, int windowSeconds) {
+        ClusterNodeStats cluster = cluster(clusterId);
+        NodeStatsDTO stats = findNode(cluster, nodeId);
+        return stats != null ? buildRates(cluster, stats, windowSeconds) : null;
+    }
+
+    private ClusterNodeStats cluster(String clusterId) {
+        ClusterNodeStats cluster = clusters.get(elasticsearchClient.resolveClusterId(clusterId));
+        return cluster != null ? cluster : ClusterNodeStats.EMPTY;
+    }
+
+    private NodeStatsDTO findNode(ClusterNodeStats cluster, String nodeId) {
+        NodeStatsDTO stats = cluster.latest.get(nodeId);
+        if (stats != null) {
+            return stats;
+        }
+        return cluster.latest.values().stream()
+                .filter(node -> nodeId.equals(node.getName()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private NodeRatesDTO buildRates(ClusterNodeStats cluster, NodeStatsDTO stats, int windowSeconds) {
+        SampleRingBuffer history = cluster.histories.get(stats.getUuid());
+        if (history == null) {
+            return null;
+        }
+        long windowMs = windowSeconds * 1000L;
+
+        NodeRatesDTO rates = new NodeRatesDTO();
+        rates.setNodeId(stats.getUuid());
+        rates.setName(stats.getName());
+        rates.setTimestamp(history.lastTimestamp());
+        rates.setWindowSeconds(windowSeconds);
+        rates.setRejectionsPerSec(rate(history, CH_REJECTED, windowMs));
+        rates.setBreakerTripsPerSec(rate(history, CH_TRIPPED, windowMs));
+        rates.setGcTimeMsPerSec(rate(history, CH_GC_TIME, windowMs));
+        rates.setGcCountPerSec(rate(history, CH_GC_COUNT, windowMs));
+        rates.setRejectedTotal((long) history.lastValue(CH_REJECTED));
+        rates.setTrippedTotal((long) history.lastValue(CH_TRIPPED));
+
+        Map<String, Double> poolRates = new LinkedHashMap<>();
+        for (int i = 0; i < WATCHED_POOLS.length; i++) {
+            poolRates.put(WATCHED_POOLS[i], rate(history, CH_POOL_BASE + i, windowMs));
+        }
+        rates.setThreadPoolRejectionsPerSec(poolRates);
+        return rates;
+    }
+
+    private Double rate(SampleRingBuffer history, int channel, long windowMs) {
+        double rate = windowMs > 0 ? history.windowRate(channel, windowMs) : history.lastRate(channel);
+        return Double.isNaN(rate) ? null : rate;
+    }
+
+    /**
+     * 从节点统计提取累计计数器
+     */
+    private void fillSample(NodeStatsDTO stats, double[] sample) {
+        Arrays.fill(sample, 0);
+        if (stats.getJvm() != null && stats.getJvm().getGc() != null
+                && stats.getJvm().getGc().getCollectors() != null) {
+            for (NodeStatsDTO.JvmStats.GcStats.CollectorStats collector
+                    : stats.getJvm().getGc().getCollectors().values()) {
+                sample[CH_GC_TIME] += nullToZero(collector.getCollectionTimeInMillis());
+                sample[CH_GC_COUNT] += nullToZero(collector.getCollectionCount());
+            }
+        }
+        if (stats.getThreadPool() != null) {
+            for (Map.Entry<String, NodeStatsDTO.ThreadPoolStats> pool : stats.getThreadPool().entrySet()) {
+                long rejected = nullToZero(pool.getValue().getRejected());
+                sample[CH_REJECTED] += rejected;
+                for (int i = 0; i < WATCHED_POOLS.length; i++) {
+                    if (WATCHED_POOLS[i].equals(pool.getKey())) {
+                        sample[CH_POOL_BASE + i] = rejected;
+                    }
+                }
+            }
+        }
+        if (stats.getBreakers() != null) {
+            for (NodeStatsDTO.BreakerStats breaker : stats.getBreakers().values()) {
+                sample[CH_TRIPPED] += nullToZero(breaker.getTripped());
+            }
+        }
+    }
+
+    /**
+     * 流式解析 nodes 对象，每个节点子树直接绑定到 NodeStatsDTO
+     */
+    private Map<String, NodeStatsDTO> parseNodes(JsonParser parser) throws IOException {
+        Map<String, NodeStatsDTO> nodes = new LinkedHashMap<>();
+        JsonStreams.readObject(parser, (section, p) -> {
+            if (!"nodes".equals(section)) {
+                return false;
+            }
+            JsonStreams.readObject(p, (nodeId, q) -> {
+                NodeStatsDTO stats = nodeReader.readValue(q);
+                stats.setUuid(nodeId);
+                stats.setIsOnline(true);
+                if (stats.getRoles() != null) {
+                    stats.setNodeTypeLabel(stats.getRoles().contains("master") ? "主节点"
+                            : stats.getRoles().contains("data") ? "数据节点" : "节点");
+                }
+                nodes.put(nodeId, stats);
+                return true;
+            });
+            return true;
+        });
+        return nodes;
+    }
+
+    private long nullToZero(Long value) {
+        return value != null ? value : 0;
+    }
+
+    /**
+     * 单个集群的采集结果
+     */
+    private static class ClusterNodeStats {
+        static final ClusterNodeStats EMPTY = new ClusterNodeStats();
+
+        /** 最新一次采集结果：节点 ID -> 统计 */
+        volatile Map<String, NodeStatsDTO> latest = Collections.emptyMap();
+
+        /** 节点 ID -> 累计计数器采样 */
+        final Map<String, SampleRingBuffer> histories = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,371 @@
+package com.esmanage.service;
+
+import com.esmanage.client.ElasticsearchClient;
+import com.esmanage.client.JsonStreams;
+import com.esmanage.config.DevToolsConfig;
+import com.esmanage.dto.QueryProfileDTO;
+import com.esmanage.dto.SlowQueryDTO;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 查询性能剖析服务
+ * 在搜索请求体中注入 profile: true 并用 filter_path 去掉命中结果，响应用流式解析器逐节点读取 profile 树，
+ * 不构建 JSON 树：每个分片归并为查询、重写、收集、聚合、取回各阶段耗时，查询树节点按类型与描述跨分片合并，
+ * 自身耗时 = 节点耗时 - 子节点耗时；结果连同请求写入慢查询排行榜
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class QueryProfileService {
+
+    private static final MediaType JSON = MediaType.get("application/json");
+    private static final String FILTER_PATH = "filter_path=took,timed_out,_shards,hits.total,profile";
+    private static final int MAX_DESCRIPTION = 200;
+
+    private final DevToolsConfig devToolsConfig;
+    private final ElasticsearchClient elasticsearchClient;
+    private final SlowQueryLeaderboard leaderboard;
+    private final ObjectMapper objectMapper;
+
+    /** 与 ES 客户端共享连接池，使用控制台的读取超时 */
+    private OkHttpClient profileClient;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        this.profileClient = elasticsearchClient.getHttpClient().newBuilder()
+                .readTimeout(devToolsConfig.getReadTimeoutMs(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * 以剖析模式执行搜索
+     *
+     * @param path ES 搜索路径，如 /logs-*&#47;_search
+     * @param body 搜索请求体（JSON 对象），可为空
+     * @throws IllegalArgumentException 路径不是搜索接口或请求体不是 JSON 对象
+     */
+    public QueryProfileDTO profile(String path, String body) throws IOException {
+        if (path == null || !path.startsWith("/") || path.startsWith("//")) {
+            throw new IllegalArgumentException("Path must start with a single /: " + path);
+        }
+        int queryIndex = path.indexOf('?');
+        String endpoint = queryIndex >= 0 ? path.substring(0, queryIndex) : path;
+        if (!endpoint.endsWith("/_search")) {
+            throw new IllegalArgumentException("Profile mode only supports _search: " + path);
+        }
+        ObjectNode search = parseBody(body);
+        search.put("profile", true);
+        String profilePath = path.contains("filter_path=") ? path
+                : path + (queryIndex >= 0 ? "&" : "?") + FILTER_PATH;
+
+        QueryProfileDTO profile = new QueryProfileDTO();
+        profile.setId("profile-" + sequence.incrementAndGet());
+        profile.setPath(path);
+        profile.setTimestamp(System.currentTimeMillis());
+        long start = System.nanoTime();
+
+        Request request = elasticsearchClient.newRequest(profilePath)
+                .header("X-Opaque-Id", profile.getId())
+                .post(RequestBody.create(objectMapper.writeValueAsBytes(search), JSON))
+                .build();
+        ProfileReducer reducer = new ProfileReducer();
+        elasticsearchClient.execute(profileClient, request, endpoint, parser -> {
+            reducer.read(parser, profile);
+            return null;
+        });
+        profile.setWallMs((System.nanoTime() - start) / 1_000_000);
+        reducer.finish(profile, devToolsConfig.getProfileTopComponents());
+
+        SlowQueryDTO entry = new SlowQueryDTO();
+        entry.setId(profile.getId());
+        entry.setSource("profile");
+        entry.setMethod("POST");
+        entry.setPath(path);
+        String text = body != null ? body : "";
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        entry.setBodyTruncated(bytes.length > devToolsConfig.getCapturedBodyBytes());
+        entry.setBody(entry.isBodyTruncated()
+                ? truncateUtf8(bytes, devToolsConfig.getCapturedBodyBytes()) : text);
+        entry.setStatus(200);
+        entry.setTookMs(profile.getWallMs());
+        entry.setTimestamp(profile.getTimestamp());
+        leaderboard.offer(entry, profile);
+
+        log.info("Profiled {} in {}ms: {} shards, {} components", path, profile.getWallMs(),
+                profile.getShards().size(), profile.getComponents().size());
+        return profile;
+    }
+
+    /**
+     * 取 UTF-8 字节的前 maxBytes 个字节解码，截断点落在多字节字符中间时回退到该字符起点
+     */
+    static String truncateUtf8(byte[] bytes, int maxBytes) {
+        int end = Math.min(Math.max(maxBytes, 0), bytes.length);
+        if (end < bytes.length) {
+            // 10xxxxxx 为续字节，截断点须落在字符首字节上
+            while (end > 0 && (bytes[end] & 0xC0) == 0x80) {
+                end--;
+            }
+        }
+        return new String(bytes, 0, end, StandardCharsets.UTF_8);
+    }
+
+    private ObjectNode parseBody(String body) {
+        if (body == null || body.isBlank()) {
+            return objectMapper.createObjectNode();
+        }
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(body);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Search body is not valid JSON: " + e.getMessage());
+        }
+        if (!(node instanceof ObjectNode)) {
+            throw new IllegalArgumentException("Search body must be a JSON object");
+        }
+        return (ObjectNode) node;
+    }
+
+    /**
+     * 流式归并 profile 输出
+     */
+    private static final class ProfileReducer {
+
+        /** kind + type + description -> 跨分片合并的组件 */
+        private final Map<String, QueryProfileDTO.Component> components = new HashMap<>();
+
+        void read(JsonParser parser, QueryProfileDTO profile) throws IOException {
+            JsonStreams.readObject(parser, (field, p) -> {
+                switch (field) {
+                    case "took":
+                        profile.setTookMs(JsonStreams.longValue(p));
+                        return true;
+                    case "timed_out":
+                        profile.setTimedOut(p.getValueAsBoolean());
+                        return true;
+                    case "_shards":
+                        JsonStreams.readObject(p, (name, value) -> {
+                            if ("total".equals(name)) {
+                                profile.setShardsTotal((int) JsonStreams.longValue(value));
+                                return true;
+                            }
+                            if ("failed".equals(name)) {
+                                profile.setShardsFailed((int) JsonStreams.longValue(value));
+                                return true;
+                            }
+                            return false;
+                        });
+                        return true;
+                    case "hits":
+                        JsonStreams.readObject(p, (name, value) -> {
+                            if (!"total".equals(name)) {
+                                return false;
+                            }
+                            // 7.x 起为 {value, relation}，更早版本为数字
+                            if (value.currentToken().isNumeric()) {
+                                profile.setTotalHits(JsonStreams.longValue(value));
+                                return true;
+                            }
+                            JsonStreams.readObject(value, (key, v) -> {
+                                if ("value".equals(key)) {
+                                    profile.setTotalHits(JsonStreams.longValue(v));
+                                    return true;
+                                }
+                                return false;
+                            });
+                            return true;
+                        });
+                        return true;
+                    case "profile":
+                        JsonStreams.readObject(p, (name, value) -> {
+                            if (!"shards".equals(name)) {
+                                return false;
+                            }
+                            JsonStreams.readArray(value, element -> profile.getShards().add(readShard(element)));
+                            return true;
+                        });
+                        return true;
+                    default:
+                        return false;
+                }
+            });
+        }
+
+        private QueryProfileDTO.Shard readShard(JsonParser parser) throws IOException {
+            QueryProfileDTO.Shard shard = new QueryProfileDTO.Shard();
+            JsonStreams.readObject(parser, (field, p) -> {
+                switch (field) {
+                    case "id":
+                        shard.setId(JsonStreams.text(p));
+                        return true;
+                    case "node_id":
+                        shard.setNodeId(JsonStreams.text(p));
+                        return true;
+                    case "index":
+                        shard.setIndex(JsonStreams.text(p));
+                        return true;
+                    case "shard_id":
+                        shard.setShardId((int) JsonStreams.longValue(p));
+                        return true;
+                    case "searches":
+                        JsonStreams.readArray(p, search -> JsonStreams.readObject(search, (name, value) -> {
+                            switch (name) {
+                                case "query":
+                                    JsonStreams.readArray(value, node -> shard.setQueryNanos(
+                                            shard.getQueryNanos() + readNode(node, "query", 0)));
+                                    return true;
+                                case "rewrite_time":
+                                    shard.setRewriteNanos(shard.getRewriteNanos() + JsonStreams.longValue(value));
+                                    return true;
+                                case "collector":
+                                    JsonStreams.readArray(value, node -> shard.setCollectorNanos(
+                                            shard.getCollectorNanos() + readNode(node, "collector", 0)));
+                                    return true;
+                                default:
+                                    return false;
+                            }
+                        }));
+                        return true;
+                    case "aggregations":
+                        JsonStreams.readArray(p, node -> shard.setAggregationNanos(
+                                shard.getAggregationNanos() + readNode(node, "aggregation", 0)));
+                        return true;
+                    case "fetch":
+                        shard.setFetchNanos(readNode(p, "fetch", 0));
+                        return true;
+                    default:
+                        return false;
+                }
+            });
+            if (shard.getId() != null && (shard.getIndex() == null || shard.getNodeId() == null)) {
+                parseShardId(shard);
+            }
+            shard.setTotalNanos(shard.getQueryNanos() + shard.getRewriteNanos() + shard.getCollectorNanos()
+                    + shard.getAggregationNanos() + shard.getFetchNanos());
+            return shard;
+        }
+
+        /**
+         * 读取一个剖析节点（查询、收集器、聚合器或取回阶段）及其子节点，合并到组件表，返回节点耗时
+         */
+        private long readNode(JsonParser parser, String kind, int depth) throws IOException {
+            String[] type = new String[1];
+            String[] description = new String[1];
+            long[] time = new long[1];
+            long[] childTime = new long[1];
+            Map<String, Long> breakdown = new LinkedHashMap<>();
+            JsonStreams.readObject(parser, (field, p) -> {
+                switch (field) {
+                    case "type":
+                    case "name":
+                        type[0] = JsonStreams.text(p);
+                        return true;
+                    case "description":
+                    case "reason":
+                        String text = JsonStreams.text(p);
+                        description[0] = text != null && text.length() > MAX_DESCRIPTION
+                                ? text.substring(0, MAX_DESCRIPTION) : text;
+                        return true;
+                    case "time_in_nanos":
+                        time[0] = JsonStreams.longValue(p);
+                        return true;
+                    case "breakdown":
+                        JsonStreams.readObject(p, (name, value) -> {
+                            // 只保留耗时项，*_count 为调用次数
+                            if (name.endsWith("_count")) {
+                                return false;
+                            }
+                            breakdown.merge(name, JsonStreams.longValue(value), Long::sum);
+                            return true;
+                        });
+                        return true;
+                    case "children":
+                        JsonStreams.readArray(p, child -> childTime[0] += readNode(child, kind, depth + 1));
+                        return true;
+                    default:
+                        return false;
+                }
+            });
+
+            String key = kind + '\u0000' + type[0] + '\u0000' + description[0];
+            QueryProfileDTO.Component component = components.computeIfAbsent(key, k -> {
+                QueryProfileDTO.Component created = new QueryProfileDTO.Component();
+                created.setKind(kind);
+                created.setType(type[0]);
+                created.setDescription(description[0]);
+                created.setDepth(depth);
+                return created;
+            });
+            component.setDepth(Math.min(component.getDepth(), depth));
+            component.setShards(component.getShards() + 1);
+            component.setTotalNanos(component.getTotalNanos() + time[0]);
+            component.setSelfNanos(component.getSelfNanos() + Math.max(0, time[0] - childTime[0]));
+            component.setMaxNanos(Math.max(component.getMaxNanos(), time[0]));
+            breakdown.forEach((name, nanos) -> component.getBreakdown().merge(name, nanos, Long::sum));
+            return time[0];
+        }
+
+        /**
+         * 汇总分片、排序并截取组件
+         */
+        void finish(QueryProfileDTO profile, int topComponents) {
+            for (QueryProfileDTO.Shard shard : profile.getShards()) {
+                profile.setQueryNanos(profile.getQueryNanos() + shard.getQueryNanos());
+                profile.setRewriteNanos(profile.getRewriteNanos() + shard.getRewriteNanos());
+                profile.setCollectorNanos(profile.getCollectorNanos() + shard.getCollectorNanos());
+                profile.setAggregationNanos(profile.getAggregationNanos() + shard.getAggregationNanos());
+                profile.setFetchNanos(profile.getFetchNanos() + shard.getFetchNanos());
+            }
+            profile.getShards().sort(Comparator.comparingLong(QueryProfileDTO.Shard::getTotalNanos).reversed());
+            List<QueryProfileDTO.Component> sorted = new ArrayList<>(components.values());
+            sorted.sort(Comparator.comparingLong(QueryProfileDTO.Component::getSelfNanos).reversed());
+            profile.setComponents(new ArrayList<>(sorted.subList(0, Math.min(topComponents, sorted.size()))));
+        }
+
+        /**
+         * 从 [nodeId][index][shard] 形式的分片标识中补全字段（早期版本只返回 id）
+         */
+        private static void parseShardId(QueryProfileDTO.Shard shard) {
+            String id = shard.getId();
+            if (!id.startsWith("[") || !id.endsWith("]")) {
+                return;
+            }
+            String[] parts = id.substring(1, id.length() - 1).split("]\\[");
+            if (parts.length != 3) {
+                return;
+            }
+            if (shard.getNodeId() == null) {
+                shard.setNodeId(parts[0]);
+            }
+            if (shard.getIndex() == null) {
+                shard.setIndex(parts[1]);
+            }
+            if (shard.getShardId() == null) {
+                try {
+                    shard.setShardId(Integer.parseInt(parts[2]));
+                } catch (NumberFormatException ignored) {
+                    // 保留原始 id
+                }
+            }
+        }
+    }
+}
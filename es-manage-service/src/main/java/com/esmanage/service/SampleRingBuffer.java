@@ -0,0 +1,166 @@
+package com.esmanage.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 定长采样环形缓冲区
+ * 每个采样包含一个时间戳和固定数量的通道值，全部存放在基本类型数组中；
+ * 写满后覆盖最旧的采样。用于从累计计数器推导速率，或保存近期的瞬时值。
+ */
+public class SampleRingBuffer {
+
+    private final int capacity;
+    private final int channels;
+    private final long[] timestamps;
+    private final double[] values;
+
+    /** 下一个写入位置 */
+    private int head = 0;
+
+    /** 当前采样数 */
+    private int size = 0;
+
+    public SampleRingBuffer(int capacity, int channels) {
+        this.capacity = capacity;
+        this.channels = channels;
+        this.timestamps = new long[capacity];
+        this.values = new double[capacity * channels];
+    }
+
+    /**
+     * 追加采样，sample 长度需等于通道数
+     */
+    public synchronized void add(long timestamp, double[] sample) {
+        timestamps[head] = timestamp;
+        System.arraycopy(sample, 0, values, head * channels, channels);
+        head = (head + 1) % capacity;
+        if (size < capacity) {
+            size++;
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized void clear() {
+        head = 0;
+        size = 0;
+        Arrays.fill(timestamps, 0);
+    }
+
+    /**
+     * 最新采样的时间戳，无采样时返回 0
+     */
+    public synchronized long lastTimestamp() {
+        return size > 0 ? timestamps[slot(size - 1)] : 0;
+    }
+
+    /**
+     * 最新采样的通道值，无采样时返回 NaN
+     */
+    public synchronized double lastValue(int channel) {
+        return size > 0 ? values[slot(size - 1) * channels + channel] : Double.NaN;
+    }
+
+    /**
+     * 最近两个采样间的每秒速率；采样不足或计数器重置时返回 NaN
+     */
+    public synchronized double lastRate(int channel) {
+        if (size < 2) {
+            return Double.NaN;
+        }
+        return rate(size - 1, channel);
+    }
+
+    /**
+     * 最近一段时间窗口内的平均每秒速率（窗口内首尾采样之差）；采样不足或计数器重置时返回 NaN
+     */
+    public synchronized double windowRate(int channel, long windowMs) {
+        if (size < 2) {
+            return Double.NaN;
+        }
+        int last = size - 1;
+        long since = timestamps[slot(last)] - windowMs;
+        int first = last - 1;
+        while (first > 0 && timestamps[slot(first - 1)] >= since) {
+            first--;
+        }
+        long elapsedMs = timestamps[slot(last)] - timestamps[slot(first)];
+        double delta = values[slot(last) * channels + channel] - values[slot(first) * channels + channel];
+        if (elapsedMs <= 0 || delta < 0) {
+            return Double.NaN;
+        }
+        return delta * 1000.0 / elapsedMs;
+    }
+
+    /**
+     * 瞬时值序列 [[timestamp, value], ...]
+     */
+    public synchronized List<List<Object>> gaugeSeries(int channel, long from, long to) {
+        List<List<Object>> series = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            long ts = timestamps[slot(i)];
+            if (ts >= from && ts <= to) {
+                series.add(List.of(ts, values[slot(i) * channels + channel]));
+            }
+        }
+        return series;
+    }
+
+    /**
+     * 计数器每秒速率序列，计数器重置的点被跳过
+     */
+    public synchronized List<List<Object>> rateSeries(int channel, long from, long to) {
+        List<List<Object>> series = new ArrayList<>();
+        for (int i = 1; i < size; i++) {
+            long ts = timestamps[slot(i)];
+            if (ts >= from && ts <= to) {
+                double rate = rate(i, channel);
+                if (!Double.isNaN(rate)) {
+                    series.add(List.of(ts, rate));
+                }
+            }
+        }
+        return series;
+    }
+
+    /**
+     * 两个计数器增量之比的序列（例如 Δ耗时 / Δ次数 = 平均延迟），分母无增长的点被跳过
+     */
+    public synchronized List<List<Object>> ratioSeries(int numerator, int denominator, long from, long to) {
+        List<List<Object>> series = new ArrayList<>();
+        for (int i = 1; i < size; i++) {
+            long ts = timestamps[slot(i)];
+            if (ts >= from && ts <= to) {
+                double num = values[slot(i) * channels + numerator] - values[slot(i - 1) * channels + numerator];
+                double den = values[slot(i) * channels + denominator]
+                        - values[slot(i - 1) * channels + denominator];
+                if (den > 0 && num >= 0) {
+                    series.add(List.of(ts, num / den));
+                }
+            }
+        }
+        return series;
+    }
+
+    private double rate(int index, int channel) {
+        int current = slot(index);
+        int previous = slot(index - 1);
+        long elapsedMs = timestamps[current] - timestamps[previous];
+        double delta = values[current * channels + channel] - values[previous * channels + channel];
+        if (elapsedMs <= 0 || delta < 0) {
+            return Double.NaN;
+        }
+        return delta * 1000.0 / elapsedMs;
+    }
+
+    /**
+     * 逻辑下标（0 为最旧）转换为数组槽位
+     */
+    private int slot(int index) {
+        return (head - size + index + capacity) % capacity;
+    }
+}
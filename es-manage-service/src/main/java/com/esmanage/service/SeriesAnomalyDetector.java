@@ -0,0 +1,294 @@
+package com.esmanage.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 流式时序异常检测器
+ * 每条序列（实体 + 指标）一个稠密 ID，状态全部保存在按 ID 下标的基本类型数组中，每个样本 O(1) 更新：
+ * <ul>
+ *   <li>EWMA 均值与方差，得分为样本相对均值的 z-score</li>
+ *   <li>Holt-Winters 加法模型（水平、趋势、按时刻分桶的季节项），得分为残差相对残差 EWMA 标准差的 z-score</li>
+ * </ul>
+ * 当前季节桶已有历史时采用 Holt-Winters 得分，高峰期的周期性上涨不会被判为异常；否则退回 EWMA 得分。
+ * 只接受时间戳大于上次样本的点，更早的样本计入乱序计数后丢弃；调用方应按来源与采样间隔区分序列。
+ * 序列数达到上限后，新序列复用最久未访问序列的 ID（该序列的状态清空）。
+ * 非线程安全，由调用方同步。
+ */
+public class SeriesAnomalyDetector {
+
+    /** 得分上限，避免平稳序列突变时得到无穷大 */
+    private static final double MAX_SCORE = 100;
+
+    private final double ewmaAlpha;
+    private final double hwAlpha;
+    private final double hwBeta;
+    private final double hwGamma;
+    private final long bucketMs;
+    private final int seasonBuckets;
+    private final int warmupSamples;
+    private final int historySize;
+    private final int maxSeries;
+
+    private final Map<String, Integer> idByKey = new HashMap<>();
+    private int seriesCount = 0;
+    private long sampleCount = 0;
+    private long outOfOrderCount = 0;
+    private long evictedCount = 0;
+    /** 访问计数器，用于淘汰最久未访问的序列 */
+    private long accessClock = 0;
+
+    private String[] keys = new String[16];
+    private long[] lastAccess = new long[16];
+    private long[] samples = new long[16];
+    private long[] lastTimestamp = new long[16];
+    private double[] mean = new double[16];
+    private double[] variance = new double[16];
+    private double[] level = new double[16];
+    private double[] trend = new double[16];
+    private double[] residualVariance = new double[16];
+    private double[] lastScore = new double[16];
+    /** 季节项，每条序列 seasonBuckets 个 */
+    private double[] seasonal;
+    private boolean[] seasonalSeen;
+    /** 得分历史环形缓冲，每条序列 historySize 个 */
+    private long[] historyTimestamp;
+    private double[] historyScore;
+    private int[] historyHead = new int[16];
+    private int[] historyCount = new int[16];
+
+    /**
+     * @param seasonMs      季节周期（毫秒）
+     * @param seasonBuckets 每个周期的季节桶数
+     */
+    public SeriesAnomalyDetector(double ewmaAlpha, double hwAlpha, double hwBeta, double hwGamma,
+                                 long seasonMs, int seasonBuckets, int warmupSamples, int historySize,
+                                 int maxSeries) {
+        this.ewmaAlpha = ewmaAlpha;
+        this.hwAlpha = hwAlpha;
+        this.hwBeta = hwBeta;
+        this.hwGamma = hwGamma;
+        this.seasonBuckets = Math.max(1, seasonBuckets);
+        this.bucketMs = Math.max(1, seasonMs / this.seasonBuckets);
+        this.warmupSamples = Math.max(2, warmupSamples);
+        this.historySize = Math.max(1, historySize);
+        this.maxSeries = maxSeries;
+        this.seasonal = new double[16 * this.seasonBuckets];
+        this.seasonalSeen = new boolean[16 * this.seasonBuckets];
+        this.historyTimestamp = new long[16 * this.historySize];
+        this.historyScore = new double[16 * this.historySize];
+    }
+
+    /**
+     * 获取序列 ID，不存在时创建；序列数达到上限时淘汰最久未访问的序列，上限不大于 0 时返回 -1
+     */
+    public int seriesId(String key) {
+        Integer id = idByKey.get(key);
+        if (id != null) {
+            lastAccess[id] = ++accessClock;
+            return id;
+        }
+        if (maxSeries <= 0) {
+            return -1;
+        }
+        int created;
+        if (seriesCount >= maxSeries) {
+            created = leastRecentlyUsed();
+            idByKey.remove(keys[created]);
+            reset(created);
+            evictedCount++;
+        } else {
+            if (seriesCount == samples.length) {
+                grow(seriesCount * 2);
+            }
+            created = seriesCount++;
+        }
+        lastTimestamp[created] = Long.MIN_VALUE;
+        keys[created] = key;
+        lastAccess[created] = ++accessClock;
+        idByKey.put(key, created);
+        return created;
+    }
+
+    /**
+     * 查找已有序列 ID，不存在返回 -1
+     */
+    public int findSeries(String key) {
+        Integer id = idByKey.get(key);
+        if (id == null) {
+            return -1;
+        }
+        lastAccess[id] = ++accessClock;
+        return id;
+    }
+
+    private int leastRecentlyUsed() {
+        int oldest = 0;
+        for (int i = 1; i < seriesCount; i++) {
+            if (lastAccess[i] < lastAccess[oldest]) {
+                oldest = i;
+            }
+        }
+        return oldest;
+    }
+
+    /**
+     * 清空序列状态，供新序列复用
+     */
+    private void reset(int series) {
+        samples[series] = 0;
+        mean[series] = 0;
+        variance[series] = 0;
+        level[series] = 0;
+        trend[series] = 0;
+        residualVariance[series] = 0;
+        lastScore[series] = 0;
+        Arrays.fill(seasonal, series * seasonBuckets, (series + 1) * seasonBuckets, 0);
+        Arrays.fill(seasonalSeen, series * seasonBuckets, (series + 1) * seasonBuckets, false);
+        historyHead[series] = 0;
+        historyCount[series] = 0;
+    }
+
+    /**
+     * 输入一个样本，返回其异常得分；样本不晚于上次样本时计入乱序数并返回 NaN，预热期内得分为 0
+     */
+    public double observe(int series, long timestamp, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return Double.NaN;
+        }
+        if (timestamp <= lastTimestamp[series]) {
+            outOfOrderCount++;
+            return Double.NaN;
+        }
+        lastTimestamp[series] = timestamp;
+        long n = samples[series]++;
+        sampleCount++;
+
+        int seasonIndex = series * seasonBuckets + (int) Math.floorMod(timestamp / bucketMs, (long) seasonBuckets);
+        double score = 0;
+        if (n == 0) {
+            mean[series] = value;
+            variance[series] = 0;
+            level[series] = value;
+            trend[series] = 0;
+            residualVariance[series] = 0;
+            seasonal[seasonIndex] = 0;
+            seasonalSeen[seasonIndex] = true;
+        } else {
+            // EWMA 均值与方差
+            double deviation = value - mean[series];
+            double ewmaScore = zScore(deviation, variance[series], mean[series]);
+            mean[series] += ewmaAlpha * deviation;
+            variance[series] = (1 - ewmaAlpha) * (variance[series] + ewmaAlpha * deviation * deviation);
+
+            // Holt-Winters 一步预测与残差
+            boolean seen = seasonalSeen[seasonIndex];
+            double season = seen ? seasonal[seasonIndex] : 0;
+            double residual = value - (level[series] + trend[series] + season);
+            double hwScore = zScore(residual, residualVariance[series], level[series]);
+            residualVariance[series] = (1 - ewmaAlpha) * residualVariance[series] + ewmaAlpha * residual * residual;
+
+            double previousLevel = level[series];
+            level[series] = hwAlpha * (value - season) + (1 - hwAlpha) * (previousLevel + trend[series]);
+            trend[series] = hwBeta * (level[series] - previousLevel) + (1 - hwBeta) * trend[series];
+            seasonal[seasonIndex] = seen
+                    ? hwGamma * (value - level[series]) + (1 - hwGamma) * season
+                    : value - level[series];
+            seasonalSeen[seasonIndex] = true;
+
+            if (n >= warmupSamples) {
+                score = seen ? hwScore : ewmaScore;
+            }
+        }
+
+        lastScore[series] = score;
+        int slot = series * historySize + historyHead[series];
+        historyTimestamp[slot] = timestamp;
+        historyScore[slot] = score;
+        historyHead[series] = (historyHead[series] + 1) % historySize;
+        if (historyCount[series] < historySize) {
+            historyCount[series]++;
+        }
+        return score;
+    }
+
+    /**
+     * 最新样本的时间戳，无样本返回 Long.MIN_VALUE
+     */
+    public long lastTimestamp(int series) {
+        return lastTimestamp[series];
+    }
+
+    /**
+     * 最新得分，无样本或仍在预热期返回 NaN
+     */
+    public double lastScore(int series) {
+        return series >= 0 && samples[series] > warmupSamples ? lastScore[series] : Double.NaN;
+    }
+
+    /**
+     * 时间范围内（含边界）的历史得分，按时间正序返回 [timestamp, score] 对
+     */
+    public List<double[]> scores(int series, long from, long to) {
+        List<double[]> result = new ArrayList<>();
+        int count = historyCount[series];
+        int start = (historyHead[series] - count + historySize) % historySize;
+        for (int i = 0; i < count; i++) {
+            int slot = series * historySize + (start + i) % historySize;
+            long timestamp = historyTimestamp[slot];
+            if (timestamp >= from && timestamp <= to) {
+                result.add(new double[]{timestamp, historyScore[slot]});
+            }
+        }
+        return result;
+    }
+
+    public int getSeriesCount() {
+        return seriesCount;
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public long getOutOfOrderCount() {
+        return outOfOrderCount;
+    }
+
+    /**
+     * 因序列数达到上限被淘汰的序列数
+     */
+    public long getEvictedCount() {
+        return evictedCount;
+    }
+
+    /**
+     * 标准差设相对下限，平稳序列上的突变得到有限的大得分
+     */
+    private static double zScore(double deviation, double variance, double scale) {
+        double stdDev = Math.max(Math.sqrt(variance), 1e-3 * Math.abs(scale) + 1e-9);
+        return Math.max(-MAX_SCORE, Math.min(MAX_SCORE, deviation / stdDev));
+    }
+
+    private void grow(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+        lastAccess = Arrays.copyOf(lastAccess, capacity);
+        samples = Arrays.copyOf(samples, capacity);
+        lastTimestamp = Arrays.copyOf(lastTimestamp, capacity);
+        mean = Arrays.copyOf(mean, capacity);
+        variance = Arrays.copyOf(variance, capacity);
+        level = Arrays.copyOf(level, capacity);
+        trend = Arrays.copyOf(trend, capacity);
+        residualVariance = Arrays.copyOf(residualVariance, capacity);
+        lastScore = Arrays.copyOf(lastScore, capacity);
+        seasonal = Arrays.copyOf(seasonal, capacity * seasonBuckets);
+        seasonalSeen = Arrays.copyOf(seasonalSeen, capacity * seasonBuckets);
+        historyTimestamp = Arrays.copyOf(historyTimestamp, capacity * historySize);
+        historyScore = Arrays.copyOf(historyScore, capacity * historySize);
+        historyHead = Arrays.copyOf(historyHead, capacity);
+        historyCount = Arrays.copyOf(historyCount, capacity);
+    }
+}
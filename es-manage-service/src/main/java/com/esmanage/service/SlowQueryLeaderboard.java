@@ -0,0 +1,114 @@
+package com.esmanage.service;
+
+import com.esmanage.config.DevToolsConfig;
+import com.esmanage.dto.QueryProfileDTO;
+import com.esmanage.dto.SlowQueryDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 慢查询排行榜
+ * 以耗时为键的有界小顶堆保存经服务执行的最慢查询，新查询只需与堆顶（当前最快的一条）比较；
+ * 性能剖析结果随记录保存，记录被挤出排行榜时一并释放
+ */
+@Component
+@RequiredArgsConstructor
+public class SlowQueryLeaderboard {
+
+    private final DevToolsConfig devToolsConfig;
+
+    private final PriorityQueue<SlowQueryDTO> heap = new PriorityQueue<>(
+            Comparator.comparingLong(SlowQueryDTO::getTookMs));
+    private final Map<String, SlowQueryDTO> entries = new HashMap<>();
+    private final Map<String, QueryProfileDTO> profiles = new HashMap<>();
+
+    private long offered = 0;
+    private long admitted = 0;
+
+    /**
+     * 提交一条查询，耗时不足阈值或不慢于排行榜中最快的一条时丢弃
+     *
+     * @param profile 性能剖析结果，可为 null
+     * @return 是否进入排行榜
+     */
+    public synchronized boolean offer(SlowQueryDTO query, QueryProfileDTO profile) {
+        offered++;
+        if (query.getTookMs() == null || query.getTookMs() < devToolsConfig.getLeaderboardMinTookMs()) {
+            return false;
+        }
+        if (heap.size() >= devToolsConfig.getLeaderboardSize()) {
+            SlowQueryDTO fastest = heap.peek();
+            if (fastest == null || fastest.getTookMs() >= query.getTookMs()) {
+                return false;
+            }
+            heap.poll();
+            entries.remove(fastest.getId());
+            profiles.remove(fastest.getId());
+        }
+        query.setProfiled(profile != null);
+        heap.add(query);
+        entries.put(query.getId(), query);
+        if (profile != null) {
+            profiles.put(query.getId(), profile);
+        }
+        admitted++;
+        return true;
+    }
+
+    /**
+     * 按耗时倒序列出排行榜
+     *
+     * @param source 来源过滤，为空不过滤
+     */
+    public synchronized List<SlowQueryDTO> getTop(String source) {
+        List<SlowQueryDTO> result = new ArrayList<>();
+        for (SlowQueryDTO entry : heap) {
+            if (source == null || source.equals(entry.getSource())) {
+                result.add(entry);
+            }
+        }
+        result.sort(Comparator.comparingLong(SlowQueryDTO::getTookMs).reversed());
+        return result;
+    }
+
+    /**
+     * 获取排行榜记录
+     */
+    public synchronized SlowQueryDTO get(String id) {
+        return entries.get(id);
+    }
+
+    /**
+     * 获取排行榜记录的性能剖析结果
+     */
+    public synchronized QueryProfileDTO getProfile(String id) {
+        return profiles.get(id);
+    }
+
+    /**
+     * 清空排行榜
+     */
+    public synchronized void clear() {
+        heap.clear();
+        entries.clear();
+        profiles.clear();
+    }
+
+    /**
+     * 排行榜统计
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", heap.size());
+        stats.put("capacity", devToolsConfig.getLeaderboardSize());
+        stats.put("minTookMs", devToolsConfig.getLeaderboardMinTookMs());
+        stats.put("thresholdMs", heap.size() >= devToolsConfig.getLeaderboardSize() && !heap.isEmpty()
+                ? heap.peek().getTookMs() : devToolsConfig.getLeaderboardMinTookMs());
+        stats.put("offered", offered);
+        stats.put("admitted", admitted);
+        stats.put("profiles", profiles.size());
+        return stats;
+    }
+}
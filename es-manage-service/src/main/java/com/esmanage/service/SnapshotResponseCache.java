@@ -0,0 +1,232 @@
+package com.esmanage.service;
+
+import com.esmanage.config.MonitorConfig;
+import com.esmanage.metrics.MetricsRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 响应快照缓存
+ * 热点接口的响应在有效期内只序列化一次，缓存编码后的字节（原文与 gzip 两份）直接写入输出流；
+ * 内容不变时快照版本不变，强 ETag 由版本号生成，客户端携带 If-None-Match 命中时返回 304。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SnapshotResponseCache {
+
+    private final ObjectMapper objectMapper;
+    private final MonitorConfig monitorConfig;
+    private final MetricsRegistry metricsRegistry;
+
+    /** 全局递增的快照版本号，保证不同接口、不同内容的 ETag 互不相同 */
+    private final AtomicLong versionSequence = new AtomicLong(System.currentTimeMillis());
+
+    /** 缓存键 -> 快照（按最近访问淘汰） */
+    private final Map<String, Snapshot> snapshots = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Snapshot> eldest) {
+            return size() > monitorConfig.getResponseCache().getMaxEntries();
+        }
+    };
+
+    /** 缓存键 -> 加载锁，同一键同时只有一个请求回源 */
+    private final Map<String, Object> loadLocks = new ConcurrentHashMap<>();
+
+    @Getter
+    private final AtomicLong hitCount = new AtomicLong(0);
+
+    @Getter
+    private final AtomicLong missCount = new AtomicLong(0);
+
+    @Getter
+    private final AtomicLong notModifiedCount = new AtomicLong(0);
+
+    @PostConstruct
+    public void init() {
+        metricsRegistry.registerCache("response", hitCount::get, missCount::get, this::size);
+    }
+
+    /**
+     * 数据加载器
+     */
+    @FunctionalInterface
+    public interface Loader {
+        Object load() throws IOException;
+    }
+
+    /**
+     * 编码后的响应快照
+     */
+    @Getter
+    public static class Snapshot {
+        private final long version;
+        private final long createdAt;
+        private final byte[] plain;
+        private final byte[] gzip;
+        private final String etag;
+        private final String gzipEtag;
+
+        Snapshot(long version, long createdAt, byte[] plain, byte[] gzip) {
+            this.version = version;
+            this.createdAt = createdAt;
+            this.plain = plain;
+            this.gzip = gzip;
+            this.etag = "\"" + Long.toHexString(version) + "\"";
+            // 不同内容编码的字节不同，强 ETag 也要区分
+            this.gzipEtag = "\"" + Long.toHexString(version) + "-gz\"";
+        }
+
+        Snapshot refreshed(long now) {
+            return new Snapshot(version, now, plain, gzip);
+        }
+    }
+
+    /**
+     * 从缓存返回响应；快照过期时回源并重新编码
+     *
+     * @param key      缓存键（接口路径 + 参数）
+     * @param request  请求，用于读取 If-None-Match 与 Accept-Encoding
+     * @param response 响应
+     * @param loader   数据加载器
+     */
+    public void write(String key, HttpServletRequest request, HttpServletResponse response, Loader loader)
+            throws IOException {
+        Snapshot snapshot = monitorConfig.getResponseCache().isEnabled()
+                ? getSnapshot(key, loader)
+                : encode(loader.load(), null);
+
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? snapshot.getGzipEtag() : snapshot.getEtag();
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), snapshot)) {
+            notModifiedCount.incrementAndGet();
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] body = gzip ? snapshot.getGzip() : snapshot.getPlain();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        OutputStream out = response.getOutputStream();
+        out.write(body);
+        out.flush();
+    }
+
+    /**
+     * 获取快照，过期时回源
+     */
+    public Snapshot getSnapshot(String key, Loader loader) throws IOException {
+        long ttl = monitorConfig.getResponseCache().getTtlMs();
+        Snapshot current = lookup(key);
+        if (current != null && System.currentTimeMillis() - current.getCreatedAt() < ttl) {
+            hitCount.incrementAndGet();
+            return current;
+        }
+
+        Object lock = loadLocks.computeIfAbsent(key, k -> new Object());
+        try {
+            synchronized (lock) {
+                return load(key, loader, ttl);
+            }
+        } finally {
+            loadLocks.remove(key, lock);
+        }
+    }
+
+    private Snapshot load(String key, Loader loader, long ttl) throws IOException {
+        // 等锁期间可能已被其他请求刷新
+        Snapshot current = lookup(key);
+        if (current != null && System.currentTimeMillis() - current.getCreatedAt() < ttl) {
+            hitCount.incrementAndGet();
+            return current;
+        }
+        missCount.incrementAndGet();
+        Snapshot snapshot = encode(loader.load(), current);
+        synchronized (snapshots) {
+            snapshots.put(key, snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * 当前缓存的快照数
+     */
+    public int size() {
+        synchronized (snapshots) {
+            return snapshots.size();
+        }
+    }
+
+    private Snapshot lookup(String key) {
+        synchronized (snapshots) {
+            return snapshots.get(key);
+        }
+    }
+
+    /**
+     * 序列化并压缩；内容与上一版本相同时沿用原版本号和已压缩的字节
+     */
+    private Snapshot encode(Object value, Snapshot previous) throws IOException {
+        byte[] plain = objectMapper.writeValueAsBytes(value);
+        long now = System.currentTimeMillis();
+        if (previous != null && Arrays.equals(plain, previous.getPlain())) {
+            return previous.refreshed(now);
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, plain.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(plain);
+        }
+        return new Snapshot(versionSequence.incrementAndGet(), now, plain, buffer.toByteArray());
+    }
+
+    private boolean acceptsGzip(String acceptEncoding) {
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    /**
+     * If-None-Match 是否命中当前快照（任一内容编码的 ETag 均视为命中）
+     */
+    private boolean matches(String ifNoneMatch, Snapshot snapshot) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if ("*".equals(trimmed) || trimmed.equals(snapshot.getEtag()) || trimmed.equals(snapshot.getGzipEtag())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,496 @@
+package com.esmanage.service;
+
+import com.esmanage.client.ElasticsearchClient;
+import com.esmanage.client.JsonStreams;
+import com.esmanage.config.MonitorConfig;
+import com.esmanage.dto.TaskProgressDTO;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.RequestBody;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+/**
+ * 长时间运行任务进度跟踪
+ * 每个周期只发一次 _tasks 请求（按 action 过滤、group_by=none）覆盖全部跟踪中的任务，
+ * 由相邻快照的已处理文档数差分得出吞吐量与预计剩余时间，变化推送给订阅方；
+ * 任务从列表中消失后查询 _tasks/{id} 取最终结果，确认已完成（completed=true 或结果未保存的 404）才移入有界的历史记录，
+ * 查询失败时保留在跟踪中，下个周期重试。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskProgressTracker {
+
+    private static final String TASK_FIELDS = "tasks.node,tasks.id,tasks.action,tasks.description,tasks.status,"
+            + "tasks.start_time_in_millis,tasks.running_time_in_nanos,tasks.cancellable,tasks.parent_task_id";
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final MonitorConfig monitorConfig;
+    private final ObjectMapper objectMapper;
+
+    /** 跟踪中的任务：任务 ID -> 状态，由 this 保护 */
+    private final Map<String, Tracked> active = new LinkedHashMap<>();
+
+    /** 已结束的任务，最新的在前，由 this 保护 */
+    private final Deque<TaskProgressDTO> history = new ArrayDeque<>();
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    /** ES 任务 ID：节点 ID:任务序号 */
+    private static final Pattern TASK_ID_PATTERN = Pattern.compile("[^:/?#]+:\\d+");
+
+    /** 任务结果未保存（_tasks/{id} 返回 404） */
+    private static final JsonNode RESULT_NOT_FOUND = MissingNode.getInstance();
+
+    /**
+     * 订阅方，taskId 为 null 时接收全部任务的更新
+     */
+    private record Subscriber(SseEmitter emitter, String taskId) {
+    }
+
+    /**
+     * _tasks 返回的一个任务
+     */
+    private static class TaskSample {
+        String node;
+        long id;
+        String action;
+        String description;
+        String parentTaskId;
+        boolean cancellable;
+        long startTime;
+        long runningTimeNanos;
+        boolean hasStatus;
+        long total;
+        long created;
+        long updated;
+        long deleted;
+        long noops;
+        long versionConflicts;
+
+        String taskId() {
+            return node + ":" + id;
+        }
+    }
+
+    /**
+     * 跟踪中的任务：上次快照的已处理数与时间用于差分
+     */
+    private static class Tracked {
+        final TaskProgressDTO dto = new TaskProgressDTO();
+        long lastProcessed = -1;
+        long lastSampleAt;
+        double rate = Double.NaN;
+        boolean seen;
+    }
+
+    /**
+     * 定时轮询
+     */
+    @Scheduled(fixedDelayString = "${monitor.tasks.interval-ms:2000}")
+    public void scheduledPoll() {
+        if (!monitorConfig.getTasks().isEnabled() || !elasticsearchClient.isConfigured()) {
+            return;
+        }
+        synchronized (this) {
+            if (active.isEmpty() && !monitorConfig.getTasks().isAutoTrack()) {
+                return;
+            }
+        }
+        try {
+            poll();
+        } catch (Exception e) {
+            log.warn("Task polling failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 轮询一次：更新跟踪中的任务，结束的任务取最终结果后移入历史
+     */
+    public void poll() throws IOException {
+        String path = "/_tasks?detailed=true&group_by=none&actions="
+                + String.join(",", monitorConfig.getTasks().getActions()) + "&filter_path=" + TASK_FIELDS;
+        List<TaskSample> samples = elasticsearchClient.get(path, this::parseTasks);
+        long now = System.currentTimeMillis();
+
+        List<TaskProgressDTO> updated = new ArrayList<>();
+        List<Tracked> missing = new ArrayList<>();
+        synchronized (this) {
+            active.values().forEach(tracked -> tracked.seen = false);
+            for (TaskSample sample : samples) {
+                // 分片（slices）子任务的进度已汇总在父任务中
+                if (sample.parentTaskId != null) {
+                    continue;
+                }
+                Tracked tracked = active.get(sample.taskId());
+                if (tracked == null) {
+                    if (!monitorConfig.getTasks().isAutoTrack()) {
+                        continue;
+                    }
+                    tracked = register(sample.taskId(), null);
+                }
+                tracked.seen = true;
+                update(tracked, sample, now);
+                updated.add(copy(tracked.dto));
+            }
+            for (Tracked tracked : active.values()) {
+                if (!tracked.seen) {
+                    missing.add(tracked);
+                }
+            }
+        }
+
+        for (Tracked tracked : missing) {
+            JsonNode result = fetchResult(tracked.dto.getTaskId());
+            if (result == null) {
+                // 查询失败，保留在跟踪中下个周期重试
+                continue;
+            }
+            if (result != RESULT_NOT_FOUND && !result.path("completed").asBoolean(false)) {
+                // 刚登记、尚未出现在过滤结果中的任务（如 action 不在跟踪范围内）继续等待
+                continue;
+            }
+            TaskProgressDTO finished;
+            synchronized (this) {
+                complete(tracked, result, now);
+                active.remove(tracked.dto.getTaskId());
+                history.addFirst(tracked.dto);
+                while (history.size() > monitorConfig.getTasks().getHistorySize()) {
+                    history.removeLast();
+                }
+                finished = copy(tracked.dto);
+            }
+            log.info("Task {} {} ({} processed)", finished.getTaskId(), finished.getStatus(), finished.getProcessed());
+            publish("done", finished);
+        }
+        for (TaskProgressDTO task : updated) {
+            publish("progress", task);
+        }
+    }
+
+    /**
+     * 显式登记任务（如以 wait_for_completion=false 提交的 reindex），关闭自动跟踪时也会被跟踪
+     */
+    public synchronized TaskProgressDTO track(String taskId, String description) {
+        checkTaskId(taskId);
+        Tracked tracked = active.get(taskId);
+        if (tracked == null) {
+            tracked = register(taskId, description);
+        } else if (description != null) {
+            tracked.dto.setDescription(description);
+        }
+        return copy(tracked.dto);
+    }
+
+    /**
+     * 校验任务 ID 格式（node:id），不合法的 ID 不会拼入请求路径
+     *
+     * @throws IllegalArgumentException 格式不合法
+     */
+    static void checkTaskId(String taskId) {
+        if (taskId == null || !TASK_ID_PATTERN.matcher(taskId).matches()) {
+            throw new IllegalArgumentException("Invalid task id: " + taskId);
+        }
+    }
+
+    /**
+     * 跟踪中的任务与历史记录
+     */
+    public synchronized Map<String, List<TaskProgressDTO>> getTasks() {
+        List<TaskProgressDTO> running = new ArrayList<>(active.size());
+        active.values().forEach(tracked -> running.add(copy(tracked.dto)));
+        List<TaskProgressDTO> finished = new ArrayList<>(history.size());
+        history.forEach(task -> finished.add(copy(task)));
+        Map<String, List<TaskProgressDTO>> result = new LinkedHashMap<>();
+        result.put("active", running);
+        result.put("history", finished);
+        return result;
+    }
+
+    public synchronized TaskProgressDTO getTask(String taskId) {
+        Tracked tracked = active.get(taskId);
+        if (tracked != null) {
+            return copy(tracked.dto);
+        }
+        for (TaskProgressDTO task : history) {
+            if (task.getTaskId().equals(taskId)) {
+                return copy(task);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 请求 ES 取消任务，结果在下一次轮询时反映
+     */
+    public void cancel(String taskId) throws IOException {
+        checkTaskId(taskId);
+        String path = "/_tasks/" + taskId + "/_cancel";
+        elasticsearchClient.execute(elasticsearchClient.newRequest(path)
+                .post(RequestBody.create(new byte[0])).build(), path, parser -> null);
+    }
+
+    /**
+     * 订阅任务进度，taskId 为 null 时订阅全部任务；订阅时先推送当前状态
+     */
+    public SseEmitter subscribe(String taskId) {
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber = new Subscriber(emitter, taskId);
+        List<TaskProgressDTO> current = new ArrayList<>();
+        synchronized (this) {
+            for (Tracked tracked : active.values()) {
+                if (taskId == null || taskId.equals(tracked.dto.getTaskId())) {
+                    current.add(copy(tracked.dto));
+                }
+            }
+        }
+        try {
+            for (TaskProgressDTO task : current) {
+                emitter.send(SseEmitter.event().name("progress").data(task));
+            }
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            return emitter;
+        }
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    /**
+     * 跟踪统计
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("active", active.size());
+        stats.put("history", history.size());
+        stats.put("subscribers", subscribers.size());
+        return stats;
+    }
+
+    private Tracked register(String taskId, String description) {
+        Tracked tracked = new Tracked();
+        tracked.dto.setTaskId(taskId);
+        tracked.dto.setDescription(description);
+        tracked.dto.setStatus("running");
+        tracked.dto.setUpdatedAt(System.currentTimeMillis());
+        active.put(taskId, tracked);
+        return tracked;
+    }
+
+    private void update(Tracked tracked, TaskSample sample, long now) {
+        TaskProgressDTO dto = tracked.dto;
+        dto.setAction(sample.action);
+        if (dto.getDescription() == null) {
+            dto.setDescription(sample.description);
+        }
+        dto.setCancellable(sample.cancellable);
+        dto.setStartTime(sample.startTime);
+        dto.setRunningTimeMs(sample.runningTimeNanos / 1_000_000);
+        dto.setUpdatedAt(now);
+        if (!sample.hasStatus) {
+            return;
+        }
+        long processed = sample.created + sample.updated + sample.deleted + sample.noops + sample.versionConflicts;
+        applyCounts(dto, sample.total, processed, sample.created, sample.updated, sample.deleted,
+                sample.versionConflicts);
+
+        if (tracked.lastProcessed >= 0 && now > tracked.lastSampleAt) {
+            double instant = Math.max(0, processed - tracked.lastProcessed) * 1000.0 / (now - tracked.lastSampleAt);
+            double alpha = monitorConfig.getTasks().getRateAlpha();
+            tracked.rate = Double.isNaN(tracked.rate) ? instant : alpha * instant + (1 - alpha) * tracked.rate;
+        } else if (sample.runningTimeNanos > 0 && processed > 0) {
+            // 首次看到任务时以平均速率作为初值
+            tracked.rate = processed * 1e9 / sample.runningTimeNanos;
+        }
+        tracked.lastProcessed = processed;
+        tracked.lastSampleAt = now;
+        if (!Double.isNaN(tracked.rate)) {
+            dto.setDocsPerSec(Math.round(tracked.rate * 10) / 10.0);
+            long remaining = sample.total - processed;
+            if (remaining <= 0) {
+                dto.setEtaSeconds(0L);
+            } else {
+                dto.setEtaSeconds(tracked.rate > 0 ? Long.valueOf((long) Math.ceil(remaining / tracked.rate)) : null);
+            }
+        }
+    }
+
+    private void applyCounts(TaskProgressDTO dto, long total, long processed, long created, long updated,
+                             long deleted, long versionConflicts) {
+        dto.setTotal(total);
+        dto.setProcessed(processed);
+        dto.setCreated(created);
+        dto.setUpdated(updated);
+        dto.setDeleted(deleted);
+        dto.setVersionConflicts(versionConflicts);
+        dto.setProgress(total > 0 ? Math.round(Math.min(processed, total) * 1000.0 / total) / 10.0 : null);
+    }
+
+    /**
+     * 以 _tasks/{id} 的最终结果结束任务；结果未保存（404）时按已完成处理
+     */
+    private void complete(Tracked tracked, JsonNode result, long now) {
+        TaskProgressDTO dto = tracked.dto;
+        dto.setCompletedAt(now);
+        dto.setUpdatedAt(now);
+        dto.setEtaSeconds(null);
+        dto.setStatus("completed");
+        if (result == RESULT_NOT_FOUND) {
+            return;
+        }
+        JsonNode response = result.path("response");
+        JsonNode status = result.path("task").path("status");
+        JsonNode counts = response.isObject() ? response : status;
+        if (counts.has("total")) {
+            long processed = counts.path("created").asLong() + counts.path("updated").asLong()
+                    + counts.path("deleted").asLong() + counts.path("noops").asLong()
+                    + counts.path("version_conflicts").asLong();
+            applyCounts(dto, counts.path("total").asLong(), processed, counts.path("created").asLong(),
+                    counts.path("updated").asLong(), counts.path("deleted").asLong(),
+                    counts.path("version_conflicts").asLong());
+        }
+        if (result.has("task") && result.path("task").has("running_time_in_nanos")) {
+            dto.setRunningTimeMs(result.path("task").path("running_time_in_nanos").asLong() / 1_000_000);
+        }
+        if (result.has("error")) {
+            dto.setStatus("failed");
+            dto.setError(result.path("error").path("reason").asText(result.path("error").toString()));
+        } else if (response.hasNonNull("canceled") || status.hasNonNull("canceled")) {
+            dto.setStatus("cancelled");
+            dto.setError(response.path("canceled").asText(status.path("canceled").asText()));
+        } else if (response.path("failures").size() > 0) {
+            dto.setStatus("failed");
+            dto.setError(response.path("failures").get(0).path("cause").path("reason")
+                    .asText(response.path("failures").get(0).toString()));
+        }
+    }
+
+    /**
+     * 查询任务结果，结果未保存返回 RESULT_NOT_FOUND，查询失败返回 null
+     */
+    private JsonNode fetchResult(String taskId) {
+        try {
+            return elasticsearchClient.get("/_tasks/" + taskId, parser -> objectMapper.<JsonNode>readTree(parser));
+        } catch (ElasticsearchClient.ResponseException e) {
+            if (e.getStatusCode() == 404) {
+                return RESULT_NOT_FOUND;
+            }
+            log.warn("Failed to fetch result of task {}: {}", taskId, e.getMessage());
+            return null;
+        } catch (IOException e) {
+            log.warn("Failed to fetch result of task {}: {}", taskId, e.getMessage());
+            return null;
+        }
+    }
+
+    private void publish(String event, TaskProgressDTO task) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.taskId() != null && !subscriber.taskId().equals(task.getTaskId())) {
+                continue;
+            }
+            try {
+                subscriber.emitter().send(SseEmitter.event().name(event).data(task));
+                if ("done".equals(event) && subscriber.taskId() != null) {
+                    subscriber.emitter().complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(subscriber);
+            }
+        }
+    }
+
+    private TaskProgressDTO copy(TaskProgressDTO task) {
+        return objectMapper.convertValue(task, TaskProgressDTO.class);
+    }
+
+    private List<TaskSample> parseTasks(JsonParser parser) throws IOException {
+        List<TaskSample> samples = new ArrayList<>();
+        JsonStreams.readObject(parser, (field, p) -> {
+            if (!"tasks".equals(field)) {
+                return false;
+            }
+            JsonStreams.readArray(p, element -> {
+                TaskSample sample = new TaskSample();
+                JsonStreams.readObject(element, (name, value) -> parseTaskField(sample, name, value));
+                if (sample.node != null) {
+                    samples.add(sample);
+                }
+            });
+            return true;
+        });
+        return samples;
+    }
+
+    private boolean parseTaskField(TaskSample sample, String field, JsonParser parser) throws IOException {
+        switch (field) {
+            case "node":
+                sample.node = JsonStreams.text(parser);
+                return true;
+            case "id":
+                sample.id = JsonStreams.longValue(parser);
+                return true;
+            case "action":
+                sample.action = JsonStreams.text(parser);
+                return true;
+            case "description":
+                sample.description = JsonStreams.text(parser);
+                return true;
+            case "parent_task_id":
+                sample.parentTaskId = JsonStreams.text(parser);
+                return true;
+            case "cancellable":
+                sample.cancellable = parser.getValueAsBoolean();
+                return true;
+            case "start_time_in_millis":
+                sample.startTime = JsonStreams.longValue(parser);
+                return true;
+            case "running_time_in_nanos":
+                sample.runningTimeNanos = JsonStreams.longValue(parser);
+                return true;
+            case "status":
+                JsonStreams.readObject(parser, (name, value) -> parseStatusField(sample, name, value));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private boolean parseStatusField(TaskSample sample, String field, JsonParser parser) throws IOException {
+        switch (field) {
+            case "total":
+                sample.hasStatus = true;
+                sample.total = JsonStreams.longValue(parser);
+                return true;
+            case "created":
+                sample.created = JsonStreams.longValue(parser);
+                return true;
+            case "updated":
+                sample.updated = JsonStreams.longValue(parser);
+                return true;
+            case "deleted":
+                sample.deleted = JsonStreams.longValue(parser);
+                return true;
+            case "noops":
+                sample.noops = JsonStreams.longValue(parser);
+                return true;
+            case "version_conflicts":
+                sample.versionConflicts = JsonStreams.longValue(parser);
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.esmanage.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 增量线性趋势拟合
+ * 每条序列一个稠密 ID，保存指数加权最小二乘的五个累加量（Σw、Σwt、Σwy、Σwt²、Σwty），每个样本 O(1) 更新；
+ * 累加量按样本间隔以半衰期衰减，近期样本权重更高。残差超过 k 倍残差标准差的样本按 Huber 权重降权，
+ * 堆内存回收造成的锯齿与偶发的磁盘清理不会把趋势拉偏。时间以小时计，斜率单位为「值/小时」。
+ * 非线程安全，由调用方同步。
+ */
+public class TrendForecaster {
+
+    private static final double HOUR_MS = 3600_000.0;
+
+    private final double halfLifeHours;
+    private final long minIntervalMs;
+    private final double huberK;
+    private final int maxSeries;
+
+    private final Map<String, Integer> idByKey = new HashMap<>();
+    private int seriesCount = 0;
+
+    private long[] origin = new long[16];
+    private long[] lastTimestamp = new long[16];
+    private int[] samples = new int[16];
+    private double[] sumW = new double[16];
+    private double[] sumWT = new double[16];
+    private double[] sumWY = new double[16];
+    private double[] sumWTT = new double[16];
+    private double[] sumWTY = new double[16];
+    private double[] residualVariance = new double[16];
+
+    public TrendForecaster(long halfLifeMs, long minIntervalMs, double huberK, int maxSeries) {
+        this.halfLifeHours = Math.max(1, halfLifeMs) / HOUR_MS;
+        this.minIntervalMs = minIntervalMs;
+        this.huberK = huberK;
+        this.maxSeries = maxSeries;
+    }
+
+    /**
+     * 获取序列 ID，不存在时创建；序列数达到上限返回 -1
+     */
+    public int seriesId(String key) {
+        Integer id = idByKey.get(key);
+        if (id != null) {
+            return id;
+        }
+        if (seriesCount >= maxSeries) {
+            return -1;
+        }
+        if (seriesCount == samples.length) {
+            grow(seriesCount * 2);
+        }
+        idByKey.put(key, seriesCount);
+        return seriesCount++;
+    }
+
+    /**
+     * 查找已有序列 ID，不存在返回 -1
+     */
+    public int findSeries(String key) {
+        Integer id = idByKey.get(key);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * 输入一个样本；距上次样本不足最小间隔时忽略，返回是否被采纳
+     */
+    public boolean observe(int series, long timestamp, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return false;
+        }
+        if (samples[series] == 0) {
+            origin[series] = timestamp;
+        } else if (timestamp - lastTimestamp[series] < minIntervalMs) {
+            return false;
+        }
+
+        double t = (timestamp - origin[series]) / HOUR_MS;
+        double weight = 1;
+        if (samples[series] >= 2) {
+            double residual = value - fittedAt(series, t);
+            double sigma = Math.sqrt(residualVariance[series]);
+            if (samples[series] >= 5 && sigma > 0 && Math.abs(residual) > huberK * sigma) {
+                weight = huberK * sigma / Math.abs(residual);
+            }
+            double clipped = samples[series] >= 5 && sigma > 0
+                    ? Math.max(-huberK * sigma, Math.min(huberK * sigma, residual)) : residual;
+            residualVariance[series] = 0.9 * residualVariance[series] + 0.1 * clipped * clipped;
+        }
+
+        if (samples[series] > 0) {
+            double elapsed = (timestamp - lastTimestamp[series]) / HOUR_MS;
+            double decay = Math.pow(0.5, elapsed / halfLifeHours);
+            sumW[series] *= decay;
+            sumWT[series] *= decay;
+            sumWY[series] *= decay;
+            sumWTT[series] *= decay;
+            sumWTY[series] *= decay;
+        }
+        sumW[series] += weight;
+        sumWT[series] += weight * t;
+        sumWY[series] += weight * value;
+        sumWTT[series] += weight * t * t;
+        sumWTY[series] += weight * t * value;
+        lastTimestamp[series] = timestamp;
+        samples[series]++;
+        return true;
+    }
+
+    /**
+     * 斜率（值/小时），样本不足两个或时间跨度为 0 时返回 0
+     */
+    public double slope(int series) {
+        double denominator = sumW[series] * sumWTT[series] - sumWT[series] * sumWT[series];
+        if (samples[series] < 2 || Math.abs(denominator) < 1e-12) {
+            return 0;
+        }
+        return (sumW[series] * sumWTY[series] - sumWT[series] * sumWY[series]) / denominator;
+    }
+
+    /**
+     * 最新样本时刻的拟合值
+     */
+    public double fitted(int series) {
+        return fittedAt(series, (lastTimestamp[series] - origin[series]) / HOUR_MS);
+    }
+
+    /**
+     * 拟合值到达阈值还需的小时数；已到达返回 0，不朝阈值方向变化返回 +∞
+     *
+     * @param rising true 表示值上升到阈值（如堆使用率），false 表示下降到阈值（如可用空间）
+     */
+    public double hoursUntil(int series, double threshold, boolean rising) {
+        double current = fitted(series);
+        double slope = slope(series);
+        if (rising ? current >= threshold : current <= threshold) {
+            return 0;
+        }
+        if (rising ? slope <= 0 : slope >= 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return (threshold - current) / slope;
+    }
+
+    public int samples(int series) {
+        return samples[series];
+    }
+
+    public long lastTimestamp(int series) {
+        return lastTimestamp[series];
+    }
+
+    public int getSeriesCount() {
+        return seriesCount;
+    }
+
+    private double fittedAt(int series, double t) {
+        if (sumW[series] <= 0) {
+            return 0;
+        }
+        double slope = slope(series);
+        double meanT = sumWT[series] / sumW[series];
+        double meanY = sumWY[series] / sumW[series];
+        return meanY + slope * (t - meanT);
+    }
+
+    private void grow(int capacity) {
+        origin = Arrays.copyOf(origin, capacity);
+        lastTimestamp = Arrays.copyOf(lastTimestamp, capacity);
+        samples = Arrays.copyOf(samples, capacity);
+        sumW = Arrays.copyOf(sumW, capacity);
+        sumWT = Arrays.copyOf(sumWT, capacity);
+        sumWY = Arrays.copyOf(sumWY, capacity);
+        sumWTT = Arrays.copyOf(sumWTT, capacity);
+        sumWTY = Arrays.copyOf(sumWTY, capacity);
+        residualVariance = Arrays.copyOf(residualVariance, capacity);
+    }
+}
@@ -0,0 +1,472 @@
+package com.esmanage.service.alert;
+
+import com.esmanage.dto.AlertRecordDTO;
+import com.esmanage.dto.AlertRuleDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 告警规则评估引擎
+ * 规则按指标类型编入索引，每个样本只与引用该指标的规则比较；
+ * 实体（集群、节点、索引）映射为稠密整数 ID，每条规则的 (规则, 实体) 状态保存在按实体 ID 下标的基本类型数组中，
+ * 用于实现“持续 N 秒”条件与冷却时间。批次评估产生的触发、恢复事件在批次结束后统一通知监听器。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AlertEngine {
+
+    private static final AlertMetric[] METRICS = AlertMetric.values();
+    private static final CompiledRule[] NO_RULES = new CompiledRule[0];
+
+    private final AlertRuleService ruleService;
+    private final ObjectProvider<AlertEventListener> listeners;
+
+    /** 每类实体一套名称 -> 稠密 ID 映射 */
+    private final EntityRegistry[] registries = {new EntityRegistry(), new EntityRegistry(), new EntityRegistry()};
+
+    /** 指标序号 -> 引用该指标的已启用规则 */
+    private CompiledRule[][] rulesByMetric = emptyIndex();
+
+    /** 规则 ID -> 编译后的规则（含状态） */
+    private Map<String, CompiledRule> compiledRules = new HashMap<>();
+
+    private long compiledVersion = -1;
+
+    /** 待发布的事件（规则变更产生的恢复事件在下一批次一起发布） */
+    private final List<AlertRecordDTO> pendingEvents = new ArrayList<>();
+
+    // 统计
+    private final AtomicLong batchCount = new AtomicLong(0);
+    private final AtomicLong sampleCount = new AtomicLong(0);
+    private final AtomicLong evaluationCount = new AtomicLong(0);
+    private final AtomicLong firedCount = new AtomicLong(0);
+    private final AtomicLong resolvedCount = new AtomicLong(0);
+    private volatile long lastBatchNanos = 0;
+    private volatile int lastBatchSize = 0;
+
+    /**
+     * 评估一批样本，返回本批产生的事件
+     */
+    public List<AlertRecordDTO> evaluate(MetricSampleBatch batch) {
+        List<AlertRecordDTO> events;
+        long start = System.nanoTime();
+        synchronized (this) {
+            compileIfChanged(batch.getTimestamp());
+            evaluateBatch(batch, pendingEvents);
+            events = drainPendingEvents();
+            lastBatchNanos = System.nanoTime() - start;
+            // 在锁内发布，保证监听器按发生顺序收到各批次事件
+            publish(events);
+        }
+        lastBatchSize = batch.size();
+        batchCount.incrementAndGet();
+        sampleCount.addAndGet(batch.size());
+        return events;
+    }
+
+    /**
+     * 用存储中未恢复的告警恢复 (规则, 实体) 状态，使重启后同一告警仍能正常恢复；
+     * 对应规则已不存在的告警直接发出恢复事件
+     */
+    public void restore(List<AlertRecordDTO> activeRecords) {
+        int closed = 0;
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            compileIfChanged(now);
+            for (AlertRecordDTO record : activeRecords) {
+                CompiledRule rule = compiledRules.get(record.getRuleId());
+                if (rule == null || !rule.metric.getCode().equals(record.getMetric()) || record.getFiredAt() == null) {
+                    AlertRecordDTO resolved = new AlertRecordDTO();
+                    resolved.setId(record.getId());
+                    resolved.setRuleId(record.getRuleId());
+                    resolved.setRuleName(record.getRuleName());
+                    resolved.setMetric(record.getMetric());
+                    resolved.setSeverity(record.getSeverity());
+                    resolved.setStatus("resolved");
+                    resolved.setValue(record.getValue());
+                    resolved.setThreshold(record.getThreshold());
+                    resolved.setTarget(record.getTarget());
+                    resolved.setFiredAt(record.getFiredAt());
+                    resolved.setResolvedAt(now);
+                    resolved.setMessage(record.getRuleName() + ": " + record.getTarget() + " 规则已变更，告警关闭");
+                    resolvedCount.incrementAndGet();
+                    pendingEvents.add(resolved);
+                    closed++;
+                    continue;
+                }
+                rule.restore(registryOf(rule.metric).id(record.getTarget()), record.getFiredAt(),
+                        record.getValue() != null ? record.getValue() : Double.NaN);
+            }
+            publish(drainPendingEvents());
+        }
+        log.info("Restored {} active alerts", activeRecords.size() - closed);
+    }
+
+    /**
+     * 是否存在引用指定实体类型的已启用规则，采集端据此跳过不需要的数据
+     */
+    public synchronized boolean hasRules(AlertMetric.EntityType entityType) {
+        compileIfChanged(System.currentTimeMillis());
+        for (AlertMetric metric : METRICS) {
+            if (metric.getEntityType() == entityType && rulesByMetric[metric.ordinal()].length > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 是否存在引用指定指标的已启用规则
+     */
+    public synchronized boolean hasRules(AlertMetric metric) {
+        compileIfChanged(System.currentTimeMillis());
+        return rulesByMetric[metric.ordinal()].length > 0;
+    }
+
+    /**
+     * 当前处于触发状态的告警
+     */
+    public synchronized List<AlertRecordDTO> getActiveAlerts() {
+        List<AlertRecordDTO> active = new ArrayList<>();
+        for (CompiledRule rule : compiledRules.values()) {
+            EntityRegistry registry = registryOf(rule.metric);
+            for (int id = 0; id < rule.firedAt.length; id++) {
+                if (rule.firedAt[id] != 0) {
+                    active.add(rule.firingEvent(registry.name(id), rule.lastValue[id], rule.firedAt[id]));
+                }
+            }
+        }
+        active.sort(Comparator.comparing(AlertRecordDTO::getFiredAt).reversed());
+        return active;
+    }
+
+    /**
+     * 引擎运行统计
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        int firing = 0;
+        for (CompiledRule rule : compiledRules.values()) {
+            for (long firedAt : rule.firedAt) {
+                if (firedAt != 0) {
+                    firing++;
+                }
+            }
+        }
+        Map<String, Integer> rulesPerMetric = new LinkedHashMap<>();
+        for (AlertMetric metric : METRICS) {
+            if (rulesByMetric[metric.ordinal()].length > 0) {
+                rulesPerMetric.put(metric.getCode(), rulesByMetric[metric.ordinal()].length);
+            }
+        }
+        stats.put("rules", compiledRules.size());
+        stats.put("rulesPerMetric", rulesPerMetric);
+        stats.put("clusters", registries[AlertMetric.EntityType.CLUSTER.ordinal()].size());
+        stats.put("nodes", registries[AlertMetric.EntityType.NODE.ordinal()].size());
+        stats.put("indices", registries[AlertMetric.EntityType.INDEX.ordinal()].size());
+        stats.put("firing", firing);
+        stats.put("batchCount", batchCount.get());
+        stats.put("sampleCount", sampleCount.get());
+        stats.put("evaluationCount", evaluationCount.get());
+        stats.put("firedCount", firedCount.get());
+        stats.put("resolvedCount", resolvedCount.get());
+        stats.put("lastBatchSamples", lastBatchSize);
+        stats.put("lastBatchMicros", lastBatchNanos / 1000);
+        return stats;
+    }
+
+    private void evaluateBatch(MetricSampleBatch batch, List<AlertRecordDTO> events) {
+        long timestamp = batch.getTimestamp();
+        boolean[] sampled = new boolean[METRICS.length];
+        long evaluations = 0;
+
+        for (int i = 0; i < batch.size(); i++) {
+            int metric = batch.metricAt(i);
+            CompiledRule[] rules = rulesByMetric[metric];
+            if (rules.length == 0) {
+                continue;
+            }
+            sampled[metric] = true;
+            String entity = batch.entityAt(i);
+            int entityId = registryOf(METRICS[metric]).id(entity);
+            double value = batch.valueAt(i);
+            for (CompiledRule rule : rules) {
+                rule.evaluate(entityId, entity, timestamp, value, events);
+            }
+            evaluations += rules.length;
+        }
+
+        // 本批有该指标的样本但实体缺席（节点下线、索引删除），已触发的告警随之恢复
+        for (int metric = 0; metric < sampled.length; metric++) {
+            if (!sampled[metric]) {
+                continue;
+            }
+            EntityRegistry registry = registryOf(METRICS[metric]);
+            for (CompiledRule rule : rulesByMetric[metric]) {
+                rule.sweepMissing(timestamp, registry, events);
+            }
+        }
+        evaluationCount.addAndGet(evaluations);
+    }
+
+    /**
+     * 规则有变更时重新编译索引；未变更的规则沿用原有状态，被修改或删除的规则上仍在触发的告警发出恢复事件
+     */
+    private void compileIfChanged(long timestamp) {
+        long version = ruleService.getVersion();
+        if (version == compiledVersion) {
+            return;
+        }
+
+        Map<String, CompiledRule> compiled = new HashMap<>();
+        List<List<CompiledRule>> byMetric = new ArrayList<>();
+        for (int i = 0; i < METRICS.length; i++) {
+            byMetric.add(new ArrayList<>());
+        }
+        for (AlertRuleDTO rule : ruleService.getRules()) {
+            AlertMetric metric = AlertMetric.fromCode(rule.getMetric());
+            AlertOperator operator = AlertOperator.fromCode(rule.getOperator());
+            if (!Boolean.TRUE.equals(rule.getEnabled()) || metric == null || operator == null
+                    || rule.getThreshold() == null) {
+                continue;
+            }
+            CompiledRule existing = compiledRules.get(rule.getId());
+            CompiledRule compiledRule = existing != null && existing.rule == rule
+                    ? existing : new CompiledRule(rule, metric, operator);
+            compiled.put(rule.getId(), compiledRule);
+            byMetric.get(metric.ordinal()).add(compiledRule);
+        }
+
+        for (CompiledRule old : compiledRules.values()) {
+            if (compiled.get(old.rule.getId()) != old) {
+                old.resolveAll(timestamp, registryOf(old.metric), pendingEvents);
+            }
+        }
+
+        CompiledRule[][] index = emptyIndex();
+        for (int i = 0; i < METRICS.length; i++) {
+            index[i] = byMetric.get(i).toArray(NO_RULES);
+        }
+        rulesByMetric = index;
+        compiledRules = compiled;
+        compiledVersion = version;
+        log.info("Compiled {} alert rules (version {})", compiled.size(), version);
+    }
+
+    private List<AlertRecordDTO> drainPendingEvents() {
+        List<AlertRecordDTO> events = new ArrayList<>(pendingEvents);
+        pendingEvents.clear();
+        return events;
+    }
+
+    private void publish(List<AlertRecordDTO> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<AlertRecordDTO> published = Collections.unmodifiableList(events);
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onAlertEvents(published);
+            } catch (Exception e) {
+                log.warn("Alert listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
+        });
+    }
+
+    private EntityRegistry registryOf(AlertMetric metric) {
+        return registries[metric.getEntityType().ordinal()];
+    }
+
+    private static CompiledRule[][] emptyIndex() {
+        CompiledRule[][] index = new CompiledRule[METRICS.length][];
+        Arrays.fill(index, NO_RULES);
+        return index;
+    }
+
+    private static String formatValue(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15
+                ? Long.toString((long) value) : String.format("%.2f", value);
+    }
+
+    /**
+     * 实体名称 -> 稠密 ID，ID 只增不减
+     */
+    private static final class EntityRegistry {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private String[] names = new String[64];
+        private int size = 0;
+
+        int id(String name) {
+            Integer id = ids.get(name);
+            if (id != null) {
+                return id;
+            }
+            if (size == names.length) {
+                names = Arrays.copyOf(names, size * 2);
+            }
+            names[size] = name;
+            ids.put(name, size);
+            return size++;
+        }
+
+        String name(int id) {
+            return names[id];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    /**
+     * 编译后的规则及其每个实体的状态
+     */
+    private final class CompiledRule {
+        private final AlertRuleDTO rule;
+        private final AlertMetric metric;
+        private final AlertOperator operator;
+        private final double threshold;
+        private final long durationMs;
+        private final long cooldownMs;
+        private final Set<String> targets;
+
+        /** 目标匹配缓存: 0=未判断, 1=匹配, 2=不匹配 */
+        private byte[] targetMatch = new byte[0];
+        /** 条件开始满足的时间，0 表示当前不满足 */
+        private long[] pendingSince = new long[0];
+        /** 当前告警的触发时间，0 表示未触发 */
+        private long[] firedAt = new long[0];
+        /** 最近一次触发时间，用于冷却 */
+        private long[] lastFiredAt = new long[0];
+        /** 最近一次收到样本的批次时间 */
+        private long[] lastSeen = new long[0];
+        private double[] lastValue = new double[0];
+
+        CompiledRule(AlertRuleDTO rule, AlertMetric metric, AlertOperator operator) {
+            this.rule = rule;
+            this.metric = metric;
+            this.operator = operator;
+            this.threshold = rule.getThreshold();
+            this.durationMs = rule.getDuration() != null ? rule.getDuration() * 1000 : 0;
+            this.cooldownMs = rule.getCooldown() != null ? rule.getCooldown() * 1000 : 0;
+            this.targets = rule.getTargets() != null && !rule.getTargets().isEmpty()
+                    ? new HashSet<>(rule.getTargets()) : null;
+        }
+
+        void evaluate(int id, String entity, long timestamp, double value, List<AlertRecordDTO> events) {
+            if (id >= firedAt.length) {
+                grow(id + 1);
+            }
+            if (targets != null) {
+                byte match = targetMatch[id];
+                if (match == 0) {
+                    match = targets.contains(entity) ? (byte) 1 : (byte) 2;
+                    targetMatch[id] = match;
+                }
+                if (match == 2) {
+                    return;
+                }
+            }
+            lastSeen[id] = timestamp;
+            lastValue[id] = value;
+
+            if (operator.test(value, threshold)) {
+                if (pendingSince[id] == 0) {
+                    pendingSince[id] = timestamp;
+                }
+                if (firedAt[id] == 0 && timestamp - pendingSince[id] >= durationMs
+                        && (lastFiredAt[id] == 0 || timestamp - lastFiredAt[id] >= cooldownMs)) {
+                    firedAt[id] = timestamp;
+                    lastFiredAt[id] = timestamp;
+                    firedCount.incrementAndGet();
+                    events.add(firingEvent(entity, value, timestamp));
+                }
+            } else {
+                pendingSince[id] = 0;
+                if (firedAt[id] != 0) {
+                    events.add(resolvedEvent(entity, value, firedAt[id], timestamp));
+                    firedAt[id] = 0;
+                }
+            }
+        }
+
+        void restore(int id, long firedAtMs, double value) {
+            if (id >= firedAt.length) {
+                grow(id + 1);
+            }
+            pendingSince[id] = firedAtMs;
+            firedAt[id] = firedAtMs;
+            lastFiredAt[id] = firedAtMs;
+            lastValue[id] = value;
+        }
+
+        void sweepMissing(long timestamp, EntityRegistry registry, List<AlertRecordDTO> events) {
+            for (int id = 0; id < firedAt.length; id++) {
+                if (lastSeen[id] != timestamp) {
+                    pendingSince[id] = 0;
+                    if (firedAt[id] != 0) {
+                        events.add(resolvedEvent(registry.name(id), lastValue[id], firedAt[id], timestamp));
+                        firedAt[id] = 0;
+                    }
+                }
+            }
+        }
+
+        void resolveAll(long timestamp, EntityRegistry registry, List<AlertRecordDTO> events) {
+            for (int id = 0; id < firedAt.length; id++) {
+                if (firedAt[id] != 0) {
+                    events.add(resolvedEvent(registry.name(id), lastValue[id], firedAt[id], timestamp));
+                    firedAt[id] = 0;
+                }
+            }
+        }
+
+        private void grow(int minCapacity) {
+            int capacity = Math.max(minCapacity, Math.max(16, firedAt.length * 2));
+            targetMatch = Arrays.copyOf(targetMatch, capacity);
+            pendingSince = Arrays.copyOf(pendingSince, capacity);
+            firedAt = Arrays.copyOf(firedAt, capacity);
+            lastFiredAt = Arrays.copyOf(lastFiredAt, capacity);
+            lastSeen = Arrays.copyOf(lastSeen, capacity);
+            lastValue = Arrays.copyOf(lastValue, capacity);
+        }
+
+        AlertRecordDTO firingEvent(String entity, double value, long firedAtMs) {
+            AlertRecordDTO event = baseEvent(entity, value, firedAtMs);
+            event.setStatus("firing");
+            event.setMessage(String.format("%s: %s 当前值 %s %s 阈值 %s", rule.getName(), entity,
+                    formatValue(value), operator.getSymbol(), formatValue(threshold)));
+            return event;
+        }
+
+        AlertRecordDTO resolvedEvent(String entity, double value, long firedAtMs, long resolvedAtMs) {
+            resolvedCount.incrementAndGet();
+            AlertRecordDTO event = baseEvent(entity, value, firedAtMs);
+            event.setStatus("resolved");
+            event.setResolvedAt(resolvedAtMs);
+            event.setMessage(String.format("%s: %s 已恢复，当前值 %s", rule.getName(), entity, formatValue(value)));
+            return event;
+        }
+
+        private AlertRecordDTO baseEvent(String entity, double value, long firedAtMs) {
+            AlertRecordDTO event = new AlertRecordDTO();
+            // 同一次告警的触发与恢复事件 ID 相同
+            event.setId("alert-" + rule.getId() + "-" + entity + "-" + Long.toString(firedAtMs, 36));
+            event.setRuleId(rule.getId());
+            event.setRuleName(rule.getName());
+            event.setMetric(metric.getCode());
+            event.setSeverity(rule.getSeverity());
+            event.setValue(value);
+            event.setThreshold(threshold);
+            event.setTarget(entity);
+            event.setFiredAt(firedAtMs);
+            return event;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.esmanage.service.alert;
+
+import com.esmanage.dto.AlertRecordDTO;
+
+import java.util.List;
+
+/**
+ * 告警事件监听器
+ * 每批评估结束后收到本批产生的触发与恢复事件（按发生顺序）
+ */
+public interface AlertEventListener {
+
+    void onAlertEvents(List<AlertRecordDTO> events);
+}
@@ -0,0 +1,70 @@
+package com.esmanage.service.alert;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 告警指标类型
+ * 前 13 项与前端 AlertMetricType 一一对应，其后为异常得分指标；序号用作规则索引下标
+ */
+public enum AlertMetric {
+
+    CLUSTER_HEALTH("cluster_health", EntityType.CLUSTER),
+    NODE_CPU("node_cpu", EntityType.NODE),
+    NODE_HEAP("node_heap", EntityType.NODE),
+    NODE_DISK("node_disk", EntityType.NODE),
+    NODE_MEMORY("node_memory", EntityType.NODE),
+    INDEX_DOCS("index_docs", EntityType.INDEX),
+    INDEX_SIZE("index_size", EntityType.INDEX),
+    SEARCH_LATENCY("search_latency", EntityType.CLUSTER),
+    INDEXING_LATENCY("indexing_latency", EntityType.CLUSTER),
+    GC_TIME("gc_time", EntityType.NODE),
+    THREAD_POOL_REJECTED("thread_pool_rejected", EntityType.NODE),
+    CIRCUIT_BREAKER_TRIPPED("circuit_breaker_tripped", EntityType.NODE),
+    UNASSIGNED_SHARDS("unassigned_shards", EntityType.CLUSTER),
+    // 异常得分（z-score，带符号），新增值只能追加在末尾，序号已写入告警记录
+    SEARCH_LATENCY_ANOMALY("search_latency_anomaly", EntityType.CLUSTER),
+    INDEXING_LATENCY_ANOMALY("indexing_latency_anomaly", EntityType.CLUSTER),
+    SEARCH_RATE_ANOMALY("search_rate_anomaly", EntityType.CLUSTER),
+    INDEXING_RATE_ANOMALY("indexing_rate_anomaly", EntityType.CLUSTER),
+    NODE_CPU_ANOMALY("node_cpu_anomaly", EntityType.NODE),
+    NODE_HEAP_ANOMALY("node_heap_anomaly", EntityType.NODE);
+
+    /**
+     * 指标所属实体类型，同类实体共用一套稠密 ID
+     */
+    public enum EntityType {
+        CLUSTER, NODE, INDEX
+    }
+
+    private static final Map<String, AlertMetric> BY_CODE = new HashMap<>();
+
+    static {
+        for (AlertMetric metric : values()) {
+            BY_CODE.put(metric.code, metric);
+        }
+    }
+
+    private final String code;
+    private final EntityType entityType;
+
+    AlertMetric(String code, EntityType entityType) {
+        this.code = code;
+        this.entityType = entityType;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * 按前端指标编码查找，未知编码返回 null
+     */
+    public static AlertMetric fromCode(String code) {
+        return code != null ? BY_CODE.get(code) : null;
+    }
+}
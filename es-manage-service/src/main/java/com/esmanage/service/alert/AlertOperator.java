@@ -0,0 +1,62 @@
+package com.esmanage.service.alert;
+
+/**
+ * 告警条件操作符
+ */
+public enum AlertOperator {
+
+    GT("gt", ">"),
+    GTE("gte", ">="),
+    LT("lt", "<"),
+    LTE("lte", "<="),
+    EQ("eq", "="),
+    NEQ("neq", "!=");
+
+    private final String code;
+    private final String symbol;
+
+    AlertOperator(String code, String symbol) {
+        this.code = code;
+        this.symbol = symbol;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * 判断取值是否满足条件
+     */
+    public boolean test(double value, double threshold) {
+        switch (this) {
+            case GT:
+                return value > threshold;
+            case GTE:
+                return value >= threshold;
+            case LT:
+                return value < threshold;
+            case LTE:
+                return value <= threshold;
+            case EQ:
+                return value == threshold;
+            default:
+                return value != threshold;
+        }
+    }
+
+    /**
+     * 按编码查找，未知编码返回 null
+     */
+    public static AlertOperator fromCode(String code) {
+        for (AlertOperator operator : values()) {
+            if (operator.code.equals(code)) {
+                return operator;
+            }
+        }
+        return null;
+    }
+}
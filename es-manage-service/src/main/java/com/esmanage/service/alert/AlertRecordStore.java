@@ -0,0 +1,670 @@
+package com.esmanage.service.alert;
+
+import com.esmanage.config.AlertConfig;
+import com.esmanage.dto.AlertRecordDTO;
+import com.esmanage.dto.AlertRecordPageDTO;
+import com.esmanage.dto.request.AlertRecordQuery;
+import com.esmanage.service.store.IntList;
+import com.esmanage.service.store.Interner;
+import com.esmanage.service.store.SegmentLog;
+import com.esmanage.service.store.SegmentLog.Segment;
+import com.esmanage.service.store.SlotQuery;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 告警记录存储
+ * 告警事件以追加方式写入内存映射的分段日志（{@link SegmentLog}），每条事件都是记录的完整快照，同一记录以最后一条事件为准；
+ * 内存中按规则、级别、状态、目标、小时桶维护二级索引，查询只遍历最小的候选集合；
+ * 定长二进制头保存索引字段，启动时逐条校验 CRC 后只解码头部重建索引，不反序列化 JSON 正文；
+ * 定期清理过期记录、重新编号槽位回收索引，并重写有效占比低的旧段。
+ *
+ * 事件格式: length(4) crc(4) firedAt(8) updatedAt(8) status(1) severity(1) metric(1) reserved(1)
+ *          idLen(2) ruleLen(2) targetLen(2) id rule target json
+ */
+@Slf4j
+@Service
+@Order(0)
+@RequiredArgsConstructor
+public class AlertRecordStore implements AlertEventListener {
+
+    /** length 之后的定长部分 */
+    private static final int FIXED_HEADER = 30;
+    private static final int STRINGS_OFFSET = 4 + FIXED_HEADER;
+
+    private static final long HOUR_MS = 3600_000L;
+    private static final long DAY_MS = 24 * HOUR_MS;
+
+    static final String[] STATUSES = {"firing", "resolved", "acknowledged"};
+    static final String[] SEVERITIES = {"critical", "warning", "info"};
+    private static final byte FIRING = 0;
+    private static final byte ACKNOWLEDGED = 2;
+    /** 已过期删除的槽位 */
+    private static final byte DEAD = -1;
+
+    private final AlertConfig alertConfig;
+    private final ObjectMapper objectMapper;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private SegmentLog segmentLog;
+
+    // 记录槽位：每条告警记录一个稠密 ID，字段保存在并列数组中
+    private final Map<String, Integer> slotById = new HashMap<>();
+    private int slotCount = 0;
+    private int liveCount = 0;
+    private String[] slotIds = new String[1024];
+    private int[] slotRule = new int[1024];
+    private int[] slotTarget = new int[1024];
+    private byte[] slotSeverity = new byte[1024];
+    private byte[] slotStatus = new byte[1024];
+    private byte[] slotMetric = new byte[1024];
+    private long[] slotFiredAt = new long[1024];
+    private long[] slotUpdatedAt = new long[1024];
+    private Segment[] slotSegment = new Segment[1024];
+    private int[] slotPosition = new int[1024];
+
+    // 二级索引
+    private Interner ruleNames = new Interner();
+    private Interner targetNames = new Interner();
+    private final List<IntList> byRule = new ArrayList<>();
+    private final List<IntList> byTarget = new ArrayList<>();
+    private final BitSet[] byStatus = {new BitSet(), new BitSet(), new BitSet()};
+    private final BitSet[] bySeverity = {new BitSet(), new BitSet(), new BitSet(), new BitSet()};
+    private final TreeMap<Long, IntList> byHour = new TreeMap<>();
+
+    private long lastCompactionAt = 0;
+
+    private final List<RecordChangeListener> changeListeners = new ArrayList<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        AlertConfig.Records config = alertConfig.getRecords();
+        segmentLog = new SegmentLog(Paths.get(alertConfig.getDataDir()).toAbsolutePath().resolve("records"),
+                config.getSegmentBytes(), config.isForceOnWrite(), FIXED_HEADER, "alert record");
+
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            segmentLog.open(this::scan);
+            int expired = dropExpired(retentionCutoff());
+            log.info("Loaded {} alert records ({} expired) from {} segments in {} ms",
+                    liveCount, expired, segmentLog.segmentCount(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 写入引擎产生的事件，沿用已存记录上的确认信息与通知结果
+     */
+    @Override
+    public void onAlertEvents(List<AlertRecordDTO> events) {
+        lock.writeLock().lock();
+        try {
+            for (AlertRecordDTO event : events) {
+                Integer slot = slotById.get(event.getId());
+                if (slot != null) {
+                    AlertRecordDTO stored = readRecord(slot);
+                    if (event.getAcknowledgedAt() == null) {
+                        event.setAcknowledgedAt(stored.getAcknowledgedAt());
+                        event.setAcknowledgedBy(stored.getAcknowledgedBy());
+                    }
+                    if (event.getNotificationsSent().isEmpty()) {
+                        event.setNotificationsSent(stored.getNotificationsSent());
+                    }
+                }
+                try {
+                    append(event);
+                } catch (IllegalArgumentException e) {
+                    log.warn("Skipped alert record {}: {}", event.getId(), e.getMessage());
+                }
+            }
+            flush();
+        } catch (IOException e) {
+            log.error("Failed to append alert records", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 在多条记录的最新快照上追加同一条通知结果，一次加锁、一次刷盘；不存在的记录忽略
+     */
+    public void addNotification(Collection<String> ids, AlertRecordDTO.NotificationResult result)
+            throws IOException {
+        lock.writeLock().lock();
+        try {
+            boolean appended = false;
+            for (String id : ids) {
+                Integer slot = slotById.get(id);
+                if (slot == null) {
+                    continue;
+                }
+                AlertRecordDTO record = readRecord(slot);
+                record.getNotificationsSent().add(result);
+                append(record);
+                appended = true;
+            }
+            if (appended) {
+                flush();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 确认触发中的告警，记录不存在返回 null
+     */
+    public AlertRecordDTO acknowledge(String id, String user) throws IOException {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotById.get(id);
+            if (slot == null) {
+                return null;
+            }
+            AlertRecordDTO record = readRecord(slot);
+            if (slotStatus[slot] != FIRING) {
+                return record;
+            }
+            record.setStatus(STATUSES[ACKNOWLEDGED]);
+            record.setAcknowledgedAt(System.currentTimeMillis());
+            record.setAcknowledgedBy(user);
+            append(record);
+            flush();
+            return record;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 按 ID 获取记录
+     */
+    public AlertRecordDTO getRecord(String id) throws IOException {
+        lock.readLock().lock();
+        try {
+            Integer slot = slotById.get(id);
+            return slot != null ? readRecord(slot) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 获取未恢复（触发中或已确认）的记录，用于重启后恢复引擎状态
+     */
+    public List<AlertRecordDTO> getActiveRecords() throws IOException {
+        lock.readLock().lock();
+        try {
+            List<AlertRecordDTO> records = new ArrayList<>();
+            for (BitSet bits : new BitSet[]{byStatus[FIRING], byStatus[ACKNOWLEDGED]}) {
+                for (int slot = bits.nextSetBit(0); slot >= 0; slot = bits.nextSetBit(slot + 1)) {
+                    records.add(readRecord(slot));
+                }
+            }
+            return records;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 分页查询，结果按触发先后倒序
+     */
+    public AlertRecordPageDTO query(AlertRecordQuery query) throws IOException {
+        long start = System.nanoTime();
+        int page = query.getPage() != null ? Math.max(0, query.getPage()) : 0;
+        int pageSize = query.getPageSize() != null ? Math.max(1, query.getPageSize()) : 20;
+        long offset = (long) page * pageSize;
+
+        AlertRecordPageDTO result = new AlertRecordPageDTO();
+        result.setPage(page);
+        result.setPageSize(pageSize);
+        List<AlertRecordDTO> records = new ArrayList<>();
+        long total = 0;
+
+        lock.readLock().lock();
+        try {
+            Filter filter = new Filter(query);
+            if (!filter.empty) {
+                IntList matched = new IntList();
+                total = filter.candidates().page(filter::matches, offset, pageSize, matched);
+                for (int i = 0; i < matched.size(); i++) {
+                    records.add(readRecord(matched.get(i)));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        result.setRecords(records);
+        result.setTotal(total);
+        result.setTookMicros((System.nanoTime() - start) / 1000);
+        return result;
+    }
+
+    /**
+     * 注册记录变更监听，注册时先按记录最新状态回放全部有效记录，之后每次新增、状态变化、过期删除都会通知
+     */
+    public void addChangeListener(RecordChangeListener listener) {
+        lock.writeLock().lock();
+        try {
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (slotStatus[slot] != DEAD) {
+                    listener.onRecordChange(ruleNames.name(slotRule[slot]), slotMetric[slot], slotSeverity[slot],
+                            slotFiredAt[slot], -1, slotStatus[slot]);
+                }
+            }
+            changeListeners.add(listener);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 记录变更监听，在存储写锁内调用
+     */
+    @FunctionalInterface
+    public interface RecordChangeListener {
+        /**
+         * @param metric    AlertMetric 序号，未知为 -1
+         * @param severity  SEVERITIES 下标，未知为 SEVERITIES.length
+         * @param oldStatus 变更前状态（STATUSES 下标），新记录为 -1
+         * @param newStatus 变更后状态（STATUSES 下标），记录过期删除为 -1
+         */
+        void onRecordChange(String ruleId, int metric, int severity, long firedAt, int oldStatus, int newStatus);
+    }
+
+    /**
+     * 定时压缩
+     */
+    @Scheduled(fixedDelayString = "${alert.records.compact-interval-ms:3600000}",
+            initialDelayString = "${alert.records.compact-interval-ms:3600000}")
+    public void scheduledCompact() {
+        try {
+            compact();
+        } catch (Exception e) {
+            log.warn("Alert record compaction failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 清理过期记录，删除无有效记录的段，重写有效占比低的段
+     */
+    public Map<String, Object> compact() throws IOException {
+        long start = System.currentTimeMillis();
+        int expired;
+        SegmentLog.Compaction compaction;
+
+        lock.writeLock().lock();
+        try {
+            expired = dropExpired(retentionCutoff());
+            compaction = segmentLog.compact(alertConfig.getRecords().getCompactLiveRatio(), entryOwner);
+            lastCompactionAt = System.currentTimeMillis();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("expired", expired);
+        result.put("deletedSegments", compaction.deletedSegments());
+        result.put("rewrittenSegments", compaction.rewrittenSegments());
+        result.put("movedRecords", compaction.movedEntries());
+        result.put("elapsedMs", System.currentTimeMillis() - start);
+        if (expired > 0 || compaction.deletedSegments() > 0 || compaction.rewrittenSegments() > 0) {
+            log.info("Alert record compaction: {}", result);
+        }
+        return result;
+    }
+
+    /**
+     * 存储统计
+     */
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("records", liveCount);
+            stats.put("slots", slotCount);
+            stats.put("entries", segmentLog.entryCount());
+            stats.put("segments", segmentLog.segmentCount());
+            stats.put("bytes", segmentLog.bytes());
+            stats.put("rules", ruleNames.size());
+            stats.put("targets", targetNames.size());
+            stats.put("hourBuckets", byHour.size());
+            stats.put("lastCompactionAt", lastCompactionAt);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== 写入 ====================
+
+    private void append(AlertRecordDTO record) throws IOException {
+        byte[] id = SegmentLog.utf8(record.getId());
+        byte[] rule = SegmentLog.utf8(record.getRuleId());
+        byte[] target = SegmentLog.utf8(record.getTarget());
+        byte[] json = objectMapper.writeValueAsBytes(record);
+        if (id.length > Short.MAX_VALUE || rule.length > Short.MAX_VALUE || target.length > Short.MAX_VALUE) {
+            throw new IOException("Alert record key too long: " + record.getId());
+        }
+
+        int length = FIXED_HEADER + id.length + rule.length + target.length + json.length;
+        long firedAt = record.getFiredAt() != null ? record.getFiredAt() : System.currentTimeMillis();
+        long updatedAt = Math.max(firedAt, Math.max(nullToZero(record.getResolvedAt()),
+                nullToZero(record.getAcknowledgedAt())));
+        int statusCode = Interner.indexOf(STATUSES, record.getStatus());
+        if (statusCode < 0) {
+            throw new IllegalArgumentException("Unknown alert status: " + record.getStatus());
+        }
+        byte status = (byte) statusCode;
+        byte severity = severityCode(record.getSeverity());
+        AlertMetric metric = AlertMetric.fromCode(record.getMetric());
+
+        ByteBuffer entry = SegmentLog.newEntry(length)
+                .putLong(firedAt).putLong(updatedAt)
+                .put(status).put(severity).put(metric != null ? (byte) metric.ordinal() : -1).put((byte) 0)
+                .putShort((short) id.length).putShort((short) rule.length).putShort((short) target.length)
+                .put(id).put(rule).put(target).put(json);
+
+        int position = segmentLog.append(entry);
+        apply(record.getId(), record.getRuleId(), record.getTarget(), firedAt, updatedAt,
+                status, severity, metric != null ? (byte) metric.ordinal() : -1, segmentLog.active(), position);
+    }
+
+    private void flush() {
+        segmentLog.flush();
+    }
+
+    // ==================== 索引 ====================
+
+    /**
+     * 由扫描到的事件重建索引：只解码定长头与键字符串，不反序列化 JSON
+     */
+    private void scan(Segment segment, int position) {
+        ByteBuffer buffer = segment.buffer();
+        int idLen = buffer.getShort(position + 28);
+        int ruleLen = buffer.getShort(position + 30);
+        int targetLen = buffer.getShort(position + 32);
+        int stringsStart = position + STRINGS_OFFSET;
+        apply(SegmentLog.string(buffer, stringsStart, idLen),
+                SegmentLog.string(buffer, stringsStart + idLen, ruleLen),
+                SegmentLog.string(buffer, stringsStart + idLen + ruleLen, targetLen),
+                buffer.getLong(position + 8), buffer.getLong(position + 16),
+                buffer.get(position + 24), buffer.get(position + 25), buffer.get(position + 26),
+                segment, position);
+    }
+
+    private void apply(String id, String ruleId, String target, long firedAt, long updatedAt,
+                       byte status, byte severity, byte metric, Segment segment, int position) {
+        Integer existing = slotById.get(id);
+        int slot;
+        int oldStatus = -1;
+        if (existing == null) {
+            slot = newSlot(id, ruleId, target, firedAt, severity, metric);
+        } else {
+            slot = existing;
+            oldStatus = slotStatus[slot];
+            slotSegment[slot].release();
+            byStatus[slotStatus[slot]].clear(slot);
+        }
+        if (oldStatus != status) {
+            for (RecordChangeListener listener : changeListeners) {
+                listener.onRecordChange(ruleId, slotMetric[slot], slotSeverity[slot], slotFiredAt[slot],
+                        oldStatus, status);
+            }
+        }
+        slotStatus[slot] = status;
+        byStatus[status].set(slot);
+        slotUpdatedAt[slot] = updatedAt;
+        slotSegment[slot] = segment;
+        slotPosition[slot] = position;
+    }
+
+    private int newSlot(String id, String ruleId, String target, long firedAt, byte severity, byte metric) {
+        if (slotCount == slotIds.length) {
+            int capacity = slotCount * 2;
+            slotIds = Arrays.copyOf(slotIds, capacity);
+            slotRule = Arrays.copyOf(slotRule, capacity);
+            slotTarget = Arrays.copyOf(slotTarget, capacity);
+            slotSeverity = Arrays.copyOf(slotSeverity, capacity);
+            slotStatus = Arrays.copyOf(slotStatus, capacity);
+            slotMetric = Arrays.copyOf(slotMetric, capacity);
+            slotFiredAt = Arrays.copyOf(slotFiredAt, capacity);
+            slotUpdatedAt = Arrays.copyOf(slotUpdatedAt, capacity);
+            slotSegment = Arrays.copyOf(slotSegment, capacity);
+            slotPosition = Arrays.copyOf(slotPosition, capacity);
+        }
+        int slot = slotCount++;
+        int rule = ruleNames.id(ruleId);
+        int targetId = targetNames.id(target);
+        slotIds[slot] = id;
+        slotRule[slot] = rule;
+        slotTarget[slot] = targetId;
+        slotSeverity[slot] = severity;
+        slotMetric[slot] = metric;
+        slotFiredAt[slot] = firedAt;
+
+        IntList.postings(byRule, rule).add(slot);
+        IntList.postings(byTarget, targetId).add(slot);
+        bySeverity[severity].set(slot);
+        byHour.computeIfAbsent(firedAt / HOUR_MS, hour -> new IntList()).add(slot);
+        slotById.put(id, slot);
+        liveCount++;
+        return slot;
+    }
+
+    /**
+     * 删除过期的已恢复记录，返回删除数；有删除时重新编号槽位，回收槽位数组与倒排表中的已删除项
+     */
+    private int dropExpired(long cutoff) {
+        int expired = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            byte status = slotStatus[slot];
+            // 已确认但未恢复的记录与触发中的记录一样保留
+            if (status == DEAD || status == FIRING || status == ACKNOWLEDGED || slotUpdatedAt[slot] >= cutoff) {
+                continue;
+            }
+            byStatus[status].clear(slot);
+            bySeverity[slotSeverity[slot]].clear(slot);
+            slotStatus[slot] = DEAD;
+            for (RecordChangeListener listener : changeListeners) {
+                listener.onRecordChange(ruleNames.name(slotRule[slot]), slotMetric[slot], slotSeverity[slot],
+                        slotFiredAt[slot], status, -1);
+            }
+            slotSegment[slot].release();
+            slotById.remove(slotIds[slot]);
+            slotIds[slot] = null;
+            liveCount--;
+            expired++;
+        }
+        if (expired > 0) {
+            rebuildSlots();
+        }
+        return expired;
+    }
+
+    /**
+     * 把有效记录按原有顺序重新编号为连续槽位，并重建全部二级索引与规则、目标名表
+     * 槽位顺序即触发先后，重编号后倒序查询结果不变
+     */
+    private void rebuildSlots() {
+        String[] ids = slotIds;
+        int[] rules = slotRule;
+        int[] targets = slotTarget;
+        byte[] severities = slotSeverity;
+        byte[] statuses = slotStatus;
+        byte[] metrics = slotMetric;
+        long[] firedAts = slotFiredAt;
+        long[] updatedAts = slotUpdatedAt;
+        Segment[] slotSegments = slotSegment;
+        int[] positions = slotPosition;
+        Interner oldRuleNames = ruleNames;
+        Interner oldTargetNames = targetNames;
+        int oldCount = slotCount;
+
+        int capacity = 1024;
+        while (capacity < liveCount) {
+            capacity *= 2;
+        }
+        slotIds = new String[capacity];
+        slotRule = new int[capacity];
+        slotTarget = new int[capacity];
+        slotSeverity = new byte[capacity];
+        slotStatus = new byte[capacity];
+        slotMetric = new byte[capacity];
+        slotFiredAt = new long[capacity];
+        slotUpdatedAt = new long[capacity];
+        slotSegment = new Segment[capacity];
+        slotPosition = new int[capacity];
+        ruleNames = new Interner();
+        targetNames = new Interner();
+        byRule.clear();
+        byTarget.clear();
+        for (BitSet bits : byStatus) {
+            bits.clear();
+        }
+        for (BitSet bits : bySeverity) {
+            bits.clear();
+        }
+        byHour.clear();
+        slotById.clear();
+        slotCount = 0;
+        liveCount = 0;
+
+        for (int old = 0; old < oldCount; old++) {
+            if (statuses[old] == DEAD) {
+                continue;
+            }
+            int slot = newSlot(ids[old], oldRuleNames.name(rules[old]), oldTargetNames.name(targets[old]),
+                    firedAts[old], severities[old], metrics[old]);
+            slotStatus[slot] = statuses[old];
+            byStatus[statuses[old]].set(slot);
+            slotUpdatedAt[slot] = updatedAts[old];
+            slotSegment[slot] = slotSegments[old];
+            slotPosition[slot] = positions[old];
+        }
+    }
+
+    /**
+     * 压缩时按事件中的记录 ID 判断是否仍是最新快照
+     */
+    private final SegmentLog.EntryOwner entryOwner = new SegmentLog.EntryOwner() {
+        @Override
+        public int liveSlot(Segment segment, int position) {
+            Integer slot = slotById.get(SegmentLog.string(segment.buffer(), position + STRINGS_OFFSET,
+                    segment.buffer().getShort(position + 28)));
+            return slot != null && slotSegment[slot] == segment && slotPosition[slot] == position ? slot : -1;
+        }
+
+        @Override
+        public void relocate(int slot, Segment segment, int position) {
+            slotSegment[slot] = segment;
+            slotPosition[slot] = position;
+        }
+    };
+
+    private AlertRecordDTO readRecord(int slot) throws IOException {
+        int position = slotPosition[slot];
+        ByteBuffer buffer = slotSegment[slot].buffer();
+        int length = buffer.getInt(position);
+        int jsonStart = position + STRINGS_OFFSET
+                + buffer.getShort(position + 28) + buffer.getShort(position + 30) + buffer.getShort(position + 32);
+        byte[] json = new byte[position + 4 + length - jsonStart];
+        buffer.get(jsonStart, json);
+        return objectMapper.readValue(json, AlertRecordDTO.class);
+    }
+
+    private long retentionCutoff() {
+        return System.currentTimeMillis() - alertConfig.getRecords().getRetentionDays() * DAY_MS;
+    }
+
+    /**
+     * 未知级别归入最后一个桶
+     */
+    private static byte severityCode(String severity) {
+        int index = Interner.indexOf(SEVERITIES, severity);
+        return (byte) (index >= 0 ? index : SEVERITIES.length);
+    }
+
+    private static String severityName(byte code) {
+        return code < SEVERITIES.length ? SEVERITIES[code] : "unknown";
+    }
+
+    private static long nullToZero(Long value) {
+        return value != null ? value : 0;
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 查询条件，构造时把字符串条件解析为索引 ID
+     */
+    private final class Filter {
+        private final int rule;
+        private final int target;
+        private final int status;
+        private final int severity;
+        private final long from;
+        private final long to;
+        /** 某个条件在索引中不存在，结果必为空 */
+        private final boolean empty;
+
+        Filter(AlertRecordQuery query) {
+            rule = query.getRuleId() != null ? ruleNames.find(query.getRuleId()) : -1;
+            target = query.getTarget() != null ? targetNames.find(query.getTarget()) : -1;
+            status = query.getStatus() != null ? Interner.indexOf(STATUSES, query.getStatus()) : -1;
+            severity = query.getSeverity() != null ? Interner.indexOf(SEVERITIES, query.getSeverity()) : -1;
+            from = query.getFrom() != null ? query.getFrom() : Long.MIN_VALUE;
+            to = query.getTo() != null ? query.getTo() : Long.MAX_VALUE;
+            empty = (query.getRuleId() != null && rule < 0)
+                    || (query.getTarget() != null && target < 0)
+                    || (query.getStatus() != null && status < 0)
+                    || (query.getSeverity() != null && severity < 0)
+                    || from > to;
+        }
+
+        boolean matches(int slot) {
+            return slotStatus[slot] != DEAD
+                    && (rule < 0 || slotRule[slot] == rule)
+                    && (target < 0 || slotTarget[slot] == target)
+                    && (status < 0 || slotStatus[slot] == status)
+                    && (severity < 0 || slotSeverity[slot] == severity)
+                    && slotFiredAt[slot] >= from && slotFiredAt[slot] <= to;
+        }
+
+        /**
+         * 条件对应的候选集合，遍历其中最小的一个
+         */
+        SlotQuery candidates() {
+            SlotQuery candidates = new SlotQuery(slotCount);
+            if (rule >= 0) {
+                candidates.postings(byRule.get(rule));
+            }
+            if (target >= 0) {
+                candidates.postings(byTarget.get(target));
+            }
+            if (status >= 0) {
+                candidates.bits(byStatus[status]);
+            }
+            if (severity >= 0) {
+                candidates.bits(bySeverity[severity]);
+            }
+            return candidates.buckets(byHour, HOUR_MS, from, to);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.esmanage.service.alert;
+
+import com.esmanage.config.AlertConfig;
+import com.esmanage.dto.AlertRuleDTO;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * 告警规则服务
+ * 规则保存在内存中，每次变更整体写回数据目录下的 rules.json；
+ * 版本号随变更递增，评估引擎据此判断是否需要重新编译规则索引。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AlertRuleService {
+
+    private static final String RULES_FILE = "rules.json";
+
+    private final AlertConfig alertConfig;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, AlertRuleDTO> rules = new LinkedHashMap<>();
+
+    /** 规则版本，每次变更递增 */
+    private volatile long version = 0;
+
+    @PostConstruct
+    public void init() {
+        Path file = rulesFile();
+        if (!Files.exists(file)) {
+            return;
+        }
+        try {
+            List<AlertRuleDTO> loaded = objectMapper.readValue(file.toFile(), new TypeReference<>() {
+            });
+            synchronized (this) {
+                loaded.forEach(rule -> rules.put(rule.getId(), rule));
+                version++;
+            }
+            log.info("Loaded {} alert rules from {}", loaded.size(), file);
+        } catch (IOException e) {
+            log.error("Failed to load alert rules from {}", file, e);
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 获取全部规则
+     */
+    public synchronized List<AlertRuleDTO> getRules() {
+        return new ArrayList<>(rules.values());
+    }
+
+    /**
+     * 获取单个规则
+     */
+    public synchronized AlertRuleDTO getRule(String id) {
+        return rules.get(id);
+    }
+
+    /**
+     * 新建规则
+     */
+    public synchronized AlertRuleDTO createRule(AlertRuleDTO rule) throws IOException {
+        validate(rule);
+        long now = System.currentTimeMillis();
+        if (rule.getId() == null || rule.getId().isEmpty() || rules.containsKey(rule.getId())) {
+            rule.setId("rule-" + UUID.randomUUID().toString().substring(0, 8));
+        }
+        applyDefaults(rule);
+        rule.setCreatedAt(now);
+        rule.setUpdatedAt(now);
+        rules.put(rule.getId(), rule);
+        persist();
+        return rule;
+    }
+
+    /**
+     * 更新规则，规则不存在时返回 null
+     */
+    public synchronized AlertRuleDTO updateRule(String id, AlertRuleDTO rule) throws IOException {
+        AlertRuleDTO existing = rules.get(id);
+        if (existing == null) {
+            return null;
+        }
+        validate(rule);
+        applyDefaults(rule);
+        rule.setId(id);
+        rule.setCreatedAt(existing.getCreatedAt());
+        rule.setUpdatedAt(System.currentTimeMillis());
+        rules.put(id, rule);
+        persist();
+        return rule;
+    }
+
+    /**
+     * 删除规则
+     */
+    public synchronized boolean deleteRule(String id) throws IOException {
+        if (rules.remove(id) == null) {
+            return false;
+        }
+        persist();
+        return true;
+    }
+
+    private void validate(AlertRuleDTO rule) {
+        if (AlertMetric.fromCode(rule.getMetric()) == null) {
+            throw new IllegalArgumentException("Unknown alert metric: " + rule.getMetric());
+        }
+        if (AlertOperator.fromCode(rule.getOperator()) == null) {
+            throw new IllegalArgumentException("Unknown alert operator: " + rule.getOperator());
+        }
+        if (rule.getThreshold() == null) {
+            throw new IllegalArgumentException("Alert threshold is required");
+        }
+    }
+
+    private void applyDefaults(AlertRuleDTO rule) {
+        if (rule.getName() == null) {
+            rule.setName(rule.getMetric());
+        }
+        if (rule.getEnabled() == null) {
+            rule.setEnabled(true);
+        }
+        if (rule.getDuration() == null) {
+            rule.setDuration(0L);
+        }
+        if (rule.getCooldown() == null) {
+            rule.setCooldown(0L);
+        }
+        if (rule.getSeverity() == null) {
+            rule.setSeverity("warning");
+        }
+        if (rule.getNotificationChannels() == null) {
+            rule.setNotificationChannels(new ArrayList<>());
+        }
+    }
+
+    /**
+     * 先写临时文件再原子替换，避免写一半的文件
+     */
+    private void persist() throws IOException {
+        version++;
+        Path file = rulesFile();
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(RULES_FILE + ".tmp");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), rules.values());
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path rulesFile() {
+        return Paths.get(alertConfig.getDataDir()).toAbsolutePath().resolve(RULES_FILE);
+    }
+}
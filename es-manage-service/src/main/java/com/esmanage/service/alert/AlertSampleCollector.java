@@ -0,0 +1,293 @@
+package com.esmanage.service.alert;
+
+import com.esmanage.config.AlertConfig;
+import com.esmanage.dto.*;
+import com.esmanage.dto.request.IndicesRequest;
+import com.esmanage.dto.request.NodesRequest;
+import com.esmanage.dto.request.TimeRangeRequest;
+import com.esmanage.service.AnomalyDetectionService;
+import com.esmanage.service.ElasticsearchMonitorService;
+import com.esmanage.service.NodeStatsCollector;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 告警采样服务
+ * 每个周期把集群、节点、索引指标整理成一个样本批次交给评估引擎；
+ * 只拉取已启用规则引用到的实体类型，节点指标优先取节点统计采集器的最新结果；
+ * 异常得分取自概览时序附带的得分序列，节点 CPU 与堆内存在采样时输入异常检测器；
+ * 启动时用告警记录存储中未恢复的告警恢复引擎状态。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AlertSampleCollector {
+
+    /** 采样使用的时间范围（分钟） */
+    private static final int SAMPLE_MINUTES = 5;
+
+    private final AlertConfig alertConfig;
+    private final AlertEngine alertEngine;
+    private final ElasticsearchMonitorService monitorService;
+    private final NodeStatsCollector nodeStatsCollector;
+    private final AlertRecordStore alertRecordStore;
+    private final AnomalyDetectionService anomalyDetectionService;
+
+    @PostConstruct
+    public void init() {
+        try {
+            alertEngine.restore(alertRecordStore.getActiveRecords());
+        } catch (IOException e) {
+            log.error("Failed to restore active alerts", e);
+        }
+    }
+
+    /**
+     * 定时采样评估
+     */
+    @Scheduled(fixedDelayString = "${alert.interval-ms:30000}")
+    public void scheduledEvaluate() {
+        if (!alertConfig.isEnabled()) {
+            return;
+        }
+        try {
+            evaluateNow();
+        } catch (Exception e) {
+            log.warn("Alert evaluation failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 立即采样并评估一次，返回本次产生的事件
+     */
+    public List<AlertRecordDTO> evaluateNow() throws IOException {
+        return alertEngine.evaluate(collect());
+    }
+
+    /**
+     * 采集一个样本批次
+     */
+    public MetricSampleBatch collect() throws IOException {
+        MetricSampleBatch batch = new MetricSampleBatch(System.currentTimeMillis());
+        String clusterId = alertConfig.getClusterId();
+
+        if (alertEngine.hasRules(AlertMetric.EntityType.CLUSTER)) {
+            collectCluster(clusterId, batch);
+        }
+        if (alertEngine.hasRules(AlertMetric.EntityType.NODE)) {
+            if (nodeStatsCollector.isCollected(clusterId)) {
+                collectNodeStats(clusterId, batch);
+            } else {
+                collectNodes(clusterId, batch);
+            }
+        }
+        if (alertEngine.hasRules(AlertMetric.EntityType.INDEX)) {
+            collectIndices(clusterId, batch);
+        }
+        return batch;
+    }
+
+    private void collectCluster(String clusterId, MetricSampleBatch batch) throws IOException {
+        MonitoringOverviewDTO overview = monitorService.getMonitoringOverview(clusterId, buildTimeRange());
+        String cluster = overview.getCluster() != null && overview.getCluster().getName() != null
+                ? overview.getCluster().getName() : "elasticsearch";
+
+        if (overview.getCluster() != null) {
+            batch.add(AlertMetric.CLUSTER_HEALTH, cluster, healthValue(overview.getCluster().getStatus()));
+        }
+        if (overview.getShards() != null && overview.getShards().getUnassigned() != null) {
+            batch.add(AlertMetric.UNASSIGNED_SHARDS, cluster, overview.getShards().getUnassigned());
+        }
+        if (overview.getTimeSeries() != null) {
+            batch.add(AlertMetric.SEARCH_LATENCY, cluster, lastValue(overview.getTimeSeries().get("query_latency")));
+            batch.add(AlertMetric.INDEXING_LATENCY, cluster, lastValue(overview.getTimeSeries().get("index_latency")));
+            batch.add(AlertMetric.SEARCH_LATENCY_ANOMALY, cluster,
+                    lastValue(overview.getTimeSeries().get("query_latency" + AnomalyDetectionService.SCORE_SUFFIX)));
+            batch.add(AlertMetric.INDEXING_LATENCY_ANOMALY, cluster,
+                    lastValue(overview.getTimeSeries().get("index_latency" + AnomalyDetectionService.SCORE_SUFFIX)));
+            batch.add(AlertMetric.SEARCH_RATE_ANOMALY, cluster,
+                    lastValue(overview.getTimeSeries().get("search_rate" + AnomalyDetectionService.SCORE_SUFFIX)));
+            batch.add(AlertMetric.INDEXING_RATE_ANOMALY, cluster,
+                    lastValue(overview.getTimeSeries().get("indexing_rate" + AnomalyDetectionService.SCORE_SUFFIX)));
+        }
+    }
+
+    /**
+     * 节点统计采集器已启用时使用其结果，包含线程池、断路器与 GC 速率
+     */
+    private void collectNodeStats(String clusterId, MetricSampleBatch batch) {
+        for (NodeStatsDTO node : nodeStatsCollector.getNodeStats(clusterId)) {
+            String name = node.getName() != null ? node.getName() : node.getUuid();
+            if (node.getOs() != null) {
+                if (node.getOs().getCpu() != null && node.getOs().getCpu().getPercent() != null) {
+                    batch.add(AlertMetric.NODE_CPU, name, node.getOs().getCpu().getPercent());
+                    batch.add(AlertMetric.NODE_CPU_ANOMALY, name, anomalyDetectionService.observe(
+                            "node:" + node.getUuid(), "cpu_percent", batch.getTimestamp(),
+                            node.getOs().getCpu().getPercent()));
+                }
+                if (node.getOs().getMem() != null && node.getOs().getMem().getUsedPercent() != null) {
+                    batch.add(AlertMetric.NODE_MEMORY, name, node.getOs().getMem().getUsedPercent());
+                }
+            }
+            if (node.getJvm() != null && node.getJvm().getMem() != null
+                    && node.getJvm().getMem().getHeapUsedPercent() != null) {
+                batch.add(AlertMetric.NODE_HEAP, name, node.getJvm().getMem().getHeapUsedPercent());
+                batch.add(AlertMetric.NODE_HEAP_ANOMALY, name, anomalyDetectionService.observe(
+                        "node:" + node.getUuid(), "heap_used_percent", batch.getTimestamp(),
+                        node.getJvm().getMem().getHeapUsedPercent()));
+            }
+            if (node.getFs() != null && node.getFs().getTotal() != null) {
+                NodeStatsDTO.FsStats.TotalStats fs = node.getFs().getTotal();
+                if (fs.getTotalInBytes() != null && fs.getTotalInBytes() > 0 && fs.getAvailableInBytes() != null) {
+                    batch.add(AlertMetric.NODE_DISK, name,
+                            100.0 * (fs.getTotalInBytes() - fs.getAvailableInBytes()) / fs.getTotalInBytes());
+                }
+            }
+        }
+
+        int windowSeconds = (int) Math.max(1, alertConfig.getIntervalMs() / 1000);
+        for (NodeRatesDTO rates : nodeStatsCollector.getNodeRates(clusterId, windowSeconds)) {
+            String name = rates.getName() != null ? rates.getName() : rates.getNodeId();
+            addIfPresent(batch, AlertMetric.GC_TIME, name, rates.getGcTimeMsPerSec());
+            addIfPresent(batch, AlertMetric.THREAD_POOL_REJECTED, name, rates.getRejectionsPerSec());
+            addIfPresent(batch, AlertMetric.CIRCUIT_BREAKER_TRIPPED, name, rates.getBreakerTripsPerSec());
+        }
+    }
+
+    /**
+     * 未启用节点统计采集时从节点列表取 CPU 与堆内存
+     */
+    private void collectNodes(String clusterId, MetricSampleBatch batch) throws IOException {
+        List<NodeInfoDTO> nodes = fetchAll("nodes", alertConfig.getMaxNodes(), pagination -> {
+            NodesRequest request = new NodesRequest();
+            request.setTimeRange(buildTimeRange());
+            request.setPagination(pagination);
+            return monitorService.getNodes(clusterId, request).getNodes();
+        });
+        for (NodeInfoDTO node : nodes) {
+            double cpu = lastValue(node.getNodeCpuUtilization());
+            double heap = lastValue(node.getNodeJvmMemPercent());
+            batch.add(AlertMetric.NODE_CPU, node.getName(), cpu);
+            batch.add(AlertMetric.NODE_HEAP, node.getName(), heap);
+            batch.add(AlertMetric.NODE_CPU_ANOMALY, node.getName(), anomalyDetectionService.observe(
+                    "node:" + node.getUuid(), "cpu_percent", batch.getTimestamp(), cpu));
+            batch.add(AlertMetric.NODE_HEAP_ANOMALY, node.getName(), anomalyDetectionService.observe(
+                    "node:" + node.getUuid(), "heap_used_percent", batch.getTimestamp(), heap));
+        }
+    }
+
+    private void collectIndices(String clusterId, MetricSampleBatch batch) throws IOException {
+        List<IndexInfoDTO> indices = fetchAll("indices", alertConfig.getMaxIndices(), pagination -> {
+            IndicesRequest request = new IndicesRequest();
+            request.setTimeRange(buildTimeRange());
+            request.setPagination(pagination);
+            request.setQueryText("");
+            request.setShowSystemIndices(true);
+            return monitorService.getIndices(clusterId, request).getIndices();
+        });
+        for (IndexInfoDTO index : indices) {
+            if (index.getDocCount() != null) {
+                batch.add(AlertMetric.INDEX_DOCS, index.getName(), index.getDocCount());
+            }
+            if (index.getDataSize() != null) {
+                batch.add(AlertMetric.INDEX_SIZE, index.getName(), index.getDataSize());
+            }
+        }
+    }
+
+    /**
+     * 分页拉取的单页
+     */
+    @FunctionalInterface
+    private interface PageFetcher<T> {
+        List<T> fetch(NodesRequest.PaginationRequest pagination) throws IOException;
+    }
+
+    /**
+     * 逐页拉取直到取完或达到上限，超出上限的部分不评估
+     */
+    private <T> List<T> fetchAll(String kind, int limit, PageFetcher<T> fetcher) throws IOException {
+        int pageSize = Math.max(1, Math.min(alertConfig.getPageSize(), limit));
+        List<T> result = new ArrayList<>();
+        for (int page = 0; result.size() < limit; page++) {
+            NodesRequest.PaginationRequest pagination = new NodesRequest.PaginationRequest();
+            pagination.setIndex(page);
+            pagination.setSize(pageSize);
+            List<T> items = fetcher.fetch(pagination);
+            if (items == null || items.isEmpty()) {
+                return result;
+            }
+            result.addAll(items.size() <= limit - result.size() ? items : items.subList(0, limit - result.size()));
+            if (items.size() < pageSize) {
+                return result;
+            }
+        }
+        log.warn("Alert sampling reached the {} limit ({}), remaining {} are not evaluated", kind, limit, kind);
+        return result;
+    }
+
+    /**
+     * 健康状态数值化: green=0, yellow=1, red=2
+     */
+    private double healthValue(String status) {
+        if (status == null) {
+            return Double.NaN;
+        }
+        switch (status) {
+            case "green":
+                return 0;
+            case "yellow":
+                return 1;
+            case "red":
+                return 2;
+            default:
+                return Double.NaN;
+        }
+    }
+
+    /**
+     * 时序数据中最后一个非空值
+     */
+    private double lastValue(List<TimeSeriesPointDTO> points) {
+        if (points == null) {
+            return Double.NaN;
+        }
+        for (int i = points.size() - 1; i >= 0; i--) {
+            Double value = points.get(i).getValue();
+            if (value != null) {
+                return value;
+            }
+        }
+        return Double.NaN;
+    }
+
+    private double lastValue(NodeMetricDTO metric) {
+        if (metric == null || metric.getSummary() == null || metric.getSummary().getLastVal() == null) {
+            return Double.NaN;
+        }
+        return metric.getSummary().getLastVal();
+    }
+
+    private void addIfPresent(MetricSampleBatch batch, AlertMetric metric, String entity, Double value) {
+        if (value != null) {
+            batch.add(metric, entity, value);
+        }
+    }
+
+    private TimeRangeRequest buildTimeRange() {
+        Instant now = Instant.now();
+        TimeRangeRequest timeRange = new TimeRangeRequest();
+        timeRange.setMin(now.minus(SAMPLE_MINUTES, ChronoUnit.MINUTES).toString());
+        timeRange.setMax(now.toString());
+        return timeRange;
+    }
+}
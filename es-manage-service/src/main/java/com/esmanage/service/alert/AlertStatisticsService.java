@@ -0,0 +1,167 @@
+package com.esmanage.service.alert;
+
+import com.esmanage.dto.AlertStatisticsDTO;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * 告警统计服务
+ * 订阅告警记录存储的变更，按状态、级别、指标、规则以及小时/天桶增量维护计数，
+ * 查询只读取计数器，耗时与历史记录数无关；启动时由存储回放现有记录重建。
+ * 状态计数反映记录最新状态，其余计数按记录触发时间归档，记录过期删除时扣减。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AlertStatisticsService {
+
+    private static final long HOUR_MS = 3600_000L;
+
+    /** 小时桶保留数（7 天） */
+    private static final int HOUR_BUCKETS = 7 * 24;
+
+    /** 天桶保留数 */
+    private static final int DAY_BUCKETS = 90;
+
+    private final AlertRecordStore alertRecordStore;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private long total;
+    private final long[] byStatus = new long[AlertRecordStore.STATUSES.length];
+    private final long[] bySeverity = new long[AlertRecordStore.SEVERITIES.length + 1];
+    private final long[] byMetric = new long[AlertMetric.values().length];
+    private final Map<String, long[]> byRule = new HashMap<>();
+
+    // 环形桶：keys 记录槽位当前对应的小时/天序号，序号更新时清零
+    private final long[] hourKeys = new long[HOUR_BUCKETS];
+    private final long[] hourCounts = new long[HOUR_BUCKETS];
+    private final long[] dayKeys = new long[DAY_BUCKETS];
+    private final long[] dayCounts = new long[DAY_BUCKETS];
+
+    @PostConstruct
+    public void init() {
+        long start = System.currentTimeMillis();
+        Arrays.fill(hourKeys, -1);
+        Arrays.fill(dayKeys, -1);
+        alertRecordStore.addChangeListener(this::onRecordChange);
+        log.info("Alert statistics rebuilt from {} records in {} ms", total, System.currentTimeMillis() - start);
+    }
+
+    private synchronized void onRecordChange(String ruleId, int metric, int severity, long firedAt,
+                                             int oldStatus, int newStatus) {
+        long[] rule = byRule.computeIfAbsent(ruleId, id -> new long[1 + AlertRecordStore.STATUSES.length]);
+        if (oldStatus >= 0) {
+            byStatus[oldStatus]--;
+            rule[1 + oldStatus]--;
+        }
+        if (newStatus >= 0) {
+            byStatus[newStatus]++;
+            rule[1 + newStatus]++;
+        }
+
+        // 新增或删除记录时更新按触发时间归档的计数
+        int delta = oldStatus < 0 ? 1 : newStatus < 0 ? -1 : 0;
+        if (delta == 0) {
+            return;
+        }
+        total += delta;
+        rule[0] += delta;
+        if (rule[0] == 0) {
+            byRule.remove(ruleId);
+        }
+        bySeverity[Math.min(severity, bySeverity.length - 1)] += delta;
+        if (metric >= 0 && metric < byMetric.length) {
+            byMetric[metric] += delta;
+        }
+        addToBucket(hourKeys, hourCounts, firedAt / HOUR_MS, delta);
+        addToBucket(dayKeys, dayCounts, dayOf(firedAt), delta);
+    }
+
+    /**
+     * 比槽位当前序号更新的桶覆盖旧桶，更旧的桶已移出保留范围，直接忽略
+     */
+    private static void addToBucket(long[] keys, long[] counts, long key, int delta) {
+        int index = (int) Math.floorMod(key, (long) keys.length);
+        if (keys[index] != key) {
+            if (key < keys[index]) {
+                return;
+            }
+            keys[index] = key;
+            counts[index] = 0;
+        }
+        counts[index] += delta;
+    }
+
+    private static long countOf(long[] keys, long[] counts, long key) {
+        int index = (int) Math.floorMod(key, (long) keys.length);
+        return keys[index] == key ? counts[index] : 0;
+    }
+
+    private long dayOf(long millis) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(millis), zone).toEpochDay();
+    }
+
+    /**
+     * 获取告警统计
+     *
+     * @param hours 小时趋势的桶数，最多 168
+     * @param days  天趋势的桶数，最多 90
+     */
+    public synchronized AlertStatisticsDTO getStatistics(int hours, int days) {
+        AlertStatisticsDTO stats = new AlertStatisticsDTO();
+        stats.setTotal(total);
+        stats.setFiring(byStatus[0]);
+        stats.setResolved(byStatus[1]);
+        stats.setAcknowledged(byStatus[2]);
+
+        Map<String, Long> severities = new LinkedHashMap<>();
+        for (int i = 0; i < AlertRecordStore.SEVERITIES.length; i++) {
+            severities.put(AlertRecordStore.SEVERITIES[i], bySeverity[i]);
+        }
+        stats.setBySeverity(severities);
+
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        for (AlertMetric metric : AlertMetric.values()) {
+            metrics.put(metric.getCode(), byMetric[metric.ordinal()]);
+        }
+        stats.setByMetric(metrics);
+
+        Map<String, AlertStatisticsDTO.RuleCount> rules = new LinkedHashMap<>();
+        byRule.forEach((ruleId, counts) -> {
+            AlertStatisticsDTO.RuleCount count = new AlertStatisticsDTO.RuleCount();
+            count.setTotal(counts[0]);
+            count.setFiring(counts[1]);
+            count.setResolved(counts[2]);
+            count.setAcknowledged(counts[3]);
+            rules.put(ruleId, count);
+        });
+        stats.setByRule(rules);
+
+        long now = System.currentTimeMillis();
+        long currentHour = now / HOUR_MS;
+        int hourCount = Math.max(1, Math.min(hours, HOUR_BUCKETS));
+        List<AlertStatisticsDTO.TrendPoint> hourly = new ArrayList<>(hourCount);
+        for (long hour = currentHour - hourCount + 1; hour <= currentHour; hour++) {
+            hourly.add(new AlertStatisticsDTO.TrendPoint(hour * HOUR_MS, countOf(hourKeys, hourCounts, hour)));
+        }
+        stats.setRecentTrend(hourly);
+
+        long today = dayOf(now);
+        int dayCount = Math.max(1, Math.min(days, DAY_BUCKETS));
+        List<AlertStatisticsDTO.TrendPoint> daily = new ArrayList<>(dayCount);
+        for (long day = today - dayCount + 1; day <= today; day++) {
+            long timestamp = LocalDate.ofEpochDay(day).atStartOfDay(zone).toInstant().toEpochMilli();
+            daily.add(new AlertStatisticsDTO.TrendPoint(timestamp, countOf(dayKeys, dayCounts, day)));
+        }
+        stats.setDailyTrend(daily);
+        return stats;
+    }
+}
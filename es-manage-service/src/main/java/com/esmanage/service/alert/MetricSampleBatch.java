@@ -0,0 +1,67 @@
+package com.esmanage.service.alert;
+
+import java.util.Arrays;
+
+/**
+ * 一次采样的指标批次
+ * 以并列的基本类型数组保存 (指标, 实体, 值)，避免每个样本一个对象
+ */
+public class MetricSampleBatch {
+
+    private final long timestamp;
+    private int size = 0;
+    private int[] metrics;
+    private String[] entities;
+    private double[] values;
+
+    public MetricSampleBatch(long timestamp) {
+        this(timestamp, 256);
+    }
+
+    public MetricSampleBatch(long timestamp, int initialCapacity) {
+        this.timestamp = timestamp;
+        int capacity = Math.max(16, initialCapacity);
+        this.metrics = new int[capacity];
+        this.entities = new String[capacity];
+        this.values = new double[capacity];
+    }
+
+    /**
+     * 添加样本，NaN 值忽略
+     */
+    public void add(AlertMetric metric, String entity, double value) {
+        if (entity == null || Double.isNaN(value)) {
+            return;
+        }
+        if (size == metrics.length) {
+            int capacity = size * 2;
+            metrics = Arrays.copyOf(metrics, capacity);
+            entities = Arrays.copyOf(entities, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        metrics[size] = metric.ordinal();
+        entities[size] = entity;
+        values[size] = value;
+        size++;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int metricAt(int i) {
+        return metrics[i];
+    }
+
+    public String entityAt(int i) {
+        return entities[i];
+    }
+
+    public double valueAt(int i) {
+        return values[i];
+    }
+}
@@ -0,0 +1,465 @@
+package com.esmanage.service.approval;
+
+import com.esmanage.config.ApprovalConfig;
+import com.esmanage.dto.ApprovalRequestDTO;
+import com.esmanage.dto.WorkflowExecutionDTO;
+import com.esmanage.dto.request.WorkflowRunRequest;
+import com.esmanage.metrics.MetricsRegistry;
+import com.esmanage.service.workflow.WorkflowEngine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 审批执行队列
+ * 审批通过的申请按优先级（urgent > high > normal > low）与通过先后排队，同时执行的操作流不超过 maxConcurrent；
+ * 队列有界，已满时申请保持 approved 状态留在存储中，由定时补充按同样的顺序入队，重启后同样由补充恢复；
+ * 申请内容映射为绑定模板的流程变量，操作流结束后把结果写回申请状态、执行节点与日志。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ApprovalExecutionQueue {
+
+    static final List<String> PRIORITIES = List.of("low", "normal", "high", "urgent");
+
+    private static final String TRIGGER_TYPE = "approval";
+    private static final String SYSTEM = "system";
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final ApprovalConfig approvalConfig;
+    private final ApprovalStore approvalStore;
+    private final WorkflowEngine workflowEngine;
+    private final MetricsRegistry metricsRegistry;
+
+    /** 待执行的申请，由本对象锁保护 */
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+    private final Set<String> queuedIds = new HashSet<>();
+    /** 执行中的申请 ID -> 执行 ID，由本对象锁保护 */
+    private final Map<String, String> running = new LinkedHashMap<>();
+
+    /** 处理操作流结束回调，避免在执行对象锁内读写存储 */
+    private ThreadPoolExecutor completionExecutor;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong dispatchedCount = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong deferredCount = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        this.completionExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "approval-queue");
+            thread.setDaemon(true);
+            return thread;
+        });
+        metricsRegistry.registerExecutor("approval-completion", completionExecutor);
+        workflowEngine.addCompletionListener(this::onExecutionFinished);
+        recover();
+        refill();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        completionExecutor.shutdownNow();
+    }
+
+    /**
+     * 审批通过的申请入队；未绑定操作流的类型直接完成
+     *
+     * @return 是否已入队或已完成，队列已满返回 false
+     */
+    public synchronized boolean enqueue(ApprovalRequestDTO request) throws IOException {
+        String templateId = approvalConfig.getBindings().get(request.getType());
+        if (templateId == null || templateId.isEmpty()) {
+            approvalStore.update(request.getId(), approval -> {
+                finishNodes(approval, "skipped", "未绑定操作流");
+                approval.setStatus("completed");
+                approval.setCompletedAt(System.currentTimeMillis());
+                addLog(approval, "审批完成", SYSTEM, "未绑定操作流，审批通过即完成", null);
+                return approval;
+            });
+            return true;
+        }
+        if (!offer(request)) {
+            return false;
+        }
+        dispatch();
+        return true;
+    }
+
+    /**
+     * 移出队列（撤销已通过但未开始执行的申请）
+     */
+    public synchronized boolean remove(String approvalId) {
+        if (!queuedIds.remove(approvalId)) {
+            return false;
+        }
+        queue.removeIf(entry -> entry.approvalId.equals(approvalId));
+        return true;
+    }
+
+    /**
+     * 取消执行中的申请对应的操作流，申请状态在操作流结束回调中更新
+     *
+     * @return 申请不在执行中返回 false
+     */
+    public boolean cancelExecution(String approvalId) {
+        String executionId;
+        synchronized (this) {
+            executionId = running.get(approvalId);
+        }
+        return executionId != null && workflowEngine.cancel(executionId) != null;
+    }
+
+    /**
+     * 定时从存储补充入队
+     */
+    @Scheduled(fixedDelayString = "${approval.queue.refill-interval-ms:10000}",
+            initialDelayString = "${approval.queue.refill-interval-ms:10000}")
+    public void scheduledRefill() {
+        try {
+            refill();
+        } catch (Exception e) {
+            log.warn("Approval queue refill failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 按执行顺序列出排队中的申请
+     */
+    public synchronized List<Map<String, Object>> getQueued() {
+        List<Entry> entries = new ArrayList<>(queue);
+        Collections.sort(entries);
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Entry entry : entries) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("approvalId", entry.approvalId);
+            item.put("priority", PRIORITIES.get(entry.priority));
+            item.put("enqueuedAt", entry.enqueuedAt);
+            result.add(item);
+        }
+        return result;
+    }
+
+    /**
+     * 队列统计
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", queue.size());
+        stats.put("running", running.size());
+        stats.put("runningApprovals", new LinkedHashMap<>(running));
+        stats.put("capacity", approvalConfig.getQueue().getCapacity());
+        stats.put("maxConcurrent", approvalConfig.getQueue().getMaxConcurrent());
+        stats.put("dispatched", dispatchedCount.get());
+        stats.put("completed", completedCount.get());
+        stats.put("failed", failedCount.get());
+        stats.put("deferred", deferredCount.get());
+        return stats;
+    }
+
+    // ==================== 调度 ====================
+
+    private boolean offer(ApprovalRequestDTO request) {
+        if (queuedIds.contains(request.getId()) || running.containsKey(request.getId())) {
+            return true;
+        }
+        if (queue.size() >= approvalConfig.getQueue().getCapacity()) {
+            deferredCount.incrementAndGet();
+            log.debug("Approval queue full, deferring {}", request.getId());
+            return false;
+        }
+        int priority = Math.max(0, PRIORITIES.indexOf(request.getPriority()));
+        queue.add(new Entry(request.getId(), priority, sequence.incrementAndGet(), System.currentTimeMillis()));
+        queuedIds.add(request.getId());
+        return true;
+    }
+
+    /**
+     * 并发未满时依次启动队首申请的操作流
+     */
+    private synchronized void dispatch() {
+        while (running.size() < approvalConfig.getQueue().getMaxConcurrent() && !queue.isEmpty()) {
+            Entry entry = queue.poll();
+            queuedIds.remove(entry.approvalId);
+            try {
+                start(entry.approvalId);
+            } catch (Exception e) {
+                log.warn("Failed to start workflow for approval {}: {}", entry.approvalId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 先把申请由 approved 改为 processing，成功后才启动操作流；申请已被撤销等并发变更时不启动
+     */
+    private void start(String approvalId) throws IOException {
+        ApprovalRequestDTO approval = approvalStore.update(approvalId, request -> {
+            if (!"approved".equals(request.getStatus())) {
+                return null;
+            }
+            request.setStatus("processing");
+            return request;
+        });
+        if (approval == null) {
+            return;
+        }
+        String templateId = approvalConfig.getBindings().get(approval.getType());
+
+        WorkflowRunRequest runRequest = new WorkflowRunRequest();
+        runRequest.setTemplateId(templateId);
+        runRequest.setName(approval.getTitle());
+        runRequest.setVariables(buildVariables(approval));
+        runRequest.setTriggerType(TRIGGER_TYPE);
+        runRequest.setApprovalId(approvalId);
+        runRequest.setCreatedBy(approval.getApplicant());
+
+        WorkflowExecutionDTO execution;
+        try {
+            execution = workflowEngine.start(runRequest);
+        } catch (RuntimeException e) {
+            failedCount.incrementAndGet();
+            approvalStore.update(approvalId, request -> {
+                if (!"processing".equals(request.getStatus())) {
+                    return null;
+                }
+                finishNodes(request, "rejected", e.getMessage());
+                request.setStatus("failed");
+                request.setCompletedAt(System.currentTimeMillis());
+                addLog(request, "执行失败", SYSTEM, "启动操作流失败: " + e.getMessage(),
+                        Map.of("templateId", String.valueOf(templateId)));
+                return request;
+            });
+            return;
+        }
+
+        // 结束回调需要本对象锁才能处理，执行 ID 写回前不会被回调覆盖
+        running.put(approvalId, execution.getId());
+        dispatchedCount.incrementAndGet();
+        approvalStore.update(approvalId, request -> {
+            request.setExecutionId(execution.getId());
+            addLog(request, "开始执行", SYSTEM, execution.getWorkflowName(),
+                    Map.of("executionId", execution.getId(), "templateId", templateId));
+            return request;
+        });
+        log.info("Approval {} started workflow execution {} ({})", approvalId, execution.getId(), templateId);
+    }
+
+    private void onExecutionFinished(WorkflowExecutionDTO execution) {
+        if (execution.getApprovalId() == null || !TRIGGER_TYPE.equals(execution.getTriggerType())) {
+            return;
+        }
+        completionExecutor.execute(() -> {
+            try {
+                complete(execution.getApprovalId(), execution);
+            } catch (Exception e) {
+                log.warn("Failed to update approval {}: {}", execution.getApprovalId(), e.getMessage());
+            }
+            dispatch();
+        });
+    }
+
+    /**
+     * 把操作流结果写回申请
+     */
+    private void complete(String approvalId, WorkflowExecutionDTO execution) throws IOException {
+        synchronized (this) {
+            running.remove(approvalId);
+        }
+        String status = execution.getStatus();
+        ApprovalRequestDTO updated = approvalStore.update(approvalId, request -> {
+            if (!"processing".equals(request.getStatus())) {
+                return null;
+            }
+            long now = System.currentTimeMillis();
+            switch (status) {
+                case "completed":
+                    finishNodes(request, "approved", "执行完成");
+                    request.setStatus("completed");
+                    addLog(request, "执行完成", SYSTEM, null, executionDetails(execution));
+                    break;
+                case "cancelled":
+                    finishNodes(request, "skipped", execution.getError());
+                    request.setStatus("cancelled");
+                    addLog(request, "执行已取消", SYSTEM, execution.getError(), executionDetails(execution));
+                    break;
+                default:
+                    finishNodes(request, "rejected", execution.getError());
+                    request.setStatus("failed");
+                    addLog(request, "执行失败", SYSTEM, execution.getError(), executionDetails(execution));
+                    break;
+            }
+            request.setCompletedAt(now);
+            return request;
+        });
+        if (updated == null) {
+            return;
+        }
+        if ("completed".equals(status)) {
+            completedCount.incrementAndGet();
+        } else {
+            failedCount.incrementAndGet();
+        }
+        log.info("Approval {} {} by workflow execution {}", approvalId, status, execution.getId());
+    }
+
+    /**
+     * 启动时处理执行中的申请：操作流已结束（重启中断的执行会被标记为失败）则写回结果，仍在运行则继续跟踪
+     */
+    private void recover() {
+        try {
+            for (ApprovalRequestDTO approval : approvalStore.getByStatus("processing")) {
+                WorkflowExecutionDTO execution = approval.getExecutionId() != null
+                        ? workflowEngine.getExecution(approval.getExecutionId()) : null;
+                if (execution != null && "running".equals(execution.getStatus())) {
+                    synchronized (this) {
+                        running.put(approval.getId(), execution.getId());
+                    }
+                    continue;
+                }
+                if (execution == null) {
+                    execution = new WorkflowExecutionDTO();
+                    execution.setId(approval.getExecutionId());
+                    execution.setStatus("failed");
+                    execution.setError("执行记录不存在");
+                }
+                complete(approval.getId(), execution);
+            }
+        } catch (IOException e) {
+            log.error("Failed to recover processing approvals", e);
+        }
+    }
+
+    /**
+     * 队列有空位时按优先级从存储补充已通过但未入队的申请
+     */
+    private synchronized void refill() {
+        if (queue.size() < approvalConfig.getQueue().getCapacity()) {
+            try {
+                List<ApprovalRequestDTO> approved = new ArrayList<>(approvalStore.getByStatus("approved"));
+                approved.sort(Comparator.comparingInt(
+                        (ApprovalRequestDTO request) -> -PRIORITIES.indexOf(request.getPriority())));
+                for (ApprovalRequestDTO request : approved) {
+                    if (!offer(request)) {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Failed to load approved requests: {}", e.getMessage());
+            }
+        }
+        dispatch();
+    }
+
+    // ==================== 变量与节点 ====================
+
+    /**
+     * 申请内容转为流程变量：内容字段原样传入，补充模板使用的别名字段
+     */
+    private Map<String, Object> buildVariables(ApprovalRequestDTO approval) {
+        Map<String, Object> content = approval.getContent() != null ? approval.getContent() : Map.of();
+        Map<String, Object> variables = new LinkedHashMap<>(content);
+        variables.remove("type");
+        variables.put("channels", approval.getNotificationChannels() != null
+                ? approval.getNotificationChannels() : List.of());
+        variables.put("approvalId", approval.getId());
+
+        if (content.get("aliasName") != null) {
+            variables.putIfAbsent("alias", content.get("aliasName"));
+        }
+        if (content.get("aliases") instanceof List<?> aliases && !aliases.isEmpty()) {
+            variables.putIfAbsent("alias", aliases.get(0));
+        }
+        switch (approval.getType()) {
+            case "create_index": {
+                Map<String, Object> settings = new LinkedHashMap<>();
+                if (content.get("numberOfShards") != null) {
+                    settings.put("number_of_shards", content.get("numberOfShards"));
+                }
+                if (content.get("numberOfReplicas") != null) {
+                    settings.put("number_of_replicas", content.get("numberOfReplicas"));
+                }
+                variables.putIfAbsent("settings", settings);
+                variables.putIfAbsent("mappings", Map.of());
+                break;
+            }
+            case "update_mapping":
+                // 映射变更通过新建索引并迁移完成，新索引名附加时间后缀
+                variables.putIfAbsent("sourceIndex", content.get("indexName"));
+                variables.putIfAbsent("targetIndex",
+                        content.get("indexName") + "-" + LocalDateTime.now().format(SUFFIX_FORMAT));
+                break;
+            case "update_alias":
+                variables.putIfAbsent("newIndex", content.get("indexName"));
+                break;
+            default:
+                break;
+        }
+        return variables;
+    }
+
+    private Map<String, Object> executionDetails(WorkflowExecutionDTO execution) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("executionId", execution.getId());
+        if (execution.getDuration() != null) {
+            details.put("duration", execution.getDuration());
+        }
+        return details;
+    }
+
+    /**
+     * 结束仍待处理的执行节点
+     */
+    private static void finishNodes(ApprovalRequestDTO request, String status, String comment) {
+        long now = System.currentTimeMillis();
+        for (ApprovalRequestDTO.Node node : request.getNodes()) {
+            if ("execution".equals(node.getType()) && "pending".equals(node.getStatus())) {
+                node.setStatus(status);
+                node.setComment(comment);
+                node.setOperatedAt(now);
+                node.setOperatedBy(SYSTEM);
+            }
+        }
+    }
+
+    static void addLog(ApprovalRequestDTO request, String action, String operator, String comment,
+                       Map<String, Object> details) {
+        ApprovalRequestDTO.Log entry = new ApprovalRequestDTO.Log();
+        entry.setId("log-" + (request.getLogs().size() + 1));
+        entry.setAction(action);
+        entry.setOperator(operator);
+        entry.setOperatedAt(System.currentTimeMillis());
+        entry.setComment(comment);
+        entry.setDetails(details);
+        request.getLogs().add(entry);
+    }
+
+    /**
+     * 队列项：优先级高的在前，同优先级按入队先后
+     */
+    private record Entry(String approvalId, int priority, long sequence, long enqueuedAt)
+            implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry other) {
+            if (priority != other.priority) {
+                return Integer.compare(other.priority, priority);
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
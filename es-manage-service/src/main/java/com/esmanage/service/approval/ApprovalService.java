@@ -0,0 +1,281 @@
+package com.esmanage.service.approval;
+
+import com.esmanage.config.ApprovalConfig;
+import com.esmanage.dto.ApprovalPageDTO;
+import com.esmanage.dto.ApprovalRequestDTO;
+import com.esmanage.dto.request.ApprovalActionRequest;
+import com.esmanage.dto.request.ApprovalQuery;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * 审批服务
+ * 提交申请时补全默认审批流程，审批节点按顺序逐个通过，任一节点驳回即结束；
+ * 全部审批节点通过后申请交给执行队列，执行绑定的操作流
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ApprovalService {
+
+    /** 绑定了操作流的类型提交时必须提供的内容字段 */
+    private static final Map<String, List<String>> REQUIRED_CONTENT = Map.of(
+            "create_index", List.of("indexName"),
+            "delete_index", List.of("indexName"),
+            "update_mapping", List.of("indexName", "mappings"),
+            "update_alias", List.of("aliasName", "indexName"),
+            "reindex", List.of("sourceIndex", "destIndex"));
+
+    private static final String DEFAULT_OPERATOR = "admin";
+
+    private final ApprovalConfig approvalConfig;
+    private final ApprovalStore approvalStore;
+    private final ApprovalExecutionQueue executionQueue;
+
+    /**
+     * 提交申请，未指定审批节点时使用默认流程（技术评审 → DBA 审批 → 执行）；
+     * 绑定了操作流的类型始终使用服务端的默认流程，不接受申请人提交的节点，也不会免审批直接通过
+     *
+     * @throws IllegalArgumentException 缺少标题、类型、申请人或必需的内容字段，优先级无效，
+     *                                  或为绑定了操作流的类型指定了审批节点
+     */
+    public ApprovalRequestDTO submit(ApprovalRequestDTO request) throws IOException {
+        if (isBlank(request.getTitle()) || isBlank(request.getType()) || isBlank(request.getApplicant())) {
+            throw new IllegalArgumentException("Approval request requires title, type and applicant");
+        }
+        if (request.getPriority() == null) {
+            request.setPriority("normal");
+        } else if (!ApprovalExecutionQueue.PRIORITIES.contains(request.getPriority())) {
+            throw new IllegalArgumentException("Invalid priority: " + request.getPriority());
+        }
+        if (request.getContent() == null) {
+            request.setContent(new LinkedHashMap<>());
+        }
+        boolean bound = approvalConfig.getBindings().containsKey(request.getType());
+        if (bound) {
+            for (String field : REQUIRED_CONTENT.getOrDefault(request.getType(), List.of())) {
+                if (request.getContent().get(field) == null) {
+                    throw new IllegalArgumentException("Missing content field: " + field);
+                }
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        request.setId("approval-" + UUID.randomUUID().toString().substring(0, 8));
+        request.setStatus("pending");
+        request.setExecutionId(null);
+        request.setCreatedAt(now);
+        request.setUpdatedAt(now);
+        request.setCompletedAt(null);
+        if (request.getNotificationChannels() == null) {
+            request.setNotificationChannels(new ArrayList<>());
+        }
+        boolean customNodes = request.getNodes() != null && !request.getNodes().isEmpty();
+        if (bound && customNodes) {
+            throw new IllegalArgumentException("Approval nodes of type " + request.getType()
+                    + " are fixed and cannot be specified");
+        }
+        if (!customNodes) {
+            request.setNodes(defaultNodes(bound));
+        }
+        for (int i = 0; i < request.getNodes().size(); i++) {
+            ApprovalRequestDTO.Node node = request.getNodes().get(i);
+            if (isBlank(node.getId())) {
+                node.setId("node-" + (i + 1));
+            }
+            if (isBlank(node.getType())) {
+                node.setType("approval");
+            }
+            node.setStatus("pending");
+            node.setComment(null);
+            node.setOperatedAt(null);
+            node.setOperatedBy(null);
+        }
+        request.setLogs(new ArrayList<>());
+        ApprovalExecutionQueue.addLog(request, "提交申请", request.getApplicant(), null, null);
+
+        // 默认流程总有审批节点，只有未绑定操作流且自定义节点中不含审批节点的申请会直接通过
+        boolean autoApproved = !bound && nextApprovalNode(request) == null;
+        if (autoApproved) {
+            request.setStatus("approved");
+        }
+        approvalStore.insert(request);
+        log.info("Approval {} submitted by {}: {} ({})", request.getId(), request.getApplicant(),
+                request.getTitle(), request.getType());
+        if (autoApproved) {
+            executionQueue.enqueue(request);
+        }
+        return approvalStore.get(request.getId());
+    }
+
+    /**
+     * 通过审批节点，最后一个审批节点通过后进入执行队列
+     *
+     * @return 申请不存在返回 null
+     * @throws IllegalArgumentException 申请不是待审批状态或节点不可操作
+     */
+    public ApprovalRequestDTO approve(String id, ApprovalActionRequest action) throws IOException {
+        ApprovalRequestDTO updated = approvalStore.update(id, request -> {
+            ApprovalRequestDTO.Node node = operableNode(request, action);
+            String operator = operator(action);
+            mark(node, "approved", operator, action.getComment());
+            ApprovalExecutionQueue.addLog(request, node.getName() + "通过", operator, action.getComment(), null);
+            if (nextApprovalNode(request) == null) {
+                request.setStatus("approved");
+            }
+            return request;
+        });
+        if (updated != null && "approved".equals(updated.getStatus())) {
+            executionQueue.enqueue(updated);
+            return approvalStore.get(id);
+        }
+        return updated;
+    }
+
+    /**
+     * 驳回审批节点，申请结束，其余节点跳过
+     *
+     * @return 申请不存在返回 null
+     * @throws IllegalArgumentException 申请不是待审批状态或节点不可操作
+     */
+    public ApprovalRequestDTO reject(String id, ApprovalActionRequest action) throws IOException {
+        return approvalStore.update(id, request -> {
+            ApprovalRequestDTO.Node node = operableNode(request, action);
+            String operator = operator(action);
+            mark(node, "rejected", operator, action.getComment());
+            skipPending(request);
+            request.setStatus("rejected");
+            request.setCompletedAt(System.currentTimeMillis());
+            ApprovalExecutionQueue.addLog(request, node.getName() + "驳回", operator, action.getComment(), null);
+            return request;
+        });
+    }
+
+    /**
+     * 撤销申请：待审批与排队中的申请直接撤销，执行中的申请取消操作流，结果由执行队列写回
+     *
+     * @return 申请不存在返回 null
+     * @throws IllegalArgumentException 申请已结束
+     */
+    public ApprovalRequestDTO cancel(String id, ApprovalActionRequest action) throws IOException {
+        ApprovalRequestDTO current = approvalStore.get(id);
+        if (current == null) {
+            return null;
+        }
+        if ("processing".equals(current.getStatus())) {
+            if (!executionQueue.cancelExecution(id)) {
+                throw new IllegalArgumentException("Approval execution is not running: " + id);
+            }
+            return approvalStore.get(id);
+        }
+        ApprovalRequestDTO updated = approvalStore.update(id, request -> {
+            if (!"pending".equals(request.getStatus()) && !"approved".equals(request.getStatus())) {
+                throw new IllegalArgumentException("Approval request is " + request.getStatus() + ": " + id);
+            }
+            skipPending(request);
+            request.setStatus("cancelled");
+            request.setCompletedAt(System.currentTimeMillis());
+            ApprovalExecutionQueue.addLog(request, "撤销申请", operator(action), action.getComment(), null);
+            return request;
+        });
+        executionQueue.remove(id);
+        return updated;
+    }
+
+    /**
+     * 按 ID 获取申请
+     */
+    public ApprovalRequestDTO getRequest(String id) throws IOException {
+        return approvalStore.get(id);
+    }
+
+    /**
+     * 分页查询申请
+     */
+    public ApprovalPageDTO query(ApprovalQuery query) throws IOException {
+        return approvalStore.query(query);
+    }
+
+    /**
+     * 审批统计：各状态申请数与执行队列状态
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("byStatus", approvalStore.countByStatus());
+        stats.put("queue", executionQueue.getStats());
+        stats.put("store", approvalStore.getStats());
+        return stats;
+    }
+
+    /**
+     * 定位要操作的审批节点：指定节点时必须是下一个待审批节点，保证按顺序审批
+     */
+    private ApprovalRequestDTO.Node operableNode(ApprovalRequestDTO request, ApprovalActionRequest action) {
+        if (!"pending".equals(request.getStatus())) {
+            throw new IllegalArgumentException("Approval request is " + request.getStatus() + ": " + request.getId());
+        }
+        ApprovalRequestDTO.Node next = nextApprovalNode(request);
+        if (next == null) {
+            throw new IllegalArgumentException("No pending approval node: " + request.getId());
+        }
+        if (action.getNodeId() != null && !action.getNodeId().equals(next.getId())) {
+            throw new IllegalArgumentException("Node " + action.getNodeId() + " is not the current approval node");
+        }
+        return next;
+    }
+
+    private static ApprovalRequestDTO.Node nextApprovalNode(ApprovalRequestDTO request) {
+        for (ApprovalRequestDTO.Node node : request.getNodes()) {
+            if ("approval".equals(node.getType()) && "pending".equals(node.getStatus())) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private static void skipPending(ApprovalRequestDTO request) {
+        for (ApprovalRequestDTO.Node node : request.getNodes()) {
+            if ("pending".equals(node.getStatus())) {
+                node.setStatus("skipped");
+            }
+        }
+    }
+
+    private static void mark(ApprovalRequestDTO.Node node, String status, String operator, String comment) {
+        node.setStatus(status);
+        node.setOperatedBy(operator);
+        node.setComment(comment);
+        node.setOperatedAt(System.currentTimeMillis());
+    }
+
+    private static List<ApprovalRequestDTO.Node> defaultNodes(boolean withExecution) {
+        List<ApprovalRequestDTO.Node> nodes = new ArrayList<>();
+        nodes.add(node("技术评审", "approval", "技术负责人"));
+        nodes.add(node("DBA 审批", "approval", "DBA"));
+        if (withExecution) {
+            nodes.add(node("执行操作", "execution", null));
+        }
+        return nodes;
+    }
+
+    private static ApprovalRequestDTO.Node node(String name, String type, String role) {
+        ApprovalRequestDTO.Node node = new ApprovalRequestDTO.Node();
+        node.setName(name);
+        node.setType(type);
+        node.setAssigneeRole(role);
+        return node;
+    }
+
+    private static String operator(ApprovalActionRequest action) {
+        return action.getOperator() != null && !action.getOperator().isEmpty()
+                ? action.getOperator() : DEFAULT_OPERATOR;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
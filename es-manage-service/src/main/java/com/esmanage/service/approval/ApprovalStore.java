@@ -0,0 +1,457 @@
+package com.esmanage.service.approval;
+
+import com.esmanage.config.ApprovalConfig;
+import com.esmanage.dto.ApprovalPageDTO;
+import com.esmanage.dto.ApprovalRequestDTO;
+import com.esmanage.dto.request.ApprovalQuery;
+import com.esmanage.service.store.IntList;
+import com.esmanage.service.store.Interner;
+import com.esmanage.service.store.SegmentLog;
+import com.esmanage.service.store.SegmentLog.Segment;
+import com.esmanage.service.store.SlotQuery;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * 审批申请存储
+ * 申请的每次变更（提交、审批、执行状态、日志）以完整快照追加写入内存映射的分段日志（{@link SegmentLog}），同一申请以最后一条为准；
+ * 内存中按状态、类型、申请人、小时桶维护二级索引，列表查询只遍历最小的候选集合；
+ * 定长二进制头保存索引字段，启动时只扫描头部即可重建索引；审批记录不过期，定期重写有效占比低的旧段。
+ *
+ * 事件格式: length(4) crc(4) createdAt(8) status(1) reserved(3)
+ *          idLen(2) typeLen(2) applicantLen(2) id type applicant json
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ApprovalStore {
+
+    /** length 之后的定长部分 */
+    private static final int FIXED_HEADER = 22;
+    private static final int STRINGS_OFFSET = 4 + FIXED_HEADER;
+
+    private static final long HOUR_MS = 3600_000L;
+
+    static final String[] STATUSES = {"pending", "approved", "rejected", "cancelled", "processing", "completed", "failed"};
+
+    private final ApprovalConfig approvalConfig;
+    private final ObjectMapper objectMapper;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private SegmentLog segmentLog;
+
+    // 申请槽位：每个申请一个稠密 ID，字段保存在并列数组中
+    private final Map<String, Integer> slotById = new HashMap<>();
+    private int slotCount = 0;
+    private String[] slotIds = new String[1024];
+    private int[] slotType = new int[1024];
+    private int[] slotApplicant = new int[1024];
+    private byte[] slotStatus = new byte[1024];
+    private long[] slotCreatedAt = new long[1024];
+    private Segment[] slotSegment = new Segment[1024];
+    private int[] slotPosition = new int[1024];
+
+    // 二级索引
+    private final Interner typeNames = new Interner();
+    private final Interner applicantNames = new Interner();
+    private final List<IntList> byType = new ArrayList<>();
+    private final List<IntList> byApplicant = new ArrayList<>();
+    private final BitSet[] byStatus = new BitSet[STATUSES.length];
+    private final TreeMap<Long, IntList> byHour = new TreeMap<>();
+
+    private long lastCompactionAt = 0;
+
+    @PostConstruct
+    public void init() throws IOException {
+        for (int i = 0; i < byStatus.length; i++) {
+            byStatus[i] = new BitSet();
+        }
+        segmentLog = new SegmentLog(Paths.get(approvalConfig.getDataDir()).toAbsolutePath().resolve("requests"),
+                approvalConfig.getSegmentBytes(), approvalConfig.isForceOnWrite(), FIXED_HEADER, "approval request");
+
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            segmentLog.open(this::scan);
+            log.info("Loaded {} approval requests from {} segments in {} ms",
+                    slotCount, segmentLog.segmentCount(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 写入新申请
+     *
+     * @throws IllegalArgumentException 申请 ID 已存在或状态无法识别
+     */
+    public void insert(ApprovalRequestDTO request) throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (slotById.containsKey(request.getId())) {
+                throw new IllegalArgumentException("Approval request already exists: " + request.getId());
+            }
+            append(request);
+            flush();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 在写锁内读取申请最新快照、修改后追加写入；修改函数返回 null 时不写入，抛出的异常原样传出
+     *
+     * @return 修改后的申请，申请不存在或未修改返回 null
+     */
+    public ApprovalRequestDTO update(String id, UnaryOperator<ApprovalRequestDTO> mutation) throws IOException {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotById.get(id);
+            if (slot == null) {
+                return null;
+            }
+            ApprovalRequestDTO request = mutation.apply(readRecord(slot));
+            if (request == null) {
+                return null;
+            }
+            request.setUpdatedAt(System.currentTimeMillis());
+            append(request);
+            flush();
+            return request;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 按 ID 获取申请
+     */
+    public ApprovalRequestDTO get(String id) throws IOException {
+        lock.readLock().lock();
+        try {
+            Integer slot = slotById.get(id);
+            return slot != null ? readRecord(slot) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 获取某一状态的全部申请，按提交先后正序
+     */
+    public List<ApprovalRequestDTO> getByStatus(String status) throws IOException {
+        int code = Interner.indexOf(STATUSES, status);
+        if (code < 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<ApprovalRequestDTO> requests = new ArrayList<>();
+            BitSet bits = byStatus[code];
+            for (int slot = bits.nextSetBit(0); slot >= 0; slot = bits.nextSetBit(slot + 1)) {
+                requests.add(readRecord(slot));
+            }
+            return requests;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 分页查询，结果按提交先后倒序
+     */
+    public ApprovalPageDTO query(ApprovalQuery query) throws IOException {
+        long start = System.nanoTime();
+        int page = query.getPage() != null ? Math.max(0, query.getPage()) : 0;
+        int pageSize = query.getPageSize() != null ? Math.max(1, query.getPageSize()) : 20;
+        long offset = (long) page * pageSize;
+
+        ApprovalPageDTO result = new ApprovalPageDTO();
+        result.setPage(page);
+        result.setPageSize(pageSize);
+        List<ApprovalRequestDTO> records = new ArrayList<>();
+        long total = 0;
+
+        lock.readLock().lock();
+        try {
+            Filter filter = new Filter(query);
+            if (!filter.empty) {
+                IntList matched = new IntList();
+                total = filter.candidates().page(filter::matches, offset, pageSize, matched);
+                for (int i = 0; i < matched.size(); i++) {
+                    records.add(readRecord(matched.get(i)));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        result.setRecords(records);
+        result.setTotal(total);
+        result.setTookMicros((System.nanoTime() - start) / 1000);
+        return result;
+    }
+
+    /**
+     * 各状态的申请数
+     */
+    public Map<String, Integer> countByStatus() {
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (int i = 0; i < STATUSES.length; i++) {
+                counts.put(STATUSES[i], byStatus[i].cardinality());
+            }
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 定时压缩
+     */
+    @Scheduled(fixedDelayString = "${approval.compact-interval-ms:3600000}",
+            initialDelayString = "${approval.compact-interval-ms:3600000}")
+    public void scheduledCompact() {
+        try {
+            compact();
+        } catch (Exception e) {
+            log.warn("Approval store compaction failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 删除无有效快照的段，重写有效占比低的段
+     */
+    public Map<String, Object> compact() throws IOException {
+        long start = System.currentTimeMillis();
+        SegmentLog.Compaction compaction;
+
+        lock.writeLock().lock();
+        try {
+            compaction = segmentLog.compact(approvalConfig.getCompactLiveRatio(), entryOwner);
+            lastCompactionAt = System.currentTimeMillis();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("deletedSegments", compaction.deletedSegments());
+        result.put("rewrittenSegments", compaction.rewrittenSegments());
+        result.put("movedRecords", compaction.movedEntries());
+        result.put("elapsedMs", System.currentTimeMillis() - start);
+        if (compaction.deletedSegments() > 0 || compaction.rewrittenSegments() > 0) {
+            log.info("Approval store compaction: {}", result);
+        }
+        return result;
+    }
+
+    /**
+     * 存储统计
+     */
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", slotCount);
+            stats.put("entries", segmentLog.entryCount());
+            stats.put("segments", segmentLog.segmentCount());
+            stats.put("bytes", segmentLog.bytes());
+            stats.put("types", typeNames.size());
+            stats.put("applicants", applicantNames.size());
+            stats.put("hourBuckets", byHour.size());
+            stats.put("lastCompactionAt", lastCompactionAt);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== 写入 ====================
+
+    private void append(ApprovalRequestDTO request) throws IOException {
+        byte[] id = SegmentLog.utf8(request.getId());
+        byte[] type = SegmentLog.utf8(request.getType());
+        byte[] applicant = SegmentLog.utf8(request.getApplicant());
+        byte[] json = objectMapper.writeValueAsBytes(request);
+        if (id.length > Short.MAX_VALUE || type.length > Short.MAX_VALUE || applicant.length > Short.MAX_VALUE) {
+            throw new IOException("Approval request key too long: " + request.getId());
+        }
+
+        int length = FIXED_HEADER + id.length + type.length + applicant.length + json.length;
+        long createdAt = request.getCreatedAt() != null ? request.getCreatedAt() : System.currentTimeMillis();
+        int statusCode = Interner.indexOf(STATUSES, request.getStatus());
+        if (statusCode < 0) {
+            throw new IllegalArgumentException("Unknown approval status: " + request.getStatus());
+        }
+        byte status = (byte) statusCode;
+
+        ByteBuffer entry = SegmentLog.newEntry(length)
+                .putLong(createdAt)
+                .put(status).put((byte) 0).put((byte) 0).put((byte) 0)
+                .putShort((short) id.length).putShort((short) type.length).putShort((short) applicant.length)
+                .put(id).put(type).put(applicant).put(json);
+
+        int position = segmentLog.append(entry);
+        apply(request.getId(), request.getType(), request.getApplicant(), createdAt, status,
+                segmentLog.active(), position);
+    }
+
+    private void flush() {
+        segmentLog.flush();
+    }
+
+    // ==================== 索引 ====================
+
+    /**
+     * 由扫描到的事件头部重建索引
+     */
+    private void scan(Segment segment, int position) {
+        ByteBuffer buffer = segment.buffer();
+        int idLen = buffer.getShort(position + 20);
+        int typeLen = buffer.getShort(position + 22);
+        int applicantLen = buffer.getShort(position + 24);
+        int stringsStart = position + STRINGS_OFFSET;
+        apply(SegmentLog.string(buffer, stringsStart, idLen),
+                SegmentLog.string(buffer, stringsStart + idLen, typeLen),
+                SegmentLog.string(buffer, stringsStart + idLen + typeLen, applicantLen),
+                buffer.getLong(position + 8), buffer.get(position + 16),
+                segment, position);
+    }
+
+    private void apply(String id, String type, String applicant, long createdAt, byte status,
+                       Segment segment, int position) {
+        Integer existing = slotById.get(id);
+        int slot;
+        if (existing == null) {
+            slot = newSlot(id, type, applicant, createdAt);
+        } else {
+            slot = existing;
+            slotSegment[slot].release();
+            byStatus[slotStatus[slot]].clear(slot);
+        }
+        slotStatus[slot] = status;
+        byStatus[status].set(slot);
+        slotSegment[slot] = segment;
+        slotPosition[slot] = position;
+    }
+
+    private int newSlot(String id, String type, String applicant, long createdAt) {
+        if (slotCount == slotIds.length) {
+            int capacity = slotCount * 2;
+            slotIds = Arrays.copyOf(slotIds, capacity);
+            slotType = Arrays.copyOf(slotType, capacity);
+            slotApplicant = Arrays.copyOf(slotApplicant, capacity);
+            slotStatus = Arrays.copyOf(slotStatus, capacity);
+            slotCreatedAt = Arrays.copyOf(slotCreatedAt, capacity);
+            slotSegment = Arrays.copyOf(slotSegment, capacity);
+            slotPosition = Arrays.copyOf(slotPosition, capacity);
+        }
+        int slot = slotCount++;
+        int typeId = typeNames.id(type);
+        int applicantId = applicantNames.id(applicant);
+        slotIds[slot] = id;
+        slotType[slot] = typeId;
+        slotApplicant[slot] = applicantId;
+        slotCreatedAt[slot] = createdAt;
+
+        IntList.postings(byType, typeId).add(slot);
+        IntList.postings(byApplicant, applicantId).add(slot);
+        byHour.computeIfAbsent(createdAt / HOUR_MS, hour -> new IntList()).add(slot);
+        slotById.put(id, slot);
+        return slot;
+    }
+
+    /**
+     * 压缩时按事件中的申请 ID 判断是否仍是最新快照
+     */
+    private final SegmentLog.EntryOwner entryOwner = new SegmentLog.EntryOwner() {
+        @Override
+        public int liveSlot(Segment segment, int position) {
+            Integer slot = slotById.get(SegmentLog.string(segment.buffer(), position + STRINGS_OFFSET,
+                    segment.buffer().getShort(position + 20)));
+            return slot != null && slotSegment[slot] == segment && slotPosition[slot] == position ? slot : -1;
+        }
+
+        @Override
+        public void relocate(int slot, Segment segment, int position) {
+            slotSegment[slot] = segment;
+            slotPosition[slot] = position;
+        }
+    };
+
+    private ApprovalRequestDTO readRecord(int slot) throws IOException {
+        int position = slotPosition[slot];
+        ByteBuffer buffer = slotSegment[slot].buffer();
+        int length = buffer.getInt(position);
+        int jsonStart = position + STRINGS_OFFSET
+                + buffer.getShort(position + 20) + buffer.getShort(position + 22) + buffer.getShort(position + 24);
+        byte[] json = new byte[position + 4 + length - jsonStart];
+        buffer.get(jsonStart, json);
+        return objectMapper.readValue(json, ApprovalRequestDTO.class);
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 查询条件，构造时把字符串条件解析为索引 ID
+     */
+    private final class Filter {
+        private final int type;
+        private final int applicant;
+        private final int status;
+        private final long from;
+        private final long to;
+        /** 某个条件在索引中不存在，结果必为空 */
+        private final boolean empty;
+
+        Filter(ApprovalQuery query) {
+            type = query.getType() != null ? typeNames.find(query.getType()) : -1;
+            applicant = query.getApplicant() != null ? applicantNames.find(query.getApplicant()) : -1;
+            status = query.getStatus() != null ? Interner.indexOf(STATUSES, query.getStatus()) : -1;
+            from = query.getFrom() != null ? query.getFrom() : Long.MIN_VALUE;
+            to = query.getTo() != null ? query.getTo() : Long.MAX_VALUE;
+            empty = (query.getType() != null && type < 0)
+                    || (query.getApplicant() != null && applicant < 0)
+                    || (query.getStatus() != null && status < 0)
+                    || from > to;
+        }
+
+        boolean matches(int slot) {
+            return (type < 0 || slotType[slot] == type)
+                    && (applicant < 0 || slotApplicant[slot] == applicant)
+                    && (status < 0 || slotStatus[slot] == status)
+                    && slotCreatedAt[slot] >= from && slotCreatedAt[slot] <= to;
+        }
+
+        /**
+         * 条件对应的候选集合，遍历其中最小的一个
+         */
+        SlotQuery candidates() {
+            SlotQuery candidates = new SlotQuery(slotCount);
+            if (type >= 0) {
+                candidates.postings(byType.get(type));
+            }
+            if (applicant >= 0) {
+                candidates.postings(byApplicant.get(applicant));
+            }
+            if (status >= 0) {
+                candidates.bits(byStatus[status]);
+            }
+            return candidates.buckets(byHour, HOUR_MS, from, to);
+        }
+    }
+}
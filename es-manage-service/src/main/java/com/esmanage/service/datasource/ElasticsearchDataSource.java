@@ -0,0 +1,917 @@
+package com.esmanage.service.datasource;
+
+import com.esmanage.client.ElasticsearchClient;
+import com.esmanage.client.JsonStreams;
+import com.esmanage.dto.*;
+import com.esmanage.dto.request.IndicesRequest;
+import com.esmanage.dto.request.NodesRequest;
+import com.esmanage.dto.request.TimeRangeRequest;
+import com.esmanage.service.SampleRingBuffer;
+import com.fasterxml.jackson.core.JsonParser;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Elasticsearch 直连数据源
+ * 直接读取 _cluster/health、_cluster/stats、_nodes/stats（filter_path 过滤）和 _cat/indices，
+ * 流式解析后填充与 Kibana 相同结构的 DTO。
+ * ES 本身不保存历史，时序图表由每次采集的累计计数器在内存中推导（速率、平均延迟）。
+ * 按 clusterId 连接对应集群（见 elasticsearch.clusters），采集结果与历史按集群分别保存。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ElasticsearchDataSource implements MonitoringDataSource {
+
+    public static final String NAME = "elasticsearch";
+
+    private static final String HEALTH_PATH = "/_cluster/health?filter_path=status,number_of_nodes,"
+            + "active_shards,active_primary_shards,relocating_shards,initializing_shards,unassigned_shards";
+
+    private static final String CLUSTER_STATS_PATH = "/_cluster/stats?filter_path=indices.count,"
+            + "indices.docs.count,indices.store.size_in_bytes,nodes.versions,nodes.jvm.max_uptime_in_millis,"
+            + "nodes.jvm.mem.heap_used_in_bytes,nodes.jvm.mem.heap_max_in_bytes";
+
+    private static final String NODE_STATS_PATH = "/_nodes/stats/jvm,os,fs,indices?filter_path="
+            + "nodes.*.name,nodes.*.transport_address,nodes.*.host,nodes.*.ip,nodes.*.roles,"
+            + "nodes.*.jvm.mem.heap_used_percent,nodes.*.jvm.mem.heap_used_in_bytes,nodes.*.jvm.mem.heap_max_in_bytes,"
+            + "nodes.*.os.cpu.percent,nodes.*.os.cpu.load_average.1m,"
+            + "nodes.*.fs.total.total_in_bytes,nodes.*.fs.total.available_in_bytes,"
+            + "nodes.*.indices.docs.count,nodes.*.indices.store.size_in_bytes,nodes.*.indices.segments.count,"
+            + "nodes.*.indices.search.query_total,nodes.*.indices.search.query_time_in_millis,"
+            + "nodes.*.indices.indexing.index_total,nodes.*.indices.indexing.index_time_in_millis";
+
+    private static final String CAT_INDICES_COLUMNS = "index,health,status,pri,rep,docs.count,store.size,"
+            + "pri.store.size,search.query_total,indexing.index_total";
+
+    /** 采集结果复用时间：概览会并行请求集群和节点数据，避免同一时刻重复采集 */
+    private static final long SNAPSHOT_REUSE_MS = 1000;
+
+    /** 每个实体保留的采样数 */
+    private static final int HISTORY_CAPACITY = 720;
+
+    /** 每个集群保留历史的索引数上限（按最近访问淘汰） */
+    private static final int MAX_INDEX_HISTORIES = 200;
+
+    /** 计算索引速率的最小采样间隔，间隔过短时沿用上次速率 */
+    private static final long MIN_RATE_INTERVAL_MS = 1000;
+
+    /** 超过此时长未出现的索引不再保留累计计数器 */
+    private static final long INDEX_COUNTER_TTL_MS = 3600_000L;
+
+    // 集群历史通道
+    private static final int C_QUERY_TOTAL = 0;
+    private static final int C_QUERY_TIME = 1;
+    private static final int C_INDEX_TOTAL = 2;
+    private static final int C_INDEX_TIME = 3;
+
+    // 节点历史通道
+    private static final int N_CPU = 0;
+    private static final int N_HEAP = 1;
+    private static final int N_LOAD = 2;
+    private static final int N_FREE = 3;
+    private static final int N_QUERY_TOTAL = 4;
+    private static final int N_QUERY_TIME = 5;
+    private static final int N_INDEX_TOTAL = 6;
+    private static final int N_INDEX_TIME = 7;
+    private static final int N_SEGMENTS = 8;
+
+    // 索引历史通道
+    private static final int I_DOCS = 0;
+    private static final int I_SIZE = 1;
+    private static final int I_QUERY_TOTAL = 2;
+    private static final int I_INDEX_TOTAL = 3;
+
+    /** node_latency 的第二条序列（写入延迟）与目录中的默认元信息标签不同 */
+    private static final MetricInfoDTO INDEXING_LATENCY_INFO = MetricCatalog.metricInfo("Indexing", "Latency", "ms");
+
+    private final ElasticsearchClient elasticsearchClient;
+
+    /** 集群 ID -> 采集状态 */
+    private final Map<String, ClusterState> clusters = new ConcurrentHashMap<>();
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public ClusterOverviewDTO getClusterOverview(String clusterId, TimeRangeRequest timeRange,
+            ResponseProjection projection) throws IOException {
+        ClusterState state = state(clusterId);
+        ClusterStatusDTO status = fetchClusterStatus(state);
+        fetchNodeStats(state);
+
+        ClusterOverviewDTO overview = new ClusterOverviewDTO();
+        overview.setClusterStatus(status);
+        if (!projection.includesSection("metrics")) {
+            return overview;
+        }
+
+        long[] range = parseTimeRange(timeRange);
+        SampleRingBuffer clusterHistory = state.clusterHistory;
+        ClusterOverviewDTO.MetricsDTO metrics = new ClusterOverviewDTO.MetricsDTO();
+        if (projection.includesMetric(MetricCatalog.CLUSTER_SEARCH_RATE)) {
+            metrics.setCluster_search_request_rate(List.of(series(
+                    clusterHistory.rateSeries(C_QUERY_TOTAL, range[0], range[1]),
+                    range, MetricCatalog.CLUSTER_SEARCH_RATE)));
+        }
+        if (projection.includesMetric(MetricCatalog.CLUSTER_QUERY_LATENCY)) {
+            metrics.setCluster_query_latency(List.of(series(
+                    clusterHistory.ratioSeries(C_QUERY_TIME, C_QUERY_TOTAL, range[0], range[1]),
+                    range, MetricCatalog.CLUSTER_QUERY_LATENCY)));
+        }
+        if (projection.includesMetric(MetricCatalog.CLUSTER_INDEX_RATE)) {
+            metrics.setCluster_index_request_rate(List.of(series(
+                    clusterHistory.rateSeries(C_INDEX_TOTAL, range[0], range[1]),
+                    range, MetricCatalog.CLUSTER_INDEX_RATE)));
+        }
+        if (projection.includesMetric(MetricCatalog.CLUSTER_INDEX_LATENCY)) {
+            metrics.setCluster_index_latency(List.of(series(
+                    clusterHistory.ratioSeries(C_INDEX_TIME, C_INDEX_TOTAL, range[0], range[1]),
+                    range, MetricCatalog.CLUSTER_INDEX_LATENCY)));
+        }
+        overview.setMetrics(metrics);
+        return overview;
+    }
+
+    @Override
+    public NodesResponseDTO getNodes(String clusterId, NodesRequest request) throws IOException {
+        ClusterState state = state(clusterId);
+        ClusterStatusDTO status = fetchClusterStatus(state);
+        NodeSnapshot snapshot = fetchNodeStats(state);
+        long[] range = parseTimeRange(request.getTimeRange());
+
+        List<NodeSample> samples = new ArrayList<>(snapshot.nodes.values());
+        samples.sort(Comparator.comparing(sample -> sample.name != null ? sample.name : sample.id));
+
+        List<NodeInfoDTO> nodes = new ArrayList<>();
+        for (NodeSample sample : page(samples, request.getPagination())) {
+            SampleRingBuffer history = state.nodeHistories.get(sample.id);
+            NodeInfoDTO node = new NodeInfoDTO();
+            node.setName(sample.name);
+            node.setUuid(sample.id);
+            node.setIsOnline(true);
+            node.setTransportAddress(sample.transportAddress);
+            node.setRoles(sample.roles);
+            node.setType(nodeType(sample.roles));
+            node.setNodeTypeLabel(nodeTypeLabel(sample.roles));
+            node.setNodeCpuUtilization(summary(history, N_CPU, range, MetricCatalog.NODE_CPU));
+            node.setNodeLoadAverage(summary(history, N_LOAD, range, MetricCatalog.NODE_LOAD));
+            node.setNodeJvmMemPercent(summary(history, N_HEAP, range, MetricCatalog.NODE_JVM_MEM_PERCENT));
+            node.setNodeFreeSpace(summary(history, N_FREE, range, MetricCatalog.NODE_FREE_SPACE));
+            nodes.add(node);
+        }
+
+        NodesResponseDTO response = new NodesResponseDTO();
+        response.setClusterStatus(status);
+        response.setNodes(nodes);
+        response.setTotalNodeCount(samples.size());
+        return response;
+    }
+
+    @Override
+    public NodeDetailDTO getNodeDetail(String clusterId, String nodeId, TimeRangeRequest timeRange,
+            ResponseProjection projection) throws IOException {
+        ClusterState state = state(clusterId);
+        NodeSnapshot snapshot = fetchNodeStats(state);
+        NodeSample sample = snapshot.nodes.get(nodeId);
+        if (sample == null) {
+            // 兼容按节点名称查询
+            sample = snapshot.nodes.values().stream()
+                    .filter(node -> nodeId.equals(node.name))
+                    .findFirst()
+                    .orElse(null);
+            if (sample == null) {
+                return null;
+            }
+        }
+
+        NodeDetailDTO.NodeSummaryDTO summary = new NodeDetailDTO.NodeSummaryDTO();
+        summary.setResolver(sample.id);
+        summary.setNode_ids(List.of(sample.id));
+        summary.setTransport_address(sample.transportAddress);
+        summary.setName(sample.name);
+        summary.setType(nodeType(sample.roles));
+        summary.setNodeTypeLabel(nodeTypeLabel(sample.roles));
+        summary.setDocuments(sample.docs);
+        summary.setDataSize(sample.storeBytes);
+        summary.setFreeSpace(sample.fsAvailable);
+        summary.setTotalSpace(sample.fsTotal);
+        summary.setUsedHeap((int) sample.heapPercent);
+        summary.setStatus("Online");
+        summary.setIsOnline(true);
+
+        long[] range = parseTimeRange(timeRange);
+        SampleRingBuffer history = state.nodeHistories.get(sample.id);
+        MetricSeriesSet metrics = new MetricSeriesSet();
+        putSeries(metrics, projection, MetricCatalog.NODE_CPU, () -> List.of(series(
+                history.gaugeSeries(N_CPU, range[0], range[1]), range, MetricCatalog.NODE_CPU)));
+        putSeries(metrics, projection, MetricCatalog.NODE_JVM_MEM, () -> List.of(series(
+                history.gaugeSeries(N_HEAP, range[0], range[1]), range, MetricCatalog.NODE_JVM_MEM)));
+        putSeries(metrics, projection, MetricCatalog.NODE_LOAD, () -> List.of(series(
+                history.gaugeSeries(N_LOAD, range[0], range[1]), range, MetricCatalog.NODE_LOAD)));
+        putSeries(metrics, projection, MetricCatalog.NODE_LATENCY, () -> List.of(series(
+                history.ratioSeries(N_QUERY_TIME, N_QUERY_TOTAL, range[0], range[1]),
+                range, MetricCatalog.NODE_LATENCY),
+                series(history.ratioSeries(N_INDEX_TIME, N_INDEX_TOTAL, range[0], range[1]),
+                        range, INDEXING_LATENCY_INFO)));
+        putSeries(metrics, projection, MetricCatalog.NODE_SEGMENT_COUNT, () -> List.of(series(
+                history.gaugeSeries(N_SEGMENTS, range[0], range[1]), range, MetricCatalog.NODE_SEGMENT_COUNT)));
+
+        NodeDetailDTO detail = new NodeDetailDTO();
+        detail.setNodeSummary(summary);
+        detail.setMetrics(metrics);
+        return detail;
+    }
+
+    @Override
+    public IndicesResponseDTO getIndices(String clusterId, IndicesRequest request) throws IOException {
+        ClusterState state = state(clusterId);
+        ClusterStatusDTO status = fetchClusterStatus(state);
+        boolean showSystem = Boolean.TRUE.equals(request.getShowSystemIndices());
+        String queryText = request.getQueryText() != null ? request.getQueryText().toLowerCase() : "";
+
+        String path = "/_cat/indices?format=json&bytes=b&h=" + CAT_INDICES_COLUMNS
+                + (showSystem ? "&expand_wildcards=all" : "");
+        List<CatIndexRow> rows = elasticsearchClient.get(state.clusterId, path, this::parseCatIndices);
+
+        // 与该集群同一索引上次采集的累计值比较得出速率
+        long now = System.currentTimeMillis();
+        List<IndexInfoDTO> indices = new ArrayList<>();
+        for (CatIndexRow row : rows) {
+            double[] rates = state.indexCounters.computeIfAbsent(row.index, key -> new IndexCounter())
+                    .update(now, row.queryTotal, row.indexTotal);
+            if (!showSystem && row.index.startsWith(".")) {
+                continue;
+            }
+            if (!queryText.isEmpty() && !row.index.toLowerCase().contains(queryText)) {
+                continue;
+            }
+
+            IndexInfoDTO index = new IndexInfoDTO();
+            index.setName(row.index);
+            index.setStatus(row.health);
+            index.setDocCount(row.docs);
+            index.setDataSize(row.storeBytes);
+            index.setStatusSort(statusSort(row.health));
+            index.setSearchRate(rates[0]);
+            index.setIndexRate(rates[1]);
+            indices.add(index);
+        }
+        // 清理已删除的索引
+        state.indexCounters.values().removeIf(counter -> counter.isStale(now));
+
+        indices.sort(Comparator.comparing(IndexInfoDTO::getName));
+
+        IndicesResponseDTO response = new IndicesResponseDTO();
+        response.setClusterStatus(status);
+        response.setIndices(page(indices, request.getPagination()));
+        return response;
+    }
+
+    @Override
+    public IndexDetailDTO getIndexDetail(String clusterId, String indexName, TimeRangeRequest timeRange,
+            ResponseProjection projection) throws IOException {
+        ClusterState state = state(clusterId);
+        String encodedIndex = ElasticsearchClient.encodePathSegment(indexName);
+        List<CatIndexRow> rows = elasticsearchClient.get(state.clusterId, "/_cat/indices/" + encodedIndex
+                + "?format=json&bytes=b&expand_wildcards=all&h=" + CAT_INDICES_COLUMNS, this::parseCatIndices);
+        if (rows.isEmpty()) {
+            throw new IOException("Index not found: " + indexName);
+        }
+        CatIndexRow row = rows.get(0);
+        // 分片列表只用于分片段和摘要中的分片计数，都未选中时不请求
+        boolean needShards = projection.includesSection("shards") || projection.includesSection("indexSummary");
+        List<IndexDetailDTO.ShardInfo> shards = needShards
+                ? elasticsearchClient.get(state.clusterId, "/_cat/shards/" + encodedIndex
+                        + "?format=json&h=index,shard,prirep,state,node", this::parseCatShards)
+                : List.of();
+
+        int unassigned = 0;
+        for (IndexDetailDTO.ShardInfo shard : shards) {
+            if ("UNASSIGNED".equals(shard.getState())) {
+                unassigned++;
+            }
+        }
+
+        IndexDetailDTO.DataSize dataSize = new IndexDetailDTO.DataSize();
+        dataSize.setPrimaries(row.priStoreBytes);
+        dataSize.setTotal(row.storeBytes);
+
+        IndexDetailDTO.IndexSummary summary = new IndexDetailDTO.IndexSummary();
+        summary.setName(row.index);
+        summary.setStatus(row.health);
+        summary.setPrimaries(row.primaries);
+        summary.setReplicas(row.replicas);
+        summary.setDocuments(row.docs);
+        summary.setDataSize(dataSize);
+        summary.setTotalShards(shards.size());
+        summary.setUnassignedShards(unassigned);
+
+        // 索引历史只在查看详情时采样
+        SampleRingBuffer history = state.indexHistories.computeIfAbsent(row.index,
+                key -> new SampleRingBuffer(HISTORY_CAPACITY, 4));
+        history.add(System.currentTimeMillis(),
+                new double[]{row.docs, row.storeBytes, row.queryTotal, row.indexTotal});
+
+        long[] range = parseTimeRange(timeRange);
+        MetricSeriesSet metrics = new MetricSeriesSet();
+        putSeries(metrics, projection, MetricCatalog.INDEX_SEARCH_RATE, () -> List.of(series(
+                history.rateSeries(I_QUERY_TOTAL, range[0], range[1]), range, MetricCatalog.INDEX_SEARCH_RATE)));
+        putSeries(metrics, projection, MetricCatalog.INDEX_REQUEST_RATE, () -> List.of(series(
+                history.rateSeries(I_INDEX_TOTAL, range[0], range[1]), range, MetricCatalog.INDEX_REQUEST_RATE)));
+        putSeries(metrics, projection, MetricCatalog.INDEX_DOCUMENT_COUNT, () -> List.of(series(
+                history.gaugeSeries(I_DOCS, range[0], range[1]), range, MetricCatalog.INDEX_DOCUMENT_COUNT)));
+        putSeries(metrics, projection, MetricCatalog.INDEX_SIZE, () -> List.of(series(
+                history.gaugeSeries(I_SIZE, range[0], range[1]), range, MetricCatalog.INDEX_SIZE)));
+
+        IndexDetailDTO detail = new IndexDetailDTO();
+        detail.setIndexSummary(summary);
+        detail.setMetrics(metrics);
+        detail.setShards(needShards ? shards : null);
+        return detail;
+    }
+
+    // ==================== 采集 ====================
+
+    /**
+     * 获取集群的采集状态
+     *
+     * @throws IllegalArgumentException 该集群未配置直连地址
+     */
+    private ClusterState state(String clusterId) {
+        String resolved = elasticsearchClient.resolveClusterId(clusterId);
+        return clusters.computeIfAbsent(resolved, ClusterState::new);
+    }
+
+    /**
+     * 采集集群状态（_cluster/health + _cluster/stats），短时间内重复调用复用结果
+     */
+    private ClusterStatusDTO fetchClusterStatus(ClusterState state) throws IOException {
+        synchronized (state) {
+            ClusterStatusSnapshot cached = state.lastClusterStatus;
+            if (cached != null && System.currentTimeMillis() - cached.timestamp < SNAPSHOT_REUSE_MS) {
+                return cached.status;
+            }
+            ClusterStatusDTO status = collectClusterStatus(state.clusterId);
+            state.lastClusterStatus = new ClusterStatusSnapshot(System.currentTimeMillis(), status);
+            return status;
+        }
+    }
+
+    private ClusterStatusDTO collectClusterStatus(String clusterId) throws IOException {
+        ClusterStatusDTO status = new ClusterStatusDTO();
+        elasticsearchClient.get(clusterId, HEALTH_PATH, parser -> {
+            JsonStreams.readObject(parser, (field, p) -> {
+                switch (field) {
+                    case "status" -> status.setStatus(JsonStreams.text(p));
+                    case "number_of_nodes" -> status.setNodesCount((int) JsonStreams.longValue(p));
+                    case "active_shards" -> status.setTotalShards(
+                            (int) JsonStreams.longValue(p) + nullToZero(status.getTotalShards()));
+                    case "unassigned_shards" -> {
+                        int unassigned = (int) JsonStreams.longValue(p);
+                        status.setUnassignedShards(unassigned);
+                        status.setTotalShards(unassigned + nullToZero(status.getTotalShards()));
+                    }
+                    default -> {
+                        return false;
+                    }
+                }
+                return true;
+            });
+            return null;
+        });
+
+        elasticsearchClient.get(clusterId, CLUSTER_STATS_PATH, parser -> {
+            JsonStreams.readObject(parser, (section, p) -> {
+                if ("indices".equals(section)) {
+                    JsonStreams.readObject(p, (field, q) -> {
+                        switch (field) {
+                            case "count" -> status.setIndicesCount((int) JsonStreams.longValue(q));
+                            case "docs" -> JsonStreams.readObject(q, (f, r) -> {
+                                if ("count".equals(f)) {
+                                    status.setDocumentCount(JsonStreams.longValue(r));
+                                    return true;
+                                }
+                                return false;
+                            });
+                            case "store" -> JsonStreams.readObject(q, (f, r) -> {
+                                if ("size_in_bytes".equals(f)) {
+                                    status.setDataSize(JsonStreams.longValue(r));
+                                    return true;
+                                }
+                                return false;
+                            });
+                            default -> {
+                                return false;
+                            }
+                        }
+                        return true;
+                    });
+                    return true;
+                }
+                if ("nodes".equals(section)) {
+                    JsonStreams.readObject(p, (field, q) -> {
+                        if ("versions".equals(field)) {
+                            List<String> versions = new ArrayList<>();
+                            JsonStreams.readArray(q, r -> versions.add(JsonStreams.text(r)));
+                            status.setVersion(versions);
+                            return true;
+                        }
+                        if ("jvm".equals(field)) {
+                            JsonStreams.readObject(q, (f, r) -> {
+                                if ("max_uptime_in_millis".equals(f)) {
+                                    status.setUpTime(JsonStreams.longValue(r));
+                                    return true;
+                                }
+                                if ("mem".equals(f)) {
+                                    JsonStreams.readObject(r, (m, v) -> {
+                                        if ("heap_used_in_bytes".equals(m)) {
+                                            status.setMemUsed(JsonStreams.longValue(v));
+                                            return true;
+                                        }
+                                        if ("heap_max_in_bytes".equals(m)) {
+                                            status.setMemMax(JsonStreams.longValue(v));
+                                            return true;
+                                        }
+                                        return false;
+                                    });
+                                    return true;
+                                }
+                                return false;
+                            });
+                            return true;
+                        }
+                        return false;
+                    });
+                    return true;
+                }
+                return false;
+            });
+            return null;
+        });
+        return status;
+    }
+
+    /**
+     * 采集集群所有节点统计（单次 _nodes/stats 请求），并写入集群和节点历史
+     */
+    private NodeSnapshot fetchNodeStats(ClusterState state) throws IOException {
+        synchronized (state) {
+            NodeSnapshot cached = state.lastNodeSnapshot;
+            if (cached != null && System.currentTimeMillis() - cached.timestamp < SNAPSHOT_REUSE_MS) {
+                return cached;
+            }
+            NodeSnapshot snapshot = collectNodeStats(state);
+            state.lastNodeSnapshot = snapshot;
+            return snapshot;
+        }
+    }
+
+    private NodeSnapshot collectNodeStats(ClusterState state) throws IOException {
+        Map<String, NodeSample> nodes = elasticsearchClient.get(state.clusterId, NODE_STATS_PATH,
+                this::parseNodeStats);
+        long timestamp = System.currentTimeMillis();
+
+        double[] clusterSample = new double[4];
+        double[] nodeSample = new double[9];
+        for (NodeSample sample : nodes.values()) {
+            clusterSample[C_QUERY_TOTAL] += sample.queryTotal;
+            clusterSample[C_QUERY_TIME] += sample.queryTimeMs;
+            clusterSample[C_INDEX_TOTAL] += sample.indexTotal;
+            clusterSample[C_INDEX_TIME] += sample.indexTimeMs;
+
+            nodeSample[N_CPU] = sample.cpuPercent;
+            nodeSample[N_HEAP] = sample.heapPercent;
+            nodeSample[N_LOAD] = sample.load1;
+            nodeSample[N_FREE] = sample.fsAvailable;
+            nodeSample[N_QUERY_TOTAL] = sample.queryTotal;
+            nodeSample[N_QUERY_TIME] = sample.queryTimeMs;
+            nodeSample[N_INDEX_TOTAL] = sample.indexTotal;
+            nodeSample[N_INDEX_TIME] = sample.indexTimeMs;
+            nodeSample[N_SEGMENTS] = sample.segments;
+            state.nodeHistories.computeIfAbsent(sample.id, id -> new SampleRingBuffer(HISTORY_CAPACITY, 9))
+                    .add(timestamp, nodeSample);
+        }
+        state.clusterHistory.add(timestamp, clusterSample);
+
+        // 清理已离开集群的节点
+        state.nodeHistories.keySet().retainAll(nodes.keySet());
+        return new NodeSnapshot(timestamp, nodes);
+    }
+
+    // ==================== 流式解析 ====================
+
+    private Map<String, NodeSample> parseNodeStats(JsonParser parser) throws IOException {
+        Map<String, NodeSample> nodes = new LinkedHashMap<>();
+        JsonStreams.readObject(parser, (section, p) -> {
+            if (!"nodes".equals(section)) {
+                return false;
+            }
+            JsonStreams.readObject(p, (nodeId, q) -> {
+                NodeSample sample = new NodeSample(nodeId);
+                JsonStreams.readObject(q, (field, r) -> parseNodeField(sample, field, r));
+                nodes.put(nodeId, sample);
+                return true;
+            });
+            return true;
+        });
+        return nodes;
+    }
+
+    private boolean parseNodeField(NodeSample sample, String field, JsonParser p) throws IOException {
+        switch (field) {
+            case "name" -> sample.name = JsonStreams.text(p);
+            case "transport_address" -> sample.transportAddress = JsonStreams.text(p);
+            case "host" -> sample.host = JsonStreams.text(p);
+            case "ip" -> sample.ip = JsonStreams.text(p);
+            case "roles" -> JsonStreams.readArray(p, r -> sample.roles.add(JsonStreams.text(r)));
+            case "jvm" -> JsonStreams.readObject(p, (f, q) -> {
+                if (!"mem".equals(f)) {
+                    return false;
+                }
+                JsonStreams.readObject(q, (m, r) -> {
+                    switch (m) {
+                        case "heap_used_percent" -> sample.heapPercent = JsonStreams.doubleValue(r);
+                        case "heap_used_in_bytes" -> sample.heapUsed = JsonStreams.longValue(r);
+                        case "heap_max_in_bytes" -> sample.heapMax = JsonStreams.longValue(r);
+                        default -> {
+                            return false;
+                        }
+                    }
+                    return true;
+                });
+                return true;
+            });
+            case "os" -> JsonStreams.readObject(p, (f, q) -> {
+                if (!"cpu".equals(f)) {
+                    return false;
+                }
+                JsonStreams.readObject(q, (c, r) -> {
+                    if ("percent".equals(c)) {
+                        sample.cpuPercent = JsonStreams.doubleValue(r);
+                        return true;
+                    }
+                    if ("load_average".equals(c)) {
+                        JsonStreams.readObject(r, (l, v) -> {
+                            if ("1m".equals(l)) {
+                                sample.load1 = JsonStreams.doubleValue(v);
+                                return true;
+                            }
+                            return false;
+                        });
+                        return true;
+                    }
+                    return false;
+                });
+                return true;
+            });
+            case "fs" -> JsonStreams.readObject(p, (f, q) -> {
+                if (!"total".equals(f)) {
+                    return false;
+                }
+                JsonStreams.readObject(q, (t, r) -> {
+                    if ("total_in_bytes".equals(t)) {
+                        sample.fsTotal = JsonStreams.longValue(r);
+                        return true;
+                    }
+                    if ("available_in_bytes".equals(t)) {
+                        sample.fsAvailable = JsonStreams.longValue(r);
+                        return true;
+                    }
+                    return false;
+                });
+                return true;
+            });
+            case "indices" -> JsonStreams.readObject(p, (f, q) -> {
+                JsonStreams.readObject(q, (m, r) -> {
+                    switch (f + "." + m) {
+                        case "docs.count" -> sample.docs = JsonStreams.longValue(r);
+                        case "store.size_in_bytes" -> sample.storeBytes = JsonStreams.longValue(r);
+                        case "segments.count" -> sample.segments = JsonStreams.longValue(r);
+                        case "search.query_total" -> sample.queryTotal = JsonStreams.longValue(r);
+                        case "search.query_time_in_millis" -> sample.queryTimeMs = JsonStreams.longValue(r);
+                        case "indexing.index_total" -> sample.indexTotal = JsonStreams.longValue(r);
+                        case "indexing.index_time_in_millis" -> sample.indexTimeMs = JsonStreams.longValue(r);
+                        default -> {
+                            return false;
+                        }
+                    }
+                    return true;
+                });
+                return true;
+            });
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<CatIndexRow> parseCatIndices(JsonParser parser) throws IOException {
+        List<CatIndexRow> rows = new ArrayList<>();
+        JsonStreams.readArray(parser, p -> {
+            CatIndexRow row = new CatIndexRow();
+            JsonStreams.readObject(p, (field, q) -> {
+                switch (field) {
+                    case "index" -> row.index = JsonStreams.text(q);
+                    case "health" -> row.health = JsonStreams.text(q);
+                    case "status" -> row.state = JsonStreams.text(q);
+                    case "pri" -> row.primaries = (int) JsonStreams.longValue(q);
+                    case "rep" -> row.replicas = (int) JsonStreams.longValue(q);
+                    case "docs.count" -> row.docs = JsonStreams.longValue(q);
+                    case "store.size" -> row.storeBytes = JsonStreams.longValue(q);
+                    case "pri.store.size" -> row.priStoreBytes = JsonStreams.longValue(q);
+                    case "search.query_total" -> row.queryTotal = JsonStreams.longValue(q);
+                    case "indexing.index_total" -> row.indexTotal = JsonStreams.longValue(q);
+                    default -> {
+                        return false;
+                    }
+                }
+                return true;
+            });
+            if (row.index != null) {
+                rows.add(row);
+            }
+        });
+        return rows;
+    }
+
+    private List<IndexDetailDTO.ShardInfo> parseCatShards(JsonParser parser) throws IOException {
+        List<IndexDetailDTO.ShardInfo> shards = new ArrayList<>();
+        JsonStreams.readArray(parser, p -> {
+            IndexDetailDTO.ShardInfo shard = new IndexDetailDTO.ShardInfo();
+            JsonStreams.readObject(p, (field, q) -> {
+                switch (field) {
+                    case "index" -> shard.setIndex(JsonStreams.text(q));
+                    case "shard" -> shard.setShard((int) JsonStreams.longValue(q));
+                    case "prirep" -> shard.setPrimary("p".equals(JsonStreams.text(q)));
+                    case "state" -> shard.setState(JsonStreams.text(q));
+                    case "node" -> {
+                        // 迁移中的分片形如 "node-1 -> 10.0.0.2 xxx node-2"
+                        String node = JsonStreams.text(q);
+                        if (node != null && node.contains(" -> ")) {
+                            String[] parts = node.split(" -> ", 2);
+                            shard.setNode(parts[0]);
+                            String[] target = parts[1].trim().split(" ");
+                            shard.setRelocatingNode(target[target.length - 1]);
+                        } else {
+                            shard.setNode(node);
+                        }
+                    }
+                    default -> {
+                        return false;
+                    }
+                }
+                return true;
+            });
+            shards.add(shard);
+        });
+        return shards;
+    }
+
+    // ==================== 转换 ====================
+
+    /**
+     * 按投影计算指标序列，未选中的指标不计算
+     */
+    private void putSeries(MetricSeriesSet metrics, ResponseProjection projection, int metricId,
+            Supplier<List<TimeSeriesDataDTO>> series) {
+        if (projection.includesMetric(metricId)) {
+            metrics.put(metricId, series.get());
+        }
+    }
+
+    private TimeSeriesDataDTO series(List<List<Object>> data, long[] range, int metricId) {
+        return series(data, range, MetricCatalog.get(metricId).getInfo());
+    }
+
+    private TimeSeriesDataDTO series(List<List<Object>> data, long[] range, MetricInfoDTO metric) {
+        TimeSeriesDataDTO.TimeRangeDTO timeRangeDTO = new TimeSeriesDataDTO.TimeRangeDTO();
+        timeRangeDTO.setMin(range[0]);
+        timeRangeDTO.setMax(range[1]);
+
+        TimeSeriesDataDTO series = new TimeSeriesDataDTO();
+        series.setBucketSize("sample");
+        series.setTimeRange(timeRangeDTO);
+        series.setMetric(metric);
+        series.setData(data);
+        return series;
+    }
+
+    /**
+     * 从节点历史计算指标摘要（最小、最大、最新值和趋势）
+     */
+    private NodeMetricDTO summary(SampleRingBuffer history, int channel, long[] range, int metricId) {
+        MetricSummaryDTO summary = new MetricSummaryDTO();
+        if (history != null) {
+            List<List<Object>> points = history.gaugeSeries(channel, range[0], range[1]);
+            if (!points.isEmpty()) {
+                double min = Double.MAX_VALUE;
+                double max = -Double.MAX_VALUE;
+                for (List<Object> point : points) {
+                    double value = (Double) point.get(1);
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+                double first = (Double) points.get(0).get(1);
+                double last = (Double) points.get(points.size() - 1).get(1);
+                summary.setMinVal(min);
+                summary.setMaxVal(max);
+                summary.setLastVal(last);
+                summary.setSlope(Double.compare(last, first));
+            }
+        }
+
+        NodeMetricDTO nodeMetric = new NodeMetricDTO();
+        nodeMetric.setMetric(MetricCatalog.get(metricId).getInfo());
+        nodeMetric.setSummary(summary);
+        return nodeMetric;
+    }
+
+    private String nodeType(List<String> roles) {
+        return roles.contains("master") ? "master" : "node";
+    }
+
+    private String nodeTypeLabel(List<String> roles) {
+        if (roles.contains("master")) {
+            return "主节点";
+        }
+        return roles.contains("data") || roles.stream().anyMatch(role -> role.startsWith("data_"))
+                ? "数据节点" : "节点";
+    }
+
+    private int statusSort(String health) {
+        if ("red".equals(health)) {
+            return 3;
+        }
+        if ("yellow".equals(health)) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private <T> List<T> page(List<T> list, NodesRequest.PaginationRequest pagination) {
+        int index = pagination != null && pagination.getIndex() != null ? pagination.getIndex() : 0;
+        int size = pagination != null && pagination.getSize() != null ? pagination.getSize() : 20;
+        int from = Math.min(list.size(), index * size);
+        int to = Math.min(list.size(), from + size);
+        return new ArrayList<>(list.subList(from, to));
+    }
+
+    /**
+     * 解析时间范围为毫秒时间戳 [min, max]，默认最近1小时
+     */
+    private long[] parseTimeRange(TimeRangeRequest timeRange) {
+        long now = System.currentTimeMillis();
+        long min = now - 3600_000L;
+        long max = now;
+        if (timeRange != null) {
+            min = parseTime(timeRange.getMin(), min);
+            max = parseTime(timeRange.getMax(), max);
+        }
+        // 采集发生在请求时间之后，放宽上限以包含本次采样
+        return new long[]{min, Math.max(max, now)};
+    }
+
+    private long parseTime(String value, long defaultValue) {
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Instant.parse(value).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException ignored) {
+                return defaultValue;
+            }
+        }
+    }
+
+    private int nullToZero(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    // ==================== 内部结构 ====================
+
+    /**
+     * 单个集群的采集状态与历史
+     */
+    private static class ClusterState {
+        final String clusterId;
+        final SampleRingBuffer clusterHistory = new SampleRingBuffer(HISTORY_CAPACITY, 4);
+        final Map<String, SampleRingBuffer> nodeHistories = new ConcurrentHashMap<>();
+        final Map<String, SampleRingBuffer> indexHistories = Collections.synchronizedMap(
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, SampleRingBuffer> eldest) {
+                        return size() > MAX_INDEX_HISTORIES;
+                    }
+                });
+        /** 索引名 -> 上次 _cat/indices 的累计值，用于计算速率 */
+        final Map<String, IndexCounter> indexCounters = new ConcurrentHashMap<>();
+        volatile NodeSnapshot lastNodeSnapshot;
+        volatile ClusterStatusSnapshot lastClusterStatus;
+
+        ClusterState(String clusterId) {
+            this.clusterId = clusterId;
+        }
+    }
+
+    /**
+     * 单个索引的累计计数器及其采样时间
+     * 与上次采样间隔不足 {@link #MIN_RATE_INTERVAL_MS} 时不更新基线，沿用上次计算的速率
+     */
+    private static class IndexCounter {
+        private long timestamp;
+        private long queryTotal;
+        private long indexTotal;
+        private double searchRate;
+        private double indexRate;
+
+        /**
+         * 记录一次采样
+         *
+         * @return [查询速率, 索引速率]（每秒）
+         */
+        synchronized double[] update(long now, long queryTotal, long indexTotal) {
+            if (timestamp == 0 || now - timestamp >= MIN_RATE_INTERVAL_MS) {
+                if (timestamp > 0) {
+                    double seconds = (now - timestamp) / 1000.0;
+                    searchRate = Math.max(0, queryTotal - this.queryTotal) / seconds;
+                    indexRate = Math.max(0, indexTotal - this.indexTotal) / seconds;
+                }
+                this.timestamp = now;
+                this.queryTotal = queryTotal;
+                this.indexTotal = indexTotal;
+            }
+            return new double[]{searchRate, indexRate};
+        }
+
+        synchronized boolean isStale(long now) {
+            return now - timestamp > INDEX_COUNTER_TTL_MS;
+        }
+    }
+
+    /**
+     * 单个节点的一次采样
+     */
+    private static class NodeSample {
+        final String id;
+        String name;
+        String transportAddress;
+        String host;
+        String ip;
+        final List<String> roles = new ArrayList<>();
+        double heapPercent;
+        long heapUsed;
+        long heapMax;
+        double cpuPercent;
+        double load1;
+        long fsTotal;
+        long fsAvailable;
+        long docs;
+        long storeBytes;
+        long segments;
+        long queryTotal;
+        long queryTimeMs;
+        long indexTotal;
+        long indexTimeMs;
+
+        NodeSample(String id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * _cat/indices 的一行
+     */
+    private static class CatIndexRow {
+        String index;
+        String health;
+        String state;
+        int primaries;
+        int replicas;
+        long docs;
+        long storeBytes;
+        long priStoreBytes;
+        long queryTotal;
+        long indexTotal;
+    }
+
+    private record NodeSnapshot(long timestamp, Map<String, NodeSample> nodes) {
+    }
+
+    private record ClusterStatusSnapshot(long timestamp, ClusterStatusDTO status) {
+    }
+}
@@ -0,0 +1,175 @@
+package com.esmanage.service.datasource;
+
+import com.esmanage.client.ElasticsearchClient;
+import com.esmanage.client.KibanaClient;
+import com.esmanage.dto.*;
+import com.esmanage.dto.request.IndicesRequest;
+import com.esmanage.dto.request.NodesRequest;
+import com.esmanage.dto.request.TimeRangeRequest;
+import com.esmanage.service.ClusterDiscoveryService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Kibana 监控数据源
+ * 通过 Kibana Monitoring API 获取数据，请求体直接由 JsonGenerator 写出
+ */
+@Component
+@RequiredArgsConstructor
+public class KibanaDataSource implements MonitoringDataSource {
+
+    public static final String NAME = "kibana";
+
+    private static final String CLUSTERS_PATH = "/api/monitoring/v1/clusters/";
+
+    private final KibanaClient kibanaClient;
+    private final ClusterDiscoveryService clusterDiscoveryService;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * 获取集群概览数据
+     *
+     * @param clusterId  集群 ID，为空时使用默认集群
+     * @param timeRange  时间范围
+     * @param projection 响应投影，未选中的段在解析时跳过
+     * @return 集群概览
+     */
+    @Override
+    public ClusterOverviewDTO getClusterOverview(String clusterId, TimeRangeRequest timeRange,
+            ResponseProjection projection) throws IOException {
+        String path = CLUSTERS_PATH + clusterDiscoveryService.resolveClusterId(clusterId) + "/elasticsearch";
+
+        return kibanaClient.post(path, gen -> {
+            gen.writeStartObject();
+            writeTimeRange(gen, timeRange);
+            gen.writeEndObject();
+        }, ClusterOverviewDTO.class, projection);
+    }
+
+    /**
+     * 获取节点列表
+     *
+     * @param clusterId 集群 ID，为空时使用默认集群
+     * @param request   请求参数
+     * @return 节点列表响应
+     */
+    @Override
+    public NodesResponseDTO getNodes(String clusterId, NodesRequest request) throws IOException {
+        String path = CLUSTERS_PATH + clusterDiscoveryService.resolveClusterId(clusterId) + "/elasticsearch/nodes";
+
+        return kibanaClient.post(path, gen -> {
+            gen.writeStartObject();
+            writeTimeRange(gen, request.getTimeRange());
+            writePagination(gen, request.getPagination());
+            gen.writeEndObject();
+        }, NodesResponseDTO.class);
+    }
+
+    /**
+     * 获取节点详情
+     * Kibana 接口不支持按指标查询，未选中的指标在解析时跳过
+     *
+     * @param clusterId  集群 ID，为空时使用默认集群
+     * @param nodeId     节点 ID
+     * @param timeRange  时间范围
+     * @param projection 响应投影
+     * @return 节点详情
+     */
+    @Override
+    public NodeDetailDTO getNodeDetail(String clusterId, String nodeId, TimeRangeRequest timeRange,
+            ResponseProjection projection) throws IOException {
+        String path = CLUSTERS_PATH + clusterDiscoveryService.resolveClusterId(clusterId)
+                + "/elasticsearch/nodes/" + ElasticsearchClient.encodePathSegment(nodeId);
+
+        return kibanaClient.post(path, gen -> {
+            gen.writeStartObject();
+            writeTimeRange(gen, timeRange);
+            gen.writeBooleanField("is_advanced", false);
+            gen.writeEndObject();
+        }, NodeDetailDTO.class, projection);
+    }
+
+    /**
+     * 获取索引列表
+     *
+     * @param clusterId 集群 ID，为空时使用默认集群
+     * @param request   请求参数
+     * @return 索引列表响应
+     */
+    @Override
+    public IndicesResponseDTO getIndices(String clusterId, IndicesRequest request) throws IOException {
+        String path = CLUSTERS_PATH + clusterDiscoveryService.resolveClusterId(clusterId)
+                + (Boolean.TRUE.equals(request.getShowSystemIndices())
+                        ? "/elasticsearch/indices?show_system_indices=true"
+                        : "/elasticsearch/indices?show_system_indices=false");
+
+        return kibanaClient.post(path, gen -> {
+            gen.writeStartObject();
+            writeTimeRange(gen, request.getTimeRange());
+            writePagination(gen, request.getPagination());
+            gen.writeStringField("queryText", request.getQueryText() != null ? request.getQueryText() : "");
+            gen.writeEndObject();
+        }, IndicesResponseDTO.class);
+    }
+
+    /**
+     * 获取索引详情
+     * Kibana 接口不支持按指标查询，未选中的指标在解析时跳过
+     *
+     * @param clusterId  集群 ID，为空时使用默认集群
+     * @param indexName  索引名称
+     * @param timeRange  时间范围
+     * @param projection 响应投影
+     * @return 索引详情
+     */
+    @Override
+    public IndexDetailDTO getIndexDetail(String clusterId, String indexName, TimeRangeRequest timeRange,
+            ResponseProjection projection) throws IOException {
+        String path = CLUSTERS_PATH + clusterDiscoveryService.resolveClusterId(clusterId)
+                + "/elasticsearch/indices/" + ElasticsearchClient.encodePathSegment(indexName);
+
+        return kibanaClient.post(path, gen -> {
+            gen.writeStartObject();
+            writeTimeRange(gen, timeRange);
+            gen.writeBooleanField("is_advanced", false);
+            gen.writeEndObject();
+        }, IndexDetailDTO.class, projection);
+    }
+
+    /**
+     * 写出时间范围参数
+     */
+    static void writeTimeRange(JsonGenerator gen, TimeRangeRequest timeRange) throws IOException {
+        gen.writeObjectFieldStart("timeRange");
+        if (timeRange != null && timeRange.getMin() != null && timeRange.getMax() != null) {
+            gen.writeStringField("min", timeRange.getMin());
+            gen.writeStringField("max", timeRange.getMax());
+        } else {
+            // 默认最近1小时
+            Instant now = Instant.now();
+            gen.writeStringField("min", now.minus(1, ChronoUnit.HOURS).toString());
+            gen.writeStringField("max", now.toString());
+        }
+        gen.writeEndObject();
+    }
+
+    /**
+     * 写出分页参数
+     */
+    private static void writePagination(JsonGenerator gen, NodesRequest.PaginationRequest pagination)
+            throws IOException {
+        gen.writeObjectFieldStart("pagination");
+        gen.writeNumberField("index", pagination != null && pagination.getIndex() != null ? pagination.getIndex() : 0);
+        gen.writeNumberField("size", pagination != null && pagination.getSize() != null ? pagination.getSize() : 20);
+        gen.writeEndObject();
+    }
+}
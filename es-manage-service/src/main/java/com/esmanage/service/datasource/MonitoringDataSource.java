@@ -0,0 +1,72 @@
+package com.esmanage.service.datasource;
+
+import com.esmanage.dto.*;
+import com.esmanage.dto.request.IndicesRequest;
+import com.esmanage.dto.request.NodesRequest;
+import com.esmanage.dto.request.TimeRangeRequest;
+
+import java.io.IOException;
+
+/**
+ * 监控数据源
+ * 屏蔽数据来源差异（Kibana Monitoring API / 直连 Elasticsearch），统一返回 Kibana 格式的 DTO
+ * 带 {@link ResponseProjection} 的方法只保证返回投影选中的段和指标，其余字段可能为空
+ */
+public interface MonitoringDataSource {
+
+    /**
+     * 数据源名称，对应配置项 monitor.data-source
+     */
+    String getName();
+
+    /**
+     * 获取集群概览数据
+     */
+    default ClusterOverviewDTO getClusterOverview(String clusterId, TimeRangeRequest timeRange) throws IOException {
+        return getClusterOverview(clusterId, timeRange, ResponseProjection.ALL);
+    }
+
+    /**
+     * 获取集群概览数据（按投影）
+     */
+    ClusterOverviewDTO getClusterOverview(String clusterId, TimeRangeRequest timeRange,
+            ResponseProjection projection) throws IOException;
+
+    /**
+     * 获取节点列表
+     */
+    NodesResponseDTO getNodes(String clusterId, NodesRequest request) throws IOException;
+
+    /**
+     * 获取节点详情，节点不存在时返回 null
+     */
+    default NodeDetailDTO getNodeDetail(String clusterId, String nodeId, TimeRangeRequest timeRange)
+            throws IOException {
+        return getNodeDetail(clusterId, nodeId, timeRange, ResponseProjection.ALL);
+    }
+
+    /**
+     * 获取节点详情（按投影），节点不存在时返回 null
+     */
+    NodeDetailDTO getNodeDetail(String clusterId, String nodeId, TimeRangeRequest timeRange,
+            ResponseProjection projection) throws IOException;
+
+    /**
+     * 获取索引列表
+     */
+    IndicesResponseDTO getIndices(String clusterId, IndicesRequest request) throws IOException;
+
+    /**
+     * 获取索引详情
+     */
+    default IndexDetailDTO getIndexDetail(String clusterId, String indexName, TimeRangeRequest timeRange)
+            throws IOException {
+        return getIndexDetail(clusterId, indexName, timeRange, ResponseProjection.ALL);
+    }
+
+    /**
+     * 获取索引详情（按投影）
+     */
+    IndexDetailDTO getIndexDetail(String clusterId, String indexName, TimeRangeRequest timeRange,
+            ResponseProjection projection) throws IOException;
+}
@@ -0,0 +1,100 @@
+package com.esmanage.service.notification;
+
+import com.esmanage.dto.NotificationChannelDTO;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 钉钉机器人通知
+ * 配置 webhookUrl、secret（加签）、atMobiles、atAll，以 Markdown 消息发送；返回 errcode 非 0 视为失败
+ */
+@Component
+@RequiredArgsConstructor
+public class DingTalkNotificationSender implements NotificationSender {
+
+    private final NotificationHttpClient httpClient;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public String getType() {
+        return "dingtalk";
+    }
+
+    @Override
+    public CompletableFuture<Void> send(NotificationChannelDTO channel, NotificationMessage message) {
+        Map<String, Object> config = channel.getConfig();
+        Object webhookUrl = config.get("webhookUrl");
+        if (webhookUrl == null) {
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("DingTalk webhookUrl is not configured"));
+        }
+
+        String body;
+        String url;
+        try {
+            url = sign(webhookUrl.toString(), config.get("secret"));
+            body = objectMapper.writeValueAsString(buildBody(message, config));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return httpClient.execute("POST", url, null, body).thenApply(response -> {
+            try {
+                JsonNode result = objectMapper.readTree(response);
+                if (result.path("errcode").asInt(0) != 0) {
+                    throw new CompletionException(new IOException("DingTalk error "
+                            + result.path("errcode").asInt() + ": " + result.path("errmsg").asText()));
+                }
+                return null;
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    private Map<String, Object> buildBody(NotificationMessage message, Map<String, Object> config) {
+        Map<String, Object> markdown = new LinkedHashMap<>();
+        markdown.put("title", message.getTitle());
+        markdown.put("text", "### " + message.getTitle() + "\n\n" + message.getContent());
+
+        Map<String, Object> at = new LinkedHashMap<>();
+        at.put("atMobiles", config.get("atMobiles") instanceof List ? config.get("atMobiles") : List.of());
+        at.put("isAtAll", Boolean.TRUE.equals(config.get("atAll")));
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("msgtype", "markdown");
+        body.put("markdown", markdown);
+        body.put("at", at);
+        return body;
+    }
+
+    /**
+     * 配置了 secret 时按钉钉加签规则追加 timestamp 与 sign 参数
+     */
+    private String sign(String url, Object secret) throws Exception {
+        if (secret == null || secret.toString().isEmpty()) {
+            return url;
+        }
+        long timestamp = System.currentTimeMillis();
+        String stringToSign = timestamp + "\n" + secret;
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.toString().getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String sign = URLEncoder.encode(Base64.getEncoder().encodeToString(
+                mac.doFinal(stringToSign.getBytes(StandardCharsets.UTF_8))), StandardCharsets.UTF_8);
+        return url + (url.contains("?") ? "&" : "?") + "timestamp=" + timestamp + "&sign=" + sign;
+    }
+}
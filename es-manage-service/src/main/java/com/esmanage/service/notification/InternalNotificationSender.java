@@ -0,0 +1,60 @@
+package com.esmanage.service.notification;
+
+import com.esmanage.dto.NotificationChannelDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 站内信通知
+ * 保存最近的消息供前端拉取
+ */
+@Component
+public class InternalNotificationSender implements NotificationSender {
+
+    private static final int INBOX_SIZE = 500;
+
+    private final Deque<Map<String, Object>> inbox = new ArrayDeque<>();
+
+    @Override
+    public String getType() {
+        return "internal";
+    }
+
+    @Override
+    public CompletableFuture<Void> send(NotificationChannelDTO channel, NotificationMessage message) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("channelId", channel.getId());
+        item.put("title", message.getTitle());
+        item.put("content", message.getContent());
+        item.put("severity", message.getSeverity());
+        item.put("status", message.getStatus());
+        item.put("recordIds", message.getRecordIds());
+        item.put("userIds", channel.getConfig().get("userIds"));
+        item.put("sentAt", System.currentTimeMillis());
+        synchronized (inbox) {
+            inbox.addFirst(item);
+            if (inbox.size() > INBOX_SIZE) {
+                inbox.removeLast();
+            }
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * 最近的站内消息，新消息在前
+     */
+    public List<Map<String, Object>> getInbox(int limit) {
+        synchronized (inbox) {
+            List<Map<String, Object>> result = new ArrayList<>(Math.min(limit, inbox.size()));
+            for (Map<String, Object> item : inbox) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                result.add(item);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.esmanage.service.notification;
+
+import com.esmanage.config.AlertConfig;
+import com.esmanage.dto.NotificationChannelDTO;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * 通知渠道服务
+ * 渠道保存在内存中，每次变更整体写回数据目录下的 channels.json
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationChannelService {
+
+    private static final String CHANNELS_FILE = "channels.json";
+    private static final Set<String> TYPES = Set.of("email", "dingtalk", "webhook", "sms", "internal");
+
+    private final AlertConfig alertConfig;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, NotificationChannelDTO> channels = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        Path file = channelsFile();
+        if (!Files.exists(file)) {
+            return;
+        }
+        try {
+            List<NotificationChannelDTO> loaded = objectMapper.readValue(file.toFile(), new TypeReference<>() {
+            });
+            synchronized (this) {
+                loaded.forEach(channel -> channels.put(channel.getId(), channel));
+            }
+            log.info("Loaded {} notification channels from {}", loaded.size(), file);
+        } catch (IOException e) {
+            log.error("Failed to load notification channels from {}", file, e);
+        }
+    }
+
+    /**
+     * 获取全部渠道
+     */
+    public synchronized List<NotificationChannelDTO> getChannels() {
+        return new ArrayList<>(channels.values());
+    }
+
+    /**
+     * 获取单个渠道
+     */
+    public synchronized NotificationChannelDTO getChannel(String id) {
+        return channels.get(id);
+    }
+
+    /**
+     * 新建渠道
+     */
+    public synchronized NotificationChannelDTO createChannel(NotificationChannelDTO channel) throws IOException {
+        validate(channel);
+        long now = System.currentTimeMillis();
+        if (channel.getId() == null || channel.getId().isEmpty() || channels.containsKey(channel.getId())) {
+            channel.setId("channel-" + UUID.randomUUID().toString().substring(0, 8));
+        }
+        applyDefaults(channel);
+        channel.setCreatedAt(now);
+        channel.setUpdatedAt(now);
+        channels.put(channel.getId(), channel);
+        persist();
+        return channel;
+    }
+
+    /**
+     * 更新渠道，渠道不存在时返回 null
+     */
+    public synchronized NotificationChannelDTO updateChannel(String id, NotificationChannelDTO channel)
+            throws IOException {
+        NotificationChannelDTO existing = channels.get(id);
+        if (existing == null) {
+            return null;
+        }
+        validate(channel);
+        applyDefaults(channel);
+        channel.setId(id);
+        channel.setCreatedAt(existing.getCreatedAt());
+        channel.setUpdatedAt(System.currentTimeMillis());
+        channels.put(id, channel);
+        persist();
+        return channel;
+    }
+
+    /**
+     * 删除渠道
+     */
+    public synchronized boolean deleteChannel(String id) throws IOException {
+        if (channels.remove(id) == null) {
+            return false;
+        }
+        persist();
+        return true;
+    }
+
+    private void validate(NotificationChannelDTO channel) {
+        if (channel.getType() == null || !TYPES.contains(channel.getType())) {
+            throw new IllegalArgumentException("Unknown notification channel type: " + channel.getType());
+        }
+        if ("webhook".equals(channel.getType()) && channel.getConfig() != null) {
+            WebhookNotificationSender.headers(channel.getConfig());
+        }
+    }
+
+    private void applyDefaults(NotificationChannelDTO channel) {
+        if (channel.getName() == null) {
+            channel.setName(channel.getType());
+        }
+        if (channel.getEnabled() == null) {
+            channel.setEnabled(true);
+        }
+        if (channel.getConfig() == null) {
+            channel.setConfig(new LinkedHashMap<>());
+        }
+    }
+
+    /**
+     * 先写临时文件再原子替换，避免写一半的文件
+     */
+    private void persist() throws IOException {
+        Path file = channelsFile();
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(CHANNELS_FILE + ".tmp");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), channels.values());
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path channelsFile() {
+        return Paths.get(alertConfig.getDataDir()).toAbsolutePath().resolve(CHANNELS_FILE);
+    }
+}
@@ -0,0 +1,420 @@
+package com.esmanage.service.notification;
+
+import com.esmanage.config.AlertConfig;
+import com.esmanage.dto.AlertRecordDTO;
+import com.esmanage.dto.AlertRuleDTO;
+import com.esmanage.dto.NotificationChannelDTO;
+import com.esmanage.metrics.MetricsRegistry;
+import com.esmanage.service.alert.AlertEventListener;
+import com.esmanage.service.alert.AlertRecordStore;
+import com.esmanage.service.alert.AlertRuleService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * 告警通知分发器
+ * 告警事件按规则配置的渠道入队，每个渠道独立维护：
+ * 有界待分组队列 → 分组窗口内按规则与状态合并 → 就绪队列（按下次发送时间排序）→ 令牌桶限流与在途上限 → 异步发送。
+ * 同一规则、目标、状态的事件在去重窗口内只通知一次；发送失败按指数退避重试，最终结果写回告警记录。
+ * 所有渠道状态只在单个调度线程上修改，事件入队与发送回调通过队列或切回调度线程完成。
+ */
+@Slf4j
+@Service
+@Order(1)
+@RequiredArgsConstructor
+public class NotificationDispatcher implements AlertEventListener {
+
+    /** 单条通知正文最多列出的告警数 */
+    private static final int MAX_CONTENT_LINES = 20;
+
+    /** 投递延迟采样数 */
+    private static final int LATENCY_SAMPLES = 256;
+
+    private final AlertConfig alertConfig;
+    private final AlertRuleService alertRuleService;
+    private final AlertRecordStore alertRecordStore;
+    private final NotificationChannelService channelService;
+    private final List<NotificationSender> senderList;
+    private final MetricsRegistry metricsRegistry;
+
+    private final Map<String, NotificationSender> senders = new HashMap<>();
+    private final ConcurrentHashMap<String, ChannelState> channels = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> dedup = new ConcurrentHashMap<>();
+
+    private ScheduledThreadPoolExecutor scheduler;
+
+    private long deduplicated;
+    private long lastDedupSweep;
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private int latencyCount;
+
+    @PostConstruct
+    public void start() {
+        senderList.forEach(sender -> senders.put(sender.getType(), sender));
+        scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "notification-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        metricsRegistry.registerExecutor("notification", scheduler);
+        long tick = Math.max(10, alertConfig.getNotification().getTickMs());
+        scheduler.scheduleWithFixedDelay(this::tick, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 在评估引擎锁内调用，只做去重与入队
+     */
+    @Override
+    public void onAlertEvents(List<AlertRecordDTO> events) {
+        AlertConfig.Notification config = alertConfig.getNotification();
+        if (!config.isEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (AlertRecordDTO event : events) {
+            AlertRuleDTO rule = alertRuleService.getRule(event.getRuleId());
+            if (rule == null || rule.getNotificationChannels() == null || rule.getNotificationChannels().isEmpty()) {
+                continue;
+            }
+            String key = event.getRuleId() + "|" + event.getTarget() + "|" + event.getStatus();
+            Long last = dedup.get(key);
+            if (last != null && now - last < config.getDedupWindowMs()) {
+                synchronized (this) {
+                    deduplicated++;
+                }
+                continue;
+            }
+
+            boolean accepted = false;
+            for (String channelId : rule.getNotificationChannels()) {
+                ChannelState state = channels.computeIfAbsent(channelId, id -> new ChannelState(id, now));
+                if (state.pending.offer(new Pending(event, now))) {
+                    state.enqueued++;
+                    accepted = true;
+                } else {
+                    state.dropped++;
+                }
+            }
+            // 所有渠道队列都满时不记录去重，后续同一事件仍可入队
+            if (accepted) {
+                dedup.put(key, now);
+            }
+        }
+    }
+
+    /**
+     * 立即向渠道发送一条测试通知，不经过队列与限流
+     */
+    public CompletableFuture<Void> sendTest(NotificationChannelDTO channel) {
+        return sendDirect(channel, "[INFO] 测试通知", "渠道 " + channel.getName() + " 测试通知", "info");
+    }
+
+    /**
+     * 绕过队列、去重与限流直接发送一条通知，用于测试与操作流通知步骤
+     *
+     * @param channel  渠道
+     * @param title    标题
+     * @param content  内容
+     * @param severity 级别
+     * @return 发送结果
+     */
+    public CompletableFuture<Void> sendDirect(NotificationChannelDTO channel, String title, String content,
+                                              String severity) {
+        NotificationSender sender = senders.get(channel.getType());
+        if (sender == null) {
+            return CompletableFuture.failedFuture(
+                    new UnsupportedOperationException("Channel type not supported: " + channel.getType()));
+        }
+        NotificationMessage message = new NotificationMessage();
+        message.setChannelId(channel.getId());
+        message.setRuleId("direct");
+        message.setSeverity(severity);
+        message.setStatus("firing");
+        message.setTitle(title);
+        message.setContent(content);
+        message.setEnqueuedAt(System.currentTimeMillis());
+        return sender.send(channel, message)
+                .orTimeout(alertConfig.getNotification().getSendTimeoutMs(), TimeUnit.MILLISECONDS);
+    }
+
+    private void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            for (ChannelState state : channels.values()) {
+                flushGroups(state, now);
+                dispatchReady(state, now);
+            }
+            sweepDedup(now);
+        } catch (Exception e) {
+            log.warn("Notification dispatch tick failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 分组窗口结束或积压达到批量上限时，把待分组事件按规则与状态合并成通知
+     */
+    private void flushGroups(ChannelState state, long now) {
+        Pending head = state.pending.peek();
+        if (head == null) {
+            return;
+        }
+        AlertConfig.Notification config = alertConfig.getNotification();
+        if (now - head.enqueuedAt < config.getGroupWindowMs() && state.pending.size() < config.getMaxBatch()) {
+            return;
+        }
+
+        Map<String, List<Pending>> groups = new LinkedHashMap<>();
+        Pending item;
+        while ((item = state.pending.poll()) != null) {
+            groups.computeIfAbsent(item.event.getRuleId() + "|" + item.event.getStatus(), k -> new ArrayList<>())
+                    .add(item);
+        }
+        for (List<Pending> group : groups.values()) {
+            state.ready.add(buildMessage(state.channelId, group, now));
+        }
+    }
+
+    private NotificationMessage buildMessage(String channelId, List<Pending> group, long now) {
+        AlertRecordDTO first = group.get(0).event;
+        boolean resolved = "resolved".equals(first.getStatus());
+
+        NotificationMessage message = new NotificationMessage();
+        message.setChannelId(channelId);
+        message.setRuleId(first.getRuleId());
+        message.setSeverity(first.getSeverity());
+        message.setStatus(first.getStatus());
+        message.setEnqueuedAt(group.get(0).enqueuedAt);
+        message.setNextAttemptAt(now);
+        message.setTitle("[" + (resolved ? "RESOLVED" : String.valueOf(first.getSeverity()).toUpperCase()) + "] "
+                + first.getRuleName() + (group.size() > 1 ? " (" + group.size() + ")" : ""));
+
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < group.size(); i++) {
+            AlertRecordDTO event = group.get(i).event;
+            message.getRecordIds().add(event.getId());
+            if (i < MAX_CONTENT_LINES) {
+                content.append("- ").append(event.getMessage() != null ? event.getMessage() : event.getTarget())
+                        .append('\n');
+            }
+        }
+        if (group.size() > MAX_CONTENT_LINES) {
+            content.append("- ... 另有 ").append(group.size() - MAX_CONTENT_LINES).append(" 条\n");
+        }
+        message.setContent(content.toString());
+        return message;
+    }
+
+    /**
+     * 在限流与在途上限内发送到期的通知
+     */
+    private void dispatchReady(ChannelState state, long now) {
+        AlertConfig.Notification config = alertConfig.getNotification();
+        while (!state.ready.isEmpty() && state.ready.peek().getNextAttemptAt() <= now) {
+            NotificationChannelDTO channel = channelService.getChannel(state.channelId);
+            if (channel == null || !Boolean.TRUE.equals(channel.getEnabled())) {
+                complete(state, state.ready.poll(), channel, "Channel not found or disabled");
+                state.failed++;
+                continue;
+            }
+            NotificationSender sender = senders.get(channel.getType());
+            if (sender == null) {
+                // 邮件、短信尚无发送实现，直接记失败，不重试
+                complete(state, state.ready.poll(), channel, "Channel type not supported: " + channel.getType());
+                state.failed++;
+                continue;
+            }
+            if (state.inflight >= config.getMaxInflight()) {
+                return;
+            }
+            if (!state.bucket(channel, config, now).tryAcquire(now)) {
+                state.rateLimited++;
+                return;
+            }
+
+            NotificationMessage message = state.ready.poll();
+            message.setAttempts(message.getAttempts() + 1);
+            state.inflight++;
+            CompletableFuture<Void> future;
+            try {
+                future = sender.send(channel, message);
+            } catch (Exception e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            future.orTimeout(config.getSendTimeoutMs(), TimeUnit.MILLISECONDS)
+                    .whenCompleteAsync((result, error) -> onSent(state, channel, message, error), scheduler);
+        }
+    }
+
+    private void onSent(ChannelState state, NotificationChannelDTO channel, NotificationMessage message,
+                        Throwable error) {
+        state.inflight--;
+        long now = System.currentTimeMillis();
+        if (error == null) {
+            state.sent++;
+            recordLatency(now - message.getEnqueuedAt());
+            complete(state, message, channel, null);
+            return;
+        }
+
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String reason = cause instanceof TimeoutException ? "Timed out" : String.valueOf(cause.getMessage());
+        AlertConfig.Notification config = alertConfig.getNotification();
+        if (message.getAttempts() <= config.getMaxRetries() && !(cause instanceof IllegalArgumentException)) {
+            long backoff = Math.min(config.getMaxBackoffMs(),
+                    config.getRetryBackoffMs() << Math.min(20, message.getAttempts() - 1));
+            // 加入最多 20% 的抖动，避免多个渠道同时重试
+            backoff += ThreadLocalRandom.current().nextLong(backoff / 5 + 1);
+            message.setNextAttemptAt(now + backoff);
+            state.ready.add(message);
+            state.retried++;
+            log.debug("Notification to {} failed ({}), retry {} in {}ms",
+                    state.channelId, reason, message.getAttempts(), backoff);
+            return;
+        }
+        state.failed++;
+        log.warn("Notification to {} failed after {} attempts: {}", state.channelId, message.getAttempts(), reason);
+        complete(state, message, channel, reason);
+    }
+
+    /**
+     * 把最终发送结果写回通知包含的每条告警记录，一次批量写入
+     */
+    private void complete(ChannelState state, NotificationMessage message, NotificationChannelDTO channel,
+                          String error) {
+        AlertRecordDTO.NotificationResult result = new AlertRecordDTO.NotificationResult();
+        result.setChannelId(state.channelId);
+        result.setChannelType(channel != null ? channel.getType() : null);
+        result.setSentAt(System.currentTimeMillis());
+        result.setSuccess(error == null);
+        result.setError(error);
+        try {
+            alertRecordStore.addNotification(message.getRecordIds(), result);
+        } catch (IOException e) {
+            log.error("Failed to save notification result for {}", message.getRecordIds(), e);
+        }
+    }
+
+    private void sweepDedup(long now) {
+        long window = alertConfig.getNotification().getDedupWindowMs();
+        if (now - lastDedupSweep < Math.min(window, 60000)) {
+            return;
+        }
+        lastDedupSweep = now;
+        dedup.values().removeIf(time -> now - time >= window);
+    }
+
+    private synchronized void recordLatency(long latency) {
+        latencies[latencyCount % LATENCY_SAMPLES] = latency;
+        latencyCount++;
+    }
+
+    /**
+     * 获取分发统计：各渠道队列深度、在途数、发送结果计数，以及最近投递延迟
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", alertConfig.getNotification().isEnabled());
+
+        long[] sample;
+        long deduplicatedCount;
+        synchronized (this) {
+            sample = Arrays.copyOf(latencies, Math.min(latencyCount, LATENCY_SAMPLES));
+            deduplicatedCount = deduplicated;
+        }
+        stats.put("deduplicated", deduplicatedCount);
+        stats.put("dedupKeys", dedup.size());
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("samples", sample.length);
+        if (sample.length > 0) {
+            Arrays.sort(sample);
+            latency.put("avgMs", Arrays.stream(sample).sum() / sample.length);
+            latency.put("p95Ms", sample[Math.min(sample.length - 1, (int) Math.ceil(sample.length * 0.95) - 1)]);
+            latency.put("maxMs", sample[sample.length - 1]);
+        }
+        stats.put("latency", latency);
+
+        // 计数器由调度线程修改，这里读到的是近似值
+        Map<String, Object> channelStats = new LinkedHashMap<>();
+        for (ChannelState state : channels.values()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("queueDepth", state.pending.size());
+            item.put("ready", state.ready.size());
+            item.put("inflight", state.inflight);
+            item.put("enqueued", state.enqueued);
+            item.put("dropped", state.dropped);
+            item.put("sent", state.sent);
+            item.put("failed", state.failed);
+            item.put("retried", state.retried);
+            item.put("rateLimited", state.rateLimited);
+            channelStats.put(state.channelId, item);
+        }
+        stats.put("channels", channelStats);
+        return stats;
+    }
+
+    private record Pending(AlertRecordDTO event, long enqueuedAt) {
+    }
+
+    /**
+     * 单个渠道的分发状态
+     */
+    private class ChannelState {
+        final String channelId;
+        final BlockingQueue<Pending> pending;
+        final PriorityQueue<NotificationMessage> ready =
+                new PriorityQueue<>(Comparator.comparingLong(NotificationMessage::getNextAttemptAt));
+        int inflight;
+
+        /** 入队与丢弃由引擎线程计数，其余由调度线程计数 */
+        volatile long enqueued;
+        volatile long dropped;
+        volatile long sent;
+        volatile long failed;
+        volatile long retried;
+        volatile long rateLimited;
+
+        private TokenBucket bucket;
+        private double bucketRate;
+        private int bucketBurst;
+        private final long createdAt;
+
+        ChannelState(String channelId, long now) {
+            this.channelId = channelId;
+            this.pending = new ArrayBlockingQueue<>(Math.max(1, alertConfig.getNotification().getQueueCapacity()));
+            this.createdAt = now;
+        }
+
+        /**
+         * 渠道配置 rateLimitPerMinute、burst 可覆盖全局限流，配置变化时重建令牌桶
+         */
+        TokenBucket bucket(NotificationChannelDTO channel, AlertConfig.Notification config, long now) {
+            Map<String, Object> channelConfig = channel.getConfig();
+            double rate = channelConfig.get("rateLimitPerMinute") instanceof Number number
+                    ? number.doubleValue() : config.getRatePerMinute();
+            int burst = channelConfig.get("burst") instanceof Number number
+                    ? number.intValue() : config.getBurst();
+            if (bucket == null || rate != bucketRate || burst != bucketBurst) {
+                bucket = new TokenBucket(rate, burst, Math.max(now, createdAt));
+                bucketRate = rate;
+                bucketBurst = burst;
+            }
+            return bucket;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.esmanage.service.notification;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.*;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通知用 HTTP 客户端
+ * 基于 OkHttp 异步调用，不占用调度线程；Webhook 与钉钉渠道共用
+ */
+@Slf4j
+@Component
+public class NotificationHttpClient {
+
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+
+    private OkHttpClient httpClient;
+
+    @PostConstruct
+    public void init() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(64);
+        dispatcher.setMaxRequestsPerHost(16);
+        this.httpClient = new OkHttpClient.Builder()
+                .connectTimeout(5, TimeUnit.SECONDS)
+                .readTimeout(10, TimeUnit.SECONDS)
+                .writeTimeout(5, TimeUnit.SECONDS)
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(8, 5, TimeUnit.MINUTES))
+                .build();
+    }
+
+    /**
+     * 异步发送请求，2xx 时返回响应体，否则以 IOException 结束
+     *
+     * @param method  GET 或 POST
+     * @param url     地址
+     * @param headers 额外请求头，可为 null
+     * @param body    JSON 请求体，GET 时忽略
+     */
+    public CompletableFuture<String> execute(String method, String url, Map<String, String> headers, String body) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        Request.Builder builder = new Request.Builder().url(url);
+        if (headers != null) {
+            headers.forEach(builder::header);
+        }
+        if ("GET".equalsIgnoreCase(method)) {
+            builder.get();
+        } else {
+            builder.post(RequestBody.create(body != null ? body : "", JSON));
+        }
+
+        Call call = httpClient.newCall(builder.build());
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    String responseBody = response.body() != null ? response.body().string() : "";
+                    if (response.isSuccessful()) {
+                        future.complete(responseBody);
+                    } else {
+                        future.completeExceptionally(new IOException("HTTP " + response.code() + ": "
+                                + (responseBody.length() > 200 ? responseBody.substring(0, 200) : responseBody)));
+                    }
+                } catch (IOException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        // 超时或调用方取消时中止请求
+        future.whenComplete((result, error) -> {
+            if (error != null && !call.isCanceled()) {
+                call.cancel();
+            }
+        });
+        return future;
+    }
+}
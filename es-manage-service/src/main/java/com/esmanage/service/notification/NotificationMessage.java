@@ -0,0 +1,44 @@
+package com.esmanage.service.notification;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一条待发送的通知
+ * 分组窗口内同一规则、同一状态的告警合并为一条
+ */
+@Data
+public class NotificationMessage {
+
+    /** 渠道 ID */
+    private String channelId;
+
+    /** 规则 ID */
+    private String ruleId;
+
+    /** 级别 */
+    private String severity;
+
+    /** 告警状态: firing, resolved */
+    private String status;
+
+    /** 标题 */
+    private String title;
+
+    /** 正文（Markdown） */
+    private String content;
+
+    /** 包含的告警记录 ID */
+    private List<String> recordIds = new ArrayList<>();
+
+    /** 最早一条告警入队时间，用于计算投递延迟 */
+    private long enqueuedAt;
+
+    /** 已尝试次数 */
+    private int attempts;
+
+    /** 下次可发送时间 */
+    private long nextAttemptAt;
+}
@@ -0,0 +1,22 @@
+package com.esmanage.service.notification;
+
+import com.esmanage.dto.NotificationChannelDTO;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 通知发送器
+ * 每种渠道类型一个实现，发送为异步操作，失败时 future 以异常结束
+ */
+public interface NotificationSender {
+
+    /**
+     * 支持的渠道类型
+     */
+    String getType();
+
+    /**
+     * 发送通知
+     */
+    CompletableFuture<Void> send(NotificationChannelDTO channel, NotificationMessage message);
+}
@@ -0,0 +1,47 @@
+package com.esmanage.service.notification;
+
+/**
+ * 令牌桶限流
+ * 按时间连续补充令牌，容量即允许的突发数；非线程安全，由调用方同步
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerMs;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double ratePerMinute, int burst, long now) {
+        this.capacity = Math.max(1, burst);
+        this.tokensPerMs = ratePerMinute / 60000.0;
+        this.tokens = capacity;
+        this.lastRefill = now;
+    }
+
+    /**
+     * 尝试取一个令牌
+     */
+    public boolean tryAcquire(long now) {
+        refill(now);
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 当前可用令牌数
+     */
+    public double available(long now) {
+        refill(now);
+        return tokens;
+    }
+
+    private void refill(long now) {
+        if (now > lastRefill) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerMs);
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.esmanage.service.notification;
+
+import com.esmanage.dto.NotificationChannelDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Webhook 通知
+ * 配置 url、method（GET/POST）、headers、template；template 中可用 ${title}、${content}、${severity}、
+ * ${status}、${ruleId}、${count} 占位符，未配置时发送默认 JSON
+ */
+@Component
+@RequiredArgsConstructor
+public class WebhookNotificationSender implements NotificationSender {
+
+    private final NotificationHttpClient httpClient;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public String getType() {
+        return "webhook";
+    }
+
+    @Override
+    public CompletableFuture<Void> send(NotificationChannelDTO channel, NotificationMessage message) {
+        Map<String, Object> config = channel.getConfig();
+        Object url = config.get("url");
+        if (url == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Webhook url is not configured"));
+        }
+        String method = config.get("method") != null ? config.get("method").toString() : "POST";
+        Map<String, String> headers;
+        try {
+            headers = headers(config);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        String body;
+        try {
+            body = config.get("template") != null
+                    ? render(config.get("template").toString(), message)
+                    : objectMapper.writeValueAsString(defaultBody(message));
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return httpClient.execute(method, url.toString(), headers, body).thenApply(response -> null);
+    }
+
+    /**
+     * 读取并校验 headers 配置：必须是字符串到字符串的映射，名称不能为空
+     *
+     * @return 请求头副本，未配置时返回 null
+     * @throws IllegalArgumentException 配置不合法
+     */
+    static Map<String, String> headers(Map<String, Object> config) {
+        Object value = config.get("headers");
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof Map<?, ?> map)) {
+            throw new IllegalArgumentException("Webhook headers must be an object");
+        }
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (!(entry.getKey() instanceof String name) || name.isBlank()
+                    || !(entry.getValue() instanceof String header)) {
+                throw new IllegalArgumentException("Webhook header values must be strings: " + entry.getKey());
+            }
+            headers.put(name, header);
+        }
+        return headers;
+    }
+
+    private Map<String, Object> defaultBody(NotificationMessage message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("title", message.getTitle());
+        body.put("content", message.getContent());
+        body.put("severity", message.getSeverity());
+        body.put("status", message.getStatus());
+        body.put("ruleId", message.getRuleId());
+        body.put("count", message.getRecordIds().size());
+        body.put("recordIds", message.getRecordIds());
+        return body;
+    }
+
+    private String render(String template, NotificationMessage message) {
+        return template
+                .replace("${title}", escape(message.getTitle()))
+                .replace("${content}", escape(message.getContent()))
+                .replace("${severity}", escape(message.getSeverity()))
+                .replace("${status}", escape(message.getStatus()))
+                .replace("${ruleId}", escape(message.getRuleId()))
+                .replace("${count}", String.valueOf(message.getRecordIds().size()));
+    }
+
+    /**
+     * 模板通常是 JSON，替换值按 JSON 字符串转义
+     */
+    private String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        String quoted;
+        try {
+            quoted = objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            return value;
+        }
+        return quoted.substring(1, quoted.length() - 1);
+    }
+}
@@ -0,0 +1,9 @@
+package com.esmanage.service.store;
+
+/**
+ * 倒序遍历槽位
+ */
+public interface IntCursor {
+    /** 下一个槽位，结束返回 -1 */
+    int next();
+}
@@ -0,0 +1,48 @@
+package com.esmanage.service.store;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 可增长的 int 数组，用作槽位倒排表
+ */
+public final class IntList {
+    private int[] values = new int[8];
+    private int size = 0;
+
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    public int get(int index) {
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public IntCursor descending() {
+        return new IntCursor() {
+            private int index = size - 1;
+
+            @Override
+            public int next() {
+                return index >= 0 ? values[index--] : -1;
+            }
+        };
+    }
+
+    /**
+     * 按 ID 下标取倒排表，不存在时补齐
+     */
+    public static IntList postings(List<IntList> index, int id) {
+        while (index.size() <= id) {
+            index.add(new IntList());
+        }
+        return index.get(id);
+    }
+}
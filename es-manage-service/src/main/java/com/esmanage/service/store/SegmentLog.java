@@ -0,0 +1,383 @@
+package com.esmanage.service.store;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 内存映射的分段追加日志
+ * 每个段文件预分配后整体映射到内存，事件依次追加，段满后滚动到新段；段内以 0 长度作为结束标记。
+ * 每个段记录作为最新快照的事件数，压缩时删除无有效事件的段，并把有效占比低的段中的有效事件复制到当前段。
+ * 事件由调用方编码，公共部分为 length(4) crc(4)，length 为其后的字节数，crc 覆盖 crc 之后的全部字节。
+ * 非线程安全，由调用方加锁。
+ */
+@Slf4j
+public final class SegmentLog {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean forceOnWrite;
+    private final int minLength;
+    private final String label;
+
+    private final List<Segment> segments = new ArrayList<>();
+    private Segment active;
+
+    /** 已移除但文件尚未删除成功的段 */
+    private final List<Path> pendingDeletes = new ArrayList<>();
+
+    /**
+     * @param segmentBytes 单个段文件大小
+     * @param forceOnWrite flush 时是否刷盘
+     * @param minLength    事件 length 的最小值（定长头部大小），扫描时更短的视为结束
+     * @param label        日志与异常中的事件名称
+     */
+    public SegmentLog(Path directory, int segmentBytes, boolean forceOnWrite, int minLength, String label) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.forceOnWrite = forceOnWrite;
+        this.minLength = minLength;
+        this.label = label;
+    }
+
+    /**
+     * 扫描到的一条事件
+     */
+    @FunctionalInterface
+    public interface EntryVisitor {
+        void accept(Segment segment, int position);
+    }
+
+    /**
+     * 压缩时判断事件是否仍有效，并在复制后更新引用
+     */
+    public interface EntryOwner {
+        /**
+         * 事件仍是某条记录的最新快照时返回该记录的槽位，否则返回 -1
+         */
+        int liveSlot(Segment segment, int position);
+
+        /**
+         * 槽位的最新快照已复制到新位置
+         */
+        void relocate(int slot, Segment segment, int position);
+    }
+
+    /**
+     * 一次压缩的结果
+     */
+    public record Compaction(int deletedSegments, int rewrittenSegments, int movedEntries) {
+    }
+
+    /**
+     * 打开目录下的全部段，按写入顺序逐条回调校验通过的事件；目录中没有段时创建第一个段
+     * 每条事件都在映射缓冲区上校验 CRC（整条正文参与计算），遇到截断或校验失败的事件即停止，后续写入从该位置覆盖
+     */
+    public void open(EntryVisitor visitor) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            Segment segment = Segment.open(file, parseSequence(file), 0);
+            segments.add(segment);
+            scan(segment, visitor);
+        }
+        if (segments.isEmpty()) {
+            rollSegment();
+        } else {
+            active = segments.get(segments.size() - 1);
+        }
+    }
+
+    /**
+     * 分配一条事件，已写入 length 并为 crc 留位
+     *
+     * @param length length 字段之后的字节数（含 crc）
+     */
+    public static ByteBuffer newEntry(int length) {
+        ByteBuffer entry = ByteBuffer.allocate(4 + length);
+        entry.putInt(length).putInt(0);
+        return entry;
+    }
+
+    /**
+     * 填写 crc 后追加到当前段，返回事件在 {@link #active()} 中的位置；新事件计为有效
+     */
+    public int append(ByteBuffer entry) throws IOException {
+        byte[] bytes = entry.array();
+        entry.putInt(4, crc(ByteBuffer.wrap(bytes), 8, bytes.length - 8));
+        return write(bytes);
+    }
+
+    /**
+     * 当前写入的段
+     */
+    public Segment active() {
+        return active;
+    }
+
+    public void flush() {
+        if (forceOnWrite) {
+            active.buffer.force();
+        }
+    }
+
+    /**
+     * 删除无有效事件的段，重写有效占比低于 liveRatio 的段；当前段不参与
+     * 被移除的段先解除映射再删除文件，调用方须保证已没有记录引用这些段
+     */
+    public Compaction compact(double liveRatio, EntryOwner owner) throws IOException {
+        deletePending();
+        int deleted = 0;
+        int rewritten = 0;
+        int moved = 0;
+        for (Segment segment : new ArrayList<>(segments)) {
+            if (segment == active) {
+                continue;
+            }
+            if (segment.liveCount == 0) {
+                removeSegment(segment);
+                deleted++;
+            } else if ((double) segment.liveCount / segment.entryCount < liveRatio) {
+                moved += moveLiveEntries(segment, owner);
+                removeSegment(segment);
+                rewritten++;
+            }
+        }
+        flush();
+        return new Compaction(deleted, rewritten, moved);
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * 已写入的字节数
+     */
+    public long bytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.end;
+        }
+        return bytes;
+    }
+
+    /**
+     * 全部段内的事件总数
+     */
+    public long entryCount() {
+        long entries = 0;
+        for (Segment segment : segments) {
+            entries += segment.entryCount;
+        }
+        return entries;
+    }
+
+    /**
+     * 读取 UTF-8 字符串
+     */
+    public static String string(ByteBuffer buffer, int position, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * UTF-8 编码，null 编码为空串
+     */
+    public static byte[] utf8(String value) {
+        return (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void scan(Segment segment, EntryVisitor visitor) {
+        ByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + 4 <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length < minLength || position + 4 + length + 4 > buffer.capacity()) {
+                break;
+            }
+            if (crc(buffer, position + 8, length - 4) != buffer.getInt(position + 4)) {
+                log.warn("Corrupt {} at {}:{}, truncating", label, segment.file, position);
+                break;
+            }
+            segment.liveCount++;
+            segment.entryCount++;
+            visitor.accept(segment, position);
+            position += 4 + length;
+        }
+        segment.end = position;
+        if (position + 4 <= buffer.capacity()) {
+            buffer.putInt(position, 0);
+        }
+    }
+
+    /**
+     * 写入原始事件字节，返回其在当前段中的位置
+     */
+    private int write(byte[] bytes) throws IOException {
+        // 预留 4 字节写结束标记
+        if (bytes.length + 4 > segmentBytes) {
+            throw new IOException(label + " too large: " + bytes.length + " bytes");
+        }
+        if (active.end + bytes.length + 4 > active.buffer.capacity()) {
+            rollSegment();
+        }
+        int position = active.end;
+        active.buffer.put(position, bytes);
+        active.end += bytes.length;
+        active.buffer.putInt(active.end, 0);
+        active.liveCount++;
+        active.entryCount++;
+        return position;
+    }
+
+    private void rollSegment() throws IOException {
+        long sequence = segments.isEmpty() ? 1 : segments.get(segments.size() - 1).sequence + 1;
+        Path file = directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+        Segment segment = Segment.open(file, sequence, segmentBytes);
+        segments.add(segment);
+        active = segment;
+    }
+
+    /**
+     * 把段内仍是最新快照的事件原样复制到当前段
+     */
+    private int moveLiveEntries(Segment segment, EntryOwner owner) throws IOException {
+        int moved = 0;
+        ByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position < segment.end) {
+            int length = buffer.getInt(position);
+            int slot = owner.liveSlot(segment, position);
+            if (slot >= 0) {
+                byte[] bytes = new byte[4 + length];
+                buffer.get(position, bytes);
+                int newPosition = write(bytes);
+                segment.release();
+                owner.relocate(slot, active, newPosition);
+                moved++;
+            }
+            position += 4 + length;
+        }
+        return moved;
+    }
+
+    /**
+     * 移除不再被引用的段：先解除映射再删除文件，删除失败的文件留到下次压缩重试
+     */
+    private void removeSegment(Segment segment) {
+        segments.remove(segment);
+        segment.unmap();
+        pendingDeletes.add(segment.file);
+        deletePending();
+    }
+
+    private void deletePending() {
+        for (Iterator<Path> iterator = pendingDeletes.iterator(); iterator.hasNext(); ) {
+            Path file = iterator.next();
+            try {
+                Files.deleteIfExists(file);
+                iterator.remove();
+            } catch (IOException e) {
+                log.warn("Failed to delete {} segment {}, will retry: {}", label, file, e.getMessage());
+            }
+        }
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    private static long parseSequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * 日志段：整个文件映射到内存，end 为已写入数据的末尾
+     */
+    public static final class Segment {
+        private final Path file;
+        private final long sequence;
+        private final MappedByteBuffer buffer;
+        private int end = 0;
+        /** 作为记录最新快照的事件数 */
+        private int liveCount = 0;
+        /** 段内事件总数 */
+        private int entryCount = 0;
+
+        private Segment(Path file, long sequence, MappedByteBuffer buffer) {
+            this.file = file;
+            this.sequence = sequence;
+            this.buffer = buffer;
+        }
+
+        /**
+         * 段的映射缓冲区，按事件位置读取
+         */
+        public ByteBuffer buffer() {
+            return buffer;
+        }
+
+        /**
+         * 段内的一条事件不再是记录的最新快照（被新快照取代或记录已删除）
+         */
+        public void release() {
+            liveCount--;
+        }
+
+        /**
+         * 打开段文件，size 大于 0 时创建并预分配
+         */
+        static Segment open(Path file, long sequence, int size) throws IOException {
+            try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw");
+                 FileChannel channel = raf.getChannel()) {
+                if (size > 0) {
+                    raf.setLength(size);
+                }
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+                return new Segment(file, sequence, buffer);
+            }
+        }
+
+        /**
+         * 立即解除映射，调用方须保证之后不再访问 buffer；运行时不支持时退回等待 GC 回收映射
+         */
+        void unmap() {
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field field = unsafeClass.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(field.get(null), buffer);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                log.debug("Cannot unmap {}, leaving it to GC: {}", file.getFileName(), e.toString());
+            }
+        }
+    }
+}
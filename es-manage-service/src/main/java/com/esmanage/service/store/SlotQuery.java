@@ -0,0 +1,143 @@
+package com.esmanage.service.store;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NavigableMap;
+import java.util.function.IntPredicate;
+
+/**
+ * 按二级索引查询槽位：在给出的候选集合（倒排表、位图、时间桶）中选择最小的一个倒序遍历，
+ * 逐个用完整条件过滤并分页；槽位按写入先后分配，倒序即最新的在前
+ */
+public final class SlotQuery {
+
+    private IntCursor best;
+    private long bestSize;
+
+    /**
+     * @param slotCount 槽位总数，没有更小的候选集合时全量倒序遍历
+     */
+    public SlotQuery(int slotCount) {
+        this.best = new RangeCursor(slotCount);
+        this.bestSize = slotCount;
+    }
+
+    /**
+     * 候选倒排表
+     */
+    public SlotQuery postings(IntList postings) {
+        if (postings.size() < bestSize) {
+            best = postings.descending();
+            bestSize = postings.size();
+        }
+        return this;
+    }
+
+    /**
+     * 候选位图
+     */
+    public SlotQuery bits(BitSet bits) {
+        int cardinality = bits.cardinality();
+        if (cardinality < bestSize) {
+            best = new BitSetCursor(bits);
+            bestSize = cardinality;
+        }
+        return this;
+    }
+
+    /**
+     * 候选时间桶：[from, to] 覆盖的各桶，边界为 Long.MIN_VALUE / Long.MAX_VALUE 时不限
+     */
+    public SlotQuery buckets(NavigableMap<Long, IntList> byBucket, long bucketMs, long from, long to) {
+        if (from == Long.MIN_VALUE && to == Long.MAX_VALUE) {
+            return this;
+        }
+        NavigableMap<Long, IntList> buckets = byBucket.subMap(
+                from == Long.MIN_VALUE ? Long.MIN_VALUE : from / bucketMs, true,
+                to == Long.MAX_VALUE ? Long.MAX_VALUE : to / bucketMs, true);
+        long size = 0;
+        for (IntList bucket : buckets.values()) {
+            size += bucket.size();
+        }
+        if (size < bestSize) {
+            best = new BucketCursor(buckets.descendingMap().values().iterator());
+            bestSize = size;
+        }
+        return this;
+    }
+
+    /**
+     * 遍历候选槽位，把第 offset 个起的 pageSize 个匹配槽位加入 page，返回匹配总数
+     */
+    public long page(IntPredicate matches, long offset, int pageSize, IntList page) {
+        long total = 0;
+        for (int slot = best.next(); slot >= 0; slot = best.next()) {
+            if (!matches.test(slot)) {
+                continue;
+            }
+            if (total >= offset && total < offset + pageSize) {
+                page.add(slot);
+            }
+            total++;
+        }
+        return total;
+    }
+
+    private static final class RangeCursor implements IntCursor {
+        private int next;
+
+        RangeCursor(int size) {
+            this.next = size - 1;
+        }
+
+        @Override
+        public int next() {
+            return next >= 0 ? next-- : -1;
+        }
+    }
+
+    private static final class BitSetCursor implements IntCursor {
+        private final BitSet bits;
+        private int next;
+
+        BitSetCursor(BitSet bits) {
+            this.bits = bits;
+            this.next = bits.length() - 1;
+        }
+
+        @Override
+        public int next() {
+            if (next < 0) {
+                return -1;
+            }
+            int slot = bits.previousSetBit(next);
+            next = slot - 1;
+            return slot;
+        }
+    }
+
+    private static final class BucketCursor implements IntCursor {
+        private final Iterator<IntList> buckets;
+        private IntCursor current;
+
+        BucketCursor(Iterator<IntList> buckets) {
+            this.buckets = buckets;
+        }
+
+        @Override
+        public int next() {
+            while (true) {
+                if (current != null) {
+                    int slot = current.next();
+                    if (slot >= 0) {
+                        return slot;
+                    }
+                }
+                if (!buckets.hasNext()) {
+                    return -1;
+                }
+                current = buckets.next().descending();
+            }
+        }
+    }
+}
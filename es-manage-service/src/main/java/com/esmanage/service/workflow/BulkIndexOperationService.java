@@ -0,0 +1,592 @@
+package com.esmanage.service.workflow;
+
+import com.esmanage.client.ElasticsearchClient;
+import com.esmanage.config.WorkflowConfig;
+import com.esmanage.dto.BulkIndexOperationDTO;
+import com.esmanage.dto.request.BulkIndexOperationRequest;
+import com.esmanage.metrics.MetricsRegistry;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * 批量索引操作服务
+ * 目标索引按逗号拼接成 URL 长度受限的批次，批次以自适应并发执行：
+ * 连续成功时并发加一，遇到 429/5xx/超时或集群待处理任务超过阈值时并发减半并退避；
+ * 非重试类失败的批次二分拆开，定位到具体失败的索引；进度以 SSE 推送给订阅方
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkIndexOperationService {
+
+    private static final Set<String> OPERATIONS = Set.of("delete", "close", "open", "forcemerge", "settings");
+
+    private final WorkflowConfig workflowConfig;
+    private final ElasticsearchClient elasticsearchClient;
+    private final WorkflowHttpExecutor httpExecutor;
+    private final ObjectMapper objectMapper;
+    private final MetricsRegistry metricsRegistry;
+
+    /** 操作记录，按创建顺序保留最近 maxOperations 个 */
+    private final Map<String, Operation> operations = new LinkedHashMap<>();
+
+    /** 退避与待处理任务检查使用的调度线程 */
+    private ScheduledThreadPoolExecutor scheduler;
+
+    @PostConstruct
+    public void init() {
+        this.scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "bulk-index-ops");
+            thread.setDaemon(true);
+            return thread;
+        });
+        metricsRegistry.registerExecutor("bulk-index", scheduler);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 解析目标索引并启动批量操作；试运行时只返回计划
+     *
+     * @throws IllegalArgumentException 操作类型不支持、未指定目标、删除使用了全匹配模式或显式索引名无效
+     */
+    public BulkIndexOperationDTO start(BulkIndexOperationRequest request) throws IOException {
+        String operation = request.getOperation();
+        if (operation == null || !OPERATIONS.contains(operation)) {
+            throw new IllegalArgumentException("Unsupported bulk operation: " + operation);
+        }
+        boolean hasPattern = request.getPattern() != null && !request.getPattern().isBlank();
+        boolean hasIndices = request.getIndices() != null && !request.getIndices().isEmpty();
+        if (!hasPattern && !hasIndices) {
+            throw new IllegalArgumentException("Either pattern or indices is required");
+        }
+        if ("delete".equals(operation) && hasPattern && isMatchAll(request.getPattern())) {
+            throw new IllegalArgumentException("Refusing to delete all indices");
+        }
+        if ("settings".equals(operation) && (request.getSettings() == null || request.getSettings().isEmpty())) {
+            throw new IllegalArgumentException("settings is required for settings operation");
+        }
+
+        List<String> indices = resolveTargets(request, operation, hasPattern);
+        String body = "settings".equals(operation) ? toJson(request.getSettings()) : null;
+        List<List<String>> batches = partition(indices, pathSuffix(operation, request));
+
+        BulkIndexOperationDTO dto = new BulkIndexOperationDTO();
+        dto.setId("bulk-" + UUID.randomUUID().toString().substring(0, 8));
+        dto.setOperation(operation);
+        dto.setPattern(hasPattern ? request.getPattern() : null);
+        dto.setTotal(indices.size());
+        dto.setSucceeded(0);
+        dto.setFailed(0);
+        dto.setBatches(batches.size());
+        dto.setCompletedBatches(0);
+        dto.setBackoffs(0);
+        dto.setProgress(indices.isEmpty() ? 100 : 0);
+        dto.setFailures(new ArrayList<>());
+        dto.setCreatedBy(request.getCreatedBy() != null ? request.getCreatedBy() : "admin");
+        dto.setCreatedAt(System.currentTimeMillis());
+
+        if (Boolean.TRUE.equals(request.getDryRun())) {
+            dto.setStatus("planned");
+            dto.setIndices(indices);
+            return dto;
+        }
+
+        dto.setStatus("running");
+        dto.setConcurrency(Math.max(1, workflowConfig.getBulk().getInitialConcurrency()));
+        Operation op = new Operation(dto, batches, pathSuffix(operation, request), body);
+        synchronized (operations) {
+            operations.put(dto.getId(), op);
+            evict();
+        }
+        log.info("Bulk {} started: {} indices in {} batches", operation, indices.size(), batches.size());
+        synchronized (op) {
+            op.pump();
+            return op.snapshot();
+        }
+    }
+
+    public BulkIndexOperationDTO getOperation(String id) {
+        Operation op = find(id);
+        if (op == null) {
+            return null;
+        }
+        synchronized (op) {
+            return op.snapshot();
+        }
+    }
+
+    /**
+     * 按创建时间倒序列出操作（不含失败明细）
+     */
+    public List<BulkIndexOperationDTO> getOperations() {
+        List<Operation> all;
+        synchronized (operations) {
+            all = new ArrayList<>(operations.values());
+        }
+        List<BulkIndexOperationDTO> result = new ArrayList<>(all.size());
+        for (int i = all.size() - 1; i >= 0; i--) {
+            synchronized (all.get(i)) {
+                BulkIndexOperationDTO snapshot = all.get(i).snapshot();
+                snapshot.setFailures(null);
+                result.add(snapshot);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 取消操作：未开始的批次不再执行，进行中的批次等待其结束
+     */
+    public BulkIndexOperationDTO cancel(String id) {
+        Operation op = find(id);
+        if (op == null) {
+            return null;
+        }
+        synchronized (op) {
+            op.cancelled = true;
+            op.queue.clear();
+            op.pump();
+            return op.snapshot();
+        }
+    }
+
+    /**
+     * 订阅进度事件：每个批次结束推送 progress，结束时推送 done 并关闭连接
+     */
+    public SseEmitter subscribe(String id) {
+        Operation op = find(id);
+        if (op == null) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(0L);
+        synchronized (op) {
+            BulkIndexOperationDTO snapshot = op.snapshot();
+            boolean finished = !"running".equals(snapshot.getStatus());
+            try {
+                emitter.send(SseEmitter.event().name(finished ? "done" : "progress").data(snapshot));
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+                return emitter;
+            }
+            if (finished) {
+                emitter.complete();
+            } else {
+                op.emitters.add(emitter);
+                emitter.onCompletion(() -> op.emitters.remove(emitter));
+                emitter.onTimeout(() -> op.emitters.remove(emitter));
+            }
+        }
+        return emitter;
+    }
+
+    private Operation find(String id) {
+        synchronized (operations) {
+            return operations.get(id);
+        }
+    }
+
+    private void evict() {
+        Iterator<Operation> iterator = operations.values().iterator();
+        while (operations.size() > workflowConfig.getBulk().getMaxOperations() && iterator.hasNext()) {
+            Operation oldest = iterator.next();
+            synchronized (oldest) {
+                if (!"running".equals(oldest.dto.getStatus())) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * 按模式从 _cat/indices 解析目标，再按操作类型过滤索引状态；显式列表逐个按索引命名规则校验后使用（去重）
+     */
+    private List<String> resolveTargets(BulkIndexOperationRequest request, String operation, boolean hasPattern)
+            throws IOException {
+        boolean includeSystem = Boolean.TRUE.equals(request.getIncludeSystem());
+        Set<String> targets = new LinkedHashSet<>();
+        if (hasPattern) {
+            String pattern = URLEncoder.encode(request.getPattern().replace(" ", ""), StandardCharsets.UTF_8)
+                    .replace("%2C", ",").replace("%2A", "*");
+            List<String[]> rows = elasticsearchClient.get("/_cat/indices/" + pattern
+                    + "?format=json&h=index,status&expand_wildcards=all", this::parseCatIndices);
+            for (String[] row : rows) {
+                if (!includeSystem && row[0].startsWith(".")) {
+                    continue;
+                }
+                if (("close".equals(operation) || "forcemerge".equals(operation)) && "close".equals(row[1])) {
+                    continue;
+                }
+                if ("open".equals(operation) && !"close".equals(row[1])) {
+                    continue;
+                }
+                targets.add(row[0]);
+            }
+        }
+        if (request.getIndices() != null) {
+            for (String index : request.getIndices()) {
+                if (index != null && !index.isBlank()) {
+                    targets.add(ElasticsearchClient.checkIndexName(index));
+                }
+            }
+        }
+        List<String> sorted = new ArrayList<>(targets);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    private List<String[]> parseCatIndices(JsonParser parser) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            return rows;
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String[] row = new String[2];
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("index".equals(field)) {
+                    row[0] = parser.getValueAsString();
+                } else if ("status".equals(field)) {
+                    row[1] = parser.getValueAsString();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (row[0] != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 按 URL 长度与单批索引数上限把索引名拼成批次
+     */
+    private List<List<String>> partition(List<String> indices, String suffix) {
+        WorkflowConfig.Bulk config = workflowConfig.getBulk();
+        // 路径以 / 开头
+        int budget = config.getMaxUrlLength() - 1 - suffix.length();
+        List<List<String>> batches = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int length = 0;
+        for (String index : indices) {
+            int size = encodedLength(index);
+            int added = current.isEmpty() ? size : size + 1;
+            if (!current.isEmpty() && (length + added > budget || current.size() >= config.getMaxIndicesPerBatch())) {
+                batches.add(current);
+                current = new ArrayList<>();
+                length = 0;
+                added = size;
+            }
+            current.add(index);
+            length += added;
+        }
+        if (!current.isEmpty()) {
+            batches.add(current);
+        }
+        return batches;
+    }
+
+    private int encodedLength(String index) {
+        return ElasticsearchClient.encodePathSegment(index).length();
+    }
+
+    private String pathSuffix(String operation, BulkIndexOperationRequest request) {
+        switch (operation) {
+            case "close":
+                return "/_close?ignore_unavailable=true";
+            case "open":
+                return "/_open?ignore_unavailable=true";
+            case "forcemerge":
+                return "/_forcemerge?ignore_unavailable=true" + (request.getMaxNumSegments() != null
+                        ? "&max_num_segments=" + request.getMaxNumSegments() : "");
+            case "settings":
+                return "/_settings?ignore_unavailable=true";
+            default:
+                return "?ignore_unavailable=true";
+        }
+    }
+
+    private String method(String operation) {
+        switch (operation) {
+            case "delete":
+                return "DELETE";
+            case "settings":
+                return "PUT";
+            default:
+                return "POST";
+        }
+    }
+
+    private boolean isMatchAll(String pattern) {
+        for (String part : pattern.split(",")) {
+            String trimmed = part.trim();
+            if (trimmed.equals("*") || trimmed.equals("_all") || trimmed.replace("*", "").isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("settings is not serializable: " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * 待执行的批次
+     *
+     * @param indices 索引
+     * @param attempt 已重试次数
+     */
+    private record Batch(List<String> indices, int attempt) {
+    }
+
+    /**
+     * 单个批量操作的运行状态，所有字段由 Operation 对象锁保护
+     */
+    private class Operation {
+
+        private final BulkIndexOperationDTO dto;
+        private final Deque<Batch> queue = new ArrayDeque<>();
+        private final String suffix;
+        private final String body;
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private int inflight;
+        private int successStreak;
+        private long backoffUntil;
+        private long pendingCheckedAt;
+        private boolean pendingCheckInflight;
+        private boolean pumpScheduled;
+        private boolean cancelled;
+
+        Operation(BulkIndexOperationDTO dto, List<List<String>> batches, String suffix, String body) {
+            this.dto = dto;
+            this.suffix = suffix;
+            this.body = body;
+            batches.forEach(indices -> queue.add(new Batch(indices, 0)));
+        }
+
+        /**
+         * 在并发上限内发出批次；退避期内或待处理任务检查过期时延后
+         */
+        void pump() {
+            if (!"running".equals(dto.getStatus())) {
+                return;
+            }
+            WorkflowConfig.Bulk config = workflowConfig.getBulk();
+            long now = System.currentTimeMillis();
+            if (!cancelled && !queue.isEmpty()) {
+                if (now - pendingCheckedAt >= config.getPendingTasksCheckMs()) {
+                    checkPendingTasks();
+                }
+                if (now < backoffUntil) {
+                    schedulePump(backoffUntil - now);
+                } else {
+                    while (inflight < dto.getConcurrency() && !queue.isEmpty()) {
+                        dispatch(queue.poll());
+                    }
+                }
+            }
+            if (inflight == 0 && (queue.isEmpty() || cancelled)) {
+                finish();
+            }
+        }
+
+        private void dispatch(Batch batch) {
+            inflight++;
+            StringBuilder path = new StringBuilder();
+            for (String index : batch.indices()) {
+                path.append(path.length() == 0 ? '/' : ',').append(ElasticsearchClient.encodePathSegment(index));
+            }
+            path.append(suffix);
+            long timeout = workflowConfig.getBulk().getBatchTimeoutMs();
+            httpExecutor.execute(method(dto.getOperation()), path.toString(), body, null, timeout)
+                    .orTimeout(timeout, TimeUnit.MILLISECONDS)
+                    .whenComplete((result, error) -> onBatchDone(batch, result, error));
+        }
+
+        synchronized void onBatchDone(Batch batch, WorkflowHttpExecutor.HttpResult result, Throwable error) {
+            inflight--;
+            WorkflowConfig.Bulk config = workflowConfig.getBulk();
+            boolean retryable = error != null || result.status() == 429 || result.status() >= 500;
+            if (error == null && result.isSuccessful() && shardFailures(result.body()) == 0) {
+                dto.setSucceeded(dto.getSucceeded() + batch.indices().size());
+                dto.setCompletedBatches(dto.getCompletedBatches() + 1);
+                // 加性增：连续成功数达到当前并发时并发加一
+                if (++successStreak >= dto.getConcurrency() && dto.getConcurrency() < config.getMaxConcurrency()) {
+                    dto.setConcurrency(dto.getConcurrency() + 1);
+                    successStreak = 0;
+                }
+            } else if (retryable && batch.attempt() < config.getMaxRetries() && !cancelled) {
+                backoff(error != null ? describe(error) : "HTTP " + result.status());
+                queue.addFirst(new Batch(batch.indices(), batch.attempt() + 1));
+            } else if (!retryable && batch.indices().size() > 1 && !cancelled) {
+                // 二分拆开重试，定位到具体失败的索引
+                int mid = batch.indices().size() / 2;
+                queue.addFirst(new Batch(batch.indices().subList(mid, batch.indices().size()), batch.attempt()));
+                queue.addFirst(new Batch(batch.indices().subList(0, mid), batch.attempt()));
+                dto.setBatches(dto.getBatches() + 1);
+            } else {
+                String reason = error != null ? describe(error) : "HTTP " + result.status() + " " + reason(result.body());
+                for (String index : batch.indices()) {
+                    recordFailure(index, reason);
+                }
+                dto.setCompletedBatches(dto.getCompletedBatches() + 1);
+            }
+            updateProgress();
+            publish("progress");
+            pump();
+        }
+
+        /**
+         * 乘性减：并发减半并在退避时间内暂停发出新批次
+         */
+        private void backoff(String reason) {
+            successStreak = 0;
+            dto.setConcurrency(Math.max(1, dto.getConcurrency() / 2));
+            dto.setBackoffs(dto.getBackoffs() + 1);
+            backoffUntil = System.currentTimeMillis() + workflowConfig.getBulk().getBackoffMs();
+            log.info("Bulk {} backing off, concurrency {}: {}", dto.getId(), dto.getConcurrency(), reason);
+        }
+
+        /**
+         * 异步检查集群待处理任务数，超过阈值时退避
+         */
+        private void checkPendingTasks() {
+            if (pendingCheckInflight) {
+                return;
+            }
+            pendingCheckInflight = true;
+            pendingCheckedAt = System.currentTimeMillis();
+            httpExecutor.execute("GET", "/_cluster/pending_tasks?filter_path=tasks.insert_order", null, null,
+                            workflowConfig.getBulk().getPendingTasksCheckMs() * 5)
+                    .whenComplete((result, error) -> onPendingTasks(result, error));
+        }
+
+        synchronized void onPendingTasks(WorkflowHttpExecutor.HttpResult result, Throwable error) {
+            pendingCheckInflight = false;
+            if (error != null || !result.isSuccessful() || result.body() == null) {
+                return;
+            }
+            int pending = result.body().path("tasks").size();
+            dto.setPendingTasks(pending);
+            if (pending > workflowConfig.getBulk().getPendingTasksThreshold()
+                    && System.currentTimeMillis() >= backoffUntil) {
+                backoff("pending tasks " + pending);
+            }
+        }
+
+        private void schedulePump(long delayMs) {
+            if (pumpScheduled) {
+                return;
+            }
+            pumpScheduled = true;
+            scheduler.schedule(() -> {
+                synchronized (this) {
+                    pumpScheduled = false;
+                    pump();
+                }
+            }, delayMs, TimeUnit.MILLISECONDS);
+        }
+
+        private void finish() {
+            long now = System.currentTimeMillis();
+            if (cancelled) {
+                dto.setStatus("cancelled");
+            } else {
+                dto.setStatus(dto.getFailed() == 0 ? "completed" : dto.getSucceeded() == 0 ? "failed" : "partial");
+            }
+            dto.setCompletedAt(now);
+            dto.setDuration(now - dto.getCreatedAt());
+            updateProgress();
+            log.info("Bulk {} {}: {} succeeded, {} failed in {}ms", dto.getId(), dto.getStatus(),
+                    dto.getSucceeded(), dto.getFailed(), dto.getDuration());
+            publish("done");
+            emitters.forEach(SseEmitter::complete);
+            emitters.clear();
+        }
+
+        private void recordFailure(String index, String reason) {
+            dto.setFailed(dto.getFailed() + 1);
+            if (dto.getFailures().size() < workflowConfig.getBulk().getMaxFailures()) {
+                BulkIndexOperationDTO.Failure failure = new BulkIndexOperationDTO.Failure();
+                failure.setIndex(index);
+                failure.setError(reason);
+                dto.getFailures().add(failure);
+            }
+        }
+
+        private void updateProgress() {
+            dto.setProgress(dto.getTotal() == 0 ? 100 : (dto.getSucceeded() + dto.getFailed()) * 100 / dto.getTotal());
+        }
+
+        private void publish(String event) {
+            if (emitters.isEmpty()) {
+                return;
+            }
+            BulkIndexOperationDTO snapshot = snapshot();
+            snapshot.setFailures(null);
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().name(event).data(snapshot));
+                } catch (IOException | IllegalStateException e) {
+                    emitters.remove(emitter);
+                }
+            }
+        }
+
+        BulkIndexOperationDTO snapshot() {
+            return objectMapper.convertValue(dto, BulkIndexOperationDTO.class);
+        }
+    }
+
+    /**
+     * forcemerge 等操作以 2xx 返回分片级失败
+     */
+    private int shardFailures(JsonNode body) {
+        return body != null ? body.path("_shards").path("failed").asInt(0) : 0;
+    }
+
+    private String reason(JsonNode body) {
+        if (body == null) {
+            return "";
+        }
+        JsonNode reason = body.path("error").path("reason");
+        if (!reason.isMissingNode()) {
+            return reason.asText();
+        }
+        String text = body.isTextual() ? body.asText() : body.toString();
+        return text.length() > 200 ? text.substring(0, 200) : text;
+    }
+
+    private String describe(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            return "批次超时";
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,270 @@
+package com.esmanage.service.workflow;
+
+import com.esmanage.client.ElasticsearchClient;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.TextNode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 操作流参数渲染
+ * {{name}} 引用流程变量，{{steps.stepId.data.x}} 引用前序步骤输出，
+ * {{a|b}} 在 a 不存在时取 b；成功条件支持 response.path[.length] 与字面量比较
+ */
+@Component
+@RequiredArgsConstructor
+public class TemplateRenderer {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{\\s*([^}]+?)\\s*}}");
+    private static final Pattern CONDITION = Pattern.compile(
+            "^response((?:\\.[\\w-]+)*)\\s*(===|!==|==|!=|>=|<=|>|<)\\s*(.+)$");
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 渲染参数值：恰好是一个占位符的字符串保留解析结果的类型，Map 与 List 递归渲染
+     */
+    public Object renderValue(Object value, Map<String, Object> context) {
+        if (value instanceof String text) {
+            Matcher matcher = PLACEHOLDER.matcher(text);
+            if (matcher.matches()) {
+                return lookup(matcher.group(1), context);
+            }
+            return renderText(text, context);
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> rendered = new LinkedHashMap<>();
+            map.forEach((key, item) -> rendered.put(String.valueOf(key), renderValue(item, context)));
+            return rendered;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> rendered = new ArrayList<>(list.size());
+            list.forEach(item -> rendered.add(renderValue(item, context)));
+            return rendered;
+        }
+        return value;
+    }
+
+    /**
+     * 渲染请求路径：? 之前的占位符按路径段编码，之后的按查询参数编码，
+     * 变量中的 /、?、# 等字符不会改变请求的目标接口
+     */
+    public String renderPath(String template, Map<String, Object> context) {
+        int queryStart = template.indexOf('?');
+        Matcher matcher = PLACEHOLDER.matcher(template);
+        StringBuilder out = new StringBuilder(template.length());
+        while (matcher.find()) {
+            String text = asText(lookup(matcher.group(1), context));
+            String encoded = queryStart >= 0 && matcher.start() > queryStart
+                    ? URLEncoder.encode(text, StandardCharsets.UTF_8)
+                    : ElasticsearchClient.encodePathSegment(text);
+            matcher.appendReplacement(out, Matcher.quoteReplacement(encoded));
+        }
+        matcher.appendTail(out);
+        return out.toString();
+    }
+
+    /**
+     * 渲染普通文本（如提示信息），对象与数组以 JSON 形式插入
+     */
+    public String renderText(String template, Map<String, Object> context) {
+        Matcher matcher = PLACEHOLDER.matcher(template);
+        StringBuilder out = new StringBuilder(template.length());
+        while (matcher.find()) {
+            matcher.appendReplacement(out, Matcher.quoteReplacement(asText(lookup(matcher.group(1), context))));
+        }
+        matcher.appendTail(out);
+        return out.toString();
+    }
+
+    /**
+     * 渲染 JSON 请求体：引号内的占位符插入转义后的字符串，
+     * 引号外的占位符插入 JSON 值，本身是 JSON 文本的字符串原样插入
+     */
+    public String renderJson(String template, Map<String, Object> context) {
+        Matcher matcher = PLACEHOLDER.matcher(template);
+        StringBuilder out = new StringBuilder(template.length());
+        while (matcher.find()) {
+            Object value = lookup(matcher.group(1), context);
+            boolean quoted = matcher.start() > 0 && template.charAt(matcher.start() - 1) == '"'
+                    && matcher.end() < template.length() && template.charAt(matcher.end()) == '"';
+            String replacement;
+            if (quoted) {
+                String json = toJson(TextNode.valueOf(asText(value)));
+                replacement = json.substring(1, json.length() - 1);
+            } else {
+                replacement = toJsonValue(value);
+            }
+            matcher.appendReplacement(out, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(out);
+        return out.toString();
+    }
+
+    /**
+     * 计算成功条件，无法识别的条件按 HTTP 状态码是否为 2xx 判断
+     *
+     * @param condition 条件表达式
+     * @param status    HTTP 状态码
+     * @param body      响应体
+     */
+    public boolean evaluateCondition(String condition, int status, JsonNode body) {
+        boolean success2xx = status >= 200 && status < 300;
+        if (condition == null || condition.isBlank()) {
+            return success2xx;
+        }
+        String expression = condition.trim();
+        if ("true".equals(expression)) {
+            return success2xx;
+        }
+        Matcher matcher = CONDITION.matcher(expression);
+        if (!matcher.matches()) {
+            return success2xx;
+        }
+        String[] path = matcher.group(1).isEmpty() ? new String[0] : matcher.group(1).substring(1).split("\\.");
+        JsonNode actual = body != null ? body : JsonNodeFactory.instance.objectNode();
+        for (int i = 0; i < path.length && actual != null; i++) {
+            String key = path[i];
+            if ("length".equals(key) && i == path.length - 1 && actual.isArray()) {
+                actual = JsonNodeFactory.instance.numberNode(actual.size());
+            } else if ("status".equals(key) && path.length == 1 && !actual.has("status")) {
+                actual = JsonNodeFactory.instance.numberNode(status);
+            } else {
+                actual = actual.get(key);
+            }
+        }
+        return compare(actual, matcher.group(2), matcher.group(3).trim());
+    }
+
+    /**
+     * 按路径解析占位符，依次尝试 | 分隔的候选
+     *
+     * @throws IllegalArgumentException 所有候选都不存在
+     */
+    public Object lookup(String expression, Map<String, Object> context) {
+        for (String candidate : expression.split("\\|")) {
+            Object value = resolvePath(candidate.trim(), context);
+            if (value != null) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Missing parameter: " + expression);
+    }
+
+    private Object resolvePath(String path, Map<String, Object> context) {
+        Object current = context;
+        for (String key : path.split("\\.")) {
+            if (current instanceof Map<?, ?> map) {
+                current = map.get(key);
+            } else if (current instanceof JsonNode node) {
+                current = node.isArray() && isIndex(key) ? node.get(Integer.parseInt(key)) : node.get(key);
+            } else if (current instanceof List<?> list && isIndex(key)) {
+                int index = Integer.parseInt(key);
+                current = index < list.size() ? list.get(index) : null;
+            } else {
+                return null;
+            }
+            if (current == null || (current instanceof JsonNode node && node.isNull())) {
+                return null;
+            }
+        }
+        return current;
+    }
+
+    private boolean isIndex(String key) {
+        return !key.isEmpty() && key.chars().allMatch(Character::isDigit);
+    }
+
+    private boolean compare(JsonNode actual, String operator, String literal) {
+        boolean negate = operator.startsWith("!");
+        if (operator.endsWith("=") && !operator.startsWith(">") && !operator.startsWith("<")) {
+            boolean equal = literalEquals(actual, literal);
+            return negate != equal;
+        }
+        if (actual == null || !actual.isNumber()) {
+            return false;
+        }
+        double left = actual.asDouble();
+        double right;
+        try {
+            right = Double.parseDouble(literal);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        switch (operator) {
+            case ">":
+                return left > right;
+            case "<":
+                return left < right;
+            case ">=":
+                return left >= right;
+            default:
+                return left <= right;
+        }
+    }
+
+    private boolean literalEquals(JsonNode actual, String literal) {
+        if ("null".equals(literal) || "undefined".equals(literal)) {
+            return actual == null || actual.isNull();
+        }
+        if (actual == null) {
+            return false;
+        }
+        if ("true".equals(literal) || "false".equals(literal)) {
+            return actual.isBoolean() && actual.asBoolean() == Boolean.parseBoolean(literal);
+        }
+        if (literal.length() >= 2 && (literal.startsWith("\"") || literal.startsWith("'"))) {
+            return actual.isTextual() && actual.asText().equals(literal.substring(1, literal.length() - 1));
+        }
+        try {
+            return actual.isNumber() && actual.asDouble() == Double.parseDouble(literal);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private String asText(Object value) {
+        if (value instanceof String text) {
+            return text;
+        }
+        if (value instanceof JsonNode node && node.isValueNode()) {
+            return node.asText();
+        }
+        if (value instanceof Map || value instanceof Collection || value instanceof JsonNode) {
+            return toJson(value);
+        }
+        return String.valueOf(value);
+    }
+
+    private String toJsonValue(Object value) {
+        if (value instanceof String text) {
+            String trimmed = text.trim();
+            if (trimmed.startsWith("{") || trimmed.startsWith("[")) {
+                try {
+                    objectMapper.readTree(trimmed);
+                    return trimmed;
+                } catch (JsonProcessingException e) {
+                    // 不是 JSON，按字符串插入
+                }
+            }
+        }
+        return toJson(value);
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Parameter is not serializable: " + e.getOriginalMessage());
+        }
+    }
+}
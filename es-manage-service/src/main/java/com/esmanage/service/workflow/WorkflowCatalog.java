@@ -0,0 +1,212 @@
+package com.esmanage.service.workflow;
+
+import com.esmanage.dto.AtomicOperationDTO;
+import com.esmanage.dto.WorkflowStepDTO;
+import com.esmanage.dto.WorkflowTemplateDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 内置原子操作与操作流模板
+ * 与前端 workflowMockData 中的定义一致；模板步骤带固定 ID，后续步骤可引用前序步骤的输出
+ */
+@Component
+public class WorkflowCatalog {
+
+    /** 内置模板的创建时间（固定值，便于前端排序） */
+    private static final long BUILTIN_TIME = 1735689600000L;
+
+    private final Map<String, AtomicOperationDTO> operationsByType = new LinkedHashMap<>();
+    private final Map<String, WorkflowTemplateDTO> templates = new LinkedHashMap<>();
+
+    public WorkflowCatalog() {
+        operation("op-001", "读取索引配置", "read_index_config", "读取已有索引的设置、映射等配置信息",
+                "GET", "/{{indexName}}", null, "response.status === 200",
+                input("indexName", true, "索引名称"));
+        operation("op-002", "创建索引", "create_index", "创建新的 Elasticsearch 索引",
+                "PUT", "/{{indexName}}",
+                "{\n  \"settings\": {{settings}},\n  \"mappings\": {{mappings}}\n}",
+                "response.acknowledged === true",
+                input("indexName", true, "索引名称"), input("settings", false, "索引设置"),
+                input("mappings", false, "映射定义"));
+        operation("op-003", "数据迁移 (Reindex)", "reindex", "将数据从源索引迁移到目标索引",
+                "POST", "/_reindex?wait_for_completion=true",
+                "{\n  \"source\": { \"index\": \"{{sourceIndex}}\" },\n  \"dest\": { \"index\": \"{{destIndex}}\" }\n}",
+                "response.failures.length === 0",
+                input("sourceIndex", true, "源索引"), input("destIndex", true, "目标索引"));
+        operation("op-004", "切换别名", "switch_alias", "原子性地将别名从一个索引切换到另一个索引",
+                "POST", "/_aliases",
+                "{\n  \"actions\": [\n    { \"remove\": { \"index\": \"{{oldIndex}}\", \"alias\": \"{{alias}}\" } },\n"
+                        + "    { \"add\": { \"index\": \"{{newIndex}}\", \"alias\": \"{{alias}}\" } }\n  ]\n}",
+                "response.acknowledged === true",
+                input("alias", true, "别名"), input("oldIndex", true, "旧索引"), input("newIndex", true, "新索引"));
+        operation("op-005", "删除索引", "delete_index", "删除指定的索引",
+                "DELETE", "/{{indexName}}", null, "response.acknowledged === true",
+                input("indexName", true, "索引名称"));
+        operation("op-006", "验证数据", "verify_data", "验证数据完整性，比较文档数量",
+                "GET", "/{{sourceIndex}},{{targetIndex}}/_count", null, "true",
+                input("sourceIndex", true, "源索引"), input("targetIndex", true, "目标索引"));
+        operation("op-007", "创建别名", "create_alias", "为索引创建别名",
+                "POST", "/_aliases",
+                "{\n  \"actions\": [\n    { \"add\": { \"index\": \"{{indexName}}\", \"alias\": \"{{alias}}\" } }\n  ]\n}",
+                "response.acknowledged === true",
+                input("indexName", true, "索引名称"), input("alias", true, "别名"));
+        operation("op-008", "备份索引", "backup_index", "创建索引快照备份",
+                "PUT", "/_snapshot/{{repository}}/{{snapshotName}}",
+                "{\n  \"indices\": \"{{indexName}}\",\n  \"ignore_unavailable\": true\n}",
+                "response.accepted === true",
+                input("indexName", true, "索引名称"), input("repository", true, "仓库名称"),
+                input("snapshotName", false, "快照名称"));
+        operation("op-009", "更新映射", "update_mapping", "更新索引映射（只能添加字段）",
+                "PUT", "/{{indexName}}/_mapping", "{{mappings}}", "response.acknowledged === true",
+                input("indexName", true, "索引名称"), input("mappings", true, "映射定义"));
+        operation("op-010", "更新设置", "update_settings", "更新索引设置",
+                "PUT", "/{{indexName}}/_settings", "{{settings}}", "response.acknowledged === true",
+                input("indexName", true, "索引名称"), input("settings", true, "设置"));
+        operation("op-011", "删除别名", "delete_alias", "删除索引别名",
+                "POST", "/_aliases",
+                "{\n  \"actions\": [\n    { \"remove\": { \"index\": \"{{indexName}}\", \"alias\": \"{{alias}}\" } }\n  ]\n}",
+                "response.acknowledged === true",
+                input("indexName", true, "索引名称"), input("alias", true, "别名"));
+
+        template("tpl-001", "索引映射变更",
+                "修改索引映射：读取配置 → 创建新索引 → 迁移数据 → 验证 → 切换别名 → 删除旧索引", "migration",
+                step("read-config", "读取源索引配置", "read_index_config", "读取源索引的设置和映射",
+                        Map.of("indexName", "{{sourceIndex}}")),
+                step("create-index", "创建新索引", "create_index", "基于修改后的映射创建新索引",
+                        Map.of("indexName", "{{targetIndex}}",
+                                "settings", "{{settings|steps.read-config.data.settings}}",
+                                "mappings", "{{mappings|steps.read-config.data.mappings}}")),
+                step("reindex", "迁移数据", "reindex", "将数据从旧索引迁移到新索引",
+                        Map.of("sourceIndex", "{{sourceIndex}}", "destIndex", "{{targetIndex}}")),
+                step("verify", "验证数据", "verify_data", "验证迁移后的数据完整性",
+                        Map.of("sourceIndex", "{{sourceIndex}}", "targetIndex", "{{targetIndex}}")),
+                step("switch-alias", "切换别名", "switch_alias", "将别名切换到新索引",
+                        Map.of("alias", "{{alias}}", "oldIndex", "{{sourceIndex}}", "newIndex", "{{targetIndex}}")),
+                step("delete-old", "删除旧索引", "delete_index", "删除旧索引释放空间",
+                        Map.of("indexName", "{{sourceIndex}}")),
+                step("notify", "完成通知", "notification", "通知相关人员变更完成",
+                        Map.of("channels", "{{channels}}")));
+        template("tpl-002", "新建业务索引", "创建新的业务索引并配置别名", "index",
+                step("create-index", "创建索引", "create_index", "创建新索引", Map.of()),
+                step("create-alias", "创建别名", "create_alias", "为索引创建别名", Map.of()),
+                step("notify", "完成通知", "notification", "通知申请人索引已创建",
+                        Map.of("channels", "{{channels}}")));
+        template("tpl-003", "别名切换", "将别名从一个索引切换到另一个索引", "alias",
+                step("switch-alias", "切换别名", "switch_alias", "原子切换别名", Map.of()),
+                step("notify", "完成通知", "notification", "通知相关人员",
+                        Map.of("channels", "{{channels}}")));
+        template("tpl-004", "索引数据迁移", "将数据从一个索引迁移到另一个索引（含备份）", "migration",
+                step("backup", "备份源索引", "backup_index", "创建源索引快照",
+                        Map.of("repository", "{{repository}}", "indexName", "{{sourceIndex}}")),
+                step("reindex", "执行迁移", "reindex", "执行 reindex 操作", Map.of()),
+                step("verify", "验证数据", "verify_data", "验证迁移后的数据完整性",
+                        Map.of("targetIndex", "{{destIndex}}")),
+                step("notify", "完成通知", "notification", "通知迁移完成",
+                        Map.of("channels", "{{channels}}")));
+        template("tpl-005", "索引删除（含备份）", "安全删除索引：先备份再删除", "index",
+                step("backup", "备份索引", "backup_index", "创建索引快照备份",
+                        Map.of("repository", "{{repository}}")),
+                step("delete-index", "删除索引", "delete_index", "删除索引", Map.of()),
+                step("notify", "完成通知", "notification", "通知删除完成",
+                        Map.of("channels", "{{channels}}")));
+    }
+
+    /**
+     * 变量默认值，执行时被请求中的同名变量覆盖
+     *
+     * @param executionId 执行 ID，用于生成快照名
+     */
+    public Map<String, Object> getDefaults(String executionId) {
+        Map<String, Object> defaults = new LinkedHashMap<>();
+        defaults.put("repository", "backup");
+        defaults.put("snapshotName", "snapshot-" + executionId);
+        defaults.put("channels", List.of());
+        return defaults;
+    }
+
+    /**
+     * 全部内置原子操作
+     */
+    public List<AtomicOperationDTO> getOperations() {
+        return new ArrayList<>(operationsByType.values());
+    }
+
+    /**
+     * 按类型查找原子操作
+     */
+    public AtomicOperationDTO getOperation(String type) {
+        return operationsByType.get(type);
+    }
+
+    /**
+     * 全部内置模板
+     */
+    public List<WorkflowTemplateDTO> getTemplates() {
+        return new ArrayList<>(templates.values());
+    }
+
+    public WorkflowTemplateDTO getTemplate(String id) {
+        return templates.get(id);
+    }
+
+    @SafeVarargs
+    private void operation(String id, String name, String type, String description, String method,
+                           String endpoint, String body, String successCondition,
+                           Map.Entry<String, Object>... inputs) {
+        AtomicOperationDTO.ApiConfig apiConfig = new AtomicOperationDTO.ApiConfig();
+        apiConfig.setMethod(method);
+        apiConfig.setEndpoint(endpoint);
+        apiConfig.setBody(body);
+        apiConfig.setSuccessCondition(successCondition);
+
+        AtomicOperationDTO operation = new AtomicOperationDTO();
+        operation.setId(id);
+        operation.setName(name);
+        operation.setType(type);
+        operation.setDescription(description);
+        operation.setApiConfig(apiConfig);
+        Map<String, Object> schema = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> input : inputs) {
+            schema.put(input.getKey(), input.getValue());
+        }
+        operation.setInputSchema(schema);
+        operation.setIsBuiltin(true);
+        operationsByType.put(type, operation);
+    }
+
+    private static Map.Entry<String, Object> input(String name, boolean required, String description) {
+        Map<String, Object> schema = new LinkedHashMap<>();
+        schema.put("type", "string");
+        if (required) {
+            schema.put("required", true);
+        }
+        schema.put("description", description);
+        return Map.entry(name, schema);
+    }
+
+    private void template(String id, String name, String description, String category, WorkflowStepDTO... steps) {
+        WorkflowTemplateDTO template = new WorkflowTemplateDTO();
+        template.setId(id);
+        template.setName(name);
+        template.setDescription(description);
+        template.setCategory(category);
+        template.setSteps(List.of(steps));
+        template.setIsBuiltin(true);
+        template.setCreatedAt(BUILTIN_TIME);
+        template.setUpdatedAt(BUILTIN_TIME);
+        templates.put(id, template);
+    }
+
+    private static WorkflowStepDTO step(String id, String name, String type, String description,
+                                        Map<String, Object> config) {
+        WorkflowStepDTO step = new WorkflowStepDTO();
+        step.setId(id);
+        step.setName(name);
+        step.setType(type);
+        step.setDescription(description);
+        step.setConfig(new LinkedHashMap<>(config));
+        return step;
+    }
+}
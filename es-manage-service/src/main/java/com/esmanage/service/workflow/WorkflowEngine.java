@@ -0,0 +1,748 @@
+package com.esmanage.service.workflow;
+
+import com.esmanage.config.WorkflowConfig;
+import com.esmanage.dto.AtomicOperationDTO;
+import com.esmanage.dto.NotificationChannelDTO;
+import com.esmanage.dto.WorkflowExecutionDTO;
+import com.esmanage.dto.WorkflowStepDTO;
+import com.esmanage.dto.WorkflowTemplateDTO;
+import com.esmanage.dto.request.WorkflowRunRequest;
+import com.esmanage.metrics.MetricsRegistry;
+import com.esmanage.service.notification.NotificationChannelService;
+import com.esmanage.service.notification.NotificationDispatcher;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 操作流执行引擎
+ * 步骤按 dependsOn 组成有向无环图，依赖全部满足的步骤并行执行（单个执行内不超过 maxParallelSteps）；
+ * 步骤失败时只跳过依赖它的后续步骤，其他分支继续执行；
+ * 网络错误、超时、429 与 5xx 按指数退避重试；每次状态变化写回执行记录
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WorkflowEngine {
+
+    /** 读取索引配置时去除的只读设置 */
+    private static final Set<String> READ_ONLY_SETTINGS = Set.of(
+            "uuid", "creation_date", "provided_name", "version", "routing", "resize", "history");
+
+    private static final String CANCELLED = "执行已取消";
+
+    private final WorkflowConfig workflowConfig;
+    private final WorkflowCatalog workflowCatalog;
+    private final TemplateRenderer templateRenderer;
+    private final WorkflowHttpExecutor httpExecutor;
+    private final WorkflowExecutionStore executionStore;
+    private final NotificationDispatcher notificationDispatcher;
+    private final NotificationChannelService channelService;
+    private final ObjectMapper objectMapper;
+    private final MetricsRegistry metricsRegistry;
+
+    /** 运行中的执行 */
+    private final Map<String, Run> runs = new ConcurrentHashMap<>();
+
+    /** 重试退避与步骤超时使用的调度线程 */
+    private ScheduledThreadPoolExecutor scheduler;
+
+    /** 执行结束监听 */
+    private final List<Consumer<WorkflowExecutionDTO>> completionListeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong startedCount = new AtomicLong();
+    private final AtomicLong stepRetries = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        this.scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "workflow-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        metricsRegistry.registerExecutor("workflow", scheduler);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 启动一次执行，立即返回执行记录
+     *
+     * @throws IllegalArgumentException 模板不存在、步骤 ID 重复、依赖不存在、存在循环依赖，
+     *                                  或不是由审批申请触发却包含审批步骤
+     */
+    public WorkflowExecutionDTO start(WorkflowRunRequest request) {
+        WorkflowTemplateDTO template = null;
+        List<WorkflowStepDTO> source = request.getSteps();
+        if (request.getTemplateId() != null && !request.getTemplateId().isEmpty()) {
+            template = workflowCatalog.getTemplate(request.getTemplateId());
+            if (template == null) {
+                throw new IllegalArgumentException("Template not found: " + request.getTemplateId());
+            }
+            source = template.getSteps();
+        }
+        if (source == null || source.isEmpty()) {
+            throw new IllegalArgumentException("Workflow has no steps");
+        }
+        // 审批步骤只在审批通过后由执行队列启动的操作流中视为已满足，其他触发方式需先提交审批申请
+        if (request.getApprovalId() == null && source.stream().anyMatch(step -> "approval".equals(step.getType()))) {
+            throw new IllegalArgumentException("Workflow contains approval steps, submit it as an approval request");
+        }
+
+        long now = System.currentTimeMillis();
+        WorkflowExecutionDTO execution = new WorkflowExecutionDTO();
+        execution.setId("exec-" + UUID.randomUUID().toString().substring(0, 8));
+        execution.setWorkflowName(request.getName() != null ? request.getName()
+                : template != null ? template.getName() : "自定义操作流");
+        if (template != null) {
+            execution.setTemplateId(template.getId());
+            execution.setTemplateName(template.getName());
+        }
+        execution.setStatus("running");
+        execution.setTriggerType(request.getTriggerType() != null ? request.getTriggerType() : "manual");
+        execution.setApprovalId(request.getApprovalId());
+        execution.setSteps(prepareSteps(source));
+        Map<String, Object> variables = workflowCatalog.getDefaults(execution.getId());
+        if (request.getVariables() != null) {
+            variables.putAll(request.getVariables());
+        }
+        execution.setVariables(variables);
+        execution.setProgress(0);
+        execution.setCreatedBy(request.getCreatedBy() != null ? request.getCreatedBy() : "admin");
+        execution.setCreatedAt(now);
+        execution.setStartedAt(now);
+
+        Run run = new Run(execution);
+        runs.put(execution.getId(), run);
+        startedCount.incrementAndGet();
+        WorkflowExecutionDTO snapshot;
+        synchronized (run) {
+            run.launch();
+            snapshot = run.snapshot();
+        }
+        log.info("Workflow execution {} started: {} ({} steps)", execution.getId(),
+                execution.getWorkflowName(), execution.getSteps().size());
+        return snapshot;
+    }
+
+    /**
+     * 取消执行：未开始的步骤跳过，运行中的步骤中止
+     *
+     * @return 取消后的执行记录，执行不存在或已结束时返回 null
+     */
+    public WorkflowExecutionDTO cancel(String id) {
+        Run run = runs.get(id);
+        if (run == null) {
+            return null;
+        }
+        return run.cancel();
+    }
+
+    /**
+     * 注册执行结束监听，执行完成、失败或取消后以最终快照回调；在执行对象锁内调用，监听方不应阻塞
+     */
+    public void addCompletionListener(Consumer<WorkflowExecutionDTO> listener) {
+        completionListeners.add(listener);
+    }
+
+    /**
+     * 获取执行记录，运行中的执行返回当前快照
+     */
+    public WorkflowExecutionDTO getExecution(String id) {
+        Run run = runs.get(id);
+        if (run != null) {
+            synchronized (run) {
+                return run.snapshot();
+            }
+        }
+        return executionStore.get(id);
+    }
+
+    /**
+     * 按创建时间倒序列出执行记录
+     */
+    public List<WorkflowExecutionDTO> getExecutions(String status) {
+        return executionStore.list(status);
+    }
+
+    /**
+     * 引擎统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", runs.size());
+        stats.put("started", startedCount.get());
+        stats.put("stepRetries", stepRetries.get());
+        stats.put("maxParallelSteps", workflowConfig.getMaxParallelSteps());
+        stats.put("maxConcurrentRequests", workflowConfig.getMaxConcurrentRequests());
+        return stats;
+    }
+
+    /**
+     * 复制步骤并补全 ID、依赖、重试与超时，校验依赖图
+     */
+    private List<WorkflowStepDTO> prepareSteps(List<WorkflowStepDTO> source) {
+        List<WorkflowStepDTO> steps = objectMapper.convertValue(source, new TypeReference<>() {
+        });
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < steps.size(); i++) {
+            WorkflowStepDTO step = steps.get(i);
+            if (step.getType() == null || step.getType().isEmpty()) {
+                throw new IllegalArgumentException("Step " + (i + 1) + " has no type");
+            }
+            if (step.getId() == null || step.getId().isEmpty()) {
+                step.setId("step-" + (i + 1));
+            }
+            if (!ids.add(step.getId())) {
+                throw new IllegalArgumentException("Duplicate step id: " + step.getId());
+            }
+            if (step.getDependsOn() == null) {
+                step.setDependsOn(i > 0 ? List.of(steps.get(i - 1).getId()) : List.of());
+            }
+            if (step.getName() == null) {
+                step.setName(step.getType());
+            }
+            if (step.getConfig() == null) {
+                step.setConfig(new LinkedHashMap<>());
+            }
+            if (step.getMaxRetries() == null) {
+                step.setMaxRetries(workflowConfig.getDefaultMaxRetries());
+            }
+            if (step.getTimeoutMs() == null || step.getTimeoutMs() <= 0) {
+                step.setTimeoutMs(workflowConfig.getDefaultTimeoutMs());
+            }
+            step.setStatus("pending");
+            step.setRetryCount(0);
+            step.setResult(null);
+            step.setError(null);
+            step.setStartedAt(null);
+            step.setCompletedAt(null);
+        }
+
+        // Kahn 拓扑排序检查依赖是否存在、是否有环
+        Map<String, Integer> inDegree = new HashMap<>();
+        Map<String, List<String>> dependents = new HashMap<>();
+        for (WorkflowStepDTO step : steps) {
+            inDegree.put(step.getId(), step.getDependsOn().size());
+            for (String dependency : step.getDependsOn()) {
+                if (!ids.contains(dependency)) {
+                    throw new IllegalArgumentException(
+                            "Step " + step.getId() + " depends on unknown step: " + dependency);
+                }
+                dependents.computeIfAbsent(dependency, k -> new ArrayList<>()).add(step.getId());
+            }
+        }
+        Deque<String> queue = new ArrayDeque<>();
+        inDegree.forEach((id, degree) -> {
+            if (degree == 0) {
+                queue.add(id);
+            }
+        });
+        int visited = 0;
+        while (!queue.isEmpty()) {
+            String id = queue.poll();
+            visited++;
+            for (String dependent : dependents.getOrDefault(id, List.of())) {
+                if (inDegree.merge(dependent, -1, Integer::sum) == 0) {
+                    queue.add(dependent);
+                }
+            }
+        }
+        if (visited != steps.size()) {
+            throw new IllegalArgumentException("Workflow steps contain a dependency cycle");
+        }
+        return steps;
+    }
+
+    /**
+     * 步骤执行结果
+     *
+     * @param result    结果
+     * @param status    步骤最终状态: completed, failed, skipped
+     * @param retryable 失败时是否可重试
+     */
+    private record Outcome(WorkflowStepDTO.StepResult result, String status, boolean retryable) {
+    }
+
+    /**
+     * 单次执行的运行状态，所有字段由 Run 对象锁保护
+     */
+    private class Run {
+
+        private final WorkflowExecutionDTO execution;
+        private final List<WorkflowStepDTO> steps;
+        /** 每个步骤尚未满足的依赖数 */
+        private final int[] pendingDeps;
+        /** 每个步骤的直接后继 */
+        private final List<List<Integer>> dependents = new ArrayList<>();
+        /** 依赖已满足、等待执行的步骤 */
+        private final Deque<Integer> ready = new ArrayDeque<>();
+        /** 步骤输出，供后续步骤以 steps.{id}.data 引用 */
+        private final Map<String, Object> stepOutputs = new LinkedHashMap<>();
+        /** 进行中的 HTTP 调用，取消时中止 */
+        private final Set<CompletableFuture<?>> calls = ConcurrentHashMap.newKeySet();
+        private int running;
+        private int finished;
+        private boolean cancelled;
+
+        Run(WorkflowExecutionDTO execution) {
+            this.execution = execution;
+            this.steps = execution.getSteps();
+            this.pendingDeps = new int[steps.size()];
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < steps.size(); i++) {
+                index.put(steps.get(i).getId(), i);
+                dependents.add(new ArrayList<>());
+            }
+            for (int i = 0; i < steps.size(); i++) {
+                pendingDeps[i] = steps.get(i).getDependsOn().size();
+                for (String dependency : steps.get(i).getDependsOn()) {
+                    dependents.get(index.get(dependency)).add(i);
+                }
+                if (pendingDeps[i] == 0) {
+                    ready.add(i);
+                }
+            }
+        }
+
+        /**
+         * 在并行上限内启动就绪步骤
+         */
+        void launch() {
+            while (!cancelled && running < workflowConfig.getMaxParallelSteps() && !ready.isEmpty()) {
+                int index = ready.poll();
+                WorkflowStepDTO step = steps.get(index);
+                step.setStatus("running");
+                step.setStartedAt(System.currentTimeMillis());
+                running++;
+                attempt(index);
+            }
+            persist();
+            if (running == 0 && (ready.isEmpty() || cancelled)) {
+                finish();
+            }
+        }
+
+        void attempt(int index) {
+            WorkflowStepDTO step = steps.get(index);
+            long start = System.currentTimeMillis();
+            CompletableFuture<Outcome> future;
+            try {
+                future = executeStep(step, buildContext());
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            future.orTimeout(step.getTimeoutMs(), TimeUnit.MILLISECONDS)
+                    .whenComplete((outcome, error) -> onAttemptDone(index, start, outcome, error));
+        }
+
+        /**
+         * 步骤一次尝试结束：可重试的失败按指数退避重新执行，否则确定最终状态并推进依赖图
+         */
+        synchronized void onAttemptDone(int index, long start, Outcome outcome, Throwable error) {
+            WorkflowStepDTO step = steps.get(index);
+            if (!"running".equals(step.getStatus())) {
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            if (cause != null) {
+                outcome = failure(describe(cause), null, cause instanceof IOException
+                        || cause instanceof TimeoutException);
+            }
+            outcome.result().setDuration(System.currentTimeMillis() - start);
+
+            if (!cancelled && "failed".equals(outcome.status()) && outcome.retryable()
+                    && step.getRetryCount() < step.getMaxRetries()) {
+                long delay = workflowConfig.getRetryBackoffMs() << Math.min(step.getRetryCount(), 10);
+                step.setRetryCount(step.getRetryCount() + 1);
+                step.setError(outcome.result().getMessage());
+                stepRetries.incrementAndGet();
+                log.info("Retry workflow step {}/{} in {}ms: {}", execution.getId(), step.getId(), delay,
+                        outcome.result().getMessage());
+                persist();
+                scheduler.schedule(() -> retry(index), delay, TimeUnit.MILLISECONDS);
+                return;
+            }
+
+            step.setStatus(outcome.status());
+            step.setResult(outcome.result());
+            step.setError("failed".equals(step.getStatus()) ? outcome.result().getMessage() : null);
+            step.setCompletedAt(System.currentTimeMillis());
+            running--;
+            finished++;
+
+            Map<String, Object> output = new LinkedHashMap<>();
+            output.put("status", step.getStatus());
+            output.put("data", outcome.result().getData());
+            output.put("response", outcome.result().getResponse());
+            stepOutputs.put(step.getId(), output);
+
+            if ("failed".equals(step.getStatus())) {
+                skipDescendants(index);
+            } else {
+                for (int dependent : dependents.get(index)) {
+                    if (--pendingDeps[dependent] == 0 && "pending".equals(steps.get(dependent).getStatus())) {
+                        ready.add(dependent);
+                    }
+                }
+            }
+            updateProgress();
+            launch();
+        }
+
+        synchronized void retry(int index) {
+            if (cancelled) {
+                onAttemptDone(index, System.currentTimeMillis(), null, new CancellationException(CANCELLED));
+                return;
+            }
+            attempt(index);
+        }
+
+        synchronized WorkflowExecutionDTO cancel() {
+            if (cancelled) {
+                return snapshot();
+            }
+            cancelled = true;
+            ready.clear();
+            for (WorkflowStepDTO step : steps) {
+                if ("pending".equals(step.getStatus())) {
+                    step.setStatus("skipped");
+                    finished++;
+                }
+            }
+            for (CompletableFuture<?> call : calls) {
+                call.completeExceptionally(new CancellationException(CANCELLED));
+            }
+            updateProgress();
+            launch();
+            return snapshot();
+        }
+
+        /**
+         * 失败步骤的所有后继（直接与间接）标记为跳过
+         */
+        private void skipDescendants(int index) {
+            Deque<Integer> queue = new ArrayDeque<>(dependents.get(index));
+            while (!queue.isEmpty()) {
+                int next = queue.poll();
+                WorkflowStepDTO step = steps.get(next);
+                if ("pending".equals(step.getStatus())) {
+                    step.setStatus("skipped");
+                    step.setError("依赖的步骤失败");
+                    finished++;
+                    queue.addAll(dependents.get(next));
+                }
+            }
+        }
+
+        private void finish() {
+            if (!"running".equals(execution.getStatus())) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            Optional<WorkflowStepDTO> failed = steps.stream()
+                    .filter(step -> "failed".equals(step.getStatus())).findFirst();
+            if (cancelled) {
+                execution.setStatus("cancelled");
+                execution.setError(CANCELLED);
+            } else if (failed.isPresent()) {
+                execution.setStatus("failed");
+                execution.setError("步骤 " + failed.get().getName() + " 失败: " + failed.get().getError());
+            } else {
+                execution.setStatus("completed");
+            }
+            execution.setCompletedAt(now);
+            execution.setDuration(now - execution.getStartedAt());
+            runs.remove(execution.getId());
+            persist();
+            log.info("Workflow execution {} {} in {}ms", execution.getId(), execution.getStatus(),
+                    execution.getDuration());
+            if (!completionListeners.isEmpty()) {
+                WorkflowExecutionDTO result = snapshot();
+                for (Consumer<WorkflowExecutionDTO> listener : completionListeners) {
+                    try {
+                        listener.accept(result);
+                    } catch (RuntimeException e) {
+                        log.warn("Workflow completion listener failed: {}", e.getMessage());
+                    }
+                }
+            }
+        }
+
+        private void updateProgress() {
+            execution.setProgress(steps.isEmpty() ? 100 : finished * 100 / steps.size());
+        }
+
+        WorkflowExecutionDTO snapshot() {
+            return objectMapper.convertValue(execution, WorkflowExecutionDTO.class);
+        }
+
+        void persist() {
+            try {
+                executionStore.save(snapshot());
+            } catch (IOException e) {
+                log.warn("Failed to save workflow execution {}: {}", execution.getId(), e.getMessage());
+            }
+        }
+
+        private Map<String, Object> buildContext() {
+            Map<String, Object> context = new LinkedHashMap<>(execution.getVariables());
+            context.put("executionId", execution.getId());
+            context.put("steps", new LinkedHashMap<>(stepOutputs));
+            return context;
+        }
+
+        /**
+         * 执行一个步骤，注册的 HTTP 调用在取消时被中止
+         */
+        private CompletableFuture<Outcome> executeStep(WorkflowStepDTO step, Map<String, Object> context) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> config = (Map<String, Object>) templateRenderer.renderValue(step.getConfig(), context);
+            // 步骤参数覆盖同名流程变量
+            Map<String, Object> params = new LinkedHashMap<>(context);
+            params.putAll(config);
+
+            switch (step.getType()) {
+                case "approval":
+                    // 只有审批申请触发的执行能走到这里，启动前申请已通过
+                    return CompletableFuture.completedFuture(
+                            outcome("completed", "审批申请 " + execution.getApprovalId() + " 已通过", null, null));
+                case "notification":
+                    return notify(step, config);
+                case "custom_script":
+                    return CompletableFuture.completedFuture(failure("不支持 custom_script 步骤", null, false));
+                case "verify_data":
+                    return verifyData(params, step.getTimeoutMs());
+                case "custom_api": {
+                    AtomicOperationDTO.ApiConfig api = new AtomicOperationDTO.ApiConfig();
+                    api.setMethod((String) config.getOrDefault("method", "GET"));
+                    api.setEndpoint((String) config.get("endpoint"));
+                    Object body = config.get("body");
+                    api.setBody(body == null || body instanceof String ? (String) body : toJson(body));
+                    api.setSuccessCondition((String) config.get("successCondition"));
+                    if (api.getEndpoint() == null) {
+                        throw new IllegalArgumentException("Missing parameter: endpoint");
+                    }
+                    return callApi(step, api, params);
+                }
+                default: {
+                    AtomicOperationDTO operation = workflowCatalog.getOperation(step.getType());
+                    if (operation == null) {
+                        throw new IllegalArgumentException("Unknown step type: " + step.getType());
+                    }
+                    return callApi(step, operation.getApiConfig(), params);
+                }
+            }
+        }
+
+        private CompletableFuture<Outcome> callApi(WorkflowStepDTO step, AtomicOperationDTO.ApiConfig api,
+                                                   Map<String, Object> params) {
+            String path = templateRenderer.renderPath(api.getEndpoint(), params);
+            String body = api.getBody() != null ? templateRenderer.renderJson(api.getBody(), params) : null;
+            return track(httpExecutor.execute(api.getMethod(), path, body, api.getHeaders(), step.getTimeoutMs()))
+                    .thenApply(result -> {
+                        Object response = responseOf(result);
+                        if (!templateRenderer.evaluateCondition(api.getSuccessCondition(), result.status(),
+                                result.body())) {
+                            return failure("HTTP " + result.status() + " " + api.getMethod() + " " + path
+                                    + ": " + errorReason(result.body()), response,
+                                    result.status() == 429 || result.status() >= 500);
+                        }
+                        return outcome("completed", api.getMethod() + " " + path + " 成功",
+                                extractData(step.getType(), result.body()), response);
+                    });
+        }
+
+        /**
+         * 刷新目标索引后并行统计源与目标索引文档数
+         */
+        private CompletableFuture<Outcome> verifyData(Map<String, Object> params, long timeoutMs) {
+            String source = templateRenderer.renderText("{{sourceIndex}}", params);
+            String target = templateRenderer.renderText("{{targetIndex|destIndex}}", params);
+            String sourcePath = templateRenderer.renderPath("/{{sourceIndex}}", params);
+            String targetPath = templateRenderer.renderPath("/{{targetIndex|destIndex}}", params);
+            return track(httpExecutor.execute("POST", targetPath + "/_refresh", null, null, timeoutMs))
+                    .thenCompose(refresh -> {
+                        CompletableFuture<WorkflowHttpExecutor.HttpResult> sourceCount =
+                                track(httpExecutor.execute("GET", sourcePath + "/_count", null, null, timeoutMs));
+                        CompletableFuture<WorkflowHttpExecutor.HttpResult> targetCount =
+                                track(httpExecutor.execute("GET", targetPath + "/_count", null, null, timeoutMs));
+                        return sourceCount.thenCombine(targetCount, (s, t) -> {
+                            if (!s.isSuccessful() || !t.isSuccessful()) {
+                                WorkflowHttpExecutor.HttpResult bad = s.isSuccessful() ? t : s;
+                                return failure("统计文档数失败: HTTP " + bad.status() + " "
+                                        + errorReason(bad.body()), responseOf(bad), bad.status() >= 500);
+                            }
+                            long sourceDocs = s.body().path("count").asLong();
+                            long targetDocs = t.body().path("count").asLong();
+                            Map<String, Object> data = new LinkedHashMap<>();
+                            data.put("sourceCount", sourceDocs);
+                            data.put("targetCount", targetDocs);
+                            data.put("match", sourceDocs == targetDocs);
+                            if (sourceDocs != targetDocs) {
+                                WorkflowStepDTO.StepResult result = new WorkflowStepDTO.StepResult();
+                                result.setSuccess(false);
+                                result.setMessage("文档数不一致: " + source + "=" + sourceDocs + ", "
+                                        + target + "=" + targetDocs);
+                                result.setData(data);
+                                return new Outcome(result, "failed", false);
+                            }
+                            return outcome("completed", "文档数一致: " + sourceDocs, data, null);
+                        });
+                    });
+        }
+
+        /**
+         * 向配置的渠道直接发送通知，未配置渠道时跳过
+         */
+        private CompletableFuture<Outcome> notify(WorkflowStepDTO step, Map<String, Object> config) {
+            Object channelIds = config.get("channels");
+            List<NotificationChannelDTO> channels = new ArrayList<>();
+            if (channelIds instanceof Collection<?> ids) {
+                for (Object id : ids) {
+                    NotificationChannelDTO channel = channelService.getChannel(String.valueOf(id));
+                    if (channel == null) {
+                        return CompletableFuture.completedFuture(failure("通知渠道不存在: " + id, null, false));
+                    }
+                    channels.add(channel);
+                }
+            }
+            if (channels.isEmpty()) {
+                return CompletableFuture.completedFuture(outcome("skipped", "未配置通知渠道", null, null));
+            }
+            String title = config.get("title") != null ? String.valueOf(config.get("title"))
+                    : "[INFO] 操作流 " + execution.getWorkflowName();
+            String content = config.get("content") != null ? String.valueOf(config.get("content"))
+                    : "操作流 " + execution.getWorkflowName() + "（" + execution.getId() + "）已执行到步骤 "
+                    + step.getName();
+            CompletableFuture<?>[] sends = channels.stream()
+                    .map(channel -> notificationDispatcher.sendDirect(channel, title, content, "info"))
+                    .toArray(CompletableFuture[]::new);
+            return CompletableFuture.allOf(sends)
+                    .thenApply(v -> outcome("completed", "已通知 " + sends.length + " 个渠道", null, null));
+        }
+
+        private <T> CompletableFuture<T> track(CompletableFuture<T> call) {
+            calls.add(call);
+            call.whenComplete((result, error) -> calls.remove(call));
+            if (cancelled) {
+                call.completeExceptionally(new CancellationException(CANCELLED));
+            }
+            return call;
+        }
+    }
+
+    /**
+     * 按操作类型提取供后续步骤引用的输出
+     */
+    private Map<String, Object> extractData(String type, JsonNode body) {
+        if (body == null || !body.isObject()) {
+            return null;
+        }
+        Map<String, Object> data = new LinkedHashMap<>();
+        switch (type) {
+            case "read_index_config": {
+                Iterator<Map.Entry<String, JsonNode>> fields = body.fields();
+                if (!fields.hasNext()) {
+                    return null;
+                }
+                Map.Entry<String, JsonNode> index = fields.next();
+                data.put("index", index.getKey());
+                JsonNode settings = index.getValue().path("settings").deepCopy();
+                if (settings.path("index") instanceof ObjectNode indexSettings) {
+                    indexSettings.remove(READ_ONLY_SETTINGS);
+                }
+                data.put("settings", settings);
+                data.put("mappings", index.getValue().path("mappings"));
+                data.put("aliases", index.getValue().path("aliases"));
+                return data;
+            }
+            case "reindex":
+                data.put("total", body.path("total").asLong());
+                data.put("created", body.path("created").asLong());
+                data.put("updated", body.path("updated").asLong());
+                data.put("took", body.path("took").asLong());
+                return data;
+            case "backup_index":
+                data.put("accepted", body.path("accepted").asBoolean());
+                return data;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 响应体超过 maxResponseBytes 时只保存摘要
+     */
+    private Object responseOf(WorkflowHttpExecutor.HttpResult result) {
+        if (result.bytes() > workflowConfig.getMaxResponseBytes()) {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("status", result.status());
+            summary.put("bytes", result.bytes());
+            summary.put("truncated", true);
+            return summary;
+        }
+        return result.body();
+    }
+
+    private String errorReason(JsonNode body) {
+        if (body == null) {
+            return "";
+        }
+        JsonNode reason = body.path("error").path("reason");
+        if (!reason.isMissingNode()) {
+            return reason.asText();
+        }
+        String text = body.isTextual() ? body.asText() : body.toString();
+        return text.length() > 200 ? text.substring(0, 200) : text;
+    }
+
+    private String describe(Throwable error) {
+        if (error instanceof TimeoutException) {
+            return "步骤超时";
+        }
+        return error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Parameter is not serializable: " + e.getOriginalMessage());
+        }
+    }
+
+    private static Outcome outcome(String status, String message, Map<String, Object> data, Object response) {
+        WorkflowStepDTO.StepResult result = new WorkflowStepDTO.StepResult();
+        result.setSuccess(true);
+        result.setMessage(message);
+        result.setData(data);
+        result.setResponse(response);
+        return new Outcome(result, status, false);
+    }
+
+    private static Outcome failure(String message, Object response, boolean retryable) {
+        WorkflowStepDTO.StepResult result = new WorkflowStepDTO.StepResult();
+        result.setSuccess(false);
+        result.setMessage(message);
+        result.setResponse(response);
+        return new Outcome(result, "failed", retryable);
+    }
+}
@@ -0,0 +1,155 @@
+package com.esmanage.service.workflow;
+
+import com.esmanage.config.WorkflowConfig;
+import com.esmanage.dto.WorkflowExecutionDTO;
+import com.esmanage.dto.WorkflowStepDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * 操作流执行记录存储
+ * 每个执行一个 JSON 文件（executions/{id}.json），状态变化时整体写回；
+ * 启动时加载，上次运行中断的执行标记为失败；超出保留数量时删除最早结束的执行
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WorkflowExecutionStore {
+
+    private static final String EXECUTIONS_DIR = "executions";
+    private static final String INTERRUPTED = "服务重启，执行中断";
+
+    private final WorkflowConfig workflowConfig;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, WorkflowExecutionDTO> executions = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        Path dir = executionsDir();
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        List<WorkflowExecutionDTO> loaded = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files.filter(f -> f.toString().endsWith(".json"))::iterator) {
+                try {
+                    loaded.add(objectMapper.readValue(file.toFile(), WorkflowExecutionDTO.class));
+                } catch (IOException e) {
+                    log.warn("Skip unreadable workflow execution {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to load workflow executions from {}", dir, e);
+            return;
+        }
+        loaded.sort(Comparator.comparing(e -> e.getCreatedAt() != null ? e.getCreatedAt() : 0L));
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            for (WorkflowExecutionDTO execution : loaded) {
+                if ("running".equals(execution.getStatus())) {
+                    markInterrupted(execution, now);
+                    try {
+                        write(execution);
+                    } catch (IOException e) {
+                        log.warn("Failed to save interrupted workflow execution {}", execution.getId(), e);
+                    }
+                }
+                executions.put(execution.getId(), execution);
+            }
+        }
+        log.info("Loaded {} workflow executions from {}", loaded.size(), dir);
+    }
+
+    /**
+     * 保存执行记录（调用方传入快照，不再修改）
+     */
+    public synchronized void save(WorkflowExecutionDTO execution) throws IOException {
+        executions.put(execution.getId(), execution);
+        write(execution);
+        evict();
+    }
+
+    public synchronized WorkflowExecutionDTO get(String id) {
+        return executions.get(id);
+    }
+
+    /**
+     * 按创建时间倒序列出执行记录
+     *
+     * @param status 状态过滤，可为 null
+     */
+    public synchronized List<WorkflowExecutionDTO> list(String status) {
+        List<WorkflowExecutionDTO> result = new ArrayList<>();
+        for (WorkflowExecutionDTO execution : executions.values()) {
+            if (status == null || status.isEmpty() || status.equals(execution.getStatus())) {
+                result.add(execution);
+            }
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private void markInterrupted(WorkflowExecutionDTO execution, long now) {
+        execution.setStatus("failed");
+        execution.setError(INTERRUPTED);
+        execution.setCompletedAt(now);
+        if (execution.getStartedAt() != null) {
+            execution.setDuration(now - execution.getStartedAt());
+        }
+        if (execution.getSteps() != null) {
+            for (WorkflowStepDTO step : execution.getSteps()) {
+                if ("running".equals(step.getStatus())) {
+                    step.setStatus("failed");
+                    step.setError(INTERRUPTED);
+                    step.setCompletedAt(now);
+                } else if ("pending".equals(step.getStatus())) {
+                    step.setStatus("skipped");
+                }
+            }
+        }
+    }
+
+    /**
+     * 超出保留数量时删除最早的已结束执行，运行中的执行不删除
+     */
+    private void evict() {
+        Iterator<WorkflowExecutionDTO> iterator = executions.values().iterator();
+        while (executions.size() > workflowConfig.getMaxExecutions() && iterator.hasNext()) {
+            WorkflowExecutionDTO oldest = iterator.next();
+            if ("running".equals(oldest.getStatus())) {
+                continue;
+            }
+            iterator.remove();
+            try {
+                Files.deleteIfExists(executionsDir().resolve(oldest.getId() + ".json"));
+            } catch (IOException e) {
+                log.warn("Failed to delete workflow execution {}", oldest.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * 先写临时文件再原子替换，避免写一半的文件
+     */
+    private void write(WorkflowExecutionDTO execution) throws IOException {
+        Path dir = executionsDir();
+        Files.createDirectories(dir);
+        Path file = dir.resolve(execution.getId() + ".json");
+        Path temp = dir.resolve(execution.getId() + ".json.tmp");
+        objectMapper.writeValue(temp.toFile(), execution);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path executionsDir() {
+        return Paths.get(workflowConfig.getDataDir()).toAbsolutePath().resolve(EXECUTIONS_DIR);
+    }
+}
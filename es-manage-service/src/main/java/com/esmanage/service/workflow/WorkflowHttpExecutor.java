@@ -0,0 +1,140 @@
+package com.esmanage.service.workflow;
+
+import com.esmanage.client.ElasticsearchClient;
+import com.esmanage.config.WorkflowConfig;
+import com.esmanage.metrics.MetricsRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.*;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 操作流 HTTP 执行器
+ * 异步调用 ES 管理接口；使用独立的 Dispatcher 限制并发，
+ * 不设读超时，长时间运行的请求（如同步 reindex）由步骤超时控制
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WorkflowHttpExecutor {
+
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final WorkflowConfig workflowConfig;
+    private final ObjectMapper objectMapper;
+    private final MetricsRegistry metricsRegistry;
+
+    private OkHttpClient httpClient;
+
+    /**
+     * HTTP 调用结果
+     *
+     * @param status HTTP 状态码
+     * @param body   响应体，非 JSON 时为文本节点
+     * @param took   耗时（毫秒）
+     * @param bytes  响应体字节数
+     */
+    public record HttpResult(int status, JsonNode body, long took, int bytes) {
+        public boolean isSuccessful() {
+            return status >= 200 && status < 300;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(workflowConfig.getMaxConcurrentRequests());
+        dispatcher.setMaxRequestsPerHost(workflowConfig.getMaxConcurrentRequests());
+        // 共享连接池，独立的并发上限与超时
+        this.httpClient = elasticsearchClient.getHttpClient().newBuilder()
+                .dispatcher(dispatcher)
+                .readTimeout(0, TimeUnit.MILLISECONDS)
+                .build();
+        metricsRegistry.registerQueue("workflow-http", dispatcher::queuedCallsCount, dispatcher::runningCallsCount);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        httpClient.dispatcher().cancelAll();
+        httpClient.dispatcher().executorService().shutdown();
+    }
+
+    /**
+     * 异步执行请求；future 被取消或超时时同时取消 HTTP 调用
+     *
+     * @param method    HTTP 方法
+     * @param path      请求路径（含查询参数）
+     * @param body      JSON 请求体，可为 null
+     * @param headers   附加请求头，可为 null
+     * @param timeoutMs 调用超时（毫秒）
+     */
+    public CompletableFuture<HttpResult> execute(String method, String path, String body,
+                                                 Map<String, String> headers, long timeoutMs) {
+        Request request;
+        try {
+            String httpMethod = method == null ? "GET" : method.toUpperCase();
+            RequestBody requestBody = body != null && !body.isBlank() ? RequestBody.create(body, JSON)
+                    : "POST".equals(httpMethod) || "PUT".equals(httpMethod) || "PATCH".equals(httpMethod)
+                    ? RequestBody.create(new byte[0], JSON) : null;
+            Request.Builder builder = elasticsearchClient.newRequest(path.startsWith("/") ? path : "/" + path)
+                    .method(httpMethod, requestBody);
+            if (headers != null) {
+                headers.forEach(builder::header);
+            }
+            request = builder.build();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(e.getMessage(), e));
+        }
+
+        CompletableFuture<HttpResult> future = new CompletableFuture<>();
+        Call call = httpClient.newCall(request);
+        call.timeout().timeout(timeoutMs, TimeUnit.MILLISECONDS);
+        long start = System.currentTimeMillis();
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    ResponseBody responseBody = response.body();
+                    byte[] bytes = responseBody != null ? responseBody.bytes() : new byte[0];
+                    future.complete(new HttpResult(response.code(), parse(bytes),
+                            System.currentTimeMillis() - start, bytes.length));
+                } catch (IOException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                call.cancel();
+            }
+        });
+        return future;
+    }
+
+    private JsonNode parse(byte[] bytes) {
+        if (bytes.length == 0) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(bytes);
+        } catch (IOException e) {
+            return objectMapper.getNodeFactory().textNode(new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,1025 @@
+package com.esmanage.standin;
+
+import com.esmanage.config.StandInConfig;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Elasticsearch 本地替身
+ * 在本机端口上模拟直连数据源用到的 ES 接口，返回合成集群数据，便于在没有真实集群时联调与测试。
+ * 替身不解析 filter_path，直接返回过滤后的结构；_nodes/stats 按路径中的指标列表输出对应部分。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "standin.elasticsearch", name = "enabled", havingValue = "true")
+public class ElasticsearchStandIn {
+
+    private static final String ALL_NODE_METRICS = "jvm,os,fs,indices,thread_pool,breaker";
+
+    private final StandInConfig standInConfig;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private HttpServer server;
+    private ExecutorService executor;
+    private SyntheticCluster cluster;
+
+    /** 进行中的写操作数，作为待处理任务数返回 */
+    private final AtomicInteger inflightWrites = new AtomicInteger();
+
+    /** wait_for_completion=false 提交的模拟任务 */
+    private final Map<String, SimulatedTask> tasks = new ConcurrentHashMap<>();
+    private final AtomicLong taskSequence = new AtomicLong(1000);
+
+    /** 搜索 size 参数与单次最多生成的命中数 */
+    private static final Pattern SIZE_PATTERN = Pattern.compile("\"?size\"?\\s*[:=]\\s*(\\d+)");
+    private static final int MAX_SEARCH_HITS = 500000;
+    private static final Pattern PROFILE_PATTERN = Pattern.compile("\"profile\"\\s*:\\s*true");
+    private static final int PROFILE_SHARDS = 3;
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "are", "as", "at", "be", "but", "by",
+            "for", "if", "in", "into", "is", "it", "no", "not", "of", "on", "or", "such", "that", "the", "their",
+            "then", "there", "these", "they", "this", "to", "was", "will", "with");
+
+    /** 模拟任务的处理速度（文档/秒）与文档数上限 */
+    private static final double TASK_DOCS_PER_SEC = 5000;
+    private static final long TASK_MAX_DOCS = 50000;
+
+    @PostConstruct
+    public void start() throws IOException {
+        StandInConfig.Elasticsearch config = standInConfig.getElasticsearch();
+        cluster = new SyntheticCluster(config.getNodes(), config.getIndices());
+        // 响应头与响应体分两次写出，长连接上的小请求否则会受 Nagle 与延迟确认影响，每次多等约 40ms
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", config.getPort()), 0);
+        // 写操作可模拟耗时，线程数需覆盖操作流的并行步骤
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(16, runnable -> {
+            Thread thread = new Thread(runnable, "elasticsearch-standin-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        log.info("Elasticsearch stand-in listening on 127.0.0.1:{} ({} nodes, {} indices)",
+                getPort(), config.getNodes(), config.getIndices());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 实际监听的端口（配置为 0 时由系统分配）
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String query = exchange.getRequestURI().getQuery();
+        if (path.endsWith("/_search")) {
+            writeSearch(exchange, query);
+            return;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+        int status = 200;
+        try (JsonGenerator gen = jsonFactory.createGenerator(buffer)) {
+            if (path.equals("/") || path.isEmpty()) {
+                writeRoot(gen);
+            } else if (path.equals("/_cluster/health")) {
+                writeHealth(gen);
+            } else if (path.equals("/_cluster/pending_tasks")) {
+                writePendingTasks(gen);
+            } else if (path.equals("/_cluster/stats")) {
+                writeClusterStats(gen);
+            } else if (path.startsWith("/_nodes")) {
+                writeNodeStats(gen, path);
+            } else if (path.startsWith("/_cat/indices")) {
+                writeCatIndices(gen, path.length() > "/_cat/indices/".length()
+                        ? path.substring("/_cat/indices/".length()) : null,
+                        query != null && query.contains("expand_wildcards=all"));
+            } else if (path.startsWith("/_cat/shards/")) {
+                writeCatShards(gen, path.substring("/_cat/shards/".length()));
+            } else if (path.startsWith("/_tasks")) {
+                status = writeTasks(gen, exchange, path);
+            } else if (isAsyncByQuery(exchange, path, query)) {
+                writeSubmitTask(gen, exchange, path);
+            } else if (path.endsWith("/_analyze")) {
+                status = writeAnalyze(gen, exchange);
+            } else if (path.endsWith("/_count")) {
+                writeCount(gen, path.substring(1, path.length() - "/_count".length()));
+            } else if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+                writeAdminOperation(gen, exchange, path);
+            } else if (findIndex(path.substring(1)) != null) {
+                writeIndexConfig(gen, findIndex(path.substring(1)));
+            } else {
+                status = 404;
+                gen.writeStartObject();
+                gen.writeStringField("error", "no handler found for uri [" + path + "]");
+                gen.writeNumberField("status", 404);
+                gen.writeEndObject();
+            }
+        }
+
+        byte[] body = buffer.toByteArray();
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * 搜索：按 size（查询参数或请求体）生成合成命中，分块流式输出，客户端接受 gzip 时压缩，用于大结果的代理联调；
+     * 请求体带 profile: true 时附加合成的 profile 输出
+     */
+    private void writeSearch(HttpExchange exchange, String query) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        Matcher matcher = SIZE_PATTERN.matcher((query != null ? query : "") + " " + body);
+        int size = matcher.find() ? Math.min(MAX_SEARCH_HITS, Integer.parseInt(matcher.group(1))) : 10;
+        String encoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        boolean gzip = encoding != null && encoding.contains("gzip");
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        if (gzip) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = gzip ? new GZIPOutputStream(exchange.getResponseBody(), 8192)
+                : exchange.getResponseBody();
+        List<SyntheticCluster.Index> indices = cluster.getIndices();
+        long now = System.currentTimeMillis();
+        try (JsonGenerator gen = jsonFactory.createGenerator(out)) {
+            gen.writeStartObject();
+            gen.writeNumberField("took", 1 + size / 1000);
+            gen.writeBooleanField("timed_out", false);
+            gen.writeObjectFieldStart("_shards");
+            gen.writeNumberField("total", PROFILE_SHARDS);
+            gen.writeNumberField("successful", PROFILE_SHARDS);
+            gen.writeNumberField("skipped", 0);
+            gen.writeNumberField("failed", 0);
+            gen.writeEndObject();
+            gen.writeObjectFieldStart("hits");
+            gen.writeObjectFieldStart("total");
+            gen.writeNumberField("value", size);
+            gen.writeStringField("relation", "eq");
+            gen.writeEndObject();
+            gen.writeArrayFieldStart("hits");
+            for (int i = 0; i < size; i++) {
+                gen.writeStartObject();
+                gen.writeStringField("_index", indices.get(i % indices.size()).name);
+                gen.writeStringField("_id", String.valueOf(i));
+                gen.writeNumberField("_score", 1.0);
+                gen.writeObjectFieldStart("_source");
+                gen.writeNumberField("timestamp", now - i * 1000L);
+                gen.writeStringField("host", "host-" + (i % 32));
+                gen.writeStringField("message", "GET /api/orders/" + i + " 200 synthetic request log line for stand-in search");
+                gen.writeEndObject();
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+            if (PROFILE_PATTERN.matcher(body).find()) {
+                writeProfile(gen, indices.get(0).name, size, body.contains("\"aggs\"") || body.contains("\"aggregations\""));
+            }
+            gen.writeEndObject();
+        } catch (IOException e) {
+            log.debug("Stand-in search aborted: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 合成的 profile 输出：每个分片一棵 BooleanQuery 树、收集器、可选的聚合与取回阶段，耗时随 size 与分片号变化
+     */
+    private void writeProfile(JsonGenerator gen, String index, int size, boolean aggs) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        gen.writeObjectFieldStart("profile");
+        gen.writeArrayFieldStart("shards");
+        for (int shard = 0; shard < PROFILE_SHARDS; shard++) {
+            String node = cluster.getNodes().isEmpty() ? "stand-in"
+                    : cluster.getNodes().get(shard % cluster.getNodes().size()).name;
+            long scale = (shard + 1) * 100_000L + size * 50L;
+            long term = scale + random.nextLong(50_000);
+            long range = scale * 3 + random.nextLong(50_000);
+            long bool = term + range + scale / 2;
+            gen.writeStartObject();
+            gen.writeStringField("id", "[" + node + "][" + index + "][" + shard + "]");
+            gen.writeStringField("node_id", node);
+            gen.writeNumberField("shard_id", shard);
+            gen.writeStringField("index", index);
+            gen.writeArrayFieldStart("searches");
+            gen.writeStartObject();
+            gen.writeArrayFieldStart("query");
+            gen.writeStartObject();
+            gen.writeStringField("type", "BooleanQuery");
+            gen.writeStringField("description", "+host:host-1 +timestamp:[1700000000000 TO 9223372036854775807]");
+            gen.writeNumberField("time_in_nanos", bool);
+            writeBreakdown(gen, bool - term - range);
+            gen.writeArrayFieldStart("children");
+            writeQueryNode(gen, "TermQuery", "host:host-1", term);
+            writeQueryNode(gen, "IndexOrDocValuesQuery", "timestamp:[1700000000000 TO 9223372036854775807]", range);
+            gen.writeEndArray();
+            gen.writeEndObject();
+            gen.writeEndArray();
+            gen.writeNumberField("rewrite_time", 5_000 + random.nextLong(10_000));
+            gen.writeArrayFieldStart("collector");
+            gen.writeStartObject();
+            gen.writeStringField("name", "SimpleTopScoreDocCollector");
+            gen.writeStringField("reason", "search_top_hits");
+            gen.writeNumberField("time_in_nanos", scale / 4);
+            gen.writeEndObject();
+            gen.writeEndArray();
+            gen.writeEndObject();
+            gen.writeEndArray();
+            gen.writeArrayFieldStart("aggregations");
+            if (aggs) {
+                gen.writeStartObject();
+                gen.writeStringField("type", "GlobalOrdinalsStringTermsAggregator");
+                gen.writeStringField("description", "by_host");
+                gen.writeNumberField("time_in_nanos", scale * 2);
+                gen.writeObjectFieldStart("breakdown");
+                gen.writeNumberField("collect", scale * 3 / 2);
+                gen.writeNumberField("collect_count", size);
+                gen.writeNumberField("build_aggregation", scale / 2);
+                gen.writeNumberField("build_aggregation_count", 1);
+                gen.writeEndObject();
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeObjectFieldStart("fetch");
+            gen.writeStringField("type", "fetch");
+            gen.writeStringField("description", "");
+            gen.writeNumberField("time_in_nanos", 20_000 + size * 200L);
+            gen.writeArrayFieldStart("children");
+            gen.writeStartObject();
+            gen.writeStringField("type", "FetchSourcePhase");
+            gen.writeStringField("description", "");
+            gen.writeNumberField("time_in_nanos", 10_000 + size * 100L);
+            gen.writeEndObject();
+            gen.writeEndArray();
+            gen.writeEndObject();
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    private void writeQueryNode(JsonGenerator gen, String type, String description, long nanos) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("type", type);
+        gen.writeStringField("description", description);
+        gen.writeNumberField("time_in_nanos", nanos);
+        writeBreakdown(gen, nanos);
+        gen.writeEndObject();
+    }
+
+    private void writeBreakdown(JsonGenerator gen, long nanos) throws IOException {
+        gen.writeObjectFieldStart("breakdown");
+        gen.writeNumberField("create_weight", nanos / 10);
+        gen.writeNumberField("create_weight_count", 1);
+        gen.writeNumberField("build_scorer", nanos / 5);
+        gen.writeNumberField("build_scorer_count", 4);
+        gen.writeNumberField("next_doc", nanos / 2);
+        gen.writeNumberField("next_doc_count", 100);
+        gen.writeNumberField("score", nanos - nanos / 10 - nanos / 5 - nanos / 2);
+        gen.writeNumberField("score_count", 100);
+        gen.writeEndObject();
+    }
+
+    private void writeRoot(JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("name", cluster.getNodes().isEmpty() ? "stand-in" : cluster.getNodes().get(0).name);
+        gen.writeStringField("cluster_name", "stand-in");
+        gen.writeObjectFieldStart("version");
+        gen.writeStringField("number", "8.18.0");
+        gen.writeEndObject();
+        gen.writeEndObject();
+    }
+
+    private void writeHealth(JsonGenerator gen) throws IOException {
+        int activeShards = 0;
+        int activePrimary = 0;
+        int unassigned = 0;
+        boolean yellow = false;
+        for (SyntheticCluster.Index index : cluster.getIndices()) {
+            activePrimary += index.primaries;
+            activeShards += index.primaries * (1 + index.replicas);
+            if ("yellow".equals(index.health)) {
+                yellow = true;
+                unassigned += index.primaries;
+                activeShards -= index.primaries;
+            }
+        }
+        gen.writeStartObject();
+        gen.writeStringField("status", yellow ? "yellow" : "green");
+        gen.writeNumberField("number_of_nodes", cluster.getNodes().size());
+        gen.writeNumberField("active_primary_shards", activePrimary);
+        gen.writeNumberField("active_shards", activeShards);
+        gen.writeNumberField("relocating_shards", 0);
+        gen.writeNumberField("initializing_shards", 0);
+        gen.writeNumberField("unassigned_shards", unassigned);
+        gen.writeEndObject();
+    }
+
+    private void writeClusterStats(JsonGenerator gen) throws IOException {
+        long docs = 0;
+        for (SyntheticCluster.Index index : cluster.getIndices()) {
+            docs += indexDocs(index);
+        }
+        long heapUsed = 0;
+        long heapMax = 0;
+        for (SyntheticCluster.Node node : cluster.getNodes()) {
+            heapMax += node.heapMax;
+            heapUsed += (long) (node.heapMax * heapPercent(node) / 100);
+        }
+        gen.writeStartObject();
+        gen.writeObjectFieldStart("indices");
+        gen.writeNumberField("count", cluster.getIndices().size());
+        gen.writeObjectFieldStart("docs");
+        gen.writeNumberField("count", docs);
+        gen.writeEndObject();
+        gen.writeObjectFieldStart("store");
+        gen.writeNumberField("size_in_bytes", docs * 512);
+        gen.writeEndObject();
+        gen.writeEndObject();
+        gen.writeObjectFieldStart("nodes");
+        gen.writeArrayFieldStart("versions");
+        gen.writeString("8.18.0");
+        gen.writeEndArray();
+        gen.writeObjectFieldStart("jvm");
+        gen.writeNumberField("max_uptime_in_millis", cluster.uptimeMillis());
+        gen.writeObjectFieldStart("mem");
+        gen.writeNumberField("heap_used_in_bytes", heapUsed);
+        gen.writeNumberField("heap_max_in_bytes", heapMax);
+        gen.writeEndObject();
+        gen.writeEndObject();
+        gen.writeEndObject();
+        gen.writeEndObject();
+    }
+
+    /**
+     * /_nodes/stats/{metrics} 或 /_nodes/{nodeId}/stats/{metrics}
+     */
+    private void writeNodeStats(JsonGenerator gen, String path) throws IOException {
+        String[] parts = path.split("/");
+        String nodeFilter = null;
+        String metrics = ALL_NODE_METRICS;
+        for (int i = 0; i < parts.length; i++) {
+            if ("stats".equals(parts[i])) {
+                if (i > 2) {
+                    nodeFilter = parts[i - 1];
+                }
+                if (i + 1 < parts.length) {
+                    metrics = parts[i + 1];
+                }
+            }
+        }
+        Set<String> sections = new HashSet<>(Arrays.asList(metrics.split(",")));
+        double elapsed = cluster.elapsedSeconds();
+
+        gen.writeStartObject();
+        gen.writeStringField("cluster_name", "stand-in");
+        gen.writeObjectFieldStart("nodes");
+        int phase = 0;
+        for (SyntheticCluster.Node node : cluster.getNodes()) {
+            phase++;
+            if (nodeFilter != null && !nodeFilter.equals(node.id) && !nodeFilter.equals(node.name)
+                    && !"_all".equals(nodeFilter)) {
+                continue;
+            }
+            gen.writeObjectFieldStart(node.id);
+            gen.writeNumberField("timestamp", System.currentTimeMillis());
+            gen.writeStringField("name", node.name);
+            gen.writeStringField("transport_address", node.ip + ":9300");
+            gen.writeStringField("host", node.ip);
+            gen.writeStringField("ip", node.ip);
+            gen.writeArrayFieldStart("roles");
+            if (node.master) {
+                gen.writeString("master");
+            }
+            gen.writeString("data");
+            gen.writeString("ingest");
+            gen.writeEndArray();
+
+            if (sections.contains("jvm")) {
+                double heap = heapPercent(node);
+                gen.writeObjectFieldStart("jvm");
+                gen.writeNumberField("uptime_in_millis", cluster.uptimeMillis());
+                gen.writeObjectFieldStart("mem");
+                gen.writeNumberField("heap_used_percent", (int) heap);
+                gen.writeNumberField("heap_used_in_bytes", (long) (node.heapMax * heap / 100));
+                gen.writeNumberField("heap_max_in_bytes", node.heapMax);
+                gen.writeNumberField("heap_committed_in_bytes", node.heapMax);
+                gen.writeEndObject();
+                gen.writeObjectFieldStart("threads");
+                gen.writeNumberField("count", 120);
+                gen.writeNumberField("peak_count", 150);
+                gen.writeEndObject();
+                gen.writeObjectFieldStart("gc");
+                gen.writeObjectFieldStart("collectors");
+                writeCollector(gen, "young", (long) (elapsed * 2), (long) (elapsed * 25));
+                writeCollector(gen, "old", (long) (elapsed / 600), (long) (elapsed / 4));
+                gen.writeEndObject();
+                gen.writeEndObject();
+                gen.writeEndObject();
+            }
+            if (sections.contains("os")) {
+                gen.writeObjectFieldStart("os");
+                gen.writeNumberField("timestamp", System.currentTimeMillis());
+                gen.writeObjectFieldStart("cpu");
+                gen.writeNumberField("percent", (int) Math.max(0, cluster.wave(node.baseCpu, 10, phase)));
+                gen.writeObjectFieldStart("load_average");
+                gen.writeNumberField("1m", Math.max(0, cluster.wave(node.baseCpu / 10.0, 1, phase)));
+                gen.writeNumberField("5m", node.baseCpu / 10.0);
+                gen.writeNumberField("15m", node.baseCpu / 10.0);
+                gen.writeEndObject();
+                gen.writeEndObject();
+                gen.writeObjectFieldStart("mem");
+                gen.writeNumberField("total_in_bytes", 64L << 30);
+                gen.writeNumberField("used_in_bytes", 48L << 30);
+                gen.writeNumberField("free_in_bytes", 16L << 30);
+                gen.writeNumberField("used_percent", 75);
+                gen.writeNumberField("free_percent", 25);
+                gen.writeEndObject();
+                gen.writeEndObject();
+            }
+            if (sections.contains("fs")) {
+                // 磁盘可用空间随写入缓慢下降
+                long free = Math.max(0, node.baseFree - (long) (elapsed * node.indexPerSec * 512));
+                gen.writeObjectFieldStart("fs");
+                gen.writeNumberField("timestamp", System.currentTimeMillis());
+                gen.writeObjectFieldStart("total");
+                gen.writeNumberField("total_in_bytes", node.fsTotal);
+                gen.writeNumberField("free_in_bytes", free);
+                gen.writeNumberField("available_in_bytes", free);
+                gen.writeEndObject();
+                gen.writeEndObject();
+            }
+            if (sections.contains("indices")) {
+                long queryTotal = (long) (elapsed * node.searchPerSec) + 1_000_000;
+                long indexTotal = (long) (elapsed * node.indexPerSec) + 5_000_000;
+                gen.writeObjectFieldStart("indices");
+                gen.writeObjectFieldStart("docs");
+                gen.writeNumberField("count", indexTotal);
+                gen.writeNumberField("deleted", indexTotal / 100);
+                gen.writeEndObject();
+                gen.writeObjectFieldStart("store");
+                gen.writeNumberField("size_in_bytes", indexTotal * 512);
+                gen.writeEndObject();
+                gen.writeObjectFieldStart("indexing");
+                gen.writeNumberField("index_total", indexTotal);
+                gen.writeNumberField("index_time_in_millis", indexTotal / 4);
+                gen.writeNumberField("index_current", 2);
+                gen.writeNumberField("index_failed", 0);
+                gen.writeEndObject();
+                gen.writeObjectFieldStart("search");
+                gen.writeNumberField("open_contexts", 1);
+                gen.writeNumberField("query_total", queryTotal);
+                gen.writeNumberField("query_time_in_millis", queryTotal * 3);
+                gen.writeNumberField("query_current", 1);
+                gen.writeNumberField("fetch_total", queryTotal);
+                gen.writeNumberField("fetch_time_in_millis", queryTotal / 2);
+                gen.writeNumberField("fetch_current", 0);
+                gen.writeEndObject();
+                gen.writeObjectFieldStart("segments");
+                gen.writeNumberField("count", 200 + (long) cluster.wave(50, 20, phase));
+                gen.writeNumberField("memory_in_bytes", 1L << 20);
+                gen.writeEndObject();
+                gen.writeEndObject();
+            }
+            if (sections.contains("thread_pool")) {
+                gen.writeObjectFieldStart("thread_pool");
+                int poolIndex = 0;
+                for (String pool : SyntheticCluster.threadPools()) {
+                    poolIndex++;
+                    // 写入线程池在部分节点上周期性出现拒绝
+                    long rejected = "write".equals(pool) && phase % 3 == 0 ? (long) (elapsed / 10) : 0;
+                    gen.writeObjectFieldStart(pool);
+                    gen.writeNumberField("threads", 8);
+                    gen.writeNumberField("queue", (int) Math.max(0, cluster.wave(poolIndex, 3, phase)));
+                    gen.writeNumberField("active", 2);
+                    gen.writeNumberField("rejected", rejected);
+                    gen.writeNumberField("largest", 8);
+                    gen.writeNumberField("completed", (long) (elapsed * node.searchPerSec));
+                    gen.writeEndObject();
+                }
+                gen.writeEndObject();
+            }
+            if (sections.contains("breaker")) {
+                gen.writeObjectFieldStart("breakers");
+                for (String breaker : SyntheticCluster.breakers()) {
+                    gen.writeObjectFieldStart(breaker);
+                    gen.writeNumberField("limit_size_in_bytes", node.heapMax * 95 / 100);
+                    gen.writeStringField("limit_size", (node.heapMax * 95 / 100 >> 30) + "gb");
+                    gen.writeNumberField("estimated_size_in_bytes", node.heapMax / 10);
+                    gen.writeStringField("estimated_size", (node.heapMax / 10 >> 20) + "mb");
+                    gen.writeNumberField("overhead", 1.0);
+                    gen.writeNumberField("tripped", "parent".equals(breaker) ? (long) (elapsed / 300) : 0);
+                    gen.writeEndObject();
+                }
+                gen.writeEndObject();
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndObject();
+        gen.writeEndObject();
+    }
+
+    private void writeCollector(JsonGenerator gen, String name, long count, long timeMs) throws IOException {
+        gen.writeObjectFieldStart(name);
+        gen.writeNumberField("collection_count", count);
+        gen.writeNumberField("collection_time_in_millis", timeMs);
+        gen.writeEndObject();
+    }
+
+    private void writeCatIndices(JsonGenerator gen, String name, boolean includeSystem) throws IOException {
+        double elapsed = cluster.elapsedSeconds();
+        gen.writeStartArray();
+        for (SyntheticCluster.Index index : cluster.getIndices()) {
+            if (name != null && !matches(name, index.name)) {
+                continue;
+            }
+            if (name == null && !includeSystem && index.name.startsWith(".")) {
+                continue;
+            }
+            long docs = indexDocs(index);
+            gen.writeStartObject();
+            gen.writeStringField("index", index.name);
+            gen.writeStringField("health", index.health);
+            gen.writeStringField("status", "open");
+            gen.writeStringField("pri", String.valueOf(index.primaries));
+            gen.writeStringField("rep", String.valueOf(index.replicas));
+            gen.writeStringField("docs.count", String.valueOf(docs));
+            gen.writeStringField("store.size", String.valueOf(docs * 512 * (1 + index.replicas)));
+            gen.writeStringField("pri.store.size", String.valueOf(docs * 512));
+            gen.writeStringField("search.query_total", String.valueOf((long) (elapsed * index.searchPerSec)));
+            gen.writeStringField("indexing.index_total", String.valueOf(docs));
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+
+    private void writeCatShards(JsonGenerator gen, String name) throws IOException {
+        List<SyntheticCluster.Node> nodes = cluster.getNodes();
+        gen.writeStartArray();
+        for (SyntheticCluster.Index index : cluster.getIndices()) {
+            if (!matches(name, index.name)) {
+                continue;
+            }
+            for (int shard = 0; shard < index.primaries; shard++) {
+                for (int copy = 0; copy <= index.replicas; copy++) {
+                    boolean unassigned = copy > 0 && "yellow".equals(index.health);
+                    gen.writeStartObject();
+                    gen.writeStringField("index", index.name);
+                    gen.writeStringField("shard", String.valueOf(shard));
+                    gen.writeStringField("prirep", copy == 0 ? "p" : "r");
+                    gen.writeStringField("state", unassigned ? "UNASSIGNED" : "STARTED");
+                    if (unassigned || nodes.isEmpty()) {
+                        gen.writeNullField("node");
+                    } else {
+                        gen.writeStringField("node", nodes.get((shard + copy) % nodes.size()).name);
+                    }
+                    gen.writeEndObject();
+                }
+            }
+        }
+        gen.writeEndArray();
+    }
+
+    private SyntheticCluster.Index findIndex(String name) {
+        for (SyntheticCluster.Index index : cluster.getIndices()) {
+            if (index.name.equals(name)) {
+                return index;
+            }
+        }
+        return null;
+    }
+
+    private void writeCount(JsonGenerator gen, String target) throws IOException {
+        long count = 0;
+        for (String name : target.split(",")) {
+            SyntheticCluster.Index index = findIndex(name);
+            if (index != null) {
+                count += indexDocs(index);
+            }
+        }
+        gen.writeStartObject();
+        gen.writeNumberField("count", count);
+        gen.writeEndObject();
+    }
+
+    /**
+     * _analyze：按分析器或分词器名称做简化分词（standard、simple、whitespace、keyword、letter、ik_max_word、ik_smart），
+     * 支持 lowercase、uppercase、stop 过滤器；未知分析器返回 400
+     */
+    private int writeAnalyze(JsonGenerator gen, HttpExchange exchange) throws IOException {
+        String analyzer = null;
+        String tokenizer = null;
+        String text = "";
+        List<String> filters = new ArrayList<>();
+        try (JsonParser parser = jsonFactory.createParser(exchange.getRequestBody())) {
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken token = parser.nextToken();
+                    if ("analyzer".equals(field)) {
+                        analyzer = parser.getValueAsString();
+                    } else if ("tokenizer".equals(field)) {
+                        tokenizer = componentName(parser);
+                    } else if ("filter".equals(field) && token == JsonToken.START_ARRAY) {
+                        while (parser.nextToken() != JsonToken.END_ARRAY) {
+                            filters.add(componentName(parser));
+                        }
+                    } else if ("text".equals(field) && token == JsonToken.VALUE_STRING) {
+                        text = parser.getText();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+        if (analyzer != null) {
+            tokenizer = analyzer;
+            if (Set.of("standard", "simple", "stop").contains(analyzer)) {
+                filters.add("lowercase");
+            }
+            if ("stop".equals(analyzer)) {
+                filters.add("stop");
+            }
+        }
+        String name = tokenizer != null ? tokenizer : "standard";
+        if (!Set.of("standard", "simple", "stop", "whitespace", "keyword", "letter", "ik_max_word", "ik_smart")
+                .contains(name)) {
+            gen.writeStartObject();
+            gen.writeObjectFieldStart("error");
+            gen.writeStringField("type", "illegal_argument_exception");
+            gen.writeStringField("reason", "failed to find global " + (analyzer != null ? "analyzer" : "tokenizer")
+                    + " under [" + name + "]");
+            gen.writeEndObject();
+            gen.writeNumberField("status", 400);
+            gen.writeEndObject();
+            return 400;
+        }
+
+        Pattern pattern = switch (name) {
+            case "whitespace" -> Pattern.compile("\\S+");
+            case "keyword" -> Pattern.compile("(?s).+");
+            case "simple", "stop", "letter" -> Pattern.compile("\\p{L}+");
+            default -> Pattern.compile("[\\p{IsAlphabetic}\\p{Nd}&&[^\\p{IsHan}]]+|\\p{IsHan}+");
+        };
+        gen.writeStartObject();
+        gen.writeArrayFieldStart("tokens");
+        Matcher matcher = pattern.matcher(text);
+        int position = 0;
+        while (matcher.find()) {
+            String run = matcher.group();
+            boolean han = (name.startsWith("ik_") || "standard".equals(name))
+                    && Character.UnicodeScript.of(run.codePointAt(0)) == Character.UnicodeScript.HAN;
+            if (!han) {
+                position = writeToken(gen, run, matcher.start(), "standard".equals(name) ? "<ALPHANUM>"
+                        : name.startsWith("ik_") ? "ENGLISH" : "word", position, filters);
+            } else if ("standard".equals(name) || run.length() == 1) {
+                for (int i = 0; i < run.length(); i++) {
+                    position = writeToken(gen, run.substring(i, i + 1), matcher.start() + i,
+                            "standard".equals(name) ? "<IDEOGRAPHIC>" : "CN_CHAR", position, filters);
+                }
+            } else {
+                // ik_max_word 输出重叠的二字词，ik_smart 输出不重叠的二字词
+                int step = "ik_max_word".equals(name) ? 1 : 2;
+                for (int i = 0; i < run.length(); i += step) {
+                    int end = Math.min(run.length(), i + 2);
+                    if (end - i < 2 && step == 1) {
+                        break;
+                    }
+                    position = writeToken(gen, run.substring(i, end), matcher.start() + i,
+                            end - i == 2 ? "CN_WORD" : "CN_CHAR", position, filters);
+                }
+            }
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+        return 200;
+    }
+
+    private int writeToken(JsonGenerator gen, String token, int start, String type, int position,
+                           List<String> filters) throws IOException {
+        int end = start + token.length();
+        for (String filter : filters) {
+            if ("lowercase".equals(filter)) {
+                token = token.toLowerCase(Locale.ROOT);
+            } else if ("uppercase".equals(filter)) {
+                token = token.toUpperCase(Locale.ROOT);
+            } else if ("stop".equals(filter) && STOP_WORDS.contains(token.toLowerCase(Locale.ROOT))) {
+                return position + 1;
+            }
+        }
+        gen.writeStartObject();
+        gen.writeStringField("token", token);
+        gen.writeNumberField("start_offset", start);
+        gen.writeNumberField("end_offset", end);
+        gen.writeStringField("type", type);
+        gen.writeNumberField("position", position);
+        gen.writeEndObject();
+        return position + 1;
+    }
+
+    /**
+     * 分词器或过滤器：名称字符串，或带 type 的内联定义
+     */
+    private static String componentName(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return parser.getValueAsString();
+        }
+        String type = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("type".equals(field)) {
+                type = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return type;
+    }
+
+    private boolean isAsyncByQuery(HttpExchange exchange, String path, String query) {
+        return "POST".equals(exchange.getRequestMethod()) && query != null
+                && query.contains("wait_for_completion=false")
+                && (path.startsWith("/_reindex") || path.endsWith("/_update_by_query")
+                || path.endsWith("/_delete_by_query"));
+    }
+
+    /**
+     * 以 wait_for_completion=false 提交 reindex / by_query，返回任务 ID，进度按固定速度推进
+     */
+    private void writeSubmitTask(JsonGenerator gen, HttpExchange exchange, String path) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        SimulatedTask task = new SimulatedTask();
+        String node = cluster.getNodes().isEmpty() ? "stand-in" : cluster.getNodes().get(0).id;
+        task.id = node + ":" + taskSequence.incrementAndGet();
+        task.action = path.startsWith("/_reindex") ? "indices:data/write/reindex"
+                : path.endsWith("/_update_by_query") ? "indices:data/write/update/byquery"
+                : "indices:data/write/delete/byquery";
+        task.description = path;
+        task.startMs = System.currentTimeMillis();
+        long docs = 0;
+        for (SyntheticCluster.Index index : cluster.getIndices()) {
+            if (path.startsWith("/" + index.name + "/")) {
+                docs = indexDocs(index);
+            }
+        }
+        task.total = docs > 0 ? Math.min(docs, TASK_MAX_DOCS) : TASK_MAX_DOCS;
+        tasks.put(task.id, task);
+        gen.writeStartObject();
+        gen.writeStringField("task", task.id);
+        gen.writeEndObject();
+    }
+
+    /**
+     * _tasks 列表（group_by=none）、单个任务结果与取消
+     */
+    private int writeTasks(JsonGenerator gen, HttpExchange exchange, String path) throws IOException {
+        long now = System.currentTimeMillis();
+        if (path.equals("/_tasks")) {
+            gen.writeStartObject();
+            gen.writeArrayFieldStart("tasks");
+            for (SimulatedTask task : tasks.values()) {
+                if (!task.isDone(now)) {
+                    writeTaskInfo(gen, task, now);
+                }
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+            return 200;
+        }
+        String rest = path.substring("/_tasks/".length());
+        boolean cancel = rest.endsWith("/_cancel");
+        SimulatedTask task = tasks.get(cancel ? rest.substring(0, rest.length() - "/_cancel".length()) : rest);
+        if (task == null) {
+            gen.writeStartObject();
+            gen.writeObjectFieldStart("error");
+            gen.writeStringField("type", "resource_not_found_exception");
+            gen.writeStringField("reason", "task [" + rest + "] isn't running and hasn't stored its results");
+            gen.writeEndObject();
+            gen.writeNumberField("status", 404);
+            gen.writeEndObject();
+            return 404;
+        }
+        if (cancel) {
+            if (!task.isDone(now)) {
+                task.cancelledAt = now;
+            }
+            gen.writeStartObject();
+            gen.writeObjectFieldStart("nodes");
+            gen.writeEndObject();
+            gen.writeEndObject();
+            return 200;
+        }
+        boolean done = task.isDone(now);
+        gen.writeStartObject();
+        gen.writeBooleanField("completed", done);
+        gen.writeFieldName("task");
+        writeTaskInfo(gen, task, now);
+        if (done) {
+            gen.writeObjectFieldStart("response");
+            gen.writeNumberField("took", task.elapsed(now));
+            gen.writeNumberField("total", task.total);
+            gen.writeNumberField("created", task.processed(now));
+            gen.writeNumberField("updated", 0);
+            gen.writeNumberField("deleted", 0);
+            if (task.cancelledAt > 0) {
+                gen.writeStringField("canceled", "by user request");
+            }
+            gen.writeArrayFieldStart("failures");
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+        gen.writeEndObject();
+        return 200;
+    }
+
+    private void writeTaskInfo(JsonGenerator gen, SimulatedTask task, long now) throws IOException {
+        int colon = task.id.indexOf(':');
+        gen.writeStartObject();
+        gen.writeStringField("node", task.id.substring(0, colon));
+        gen.writeNumberField("id", Long.parseLong(task.id.substring(colon + 1)));
+        gen.writeStringField("type", "transport");
+        gen.writeStringField("action", task.action);
+        gen.writeStringField("description", task.description);
+        gen.writeObjectFieldStart("status");
+        gen.writeNumberField("total", task.total);
+        gen.writeNumberField("updated", 0);
+        gen.writeNumberField("created", task.processed(now));
+        gen.writeNumberField("deleted", 0);
+        gen.writeNumberField("batches", task.processed(now) / 1000 + 1);
+        gen.writeNumberField("version_conflicts", 0);
+        gen.writeNumberField("noops", 0);
+        gen.writeEndObject();
+        gen.writeNumberField("start_time_in_millis", task.startMs);
+        gen.writeNumberField("running_time_in_nanos", task.elapsed(now) * 1_000_000);
+        gen.writeBooleanField("cancellable", true);
+        gen.writeEndObject();
+    }
+
+    /**
+     * 每个进行中的写操作对应一个待处理的集群状态更新任务
+     */
+    private void writePendingTasks(JsonGenerator gen) throws IOException {
+        int pending = inflightWrites.get();
+        gen.writeStartObject();
+        gen.writeArrayFieldStart("tasks");
+        for (int i = 0; i < pending; i++) {
+            gen.writeStartObject();
+            gen.writeNumberField("insert_order", i);
+            gen.writeStringField("priority", "URGENT");
+            gen.writeStringField("source", "stand-in-write");
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    private void writeIndexConfig(JsonGenerator gen, SyntheticCluster.Index index) throws IOException {
+        gen.writeStartObject();
+        gen.writeObjectFieldStart(index.name);
+        gen.writeObjectFieldStart("aliases");
+        gen.writeEndObject();
+        gen.writeObjectFieldStart("mappings");
+        gen.writeObjectFieldStart("properties");
+        gen.writeObjectFieldStart("@timestamp");
+        gen.writeStringField("type", "date");
+        gen.writeEndObject();
+        gen.writeObjectFieldStart("message");
+        gen.writeStringField("type", "text");
+        gen.writeEndObject();
+        gen.writeEndObject();
+        gen.writeEndObject();
+        gen.writeObjectFieldStart("settings");
+        gen.writeObjectFieldStart("index");
+        gen.writeStringField("number_of_shards", String.valueOf(index.primaries));
+        gen.writeStringField("number_of_replicas", String.valueOf(index.replicas));
+        gen.writeEndObject();
+        gen.writeEndObject();
+        gen.writeEndObject();
+        gen.writeEndObject();
+    }
+
+    /**
+     * 建索引、改设置、别名、reindex、快照等写操作，按配置模拟耗时后确认成功，不改变合成集群
+     */
+    private void writeAdminOperation(JsonGenerator gen, HttpExchange exchange, String path) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        long latency = standInConfig.getElasticsearch().getWriteLatencyMs();
+        inflightWrites.incrementAndGet();
+        try {
+            if (latency > 0) {
+                Thread.sleep(latency);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inflightWrites.decrementAndGet();
+        }
+        gen.writeStartObject();
+        if (path.startsWith("/_reindex")) {
+            gen.writeNumberField("took", latency);
+            gen.writeNumberField("total", 0);
+            gen.writeNumberField("created", 0);
+            gen.writeArrayFieldStart("failures");
+            gen.writeEndArray();
+        } else if (path.startsWith("/_snapshot")) {
+            gen.writeBooleanField("accepted", true);
+        } else {
+            gen.writeBooleanField("acknowledged", true);
+        }
+        gen.writeEndObject();
+    }
+
+    private long indexDocs(SyntheticCluster.Index index) {
+        return index.baseDocs + (long) (cluster.elapsedSeconds() * index.docsPerSec);
+    }
+
+    private double heapPercent(SyntheticCluster.Node node) {
+        // 堆内存呈锯齿形：缓慢上涨后被 GC 回收
+        double cycle = (cluster.elapsedSeconds() % 300) / 300.0;
+        return Math.min(99, node.baseHeap + 25 * cycle);
+    }
+
+    /**
+     * 支持逗号分隔与 * 通配的索引名匹配
+     */
+    private boolean matches(String pattern, String name) {
+        for (String part : pattern.split(",")) {
+            String regex = part.replace(".", "\\.").replace("*", ".*");
+            if (name.matches(regex)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 模拟的长时间运行任务，已处理文档数随时间线性增长
+     */
+    private static class SimulatedTask {
+        String id;
+        String action;
+        String description;
+        long total;
+        long startMs;
+        volatile long cancelledAt;
+
+        long elapsed(long now) {
+            return (cancelledAt > 0 ? cancelledAt : now) - startMs;
+        }
+
+        long processed(long now) {
+            return Math.min(total, (long) (elapsed(now) * TASK_DOCS_PER_SEC / 1000));
+        }
+
+        boolean isDone(long now) {
+            return cancelledAt > 0 || processed(now) >= total;
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.esmanage.standin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Random;
+
+/**
+ * Kibana 替身的回放数据
+ * 无录制数据时按 Kibana Monitoring API 的响应结构从合成集群生成；
+ * 录制数据可按目标节点数、索引数复制扩充（或截断），复制出的条目改写名称与 ID，指标值小幅扰动
+ */
+public class KibanaFixtures {
+
+    public static final String CLUSTER_NAME = "stand-in";
+
+    private static final String[] CLUSTER_METRICS = {
+            "cluster_search_request_rate", "cluster_query_latency",
+            "cluster_index_request_rate", "cluster_index_latency"
+    };
+
+    private static final String[] NODE_LIST_METRICS = {
+            "node_cgroup_throttled", "node_cpu_utilization", "node_load_average",
+            "node_jvm_mem_percent", "node_free_space"
+    };
+
+    private static final String[] NODE_DETAIL_METRICS = {
+            "node_cpu_utilization", "node_jvm_mem", "node_load_average", "node_latency",
+            "node_index_mem", "node_total_io", "node_segment_count"
+    };
+
+    private static final String[] INDEX_DETAIL_METRICS = {
+            "index_search_request_rate", "index_request_rate", "index_latency",
+            "index_document_count", "index_segment_count", "index_mem"
+    };
+
+    private static final long BUCKET_MS = 60_000;
+
+    private final ObjectMapper objectMapper;
+    private final String clusterId;
+    private final SyntheticCluster cluster;
+    private final int seriesPoints;
+    private final Random random = new Random(7);
+
+    public KibanaFixtures(ObjectMapper objectMapper, String clusterId, SyntheticCluster cluster, int seriesPoints) {
+        this.objectMapper = objectMapper;
+        this.clusterId = clusterId;
+        this.cluster = cluster;
+        this.seriesPoints = seriesPoints;
+    }
+
+    /**
+     * 生成指定接口的响应
+     *
+     * @param route clusters, cluster-overview, nodes, node-detail, indices, index-detail
+     */
+    public ObjectNode generate(String route) {
+        switch (route) {
+            case "clusters":
+                return clusters();
+            case "cluster-overview":
+                return clusterOverview();
+            case "nodes":
+                return nodes();
+            case "node-detail":
+                return nodeDetail();
+            case "indices":
+                return indices();
+            case "index-detail":
+                return indexDetail();
+            default:
+                throw new IllegalArgumentException("Unknown route: " + route);
+        }
+    }
+
+    /**
+     * 集群列表接口返回数组，包装为 {"clusters": [...]} 以便统一按数组字段处理
+     */
+    private ObjectNode clusters() {
+        ObjectNode root = objectMapper.createObjectNode();
+        ObjectNode entry = root.putArray("clusters").addObject();
+        entry.put("cluster_uuid", clusterId);
+        entry.put("cluster_name", CLUSTER_NAME);
+        entry.put("version", "8.11.3");
+        entry.put("status", "green");
+        return root;
+    }
+
+    private ObjectNode clusterOverview() {
+        ObjectNode root = objectMapper.createObjectNode();
+        writeClusterStatus(root);
+        ObjectNode metrics = root.putObject("metrics");
+        for (String metric : CLUSTER_METRICS) {
+            metrics.putArray(metric).add(series(metric, 20 + random.nextInt(200)));
+        }
+        ObjectNode logs = root.putObject("logs");
+        logs.put("enabled", false);
+        logs.putArray("logs");
+        logs.put("limit", 10);
+        root.putArray("shardActivity");
+        return root;
+    }
+
+    private ObjectNode nodes() {
+        ObjectNode root = objectMapper.createObjectNode();
+        writeClusterStatus(root);
+        ArrayNode nodes = root.putArray("nodes");
+        for (SyntheticCluster.Node node : cluster.getNodes()) {
+            ObjectNode entry = nodes.addObject();
+            entry.put("name", node.name);
+            entry.put("uuid", node.id);
+            entry.put("isOnline", true);
+            entry.put("shardCount", node.master ? 0 : 100 + random.nextInt(100));
+            entry.put("transport_address", node.ip + ":9300");
+            entry.put("type", node.master ? "master" : "node");
+            entry.put("nodeTypeLabel", node.master ? "Master Node" : "Node");
+            entry.put("nodeTypeClass", node.master ? "starFilled" : "empty");
+            ArrayNode roles = entry.putArray("roles");
+            if (node.master) {
+                roles.add("master");
+            }
+            roles.add("data");
+            roles.add("ingest");
+            entry.put("resolver", node.name);
+            for (String metric : NODE_LIST_METRICS) {
+                double base = metric.equals("node_free_space") ? node.baseFree
+                        : metric.equals("node_cpu_utilization") ? node.baseCpu
+                        : metric.equals("node_jvm_mem_percent") ? node.baseHeap
+                        : random.nextDouble() * 10;
+                ObjectNode value = entry.putObject(metric);
+                value.set("metric", metricInfo(metric));
+                ObjectNode summary = value.putObject("summary");
+                summary.put("minVal", base * 0.8);
+                summary.put("maxVal", base * 1.2);
+                summary.put("lastVal", base);
+                summary.put("slope", random.nextInt(3) - 1);
+            }
+        }
+        root.put("totalNodeCount", cluster.getNodes().size());
+        return root;
+    }
+
+    private ObjectNode nodeDetail() {
+        SyntheticCluster.Node node = cluster.getNodes().get(0);
+        ObjectNode root = objectMapper.createObjectNode();
+        ObjectNode summary = root.putObject("nodeSummary");
+        summary.put("resolver", node.name);
+        summary.putArray("node_ids").add(node.id);
+        summary.put("transport_address", node.ip + ":9300");
+        summary.put("name", node.name);
+        summary.put("type", "node");
+        summary.put("nodeTypeLabel", "Node");
+        summary.put("nodeTypeClass", "empty");
+        summary.put("totalShards", 150);
+        summary.put("indexCount", cluster.getIndices().size());
+        summary.put("documents", 123_456_789L);
+        summary.put("dataSize", 456_789_012_345L);
+        summary.put("freeSpace", node.baseFree);
+        summary.put("totalSpace", node.fsTotal);
+        summary.put("usedHeap", node.baseHeap);
+        summary.put("status", "Online");
+        summary.put("isOnline", true);
+        ObjectNode metrics = root.putObject("metrics");
+        for (String metric : NODE_DETAIL_METRICS) {
+            metrics.putArray(metric).add(series(metric, 10 + random.nextInt(60)));
+        }
+        return root;
+    }
+
+    private ObjectNode indices() {
+        ObjectNode root = objectMapper.createObjectNode();
+        writeClusterStatus(root);
+        ArrayNode indices = root.putArray("indices");
+        for (SyntheticCluster.Index index : cluster.getIndices()) {
+            ObjectNode entry = indices.addObject();
+            entry.put("name", index.name);
+            entry.put("status", index.health);
+            entry.put("doc_count", index.baseDocs);
+            entry.put("data_size", index.baseDocs * 600);
+            entry.put("index_rate", (double) index.docsPerSec);
+            entry.put("search_rate", (double) index.searchPerSec);
+            entry.put("unassigned_shards", "yellow".equals(index.health) ? index.primaries * index.replicas : 0);
+            entry.put("status_sort", "yellow".equals(index.health) ? 2 : 1);
+        }
+        return root;
+    }
+
+    private ObjectNode indexDetail() {
+        SyntheticCluster.Index index = cluster.getIndices().get(0);
+        ObjectNode root = objectMapper.createObjectNode();
+        ObjectNode summary = root.putObject("indexSummary");
+        summary.put("name", index.name);
+        summary.put("status", index.health);
+        summary.put("primaries", index.primaries);
+        summary.put("replicas", index.replicas);
+        summary.put("documents", index.baseDocs);
+        ObjectNode dataSize = summary.putObject("dataSize");
+        dataSize.put("primaries", index.baseDocs * 300);
+        dataSize.put("total", index.baseDocs * 300 * (1 + index.replicas));
+        summary.put("unassignedShards", 0);
+        summary.put("totalShards", index.primaries * (1 + index.replicas));
+        ObjectNode metrics = root.putObject("metrics");
+        for (String metric : INDEX_DETAIL_METRICS) {
+            metrics.putArray(metric).add(series(metric, 5 + random.nextInt(100)));
+        }
+        ArrayNode shards = root.putArray("shards");
+        for (int shard = 0; shard < index.primaries; shard++) {
+            for (int copy = 0; copy <= index.replicas; copy++) {
+                ObjectNode entry = shards.addObject();
+                entry.put("index", index.name);
+                entry.put("shard", shard);
+                entry.put("node", cluster.getNodes().get((shard + copy) % cluster.getNodes().size()).id);
+                entry.put("primary", copy == 0);
+                entry.putNull("relocatingNode");
+                entry.put("state", "STARTED");
+            }
+        }
+        return root;
+    }
+
+    private void writeClusterStatus(ObjectNode root) {
+        ObjectNode status = root.putObject("clusterStatus");
+        long docs = 0;
+        int shards = 0;
+        int unassigned = 0;
+        for (SyntheticCluster.Index index : cluster.getIndices()) {
+            docs += index.baseDocs;
+            shards += index.primaries * (1 + index.replicas);
+            if ("yellow".equals(index.health)) {
+                unassigned += index.primaries * index.replicas;
+            }
+        }
+        long heapMax = 0;
+        long heapUsed = 0;
+        for (SyntheticCluster.Node node : cluster.getNodes()) {
+            heapMax += node.heapMax;
+            heapUsed += node.heapMax * node.baseHeap / 100;
+        }
+        status.put("status", unassigned > 0 ? "yellow" : "green");
+        status.put("indicesCount", cluster.getIndices().size());
+        status.put("documentCount", docs);
+        status.put("dataSize", docs * 600);
+        status.put("nodesCount", cluster.getNodes().size());
+        status.put("upTime", cluster.uptimeMillis());
+        status.putArray("version").add("8.11.3");
+        status.put("memUsed", heapUsed);
+        status.put("memMax", heapMax);
+        status.put("unassignedShards", unassigned);
+        status.put("totalShards", shards);
+    }
+
+    private ObjectNode metricInfo(String metric) {
+        ObjectNode info = objectMapper.createObjectNode();
+        info.put("app", "elasticsearch");
+        info.put("field", metric);
+        info.put("metricAgg", "max");
+        info.put("label", metric);
+        info.put("title", metric);
+        info.put("description", metric);
+        info.put("units", "");
+        info.put("format", "0,0.[00]");
+        info.put("hasCalculation", false);
+        info.put("isDerivative", metric.endsWith("_rate"));
+        return info;
+    }
+
+    private ObjectNode series(String metric, double base) {
+        long end = System.currentTimeMillis() / BUCKET_MS * BUCKET_MS;
+        long start = end - BUCKET_MS * (seriesPoints - 1);
+        ObjectNode series = objectMapper.createObjectNode();
+        series.put("bucket_size", "1 min");
+        ObjectNode timeRange = series.putObject("timeRange");
+        timeRange.put("min", start);
+        timeRange.put("max", end);
+        series.set("metric", metricInfo(metric));
+        ArrayNode data = series.putArray("data");
+        double value = base;
+        for (int i = 0; i < seriesPoints; i++) {
+            ArrayNode point = data.addArray();
+            point.add(start + i * BUCKET_MS);
+            if (i == seriesPoints - 1) {
+                // 最新的桶常因数据未到齐而为空
+                point.addNull();
+            } else {
+                value = Math.max(0, value + random.nextGaussian() * base * 0.05);
+                point.add(value);
+            }
+        }
+        return series;
+    }
+
+    /**
+     * 将数组字段复制扩充或截断到目标数量，复制出的条目改写名称字段并扰动数值
+     *
+     * @param field     数组字段，如 nodes, indices
+     * @param target    目标数量
+     * @param nameField 名称字段，复制条目时追加序号
+     * @param idField   ID 字段，可为 null
+     */
+    public void scale(ObjectNode root, String field, int target, String nameField, String idField) {
+        JsonNode array = root.get(field);
+        if (!(array instanceof ArrayNode) || array.isEmpty() || target <= 0) {
+            return;
+        }
+        ArrayNode source = (ArrayNode) array;
+        int recorded = source.size();
+        ArrayNode scaled = objectMapper.createArrayNode();
+        for (int i = 0; i < target; i++) {
+            ObjectNode entry = ((ObjectNode) source.get(i % recorded)).deepCopy();
+            if (i >= recorded) {
+                int copy = i / recorded;
+                entry.put(nameField, entry.path(nameField).asText() + "-" + copy);
+                if (idField != null) {
+                    entry.put(idField, entry.path(idField).asText() + copy);
+                }
+                jitter(entry);
+            }
+            scaled.add(entry);
+        }
+        root.set(field, scaled);
+    }
+
+    /**
+     * 更新响应中集群状态的节点数与索引数
+     */
+    public void updateClusterStatus(ObjectNode root, int nodes, int indices) {
+        JsonNode status = root.get("clusterStatus");
+        if (status instanceof ObjectNode clusterStatus) {
+            if (nodes > 0) {
+                clusterStatus.put("nodesCount", nodes);
+            }
+            if (indices > 0) {
+                clusterStatus.put("indicesCount", indices);
+            }
+        }
+        if (nodes > 0 && root.has("totalNodeCount")) {
+            root.put("totalNodeCount", nodes);
+        }
+    }
+
+    /**
+     * 数值字段（含嵌套对象）在 ±10% 范围内扰动
+     */
+    private void jitter(ObjectNode node) {
+        node.fields().forEachRemaining(entry -> {
+            JsonNode value = entry.getValue();
+            if (value.isFloatingPointNumber()) {
+                node.put(entry.getKey(), value.doubleValue() * (0.9 + random.nextDouble() * 0.2));
+            } else if (value.isObject()) {
+                jitter((ObjectNode) value);
+            }
+        });
+    }
+}
@@ -0,0 +1,428 @@
+package com.esmanage.standin;
+
+import com.esmanage.config.KibanaConfig;
+import com.esmanage.config.StandInConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Kibana Monitoring API 本地替身
+ * 回放模式下按录制数据（或合成数据）响应集群列表、集群概览、节点列表、节点详情、索引列表、索引详情六类接口，
+ * 节点与索引列表按请求的分页与过滤条件切片；可按接口注入延迟分布、错误与卡顿，配合压测驱动做端到端压测。
+ * 录制模式下把请求转发到真实 Kibana，并按接口类别保存最近一次成功响应，供之后回放。
+ * 回放数据在启动时预先序列化，每条节点/索引单独成块，请求时只做切片拼接
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "standin.kibana", name = "enabled", havingValue = "true")
+public class KibanaStandIn {
+
+    private static final String PREFIX = "/api/monitoring/v1/clusters";
+    private static final String[] ROUTES = {
+            "clusters", "cluster-overview", "nodes", "node-detail", "indices", "index-detail"
+    };
+    private static final int DEFAULT_NODES = 5;
+    private static final int DEFAULT_INDICES = 50;
+
+    /** 录制模式下原样转发的请求头 */
+    private static final String[] FORWARDED_HEADERS = {
+            "Authorization", "kbn-version", "kbn-build-number", "x-elastic-internal-origin", "x-kbn-context"
+    };
+
+    private final StandInConfig standInConfig;
+    private final KibanaConfig kibanaConfig;
+    private final ObjectMapper objectMapper;
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private OkHttpClient upstreamClient;
+    private final Map<String, Fixture> fixtures = new ConcurrentHashMap<>();
+
+    /** 各接口的请求数、注入的错误数与卡顿数 */
+    private final Map<String, LongAdder> requests = new ConcurrentHashMap<>();
+    private final LongAdder injectedErrors = new LongAdder();
+    private final LongAdder injectedStalls = new LongAdder();
+
+    /**
+     * 预先序列化的回放数据：数组字段之前的部分、每个数组元素、数组之后的部分
+     */
+    private static final class Fixture {
+        byte[] head;
+        byte[][] items;
+        String[] names;
+        byte[] tail;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        StandInConfig.Kibana config = standInConfig.getKibana();
+        boolean record = "record".equalsIgnoreCase(config.getMode());
+        if (record) {
+            if (config.getUpstreamUrl() == null || config.getUpstreamUrl().isEmpty()) {
+                throw new IllegalStateException("standin.kibana.upstream-url is required in record mode");
+            }
+            upstreamClient = new OkHttpClient.Builder()
+                    .connectTimeout(10, TimeUnit.SECONDS)
+                    .readTimeout(60, TimeUnit.SECONDS)
+                    .build();
+            Files.createDirectories(Paths.get(config.getFixturesDir()));
+        } else {
+            loadFixtures(config);
+        }
+
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", config.getPort()), 0);
+        // 注入的延迟与卡顿会长时间占用线程，按需创建线程，避免替身自身排队掩盖服务端的表现
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "kibana-standin-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        log.info("Kibana stand-in listening on 127.0.0.1:{} (mode: {}, fixtures: {})",
+                getPort(), record ? "record" : "replay", config.getFixturesDir());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 实际监听的端口（配置为 0 时由系统分配）
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * 加载回放数据：优先读取录制文件，缺失的接口使用合成数据；随后按配置扩充节点与索引
+     */
+    private void loadFixtures(StandInConfig.Kibana config) throws IOException {
+        String clusterId = kibanaConfig.getClusterId() != null ? kibanaConfig.getClusterId() : "stand-in-cluster";
+        SyntheticCluster cluster = new SyntheticCluster(
+                config.getNodes() > 0 ? config.getNodes() : DEFAULT_NODES,
+                config.getIndices() > 0 ? config.getIndices() : DEFAULT_INDICES);
+        KibanaFixtures generator = new KibanaFixtures(objectMapper, clusterId, cluster,
+                Math.max(2, config.getSeriesPoints()));
+
+        List<String> recorded = new ArrayList<>();
+        for (String route : ROUTES) {
+            Path file = Paths.get(config.getFixturesDir(), route + ".json");
+            ObjectNode root;
+            if (Files.isRegularFile(file)) {
+                JsonNode node = objectMapper.readTree(file.toFile());
+                if (node.isArray()) {
+                    root = objectMapper.createObjectNode();
+                    root.set("clusters", node);
+                } else {
+                    root = (ObjectNode) node;
+                }
+                generator.scale(root, "nodes", config.getNodes(), "name", "uuid");
+                generator.scale(root, "indices", config.getIndices(), "name", null);
+                generator.updateClusterStatus(root, config.getNodes(), config.getIndices());
+                recorded.add(route);
+            } else {
+                root = generator.generate(route);
+            }
+            fixtures.put(route, prepare(route, root));
+        }
+        log.info("Kibana stand-in fixtures: recorded {}, nodes {}, indices {}", recorded,
+                fixtures.get("nodes").items.length, fixtures.get("indices").items.length);
+    }
+
+    private Fixture prepare(String route, ObjectNode root) throws IOException {
+        String field = "clusters".equals(route) ? "clusters"
+                : root.has("nodes") && root.get("nodes").isArray() ? "nodes"
+                : root.has("indices") && root.get("indices").isArray() ? "indices"
+                : null;
+        Fixture fixture = new Fixture();
+        if (field == null) {
+            fixture.head = objectMapper.writeValueAsBytes(root);
+            fixture.items = new byte[0][];
+            fixture.names = new String[0];
+            fixture.tail = new byte[0];
+            return fixture;
+        }
+        JsonNode array = root.remove(field);
+        fixture.items = new byte[array.size()][];
+        fixture.names = new String[array.size()];
+        for (int i = 0; i < array.size(); i++) {
+            fixture.items[i] = objectMapper.writeValueAsBytes(array.get(i));
+            fixture.names[i] = array.get(i).path("name").asText("");
+        }
+        if ("clusters".equals(route)) {
+            // 集群列表接口直接返回数组
+            fixture.head = "[".getBytes(StandardCharsets.UTF_8);
+            fixture.tail = "]".getBytes(StandardCharsets.UTF_8);
+            return fixture;
+        }
+        String rest = objectMapper.writeValueAsString(root);
+        String head = rest.length() > 2 ? rest.substring(0, rest.length() - 1) + "," : "{";
+        fixture.head = (head + "\"" + field + "\":[").getBytes(StandardCharsets.UTF_8);
+        fixture.tail = "]}".getBytes(StandardCharsets.UTF_8);
+        return fixture;
+    }
+
+    /**
+     * 按路径识别接口类别，不是 Monitoring API 时返回 null
+     */
+    static String route(String path) {
+        if (path.equals(PREFIX)) {
+            return "clusters";
+        }
+        if (!path.startsWith(PREFIX + "/")) {
+            return null;
+        }
+        String[] parts = path.substring(PREFIX.length() + 1).split("/");
+        if (parts.length < 2 || !"elasticsearch".equals(parts[1])) {
+            return null;
+        }
+        if (parts.length == 2) {
+            return "cluster-overview";
+        }
+        boolean detail = parts.length == 4;
+        if ("nodes".equals(parts[2])) {
+            return detail ? "node-detail" : "nodes";
+        }
+        if ("indices".equals(parts[2])) {
+            return detail ? "index-detail" : "indices";
+        }
+        return null;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String route = route(exchange.getRequestURI().getPath());
+            byte[] requestBody = exchange.getRequestBody().readAllBytes();
+            if (route == null) {
+                respond(exchange, 404, error(404, "Not Found", "no stand-in route for "
+                        + exchange.getRequestURI().getPath()), null);
+                return;
+            }
+            requests.computeIfAbsent(route, key -> new LongAdder()).increment();
+            if (upstreamClient != null) {
+                forward(exchange, route, requestBody);
+                return;
+            }
+
+            StandInConfig.Injection injection = standInConfig.getKibana().getRoutes()
+                    .getOrDefault(route, standInConfig.getKibana().getInjection());
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long latency = sampleLatencyMs(injection, random);
+            if (latency > 0) {
+                Thread.sleep(latency);
+            }
+            if (injection.getErrorRate() > 0 && random.nextDouble() < injection.getErrorRate()) {
+                injectedErrors.increment();
+                respond(exchange, injection.getErrorStatus(),
+                        error(injection.getErrorStatus(), "Injected Error", "stand-in injected failure"), null);
+                return;
+            }
+            byte[] body = render(route, exchange.getRequestURI().getQuery(), requestBody);
+            boolean stall = injection.getStallRate() > 0 && random.nextDouble() < injection.getStallRate();
+            if (stall) {
+                injectedStalls.increment();
+            }
+            respond(exchange, 200, body, stall ? injection.getStallMs() : null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // 客户端超时断开（如卡顿注入）
+            log.debug("Kibana stand-in response aborted: {}", e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * 拼接回放响应；节点与索引列表按请求体中的分页（以及索引的 queryText、show_system_indices）切片
+     */
+    private byte[] render(String route, String query, byte[] requestBody) throws IOException {
+        Fixture fixture = fixtures.get(route);
+        int from = 0;
+        int size = fixture.items.length;
+        String queryText = "";
+        boolean systemIndices = true;
+        if ("nodes".equals(route) || "indices".equals(route)) {
+            JsonNode request = requestBody.length > 0 ? objectMapper.readTree(requestBody) : null;
+            JsonNode pagination = request != null ? request.get("pagination") : null;
+            if (pagination != null) {
+                size = Math.max(0, pagination.path("size").asInt(20));
+                from = Math.max(0, pagination.path("index").asInt(0)) * size;
+            }
+            if ("indices".equals(route)) {
+                queryText = request != null ? request.path("queryText").asText("").toLowerCase(Locale.ROOT) : "";
+                systemIndices = query != null && query.contains("show_system_indices=true");
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(fixture.head.length + fixture.tail.length
+                + Math.min(size, fixture.items.length) * (fixture.items.length > 0 ? fixture.items[0].length : 0));
+        out.write(fixture.head);
+        int matched = 0;
+        int written = 0;
+        for (int i = 0; i < fixture.items.length && written < size; i++) {
+            String name = fixture.names[i];
+            if ((!systemIndices && name.startsWith("."))
+                    || (!queryText.isEmpty() && !name.toLowerCase(Locale.ROOT).contains(queryText))) {
+                continue;
+            }
+            if (matched++ < from) {
+                continue;
+            }
+            if (written++ > 0) {
+                out.write(',');
+            }
+            out.write(fixture.items[i]);
+        }
+        out.write(fixture.tail);
+        return out.toByteArray();
+    }
+
+    /**
+     * 录制模式：转发到真实 Kibana，成功响应按接口类别保存
+     */
+    private void forward(HttpExchange exchange, String route, byte[] requestBody)
+            throws IOException, InterruptedException {
+        String upstream = standInConfig.getKibana().getUpstreamUrl();
+        if (upstream.endsWith("/")) {
+            upstream = upstream.substring(0, upstream.length() - 1);
+        }
+        Request.Builder builder = new Request.Builder().url(upstream + exchange.getRequestURI())
+                .method(exchange.getRequestMethod(), "GET".equals(exchange.getRequestMethod()) ? null
+                        : RequestBody.create(requestBody, MediaType.parse("application/json")));
+        for (String header : FORWARDED_HEADERS) {
+            String value = exchange.getRequestHeaders().getFirst(header);
+            if (value != null) {
+                builder.header(header, value);
+            }
+        }
+        try (Response response = upstreamClient.newCall(builder.build()).execute()) {
+            byte[] body = response.body() != null ? response.body().bytes() : new byte[0];
+            if (response.isSuccessful()) {
+                Path file = Paths.get(standInConfig.getKibana().getFixturesDir(), route + ".json");
+                Files.write(file, body);
+                log.info("Recorded Kibana {} response ({} bytes) to {}", route, body.length, file);
+            }
+            respond(exchange, response.code(), body, null);
+        }
+    }
+
+    /**
+     * 按配置的分布采样延迟
+     */
+    private static long sampleLatencyMs(StandInConfig.Injection injection, ThreadLocalRandom random) {
+        double latency;
+        switch (injection.getLatency().toLowerCase(Locale.ROOT)) {
+            case "fixed":
+                latency = injection.getLatencyMs();
+                break;
+            case "uniform":
+                latency = injection.getLatencyMs() + random.nextDouble()
+                        * Math.max(0, injection.getLatencyMaxMs() - injection.getLatencyMs());
+                break;
+            case "exponential":
+                latency = -injection.getLatencyMs() * Math.log(1 - random.nextDouble());
+                break;
+            case "lognormal":
+                latency = injection.getLatencyMs() * Math.exp(injection.getLatencySigma() * random.nextGaussian());
+                break;
+            default:
+                return 0;
+        }
+        if (injection.getLatencyMaxMs() > 0) {
+            latency = Math.min(latency, injection.getLatencyMaxMs());
+        }
+        return Math.round(latency);
+    }
+
+    /**
+     * 写出响应；stallMs 不为空时写出一半响应体后暂停
+     */
+    private void respond(HttpExchange exchange, int status, byte[] body, Long stallMs)
+            throws IOException, InterruptedException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        OutputStream out = exchange.getResponseBody();
+        if (stallMs != null) {
+            int half = body.length / 2;
+            out.write(body, 0, half);
+            out.flush();
+            Thread.sleep(stallMs);
+            out.write(body, half, body.length - half);
+        } else {
+            out.write(body);
+        }
+        out.close();
+    }
+
+    private byte[] error(int status, String error, String message) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("statusCode", status);
+        body.put("error", error);
+        body.put("message", message);
+        return objectMapper.writeValueAsBytes(body);
+    }
+
+    /**
+     * 替身统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (String route : ROUTES) {
+            LongAdder count = requests.get(route);
+            counts.put(route, count != null ? count.sum() : 0);
+        }
+        stats.put("mode", upstreamClient != null ? "record" : "replay");
+        stats.put("requests", counts);
+        stats.put("injectedErrors", injectedErrors.sum());
+        stats.put("injectedStalls", injectedStalls.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,416 @@
+package com.esmanage.standin;
+
+import com.esmanage.config.StandInConfig;
+import com.esmanage.dto.LoadTestReportDTO;
+import com.esmanage.dto.request.LoadTestRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Okio;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 进程内压测驱动
+ * 以闭环方式（每个并发在上一个请求完成后立即发起下一个）经本机端口请求服务自身的监控接口，
+ * 请求走完整的 Servlet、缓存、数据源与 Kibana 客户端链路；预热期结束后按接口记录每次请求的延迟与状态码，
+ * 结束时汇总吞吐量与延迟分位数。通常与 Kibana 替身一起使用，同一时间只运行一次压测
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "standin.load-driver", name = "enabled", havingValue = "true")
+public class LoadDriver {
+
+    /** 默认压测组合，权重大致对应监控页面的访问比例 */
+    private static final List<LoadTestRequest.Target> DEFAULT_TARGETS = List.of(
+            new LoadTestRequest.Target("/api/monitor/overview", 4),
+            new LoadTestRequest.Target("/api/monitor/cluster/overview", 2),
+            new LoadTestRequest.Target("/api/monitor/cluster/status", 2),
+            new LoadTestRequest.Target("/api/monitor/nodes", 3),
+            new LoadTestRequest.Target("/api/monitor/nodes/{nodeId}", 2),
+            new LoadTestRequest.Target("/api/monitor/nodes/{nodeId}/timeseries", 2),
+            new LoadTestRequest.Target("/api/monitor/indices", 3),
+            new LoadTestRequest.Target("/api/monitor/indices/{indexName}", 1),
+            new LoadTestRequest.Target("/api/monitor/indices/{indexName}/timeseries", 1),
+            new LoadTestRequest.Target("/api/monitor/nodes/stats", 1),
+            new LoadTestRequest.Target("/api/monitor/nodes/rates", 1),
+            new LoadTestRequest.Target("/api/monitor/forecast", 1));
+
+    private static final int MAX_CONCURRENCY = 1024;
+    private static final int MAX_DURATION_SEC = 3600;
+
+    private final StandInConfig standInConfig;
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+    private final ObjectProvider<KibanaStandIn> kibanaStandIn;
+
+    private final AtomicReference<Run> current = new AtomicReference<>();
+    private volatile LoadTestReportDTO latest;
+
+    @PreDestroy
+    public void shutdown() {
+        Run run = current.get();
+        if (run != null) {
+            run.cancel();
+        }
+    }
+
+    /**
+     * 开始压测
+     *
+     * @throws IllegalArgumentException 参数不合法
+     * @throws IllegalStateException    已有压测在运行
+     */
+    public LoadTestReportDTO start(LoadTestRequest request) {
+        StandInConfig.LoadDriver defaults = standInConfig.getLoadDriver();
+        int concurrency = request.getConcurrency() != null ? request.getConcurrency() : defaults.getConcurrency();
+        int durationSec = request.getDurationSec() != null ? request.getDurationSec() : defaults.getDurationSec();
+        int warmupSec = request.getWarmupSec() != null ? request.getWarmupSec() : defaults.getWarmupSec();
+        List<LoadTestRequest.Target> targets = request.getTargets() != null && !request.getTargets().isEmpty()
+                ? request.getTargets() : DEFAULT_TARGETS;
+        if (concurrency < 1 || concurrency > MAX_CONCURRENCY) {
+            throw new IllegalArgumentException("concurrency must be between 1 and " + MAX_CONCURRENCY);
+        }
+        if (durationSec < 1 || durationSec > MAX_DURATION_SEC || warmupSec < 0 || warmupSec > MAX_DURATION_SEC) {
+            throw new IllegalArgumentException("durationSec/warmupSec out of range");
+        }
+        for (LoadTestRequest.Target target : targets) {
+            if (target.getPath() == null || !target.getPath().startsWith("/") || target.getWeight() < 1) {
+                throw new IllegalArgumentException("Invalid target: " + target.getPath());
+            }
+        }
+
+        LoadTestReportDTO report = new LoadTestReportDTO();
+        report.setId(UUID.randomUUID().toString().substring(0, 8));
+        report.setStatus("running");
+        report.setConcurrency(concurrency);
+        report.setDurationSec(durationSec);
+        report.setWarmupSec(warmupSec);
+        report.setStartTime(System.currentTimeMillis());
+
+        Run run = new Run(report, targets);
+        if (!current.compareAndSet(null, run)) {
+            throw new IllegalStateException("A load test is already running: " + current.get().report.getId());
+        }
+        latest = report;
+        Thread coordinator = new Thread(run, "load-driver-" + report.getId());
+        coordinator.setDaemon(true);
+        coordinator.start();
+        log.info("Load test {} started: concurrency={}, duration={}s, warmup={}s, targets={}",
+                report.getId(), concurrency, durationSec, warmupSec, targets.size());
+        return report;
+    }
+
+    /**
+     * 获取最近一次压测的报告，运行中只有基本信息
+     */
+    public LoadTestReportDTO getLatest() {
+        return latest;
+    }
+
+    /**
+     * 取消正在运行的压测
+     *
+     * @return 是否有压测被取消
+     */
+    public boolean cancel() {
+        Run run = current.get();
+        if (run == null) {
+            return false;
+        }
+        run.cancel();
+        return true;
+    }
+
+    /**
+     * 单个并发在单个目标上的记录，结束后合并
+     */
+    private static final class Recorder {
+        long[] latencies = new long[1024];
+        int count;
+        long errors;
+        final Map<Integer, Long> statuses = new TreeMap<>();
+
+        void record(long nanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            statuses.merge(status, 1L, Long::sum);
+            if (status < 200 || status >= 300) {
+                errors++;
+            }
+        }
+
+        void merge(Recorder other) {
+            if (count + other.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, count + other.count);
+            }
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            errors += other.errors;
+            other.statuses.forEach((status, n) -> statuses.merge(status, n, Long::sum));
+        }
+    }
+
+    /**
+     * 一次压测
+     */
+    private final class Run implements Runnable {
+        private final LoadTestReportDTO report;
+        private final List<LoadTestRequest.Target> targets;
+        private final int[] cumulativeWeights;
+        private final OkHttpClient client;
+        private volatile boolean cancelled;
+
+        private final List<String> nodeIds = new ArrayList<>();
+        private final List<String> indexNames = new ArrayList<>();
+        private final AtomicInteger placeholderCursor = new AtomicInteger();
+
+        Run(LoadTestReportDTO report, List<LoadTestRequest.Target> targets) {
+            this.report = report;
+            this.targets = targets;
+            this.cumulativeWeights = new int[targets.size()];
+            int total = 0;
+            for (int i = 0; i < targets.size(); i++) {
+                total += targets.get(i).getWeight();
+                cumulativeWeights[i] = total;
+            }
+            long timeoutMs = standInConfig.getLoadDriver().getTimeoutMs();
+            this.client = new OkHttpClient.Builder()
+                    .connectTimeout(5, TimeUnit.SECONDS)
+                    .readTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                    .callTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                    .connectionPool(new ConnectionPool(report.getConcurrency(), 1, TimeUnit.MINUTES))
+                    .build();
+        }
+
+        void cancel() {
+            cancelled = true;
+            client.dispatcher().cancelAll();
+        }
+
+        @Override
+        public void run() {
+            ExecutorService workers = null;
+            try {
+                String baseUrl = "http://127.0.0.1:" + environment.getProperty("local.server.port", "8080")
+                        + environment.getProperty("server.servlet.context-path", "");
+                discover(baseUrl);
+
+                int concurrency = report.getConcurrency();
+                long measureStart = System.nanoTime() + TimeUnit.SECONDS.toNanos(report.getWarmupSec());
+                long deadline = measureStart + TimeUnit.SECONDS.toNanos(report.getDurationSec());
+                Recorder[][] recorders = new Recorder[concurrency][targets.size()];
+                AtomicInteger threadIndex = new AtomicInteger();
+                workers = Executors.newFixedThreadPool(concurrency, runnable -> {
+                    Thread thread = new Thread(runnable, "load-worker-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                for (int w = 0; w < concurrency; w++) {
+                    Recorder[] own = recorders[w];
+                    for (int t = 0; t < own.length; t++) {
+                        own[t] = new Recorder();
+                    }
+                    workers.execute(() -> drive(baseUrl, own, measureStart, deadline));
+                }
+                workers.shutdown();
+                long waitMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())
+                        + standInConfig.getLoadDriver().getTimeoutMs() + 5000;
+                if (!workers.awaitTermination(waitMs, TimeUnit.MILLISECONDS)) {
+                    client.dispatcher().cancelAll();
+                }
+                long measuredNanos = Math.max(1, Math.min(System.nanoTime(), deadline) - measureStart);
+                summarize(recorders, measuredNanos);
+                report.setStatus(cancelled ? "cancelled" : "completed");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                report.setStatus("cancelled");
+            } catch (Exception e) {
+                log.error("Load test {} failed", report.getId(), e);
+                report.setError(e.getMessage());
+                report.setStatus("failed");
+            } finally {
+                if (workers != null) {
+                    workers.shutdownNow();
+                }
+                KibanaStandIn standIn = kibanaStandIn.getIfAvailable();
+                if (standIn != null) {
+                    report.setStandIn(standIn.getStats());
+                }
+                report.setEndTime(System.currentTimeMillis());
+                client.connectionPool().evictAll();
+                current.set(null);
+                log.info("Load test {} {}: {} requests, {} errors, {} req/s", report.getId(), report.getStatus(),
+                        report.getRequests(), report.getErrors(), report.getThroughput());
+            }
+        }
+
+        /**
+         * 从节点与索引列表中取得占位符的候选值
+         */
+        private void discover(String baseUrl) throws IOException {
+            boolean needNodes = false;
+            boolean needIndices = false;
+            for (LoadTestRequest.Target target : targets) {
+                needNodes |= target.getPath().contains("{nodeId}");
+                needIndices |= target.getPath().contains("{indexName}");
+            }
+            if (needNodes) {
+                JsonNode nodes = fetch(baseUrl + "/api/monitor/nodes?pageSize=100").path("nodes");
+                nodes.forEach(node -> nodeIds.add(node.path("uuid").asText()));
+                if (nodeIds.isEmpty()) {
+                    throw new IOException("No nodes returned by /api/monitor/nodes");
+                }
+            }
+            if (needIndices) {
+                JsonNode indices = fetch(baseUrl + "/api/monitor/indices?pageSize=100").path("indices");
+                indices.forEach(index -> indexNames.add(index.path("name").asText()));
+                if (indexNames.isEmpty()) {
+                    throw new IOException("No indices returned by /api/monitor/indices");
+                }
+            }
+        }
+
+        private JsonNode fetch(String url) throws IOException {
+            try (Response response = client.newCall(new Request.Builder().url(url).build()).execute()) {
+                if (!response.isSuccessful() || response.body() == null) {
+                    throw new IOException("Discovery request failed: " + response.code() + " " + url);
+                }
+                return objectMapper.readTree(response.body().byteStream());
+            }
+        }
+
+        private void drive(String baseUrl, Recorder[] recorders, long measureStart, long deadline) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int totalWeight = cumulativeWeights[cumulativeWeights.length - 1];
+            while (!cancelled) {
+                long start = System.nanoTime();
+                if (start >= deadline) {
+                    return;
+                }
+                int target = pick(random.nextInt(totalWeight));
+                Request request = new Request.Builder().url(baseUrl + resolve(targets.get(target).getPath())).build();
+                int status;
+                try (Response response = client.newCall(request).execute()) {
+                    ResponseBody body = response.body();
+                    if (body != null) {
+                        body.source().readAll(Okio.blackhole());
+                    }
+                    status = response.code();
+                } catch (IOException e) {
+                    if (cancelled) {
+                        return;
+                    }
+                    status = 0;
+                }
+                long end = System.nanoTime();
+                if (start >= measureStart && end <= deadline) {
+                    recorders[target].record(end - start, status);
+                }
+            }
+        }
+
+        private int pick(int value) {
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                if (value < cumulativeWeights[i]) {
+                    return i;
+                }
+            }
+            return cumulativeWeights.length - 1;
+        }
+
+        private String resolve(String path) {
+            if (path.indexOf('{') < 0) {
+                return path;
+            }
+            int cursor = placeholderCursor.getAndIncrement() & Integer.MAX_VALUE;
+            if (!nodeIds.isEmpty()) {
+                path = path.replace("{nodeId}", nodeIds.get(cursor % nodeIds.size()));
+            }
+            if (!indexNames.isEmpty()) {
+                path = path.replace("{indexName}", indexNames.get(cursor % indexNames.size()));
+            }
+            return path;
+        }
+
+        private void summarize(Recorder[][] recorders, long measuredNanos) {
+            double seconds = measuredNanos / 1e9;
+            long totalRequests = 0;
+            long totalErrors = 0;
+            List<LoadTestReportDTO.EndpointResult> results = new ArrayList<>();
+            for (int t = 0; t < targets.size(); t++) {
+                Recorder merged = new Recorder();
+                for (Recorder[] worker : recorders) {
+                    merged.merge(worker[t]);
+                }
+                long[] latencies = Arrays.copyOf(merged.latencies, merged.count);
+                Arrays.sort(latencies);
+                long sum = 0;
+                for (long latency : latencies) {
+                    sum += latency;
+                }
+                LoadTestReportDTO.EndpointResult result = new LoadTestReportDTO.EndpointResult();
+                result.setPath(targets.get(t).getPath());
+                result.setRequests((long) merged.count);
+                result.setErrors(merged.errors);
+                result.setThroughput(round(merged.count / seconds));
+                result.setMeanMs(merged.count > 0 ? millis(sum / merged.count) : null);
+                result.setP50Ms(percentile(latencies, 0.50));
+                result.setP90Ms(percentile(latencies, 0.90));
+                result.setP99Ms(percentile(latencies, 0.99));
+                result.setP999Ms(percentile(latencies, 0.999));
+                result.setMaxMs(latencies.length > 0 ? millis(latencies[latencies.length - 1]) : null);
+                result.setStatuses(merged.statuses);
+                results.add(result);
+                totalRequests += merged.count;
+                totalErrors += merged.errors;
+            }
+            report.setEndpoints(results);
+            report.setRequests(totalRequests);
+            report.setErrors(totalErrors);
+            report.setThroughput(round(totalRequests / seconds));
+        }
+    }
+
+    private static Double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return null;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length) - 1;
+        return millis(sorted[Math.max(0, Math.min(sorted.length - 1, rank))]);
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / 1e6);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
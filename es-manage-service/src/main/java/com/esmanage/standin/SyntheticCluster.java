@@ -0,0 +1,116 @@
+package com.esmanage.standin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 合成集群数据
+ * 按固定种子生成节点和索引，累计计数器随时间增长，瞬时值随时间小幅波动
+ */
+public class SyntheticCluster {
+
+    private static final String[] POOLS = {"search", "write", "get", "analyze", "management", "generic"};
+
+    private static final String[] BREAKERS = {"parent", "request", "fielddata", "in_flight_requests"};
+
+    private final long startTime = System.currentTimeMillis();
+    private final List<Node> nodes = new ArrayList<>();
+    private final List<Index> indices = new ArrayList<>();
+
+    public SyntheticCluster(int nodeCount, int indexCount) {
+        Random random = new Random(42);
+        for (int i = 0; i < nodeCount; i++) {
+            Node node = new Node();
+            node.id = String.format("node%04d%s", i, Long.toHexString(random.nextLong()).substring(0, 8));
+            node.name = "es-node-" + (i + 1);
+            node.ip = "10.0." + (i / 250) + "." + (i % 250 + 1);
+            node.master = i < 3;
+            node.heapMax = 31L << 30;
+            node.fsTotal = 2L << 40;
+            node.baseCpu = 10 + random.nextInt(40);
+            node.baseHeap = 30 + random.nextInt(40);
+            node.baseFree = (long) (node.fsTotal * (0.2 + random.nextDouble() * 0.6));
+            node.searchPerSec = 50 + random.nextInt(500);
+            node.indexPerSec = 100 + random.nextInt(2000);
+            nodes.add(node);
+        }
+        for (int i = 0; i < indexCount; i++) {
+            Index index = new Index();
+            index.name = i % 20 == 19
+                    ? ".system-" + i
+                    : String.format("logs-%s-%04d", i % 3 == 0 ? "app" : "nginx", i);
+            index.primaries = 1 + random.nextInt(5);
+            index.replicas = random.nextInt(10) == 0 ? 0 : 1;
+            index.baseDocs = 10_000L + random.nextInt(5_000_000);
+            index.docsPerSec = random.nextInt(200);
+            index.searchPerSec = random.nextInt(50);
+            index.health = random.nextInt(30) == 0 ? "yellow" : "green";
+            indices.add(index);
+        }
+    }
+
+    public static String[] threadPools() {
+        return POOLS;
+    }
+
+    public static String[] breakers() {
+        return BREAKERS;
+    }
+
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    public List<Index> getIndices() {
+        return indices;
+    }
+
+    /**
+     * 已运行秒数
+     */
+    public double elapsedSeconds() {
+        return (System.currentTimeMillis() - startTime) / 1000.0;
+    }
+
+    public long uptimeMillis() {
+        return System.currentTimeMillis() - startTime + 86_400_000L;
+    }
+
+    /**
+     * 在基准值附近按正弦波动
+     */
+    public double wave(double base, double amplitude, int phase) {
+        return base + amplitude * Math.sin(elapsedSeconds() / 60.0 + phase);
+    }
+
+    /**
+     * 合成节点
+     */
+    public static class Node {
+        public String id;
+        public String name;
+        public String ip;
+        public boolean master;
+        public long heapMax;
+        public long fsTotal;
+        public int baseCpu;
+        public int baseHeap;
+        public long baseFree;
+        public int searchPerSec;
+        public int indexPerSec;
+    }
+
+    /**
+     * 合成索引
+     */
+    public static class Index {
+        public String name;
+        public String health;
+        public int primaries;
+        public int replicas;
+        public long baseDocs;
+        public int docsPerSec;
+        public int searchPerSec;
+    }
+}
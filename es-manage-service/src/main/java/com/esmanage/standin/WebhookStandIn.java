@@ -0,0 +1,153 @@
+package com.esmanage.standin;
+
+import com.esmanage.config.StandInConfig;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 通知接收端本地替身
+ * 接收任意路径的 POST 并按钉钉机器人格式应答，可按配置注入延迟与失败；
+ * GET /received 查看最近收到的请求体，GET /stats 查看计数，便于验证通知分发。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "standin.webhook", name = "enabled", havingValue = "true")
+public class WebhookStandIn {
+
+    private static final int KEEP_RECEIVED = 100;
+
+    private final StandInConfig standInConfig;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final Deque<String> received = new ArrayDeque<>();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void start() throws IOException {
+        StandInConfig.Webhook config = standInConfig.getWebhook();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", config.getPort()), 0);
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(4, runnable -> {
+            Thread thread = new Thread(runnable, "webhook-standin-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        log.info("Webhook stand-in listening on 127.0.0.1:{} (failureRate={}, latencyMs={})",
+                getPort(), config.getFailureRate(), config.getLatencyMs());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 实际监听的端口（配置为 0 时由系统分配）
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+        int status = 200;
+
+        if ("GET".equals(exchange.getRequestMethod()) && path.equals("/received")) {
+            synchronized (received) {
+                buffer.write('[');
+                boolean first = true;
+                for (String body : received) {
+                    if (!first) {
+                        buffer.write(',');
+                    }
+                    buffer.write(body.getBytes(StandardCharsets.UTF_8));
+                    first = false;
+                }
+                buffer.write(']');
+            }
+        } else if ("GET".equals(exchange.getRequestMethod()) && path.equals("/stats")) {
+            try (JsonGenerator gen = jsonFactory.createGenerator(buffer)) {
+                gen.writeStartObject();
+                gen.writeNumberField("accepted", accepted.get());
+                gen.writeNumberField("rejected", rejected.get());
+                gen.writeEndObject();
+            }
+        } else {
+            String body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            StandInConfig.Webhook config = standInConfig.getWebhook();
+            if (config.getLatencyMs() > 0) {
+                try {
+                    Thread.sleep(config.getLatencyMs());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            boolean fail = ThreadLocalRandom.current().nextDouble() < config.getFailureRate();
+            try (JsonGenerator gen = jsonFactory.createGenerator(buffer)) {
+                gen.writeStartObject();
+                if (fail) {
+                    status = 500;
+                    rejected.incrementAndGet();
+                    gen.writeNumberField("errcode", 500);
+                    gen.writeStringField("errmsg", "injected failure");
+                } else {
+                    accepted.incrementAndGet();
+                    synchronized (received) {
+                        received.addLast(body.isEmpty() ? "null" : body);
+                        if (received.size() > KEEP_RECEIVED) {
+                            received.removeFirst();
+                        }
+                    }
+                    gen.writeNumberField("errcode", 0);
+                    gen.writeStringField("errmsg", "ok");
+                }
+                gen.writeEndObject();
+            }
+        }
+
+        byte[] bytes = buffer.toByteArray();
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
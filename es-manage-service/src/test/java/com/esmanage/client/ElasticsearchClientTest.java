@@ -0,0 +1,45 @@
+package com.esmanage.client;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ElasticsearchClientTest {
+
+    @Test
+    void statsPathKeepsApiSegmentsAndDropsQuery() {
+        assertEquals("/_cluster/health", ElasticsearchClient.computeStatsPath("/_cluster/health?filter_path=status"));
+        assertEquals("/_cluster/pending_tasks", ElasticsearchClient.computeStatsPath("/_cluster/pending_tasks"));
+        assertEquals("/_cat/indices", ElasticsearchClient.computeStatsPath("/_cat/indices?format=json"));
+        assertEquals("/_search", ElasticsearchClient.computeStatsPath("/_search"));
+        assertEquals("/", ElasticsearchClient.computeStatsPath("/"));
+    }
+
+    @Test
+    void statsPathReplacesDynamicSegments() {
+        assertEquals("/{index}/_analyze", ElasticsearchClient.computeStatsPath("/logs-2024.01/_analyze"));
+        assertEquals("/{index}/_search", ElasticsearchClient.computeStatsPath("/a,b*/_search?size=0"));
+        assertEquals("/_tasks/{taskId}", ElasticsearchClient.computeStatsPath("/_tasks/node-1:42"));
+        assertEquals("/_tasks/{taskId}/_cancel", ElasticsearchClient.computeStatsPath("/_tasks/node-1:42/_cancel"));
+        assertEquals("/_nodes/{nodeId}/stats", ElasticsearchClient.computeStatsPath("/_nodes/abc123/stats"));
+        assertEquals("/_nodes/stats/{metric}", ElasticsearchClient.computeStatsPath("/_nodes/stats/jvm,os?filter_path=x"));
+        assertEquals("/_cat/indices/{index}", ElasticsearchClient.computeStatsPath("/_cat/indices/logs-a"));
+        assertEquals("/_snapshot/{name}/{name}", ElasticsearchClient.computeStatsPath("/_snapshot/repo/snap-1"));
+        assertEquals("/{index}/_doc/{id}", ElasticsearchClient.computeStatsPath("/logs/_doc/1"));
+    }
+
+    @Test
+    void encodePathSegmentEscapesSeparators() {
+        assertEquals("x%2F_close%3F", ElasticsearchClient.encodePathSegment("x/_close?"));
+        assertEquals("a%20b", ElasticsearchClient.encodePathSegment("a b"));
+    }
+
+    @Test
+    void checkIndexNameFollowsElasticsearchRules() {
+        assertEquals("logs-a", ElasticsearchClient.checkIndexName(" logs-a "));
+        assertThrows(IllegalArgumentException.class, () -> ElasticsearchClient.checkIndexName("_hidden"));
+        assertThrows(IllegalArgumentException.class, () -> ElasticsearchClient.checkIndexName("a/b"));
+        assertThrows(IllegalArgumentException.class, () -> ElasticsearchClient.checkIndexName(".."));
+        assertThrows(IllegalArgumentException.class, () -> ElasticsearchClient.checkIndexName("x".repeat(256)));
+    }
+}
@@ -0,0 +1,212 @@
+package com.esmanage.client;
+
+import com.esmanage.config.KibanaConfig;
+import com.esmanage.config.TraceConfig;
+import com.esmanage.metrics.RequestTracer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 多实例负载均衡与被动摘除测试
+ */
+class KibanaClientTest {
+
+    private final List<HttpServer> servers = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        servers.forEach(server -> server.stop(0));
+    }
+
+    /**
+     * 启动返回固定状态码的 Kibana 替身，返回其地址
+     */
+    private String kibana(int status, AtomicInteger hits) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            hits.incrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            byte[] body = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        servers.add(server);
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private static String deadUrl() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return "http://127.0.0.1:" + socket.getLocalPort();
+        }
+    }
+
+    private KibanaClient client(List<String> endpoints) {
+        KibanaConfig config = new KibanaConfig();
+        config.setEndpoints(endpoints);
+        return client(config);
+    }
+
+    private KibanaClient client(KibanaConfig config) {
+        config.setClusterId("c1");
+        config.setEjectionThreshold(1);
+        RequestTracer requestTracer = new RequestTracer(new TraceConfig());
+        requestTracer.init();
+        KibanaClient client = new KibanaClient(config, new ObjectMapper(), requestTracer);
+        client.init();
+        return client;
+    }
+
+    @Test
+    void failsOverAndEjectsUnreachableEndpoint() throws Exception {
+        AtomicInteger hits = new AtomicInteger();
+        KibanaClient client = client(List.of(deadUrl(), kibana(200, hits)));
+
+        for (int i = 0; i < 3; i++) {
+            JsonNode result = client.post("/api/monitoring/v1/clusters", Map.of(), JsonNode.class);
+            assertTrue(result.path("ok").asBoolean());
+        }
+
+        KibanaEndpoint dead = client.getEndpoints().get(0);
+        assertEquals(3, hits.get());
+        assertEquals(1, dead.getRequestCount().get());
+        assertEquals(1, dead.getEjectionCount().get());
+        assertFalse(dead.isAvailable(System.currentTimeMillis()));
+    }
+
+    @Test
+    void serverErrorRetriesOnAnotherEndpoint() throws Exception {
+        AtomicInteger failing = new AtomicInteger();
+        AtomicInteger healthy = new AtomicInteger();
+        KibanaClient client = client(List.of(kibana(503, failing), kibana(200, healthy)));
+
+        client.post("/api/monitoring/v1/clusters", Map.of(), JsonNode.class);
+
+        assertEquals(1, failing.get());
+        assertEquals(1, healthy.get());
+    }
+
+    @Test
+    void clientErrorIsNotRetried() throws Exception {
+        AtomicInteger first = new AtomicInteger();
+        AtomicInteger second = new AtomicInteger();
+        KibanaClient client = client(List.of(kibana(400, first), kibana(400, second)));
+
+        assertThrows(IOException.class, () -> client.post("/api/monitoring/v1/clusters", Map.of(), JsonNode.class));
+        assertEquals(1, first.get() + second.get());
+        assertTrue(client.getEndpoints().stream().allMatch(e -> e.isAvailable(System.currentTimeMillis())));
+    }
+
+    @Test
+    void latencyAwareScoreWeighsInflightRequests() {
+        KibanaEndpoint endpoint = new KibanaEndpoint("http://kibana:5601/", new OkHttpClient());
+        assertEquals("http://kibana:5601", endpoint.getBaseUrl());
+
+        endpoint.onStart();
+        endpoint.onSuccess(100);
+        assertEquals(100, endpoint.score(true), 1e-9);
+        endpoint.onStart();
+        assertEquals(200, endpoint.score(true), 1e-9);
+        assertEquals(1, endpoint.score(false), 1e-9);
+    }
+
+    /**
+     * 启动记录请求头与请求体的 Kibana 替身
+     */
+    private String capturing(AtomicReference<Headers> headers, AtomicReference<String> body)
+            throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            headers.set(exchange.getRequestHeaders());
+            body.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            byte[] response = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        server.start();
+        servers.add(server);
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Test
+    void sendsPrecomputedHeadersAndStreamedBody() throws Exception {
+        AtomicReference<Headers> headers = new AtomicReference<>();
+        AtomicReference<String> body = new AtomicReference<>();
+        KibanaConfig config = new KibanaConfig();
+        config.setEndpoints(List.of(capturing(headers, body)));
+        config.setUsername("elastic");
+        config.setPassword("secret");
+        config.setVersion("8.11.0");
+        KibanaClient client = client(config);
+
+        client.post("/api/monitoring/v1/clusters/c1/elasticsearch/nodes", gen -> {
+            gen.writeStartObject();
+            gen.writeObjectFieldStart("pagination");
+            gen.writeNumberField("index", 0);
+            gen.writeNumberField("size", 20);
+            gen.writeEndObject();
+            gen.writeEndObject();
+        }, JsonNode.class);
+
+        assertEquals("{\"pagination\":{\"index\":0,\"size\":20}}", body.get());
+        assertEquals("Basic ZWxhc3RpYzpzZWNyZXQ=", headers.get().getFirst("Authorization"));
+        assertEquals("8.11.0", headers.get().getFirst("kbn-version"));
+        assertFalse(headers.get().containsKey("kbn-build-number"));
+        assertEquals("Kibana", headers.get().getFirst("x-elastic-internal-origin"));
+        assertTrue(headers.get().getFirst("x-kbn-context").startsWith("%7B%22type%22"));
+        assertTrue(headers.get().getFirst("Content-Type").startsWith("application/json"));
+
+        client.post("/api/monitoring/v1/clusters", Map.of("a", 1), JsonNode.class);
+        assertEquals("{\"a\":1}", body.get());
+        assertEquals("8.11.0", headers.get().getFirst("kbn-version"));
+    }
+
+    @Test
+    void statsPathMatchesPreviousRegexRewrite() {
+        List<String> paths = List.of(
+                "/api/monitoring/v1/clusters",
+                "/api/monitoring/v1/clusters/c1/elasticsearch",
+                "/api/monitoring/v1/clusters/c1/elasticsearch/nodes",
+                "/api/monitoring/v1/clusters/c1/elasticsearch/nodes/abc_DEF-123",
+                "/api/monitoring/v1/clusters/c1/elasticsearch/indices/logs-2024.01.01",
+                "/api/monitoring/v1/clusters/c1/elasticsearch/indices?show_system_indices=true",
+                "/api/monitoring/v1/clusters/c1/elasticsearch/indices/.kibana_1?show_system_indices=true",
+                "/api/monitoring/v1/clusters/c1/elasticsearch/nodes/n1/indices/logs/stats",
+                "/api/monitoring/v1/clusters/c1/elasticsearch/nodes/");
+        for (String path : paths) {
+            String expected = path.replaceAll("/nodes/[a-zA-Z0-9_-]+", "/nodes/{nodeId}")
+                    .replaceAll("/indices/[^/\\?]+", "/indices/{indexName}");
+            int query = expected.indexOf('?');
+            if (query > 0) {
+                expected = expected.substring(0, query);
+            }
+            assertEquals(expected, KibanaClient.computeStatsPath(path), path);
+        }
+
+        KibanaClient client = client(List.of("http://127.0.0.1:1"));
+        String path = paths.get(3);
+        assertSame(client.simplifyPath(path), client.simplifyPath(path));
+    }
+}
@@ -0,0 +1,44 @@
+package com.esmanage.dto;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricCatalogTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Test
+    void deserializedMetricInfoIsInternedAndImmutable() throws Exception {
+        String json = "{\"metric\":{\"app\":\"elasticsearch\",\"label\":\"Total Shards\",\"title\":\"Search Rate\","
+                + "\"units\":\"/s\",\"isDerivative\":true,\"extra\":1},\"data\":[]}";
+
+        TimeSeriesDataDTO first = objectMapper.readValue(json, TimeSeriesDataDTO.class);
+        TimeSeriesDataDTO second = objectMapper.readValue(json, TimeSeriesDataDTO.class);
+
+        assertSame(first.getMetric(), second.getMetric());
+        assertEquals(Boolean.TRUE, first.getMetric().getIsDerivative());
+        assertEquals("/s", first.getMetric().getUnits());
+        assertTrue(objectMapper.writeValueAsString(first.getMetric()).contains("\"isDerivative\":true"));
+    }
+
+    @Test
+    void catalogMetricInfoIsShared() {
+        MetricInfoDTO info = MetricCatalog.metricInfo("Search", "Latency", "ms");
+
+        assertSame(info, MetricCatalog.metricInfo("Search", "Latency", "ms"));
+        assertSame(info, MetricCatalog.intern(MetricInfoDTO.builder()
+                .app("elasticsearch").label("Search").title("Latency").units("ms").build()));
+        assertNull(MetricCatalog.intern(null));
+    }
+
+    @Test
+    void lookupByName() {
+        assertEquals(MetricCatalog.CLUSTER_SEARCH_RATE, MetricCatalog.idOf("cluster_search_request_rate"));
+        assertEquals("search_rate", MetricCatalog.alias(MetricCatalog.CLUSTER_SEARCH_RATE));
+        assertEquals(-1, MetricCatalog.idOf("bogus"));
+    }
+}
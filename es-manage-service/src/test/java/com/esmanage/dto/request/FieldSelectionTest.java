@@ -0,0 +1,62 @@
+package com.esmanage.dto.request;
+
+import com.esmanage.dto.MetricCatalog;
+import com.esmanage.service.ElasticsearchMonitorService;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldSelectionTest {
+
+    private static final String TIME_SERIES = ElasticsearchMonitorService.TIME_SERIES;
+
+    private static FieldSelection overview(String fields) {
+        return FieldSelection.parse(fields, ElasticsearchMonitorService.OVERVIEW_FIELDS,
+                ElasticsearchMonitorService.OVERVIEW_CHILDREN);
+    }
+
+    private static FieldSelection nodeSeries(String fields) {
+        return FieldSelection.parse(fields, Set.of(TIME_SERIES),
+                Map.of(TIME_SERIES, MetricCatalog.aliases(MetricCatalog.Scope.NODE)), TIME_SERIES);
+    }
+
+    @Test
+    void blankSelectsAll() {
+        assertTrue(overview(null).isAll());
+        assertTrue(overview(" , ").isAll());
+        assertTrue(overview(null).includes(TIME_SERIES, "search_rate"));
+    }
+
+    @Test
+    void sectionAndSubFieldSelection() {
+        FieldSelection selection = overview("cluster, timeSeries.search_rate");
+
+        assertFalse(selection.isAll());
+        assertTrue(selection.includes("cluster"));
+        assertFalse(selection.includes("jvm"));
+        assertTrue(selection.includes(TIME_SERIES, "search_rate"));
+        assertFalse(selection.includes(TIME_SERIES, "index_latency"));
+    }
+
+    @Test
+    void rejectsUnknownSectionsAndMetrics() {
+        assertThrows(IllegalArgumentException.class, () -> overview("bogus"));
+        assertThrows(IllegalArgumentException.class, () -> overview("timeSeries.bogus"));
+        assertThrows(IllegalArgumentException.class, () -> overview("cluster.name"));
+        assertThrows(IllegalArgumentException.class, () -> nodeSeries("bogus"));
+        assertThrows(IllegalArgumentException.class, () -> nodeSeries("timeSeries.bogus"));
+    }
+
+    @Test
+    void bareNamesBelongToDefaultSection() {
+        String alias = MetricCatalog.aliases(MetricCatalog.Scope.NODE).iterator().next();
+        FieldSelection selection = nodeSeries(alias);
+
+        assertTrue(selection.includes(TIME_SERIES, alias));
+        assertTrue(nodeSeries("timeSeries." + alias).includes(TIME_SERIES, alias));
+        assertTrue(nodeSeries(TIME_SERIES).includes(TIME_SERIES, alias));
+    }
+}
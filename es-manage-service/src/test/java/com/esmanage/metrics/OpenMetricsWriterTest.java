@@ -0,0 +1,106 @@
+package com.esmanage.metrics;
+
+import com.esmanage.client.ElasticsearchClient;
+import com.esmanage.client.KibanaClient;
+import com.esmanage.config.ElasticsearchConfig;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OpenMetricsWriterTest {
+
+    private static String text(OpenMetricsWriter writer) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void formatsNumbers() throws Exception {
+        OpenMetricsWriter w = new OpenMetricsWriter();
+        w.number(0).ch(' ').number(-42).ch(' ').number(1234567890123L).ch(' ').number(Long.MIN_VALUE);
+
+        assertEquals("0 -42 1234567890123 " + Long.MIN_VALUE, text(w));
+    }
+
+    @Test
+    void formatsSecondsAndRatios() throws Exception {
+        OpenMetricsWriter w = new OpenMetricsWriter();
+        w.seconds(1_500_000_000L).ch(' ').seconds(2_000_000_000L).ch(' ').seconds(1_000L).ch(' ').seconds(0)
+                .ch(' ').ratio(0.12345).ch(' ').ratio(1);
+
+        assertEquals("1.5 2 0.000001 0 0.1235 1", text(w));
+    }
+
+    @Test
+    void escapesLabelValues() {
+        String labels = new String(OpenMetricsWriter.labels("path", "a\"b\\c\nd", "empty", null),
+                StandardCharsets.UTF_8);
+
+        assertEquals("path=\"a\\\"b\\\\c\\nd\",empty=\"\"", labels);
+    }
+
+    @Test
+    void growsAndResetsBuffer() throws Exception {
+        OpenMetricsWriter w = new OpenMetricsWriter();
+        String line = "x".repeat(1000) + "\n";
+        for (int i = 0; i < 100; i++) {
+            w.ascii(line);
+        }
+        assertEquals(100 * line.length(), w.size());
+
+        w.reset();
+        w.ascii("# EOF\n");
+        assertEquals("# EOF\n", text(w));
+    }
+
+    @Test
+    void scrapeWritesCumulativeHistogramAndFormatSpecificCounters() throws Exception {
+        KibanaClient kibanaClient = mock(KibanaClient.class);
+        when(kibanaClient.getEndpoints()).thenReturn(List.of());
+        when(kibanaClient.getApiStatsMap()).thenReturn(Map.of());
+        ElasticsearchClient elasticsearchClient = mock(ElasticsearchClient.class);
+        when(elasticsearchClient.getHttpClient()).thenReturn(new OkHttpClient());
+        when(elasticsearchClient.getApiStatsMap()).thenReturn(Map.of());
+        MetricsRegistry registry = new MetricsRegistry(kibanaClient, elasticsearchClient, new ElasticsearchConfig());
+        registry.init();
+        registry.registerCache("analyze", () -> 3, () -> 1, () -> 2);
+
+        MetricsRegistry.EndpointMeters meters = registry.endpointFor(null);
+        meters.record(3_000_000L, 200, 10, 20);
+        meters.record(200_000_000L, 503, 0, 5);
+
+        ByteArrayOutputStream prometheus = new ByteArrayOutputStream();
+        registry.scrape(prometheus, false);
+        String text = prometheus.toString(StandardCharsets.UTF_8);
+
+        String labels = "endpoint=\"unmatched\",method=\"ANY\"";
+        assertTrue(text.contains("esmanage_http_server_requests_seconds_bucket{" + labels + ",le=\"0.001\"} 0\n"));
+        assertTrue(text.contains("esmanage_http_server_requests_seconds_bucket{" + labels + ",le=\"0.005\"} 1\n"));
+        assertTrue(text.contains("esmanage_http_server_requests_seconds_bucket{" + labels + ",le=\"0.25\"} 2\n"));
+        assertTrue(text.contains("esmanage_http_server_requests_seconds_bucket{" + labels + ",le=\"+Inf\"} 2\n"));
+        assertTrue(text.contains("esmanage_http_server_requests_seconds_count{" + labels + "} 2\n"));
+        assertTrue(text.contains("esmanage_http_server_requests_seconds_sum{" + labels + "} 0.203\n"));
+        assertTrue(text.contains("# TYPE esmanage_http_server_responses_total counter\n"));
+        assertTrue(text.contains("esmanage_http_server_received_bytes_total{" + labels + "} 10\n"));
+        assertTrue(text.contains("esmanage_cache_hit_ratio{cache=\"analyze\"} 0.75\n"));
+        assertTrue(text.contains("esmanage_cache_entries{cache=\"analyze\"} 2\n"));
+        assertFalse(text.contains("# EOF"));
+        assertFalse(text.contains("esmanage_upstream_request_seconds_bucket"));
+
+        ByteArrayOutputStream openMetrics = new ByteArrayOutputStream();
+        registry.scrape(openMetrics, true);
+        String om = openMetrics.toString(StandardCharsets.UTF_8);
+
+        assertTrue(om.contains("# TYPE esmanage_http_server_responses counter\n"));
+        assertTrue(om.contains("esmanage_http_server_responses_total{"));
+        assertTrue(om.endsWith("# EOF\n"));
+    }
+}
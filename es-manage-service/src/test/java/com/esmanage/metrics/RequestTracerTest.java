@@ -0,0 +1,102 @@
+package com.esmanage.metrics;
+
+import com.esmanage.config.TraceConfig;
+import com.esmanage.dto.RequestTraceDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestTracerTest {
+
+    private final TraceConfig config = new TraceConfig();
+    private RequestTracer tracer;
+
+    @BeforeEach
+    void setUp() {
+        config.setCapacity(3);
+        config.setMinDurationMs(100);
+        config.setMaxSpans(2);
+        config.setJfrEvents(false);
+        tracer = new RequestTracer(config);
+        tracer.init();
+    }
+
+    /**
+     * 模拟一次已进行 elapsedMs 的请求
+     */
+    private void request(String endpoint, long elapsedMs) {
+        RequestTrace trace = tracer.begin(System.nanoTime() - elapsedMs * 1_000_000L, "GET", endpoint);
+        tracer.finish(trace, endpoint, 200, 0, 10);
+    }
+
+    @Test
+    void keepsOnlySlowRequestsInRoundedRing() {
+        request("/fast", 5);
+        for (int i = 1; i <= 5; i++) {
+            request("/slow", 100 + i * 10L);
+        }
+
+        assertEquals(4, tracer.getStats().get("capacity"));
+        assertEquals(6L, tracer.getStats().get("traced"));
+        assertEquals(5L, tracer.getStats().get("recorded"));
+        assertEquals(4L, tracer.getStats().get("retained"));
+
+        List<RequestTraceDTO> slowest = tracer.getSlowest(null, null, 10, null);
+        assertEquals(List.of(4L, 3L, 2L, 1L), slowest.stream().map(RequestTraceDTO::getId).toList());
+        assertTrue(slowest.get(0).getTotalMs() >= 150);
+        assertEquals(2, tracer.getSlowest(null, null, 2, null).size());
+        assertTrue(tracer.getSlowest(null, null, 10, "/fast").isEmpty());
+    }
+
+    @Test
+    void overwrittenTraceIsNotReturned() {
+        for (int i = 0; i < 5; i++) {
+            request("/slow", 150);
+        }
+
+        assertNull(tracer.get(0));
+        assertNull(tracer.get(-1));
+        assertEquals(4L, tracer.get(4).getId());
+        assertNull(tracer.get(8));
+    }
+
+    @Test
+    void recordsSpansAndDropsBeyondLimit() {
+        RequestTrace trace = tracer.begin(System.nanoTime() - 200_000_000L, "GET", "/api/x");
+        tracer.controllerEntered();
+        TraceSpan first = tracer.startSpan("elasticsearch", "/_cluster/health", "es-1");
+        tracer.endSpan(first, 200, 1_000_000L, null);
+        TraceSpan second = tracer.startSpan("kibana", "/api/status", "kb-1");
+        tracer.endSpan(second, 0, 0, new IOException("refused"));
+        assertNull(tracer.startSpan("kibana", "/api/status", "kb-1"));
+        tracer.serializeStarted();
+        tracer.finish(trace, "/api/x", 200, 0, 42);
+
+        RequestTraceDTO dto = tracer.get(0);
+        assertEquals(2, dto.getSpans().size());
+        assertEquals(1, dto.getDroppedSpans());
+        assertEquals("/_cluster/health", dto.getSpans().get(0).getPath());
+        assertEquals(1.0, dto.getSpans().get(0).getDeserializeMs());
+        assertEquals("IOException: refused", dto.getSpans().get(1).getError());
+        assertNotNull(dto.getControllerAtMs());
+        assertNotNull(dto.getSerializeMs());
+        assertEquals(42L, dto.getResponseBytes());
+        assertNull(tracer.getSlowest(null, null, 1, null).get(0).getSpans());
+
+        assertNull(tracer.startSpan("elasticsearch", "/", "es-1"));
+    }
+
+    @Test
+    void disabledTracerRecordsNothing() {
+        config.setEnabled(false);
+
+        assertNull(tracer.begin(System.nanoTime(), "GET", "/api/x"));
+        assertNull(tracer.startSpan("elasticsearch", "/", "es-1"));
+        tracer.finish(null, "/api/x", 200, 0, 0);
+        assertEquals(0L, tracer.getStats().get("traced"));
+    }
+}
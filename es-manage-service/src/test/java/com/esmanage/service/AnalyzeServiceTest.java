@@ -0,0 +1,124 @@
+package com.esmanage.service;
+
+import com.esmanage.client.ElasticsearchClient;
+import com.esmanage.config.AnalyzeConfig;
+import com.esmanage.config.ElasticsearchConfig;
+import com.esmanage.config.KibanaConfig;
+import com.esmanage.config.StandInConfig;
+import com.esmanage.config.TraceConfig;
+import com.esmanage.dto.AnalyzeBatchDTO;
+import com.esmanage.dto.request.AnalyzeBatchRequest;
+import com.esmanage.metrics.MetricsRegistry;
+import com.esmanage.metrics.RequestTracer;
+import com.esmanage.standin.ElasticsearchStandIn;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 批量分析测试：批内去重、结果缓存与过期，使用本地 Elasticsearch 替身
+ */
+class AnalyzeServiceTest {
+
+    private final AnalyzeConfig analyzeConfig = new AnalyzeConfig();
+    private ElasticsearchStandIn standIn;
+    private AnalyzeService analyzeService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        StandInConfig standInConfig = new StandInConfig();
+        standInConfig.getElasticsearch().setPort(0);
+        standInConfig.getElasticsearch().setNodes(1);
+        standInConfig.getElasticsearch().setIndices(1);
+        standIn = new ElasticsearchStandIn(standInConfig);
+        standIn.start();
+
+        ElasticsearchConfig elasticsearchConfig = new ElasticsearchConfig();
+        elasticsearchConfig.setHosts(List.of("http://127.0.0.1:" + standIn.getPort()));
+        RequestTracer requestTracer = new RequestTracer(new TraceConfig());
+        requestTracer.init();
+        ObjectMapper objectMapper = new ObjectMapper();
+        ElasticsearchClient client = new ElasticsearchClient(elasticsearchConfig, new KibanaConfig(), objectMapper,
+                requestTracer);
+        client.init();
+
+        analyzeService = new AnalyzeService(analyzeConfig, client, objectMapper, mock(MetricsRegistry.class));
+        analyzeService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        analyzeService.destroy();
+        standIn.stop();
+    }
+
+    private static AnalyzeBatchRequest request(List<String> texts, String... analyzers) {
+        AnalyzeBatchRequest request = new AnalyzeBatchRequest();
+        request.setTexts(texts);
+        request.setAnalyzers(Arrays.stream(analyzers).map(AnalyzeBatchRequest.AnalyzerSpec::new).toList());
+        return request;
+    }
+
+    @Test
+    void deduplicatesWithinBatchAndCachesResults() throws Exception {
+        AnalyzeBatchDTO first = analyzeService.analyze(
+                request(List.of("Quick Brown Fox", "Quick Brown Fox", "lazy dog"), "standard", "whitespace"));
+
+        assertEquals(4, first.getEsCalls());
+        assertEquals(0, first.getCacheHits());
+        assertEquals(0, first.getErrors());
+        assertEquals(3, first.getResults().size());
+        assertEquals(first.getResults().get(0).getTokens(), first.getResults().get(1).getTokens());
+
+        AnalyzeBatchDTO second = analyzeService.analyze(request(List.of("lazy dog"), "standard", "whitespace"));
+        assertEquals(0, second.getEsCalls());
+        assertEquals(2, second.getCacheHits());
+        assertEquals(first.getResults().get(2).getTokens(), second.getResults().get(0).getTokens());
+    }
+
+    @Test
+    void expiredEntriesAreReloaded() throws Exception {
+        analyzeConfig.setCacheTtlMs(1);
+        analyzeService.analyze(request(List.of("lazy dog"), "standard"));
+        Thread.sleep(5);
+
+        AnalyzeBatchDTO again = analyzeService.analyze(request(List.of("lazy dog"), "standard"));
+
+        assertEquals(1, again.getEsCalls());
+        assertEquals(0, again.getCacheHits());
+    }
+
+    @Test
+    void clearCacheByIndex() throws Exception {
+        analyzeService.analyze(request(List.of("lazy dog"), "standard"));
+
+        assertEquals(0, analyzeService.clearCache("other-index"));
+        assertEquals(1, analyzeService.clearCache(null));
+        assertEquals(0, analyzeService.getStats().get("cacheSize"));
+    }
+
+    @Test
+    void unknownAnalyzerIsReportedPerCellAndNotCached() throws Exception {
+        AnalyzeBatchDTO result = analyzeService.analyze(request(List.of("lazy dog"), "standard", "bogus"));
+
+        assertEquals(1, result.getErrors());
+        assertTrue(result.getResults().get(0).getErrors().containsKey("bogus"));
+        assertEquals(1, analyzeService.getStats().get("cacheSize"));
+    }
+
+    @Test
+    void rejectsOversizedRequests() {
+        analyzeConfig.setMaxTexts(1);
+        assertThrows(IllegalArgumentException.class,
+                () -> analyzeService.analyze(request(List.of("a", "b"), "standard")));
+        assertThrows(IllegalArgumentException.class,
+                () -> analyzeService.analyze(request(List.of(), "standard")));
+    }
+}
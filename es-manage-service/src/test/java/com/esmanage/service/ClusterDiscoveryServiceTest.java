@@ -0,0 +1,30 @@
+package com.esmanage.service;
+
+import com.esmanage.client.KibanaClient;
+import com.esmanage.config.FleetConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 集群 ID 解析测试：ID 拼入 Kibana 接口路径，只接受 UUID 字符
+ */
+class ClusterDiscoveryServiceTest {
+
+    @Test
+    void resolvesOnlyPathSafeClusterIds() {
+        KibanaClient kibanaClient = mock(KibanaClient.class);
+        when(kibanaClient.getClusterId()).thenReturn("Hdv0K2wX_Q4q-8qf");
+        ClusterDiscoveryService service = new ClusterDiscoveryService(kibanaClient, new FleetConfig());
+
+        assertEquals("Hdv0K2wX_Q4q-8qf", service.resolveClusterId(null));
+        assertEquals("Hdv0K2wX_Q4q-8qf", service.resolveClusterId(""));
+        assertEquals("abc-123", service.resolveClusterId("abc-123"));
+        for (String id : List.of("../../api/security", "abc?x=1", "abc/elasticsearch", "abc#", "a b", "%2e%2e")) {
+            assertThrows(IllegalArgumentException.class, () -> service.resolveClusterId(id), id);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.esmanage.service;
+
+import com.esmanage.client.ElasticsearchClient;
+import com.esmanage.config.DevToolsConfig;
+import com.esmanage.config.ElasticsearchConfig;
+import com.esmanage.config.KibanaConfig;
+import com.esmanage.config.StandInConfig;
+import com.esmanage.config.TraceConfig;
+import com.esmanage.dto.DevToolsQueryDTO;
+import com.esmanage.metrics.RequestTracer;
+import com.esmanage.standin.ElasticsearchStandIn;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 控制台代理测试，使用本地 Elasticsearch 替身
+ */
+class DevToolsProxyServiceTest {
+
+    private final DevToolsConfig devToolsConfig = new DevToolsConfig();
+    private ElasticsearchStandIn standIn;
+    private DevToolsProxyService proxyService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        StandInConfig standInConfig = new StandInConfig();
+        standInConfig.getElasticsearch().setPort(0);
+        standInConfig.getElasticsearch().setNodes(1);
+        standInConfig.getElasticsearch().setIndices(2);
+        standIn = new ElasticsearchStandIn(standInConfig);
+        standIn.start();
+
+        ElasticsearchConfig elasticsearchConfig = new ElasticsearchConfig();
+        elasticsearchConfig.setHosts(List.of("http://127.0.0.1:" + standIn.getPort()));
+        RequestTracer requestTracer = new RequestTracer(new TraceConfig());
+        requestTracer.init();
+        ObjectMapper objectMapper = new ObjectMapper();
+        ElasticsearchClient client = new ElasticsearchClient(elasticsearchConfig, new KibanaConfig(), objectMapper,
+                requestTracer);
+        client.init();
+
+        devToolsConfig.setChunkBytes(1024);
+        proxyService = new DevToolsProxyService(devToolsConfig, client, objectMapper,
+                new SlowQueryLeaderboard(devToolsConfig));
+        proxyService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        standIn.stop();
+    }
+
+    private DevToolsQueryDTO last() {
+        return proxyService.getHistory().get(0);
+    }
+
+    @Test
+    void streamsResponse() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        proxyService.proxy("get", "/_search?size=5", new MockHttpServletRequest(), response);
+
+        assertEquals(200, response.getStatus());
+        assertTrue(response.getContentAsString().contains("\"hits\""));
+        assertEquals("completed", last().getOutcome());
+        assertEquals(response.getContentAsByteArray().length, last().getResponseBytes());
+    }
+
+    @Test
+    void truncatesAtResponseCap() throws Exception {
+        devToolsConfig.setMaxResponseBytes(4096);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        proxyService.proxy("GET", "/_search?size=1000", new MockHttpServletRequest(), response);
+
+        assertEquals(4096, response.getContentAsByteArray().length);
+        assertEquals("4096", response.getHeader("X-Proxy-Max-Response-Bytes"));
+        assertEquals("truncated", last().getOutcome());
+    }
+
+    @Test
+    void failedWriteAbortsUpstreamCall() throws Exception {
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        });
+
+        proxyService.proxy("GET", "/_search?size=1000", new MockHttpServletRequest(), response);
+
+        assertEquals("aborted", last().getOutcome());
+        assertEquals(0L, last().getResponseBytes());
+        assertEquals("Broken pipe", last().getError());
+    }
+
+    @Test
+    void rejectsUnsupportedMethodAndPath() {
+        assertThrows(IllegalArgumentException.class, () ->
+                proxyService.proxy("PATCH", "/_search", new MockHttpServletRequest(), new MockHttpServletResponse()));
+        assertThrows(IllegalArgumentException.class, () ->
+                proxyService.proxy("GET", "//evil", new MockHttpServletRequest(), new MockHttpServletResponse()));
+    }
+}
@@ -0,0 +1,100 @@
+package com.esmanage.service;
+
+import com.esmanage.config.FleetConfig;
+import com.esmanage.dto.FleetOverviewDTO;
+import com.esmanage.dto.MonitoringOverviewDTO;
+import com.esmanage.dto.request.TimeRangeRequest;
+import com.esmanage.metrics.MetricsRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class FleetServiceTest {
+
+    private final ElasticsearchMonitorService monitorService = mock(ElasticsearchMonitorService.class);
+    private final ClusterDiscoveryService discoveryService = mock(ClusterDiscoveryService.class);
+    private final FleetConfig config = new FleetConfig();
+    private FleetService fleetService;
+
+    @BeforeEach
+    void setUp() {
+        config.setMaxConcurrency(2);
+        config.setClusterTimeoutMs(10_000);
+        config.setTotalTimeoutMs(200);
+        fleetService = new FleetService(monitorService, discoveryService, config, mock(MetricsRegistry.class));
+        fleetService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        fleetService.destroy();
+    }
+
+    @Test
+    void rejectsUnknownSortFieldAndOrder() throws Exception {
+        assertThrows(IllegalArgumentException.class,
+                () -> fleetService.getFleetOverview(new TimeRangeRequest(), "bogus", "asc"));
+        assertThrows(IllegalArgumentException.class,
+                () -> fleetService.getFleetOverview(new TimeRangeRequest(), "name", "sideways"));
+        verify(discoveryService, never()).getClusterIds();
+    }
+
+    @Test
+    void collectsOnFleetExecutorAndSortsRows() throws Exception {
+        when(discoveryService.getClusterIds()).thenReturn(List.of("a", "b"));
+        when(monitorService.getMonitoringOverviewAsync(eq("a"), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(overview("alpha", "green")));
+        when(monitorService.getMonitoringOverviewAsync(eq("b"), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(overview("beta", "red")));
+
+        FleetOverviewDTO fleet = fleetService.getFleetOverview(new TimeRangeRequest(), "status", "asc");
+
+        assertEquals(List.of("b", "a"), fleet.getClusters().stream().map(FleetOverviewDTO.ClusterRow::getClusterId).toList());
+        assertEquals(1, fleet.getGreen());
+        assertEquals(1, fleet.getRed());
+        verify(monitorService, times(2)).getMonitoringOverviewAsync(any(), any(), any(), notNull());
+    }
+
+    @Test
+    void capsTotalWaitAndCancelsSlowClusters() throws Exception {
+        List<CompletableFuture<MonitoringOverviewDTO>> pending = new ArrayList<>();
+        when(discoveryService.getClusterIds()).thenReturn(List.of("a", "b", "c", "d", "e"));
+        when(monitorService.getMonitoringOverviewAsync(any(), any(), any(), any())).thenAnswer(invocation -> {
+            CompletableFuture<MonitoringOverviewDTO> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        });
+
+        long start = System.currentTimeMillis();
+        FleetOverviewDTO fleet = fleetService.getFleetOverview(new TimeRangeRequest(), null, null);
+
+        assertTrue(System.currentTimeMillis() - start < 5_000);
+        assertEquals(5, fleet.getFailed());
+        assertEquals("timeout", fleet.getClusters().get(0).getError());
+        assertTrue(pending.stream().allMatch(CompletableFuture::isCancelled));
+    }
+
+    private MonitoringOverviewDTO overview(String name, String status) {
+        MonitoringOverviewDTO overview = new MonitoringOverviewDTO();
+        MonitoringOverviewDTO.ClusterInfo cluster = new MonitoringOverviewDTO.ClusterInfo();
+        cluster.setName(name);
+        cluster.setStatus(status);
+        overview.setCluster(cluster);
+        overview.setNodes(new MonitoringOverviewDTO.NodesInfo());
+        overview.setIndices(new MonitoringOverviewDTO.IndicesInfo());
+        overview.setShards(new MonitoringOverviewDTO.ShardsInfo());
+        overview.setJvm(new MonitoringOverviewDTO.JvmInfo());
+        overview.setOs(new MonitoringOverviewDTO.OsInfo());
+        overview.setFs(new MonitoringOverviewDTO.FsInfo());
+        return overview;
+    }
+}
@@ -0,0 +1,122 @@
+package com.esmanage.service;
+
+import com.esmanage.client.ElasticsearchClient;
+import com.esmanage.config.ElasticsearchConfig;
+import com.esmanage.config.KibanaConfig;
+import com.esmanage.config.MonitorConfig;
+import com.esmanage.config.StandInConfig;
+import com.esmanage.config.TraceConfig;
+import com.esmanage.dto.NodeRatesDTO;
+import com.esmanage.dto.NodeStatsDTO;
+import com.esmanage.metrics.RequestTracer;
+import com.esmanage.standin.ElasticsearchStandIn;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 节点统计采集测试，使用本地 Elasticsearch 替身
+ */
+class NodeStatsCollectorTest {
+
+    private static final String CLUSTER_ID = "standin-cluster";
+
+    private final ForecastService forecastService = mock(ForecastService.class);
+    private ElasticsearchStandIn standIn;
+    private NodeStatsCollector collector;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        StandInConfig standInConfig = new StandInConfig();
+        standInConfig.getElasticsearch().setPort(0);
+        standInConfig.getElasticsearch().setNodes(3);
+        standInConfig.getElasticsearch().setIndices(4);
+        standIn = new ElasticsearchStandIn(standInConfig);
+        standIn.start();
+
+        ElasticsearchConfig elasticsearchConfig = new ElasticsearchConfig();
+        elasticsearchConfig.setHosts(List.of("http://127.0.0.1:" + standIn.getPort()));
+        KibanaConfig kibanaConfig = new KibanaConfig();
+        kibanaConfig.setClusterId(CLUSTER_ID);
+        RequestTracer requestTracer = new RequestTracer(new TraceConfig());
+        requestTracer.init();
+        ObjectMapper objectMapper = new ObjectMapper();
+        ElasticsearchClient client = new ElasticsearchClient(elasticsearchConfig, kibanaConfig, objectMapper,
+                requestTracer);
+        client.init();
+
+        collector = new NodeStatsCollector(client, new MonitorConfig(), objectMapper, forecastService);
+        collector.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        standIn.stop();
+    }
+
+    @Test
+    void collectsThreadPoolsAndBreakersForAllNodes() throws Exception {
+        assertFalse(collector.isCollected(CLUSTER_ID));
+
+        Map<String, NodeStatsDTO> nodes = collector.collect(null);
+
+        assertEquals(3, nodes.size());
+        assertTrue(collector.isCollected(CLUSTER_ID));
+        NodeStatsDTO node = nodes.values().iterator().next();
+        assertNotNull(node.getUuid());
+        assertTrue(node.getIsOnline());
+        assertFalse(node.getThreadPool().isEmpty());
+        assertFalse(node.getBreakers().isEmpty());
+        assertSame(node, collector.getNodeStats(CLUSTER_ID, node.getName()));
+        verify(forecastService).observeNodeStats(eq(CLUSTER_ID), any(), anyLong());
+    }
+
+    @Test
+    void ratesNeedTwoSamples() throws Exception {
+        collector.collect(CLUSTER_ID);
+        String nodeId = collector.getNodeStats(CLUSTER_ID).get(0).getUuid();
+        assertNull(collector.getNodeRates(CLUSTER_ID, nodeId, 0).getRejectionsPerSec());
+
+        Thread.sleep(20);
+        collector.collect(CLUSTER_ID);
+
+        List<NodeRatesDTO> rates = collector.getNodeRates(CLUSTER_ID, 0);
+        assertEquals(3, rates.size());
+        NodeRatesDTO first = rates.get(0);
+        assertTrue(first.getThreadPoolRejectionsPerSec().containsKey("search"));
+        assertTrue(rates.stream().allMatch(r -> r.getGcCountPerSec() == null || r.getGcCountPerSec() >= 0));
+        assertNull(collector.getNodeRates(CLUSTER_ID, "missing", 0));
+    }
+
+    @Test
+    void sampleRingBufferRates() {
+        SampleRingBuffer buffer = new SampleRingBuffer(3, 1);
+        assertTrue(Double.isNaN(buffer.lastRate(0)));
+
+        buffer.add(1000, new double[]{10});
+        buffer.add(2000, new double[]{20});
+        assertEquals(10, buffer.lastRate(0), 1e-9);
+
+        buffer.add(3000, new double[]{40});
+        buffer.add(4000, new double[]{70});
+        assertEquals(3, buffer.size());
+        // 最旧的采样已被覆盖，窗口从 2000 开始
+        assertEquals(25, buffer.windowRate(0, 10_000), 1e-9);
+
+        // 计数器重置
+        buffer.add(5000, new double[]{5});
+        assertTrue(Double.isNaN(buffer.lastRate(0)));
+        assertEquals(1, buffer.rateSeries(0, 0, Long.MAX_VALUE).size());
+    }
+}
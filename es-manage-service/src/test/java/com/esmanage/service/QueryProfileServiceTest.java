@@ -0,0 +1,32 @@
+package com.esmanage.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryProfileServiceTest {
+
+    private static String truncate(String text, int maxBytes) {
+        return QueryProfileService.truncateUtf8(text.getBytes(StandardCharsets.UTF_8), maxBytes);
+    }
+
+    @Test
+    void truncatesAsciiAtLimit() {
+        assertEquals("{\"q", truncate("{\"query\":{}}", 3));
+        assertEquals("{}", truncate("{}", 10));
+    }
+
+    @Test
+    void backsOffToCharacterBoundary() {
+        // "节点" 每个字符 3 个字节
+        assertEquals("a", truncate("a节点", 2));
+        assertEquals("a", truncate("a节点", 3));
+        assertEquals("a节", truncate("a节点", 4));
+        assertEquals("a节", truncate("a节点", 6));
+        // 4 字节的补充平面字符
+        assertEquals("", truncate("😀x", 3));
+        assertEquals("😀", truncate("😀x", 4));
+    }
+}
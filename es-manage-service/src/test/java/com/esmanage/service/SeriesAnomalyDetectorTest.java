@@ -0,0 +1,51 @@
+package com.esmanage.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeriesAnomalyDetectorTest {
+
+    private static SeriesAnomalyDetector detector(int maxSeries) {
+        return new SeriesAnomalyDetector(0.1, 0.3, 0.05, 0.2, 86_400_000L, 24, 5, 16, maxSeries);
+    }
+
+    @Test
+    void flagsSpikeAfterWarmup() {
+        SeriesAnomalyDetector detector = detector(4);
+        int id = detector.seriesId("node:a|live|cpu_percent");
+        for (int i = 0; i < 30; i++) {
+            detector.observe(id, i * 1000L, 50 + (i % 2));
+        }
+        assertTrue(Math.abs(detector.lastScore(id)) < 3);
+
+        assertTrue(detector.observe(id, 30_000L, 95) > 5);
+        assertTrue(Double.isNaN(detector.observe(id, 30_000L, 50)));
+        assertEquals(1, detector.getOutOfOrderCount());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedSeriesWhenFull() {
+        SeriesAnomalyDetector detector = detector(2);
+        int a = detector.seriesId("a");
+        int b = detector.seriesId("b");
+        detector.observe(b, 1000L, 1);
+        assertEquals(a, detector.seriesId("a"));
+
+        int c = detector.seriesId("c");
+
+        assertEquals(b, c);
+        assertEquals(-1, detector.findSeries("b"));
+        assertEquals(a, detector.findSeries("a"));
+        assertEquals(2, detector.getSeriesCount());
+        assertEquals(1, detector.getEvictedCount());
+        // 复用的 ID 状态已清空，可以接收更早的样本
+        assertEquals(0, detector.observe(c, 500L, 1));
+        assertEquals(1, detector.scores(c, 0, Long.MAX_VALUE).size());
+    }
+
+    @Test
+    void zeroLimitDisablesSeries() {
+        assertEquals(-1, detector(0).seriesId("a"));
+    }
+}
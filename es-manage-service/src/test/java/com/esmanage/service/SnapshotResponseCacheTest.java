@@ -0,0 +1,102 @@
+package com.esmanage.service;
+
+import com.esmanage.config.MonitorConfig;
+import com.esmanage.metrics.MetricsRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class SnapshotResponseCacheTest {
+
+    private final MonitorConfig monitorConfig = new MonitorConfig();
+    private final AtomicInteger loads = new AtomicInteger();
+    private SnapshotResponseCache cache;
+    private Object value = Map.of("status", "green");
+
+    @BeforeEach
+    void setUp() {
+        monitorConfig.getResponseCache().setTtlMs(60_000);
+        cache = new SnapshotResponseCache(new ObjectMapper(), monitorConfig, mock(MetricsRegistry.class));
+    }
+
+    private Object load() {
+        loads.incrementAndGet();
+        return value;
+    }
+
+    @Test
+    void servesCachedBytesWithinTtl() throws Exception {
+        SnapshotResponseCache.Snapshot first = cache.getSnapshot("overview", this::load);
+        SnapshotResponseCache.Snapshot second = cache.getSnapshot("overview", this::load);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHitCount().get());
+        assertEquals(1, cache.getMissCount().get());
+        assertEquals("{\"status\":\"green\"}", new String(first.getPlain()));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(first.getGzip()))) {
+            assertArrayEquals(first.getPlain(), in.readAllBytes());
+        }
+    }
+
+    @Test
+    void expiredSnapshotKeepsVersionWhenContentIsUnchanged() throws Exception {
+        monitorConfig.getResponseCache().setTtlMs(0);
+        SnapshotResponseCache.Snapshot first = cache.getSnapshot("overview", this::load);
+        SnapshotResponseCache.Snapshot same = cache.getSnapshot("overview", this::load);
+        value = Map.of("status", "red");
+        SnapshotResponseCache.Snapshot changed = cache.getSnapshot("overview", this::load);
+
+        assertEquals(3, loads.get());
+        assertEquals(first.getEtag(), same.getEtag());
+        assertNotEquals(first.getEtag(), changed.getEtag());
+    }
+
+    @Test
+    void writesGzipAndAnswersIfNoneMatchWith304() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Accept-Encoding", "gzip, deflate");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        cache.write("overview", request, response, this::load);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        String etag = response.getHeader("ETag");
+        assertTrue(etag.endsWith("-gz\""));
+
+        MockHttpServletRequest conditional = new MockHttpServletRequest();
+        conditional.addHeader("If-None-Match", "W/" + etag);
+        MockHttpServletResponse notModified = new MockHttpServletResponse();
+        cache.write("overview", conditional, notModified, this::load);
+
+        assertEquals(304, notModified.getStatus());
+        assertEquals(0, notModified.getContentAsByteArray().length);
+        assertEquals(1, cache.getNotModifiedCount().get());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBeyondMaxEntries() throws Exception {
+        monitorConfig.getResponseCache().setMaxEntries(2);
+        cache.getSnapshot("a", this::load);
+        cache.getSnapshot("b", this::load);
+        cache.getSnapshot("a", this::load);
+        cache.getSnapshot("c", this::load);
+
+        assertEquals(2, cache.size());
+        cache.getSnapshot("a", this::load);
+        assertEquals(3, loads.get());
+        cache.getSnapshot("b", this::load);
+        assertEquals(4, loads.get());
+    }
+}
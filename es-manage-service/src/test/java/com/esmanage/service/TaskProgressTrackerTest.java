@@ -0,0 +1,101 @@
+package com.esmanage.service;
+
+import com.esmanage.client.ElasticsearchClient;
+import com.esmanage.config.ElasticsearchConfig;
+import com.esmanage.config.KibanaConfig;
+import com.esmanage.config.MonitorConfig;
+import com.esmanage.config.StandInConfig;
+import com.esmanage.config.TraceConfig;
+import com.esmanage.dto.TaskProgressDTO;
+import com.esmanage.metrics.RequestTracer;
+import com.esmanage.standin.ElasticsearchStandIn;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.RequestBody;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 任务进度跟踪测试，使用本地 Elasticsearch 替身
+ */
+class TaskProgressTrackerTest {
+
+    private ElasticsearchStandIn standIn;
+    private ElasticsearchClient client;
+    private TaskProgressTracker tracker;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        StandInConfig standInConfig = new StandInConfig();
+        standInConfig.getElasticsearch().setPort(0);
+        standInConfig.getElasticsearch().setNodes(1);
+        standInConfig.getElasticsearch().setIndices(2);
+        standIn = new ElasticsearchStandIn(standInConfig);
+        standIn.start();
+
+        ElasticsearchConfig elasticsearchConfig = new ElasticsearchConfig();
+        elasticsearchConfig.setHosts(List.of("http://127.0.0.1:" + standIn.getPort()));
+        RequestTracer requestTracer = new RequestTracer(new TraceConfig());
+        requestTracer.init();
+        ObjectMapper objectMapper = new ObjectMapper();
+        client = new ElasticsearchClient(elasticsearchConfig, new KibanaConfig(), objectMapper, requestTracer);
+        client.init();
+
+        MonitorConfig monitorConfig = new MonitorConfig();
+        monitorConfig.getTasks().setAutoTrack(false);
+        tracker = new TaskProgressTracker(client, monitorConfig, objectMapper);
+    }
+
+    @AfterEach
+    void tearDown() {
+        standIn.stop();
+    }
+
+    private static TaskProgressDTO only(List<TaskProgressDTO> tasks) {
+        assertEquals(1, tasks.size());
+        return tasks.get(0);
+    }
+
+    @Test
+    void taskWithoutStoredResultCompletesOn404() throws Exception {
+        tracker.track("stand-in:999", "gone");
+        tracker.poll();
+
+        Map<String, List<TaskProgressDTO>> tasks = tracker.getTasks();
+        assertTrue(tasks.get("active").isEmpty());
+        assertEquals("completed", only(tasks.get("history")).getStatus());
+    }
+
+    @Test
+    void runningTaskStaysTrackedUntilItsResultIsCompleted() throws Exception {
+        String path = "/_reindex?wait_for_completion=false";
+        JsonNode submitted = client.execute(client.newRequest(path).post(RequestBody.create(new byte[0])).build(),
+                path, parser -> new ObjectMapper().<JsonNode>readTree(parser));
+        String taskId = submitted.path("task").asText();
+        tracker.track(taskId, "reindex");
+
+        tracker.poll();
+        assertEquals("running", only(tracker.getTasks().get("active")).getStatus());
+
+        tracker.cancel(taskId);
+        tracker.poll();
+        Map<String, List<TaskProgressDTO>> tasks = tracker.getTasks();
+        assertTrue(tasks.get("active").isEmpty());
+        assertEquals("cancelled", only(tasks.get("history")).getStatus());
+    }
+
+    @Test
+    void rejectsMalformedTaskIds() {
+        for (String taskId : new String[]{null, "", "abc", "node:", ":1", "node:1x", "x/_close?:1", "a:b:1"}) {
+            assertThrows(IllegalArgumentException.class, () -> tracker.track(taskId, null), String.valueOf(taskId));
+        }
+        assertThrows(IllegalArgumentException.class, () -> tracker.cancel("n/../_cluster:1"));
+        assertEquals("oTUltX4IQMOUUVeiohTt8A:124", tracker.track("oTUltX4IQMOUUVeiohTt8A:124", null).getTaskId());
+    }
+}
@@ -0,0 +1,60 @@
+package com.esmanage.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrendForecasterTest {
+
+    private static final long HOUR_MS = 3600_000L;
+    private static final long MINUTE_MS = 60_000L;
+
+    private final TrendForecaster forecaster = new TrendForecaster(24 * HOUR_MS, MINUTE_MS, 3, 4);
+
+    @Test
+    void fitsLinearTrendAndForecastsThreshold() {
+        int series = forecaster.seriesId("node-1/disk_used");
+        // 每 10 分钟一个样本，每小时上升 2 个百分点
+        for (int i = 0; i <= 60; i++) {
+            forecaster.observe(series, i * 10 * MINUTE_MS, 50 + i * 2.0 / 6);
+        }
+
+        assertEquals(2, forecaster.slope(series), 1e-6);
+        assertEquals(70, forecaster.fitted(series), 1e-6);
+        assertEquals(10, forecaster.hoursUntil(series, 90, true), 1e-6);
+        assertEquals(0, forecaster.hoursUntil(series, 60, true));
+        assertEquals(Double.POSITIVE_INFINITY, forecaster.hoursUntil(series, 10, false));
+    }
+
+    @Test
+    void outliersAreDownWeighted() {
+        int series = forecaster.seriesId("node-1/heap");
+        for (int i = 0; i <= 60; i++) {
+            double value = i == 30 ? 99 : 40;
+            forecaster.observe(series, i * 10 * MINUTE_MS, value);
+        }
+
+        assertEquals(0, forecaster.slope(series), 0.05);
+        assertEquals(40, forecaster.fitted(series), 0.5);
+    }
+
+    @Test
+    void ignoresSamplesWithinMinIntervalAndInvalidValues() {
+        int series = forecaster.seriesId("node-1/disk_free");
+        assertTrue(forecaster.observe(series, 0, 100));
+        assertFalse(forecaster.observe(series, 30_000, 99));
+        assertFalse(forecaster.observe(series, 2 * MINUTE_MS, Double.NaN));
+        assertEquals(1, forecaster.samples(series));
+        assertEquals(0, forecaster.slope(series));
+    }
+
+    @Test
+    void seriesLimit() {
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, forecaster.seriesId("s" + i));
+        }
+        assertEquals(-1, forecaster.seriesId("s4"));
+        assertEquals(2, forecaster.findSeries("s2"));
+        assertEquals(-1, forecaster.findSeries("s4"));
+    }
+}
@@ -0,0 +1,149 @@
+package com.esmanage.service.alert;
+
+import com.esmanage.dto.AlertRecordDTO;
+import com.esmanage.dto.AlertRuleDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AlertEngineTest {
+
+    private final AlertRuleService ruleService = mock(AlertRuleService.class);
+    private final List<AlertRecordDTO> published = new ArrayList<>();
+    private final List<AlertRuleDTO> rules = new ArrayList<>();
+    private long version = 1;
+    private AlertEngine engine;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(ruleService.getVersion()).thenAnswer(invocation -> version);
+        when(ruleService.getRules()).thenAnswer(invocation -> new ArrayList<>(rules));
+        ObjectProvider<AlertEventListener> listeners = mock(ObjectProvider.class);
+        AlertEventListener listener = published::addAll;
+        when(listeners.orderedStream()).thenAnswer(invocation -> Stream.of(listener));
+        engine = new AlertEngine(ruleService, listeners);
+    }
+
+    private AlertRuleDTO rule(String id, String metric, String operator, double threshold, long durationSec) {
+        AlertRuleDTO rule = new AlertRuleDTO();
+        rule.setId(id);
+        rule.setName("rule " + id);
+        rule.setEnabled(true);
+        rule.setMetric(metric);
+        rule.setOperator(operator);
+        rule.setThreshold(threshold);
+        rule.setDuration(durationSec);
+        rule.setSeverity("warning");
+        rules.add(rule);
+        version++;
+        return rule;
+    }
+
+    /** 批次时间，0 在引擎中表示“未设置” */
+    private static final long T0 = 1_700_000_000_000L;
+
+    private List<AlertRecordDTO> cpu(long offsetMs, String node, double value) {
+        MetricSampleBatch batch = new MetricSampleBatch(T0 + offsetMs);
+        batch.add(AlertMetric.NODE_CPU, node, value);
+        return engine.evaluate(batch);
+    }
+
+    @Test
+    void firesAfterDurationAndResolvesWhenConditionClears() {
+        rule("r1", "node_cpu", "gt", 90, 30);
+
+        assertTrue(cpu(1_000, "node-1", 95).isEmpty());
+        assertTrue(cpu(20_000, "node-1", 96).isEmpty());
+        List<AlertRecordDTO> fired = cpu(31_000, "node-1", 97);
+        assertEquals(1, fired.size());
+        assertEquals("firing", fired.get(0).getStatus());
+        assertEquals("node-1", fired.get(0).getTarget());
+        assertEquals(1, engine.getActiveAlerts().size());
+
+        assertTrue(cpu(40_000, "node-1", 98).isEmpty());
+        List<AlertRecordDTO> resolved = cpu(50_000, "node-1", 50);
+        assertEquals("resolved", resolved.get(0).getStatus());
+        assertTrue(engine.getActiveAlerts().isEmpty());
+        assertEquals(2, published.size());
+    }
+
+    @Test
+    void conditionBreakResetsPendingDuration() {
+        rule("r1", "node_cpu", "gt", 90, 30);
+
+        cpu(0, "node-1", 95);
+        cpu(20_000, "node-1", 10);
+        assertTrue(cpu(40_000, "node-1", 95).isEmpty());
+        assertEquals(1, cpu(70_000, "node-1", 95).size());
+    }
+
+    @Test
+    void targetsLimitEvaluatedEntities() {
+        AlertRuleDTO rule = rule("r1", "node_cpu", "gte", 90, 0);
+        rule.setTargets(List.of("node-2"));
+
+        MetricSampleBatch batch = new MetricSampleBatch(T0);
+        batch.add(AlertMetric.NODE_CPU, "node-1", 99);
+        batch.add(AlertMetric.NODE_CPU, "node-2", 99);
+        List<AlertRecordDTO> events = engine.evaluate(batch);
+
+        assertEquals(1, events.size());
+        assertEquals("node-2", events.get(0).getTarget());
+    }
+
+    @Test
+    void missingEntityResolvesItsAlert() {
+        rule("r1", "node_cpu", "gt", 90, 0);
+        cpu(1_000, "node-1", 95);
+
+        List<AlertRecordDTO> events = cpu(2_000, "node-2", 10);
+
+        assertEquals(1, events.size());
+        assertEquals("resolved", events.get(0).getStatus());
+        assertEquals("node-1", events.get(0).getTarget());
+    }
+
+    @Test
+    void cooldownSuppressesRefiring() {
+        AlertRuleDTO rule = rule("r1", "node_cpu", "gt", 90, 0);
+        rule.setCooldown(60L);
+
+        assertEquals(1, cpu(0, "node-1", 95).size());
+        assertEquals(1, cpu(10_000, "node-1", 10).size());
+        assertTrue(cpu(20_000, "node-1", 95).isEmpty());
+        assertEquals(1, cpu(60_000, "node-1", 95).size());
+    }
+
+    @Test
+    void changedRuleResolvesFiringAlerts() {
+        rule("r1", "node_cpu", "gt", 90, 0);
+        cpu(1_000, "node-1", 95);
+
+        rules.clear();
+        version++;
+        List<AlertRecordDTO> events = cpu(2_000, "node-1", 95);
+
+        assertEquals(1, events.size());
+        assertEquals("resolved", events.get(0).getStatus());
+        assertEquals(0, engine.getStats().get("firing"));
+    }
+
+    @Test
+    void disabledAndUnknownRulesAreSkipped() {
+        rule("r1", "node_cpu", "gt", 90, 0).setEnabled(false);
+        rule("r2", "bogus", "gt", 90, 0);
+
+        assertTrue(cpu(1_000, "node-1", 95).isEmpty());
+        assertFalse(engine.hasRules(AlertMetric.NODE_CPU));
+        assertEquals(0, engine.getStats().get("rules"));
+    }
+}
@@ -0,0 +1,146 @@
+package com.esmanage.service.alert;
+
+import com.esmanage.config.AlertConfig;
+import com.esmanage.dto.AlertRecordDTO;
+import com.esmanage.dto.AlertRecordPageDTO;
+import com.esmanage.dto.request.AlertRecordQuery;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 告警记录存储测试，重点覆盖过期清理与段压缩
+ */
+class AlertRecordStoreTest {
+
+    private static final long DAY_MS = 24 * 3600_000L;
+
+    @TempDir
+    Path dataDir;
+
+    private AlertConfig alertConfig;
+
+    @BeforeEach
+    void setUp() {
+        alertConfig = new AlertConfig();
+        alertConfig.setDataDir(dataDir.toString());
+        alertConfig.getRecords().setSegmentBytes(8 * 1024);
+        alertConfig.getRecords().setRetentionDays(7);
+        alertConfig.getRecords().setForceOnWrite(false);
+    }
+
+    private AlertRecordStore open() throws Exception {
+        AlertRecordStore store = new AlertRecordStore(alertConfig, new ObjectMapper());
+        store.init();
+        return store;
+    }
+
+    private static AlertRecordDTO record(String id, String ruleId, String status, long firedAt) {
+        AlertRecordDTO record = new AlertRecordDTO();
+        record.setId(id);
+        record.setRuleId(ruleId);
+        record.setMetric("cpu_percent");
+        record.setSeverity("warning");
+        record.setStatus(status);
+        record.setTarget("node-" + id);
+        record.setFiredAt(firedAt);
+        if ("resolved".equals(status)) {
+            record.setResolvedAt(firedAt + 60_000);
+        }
+        return record;
+    }
+
+    private static long segmentFiles(Path dir) throws Exception {
+        try (Stream<Path> files = Files.list(dir.resolve("records"))) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void compactReclaimsExpiredSlotsAndIndexes() throws Exception {
+        AlertRecordStore store = open();
+        long now = System.currentTimeMillis();
+        List<AlertRecordDTO> events = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            events.add(record("old-" + i, "rule-old-" + (i % 5), "resolved", now - 30 * DAY_MS + i * 3600_000L));
+        }
+        for (int i = 0; i < 20; i++) {
+            events.add(record("new-" + i, "rule-new", "firing", now - i * 1000L));
+        }
+        store.onAlertEvents(events);
+        long filesBefore = segmentFiles(dataDir);
+        assertTrue(filesBefore > 1);
+
+        Map<String, Object> result = store.compact();
+        assertEquals(200, result.get("expired"));
+
+        Map<String, Object> stats = store.getStats();
+        assertEquals(20, stats.get("records"));
+        assertEquals(20, stats.get("slots"));
+        assertEquals(1, stats.get("rules"));
+        assertEquals(20, stats.get("targets"));
+        assertTrue((Integer) stats.get("hourBuckets") <= 2);
+        assertTrue(segmentFiles(dataDir) < filesBefore);
+
+        AlertRecordQuery query = new AlertRecordQuery();
+        query.setRuleId("rule-new");
+        query.setPageSize(50);
+        AlertRecordPageDTO page = store.query(query);
+        assertEquals(20, page.getTotal());
+        // 写入顺序倒序
+        assertEquals("new-19", page.getRecords().get(0).getId());
+        assertEquals("new-0", page.getRecords().get(19).getId());
+
+        query.setRuleId("rule-old-1");
+        assertEquals(0, store.query(query).getTotal());
+        assertNull(store.getRecord("old-1"));
+        assertEquals("firing", store.getRecord("new-3").getStatus());
+    }
+
+    @Test
+    void recordsSurviveCompactionAndReload() throws Exception {
+        AlertRecordStore store = open();
+        long now = System.currentTimeMillis();
+        List<AlertRecordDTO> events = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            events.add(record("r-" + i, "rule", "firing", now - 1000L * i));
+        }
+        store.onAlertEvents(events);
+        // 每条记录再写一次快照，使旧段全部失效
+        for (AlertRecordDTO event : events) {
+            event.setStatus("resolved");
+            event.setResolvedAt(now);
+        }
+        store.onAlertEvents(events);
+        store.compact();
+        store.acknowledge("r-0", "tester");
+
+        AlertRecordStore reopened = open();
+        AlertRecordQuery query = new AlertRecordQuery();
+        query.setStatus("resolved");
+        query.setPageSize(200);
+        assertEquals(100, reopened.query(query).getTotal());
+        assertEquals("resolved", reopened.getRecord("r-42").getStatus());
+    }
+
+    @Test
+    void unknownStatusIsSkippedNotStoredAsFiring() throws Exception {
+        AlertRecordStore store = open();
+        long now = System.currentTimeMillis();
+        store.onAlertEvents(List.of(record("bad", "rule-1", "bogus", now), record("good", "rule-1", "firing", now)));
+
+        assertNull(store.getRecord("bad"));
+        assertEquals("firing", store.getRecord("good").getStatus());
+        assertEquals(1, store.getActiveRecords().size());
+    }
+}
@@ -0,0 +1,103 @@
+package com.esmanage.service.alert;
+
+import com.esmanage.config.AlertConfig;
+import com.esmanage.dto.AlertRecordDTO;
+import com.esmanage.dto.AlertStatisticsDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 告警统计测试：计数由记录变更增量维护，注册时回放已有记录
+ */
+class AlertStatisticsServiceTest {
+
+    private static final long HOUR_MS = 3600_000L;
+    private static final long DAY_MS = 24 * HOUR_MS;
+
+    @TempDir
+    Path dataDir;
+
+    private AlertRecordStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AlertConfig alertConfig = new AlertConfig();
+        alertConfig.setDataDir(dataDir.toString());
+        alertConfig.getRecords().setForceOnWrite(false);
+        store = new AlertRecordStore(alertConfig, new ObjectMapper());
+        store.init();
+    }
+
+    private AlertStatisticsService statistics() {
+        AlertStatisticsService service = new AlertStatisticsService(store);
+        service.init();
+        return service;
+    }
+
+    private static AlertRecordDTO record(String id, String ruleId, String metric, String severity, String status,
+                                         long firedAt) {
+        AlertRecordDTO record = new AlertRecordDTO();
+        record.setId(id);
+        record.setRuleId(ruleId);
+        record.setMetric(metric);
+        record.setSeverity(severity);
+        record.setStatus(status);
+        record.setTarget("node-" + id);
+        record.setFiredAt(firedAt);
+        return record;
+    }
+
+    @Test
+    void replaysExistingRecordsAndTracksStatusChanges() throws Exception {
+        long now = System.currentTimeMillis();
+        store.onAlertEvents(List.of(
+                record("a", "rule-1", "node_cpu", "critical", "firing", now),
+                record("b", "rule-1", "node_cpu", "warning", "firing", now - 2 * HOUR_MS),
+                record("c", "rule-2", "node_heap", "info", "firing", now - 2 * DAY_MS)));
+        AlertStatisticsService service = statistics();
+
+        AlertStatisticsDTO stats = service.getStatistics(24, 7);
+        assertEquals(3, stats.getTotal());
+        assertEquals(3, stats.getFiring());
+        assertEquals(2, stats.getByMetric().get("node_cpu"));
+        assertEquals(1, stats.getBySeverity().get("critical"));
+        assertEquals(2, stats.getByRule().get("rule-1").getTotal());
+
+        AlertRecordDTO resolved = record("a", "rule-1", "node_cpu", "critical", "resolved", now);
+        resolved.setResolvedAt(now);
+        store.onAlertEvents(List.of(resolved));
+        store.acknowledge("b", "ops");
+
+        stats = service.getStatistics(24, 7);
+        assertEquals(3, stats.getTotal());
+        assertEquals(1, stats.getFiring());
+        assertEquals(1, stats.getResolved());
+        assertEquals(1, stats.getAcknowledged());
+        assertEquals(1, stats.getByRule().get("rule-1").getResolved());
+    }
+
+    @Test
+    void trendsBucketByFiredTime() throws Exception {
+        long now = System.currentTimeMillis();
+        store.onAlertEvents(List.of(
+                record("a", "rule-1", "node_cpu", "warning", "firing", now),
+                record("b", "rule-1", "node_cpu", "warning", "firing", now),
+                record("c", "rule-1", "node_cpu", "warning", "firing", now - 3 * HOUR_MS)));
+        AlertStatisticsDTO stats = statistics().getStatistics(6, 3);
+
+        List<AlertStatisticsDTO.TrendPoint> hourly = stats.getRecentTrend();
+        assertEquals(6, hourly.size());
+        assertEquals(2, hourly.get(5).getCount());
+        assertEquals(1, hourly.get(2).getCount());
+        assertEquals(3, stats.getDailyTrend().size());
+        // 3 小时前可能跨天，但都在最近 3 天内
+        assertEquals(3, stats.getDailyTrend().stream().mapToLong(AlertStatisticsDTO.TrendPoint::getCount).sum());
+    }
+}
@@ -0,0 +1,177 @@
+package com.esmanage.service.approval;
+
+import com.esmanage.config.ApprovalConfig;
+import com.esmanage.dto.ApprovalRequestDTO;
+import com.esmanage.dto.WorkflowExecutionDTO;
+import com.esmanage.dto.request.WorkflowRunRequest;
+import com.esmanage.metrics.MetricsRegistry;
+import com.esmanage.service.workflow.WorkflowEngine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 审批执行队列测试：优先级与容量、操作流结束回写、启动恢复
+ */
+class ApprovalExecutionQueueTest {
+
+    @TempDir
+    Path dataDir;
+
+    private ApprovalConfig approvalConfig;
+    private ApprovalStore approvalStore;
+    private WorkflowEngine workflowEngine;
+    private ApprovalExecutionQueue executionQueue;
+    /** 按启动顺序记录的申请 ID */
+    private final List<String> started = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        approvalConfig = new ApprovalConfig();
+        approvalConfig.setDataDir(dataDir.toString());
+        approvalConfig.setSegmentBytes(1024 * 1024);
+        approvalConfig.setForceOnWrite(false);
+        approvalConfig.getQueue().setMaxConcurrent(1);
+        approvalConfig.getQueue().setCapacity(2);
+        approvalStore = new ApprovalStore(approvalConfig, new ObjectMapper());
+        approvalStore.init();
+
+        workflowEngine = mock(WorkflowEngine.class);
+        when(workflowEngine.start(any())).thenAnswer(invocation -> {
+            WorkflowRunRequest run = invocation.getArgument(0);
+            started.add(run.getApprovalId());
+            return execution(run.getApprovalId(), "running");
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (executionQueue != null) {
+            executionQueue.destroy();
+        }
+    }
+
+    private ApprovalExecutionQueue newQueue() {
+        executionQueue = new ApprovalExecutionQueue(approvalConfig, approvalStore, workflowEngine,
+                mock(MetricsRegistry.class));
+        executionQueue.init();
+        return executionQueue;
+    }
+
+    private static WorkflowExecutionDTO execution(String approvalId, String status) {
+        WorkflowExecutionDTO execution = new WorkflowExecutionDTO();
+        execution.setId("exec-" + approvalId);
+        execution.setStatus(status);
+        execution.setApprovalId(approvalId);
+        execution.setTriggerType("approval");
+        return execution;
+    }
+
+    private ApprovalRequestDTO insert(String id, String priority, String status, String executionId)
+            throws Exception {
+        ApprovalRequestDTO request = new ApprovalRequestDTO();
+        request.setId(id);
+        request.setTitle(id);
+        request.setType("delete_index");
+        request.setApplicant("alice");
+        request.setPriority(priority);
+        request.setStatus(status);
+        request.setExecutionId(executionId);
+        request.setContent(Map.of("indexName", "idx-" + id));
+        request.setCreatedAt(System.currentTimeMillis());
+        ApprovalRequestDTO.Node node = new ApprovalRequestDTO.Node();
+        node.setType("execution");
+        node.setStatus("pending");
+        request.setNodes(new ArrayList<>(List.of(node)));
+        approvalStore.insert(request);
+        return request;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void dispatchesByPriorityWithinCapacity() throws Exception {
+        ApprovalExecutionQueue queue = newQueue();
+        ArgumentCaptor<Consumer<WorkflowExecutionDTO>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(workflowEngine).addCompletionListener(listener.capture());
+
+        // 第一条直接占满并发，其余按优先级排队，超出容量的留在存储中
+        assertTrue(queue.enqueue(insert("a-low", "low", "approved", null)));
+        assertTrue(queue.enqueue(insert("b-normal", "normal", "approved", null)));
+        assertTrue(queue.enqueue(insert("c-urgent", "urgent", "approved", null)));
+        assertFalse(queue.enqueue(insert("d-high", "high", "approved", null)));
+
+        assertEquals(List.of("a-low"), started);
+        assertEquals(List.of("c-urgent", "b-normal"),
+                queue.getQueued().stream().map(item -> item.get("approvalId")).toList());
+        assertEquals("processing", approvalStore.get("a-low").getStatus());
+        assertEquals("approved", approvalStore.get("d-high").getStatus());
+        assertEquals(1L, queue.getStats().get("deferred"));
+
+        listener.getValue().accept(execution("a-low", "completed"));
+        await(() -> started.size() == 2);
+        assertEquals("c-urgent", started.get(1));
+        await(() -> "completed".equals(uncheckedStatus("a-low")));
+    }
+
+    @Test
+    void revokedApprovalIsNotStarted() throws Exception {
+        ApprovalExecutionQueue queue = newQueue();
+        insert("a", "normal", "cancelled", null);
+        ApprovalRequestDTO stale = approvalStore.get("a");
+        stale.setStatus("approved");
+
+        assertTrue(queue.enqueue(stale));
+        assertTrue(started.isEmpty());
+        assertEquals("cancelled", approvalStore.get("a").getStatus());
+    }
+
+    @Test
+    void recoverResolvesProcessingApprovals() throws Exception {
+        insert("running", "normal", "processing", "exec-running");
+        insert("finished", "normal", "processing", "exec-finished");
+        insert("lost", "normal", "processing", "exec-lost");
+        when(workflowEngine.getExecution("exec-running")).thenReturn(execution("running", "running"));
+        when(workflowEngine.getExecution("exec-finished")).thenReturn(execution("finished", "completed"));
+
+        ApprovalExecutionQueue queue = newQueue();
+
+        assertEquals("processing", approvalStore.get("running").getStatus());
+        assertEquals(Map.of("running", "exec-running"), queue.getStats().get("runningApprovals"));
+        assertEquals("completed", approvalStore.get("finished").getStatus());
+        assertEquals("failed", approvalStore.get("lost").getStatus());
+        assertEquals("rejected", approvalStore.get("lost").getNodes().get(0).getStatus());
+        // 执行中的申请占满并发，不再启动新的操作流
+        assertTrue(started.isEmpty());
+    }
+
+    private String uncheckedStatus(String id) {
+        try {
+            return approvalStore.get(id).getStatus();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.esmanage.service.approval;
+
+import com.esmanage.config.ApprovalConfig;
+import com.esmanage.dto.ApprovalRequestDTO;
+import com.esmanage.dto.request.ApprovalActionRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 审批服务测试，重点覆盖绑定操作流的类型不能绕过审批
+ */
+class ApprovalServiceTest {
+
+    @TempDir
+    Path dataDir;
+
+    private ApprovalStore approvalStore;
+    private ApprovalExecutionQueue executionQueue;
+    private ApprovalService approvalService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ApprovalConfig approvalConfig = new ApprovalConfig();
+        approvalConfig.setDataDir(dataDir.toString());
+        approvalConfig.setSegmentBytes(1024 * 1024);
+        approvalConfig.setForceOnWrite(false);
+        approvalStore = new ApprovalStore(approvalConfig, new ObjectMapper());
+        approvalStore.init();
+        executionQueue = mock(ApprovalExecutionQueue.class);
+        approvalService = new ApprovalService(approvalConfig, approvalStore, executionQueue);
+    }
+
+    private static ApprovalRequestDTO request(String type, Map<String, Object> content) {
+        ApprovalRequestDTO request = new ApprovalRequestDTO();
+        request.setTitle("test");
+        request.setType(type);
+        request.setApplicant("alice");
+        request.setContent(new LinkedHashMap<>(content));
+        return request;
+    }
+
+    private static ApprovalRequestDTO.Node node(String type) {
+        ApprovalRequestDTO.Node node = new ApprovalRequestDTO.Node();
+        node.setName(type);
+        node.setType(type);
+        return node;
+    }
+
+    private static ApprovalActionRequest action(String operator) {
+        ApprovalActionRequest action = new ApprovalActionRequest();
+        action.setOperator(operator);
+        return action;
+    }
+
+    @Test
+    void boundTypeRejectsCallerSuppliedNodes() throws Exception {
+        ApprovalRequestDTO request = request("delete_index", Map.of("indexName", "prod"));
+        request.setNodes(List.of(node("execution")));
+
+        assertThrows(IllegalArgumentException.class, () -> approvalService.submit(request));
+        assertEquals(0, approvalStore.getStats().get("requests"));
+        verify(executionQueue, never()).enqueue(any());
+    }
+
+    @Test
+    void boundTypeWaitsForEveryDefaultApprovalNode() throws Exception {
+        ApprovalRequestDTO submitted = approvalService.submit(request("delete_index", Map.of("indexName", "prod")));
+        assertEquals("pending", submitted.getStatus());
+        assertEquals(List.of("approval", "approval", "execution"),
+                submitted.getNodes().stream().map(ApprovalRequestDTO.Node::getType).toList());
+        verify(executionQueue, never()).enqueue(any());
+
+        assertEquals("pending", approvalService.approve(submitted.getId(), action("lead")).getStatus());
+        verify(executionQueue, never()).enqueue(any());
+
+        assertEquals("approved", approvalService.approve(submitted.getId(), action("dba")).getStatus());
+        verify(executionQueue, times(1)).enqueue(any());
+    }
+
+    @Test
+    void unboundTypeWithoutApprovalNodesIsApprovedImmediately() throws Exception {
+        ApprovalRequestDTO request = request("other", Map.of());
+        request.setNodes(List.of(node("notice")));
+
+        assertEquals("approved", approvalService.submit(request).getStatus());
+        verify(executionQueue, times(1)).enqueue(any());
+    }
+
+    @Test
+    void storeRejectsUnknownStatus() throws Exception {
+        ApprovalRequestDTO request = request("custom", Map.of());
+        request.setId("req-unknown");
+        request.setStatus("bogus");
+
+        assertThrows(IllegalArgumentException.class, () -> approvalStore.insert(request));
+        assertNull(approvalStore.get("req-unknown"));
+    }
+}
@@ -0,0 +1,133 @@
+package com.esmanage.service.datasource;
+
+import com.esmanage.client.ElasticsearchClient;
+import com.esmanage.config.ElasticsearchConfig;
+import com.esmanage.config.KibanaConfig;
+import com.esmanage.config.StandInConfig;
+import com.esmanage.config.TraceConfig;
+import com.esmanage.dto.*;
+import com.esmanage.dto.request.IndicesRequest;
+import com.esmanage.dto.request.NodesRequest;
+import com.esmanage.metrics.RequestTracer;
+import com.esmanage.standin.ElasticsearchStandIn;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 直连数据源测试，使用本地 Elasticsearch 替身
+ */
+class ElasticsearchDataSourceTest {
+
+    private static final String CLUSTER_ID = "standin-cluster";
+
+    private ElasticsearchStandIn standIn;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        StandInConfig standInConfig = new StandInConfig();
+        standInConfig.getElasticsearch().setPort(0);
+        standInConfig.getElasticsearch().setNodes(3);
+        standInConfig.getElasticsearch().setIndices(10);
+        standIn = new ElasticsearchStandIn(standInConfig);
+        standIn.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        standIn.stop();
+    }
+
+    private ElasticsearchDataSource dataSource(List<String> hosts) {
+        return new ElasticsearchDataSource(client(hosts));
+    }
+
+    private ElasticsearchClient client(List<String> hosts) {
+        ElasticsearchConfig elasticsearchConfig = new ElasticsearchConfig();
+        elasticsearchConfig.setHosts(hosts);
+        elasticsearchConfig.setConnectTimeoutMs(1000);
+        KibanaConfig kibanaConfig = new KibanaConfig();
+        kibanaConfig.setClusterId(CLUSTER_ID);
+        RequestTracer requestTracer = new RequestTracer(new TraceConfig());
+        requestTracer.init();
+        ElasticsearchClient client = new ElasticsearchClient(elasticsearchConfig, kibanaConfig,
+                new ObjectMapper(), requestTracer);
+        client.init();
+        return client;
+    }
+
+    private String standInUrl() {
+        return "http://127.0.0.1:" + standIn.getPort();
+    }
+
+    @Test
+    void clusterOverviewAndNodes() throws Exception {
+        ElasticsearchDataSource dataSource = dataSource(List.of(standInUrl()));
+
+        ClusterOverviewDTO overview = dataSource.getClusterOverview(null, null);
+        assertEquals(3, overview.getClusterStatus().getNodesCount());
+        assertEquals(10, overview.getClusterStatus().getIndicesCount());
+        assertNotNull(overview.getMetrics().getCluster_search_request_rate());
+
+        NodesResponseDTO nodes = dataSource.getNodes(CLUSTER_ID, new NodesRequest());
+        assertEquals(3, nodes.getTotalNodeCount());
+        NodeInfoDTO node = nodes.getNodes().get(0);
+        assertNotNull(node.getName());
+
+        NodeDetailDTO detail = dataSource.getNodeDetail(CLUSTER_ID, node.getUuid(), null);
+        assertEquals(node.getUuid(), detail.getNodeSummary().getResolver());
+        assertNotNull(detail.getMetrics().get(MetricCatalog.NODE_CPU));
+    }
+
+    @Test
+    void indicesAndIndexDetail() throws Exception {
+        ElasticsearchDataSource dataSource = dataSource(List.of(standInUrl()));
+
+        IndicesResponseDTO indices = dataSource.getIndices(null, new IndicesRequest());
+        assertFalse(indices.getIndices().isEmpty());
+        String indexName = indices.getIndices().get(0).getName();
+
+        IndexDetailDTO detail = dataSource.getIndexDetail(null, indexName, null);
+        assertEquals(indexName, detail.getIndexSummary().getName());
+        assertFalse(detail.getShards().isEmpty());
+        assertEquals(detail.getShards().size(), detail.getIndexSummary().getTotalShards());
+    }
+
+    @Test
+    void unknownClusterIsRejected() {
+        ElasticsearchDataSource dataSource = dataSource(List.of(standInUrl()));
+
+        assertThrows(IllegalArgumentException.class, () -> dataSource.getNodes("other-cluster", new NodesRequest()));
+    }
+
+    @Test
+    void failsOverToNextHostOnConnectionError() throws Exception {
+        // 第一个地址无人监听，请求应换到替身
+        ElasticsearchDataSource dataSource = dataSource(List.of("http://127.0.0.1:1", standInUrl()));
+
+        NodesResponseDTO nodes = dataSource.getNodes(null, new NodesRequest());
+        assertEquals(3, nodes.getTotalNodeCount());
+    }
+
+    @Test
+    void unknownNodeReturnsNull() throws Exception {
+        ElasticsearchDataSource dataSource = dataSource(List.of(standInUrl()));
+
+        assertNull(dataSource.getNodeDetail(CLUSTER_ID, "no-such-node", null));
+    }
+
+    @Test
+    void connectionFailureIsCountedInApiStats() {
+        ElasticsearchClient client = client(List.of("http://127.0.0.1:1"));
+        ElasticsearchDataSource dataSource = new ElasticsearchDataSource(client);
+
+        assertThrows(IOException.class, () -> dataSource.getNodes(null, new NodesRequest()));
+        assertFalse(client.getApiStatsMap().isEmpty());
+    }
+}
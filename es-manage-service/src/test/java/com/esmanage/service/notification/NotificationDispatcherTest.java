@@ -0,0 +1,129 @@
+package com.esmanage.service.notification;
+
+import com.esmanage.config.AlertConfig;
+import com.esmanage.dto.AlertRecordDTO;
+import com.esmanage.dto.AlertRuleDTO;
+import com.esmanage.dto.NotificationChannelDTO;
+import com.esmanage.metrics.MetricsRegistry;
+import com.esmanage.service.alert.AlertRecordStore;
+import com.esmanage.service.alert.AlertRuleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class NotificationDispatcherTest {
+
+    private final AlertConfig alertConfig = new AlertConfig();
+    private final AlertRuleService ruleService = mock(AlertRuleService.class);
+    private final AlertRecordStore recordStore = mock(AlertRecordStore.class);
+    private final NotificationChannelService channelService = mock(NotificationChannelService.class);
+    private final List<NotificationMessage> sent = new CopyOnWriteArrayList<>();
+    private NotificationDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        AlertConfig.Notification config = alertConfig.getNotification();
+        config.setTickMs(10);
+        config.setGroupWindowMs(50);
+
+        AlertRuleDTO rule = new AlertRuleDTO();
+        rule.setId("rule-1");
+        rule.setNotificationChannels(List.of("ch-1"));
+        when(ruleService.getRule("rule-1")).thenReturn(rule);
+
+        NotificationChannelDTO channel = new NotificationChannelDTO();
+        channel.setId("ch-1");
+        channel.setType("test");
+        channel.setEnabled(true);
+        channel.setConfig(new HashMap<>());
+        when(channelService.getChannel("ch-1")).thenReturn(channel);
+
+        NotificationSender sender = new NotificationSender() {
+            @Override
+            public String getType() {
+                return "test";
+            }
+
+            @Override
+            public CompletableFuture<Void> send(NotificationChannelDTO target, NotificationMessage message) {
+                sent.add(message);
+                return CompletableFuture.completedFuture(null);
+            }
+        };
+        dispatcher = new NotificationDispatcher(alertConfig, ruleService, recordStore, channelService,
+                List.of(sender), mock(MetricsRegistry.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.stop();
+    }
+
+    private AlertRecordDTO event(String id, String target, String status) {
+        AlertRecordDTO event = new AlertRecordDTO();
+        event.setId(id);
+        event.setRuleId("rule-1");
+        event.setRuleName("节点离线");
+        event.setSeverity("critical");
+        event.setTarget(target);
+        event.setStatus(status);
+        return event;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void groupsEventsByRuleAndStatusAndRecordsResultsInOneBatch() throws Exception {
+        dispatcher.start();
+        dispatcher.onAlertEvents(List.of(event("r1", "node-1", "firing"), event("r2", "node-2", "firing"),
+                event("r3", "node-3", "resolved")));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sent.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(2, sent.size());
+        NotificationMessage firing = sent.stream().filter(m -> "firing".equals(m.getStatus())).findFirst().orElseThrow();
+        assertEquals(List.of("r1", "r2"), firing.getRecordIds());
+        assertTrue(firing.getTitle().startsWith("[CRITICAL] 节点离线 (2)"));
+
+        ArgumentCaptor<Collection<String>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(recordStore, timeout(5000).times(2)).addNotification(ids.capture(), any());
+        assertTrue(ids.getAllValues().contains(List.of("r1", "r2")));
+    }
+
+    @Test
+    void deduplicatesWithinWindow() {
+        dispatcher.onAlertEvents(List.of(event("r1", "node-1", "firing")));
+        dispatcher.onAlertEvents(List.of(event("r1", "node-1", "firing")));
+        dispatcher.onAlertEvents(List.of(event("r1", "node-1", "resolved")));
+
+        Map<String, Object> stats = dispatcher.getStats();
+        assertEquals(1L, stats.get("deduplicated"));
+        assertEquals(2, stats.get("dedupKeys"));
+    }
+
+    @Test
+    void droppedEventIsNotDeduplicated() {
+        alertConfig.getNotification().setQueueCapacity(1);
+        dispatcher.onAlertEvents(List.of(event("r1", "node-1", "firing")));
+        dispatcher.onAlertEvents(List.of(event("r2", "node-2", "firing")));
+        dispatcher.onAlertEvents(List.of(event("r2", "node-2", "firing")));
+
+        Map<String, Object> stats = dispatcher.getStats();
+        assertEquals(0L, stats.get("deduplicated"));
+        assertEquals(1, stats.get("dedupKeys"));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> channel = (Map<String, Object>) ((Map<String, Object>) stats.get("channels")).get("ch-1");
+        assertEquals(2L, channel.get("dropped"));
+    }
+}
@@ -0,0 +1,28 @@
+package com.esmanage.service.notification;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    @Test
+    void limitsBurstAndRefillsOverTime() {
+        TokenBucket bucket = new TokenBucket(60, 2, 0);
+
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(500));
+        assertTrue(bucket.tryAcquire(1000));
+        assertEquals(2.0, bucket.available(10_000), 1e-9);
+    }
+
+    @Test
+    void burstIsAtLeastOne() {
+        TokenBucket bucket = new TokenBucket(0, 0, 0);
+
+        assertTrue(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(60_000));
+    }
+}
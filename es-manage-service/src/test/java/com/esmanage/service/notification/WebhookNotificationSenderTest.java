@@ -0,0 +1,144 @@
+package com.esmanage.service.notification;
+
+import com.esmanage.config.StandInConfig;
+import com.esmanage.dto.NotificationChannelDTO;
+import com.esmanage.standin.WebhookStandIn;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Webhook 与钉钉渠道发送测试，使用本地通知接收端替身
+ */
+class WebhookNotificationSenderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private StandInConfig standInConfig;
+    private WebhookStandIn standIn;
+    private NotificationHttpClient httpClient;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        standInConfig = new StandInConfig();
+        standInConfig.getWebhook().setPort(0);
+        standIn = new WebhookStandIn(standInConfig);
+        standIn.start();
+        httpClient = new NotificationHttpClient();
+        httpClient.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        standIn.stop();
+    }
+
+    private String baseUrl() {
+        return "http://127.0.0.1:" + standIn.getPort();
+    }
+
+    private NotificationChannelDTO channel(String type, Map<String, Object> config) {
+        NotificationChannelDTO channel = new NotificationChannelDTO();
+        channel.setId("test");
+        channel.setName("test");
+        channel.setType(type);
+        channel.setConfig(config);
+        return channel;
+    }
+
+    private NotificationMessage message() {
+        NotificationMessage message = new NotificationMessage();
+        message.setRuleId("rule-1");
+        message.setSeverity("critical");
+        message.setStatus("firing");
+        message.setTitle("[CRITICAL] 节点离线");
+        message.setContent("node-1 \"offline\"");
+        message.setRecordIds(List.of("r1", "r2"));
+        return message;
+    }
+
+    private JsonNode received() throws Exception {
+        String body = httpClient.execute("GET", baseUrl() + "/received", null, null).get(5, TimeUnit.SECONDS);
+        return objectMapper.readTree(body);
+    }
+
+    @Test
+    void webhookSendsDefaultBody() throws Exception {
+        Map<String, Object> config = new HashMap<>();
+        config.put("url", baseUrl() + "/webhook");
+        new WebhookNotificationSender(httpClient, objectMapper)
+                .send(channel("webhook", config), message()).get(5, TimeUnit.SECONDS);
+
+        JsonNode body = received().get(0);
+        assertEquals("rule-1", body.path("ruleId").asText());
+        assertEquals(2, body.path("count").asInt());
+    }
+
+    @Test
+    void webhookTemplateEscapesValues() throws Exception {
+        Map<String, Object> config = new HashMap<>();
+        config.put("url", baseUrl() + "/webhook");
+        config.put("template", "{\"text\":\"${content}\",\"n\":${count}}");
+        new WebhookNotificationSender(httpClient, objectMapper)
+                .send(channel("webhook", config), message()).get(5, TimeUnit.SECONDS);
+
+        JsonNode body = received().get(0);
+        assertEquals("node-1 \"offline\"", body.path("text").asText());
+        assertEquals(2, body.path("n").asInt());
+    }
+
+    @Test
+    void dingTalkSendsMarkdown() throws Exception {
+        Map<String, Object> config = new HashMap<>();
+        config.put("webhookUrl", baseUrl() + "/robot/send?access_token=t");
+        config.put("secret", "SEC123");
+        new DingTalkNotificationSender(httpClient, objectMapper)
+                .send(channel("dingtalk", config), message()).get(5, TimeUnit.SECONDS);
+
+        JsonNode body = received().get(0);
+        assertEquals("markdown", body.path("msgtype").asText());
+        assertTrue(body.path("markdown").path("text").asText().contains("节点离线"));
+    }
+
+    @Test
+    void failedDeliveryCompletesExceptionally() {
+        standInConfig.getWebhook().setFailureRate(1);
+        Map<String, Object> config = new HashMap<>();
+        config.put("url", baseUrl() + "/webhook");
+
+        ExecutionException error = assertThrows(ExecutionException.class, () ->
+                new WebhookNotificationSender(httpClient, objectMapper)
+                        .send(channel("webhook", config), message()).get(5, TimeUnit.SECONDS));
+        assertTrue(error.getCause().getMessage().contains("HTTP 500"));
+    }
+
+    @Test
+    void webhookHeadersMustBeStrings() throws Exception {
+        Map<String, Object> config = new HashMap<>();
+        config.put("url", baseUrl() + "/webhook");
+        config.put("headers", Map.of("X-Token", "abc"));
+        assertEquals(Map.of("X-Token", "abc"), WebhookNotificationSender.headers(config));
+        new WebhookNotificationSender(httpClient, objectMapper)
+                .send(channel("webhook", config), message()).get(5, TimeUnit.SECONDS);
+
+        config.put("headers", Map.of("X-Retries", 3));
+        assertThrows(IllegalArgumentException.class, () -> WebhookNotificationSender.headers(config));
+        ExecutionException error = assertThrows(ExecutionException.class, () ->
+                new WebhookNotificationSender(httpClient, objectMapper)
+                        .send(channel("webhook", config), message()).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, error.getCause());
+
+        config.put("headers", List.of("X-Token"));
+        assertThrows(IllegalArgumentException.class, () -> WebhookNotificationSender.headers(config));
+    }
+}
@@ -0,0 +1,150 @@
+package com.esmanage.service.workflow;
+
+import com.esmanage.client.ElasticsearchClient;
+import com.esmanage.config.WorkflowConfig;
+import com.esmanage.dto.BulkIndexOperationDTO;
+import com.esmanage.dto.request.BulkIndexOperationRequest;
+import com.esmanage.metrics.MetricsRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 批量索引操作测试：显式索引名校验、路径编码、失败批次二分定位与自适应并发
+ */
+class BulkIndexOperationServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private WorkflowConfig workflowConfig;
+    private WorkflowHttpExecutor httpExecutor;
+    private BulkIndexOperationService service;
+    /** 按发出顺序记录的批次路径 */
+    private final List<String> paths = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        workflowConfig = new WorkflowConfig();
+        workflowConfig.getBulk().setBackoffMs(10);
+        httpExecutor = mock(WorkflowHttpExecutor.class);
+        when(httpExecutor.execute(eq("GET"), startsWith("/_cluster/pending_tasks"), any(), any(), anyLong()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(
+                        new WorkflowHttpExecutor.HttpResult(200, objectMapper.readTree("{\"tasks\":[]}"), 0, 0)));
+        service = new BulkIndexOperationService(workflowConfig, mock(ElasticsearchClient.class), httpExecutor,
+                objectMapper, mock(MetricsRegistry.class));
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    /**
+     * 批次请求按路径给出状态码，异步完成
+     */
+    private void respond(Function<String, Integer> status) {
+        when(httpExecutor.execute(eq("PUT"), anyString(), any(), any(), anyLong())).thenAnswer(invocation -> {
+            String path = invocation.getArgument(1);
+            paths.add(path);
+            int code = status.apply(path);
+            return CompletableFuture.supplyAsync(() -> new WorkflowHttpExecutor.HttpResult(code,
+                    objectMapper.createObjectNode().put("acknowledged", code == 200), 1, 0));
+        });
+    }
+
+    private static BulkIndexOperationRequest settings(List<String> indices) {
+        BulkIndexOperationRequest request = new BulkIndexOperationRequest();
+        request.setOperation("settings");
+        request.setIndices(indices);
+        request.setSettings(Map.of("index.number_of_replicas", 1));
+        return request;
+    }
+
+    private BulkIndexOperationDTO await(String id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        BulkIndexOperationDTO operation = service.getOperation(id);
+        while ("running".equals(operation.getStatus())) {
+            assertTrue(System.currentTimeMillis() < deadline, "operation did not finish in time");
+            Thread.sleep(10);
+            operation = service.getOperation(id);
+        }
+        return operation;
+    }
+
+    @Test
+    void explicitIndicesMustBeConcreteNames() {
+        for (String name : List.of(" _all", "_all,", "a,b/_close?", "logs-*", "-x", "+x", "a b", "a#b", "a\\b",
+                "a\"b", "a<b", "a|b", "..")) {
+            assertThrows(IllegalArgumentException.class, () -> service.start(settings(List.of(name))), name);
+        }
+        verify(httpExecutor, never()).execute(eq("PUT"), anyString(), any(), any(), anyLong());
+    }
+
+    @Test
+    void explicitIndicesAreTrimmedAndEncodedInThePath() throws Exception {
+        respond(path -> 200);
+        BulkIndexOperationRequest request = settings(List.of(" logs-b ", "logs-a", "日志"));
+        BulkIndexOperationDTO started = service.start(request);
+        BulkIndexOperationDTO finished = await(started.getId());
+
+        assertEquals("completed", finished.getStatus());
+        assertEquals(3, finished.getSucceeded());
+        assertEquals(List.of("/logs-a,logs-b,%E6%97%A5%E5%BF%97/_settings?ignore_unavailable=true"), paths);
+    }
+
+    @Test
+    void failingBatchIsBisectedToTheFailingIndex() throws Exception {
+        respond(path -> path.contains("idx-c") ? 404 : 200);
+        BulkIndexOperationDTO started = service.start(settings(List.of("idx-a", "idx-b", "idx-c", "idx-d")));
+        BulkIndexOperationDTO finished = await(started.getId());
+
+        assertEquals("partial", finished.getStatus());
+        assertEquals(3, finished.getSucceeded());
+        assertEquals(1, finished.getFailed());
+        assertEquals("idx-c", finished.getFailures().get(0).getIndex());
+        // 1 个原始批次拆成 a,b / c,d，再把 c,d 拆成 c / d
+        assertEquals(5, paths.size());
+        assertEquals(3, finished.getBatches());
+    }
+
+    @Test
+    void throttledBatchHalvesConcurrencyAndIsRetried() throws Exception {
+        workflowConfig.getBulk().setMaxIndicesPerBatch(1);
+        workflowConfig.getBulk().setInitialConcurrency(4);
+        AtomicInteger throttled = new AtomicInteger();
+        respond(path -> path.startsWith("/idx-0/") && throttled.getAndIncrement() == 0 ? 429 : 200);
+        BulkIndexOperationDTO started = service.start(settings(List.of(
+                "idx-0", "idx-1", "idx-2", "idx-3", "idx-4", "idx-5", "idx-6", "idx-7")));
+        BulkIndexOperationDTO finished = await(started.getId());
+
+        assertEquals("completed", finished.getStatus());
+        assertEquals(8, finished.getSucceeded());
+        assertEquals(1, finished.getBackoffs());
+        assertEquals(9, paths.size());
+        // 减半后的并发随连续成功逐步加回，不超过上限
+        assertTrue(finished.getConcurrency() >= 2 && finished.getConcurrency() <= 8);
+    }
+
+    @Test
+    void allFailedBatchesReportFailed() throws Exception {
+        respond(path -> 400);
+        BulkIndexOperationDTO started = service.start(settings(List.of("idx-a", "idx-b")));
+        BulkIndexOperationDTO finished = await(started.getId());
+
+        assertEquals("failed", finished.getStatus());
+        assertEquals(2, finished.getFailed());
+    }
+}
@@ -0,0 +1,40 @@
+package com.esmanage.service.workflow;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemplateRendererTest {
+
+    private final TemplateRenderer renderer = new TemplateRenderer(new ObjectMapper());
+
+    @Test
+    void renderPathEncodesPathSegmentVariables() {
+        String path = renderer.renderPath("/{{indexName}}/_settings",
+                Map.of("indexName", "x/_close?"));
+
+        assertEquals("/x%2F_close%3F/_settings", path);
+    }
+
+    @Test
+    void renderPathKeepsLiteralSeparatorsAndEncodesQueryValues() {
+        String path = renderer.renderPath("/{{sourceIndex}},{{targetIndex}}/_count?q={{query}}",
+                Map.of("sourceIndex", "logs-a", "targetIndex", "日志", "query", "a&b=c"));
+
+        assertEquals("/logs-a,%E6%97%A5%E5%BF%97/_count?q=a%26b%3Dc", path);
+    }
+
+    @Test
+    void renderPathUsesFallbackCandidates() {
+        assertEquals("/dest", renderer.renderPath("/{{targetIndex|destIndex}}", Map.of("destIndex", "dest")));
+        assertThrows(IllegalArgumentException.class, () -> renderer.renderPath("/{{indexName}}", Map.of()));
+    }
+
+    @Test
+    void renderTextInsertsValuesVerbatim() {
+        assertEquals("索引 a/b 已创建", renderer.renderText("索引 {{name}} 已创建", Map.of("name", "a/b")));
+    }
+}
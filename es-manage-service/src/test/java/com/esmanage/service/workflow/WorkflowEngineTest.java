@@ -0,0 +1,175 @@
+package com.esmanage.service.workflow;
+
+import com.esmanage.config.WorkflowConfig;
+import com.esmanage.dto.WorkflowExecutionDTO;
+import com.esmanage.dto.WorkflowStepDTO;
+import com.esmanage.dto.request.WorkflowRunRequest;
+import com.esmanage.metrics.MetricsRegistry;
+import com.esmanage.service.notification.NotificationChannelService;
+import com.esmanage.service.notification.NotificationDispatcher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 操作流引擎测试：依赖图并行、失败跳过后继、可重试失败的退避重试
+ */
+class WorkflowEngineTest {
+
+    private final WorkflowConfig workflowConfig = new WorkflowConfig();
+    private final WorkflowCatalog workflowCatalog = mock(WorkflowCatalog.class);
+    private final WorkflowHttpExecutor httpExecutor = mock(WorkflowHttpExecutor.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /** 路径 -> 尚未完成的调用，由测试控制完成时机 */
+    private final Map<String, CompletableFuture<WorkflowHttpExecutor.HttpResult>> calls = new ConcurrentHashMap<>();
+    private final CompletableFuture<WorkflowExecutionDTO> done = new CompletableFuture<>();
+    private WorkflowEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        workflowConfig.setRetryBackoffMs(1);
+        when(workflowCatalog.getDefaults(anyString())).thenAnswer(invocation -> new LinkedHashMap<>());
+        engine = new WorkflowEngine(workflowConfig, workflowCatalog, new TemplateRenderer(objectMapper), httpExecutor,
+                mock(WorkflowExecutionStore.class), mock(NotificationDispatcher.class),
+                mock(NotificationChannelService.class), objectMapper, mock(MetricsRegistry.class));
+        engine.init();
+        engine.addCompletionListener(done::complete);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.destroy();
+    }
+
+    private void deferCalls() {
+        when(httpExecutor.execute(anyString(), anyString(), any(), any(), anyLong())).thenAnswer(invocation -> {
+            CompletableFuture<WorkflowHttpExecutor.HttpResult> call = new CompletableFuture<>();
+            calls.put(invocation.getArgument(1), call);
+            return call;
+        });
+    }
+
+    private static WorkflowHttpExecutor.HttpResult result(int status) {
+        return new WorkflowHttpExecutor.HttpResult(status, JsonNodeFactory.instance.objectNode(), 1, 2);
+    }
+
+    private static WorkflowStepDTO step(String id, String endpoint, String... dependsOn) {
+        WorkflowStepDTO step = new WorkflowStepDTO();
+        step.setId(id);
+        step.setType("custom_api");
+        step.setConfig(new LinkedHashMap<>(Map.of("method", "POST", "endpoint", endpoint)));
+        step.setDependsOn(List.of(dependsOn));
+        return step;
+    }
+
+    private WorkflowExecutionDTO run(WorkflowStepDTO... steps) {
+        WorkflowRunRequest request = new WorkflowRunRequest();
+        request.setSteps(List.of(steps));
+        return engine.start(request);
+    }
+
+    private void complete(String path, int status) {
+        assertTrue(calls.containsKey(path), "no call to " + path);
+        calls.remove(path).complete(result(status));
+    }
+
+    private static WorkflowStepDTO stepOf(WorkflowExecutionDTO execution, String id) {
+        return execution.getSteps().stream().filter(s -> id.equals(s.getId())).findFirst().orElseThrow();
+    }
+
+    @Test
+    void independentStepsRunInParallel() throws Exception {
+        deferCalls();
+        run(step("a", "/a"), step("b", "/b", "a"), step("c", "/c", "a"), step("d", "/d", "b", "c"));
+
+        assertEquals(Set.of("/a"), calls.keySet());
+        complete("/a", 200);
+        assertEquals(Set.of("/b", "/c"), calls.keySet());
+        complete("/c", 200);
+        assertEquals(Set.of("/b"), calls.keySet());
+        complete("/b", 200);
+        complete("/d", 200);
+
+        WorkflowExecutionDTO execution = done.get(5, TimeUnit.SECONDS);
+        assertEquals("completed", execution.getStatus());
+        assertEquals(100, execution.getProgress());
+    }
+
+    @Test
+    void failedStepSkipsDescendantsOnly() throws Exception {
+        deferCalls();
+        run(step("a", "/a"), step("b", "/b", "a"), step("c", "/c"), step("d", "/d", "b"));
+
+        complete("/c", 200);
+        complete("/a", 400);
+
+        WorkflowExecutionDTO execution = done.get(5, TimeUnit.SECONDS);
+        assertEquals("failed", execution.getStatus());
+        assertEquals("failed", stepOf(execution, "a").getStatus());
+        assertEquals("skipped", stepOf(execution, "b").getStatus());
+        assertEquals("skipped", stepOf(execution, "d").getStatus());
+        assertEquals("completed", stepOf(execution, "c").getStatus());
+        assertTrue(calls.isEmpty());
+    }
+
+    @Test
+    void retriesServerErrorsWithBackoff() throws Exception {
+        when(httpExecutor.execute(anyString(), anyString(), any(), any(), anyLong()))
+                .thenReturn(CompletableFuture.completedFuture(result(503)))
+                .thenReturn(CompletableFuture.completedFuture(result(200)));
+        WorkflowStepDTO step = step("a", "/a");
+        step.setMaxRetries(2);
+        run(step);
+
+        WorkflowExecutionDTO execution = done.get(5, TimeUnit.SECONDS);
+        assertEquals("completed", execution.getStatus());
+        assertEquals(1, stepOf(execution, "a").getRetryCount());
+        assertEquals(1L, engine.getStats().get("stepRetries"));
+        verify(httpExecutor, times(2)).execute(anyString(), anyString(), any(), any(), anyLong());
+    }
+
+    @Test
+    void clientErrorsAreNotRetried() throws Exception {
+        when(httpExecutor.execute(anyString(), anyString(), any(), any(), anyLong()))
+                .thenReturn(CompletableFuture.completedFuture(result(404)));
+        WorkflowStepDTO step = step("a", "/a");
+        step.setMaxRetries(3);
+        run(step);
+
+        assertEquals("failed", done.get(5, TimeUnit.SECONDS).getStatus());
+        verify(httpExecutor, times(1)).execute(anyString(), anyString(), any(), any(), anyLong());
+    }
+
+    @Test
+    void cancelSkipsPendingSteps() throws Exception {
+        deferCalls();
+        WorkflowExecutionDTO started = run(step("a", "/a"), step("b", "/b", "a"));
+
+        WorkflowExecutionDTO cancelled = engine.cancel(started.getId());
+
+        assertEquals("skipped", stepOf(cancelled, "b").getStatus());
+        assertEquals("cancelled", done.get(5, TimeUnit.SECONDS).getStatus());
+    }
+
+    @Test
+    void rejectsInvalidGraphs() {
+        assertThrows(IllegalArgumentException.class, () -> run(step("a", "/a", "b"), step("b", "/b", "a")));
+        assertThrows(IllegalArgumentException.class, () -> run(step("a", "/a", "missing")));
+        assertThrows(IllegalArgumentException.class, () -> run(step("a", "/a"), step("a", "/b")));
+        verifyNoInteractions(httpExecutor);
+    }
+}
@@ -0,0 +1,136 @@
+package com.esmanage.standin;
+
+import com.esmanage.config.KibanaConfig;
+import com.esmanage.config.StandInConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Kibana 替身测试：合成数据回放、分页、故障注入与录制后回放
+ */
+class KibanaStandInTest {
+
+    private static final String CLUSTER = "/api/monitoring/v1/clusters/c1/elasticsearch";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final List<KibanaStandIn> started = new ArrayList<>();
+
+    @TempDir
+    Path fixturesDir;
+
+    @AfterEach
+    void tearDown() {
+        started.forEach(KibanaStandIn::stop);
+    }
+
+    private KibanaStandIn start(StandInConfig.Kibana config) throws Exception {
+        StandInConfig standInConfig = new StandInConfig();
+        config.setPort(0);
+        standInConfig.setKibana(config);
+        KibanaStandIn standIn = new KibanaStandIn(standInConfig, new KibanaConfig(), objectMapper);
+        standIn.start();
+        started.add(standIn);
+        return standIn;
+    }
+
+    private StandInConfig.Kibana replay(int nodes, int indices) {
+        StandInConfig.Kibana config = new StandInConfig.Kibana();
+        config.setFixturesDir(fixturesDir.toString());
+        config.setNodes(nodes);
+        config.setIndices(indices);
+        return config;
+    }
+
+    private HttpResponse<String> post(KibanaStandIn standIn, String path, String body) throws Exception {
+        return httpClient.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + standIn.getPort() + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void classifiesMonitoringRoutes() {
+        assertEquals("clusters", KibanaStandIn.route("/api/monitoring/v1/clusters"));
+        assertEquals("cluster-overview", KibanaStandIn.route(CLUSTER));
+        assertEquals("nodes", KibanaStandIn.route(CLUSTER + "/nodes"));
+        assertEquals("node-detail", KibanaStandIn.route(CLUSTER + "/nodes/n1"));
+        assertEquals("indices", KibanaStandIn.route(CLUSTER + "/indices"));
+        assertEquals("index-detail", KibanaStandIn.route(CLUSTER + "/indices/logs"));
+        assertNull(KibanaStandIn.route(CLUSTER + "/ml_jobs"));
+        assertNull(KibanaStandIn.route("/api/status"));
+    }
+
+    @Test
+    void replaysSyntheticNodesWithPagination() throws Exception {
+        KibanaStandIn standIn = start(replay(5, 10));
+
+        JsonNode all = objectMapper.readTree(post(standIn, CLUSTER + "/nodes",
+                "{\"pagination\":{\"index\":0,\"size\":100}}").body());
+        assertEquals(5, all.path("nodes").size());
+
+        JsonNode page = objectMapper.readTree(post(standIn, CLUSTER + "/nodes",
+                "{\"pagination\":{\"index\":2,\"size\":2}}").body());
+        assertEquals(1, page.path("nodes").size());
+        assertEquals(all.path("nodes").get(4).path("uuid"), page.path("nodes").get(0).path("uuid"));
+
+        assertEquals(404, post(standIn, CLUSTER + "/ml_jobs", "{}").statusCode());
+        @SuppressWarnings("unchecked")
+        Map<String, Long> requests = (Map<String, Long>) standIn.getStats().get("requests");
+        assertEquals(2L, requests.get("nodes"));
+        assertEquals("replay", standIn.getStats().get("mode"));
+    }
+
+    @Test
+    void injectsErrorsPerRoute() throws Exception {
+        StandInConfig.Kibana config = replay(3, 5);
+        StandInConfig.Injection failing = new StandInConfig.Injection();
+        failing.setErrorRate(1);
+        failing.setErrorStatus(502);
+        config.getRoutes().put("nodes", failing);
+        KibanaStandIn standIn = start(config);
+
+        assertEquals(502, post(standIn, CLUSTER + "/nodes", "{}").statusCode());
+        assertEquals(200, post(standIn, CLUSTER + "/indices", "{}").statusCode());
+        assertEquals(1L, standIn.getStats().get("injectedErrors"));
+    }
+
+    @Test
+    void recordsUpstreamResponsesAndReplaysScaledCopies() throws Exception {
+        Path upstreamDir = Files.createDirectory(fixturesDir.resolve("upstream"));
+        StandInConfig.Kibana upstreamConfig = replay(3, 5);
+        upstreamConfig.setFixturesDir(upstreamDir.toString());
+        KibanaStandIn upstream = start(upstreamConfig);
+
+        StandInConfig.Kibana recordConfig = replay(0, 0);
+        recordConfig.setMode("record");
+        recordConfig.setUpstreamUrl("http://127.0.0.1:" + upstream.getPort() + "/");
+        KibanaStandIn recorder = start(recordConfig);
+
+        HttpResponse<String> recorded = post(recorder, CLUSTER + "/nodes", "{\"pagination\":{\"index\":0,\"size\":100}}");
+        assertEquals(200, recorded.statusCode());
+        assertEquals(3, objectMapper.readTree(Files.readString(fixturesDir.resolve("nodes.json")))
+                .path("nodes").size());
+        assertEquals("record", recorder.getStats().get("mode"));
+
+        KibanaStandIn scaled = start(replay(7, 0));
+        JsonNode nodes = objectMapper.readTree(post(scaled, CLUSTER + "/nodes",
+                "{\"pagination\":{\"index\":0,\"size\":100}}").body()).path("nodes");
+        assertEquals(7, nodes.size());
+        assertEquals(7, nodes.findValuesAsText("uuid").stream().distinct().count());
+    }
+}
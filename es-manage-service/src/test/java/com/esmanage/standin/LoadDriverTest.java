@@ -0,0 +1,110 @@
+package com.esmanage.standin;
+
+import com.esmanage.config.StandInConfig;
+import com.esmanage.dto.LoadTestReportDTO;
+import com.esmanage.dto.request.LoadTestRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 压测驱动测试，以本地 HTTP 服务代替服务自身的监控接口
+ */
+class LoadDriverTest {
+
+    private HttpServer server;
+    private LoadDriver driver;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            int status = exchange.getRequestURI().getPath().equals("/ok") ? 200 : 404;
+            byte[] body = "{}".getBytes();
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("local.server.port", String.valueOf(server.getAddress().getPort()));
+        driver = new LoadDriver(new StandInConfig(), new ObjectMapper(), environment, mock(ObjectProvider.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        driver.shutdown();
+        server.stop(0);
+    }
+
+    private LoadTestRequest request(int concurrency, int durationSec, LoadTestRequest.Target... targets) {
+        LoadTestRequest request = new LoadTestRequest();
+        request.setConcurrency(concurrency);
+        request.setDurationSec(durationSec);
+        request.setWarmupSec(0);
+        request.setTargets(List.of(targets));
+        return request;
+    }
+
+    private LoadTestReportDTO await(LoadTestReportDTO report) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (report.getEndTime() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        return report;
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        LoadTestRequest.Target ok = new LoadTestRequest.Target("/ok", 1);
+        assertThrows(IllegalArgumentException.class, () -> driver.start(request(0, 1, ok)));
+        assertThrows(IllegalArgumentException.class, () -> driver.start(request(1, 0, ok)));
+        assertThrows(IllegalArgumentException.class,
+                () -> driver.start(request(1, 1, new LoadTestRequest.Target("ok", 1))));
+        assertThrows(IllegalArgumentException.class,
+                () -> driver.start(request(1, 1, new LoadTestRequest.Target("/ok", 0))));
+        assertNull(driver.getLatest());
+    }
+
+    @Test
+    void measuresPerTargetLatencyAndStatuses() throws Exception {
+        LoadTestReportDTO report = await(driver.start(request(2, 1,
+                new LoadTestRequest.Target("/ok", 3), new LoadTestRequest.Target("/missing", 1))));
+
+        assertEquals("completed", report.getStatus());
+        assertSame(report, driver.getLatest());
+        assertEquals(2, report.getEndpoints().size());
+        LoadTestReportDTO.EndpointResult ok = report.getEndpoints().get(0);
+        LoadTestReportDTO.EndpointResult missing = report.getEndpoints().get(1);
+        assertTrue(ok.getRequests() > 0);
+        assertEquals(0L, ok.getErrors());
+        assertEquals(ok.getRequests(), ok.getStatuses().get(200));
+        assertEquals(missing.getRequests(), missing.getErrors());
+        assertEquals(ok.getRequests() + missing.getRequests(), report.getRequests());
+        assertEquals(missing.getErrors(), report.getErrors());
+        assertTrue(ok.getP50Ms() <= ok.getP99Ms() && ok.getP99Ms() <= ok.getMaxMs());
+        assertTrue(report.getThroughput() > 0);
+    }
+
+    @Test
+    void allowsOneRunAtATimeAndCancels() throws Exception {
+        LoadTestReportDTO report = driver.start(request(1, 60, new LoadTestRequest.Target("/ok", 1)));
+
+        assertThrows(IllegalStateException.class,
+                () -> driver.start(request(1, 1, new LoadTestRequest.Target("/ok", 1))));
+        assertTrue(driver.cancel());
+        assertEquals("cancelled", await(report).getStatus());
+    }
+}